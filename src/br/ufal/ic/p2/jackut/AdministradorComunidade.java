@@ -1,6 +1,6 @@
 /**
  * Classe que representa um Administrador de Comunidade no sistema Jackut.
- * Herda de Users e gerencia operaes especficas de administrao de comunidades.
+ * Herda de Users e gerencia operações específicas de administração de comunidades.
  */
 package br.ufal.ic.p2.jackut;
 
@@ -11,46 +11,49 @@ import java.util.List;
 
 /**
  * Classe que representa um Administrador de Comunidade no sistema Jackut,
- * especializado na gesto de comunidades. Herda funcionalidades bsicas de {@link Users}
- * e adiciona operaes especficas para criao e gesto de comunidades.
+ * especializado na gestão de comunidades. Herda funcionalidades básicas de {@link Users}
+ * e adiciona operações específicas para criação e gestão de comunidades.
  *
  * <p>Principais responsabilidades:</p>
  * <ul>
- *   <li>Criar novas comunidades com validao de unicidade</li>
+ *   <li>Criar novas comunidades com validação de unicidade</li>
  *   <li>Manter registro das comunidades administradas</li>
- *   <li>Verificar permisses de gesto em comunidades</li>
+ *   <li>Verificar permissões de gestão em comunidades</li>
  * </ul>
  *
  * <p>Relacionamentos chave:</p>
  * <ul>
- *   <li>Herda de {@link Users} para dados bsicos de usurio</li>
- *   <li>Integra com {@link Jackut} para operaes do sistema</li>
- *   <li>Utiliza excees especficas para tratamento de erros</li>
+ *   <li>Herda de {@link Users} para dados básicos de usuário</li>
+ *   <li>Integra com {@link Jackut} para operações do sistema</li>
+ *   <li>Utiliza exceções específicas para tratamento de erros</li>
  * </ul>
  */
 public class AdministradorComunidade extends Users {
+    /** Valor calculado da versão sem o campo declarado, para ler os arquivos antigos */
+    private static final long serialVersionUID = 7205681620034231083L;
+
     /**
-     * Lista de nomes das comunidades sob gesto deste administrador
+     * Lista de nomes das comunidades sob gestão deste administrador
      */
     private List<String> comunidadesAdministradas;
 
     /**
-     * Constri um Administrador de Comunidade com credenciais completas e inicializa suas comunidades.
+     * Constrói um Administrador de Comunidade com credenciais completas e inicializa suas comunidades.
      *
-     * @param login     Identificador nico do administrador (case-sensitive, no nulo/vazio)
-     * @param senha     Credencial de autenticao (mnimo 6 caracteres, no nulo/vazio)
-     * @param nome      Nome completo para exibio pblica (no nulo/vazio)
+     * @param login     Identificador único do administrador (case-sensitive, não nulo/vazio)
+     * @param senha     Credencial de autenticação (mínimo 6 caracteres, não nulo/vazio)
+     * @param nome      Nome completo para exibição pública (não nulo/vazio)
      *
-     * @throws IllegalArgumentException Se qualquer parmetro for invlido:
+     * @throws IllegalArgumentException Se qualquer parâmetro for inválido:
      *                                  <ul>
-     *                                    <li>Login vazio ou somente espaos</li>
-     *                                    <li>Senha no atender requisitos mnimos</li>
+     *                                    <li>Login vazio ou somente espaços</li>
+     *                                    <li>Senha não atender requisitos mínimos</li>
      *                                    <li>Nome com menos de 2 caracteres</li>
      *                                  </ul>
      *
-     * <p><b>Comportamentos especficos:</b></p>
+     * <p><b>Comportamentos específicos:</b></p>
      * <ul>
-     *   <li>Herda validaes da classe base {@link Users}</li>
+     *   <li>Herda validações da classe base {@link Users}</li>
      *   <li>Inicializa lista de comunidades administradas vazia</li>
      * </ul>
      */
@@ -60,18 +63,18 @@ public class AdministradorComunidade extends Users {
     }
 
     /**
-     * Cria uma nova comunidade no sistema com validao de unicidade.
+     * Cria uma nova comunidade no sistema com validação de unicidade.
      *
-     * @param nome Nome nico da comunidade (case-sensitive)
-     * @param descricao Texto descritivo (mnimo 5 caracteres)
-     * @param sistema Referncia ativa do sistema Jackut
+     * @param nome Nome único da comunidade (case-sensitive)
+     * @param descricao Texto descritivo (mínimo 5 caracteres)
+     * @param sistema Referência ativa do sistema Jackut
      *
-     * @throws ComunidadeJaExisteException Se o nome j estiver registrado
-     * @throws IllegalArgumentException Se descrio for invlida
+     * @throws ComunidadeJaExisteException Se o nome já estiver registrado
+     * @throws IllegalArgumentException Se descrição for inválida
      *
      * <p><b>Efeitos colaterais:</b></p>
      * <ul>
-     *   <li>Adiciona comunidade  lista de administradas</li>
+     *   <li>Adiciona comunidade à lista de administradas</li>
      *   <li>Registra comunidade no sistema</li>
      * </ul>
      *
@@ -87,15 +90,15 @@ public class AdministradorComunidade extends Users {
     }
 
     /**
-     * Verifica direitos de gesto sobre uma comunidade especfica.
+     * Verifica direitos de gestão sobre uma comunidade específica.
      *
      * @param nomeComunidade Nome exato da comunidade (case-sensitive)
-     * @param sistema Referncia ativa do sistema Jackut
+     * @param sistema Referência ativa do sistema Jackut
      * @return true se o administrador for o criador da comunidade
      *
-     * @throws ComunidadeNaoExisteException Se a comunidade no estiver registrada
+     * @throws ComunidadeNaoExisteException Se a comunidade não estiver registrada
      *
-     * <p><b>Lgica de implementao:</b></p>
+     * <p><b>Lógica de implementação:</b></p>
      * <ul>
      *   <li>Compara login do administrador com o dono da comunidade</li>
      *   <li>Depende da integridade dos registros do sistema</li>
@@ -0,0 +1,426 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Balanceamento das partições de usuários ({@link ParticoesUsuarios}) pelo grafo de
+ * relacionamentos, para que a maior parte das operações entre dois usuários fique dentro de
+ * uma partição.
+ * <p>
+ * O grafo tem uma aresta para cada amizade e uma para cada relação de fã e ídolo, lidas de uma
+ * versão de leitura ({@link VersaoLeitura}), sem travas e sem bloquear as operações. As
+ * partições são escolhidas por propagação de rótulos em dois níveis:
+ * </p>
+ * <ol>
+ *   <li>os usuários são agrupados em comunidades densas: cada um passa, em ordem aleatória,
+ *       para a comunidade mais frequente entre os seus vizinhos;</li>
+ *   <li>as comunidades são distribuídas entre as partições, das maiores para as menores,
+ *       preferindo a partição onde já estão mais dos seus membros;</li>
+ *   <li>a distribuição é refinada: cada usuário passa para a partição onde está a maior
+ *       parte dos seus vizinhos, enquanto ela tiver capacidade.</li>
+ * </ol>
+ * <p>
+ * A capacidade de cada partição é a média de usuários por partição acrescida de uma folga de
+ * {@link #FOLGA_PADRAO} ({@code jackut.particoes.folga}), de forma que as partições continuam
+ * equilibradas. Cada etapa de propagação se repete até nenhum usuário mudar ou até
+ * {@link #RODADAS_PADRAO} rodadas ({@code jackut.particoes.rodadas}). Se a nova distribuição
+ * não reduzir as arestas entre partições, nenhum usuário é migrado.
+ * </p>
+ * <p>
+ * O resultado ({@link Resultado}) informa a proporção de arestas entre partições antes e
+ * depois e as partições de destino dos usuários que mudaram, a serem aplicadas com
+ * {@link ParticoesUsuarios#migrar(Map)}.
+ * </p>
+ */
+public class BalanceadorParticoes {
+
+    /** Folga padrão da capacidade de cada partição sobre a média. */
+    public static final double FOLGA_PADRAO = 0.05;
+
+    /** Quantidade padrão máxima de rodadas de propagação. */
+    public static final int RODADAS_PADRAO = 20;
+
+    private final ParticoesUsuarios particoes;
+    private final double folga = Math.max(0, Double.parseDouble(
+            System.getProperty("jackut.particoes.folga", Double.toString(FOLGA_PADRAO))));
+    private final int rodadas = Math.max(1, Integer.getInteger("jackut.particoes.rodadas", RODADAS_PADRAO));
+
+    /**
+     * @param particoes Partições a balancear
+     */
+    public BalanceadorParticoes(ParticoesUsuarios particoes) {
+        this.particoes = particoes;
+    }
+
+    /**
+     * Calcula as partições de destino dos usuários de uma versão.
+     *
+     * @param versao Versão de leitura com os usuários e relacionamentos
+     * @return Proporções de arestas entre partições e destinos dos usuários que mudaram
+     */
+    public Resultado calcular(VersaoLeitura versao) {
+        Map<String, Integer> indices = new HashMap<>();
+        List<String> logins = new ArrayList<>();
+        versao.paraCadaUsuario((login, perfil) -> {
+            indices.put(login, logins.size());
+            logins.add(login);
+        });
+        int n = logins.size();
+        Grafo grafo = new Grafo(n);
+        versao.paraCadaUsuario((login, perfil) -> {
+            int u = indices.get(login);
+            for (String amigo : perfil.getAmigos()) {
+                Integer v = indices.get(amigo);
+                // Cada amizade aparece nos dois usuários; é contada uma vez
+                if (v != null && u < v) {
+                    grafo.ligar(u, v);
+                }
+            }
+            for (String fa : perfil.getFas()) {
+                Integer v = indices.get(fa);
+                if (v != null && v != u) {
+                    grafo.ligar(v, u);
+                }
+            }
+        });
+        grafo.compactar();
+
+        int k = particoes.quantidade();
+        int[] iniciais = new int[n];
+        int[] tamanhos = new int[k];
+        for (int u = 0; u < n; u++) {
+            iniciais[u] = particoes.particao(logins.get(u));
+            tamanhos[iniciais[u]]++;
+        }
+        long cruzadasAntes = grafo.cruzadas(iniciais);
+        int[] rotulos = iniciais;
+        int rodada = 0;
+        if (k > 1) {
+            int capacidade = (int) Math.ceil((double) n / k * (1 + folga));
+            Random aleatorio = new Random(n);
+            int[] ordem = new int[n];
+            for (int u = 0; u < n; u++) {
+                ordem[u] = u;
+            }
+            rotulos = distribuir(grafo, agrupar(grafo, ordem, aleatorio), iniciais, k, capacidade);
+            Arrays.fill(tamanhos, 0);
+            for (int u = 0; u < n; u++) {
+                tamanhos[rotulos[u]]++;
+            }
+            int[] pesos = new int[k];
+            int[] tocados = new int[k];
+            boolean mudou = true;
+            while (mudou && rodada < rodadas) {
+                rodada++;
+                mudou = false;
+                embaralhar(ordem, aleatorio);
+                for (int u : ordem) {
+                    int destino = escolher(grafo, u, rotulos, tamanhos, capacidade, pesos, tocados);
+                    if (destino != rotulos[u]) {
+                        tamanhos[rotulos[u]]--;
+                        tamanhos[destino]++;
+                        rotulos[u] = destino;
+                        mudou = true;
+                    }
+                }
+            }
+        }
+        long cruzadasDepois = grafo.cruzadas(rotulos);
+        if (cruzadasDepois >= cruzadasAntes) {
+            // Uma distribuição que não reduz as arestas entre partições não justifica migrar
+            rotulos = iniciais;
+            cruzadasDepois = cruzadasAntes;
+        }
+        Map<String, Integer> destinos = new HashMap<>();
+        for (int u = 0; u < n; u++) {
+            if (rotulos[u] != iniciais[u]) {
+                destinos.put(logins.get(u), rotulos[u]);
+            }
+        }
+        return new Resultado(n, grafo.arestas(), cruzadasAntes, cruzadasDepois, rodada, destinos);
+    }
+
+    /**
+     * Agrupa os usuários em comunidades por propagação de rótulos sem limite de tamanho:
+     * cada usuário começa na sua própria comunidade e passa para a mais frequente entre os
+     * seus vizinhos.
+     *
+     * @return Comunidade de cada usuário (o índice de um dos seus membros)
+     */
+    private int[] agrupar(Grafo grafo, int[] ordem, Random aleatorio) {
+        int n = ordem.length;
+        int[] comunidades = new int[n];
+        for (int u = 0; u < n; u++) {
+            comunidades[u] = u;
+        }
+        int[] pesos = new int[n];
+        int[] tocados = new int[n];
+        boolean mudou = true;
+        for (int rodada = 0; mudou && rodada < rodadas; rodada++) {
+            mudou = false;
+            embaralhar(ordem, aleatorio);
+            for (int u : ordem) {
+                int quantidadeTocados = 0;
+                for (int i = grafo.inicio[u]; i < grafo.inicio[u + 1]; i++) {
+                    int comunidade = comunidades[grafo.vizinhos[i]];
+                    if (pesos[comunidade]++ == 0) {
+                        tocados[quantidadeTocados++] = comunidade;
+                    }
+                }
+                int atual = comunidades[u];
+                int melhor = atual;
+                int melhorPeso = pesos[atual];
+                for (int i = 0; i < quantidadeTocados; i++) {
+                    int comunidade = tocados[i];
+                    if (pesos[comunidade] > melhorPeso) {
+                        melhor = comunidade;
+                        melhorPeso = pesos[comunidade];
+                    }
+                    pesos[comunidade] = 0;
+                }
+                pesos[atual] = 0;
+                if (melhor != atual) {
+                    comunidades[u] = melhor;
+                    mudou = true;
+                }
+            }
+        }
+        return comunidades;
+    }
+
+    /**
+     * Distribui as comunidades entre as partições, das maiores para as menores: cada uma vai
+     * para a partição onde cabe inteira e com mais ligações aos usuários já distribuídos, de
+     * forma que comunidades vizinhas fiquem juntas; no empate, para a que já tem mais dos
+     * seus membros, o que evita migrar os usuários já bem colocados. Se nenhuma couber, vai
+     * para a mais vazia, e os membros que não couberem seguem para as partições mais vazias.
+     *
+     * @return Partição de cada usuário
+     */
+    private static int[] distribuir(Grafo grafo, int[] comunidades, int[] iniciais, int k, int capacidade) {
+        int n = comunidades.length;
+        Map<Integer, List<Integer>> membros = new HashMap<>();
+        for (int u = 0; u < n; u++) {
+            membros.computeIfAbsent(comunidades[u], c -> new ArrayList<>()).add(u);
+        }
+        List<List<Integer>> ordenadas = new ArrayList<>(membros.values());
+        ordenadas.sort((a, b) -> b.size() != a.size() ? b.size() - a.size() : a.get(0) - b.get(0));
+        int[] rotulos = new int[n];
+        Arrays.fill(rotulos, -1);
+        int[] tamanhos = new int[k];
+        int[] presentes = new int[k];
+        int[] ligacoes = new int[k];
+        for (List<Integer> comunidade : ordenadas) {
+            Arrays.fill(presentes, 0);
+            Arrays.fill(ligacoes, 0);
+            for (int u : comunidade) {
+                presentes[iniciais[u]]++;
+                for (int i = grafo.inicio[u]; i < grafo.inicio[u + 1]; i++) {
+                    int p = rotulos[grafo.vizinhos[i]];
+                    if (p >= 0) {
+                        ligacoes[p]++;
+                    }
+                }
+            }
+            int escolhida = -1;
+            for (int p = 0; p < k; p++) {
+                if (tamanhos[p] + comunidade.size() <= capacidade && (escolhida < 0
+                        || ligacoes[p] > ligacoes[escolhida]
+                        || ligacoes[p] == ligacoes[escolhida] && presentes[p] > presentes[escolhida])) {
+                    escolhida = p;
+                }
+            }
+            if (escolhida < 0) {
+                escolhida = maisVazia(tamanhos);
+            }
+            for (int u : comunidade) {
+                int p = tamanhos[escolhida] < capacidade ? escolhida : maisVazia(tamanhos);
+                rotulos[u] = p;
+                tamanhos[p]++;
+            }
+        }
+        return rotulos;
+    }
+
+    private static int maisVazia(int[] tamanhos) {
+        int menor = 0;
+        for (int p = 1; p < tamanhos.length; p++) {
+            if (tamanhos[p] < tamanhos[menor]) {
+                menor = p;
+            }
+        }
+        return menor;
+    }
+
+    /**
+     * Escolhe a partição onde está a maior parte dos vizinhos de um usuário, entre a atual e
+     * as que ainda têm capacidade; em caso de empate, o usuário fica onde está.
+     */
+    private static int escolher(Grafo grafo, int u, int[] rotulos, int[] tamanhos, int capacidade,
+                                int[] pesos, int[] tocados) {
+        int atual = rotulos[u];
+        int quantidadeTocados = 0;
+        for (int i = grafo.inicio[u]; i < grafo.inicio[u + 1]; i++) {
+            int rotulo = rotulos[grafo.vizinhos[i]];
+            if (pesos[rotulo]++ == 0) {
+                tocados[quantidadeTocados++] = rotulo;
+            }
+        }
+        int melhor = atual;
+        int melhorPeso = pesos[atual];
+        for (int i = 0; i < quantidadeTocados; i++) {
+            int rotulo = tocados[i];
+            if (pesos[rotulo] > melhorPeso && tamanhos[rotulo] < capacidade) {
+                melhor = rotulo;
+                melhorPeso = pesos[rotulo];
+            }
+            pesos[rotulo] = 0;
+        }
+        pesos[atual] = 0;
+        return melhor;
+    }
+
+    private static void embaralhar(int[] ordem, Random aleatorio) {
+        for (int i = ordem.length - 1; i > 0; i--) {
+            int j = aleatorio.nextInt(i + 1);
+            int troca = ordem[i];
+            ordem[i] = ordem[j];
+            ordem[j] = troca;
+        }
+    }
+
+    /** Grafo não direcionado em listas de adjacência compactas; arestas repetidas somam peso. */
+    private static final class Grafo {
+        private final int n;
+        private int[] origens = new int[16];
+        private int[] destinos = new int[16];
+        private int arestas;
+        /** Início dos vizinhos de cada vértice em {@link #vizinhos}; o último marca o fim */
+        int[] inicio;
+        int[] vizinhos;
+
+        Grafo(int n) {
+            this.n = n;
+        }
+
+        void ligar(int u, int v) {
+            if (arestas == origens.length) {
+                origens = Arrays.copyOf(origens, arestas * 2);
+                destinos = Arrays.copyOf(destinos, arestas * 2);
+            }
+            origens[arestas] = u;
+            destinos[arestas] = v;
+            arestas++;
+        }
+
+        /**
+         * Monta as listas de adjacência, com cada aresta nos dois sentidos.
+         */
+        void compactar() {
+            inicio = new int[n + 1];
+            for (int i = 0; i < arestas; i++) {
+                inicio[origens[i] + 1]++;
+                inicio[destinos[i] + 1]++;
+            }
+            for (int u = 0; u < n; u++) {
+                inicio[u + 1] += inicio[u];
+            }
+            vizinhos = new int[2 * arestas];
+            int[] proximo = Arrays.copyOf(inicio, n);
+            for (int i = 0; i < arestas; i++) {
+                vizinhos[proximo[origens[i]]++] = destinos[i];
+                vizinhos[proximo[destinos[i]]++] = origens[i];
+            }
+        }
+
+        long arestas() {
+            return arestas;
+        }
+
+        long cruzadas(int[] rotulos) {
+            long cruzadas = 0;
+            for (int i = 0; i < arestas; i++) {
+                if (rotulos[origens[i]] != rotulos[destinos[i]]) {
+                    cruzadas++;
+                }
+            }
+            return cruzadas;
+        }
+    }
+
+    /**
+     * Resultado de um balanceamento: tamanho do grafo, arestas entre partições antes e depois
+     * e partições de destino dos usuários que mudaram.
+     */
+    public static final class Resultado {
+        private final int usuarios;
+        private final long arestas;
+        private final long cruzadasAntes;
+        private final long cruzadasDepois;
+        private final int rodadas;
+        private final Map<String, Integer> destinos;
+
+        Resultado(int usuarios, long arestas, long cruzadasAntes, long cruzadasDepois, int rodadas,
+                  Map<String, Integer> destinos) {
+            this.usuarios = usuarios;
+            this.arestas = arestas;
+            this.cruzadasAntes = cruzadasAntes;
+            this.cruzadasDepois = cruzadasDepois;
+            this.rodadas = rodadas;
+            this.destinos = Collections.unmodifiableMap(destinos);
+        }
+
+        /**
+         * @return Quantidade de usuários do grafo
+         */
+        public int getUsuarios() { return usuarios; }
+
+        /**
+         * @return Quantidade de arestas (amizades e relações de fã e ídolo)
+         */
+        public long getArestas() { return arestas; }
+
+        /**
+         * @return Quantidade de arestas entre partições diferentes antes do balanceamento
+         */
+        public long getCruzadasAntes() { return cruzadasAntes; }
+
+        /**
+         * @return Quantidade de arestas entre partições diferentes depois do balanceamento
+         */
+        public long getCruzadasDepois() { return cruzadasDepois; }
+
+        /**
+         * @return Proporção das arestas entre partições antes do balanceamento, de 0 a 1
+         */
+        public double getRazaoAntes() { return arestas == 0 ? 0 : (double) cruzadasAntes / arestas; }
+
+        /**
+         * @return Proporção das arestas entre partições depois do balanceamento, de 0 a 1
+         */
+        public double getRazaoDepois() { return arestas == 0 ? 0 : (double) cruzadasDepois / arestas; }
+
+        /**
+         * @return Quantidade de rodadas de propagação executadas
+         */
+        public int getRodadas() { return rodadas; }
+
+        /**
+         * @return Partição de destino de cada usuário que muda de partição
+         */
+        public Map<String, Integer> getDestinos() { return destinos; }
+
+        @Override
+        public String toString() {
+            return String.format("usuarios=%d arestas=%d cruzadasAntes=%d (%.3f) cruzadasDepois=%d (%.3f) migrados=%d rodadas=%d",
+                    usuarios, arestas, cruzadasAntes, getRazaoAntes(), cruzadasDepois, getRazaoDepois(),
+                    destinos.size(), rodadas);
+        }
+    }
+}
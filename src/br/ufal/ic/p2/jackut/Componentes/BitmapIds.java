@@ -0,0 +1,395 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Conjunto compactado de identificadores de usuário ({@link DicionarioUsuarios}), no estilo
+ * dos bitmaps "roaring".
+ * <p>
+ * Os identificadores são agrupados pelos seus 16 bits mais altos. Cada grupo é guardado em um
+ * contêiner próprio: um vetor ordenado de {@code char} enquanto tiver até
+ * {@value #LIMITE_VETOR} elementos (2 bytes por elemento) e, acima disso, um mapa de 65536 bits
+ * (8 KB fixos). Como os identificadores são sequenciais, um conjunto denso com milhões de
+ * usuários ocupa cerca de um bit por usuário do intervalo.
+ * </p>
+ * <p>
+ * A pertinência, a inclusão e a remoção localizam o contêiner por busca binária entre os grupos
+ * (poucos, mesmo com milhões de usuários) e custam O(1) nos mapas de bits e no máximo
+ * {@value #LIMITE_VETOR} deslocamentos nos vetores. A interseção entre dois conjuntos combina
+ * apenas os grupos presentes em ambos, palavra a palavra quando os dois contêineres são mapas
+ * de bits.
+ * </p>
+ */
+public class BitmapIds {
+    /** Quantidade máxima de elementos de um contêiner vetor */
+    static final int LIMITE_VETOR = 4096;
+
+    private char[] chaves = new char[0];
+    private Container[] containers = new Container[0];
+    private int quantidadeContainers;
+    private int tamanho;
+
+    /**
+     * @return Quantidade de identificadores do conjunto
+     */
+    public int tamanho() { return tamanho; }
+
+    /**
+     * Verifica se um identificador pertence ao conjunto.
+     *
+     * @param id Identificador ({@link DicionarioUsuarios#AUSENTE} nunca pertence)
+     * @return true se o identificador estiver no conjunto
+     */
+    public boolean contem(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int i = buscar((char) (id >>> 16));
+        return i >= 0 && containers[i].contem((char) id);
+    }
+
+    /**
+     * Adiciona um identificador ao conjunto.
+     *
+     * @param id Identificador não negativo
+     * @return true se o identificador foi adicionado
+     */
+    public boolean adicionar(int id) {
+        char chave = (char) (id >>> 16);
+        int i = buscar(chave);
+        if (i < 0) {
+            i = -i - 1;
+            inserirContainer(i, chave, new ContainerVetor());
+        }
+        Container container = containers[i];
+        int antes = container.tamanho;
+        containers[i] = container.adicionar((char) id);
+        if (containers[i].tamanho == antes) {
+            return false;
+        }
+        tamanho++;
+        return true;
+    }
+
+    /**
+     * Remove um identificador do conjunto.
+     *
+     * @param id Identificador
+     * @return true se o identificador estava no conjunto
+     */
+    public boolean remover(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int i = buscar((char) (id >>> 16));
+        if (i < 0) {
+            return false;
+        }
+        Container container = containers[i];
+        int antes = container.tamanho;
+        Container atualizado = container.remover((char) id);
+        if (atualizado.tamanho == antes) {
+            return false;
+        }
+        tamanho--;
+        if (atualizado.tamanho == 0) {
+            removerContainer(i);
+        } else {
+            containers[i] = atualizado;
+        }
+        return true;
+    }
+
+    /**
+     * Interseção com outro conjunto.
+     *
+     * @param outro Outro conjunto
+     * @return Novo conjunto com os identificadores presentes nos dois
+     */
+    public BitmapIds intersecao(BitmapIds outro) {
+        BitmapIds resultado = new BitmapIds();
+        for (int i = 0, j = 0; i < quantidadeContainers && j < outro.quantidadeContainers; ) {
+            if (chaves[i] < outro.chaves[j]) {
+                i++;
+            } else if (chaves[i] > outro.chaves[j]) {
+                j++;
+            } else {
+                Container comum = containers[i].intersecao(outro.containers[j]);
+                if (comum.tamanho > 0) {
+                    resultado.inserirContainer(resultado.quantidadeContainers, chaves[i], comum);
+                    resultado.tamanho += comum.tamanho;
+                }
+                i++;
+                j++;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Quantidade de identificadores presentes neste e em outro conjunto, sem construir a
+     * interseção.
+     *
+     * @param outro Outro conjunto
+     * @return Tamanho da interseção
+     */
+    public int tamanhoIntersecao(BitmapIds outro) {
+        int total = 0;
+        for (int i = 0, j = 0; i < quantidadeContainers && j < outro.quantidadeContainers; ) {
+            if (chaves[i] < outro.chaves[j]) {
+                i++;
+            } else if (chaves[i] > outro.chaves[j]) {
+                j++;
+            } else {
+                total += containers[i].tamanhoIntersecao(outro.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Percorre os identificadores em ordem crescente.
+     *
+     * @param acao Ação executada para cada identificador
+     */
+    public void paraCada(IntConsumer acao) {
+        for (int i = 0; i < quantidadeContainers; i++) {
+            containers[i].paraCada(chaves[i] << 16, acao);
+        }
+    }
+
+    /**
+     * Cópia independente do conjunto.
+     * @return Novo conjunto com os mesmos identificadores
+     */
+    public BitmapIds copiar() {
+        BitmapIds copia = new BitmapIds();
+        copia.chaves = Arrays.copyOf(chaves, quantidadeContainers);
+        copia.containers = new Container[quantidadeContainers];
+        for (int i = 0; i < quantidadeContainers; i++) {
+            copia.containers[i] = containers[i].copiar();
+        }
+        copia.quantidadeContainers = quantidadeContainers;
+        copia.tamanho = tamanho;
+        return copia;
+    }
+
+    private int buscar(char chave) {
+        return Arrays.binarySearch(chaves, 0, quantidadeContainers, chave);
+    }
+
+    private void inserirContainer(int posicao, char chave, Container container) {
+        if (quantidadeContainers == chaves.length) {
+            int capacidade = Math.max(4, quantidadeContainers * 2);
+            chaves = Arrays.copyOf(chaves, capacidade);
+            containers = Arrays.copyOf(containers, capacidade);
+        }
+        System.arraycopy(chaves, posicao, chaves, posicao + 1, quantidadeContainers - posicao);
+        System.arraycopy(containers, posicao, containers, posicao + 1, quantidadeContainers - posicao);
+        chaves[posicao] = chave;
+        containers[posicao] = container;
+        quantidadeContainers++;
+    }
+
+    private void removerContainer(int posicao) {
+        System.arraycopy(chaves, posicao + 1, chaves, posicao, quantidadeContainers - posicao - 1);
+        System.arraycopy(containers, posicao + 1, containers, posicao, quantidadeContainers - posicao - 1);
+        containers[--quantidadeContainers] = null;
+    }
+
+    /** Elementos de um grupo de 65536 identificadores (16 bits mais baixos). */
+    private abstract static class Container {
+        int tamanho;
+
+        abstract boolean contem(char valor);
+
+        /** @return Este contêiner ou o que o substitui após a inclusão */
+        abstract Container adicionar(char valor);
+
+        /** @return Este contêiner ou o que o substitui após a remoção */
+        abstract Container remover(char valor);
+
+        abstract Container intersecao(Container outro);
+
+        abstract int tamanhoIntersecao(Container outro);
+
+        abstract void paraCada(int base, IntConsumer acao);
+
+        abstract Container copiar();
+    }
+
+    /** Contêiner esparso: vetor ordenado dos valores. */
+    private static final class ContainerVetor extends Container {
+        char[] valores = new char[4];
+
+        @Override
+        boolean contem(char valor) {
+            return Arrays.binarySearch(valores, 0, tamanho, valor) >= 0;
+        }
+
+        @Override
+        Container adicionar(char valor) {
+            int posicao = Arrays.binarySearch(valores, 0, tamanho, valor);
+            if (posicao >= 0) {
+                return this;
+            }
+            if (tamanho == LIMITE_VETOR) {
+                return paraBits().adicionar(valor);
+            }
+            posicao = -posicao - 1;
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, Math.min(LIMITE_VETOR, tamanho * 2));
+            }
+            System.arraycopy(valores, posicao, valores, posicao + 1, tamanho - posicao);
+            valores[posicao] = valor;
+            tamanho++;
+            return this;
+        }
+
+        @Override
+        Container remover(char valor) {
+            int posicao = Arrays.binarySearch(valores, 0, tamanho, valor);
+            if (posicao >= 0) {
+                System.arraycopy(valores, posicao + 1, valores, posicao, tamanho - posicao - 1);
+                tamanho--;
+            }
+            return this;
+        }
+
+        @Override
+        Container intersecao(Container outro) {
+            ContainerVetor resultado = new ContainerVetor();
+            resultado.valores = new char[Math.max(1, Math.min(tamanho, outro.tamanho))];
+            for (int i = 0; i < tamanho; i++) {
+                if (outro.contem(valores[i])) {
+                    resultado.valores[resultado.tamanho++] = valores[i];
+                }
+            }
+            return resultado;
+        }
+
+        @Override
+        int tamanhoIntersecao(Container outro) {
+            int total = 0;
+            for (int i = 0; i < tamanho; i++) {
+                if (outro.contem(valores[i])) {
+                    total++;
+                }
+            }
+            return total;
+        }
+
+        @Override
+        void paraCada(int base, IntConsumer acao) {
+            for (int i = 0; i < tamanho; i++) {
+                acao.accept(base | valores[i]);
+            }
+        }
+
+        @Override
+        Container copiar() {
+            ContainerVetor copia = new ContainerVetor();
+            copia.valores = Arrays.copyOf(valores, Math.max(1, tamanho));
+            copia.tamanho = tamanho;
+            return copia;
+        }
+
+        private ContainerBits paraBits() {
+            ContainerBits bits = new ContainerBits();
+            for (int i = 0; i < tamanho; i++) {
+                bits.palavras[valores[i] >>> 6] |= 1L << valores[i];
+            }
+            bits.tamanho = tamanho;
+            return bits;
+        }
+    }
+
+    /** Contêiner denso: um bit por valor do grupo. */
+    private static final class ContainerBits extends Container {
+        final long[] palavras = new long[1024];
+
+        @Override
+        boolean contem(char valor) {
+            return (palavras[valor >>> 6] & (1L << valor)) != 0;
+        }
+
+        @Override
+        Container adicionar(char valor) {
+            long antes = palavras[valor >>> 6];
+            long depois = antes | (1L << valor);
+            if (antes != depois) {
+                palavras[valor >>> 6] = depois;
+                tamanho++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remover(char valor) {
+            long antes = palavras[valor >>> 6];
+            long depois = antes & ~(1L << valor);
+            if (antes != depois) {
+                palavras[valor >>> 6] = depois;
+                tamanho--;
+                if (tamanho <= LIMITE_VETOR / 2) {
+                    return paraVetor();
+                }
+            }
+            return this;
+        }
+
+        @Override
+        Container intersecao(Container outro) {
+            if (!(outro instanceof ContainerBits)) {
+                return outro.intersecao(this);
+            }
+            ContainerBits resultado = new ContainerBits();
+            long[] outras = ((ContainerBits) outro).palavras;
+            for (int i = 0; i < palavras.length; i++) {
+                resultado.palavras[i] = palavras[i] & outras[i];
+                resultado.tamanho += Long.bitCount(resultado.palavras[i]);
+            }
+            return resultado.tamanho <= LIMITE_VETOR ? resultado.paraVetor() : resultado;
+        }
+
+        @Override
+        int tamanhoIntersecao(Container outro) {
+            if (!(outro instanceof ContainerBits)) {
+                return outro.tamanhoIntersecao(this);
+            }
+            long[] outras = ((ContainerBits) outro).palavras;
+            int total = 0;
+            for (int i = 0; i < palavras.length; i++) {
+                total += Long.bitCount(palavras[i] & outras[i]);
+            }
+            return total;
+        }
+
+        @Override
+        void paraCada(int base, IntConsumer acao) {
+            for (int i = 0; i < palavras.length; i++) {
+                for (long palavra = palavras[i]; palavra != 0; palavra &= palavra - 1) {
+                    acao.accept(base | (i << 6) | Long.numberOfTrailingZeros(palavra));
+                }
+            }
+        }
+
+        @Override
+        Container copiar() {
+            ContainerBits copia = new ContainerBits();
+            System.arraycopy(palavras, 0, copia.palavras, 0, palavras.length);
+            copia.tamanho = tamanho;
+            return copia;
+        }
+
+        private ContainerVetor paraVetor() {
+            ContainerVetor vetor = new ContainerVetor();
+            vetor.valores = new char[Math.max(1, tamanho)];
+            paraCada(0, valor -> vetor.valores[vetor.tamanho++] = (char) valor);
+            return vetor;
+        }
+    }
+}
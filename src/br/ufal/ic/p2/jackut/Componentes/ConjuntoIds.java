@@ -0,0 +1,228 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Conjunto de identificadores de usuário ({@link DicionarioUsuarios}) que preserva a ordem
+ * de inserção.
+ * <p>
+ * Os identificadores ficam em um vetor de inteiros, na ordem em que foram adicionados, pois
+ * as listagens do sistema (amigos, fãs, paqueras...) são exibidas nessa ordem. Enquanto o
+ * conjunto é pequeno, a pertinência é verificada percorrendo o vetor; a partir de
+ * {@value #LIMITE_INDICE} elementos, um índice de endereçamento aberto é mantido ao lado
+ * do vetor e a verificação passa a ser O(1).
+ * </p>
+ * <p>
+ * Cada elemento ocupa 4 bytes no vetor (mais cerca de 8 no índice, quando existe), e a
+ * verificação compara inteiros em vez de chamar {@link String#equals} sobre cada login.
+ * </p>
+ */
+public class ConjuntoIds {
+    /** Quantidade de elementos a partir da qual o índice de endereçamento aberto é mantido */
+    static final int LIMITE_INDICE = 16;
+
+    private static final int[] VAZIO = new int[0];
+
+    private int[] elementos = VAZIO;
+    private int tamanho;
+    /** Tabela de endereçamento aberto com {@code id + 1} em cada posição ocupada (0 = livre) */
+    private int[] indice;
+    /** Quantidade de inclusões e remoções efetivas, para reconhecer um conjunto inalterado */
+    private int modificacoes;
+
+    /**
+     * @return Quantidade de elementos do conjunto
+     */
+    public int tamanho() { return tamanho; }
+
+    /**
+     * Verifica se o conjunto não tem elementos.
+     * @return true se estiver vazio
+     */
+    public boolean vazio() { return tamanho == 0; }
+
+    /**
+     * @return Quantidade de inclusões e remoções efetivas desde a criação do conjunto
+     */
+    public int modificacoes() { return modificacoes; }
+
+    /**
+     * Obtém o elemento de uma posição, na ordem de inserção.
+     *
+     * @param posicao Posição entre 0 e {@link #tamanho()} - 1
+     * @return Identificador na posição
+     */
+    public int get(int posicao) {
+        if (posicao >= tamanho) {
+            throw new IndexOutOfBoundsException(String.valueOf(posicao));
+        }
+        return elementos[posicao];
+    }
+
+    /**
+     * Verifica se um identificador pertence ao conjunto.
+     *
+     * @param id Identificador a ser procurado ({@link DicionarioUsuarios#AUSENTE} nunca pertence)
+     * @return true se o identificador estiver no conjunto
+     */
+    public boolean contem(int id) {
+        if (id < 0) {
+            return false;
+        }
+        if (indice != null) {
+            int mascara = indice.length - 1;
+            for (int i = espalhar(id) & mascara; indice[i] != 0; i = (i + 1) & mascara) {
+                if (indice[i] == id + 1) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (int i = 0; i < tamanho; i++) {
+            if (elementos[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adiciona um identificador ao final do conjunto, se ainda não estiver presente.
+     *
+     * @param id Identificador a ser adicionado
+     * @return true se o identificador foi adicionado
+     */
+    public boolean adicionar(int id) {
+        if (contem(id)) {
+            return false;
+        }
+        if (tamanho == elementos.length) {
+            elementos = Arrays.copyOf(elementos, Math.max(4, tamanho + (tamanho >> 1)));
+        }
+        elementos[tamanho++] = id;
+        modificacoes++;
+        if (indice != null) {
+            if (tamanho * 2 > indice.length) {
+                reconstruirIndice();
+            } else {
+                indexar(indice, id);
+            }
+        } else if (tamanho >= LIMITE_INDICE) {
+            reconstruirIndice();
+        }
+        return true;
+    }
+
+    /**
+     * Remove um identificador, preservando a ordem dos demais.
+     *
+     * @param id Identificador a ser removido
+     * @return true se o identificador estava no conjunto
+     */
+    public boolean remover(int id) {
+        if (!contem(id)) {
+            return false;
+        }
+        for (int i = 0; i < tamanho; i++) {
+            if (elementos[i] == id) {
+                System.arraycopy(elementos, i + 1, elementos, i, tamanho - i - 1);
+                tamanho--;
+                modificacoes++;
+                break;
+            }
+        }
+        if (indice != null) {
+            if (tamanho < LIMITE_INDICE / 2) {
+                indice = null;
+            } else {
+                reconstruirIndice();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cópia independente do conjunto.
+     * @return Novo conjunto com os mesmos elementos, na mesma ordem
+     */
+    public ConjuntoIds copiar() {
+        ConjuntoIds copia = new ConjuntoIds();
+        copia.elementos = Arrays.copyOf(elementos, tamanho);
+        copia.tamanho = tamanho;
+        copia.indice = indice == null ? null : indice.clone();
+        return copia;
+    }
+
+    /**
+     * Visão dos elementos como logins, na ordem de inserção. A visão reflete as alterações
+     * posteriores do conjunto e não pode ser modificada.
+     *
+     * @return Lista de logins apoiada neste conjunto
+     */
+    public List<String> logins() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int posicao) {
+                return DicionarioUsuarios.login(ConjuntoIds.this.get(posicao));
+            }
+
+            @Override
+            public int size() {
+                return tamanho;
+            }
+
+            @Override
+            public boolean contains(Object login) {
+                return login instanceof String && contem(DicionarioUsuarios.idExistente((String) login));
+            }
+        };
+    }
+
+    /**
+     * Logins do conjunto que não têm {@linkplain LapidesUsuarios#removido(int) lápide}.
+     * Sem lápides pendentes, é a própria {@linkplain #logins() visão} do conjunto; caso
+     * contrário, uma cópia filtrada.
+     *
+     * @param lapides Lápides da instância dona do conjunto
+     * @return Lista não modificável de logins, na ordem de inserção
+     */
+    public List<String> loginsAtivos(LapidesUsuarios lapides) {
+        if (!lapides.haRemovidos()) {
+            return logins();
+        }
+        List<String> ativos = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            if (!lapides.removido(elementos[i])) {
+                ativos.add(DicionarioUsuarios.login(elementos[i]));
+            }
+        }
+        return Collections.unmodifiableList(ativos);
+    }
+
+    private void reconstruirIndice() {
+        int capacidade = Integer.highestOneBit(Math.max(LIMITE_INDICE, tamanho) * 4 - 1);
+        int[] novo = new int[capacidade];
+        for (int i = 0; i < tamanho; i++) {
+            indexar(novo, elementos[i]);
+        }
+        indice = novo;
+    }
+
+    private static void indexar(int[] tabela, int id) {
+        int mascara = tabela.length - 1;
+        int i = espalhar(id) & mascara;
+        while (tabela[i] != 0) {
+            i = (i + 1) & mascara;
+        }
+        tabela[i] = id + 1;
+    }
+
+    private static int espalhar(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
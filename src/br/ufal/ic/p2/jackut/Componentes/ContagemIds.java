@@ -0,0 +1,144 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+/**
+ * Contagem por identificador de usuário ({@link DicionarioUsuarios}), usada como índice dos
+ * recados de uma caixa por remetente.
+ * <p>
+ * As chaves e as contagens ficam em dois vetores de inteiros com endereçamento aberto
+ * (chave guardada como {@code id + 1}, 0 = livre), com carga máxima de 1/2. Uma contagem que
+ * chega a zero continua ocupando a posição até a próxima reconstrução da tabela, de forma
+ * que a remoção não precisa reorganizar as sequências de sondagem.
+ * </p>
+ */
+public class ContagemIds {
+    private static final int CAPACIDADE_INICIAL = 8;
+
+    private int[] chaves;
+    private int[] contagens;
+    /** Posições ocupadas, incluindo as de contagem zero */
+    private int ocupadas;
+
+    /**
+     * Obtém a contagem de um identificador.
+     *
+     * @param id Identificador ({@link DicionarioUsuarios#AUSENTE} tem sempre contagem zero)
+     * @return Contagem atual, ou 0 se o identificador nunca foi contado
+     */
+    public int quantidade(int id) {
+        int posicao = posicao(id);
+        return posicao < 0 ? 0 : contagens[posicao];
+    }
+
+    /**
+     * Soma um à contagem de um identificador.
+     *
+     * @param id Identificador
+     */
+    public void incrementar(int id) {
+        if (chaves == null || (ocupadas + 1) * 2 > chaves.length) {
+            redimensionar();
+        }
+        int mascara = chaves.length - 1;
+        int i = espalhar(id) & mascara;
+        while (chaves[i] != 0 && chaves[i] != id + 1) {
+            i = (i + 1) & mascara;
+        }
+        if (chaves[i] == 0) {
+            chaves[i] = id + 1;
+            ocupadas++;
+        }
+        contagens[i]++;
+    }
+
+    /**
+     * Subtrai um da contagem de um identificador, se for positiva.
+     *
+     * @param id Identificador
+     */
+    public void decrementar(int id) {
+        int posicao = posicao(id);
+        if (posicao >= 0 && contagens[posicao] > 0) {
+            contagens[posicao]--;
+        }
+    }
+
+    /**
+     * Zera a contagem de um identificador.
+     *
+     * @param id Identificador
+     * @return Contagem anterior
+     */
+    public int zerar(int id) {
+        int posicao = posicao(id);
+        if (posicao < 0) {
+            return 0;
+        }
+        int anterior = contagens[posicao];
+        contagens[posicao] = 0;
+        return anterior;
+    }
+
+    /**
+     * Zera todas as contagens.
+     */
+    public void limpar() {
+        chaves = null;
+        contagens = null;
+        ocupadas = 0;
+    }
+
+    private int posicao(int id) {
+        if (chaves == null || id < 0) {
+            return -1;
+        }
+        int mascara = chaves.length - 1;
+        for (int i = espalhar(id) & mascara; chaves[i] != 0; i = (i + 1) & mascara) {
+            if (chaves[i] == id + 1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reconstrói a tabela sem as contagens zeradas, dobrando a capacidade se necessário.
+     */
+    private void redimensionar() {
+        int[] chavesAntigas = chaves;
+        int[] contagensAntigas = contagens;
+        int vivas = 0;
+        if (chavesAntigas != null) {
+            for (int i = 0; i < chavesAntigas.length; i++) {
+                if (chavesAntigas[i] != 0 && contagensAntigas[i] > 0) {
+                    vivas++;
+                }
+            }
+        }
+        int capacidade = CAPACIDADE_INICIAL;
+        while ((vivas + 1) * 4 > capacidade) {
+            capacidade <<= 1;
+        }
+        chaves = new int[capacidade];
+        contagens = new int[capacidade];
+        ocupadas = 0;
+        if (chavesAntigas != null) {
+            int mascara = capacidade - 1;
+            for (int i = 0; i < chavesAntigas.length; i++) {
+                if (chavesAntigas[i] != 0 && contagensAntigas[i] > 0) {
+                    int j = espalhar(chavesAntigas[i] - 1) & mascara;
+                    while (chaves[j] != 0) {
+                        j = (j + 1) & mascara;
+                    }
+                    chaves[j] = chavesAntigas[i];
+                    contagens[j] = contagensAntigas[i];
+                    ocupadas++;
+                }
+            }
+        }
+    }
+
+    private static int espalhar(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,87 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dicionário global de logins do Jackut.
+ * <p>
+ * Cada login recebe, no primeiro uso, um identificador inteiro sequencial que nunca muda
+ * enquanto o processo estiver em execução. Os relacionamentos dos usuários são guardados
+ * como conjuntos desses identificadores ({@link ConjuntoIds}), de forma que cada login
+ * aparece uma única vez no heap e as verificações de pertinência comparam inteiros em vez
+ * de textos.
+ * </p>
+ * <p>
+ * Os identificadores não são gravados em disco: os arquivos de persistência continuam
+ * referenciando logins, e o dicionário é reconstruído à medida que os usuários são lidos.
+ * Identificadores de usuários removidos não são reaproveitados.
+ * </p>
+ * <p>
+ * O dicionário é compartilhado por todas as instâncias do sistema no processo; as lápides dos
+ * usuários removidos pertencem a cada instância ({@link LapidesUsuarios}).
+ * </p>
+ */
+public final class DicionarioUsuarios {
+    /** Identificador devolvido para logins que ainda não foram registrados */
+    public static final int AUSENTE = -1;
+
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] logins = new String[1024];
+    private static int proximo;
+
+    private DicionarioUsuarios() {
+    }
+
+    /**
+     * Obtém o identificador de um login, registrando-o se ainda não existir.
+     *
+     * @param login Login a ser identificado (não nulo)
+     * @return Identificador do login
+     */
+    public static int id(String login) {
+        Integer id = IDS.get(login);
+        return id != null ? id : registrar(login);
+    }
+
+    /**
+     * Obtém o identificador de um login sem registrá-lo. Usado nas consultas, para que
+     * logins inexistentes não cresçam o dicionário.
+     *
+     * @param login Login a ser consultado
+     * @return Identificador do login ou {@link #AUSENTE} se ele nunca foi registrado
+     */
+    public static int idExistente(String login) {
+        if (login == null) {
+            return AUSENTE;
+        }
+        Integer id = IDS.get(login);
+        return id != null ? id : AUSENTE;
+    }
+
+    /**
+     * Obtém o login correspondente a um identificador.
+     *
+     * @param id Identificador obtido por {@link #id(String)}
+     * @return Login registrado com o identificador
+     */
+    public static String login(int id) {
+        return logins[id];
+    }
+
+    private static synchronized int registrar(String login) {
+        Integer existente = IDS.get(login);
+        if (existente != null) {
+            return existente;
+        }
+        int id = proximo++;
+        String[] atual = logins;
+        if (id == atual.length) {
+            atual = Arrays.copyOf(atual, atual.length * 2);
+        }
+        atual[id] = login;
+        logins = atual;
+        IDS.put(login, id);
+        return id;
+    }
+}
@@ -0,0 +1,154 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Comunidade;
+
+/**
+ * Escolha, a cada envio, de como uma mensagem de comunidade chega aos membros.
+ * <p>
+ * Toda mensagem é anexada ao registro da comunidade ({@link LogMensagens}); a estratégia
+ * decide a quais membros ela também é entregue diretamente na caixa, avançando o cursor deles.
+ * As cópias são entregues em segundo plano pela {@link EntregaMensagens}; até lá os membros
+ * leem a mensagem do registro:
+ * </p>
+ * <ul>
+ *   <li>{@link Estrategia#EMPURRAR}: comunidades com até {@link #LIMITE_PADRAO} membros
+ *       (propriedade {@code jackut.distribuicao.limite}) entregam a todos os membros, e a
+ *       leitura é uma retirada da caixa;</li>
+ *   <li>{@link Estrategia#HIBRIDA}: nas comunidades maiores, entrega apenas aos membros que
+ *       leram mensagens de comunidade recentemente; os demais leem do registro;</li>
+ *   <li>{@link Estrategia#PUXAR}: comunidades maiores sem leitores recentes apenas anexam a
+ *       mensagem ao registro.</li>
+ * </ul>
+ * <p>
+ * Um membro só recebe a mensagem na caixa se já tiver lido todas as anteriores da comunidade;
+ * caso contrário ela fica no registro, atrás das que ele ainda não leu. Como caixa e registros
+ * guardam o número de sequência de cada mensagem, a leitura sempre devolve a mais antiga das
+ * duas origens, na ordem global de envio.
+ * </p>
+ * <p>
+ * São leitores recentes os que leram na janela de atividade atual ou na anterior, de
+ * {@link #JANELA_PADRAO} milissegundos (propriedade {@code jackut.distribuicao.janela}); cada
+ * janela é um {@link BitmapIds}, e os leitores recentes de uma comunidade são obtidos pela
+ * interseção com os membros dela. As janelas são sincronizadas pela própria instância, pois
+ * envios e leituras em comunidades diferentes executam em paralelo.
+ * </p>
+ */
+public class DistribuicaoMensagens {
+
+    /** Estratégias de entrega de uma mensagem de comunidade. */
+    public enum Estrategia {
+        /** Entrega na caixa de todos os membros */
+        EMPURRAR,
+        /** Entrega na caixa dos leitores recentes; os demais leem do registro */
+        HIBRIDA,
+        /** Os membros leem do registro da comunidade */
+        PUXAR
+    }
+
+    /** Quantidade padrão máxima de membros para entregar a todos na caixa. */
+    public static final int LIMITE_PADRAO = 64;
+
+    /** Duração padrão de uma janela de atividade, em milissegundos. */
+    public static final long JANELA_PADRAO = 5 * 60 * 1000;
+
+    private final int limite = Integer.getInteger("jackut.distribuicao.limite", LIMITE_PADRAO);
+    private final long janela = Long.getLong("jackut.distribuicao.janela", JANELA_PADRAO);
+    /** Leitores da janela de atividade atual */
+    private BitmapIds leitores = new BitmapIds();
+    /** Leitores da janela de atividade anterior */
+    private BitmapIds leitoresAnteriores = new BitmapIds();
+    private long inicioJanela = System.currentTimeMillis();
+    private final MetricasDistribuicao metricas = new MetricasDistribuicao();
+
+    /**
+     * Escolhe a estratégia de entrega de uma mensagem pela quantidade de membros e pela
+     * atividade deles.
+     *
+     * @param comunidade Comunidade de destino
+     * @return Estratégia a ser usada
+     */
+    public synchronized Estrategia escolher(Comunidade comunidade) {
+        if (comunidade.getQuantidadeMembros() <= limite) {
+            return Estrategia.EMPURRAR;
+        }
+        renovarJanela();
+        BitmapIds membros = comunidade.getIdsMembros();
+        if (membros.tamanhoIntersecao(leitores) > 0 || membros.tamanhoIntersecao(leitoresAnteriores) > 0) {
+            return Estrategia.HIBRIDA;
+        }
+        return Estrategia.PUXAR;
+    }
+
+    /**
+     * Membros que devem receber a mensagem na caixa.
+     *
+     * @param comunidade Comunidade de destino
+     * @param estrategia Estratégia escolhida por {@link #escolher(Comunidade)}
+     * @return Identificadores dos membros; não deve ser alterado
+     */
+    public synchronized BitmapIds destinatarios(Comunidade comunidade, Estrategia estrategia) {
+        switch (estrategia) {
+            case EMPURRAR:
+                return comunidade.getIdsMembros();
+            case HIBRIDA:
+                BitmapIds membros = comunidade.getIdsMembros();
+                BitmapIds ativos = membros.intersecao(leitores);
+                membros.intersecao(leitoresAnteriores).paraCada(ativos::adicionar);
+                return ativos;
+            default:
+                return new BitmapIds();
+        }
+    }
+
+    /**
+     * Registra o usuário como leitor recente, a cada tentativa de leitura de mensagens.
+     *
+     * @param id Identificador do usuário
+     */
+    public synchronized void marcarLeitor(int id) {
+        renovarJanela();
+        leitores.adicionar(id);
+    }
+
+    /**
+     * Registra um envio nas métricas; as cópias são registradas pela {@link EntregaMensagens}.
+     *
+     * @param estrategia Estratégia usada
+     * @param nanos Tempo gasto pelo remetente no envio
+     */
+    public void registrarEnvio(Estrategia estrategia, long nanos) {
+        metricas.registrarEnvio(estrategia, nanos);
+    }
+
+    /**
+     * Registra uma leitura nas métricas.
+     *
+     * @param origem {@link Estrategia#EMPURRAR} se a mensagem foi lida da caixa,
+     *               {@link Estrategia#PUXAR} se foi lida do registro de uma comunidade
+     * @param nanos Tempo gasto na leitura
+     */
+    public void registrarLeitura(Estrategia origem, long nanos) {
+        metricas.registrarLeitura(origem, nanos);
+    }
+
+    /**
+     * @return Métricas de envio e leitura por estratégia
+     */
+    public MetricasDistribuicao getMetricas() {
+        return metricas;
+    }
+
+    /**
+     * Inicia uma nova janela de atividade se a atual terminou; depois de duas janelas sem
+     * leituras, ninguém é mais leitor recente.
+     */
+    private synchronized void renovarJanela() {
+        long agora = System.currentTimeMillis();
+        if (agora - inicioJanela < janela) {
+            return;
+        }
+        leitoresAnteriores = agora - inicioJanela < 2 * janela ? leitores : new BitmapIds();
+        leitores = new BitmapIds();
+        inicioJanela = agora;
+    }
+}
@@ -0,0 +1,228 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Componentes.DistribuicaoMensagens.Estrategia;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Entrega em segundo plano das cópias das mensagens de comunidade nas caixas dos membros.
+ * <p>
+ * O envio de uma mensagem apenas a anexa ao registro da comunidade e coloca aqui os membros
+ * que devem recebê-la na caixa ({@link DistribuicaoMensagens}); o remetente é liberado em
+ * seguida. Um grupo de {@link #TRABALHADORES_PADRAO} threads daemon (propriedade
+ * {@code jackut.entrega.trabalhadores}) entrega as cópias em lotes de no máximo
+ * {@link #LOTE_PADRAO} membros ({@code jackut.entrega.lote}), em ordem de envio.
+ * </p>
+ * <p>
+ * Cada lote é executado com a trava exclusiva do sistema ({@link TravasUsuarios}), informada
+ * na construção, como no {@link ExpurgoUsuarios}. Enquanto uma cópia não é entregue,
+ * o membro lê a mensagem do registro da comunidade; uma cópia só é entregue se a mensagem
+ * ainda for a próxima não lida do membro, de forma que o atraso da entrega nunca altera o
+ * resultado das leituras.
+ * </p>
+ * <p>
+ * Os envios são agendados com as travas compartilhadas da comunidade e do remetente, e envios
+ * a comunidades diferentes agendam em paralelo; a fila é sincronizada pela própria instância.
+ * </p>
+ * <p>
+ * A fila guarda cerca de {@link #CAPACIDADE_PADRAO} envios ({@code jackut.entrega.capacidade}).
+ * Com a fila cheia, o próprio remetente entrega lotes antes de adquirir as travas do envio
+ * ({@link #aliviar()}), o que limita a memória e desacelera os remetentes até que as entregas
+ * os alcancem.
+ * </p>
+ */
+public class EntregaMensagens {
+
+    /** Quantidade padrão de threads de entrega. */
+    public static final int TRABALHADORES_PADRAO = 1;
+
+    /** Quantidade padrão de cópias entregues por lote. */
+    public static final int LOTE_PADRAO = 256;
+
+    /** Quantidade padrão máxima de envios na fila. */
+    public static final int CAPACIDADE_PADRAO = 1024;
+
+    private static final int TRABALHADORES = Math.max(1, Integer.getInteger("jackut.entrega.trabalhadores", TRABALHADORES_PADRAO));
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(TRABALHADORES, new ThreadFactory() {
+        private final AtomicInteger contador = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "jackut-entrega-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /** Entrega de uma cópia na caixa de um membro. */
+    @FunctionalInterface
+    public interface Entregador {
+        /**
+         * @param comunidade Nome da comunidade da mensagem
+         * @param id Identificador do membro
+         * @param sequencia Número de sequência da mensagem
+         * @param mensagem Texto da mensagem
+         * @return true se a cópia foi entregue; false se o membro já não deve recebê-la
+         */
+        boolean entregar(String comunidade, int id, long sequencia, String mensagem);
+    }
+
+    private final Lock trava;
+    private final Entregador entregador;
+    private final MetricasDistribuicao metricas;
+    private final int lote = Integer.getInteger("jackut.entrega.lote", LOTE_PADRAO);
+    private final int capacidade = Integer.getInteger("jackut.entrega.capacidade", CAPACIDADE_PADRAO);
+    private final Deque<Envio> pendentes = new ArrayDeque<>();
+    /** Quantidade de tarefas deste objeto na fila das threads */
+    private int agendadas;
+
+    /**
+     * @param trava Trava exclusiva do estado do sistema ({@link TravasUsuarios#exclusiva()})
+     * @param entregador Entrega uma cópia na caixa de um membro
+     * @param metricas Métricas onde as entregas e os atrasos são registrados
+     */
+    public EntregaMensagens(Lock trava, Entregador entregador, MetricasDistribuicao metricas) {
+        this.trava = trava;
+        this.entregador = entregador;
+        this.metricas = metricas;
+    }
+
+    /**
+     * Enfileira a entrega das cópias de uma mensagem. Deve ser chamado com a trava
+     * exclusiva do sistema adquirida.
+     *
+     * @param comunidade Nome da comunidade da mensagem
+     * @param sequencia Número de sequência da mensagem
+     * @param mensagem Texto da mensagem
+     * @param estrategia Estratégia escolhida para o envio
+     * @param destinatarios Membros que devem receber a cópia (não é guardado)
+     */
+    public synchronized void agendar(String comunidade, long sequencia, String mensagem, Estrategia estrategia,
+                                     BitmapIds destinatarios) {
+        if (destinatarios.tamanho() == 0) {
+            return;
+        }
+        int[] ids = new int[destinatarios.tamanho()];
+        int[] posicao = new int[1];
+        destinatarios.paraCada(id -> ids[posicao[0]++] = id);
+        pendentes.add(new Envio(comunidade, sequencia, mensagem, estrategia, ids));
+        metricas.registrarEnfileiramento();
+        if (agendadas < TRABALHADORES && agendadas < pendentes.size()) {
+            agendadas++;
+            EXECUTOR.execute(this::executar);
+        }
+    }
+
+    /**
+     * Com a fila cheia, entrega lotes com a trava exclusiva do sistema até abrir espaço.
+     * Chamado pelo remetente antes de adquirir as travas do envio.
+     */
+    public void aliviar() {
+        if (pendentes() < capacidade) {
+            return;
+        }
+        trava.lock();
+        try {
+            while (pendentes.size() >= capacidade) {
+                executarLote();
+            }
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Entrega imediatamente todas as cópias pendentes, para que as caixas reflitam todos os
+     * envios feitos até aqui. Deve ser chamado com a trava exclusiva do sistema adquirida.
+     */
+    public void concluirTodas() {
+        while (!pendentes.isEmpty()) {
+            executarLote();
+        }
+    }
+
+    /**
+     * Descarta as entregas pendentes, quando o estado do sistema é apagado.
+     */
+    public void cancelar() {
+        pendentes.clear();
+        metricas.registrarCancelamento();
+    }
+
+    /**
+     * @return Quantidade de envios com cópias ainda não entregues
+     */
+    public synchronized int pendentes() {
+        return pendentes.size();
+    }
+
+    private void executar() {
+        boolean continuar = true;
+        while (continuar) {
+            trava.lock();
+            try {
+                continuar = !pendentes.isEmpty();
+                if (continuar) {
+                    executarLote();
+                } else {
+                    agendadas--;
+                }
+            } finally {
+                trava.unlock();
+            }
+        }
+    }
+
+    /**
+     * Entrega até {@link #lote} cópias, dos envios mais antigos para os mais recentes.
+     */
+    private void executarLote() {
+        int restante = lote;
+        while (restante > 0 && !pendentes.isEmpty()) {
+            Envio envio = pendentes.peek();
+            int entregues = 0;
+            while (restante > 0 && envio.proximo < envio.destinatarios.length) {
+                restante--;
+                try {
+                    if (entregador.entregar(envio.comunidade, envio.destinatarios[envio.proximo], envio.sequencia, envio.mensagem)) {
+                        entregues++;
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Erro ao entregar mensagem da comunidade " + envio.comunidade + ": " + e.getMessage());
+                }
+                envio.proximo++;
+            }
+            metricas.registrarEntregas(envio.estrategia, entregues);
+            if (envio.proximo == envio.destinatarios.length) {
+                pendentes.poll();
+                metricas.registrarConclusao(System.nanoTime() - envio.enfileirado);
+            }
+        }
+    }
+
+    /** Mensagem enviada e posição do próximo membro a receber a cópia. */
+    private static final class Envio {
+        final String comunidade;
+        final long sequencia;
+        final String mensagem;
+        final Estrategia estrategia;
+        final int[] destinatarios;
+        final long enfileirado = System.nanoTime();
+        int proximo;
+
+        Envio(String comunidade, long sequencia, String mensagem, Estrategia estrategia, int[] destinatarios) {
+            this.comunidade = comunidade;
+            this.sequencia = sequencia;
+            this.mensagem = mensagem;
+            this.estrategia = estrategia;
+            this.destinatarios = destinatarios;
+        }
+    }
+}
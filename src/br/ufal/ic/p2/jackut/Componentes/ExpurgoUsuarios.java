@@ -0,0 +1,249 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Expurgo em segundo plano das referências a usuários removidos.
+ * <p>
+ * A remoção de um usuário apenas o marca com lápide ({@link LapidesUsuarios}) e agenda
+ * aqui os usuários que o referenciam (obtidos do {@link IndiceReferencias}). Uma thread
+ * daemon visita esses usuários em lotes de no máximo {@link #LOTE_PADRAO} referenciadores,
+ * retirando os relacionamentos e os recados do removido; ao terminar os referenciadores de
+ * um login, ele é retirado das comunidades e a lápide é retirada.
+ * </p>
+ * <p>
+ * Com as versões de leitura ligadas ({@link #setVersoes(VersoesLeitura)}), a lápide é retirada
+ * pela publicação da versão sem as referências expurgadas, ao liberar a trava: os leitores
+ * sem travas que ainda leem uma versão anterior continuam a ver o login com lápide.
+ * </p>
+ * <p>
+ * Cada lote é executado com a trava exclusiva do sistema ({@link TravasUsuarios}), informada
+ * na construção, de forma que um lote nunca observa uma operação pela metade e as operações
+ * esperam no máximo um lote. O tamanho do lote pode ser configurado pela
+ * propriedade {@code jackut.expurgo.lote}.
+ * </p>
+ */
+public class ExpurgoUsuarios {
+
+    /** Quantidade padrão de referenciadores visitados por lote. */
+    public static final int LOTE_PADRAO = 256;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "jackut-expurgo");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Lock trava;
+    private final BiConsumer<String, String> expurgarReferencias;
+    private final Consumer<String> expurgarComunidades;
+    private final int lote = Integer.getInteger("jackut.expurgo.lote", LOTE_PADRAO);
+    private final Deque<Pendencia> pendentes = new ArrayDeque<>();
+    private final MetricasExpurgo metricas = new MetricasExpurgo();
+    private final LapidesUsuarios lapides = new LapidesUsuarios();
+    /** Indica que há uma tarefa deste expurgo na fila da thread */
+    private boolean agendado;
+    /** Versões de leitura que retiram as lápides ao publicar, se houver */
+    private volatile VersoesLeitura versoes;
+
+    /**
+     * @param trava Trava exclusiva do estado do sistema ({@link TravasUsuarios#exclusiva()})
+     * @param expurgarReferencias Retira de um usuário (primeiro argumento) as referências ao
+     *                            login removido (segundo argumento)
+     * @param expurgarComunidades Retira um login removido das comunidades
+     */
+    public ExpurgoUsuarios(Lock trava, BiConsumer<String, String> expurgarReferencias,
+                           Consumer<String> expurgarComunidades) {
+        this.trava = trava;
+        this.expurgarReferencias = expurgarReferencias;
+        this.expurgarComunidades = expurgarComunidades;
+    }
+
+    /**
+     * Marca um login com lápide e agenda o expurgo das suas referências. Deve ser chamado
+     * com a trava exclusiva do sistema adquirida.
+     *
+     * @param login Login removido
+     * @param referenciadores Usuários que podem referenciar o login
+     */
+    public void agendar(String login, ConjuntoIds referenciadores) {
+        lapides.marcar(login);
+        pendentes.add(new Pendencia(login, referenciadores));
+        metricas.registrarRemocao(referenciadores.tamanho());
+        if (!agendado) {
+            agendado = true;
+            EXECUTOR.execute(this::executar);
+        }
+    }
+
+    /**
+     * Verifica se um login ainda tem referências a expurgar.
+     *
+     * @param login Login a ser verificado
+     * @return true se o login foi removido e o expurgo não terminou
+     */
+    public boolean pendente(String login) {
+        for (Pendencia pendencia : pendentes) {
+            if (pendencia.login.equals(login)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Conclui imediatamente o expurgo de um login, por exemplo antes de um novo usuário
+     * ser criado com o mesmo login. Deve ser chamado com a trava exclusiva do sistema adquirida.
+     *
+     * @param login Login removido
+     */
+    public void concluir(String login) {
+        for (Iterator<Pendencia> it = pendentes.iterator(); it.hasNext(); ) {
+            Pendencia pendencia = it.next();
+            if (pendencia.login.equals(login)) {
+                avancar(pendencia, Integer.MAX_VALUE);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Conclui imediatamente todos os expurgos pendentes, para que o estado gravado não
+     * contenha referências a usuários removidos. Deve ser chamado com a trava exclusiva do
+     * sistema adquirida.
+     */
+    public void concluirTodos() {
+        while (!pendentes.isEmpty()) {
+            Pendencia pendencia = pendentes.peek();
+            avancar(pendencia, Integer.MAX_VALUE);
+            if (pendencia.concluida) {
+                pendentes.poll();
+            }
+        }
+    }
+
+    /**
+     * Descarta os expurgos pendentes e as lápides, quando o estado do sistema é apagado.
+     */
+    public void cancelar() {
+        pendentes.clear();
+        lapides.limpar();
+        metricas.registrarCancelamento();
+    }
+
+    /**
+     * @return Lápides dos logins com expurgo pendente, consultadas pelos registros desta instância
+     */
+    public LapidesUsuarios getLapides() {
+        return lapides;
+    }
+
+    /**
+     * Define as versões de leitura que devem retirar as lápides ao publicar a versão sem as
+     * referências expurgadas ({@link VersoesLeitura#desmarcarAoPublicar(String)}).
+     *
+     * @param versoes Versões de leitura ou null para retirar as lápides imediatamente
+     */
+    public void setVersoes(VersoesLeitura versoes) {
+        this.versoes = versoes;
+    }
+
+    /**
+     * @return Métricas de pendência e progresso do expurgo
+     */
+    public MetricasExpurgo getMetricas() {
+        return metricas;
+    }
+
+    private void executar() {
+        boolean continuar = true;
+        while (continuar) {
+            trava.lock();
+            try {
+                continuar = executarLote();
+                if (!continuar) {
+                    agendado = false;
+                }
+            } finally {
+                trava.unlock();
+            }
+        }
+    }
+
+    /**
+     * Visita até {@link #lote} referenciadores dos logins pendentes.
+     * @return true se ainda restam expurgos pendentes
+     */
+    private boolean executarLote() {
+        int restante = lote;
+        while (restante > 0 && !pendentes.isEmpty()) {
+            Pendencia pendencia = pendentes.peek();
+            restante -= avancar(pendencia, restante);
+            if (pendencia.concluida) {
+                pendentes.poll();
+            }
+        }
+        metricas.registrarLote();
+        return !pendentes.isEmpty();
+    }
+
+    /**
+     * Visita até {@code limite} referenciadores de um login e, se todos já foram visitados,
+     * conclui o expurgo retirando-o das comunidades e retirando a lápide (ou agendando a sua
+     * retirada para a publicação da versão de leitura).
+     *
+     * @return Quantidade de referenciadores visitados
+     */
+    private int avancar(Pendencia pendencia, int limite) {
+        int visitados = 0;
+        while (visitados < limite && pendencia.proximo < pendencia.referenciadores.tamanho()) {
+            String outro = DicionarioUsuarios.login(pendencia.referenciadores.get(pendencia.proximo++));
+            visitados++;
+            metricas.registrarVisita();
+            if (outro.equals(pendencia.login)) {
+                continue;
+            }
+            try {
+                expurgarReferencias.accept(outro, pendencia.login);
+            } catch (RuntimeException e) {
+                System.err.println("Erro ao expurgar referências a " + pendencia.login + ": " + e.getMessage());
+            }
+        }
+        if (!pendencia.concluida && pendencia.proximo >= pendencia.referenciadores.tamanho()) {
+            try {
+                expurgarComunidades.accept(pendencia.login);
+            } catch (RuntimeException e) {
+                System.err.println("Erro ao expurgar referências a " + pendencia.login + ": " + e.getMessage());
+            }
+            pendencia.concluida = true;
+            VersoesLeitura publicacao = versoes;
+            if (publicacao == null) {
+                lapides.desmarcar(pendencia.login);
+            } else {
+                publicacao.desmarcarAoPublicar(pendencia.login);
+            }
+            metricas.registrarConclusao();
+        }
+        return visitados;
+    }
+
+    /** Login removido e posição do próximo referenciador a visitar. */
+    private static final class Pendencia {
+        final String login;
+        final ConjuntoIds referenciadores;
+        int proximo;
+        boolean concluida;
+
+        Pendencia(String login, ConjuntoIds referenciadores) {
+            this.login = login;
+            this.referenciadores = referenciadores;
+        }
+    }
+}
@@ -1,116 +1,139 @@
 package br.ufal.ic.p2.jackut.Componentes;
 
 import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorAmizades;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioSessoes;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioUsuarios;
 import br.ufal.ic.p2.jackut.Users;
 import br.ufal.ic.p2.jackut.Exceptions.*;
 import java.io.Serializable;
 import java.util.*;
 
 /**
- * Gerencia todas as operaes relacionadas a amizades e relacionamentos sociais no sistema Jackut.
+ * Gerencia todas as operações relacionadas a amizades e relacionamentos sociais no sistema Jackut.
  * <p>
  * Principais responsabilidades:
  * <ul>
- *   <li>Processar solicitaes de amizade entre usurios</li>
- *   <li>Gerenciar listas de amigos e solicitaes pendentes</li>
- *   <li>Validar relaes sociais de acordo com as regras do sistema</li>
- *   <li>Garantir consistncia nas operaes de amizade</li>
+ *   <li>Processar solicitações de amizade entre usuários</li>
+ *   <li>Gerenciar listas de amigos e solicitações pendentes</li>
+ *   <li>Validar relações sociais de acordo com as regras do sistema</li>
+ *   <li>Garantir consistência nas operações de amizade</li>
  * </ul>
  *
- * <p>Implementa {@link Serializable} para permitir persistncia do estado das relaes.</p>
+ * <p>Implementa {@link Serializable} para permitir persistência do estado das relações.</p>
  */
 public class GerenciadorAmizades implements IGerenciadorAmizades, Serializable {
 
     /**
-     * Identificador de verso para controle de serializao.
+     * Identificador de versão para controle de serialização.
      * <p>
-     * Garante compatibilidade entre verses diferentes da classe durante desserializao.
+     * Garante compatibilidade entre versões diferentes da classe durante desserialização.
      */
     private static final long serialVersionUID = 5L;
 
     /**
-     * Mapa de usurios registrados (login ? objeto Users) para acesso s relaes sociais
+     * Repositório de usuários registrados para acesso às relações sociais
      */
-    private final Map<String, Users> usuarios;
+    private transient IRepositorioUsuarios usuarios;
 
     /**
-     * Mapa de sesses ativas (ID sesso ? login) para validao de autenticao
+     * Repositório de sessões ativas para validação de autenticação
      */
-    private final Map<String, String> sessoes;
+    private transient IRepositorioSessoes sessoes;
 
     /**
-     * Mapa reverso de sesses (login ? ID sesso) para controle de sesses nicas
-     */
-    private final Map<String, String> loginParaSessao;
-
-    /**
-     * Constri o gerenciador com dependncias necessrias para operao completa.
+     * Constrói o gerenciador com dependências necessárias para operação completa.
      *
-     * @param usuarios Mapa principal de usurios do sistema
-     * @param sessoes Registro de sesses ativas
-     * @param loginParaSessao Mapeamento reverso para controle de sesses
+     * @param usuarios Repositório principal de usuários do sistema
+     * @param sessoes Repositório de sessões ativas
      */
-    public GerenciadorAmizades(Map<String, Users> usuarios, Map<String, String> sessoes,
-                               Map<String, String> loginParaSessao) {
+    public GerenciadorAmizades(IRepositorioUsuarios usuarios, IRepositorioSessoes sessoes) {
         this.usuarios = usuarios;
         this.sessoes = sessoes;
-        this.loginParaSessao = loginParaSessao;
     }
 
     /**
-     * Processa solicitao de amizade entre usurios aps mltiplas validaes.
+     * Processa solicitação de amizade entre usuários após múltiplas validações.
      * <p>
-     * Fluxo completo de operao:
+     * Fluxo completo de operação:
      * <ol>
-     *   <li>Valida existncia do usurio alvo</li>
-     *   <li>Verifica autenticao do solicitante via sesso</li>
+     *   <li>Valida existência do usuário alvo</li>
+     *   <li>Verifica autenticação do solicitante via sessão</li>
      *   <li>Impede auto-amizade</li>
-     *   <li>Verifica se j so amigos mtuos</li>
-     *   <li>Checa solicitaes pendentes existentes</li>
-     *   <li>Aceita automaticamente solicitaes mtuas pendentes</li>
-     *   <li>Registra nova solicitao se vlido</li>
+     *   <li>Verifica se já são amigos mútuos</li>
+     *   <li>Checa solicitações pendentes existentes</li>
+     *   <li>Aceita automaticamente solicitações mútuas pendentes</li>
+     *   <li>Registra nova solicitação se válido</li>
      * </ol>
      *
-     * @param idSessao ID da sesso vlida do solicitante
-     * @param amigoLogin Login do usurio alvo da amizade
-     * @throws UsuarioNaoEncontradoException Se o amigo no existir ou sesso invlida
-     * @throws SessaoInvalidaExecption Se a sesso for invlida/expirada
+     * @param idSessao ID da sessão válida do solicitante
+     * @param amigoLogin Login do usuário alvo da amizade
+     * @throws UsuarioNaoEncontradoException Se o amigo não existir ou sessão inválida
+     * @throws SessaoInvalidaExecption Se a sessão for inválida/expirada
      * @throws AmigoDeSiException Se tentar adicionar a si mesmo como amigo
-     * @throws AmigoJaExistenteException Se j existir amizade mtua
-     * @throws AmigoPendenteException Se j houver solicitao pendente para este amigo
+     * @throws AmigoJaExistenteException Se já existir amizade mútua
+     * @throws AmigoPendenteException Se já houver solicitação pendente para este amigo
      *
-     * <p><b>Exemplo de aceitao automtica:</b><br>
-     * Se Joo tem solicitao pendente de Maria, quando Maria enviar nova solicitao,
-     * o sistema aceitar automaticamente criando amizade mtua</p>
+     * <p><b>Exemplo de aceitação automática:</b><br>
+     * Se João tem solicitação pendente de Maria, quando Maria enviar nova solicitação,
+     * o sistema aceitará automaticamente criando amizade mútua</p>
      */
     @Override
     public void adicionarAmigo(String idSessao, String amigoLogin)
             throws UsuarioNaoEncontradoException, SessaoInvalidaExecption,
             AmigoDeSiException, AmigoJaExistenteException, AmigoPendenteException {
+        verificarAmizade(idSessao, amigoLogin);
+
+        String usuarioLogin = sessoes.getLogin(idSessao);
+        Users usuario = usuarios.buscar(usuarioLogin);
+        Users amigo = usuarios.buscar(amigoLogin);
+
+        if (usuario.temSolicitacaoPendente(amigoLogin)) {
+            aceitarSolicitacao(usuarioLogin, amigoLogin);
+            return;
+        }
+
+        amigo.receberSolicitacao(usuarioLogin);
+    }
+
+    /**
+     * Executa as validações de {@link #adicionarAmigo(String, String)} sem alterar os usuários.
+     *
+     * @param idSessao ID da sessão válida do solicitante
+     * @param amigoLogin Login do usuário alvo da amizade
+     * @throws UsuarioNaoEncontradoException Se o amigo não existir ou sessão inválida
+     * @throws SessaoInvalidaExecption Se a sessão for inválida/expirada
+     * @throws AmigoDeSiException Se tentar adicionar a si mesmo como amigo
+     * @throws AmigoJaExistenteException Se já existir amizade mútua
+     * @throws AmigoPendenteException Se já houver solicitação pendente para este amigo
+     */
+    @Override
+    public void verificarAmizade(String idSessao, String amigoLogin)
+            throws UsuarioNaoEncontradoException, SessaoInvalidaExecption,
+            AmigoDeSiException, AmigoJaExistenteException, AmigoPendenteException {
 
         // 1. Verifica se o amigo existe
-        if (amigoLogin == null || amigoLogin.trim().isEmpty() || !usuarios.containsKey(amigoLogin)) {
+        if (amigoLogin == null || amigoLogin.trim().isEmpty() || !usuarios.existe(amigoLogin)) {
             throw new UsuarioNaoEncontradoException();
         }
 
-        // 2. Valida a sesso primeiro
+        // 2. Valida a sessão primeiro
         if (idSessao == null || idSessao.trim().isEmpty()) {
             throw new UsuarioNaoEncontradoException();}
 
 
 
-        String usuarioLogin = sessoes.get(idSessao);
+        String usuarioLogin = sessoes.getLogin(idSessao);
        if (usuarioLogin == null) {
             throw new UsuarioNaoEncontradoException();
         }
 
-        // 3. Demais validaes (auto-amizade, solicitaes, etc.)
+        // 3. Demais validações (auto-amizade, solicitações, etc.)
         if (usuarioLogin.equals(amigoLogin)) {
             throw new AmigoDeSiException();
         }
 
-        Users usuario = usuarios.get(usuarioLogin);
-        Users amigo = usuarios.get(amigoLogin);
+        Users usuario = usuarios.buscar(usuarioLogin);
+        Users amigo = usuarios.buscar(amigoLogin);
 
         if (usuario.ehAmigo(amigoLogin) && amigo.ehAmigo(usuarioLogin)) {
             throw new AmigoJaExistenteException();
@@ -119,96 +142,89 @@ public class GerenciadorAmizades implements IGerenciadorAmizades, Serializable {
         if (amigo.temSolicitacaoPendente(usuarioLogin)) {
             throw new AmigoPendenteException();
         }
-
-        if (usuario.temSolicitacaoPendente(amigoLogin)) {
-            aceitarSolicitacao(usuarioLogin, amigoLogin);
-            return;
-        }
-
-        amigo.receberSolicitacao(usuarioLogin);
     }
 
     /**
-     * Verifica relao de amizade unilateral entre usurios.
+     * Verifica relação de amizade unilateral entre usuários.
      *
-     * @param login Usurio base para verificao
-     * @param amigo Usurio alvo da verificao
-     * @return true se o usurio base tiver o alvo em sua lista de amigos
-     * @throws UsuarioNaoEncontradoException Se algum usurio no existir
+     * @param login Usuário base para verificação
+     * @param amigo Usuário alvo da verificação
+     * @return true se o usuário base tiver o alvo em sua lista de amigos
+     * @throws UsuarioNaoEncontradoException Se algum usuário não existir
      *
-     * <p><b>Nota:</b> No verifica reciprocidade (consulte {@link #ehAmigoMutuo})</p>
+     * <p><b>Nota:</b> Não verifica reciprocidade (consulte {@link #ehAmigoMutuo})</p>
      */
     @Override
     public boolean ehAmigo(String login, String amigo) throws UsuarioNaoEncontradoException {
-        Users usuario = usuarios.get(login);
+        Users usuario = usuarios.buscar(login);
         if (usuario == null) throw new UsuarioNaoEncontradoException();
         return usuario.ehAmigo(amigo);
     }
 
     /**
-     * Verifica amizade mtua entre dois usurios.
+     * Verifica amizade mútua entre dois usuários.
      *
-     * @param login Primeiro usurio para verificao
-     * @param amigo Segundo usurio para verificao
+     * @param login Primeiro usuário para verificação
+     * @param amigo Segundo usuário para verificação
      * @return true se ambos estiverem na lista de amigos um do outro
-     * @throws UsuarioNaoEncontradoException Se algum usurio no existir
+     * @throws UsuarioNaoEncontradoException Se algum usuário não existir
      */
     @Override
     public boolean ehAmigoMutuo(String login, String amigo) throws UsuarioNaoEncontradoException {
-        Users usuario = usuarios.get(login);
-        Users outroUsuario = usuarios.get(amigo);
+        Users usuario = usuarios.buscar(login);
+        Users outroUsuario = usuarios.buscar(amigo);
         if (usuario == null || outroUsuario == null) throw new UsuarioNaoEncontradoException();
         return usuario.ehAmigo(amigo) && outroUsuario.ehAmigo(login);
     }
 
 
     /**
-     * Retorna lista formatada de amigos de um usurio.
+     * Retorna lista formatada de amigos de um usuário.
      *
-     * @param login Usurio alvo da consulta
+     * @param login Usuário alvo da consulta
      * @return String no formato "{amigo1,amigo2,...}" ou "{}" se vazio
-     * @throws UsuarioNaoEncontradoException Se o usurio no existir
+     * @throws UsuarioNaoEncontradoException Se o usuário não existir
      *
      */
     @Override
     public String getAmigos(String login) throws UsuarioNaoEncontradoException {
-        Users usuario = usuarios.get(login);
+        Users usuario = usuarios.buscar(login);
         if (usuario == null) throw new UsuarioNaoEncontradoException();
         return "{" + String.join(",", usuario.getAmigos()) + "}";
     }
 
     /**
-     * Retorna solicitaes de amizade pendentes formatadas.
+     * Retorna solicitações de amizade pendentes formatadas.
      *
-     * @param login Usurio alvo da consulta
+     * @param login Usuário alvo da consulta
      * @return String no formato "{solicitante1,solicitante2,...}" ou "{}"
-     * @throws UsuarioNaoEncontradoException Se o usurio no existir
+     * @throws UsuarioNaoEncontradoException Se o usuário não existir
      */
     @Override
     public String getSolicitacoesPendentes(String login) throws UsuarioNaoEncontradoException {
-        Users usuario = usuarios.get(login);
+        Users usuario = usuarios.buscar(login);
         if (usuario == null) throw new UsuarioNaoEncontradoException();
         return "{" + String.join(",", usuario.getSolicitacoesPendentes()) + "}";
     }
 
     /**
-     * Aceita uma solicitao de amizade pendente, estabelecendo relao mtua.
+     * Aceita uma solicitação de amizade pendente, estabelecendo relação mútua.
      * <p>
      * Efeitos colaterais:
      * <ul>
-     *   <li>Remove solicitao da lista de pendncias</li>
-     *   <li>Adiciona ambos usurios como amigos mtuos</li>
-     *   <li>Notifica ambos usurios via sistema</li>
+     *   <li>Remove solicitação da lista de pendências</li>
+     *   <li>Adiciona ambos usuários como amigos mútuos</li>
+     *   <li>Notifica ambos usuários via sistema</li>
      * </ul>
      *
-     * @param usuario Usurio que est aceitando a solicitao
-     * @param amigo Usurio que enviou a solicitao
-     * @throws UsuarioNaoEncontradoException Se algum usurio no existir
+     * @param usuario Usuário que está aceitando a solicitação
+     * @param amigo Usuário que enviou a solicitação
+     * @throws UsuarioNaoEncontradoException Se algum usuário não existir
      */
     @Override
     public void aceitarSolicitacao(String usuario, String amigo) throws UsuarioNaoEncontradoException {
-        Users user = usuarios.get(usuario);
-        Users friend = usuarios.get(amigo);
+        Users user = usuarios.buscar(usuario);
+        Users friend = usuarios.buscar(amigo);
         if (user == null || friend == null) throw new UsuarioNaoEncontradoException();
 
         if (user.aceitarSolicitacao(amigo)) {
@@ -217,38 +233,38 @@ public class GerenciadorAmizades implements IGerenciadorAmizades, Serializable {
     }
 
     /**
-     * Recusa permanentemente uma solicitao de amizade.
+     * Recusa permanentemente uma solicitação de amizade.
      * <p>
      * Comportamento:
      * <ul>
-     *   <li>Remove solicitao da lista de pendncias</li>
-     *   <li>No notifica o solicitante</li>
-     *   <li>No registra histrico da operao</li>
+     *   <li>Remove solicitação da lista de pendências</li>
+     *   <li>Não notifica o solicitante</li>
+     *   <li>Não registra histórico da operação</li>
      * </ul>
      *
-     * @param usuario Usurio que est recusando
-     * @param amigo Usurio solicitante
-     * @throws UsuarioNaoEncontradoException Se o usurio no existir
+     * @param usuario Usuário que está recusando
+     * @param amigo Usuário solicitante
+     * @throws UsuarioNaoEncontradoException Se o usuário não existir
      */
     @Override
     public void recusarSolicitacao(String usuario, String amigo) throws UsuarioNaoEncontradoException {
-        Users user = usuarios.get(usuario);
+        Users user = usuarios.buscar(usuario);
         if (user == null) throw new UsuarioNaoEncontradoException();
-        user.getSolicitacoesPendentes().remove(amigo);
+        user.removerSolicitacao(amigo);
     }
 
 
     /**
-     * Verifica existncia de solicitao pendente entre usurios.
+     * Verifica existência de solicitação pendente entre usuários.
      *
-     * @param deUsuario Possvel solicitante
-     * @param paraUsuario Possvel receptor
-     * @return true se existir solicitao no respondida do solicitante para o receptor
-     * @throws UsuarioNaoEncontradoException Se o receptor no existir
+     * @param deUsuario Possível solicitante
+     * @param paraUsuario Possível receptor
+     * @return true se existir solicitação não respondida do solicitante para o receptor
+     * @throws UsuarioNaoEncontradoException Se o receptor não existir
      */
     @Override
     public boolean temSolicitacaoPendente(String deUsuario, String paraUsuario) throws UsuarioNaoEncontradoException {
-        Users user = usuarios.get(paraUsuario);
+        Users user = usuarios.buscar(paraUsuario);
         if (user == null) throw new UsuarioNaoEncontradoException();
         return user.temSolicitacaoPendente(deUsuario);
     }
@@ -1,116 +1,330 @@
 package br.ufal.ic.p2.jackut.Componentes;
 
 import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorComunidades;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioComunidades;
 import br.ufal.ic.p2.jackut.Comunidade;
 import br.ufal.ic.p2.jackut.Exceptions.*;
+import br.ufal.ic.p2.jackut.Persistencia.RegistroAlteracoes;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
 
+/**
+ * Gerenciador das comunidades do Jackut.
+ * <p>
+ * Além do repositório de comunidades, mantém um índice das comunidades de cada usuário,
+ * separadas entre as que ele é dono e as que ele apenas participa, cada grupo em ordem
+ * alfabética. O índice é atualizado junto com as comunidades e não é gravado: ele é refeito
+ * à medida que as comunidades são restauradas.
+ * </p>
+ * <p>
+ * As mensagens enviadas a uma comunidade ficam no registro dela, com um cursor por membro;
+ * a leitura percorre apenas as comunidades do usuário, pelo mesmo índice.
+ * </p>
+ */
 public class GerenciadorComunidades implements IGerenciadorComunidades, Serializable {
     private static final long serialVersionUID = 4L;
-    private final Map<String, Comunidade> comunidades;
+    private transient IRepositorioComunidades comunidades;
+    private transient RegistroAlteracoes alteracoes = new RegistroAlteracoes();
+    /**
+     * Comunidades de cada usuário (login -> comunidades próprias e das quais participa). As
+     * entradas de um usuário só são alteradas com a listra dele adquirida ({@link TravasUsuarios}).
+     */
+    private transient Map<String, ComunidadesDoUsuario> porUsuario = new MapaConcorrente<>();
+    private transient LapidesUsuarios lapides = LapidesUsuarios.NENHUMA;
 
     public GerenciadorComunidades() {
-        this.comunidades = new HashMap<>();
+        this(new RepositorioComunidadesHeap());
+    }
+
+    /**
+     * Cria o gerenciador sobre o repositório de comunidades informado.
+     *
+     * @param comunidades Repositório vazio de comunidades
+     */
+    public GerenciadorComunidades(IRepositorioComunidades comunidades) {
+        this.comunidades = comunidades;
     }
 
     @Override
     public void criarComunidade(String nome, String descricao, String dono)
             throws ComunidadeJaExisteException {
-        // Verificao case-sensitive
-        if (comunidades.containsKey(nome)) {
+        // Verificação case-sensitive
+        if (comunidades.existe(nome)) {
             throw new ComunidadeJaExisteException();
         }
-        comunidades.put(nome, new Comunidade(nome, descricao, dono));}
+        alteracoes.marcarComunidade(nome);
+        Comunidade comunidade = new Comunidade(nome, descricao, dono);
+        comunidade.setLapides(lapides);
+        comunidades.salvar(comunidade);
+        indexar(comunidade);
+    }
 
     @Override
     public String getDescricao(String nome) throws ComunidadeNaoExisteException {
-        if (!comunidades.containsKey(nome)) {
+        if (!comunidades.existe(nome)) {
             throw new ComunidadeNaoExisteException();
         }
-        return comunidades.get(nome).getDescricao();
+        return comunidades.buscar(nome).getDescricao();
     }
 
     // Em GerenciadorComunidades.java
     @Override
     public List<String> getMembros(String nome) throws ComunidadeNaoExisteException {
-        if (!comunidades.containsKey(nome)) {
+        if (!comunidades.existe(nome)) {
             throw new ComunidadeNaoExisteException();
         }
-        return comunidades.get(nome).getMembros();
+        return comunidades.buscar(nome).getMembros();
     }
 
     @Override
     public String getDono(String nome) throws ComunidadeNaoExisteException {
-        if (!comunidades.containsKey(nome)) {
+        if (!comunidades.existe(nome)) {
             throw new ComunidadeNaoExisteException();
         }
-        return comunidades.get(nome).getDono();
+        return comunidades.buscar(nome).getDono();
     }
 
     @Override
     public boolean existeComunidade(String nome) {
-        return comunidades.containsKey(nome);
+        return comunidades.existe(nome);
     }
 
     // In GerenciadorComunidades.java, ensure adicionarMembro adds the member
     @Override
     public void adicionarmembro(String comunidade, String membro)
             throws ComunidadeNaoExisteException, MembroJaExisteException {
-        if (!comunidades.containsKey(comunidade)) {
+        if (!comunidades.existe(comunidade)) {
             throw new ComunidadeNaoExisteException();
         }
 
-        comunidades.get(comunidade).adicionarMembro(membro);
+        alteracoes.marcarComunidade(comunidade);
+        comunidades.buscar(comunidade).adicionarMembro(membro);
+        comunidadesDe(membro).participacoes.add(comunidade);
     }
 
     @Override
-    public List<String> getComunidades() {
-        return new ArrayList<>(comunidades.keySet());
+    public long publicarMensagem(String comunidade, String mensagem) throws ComunidadeNaoExisteException {
+        if (!comunidades.existe(comunidade)) {
+            throw new ComunidadeNaoExisteException();
+        }
+        alteracoes.marcarComunidade(comunidade);
+        return comunidades.buscar(comunidade).adicionarMensagem(mensagem);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Consulta, pelo índice do usuário, a próxima mensagem pendente de cada comunidade dele e
+     * escolhe a de menor número de sequência, preservando a ordem de envio entre comunidades.
+     * </p>
+     */
     @Override
-    public List<String> getComunidadesDoUsuario(String usuario) {
-        List<String> owned = new ArrayList<>();
-        List<String> member = new ArrayList<>();
-
-        for (Map.Entry<String, Comunidade> entry : comunidades.entrySet()) {
-            String nomeComunidade = entry.getKey();
-            Comunidade comunidade = entry.getValue();
-
-            if (comunidade.getMembros().contains(usuario)) {
-                if (comunidade.getDono().equals(usuario)) {
-                    owned.add(nomeComunidade); // Communities owned by the user
-                } else {
-                    member.add(nomeComunidade); // Communities the user joined
+    public Comunidade getComunidadeComMensagem(String login) {
+        ComunidadesDoUsuario indice = porUsuario.get(login);
+        if (indice == null) {
+            return null;
+        }
+        Comunidade escolhida = null;
+        long menor = Long.MAX_VALUE;
+        for (NavigableSet<String> grupo : Arrays.asList(indice.donas, indice.participacoes)) {
+            for (String nome : grupo) {
+                Comunidade comunidade = comunidades.buscar(nome);
+                long sequencia = comunidade == null ? -1 : comunidade.getProximaMensagem(login);
+                if (sequencia >= 0 && sequencia < menor) {
+                    menor = sequencia;
+                    escolhida = comunidade;
                 }
             }
         }
+        return escolhida;
+    }
 
-        // Sort both lists alphabetically
-        Collections.sort(owned);
-        Collections.sort(member);
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Apenas a comunidade da mensagem consumida é marcada como alterada.
+     * </p>
+     */
+    @Override
+    public String retirarMensagem(String login, long limite) {
+        Comunidade origem = getComunidadeComMensagem(login);
+        if (origem == null || origem.getProximaMensagem(login) >= limite) {
+            return null;
+        }
+        alteracoes.marcarComunidade(origem.getNome());
+        try {
+            return origem.lerMensagem(login);
+        } catch (SemMensagemException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public List<String> getComunidades() {
+        return new ArrayList<>(comunidades.getNomes());
+    }
 
-        // Combine lists: owned first, then member
-        owned.addAll(member);
-        return owned;
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Consulta o índice do usuário: o custo é proporcional à quantidade de comunidades dele,
+     * sem percorrer as demais nem ordenar. Um usuário com lápide não tem comunidades.
+     * </p>
+     */
+    @Override
+    public List<String> getComunidadesDoUsuario(String usuario) {
+        ComunidadesDoUsuario indice = porUsuario.get(usuario);
+        if (indice == null || lapides.removido(usuario)) {
+            return new ArrayList<>();
+        }
+        List<String> resultado = new ArrayList<>(indice.donas.size() + indice.participacoes.size());
+        resultado.addAll(indice.donas);
+        resultado.addAll(indice.participacoes);
+        return resultado;
     }
 
+    @Override
     public void removerUsuario(String login) {
+        removerComunidadesDoDono(login);
+        removerMembro(login);
+    }
+
+    @Override
+    public void removerComunidadesDoDono(String dono) {
         List<String> comunidadesParaRemover = new ArrayList<>();
-        for (Comunidade comunidade : comunidades.values()) {
-            if (comunidade.getDono().equals(login)) {
+        for (Comunidade comunidade : comunidades.getComunidades()) {
+            if (comunidade.getDono().equals(dono)) {
                 comunidadesParaRemover.add(comunidade.getNome());
             }
         }
         for (String nome : comunidadesParaRemover) {
-            comunidades.remove(nome);
+            alteracoes.marcarComunidadeRemovida(nome);
+            descartarComunidade(nome);
         }
+    }
 
-        for (Comunidade comunidade : comunidades.values()) {
-            if (comunidade.isMembro(login)) {
+    @Override
+    public void removerMembro(String login) {
+        ComunidadesDoUsuario indice = porUsuario.remove(login);
+        if (indice == null) {
+            return;
+        }
+        for (String nome : indice.participacoes) {
+            Comunidade comunidade = comunidades.buscar(nome);
+            if (comunidade != null && comunidade.isMembro(login)) {
+                alteracoes.marcarComunidade(nome);
+                comunidade.removerMembro(login);
+            }
+        }
+        // Comunidades próprias já foram removidas; as restantes teriam outro dono
+        for (String nome : indice.donas) {
+            Comunidade comunidade = comunidades.buscar(nome);
+            if (comunidade != null && comunidade.isMembro(login)) {
+                alteracoes.marcarComunidade(nome);
                 comunidade.removerMembro(login);
             }
         }
     }
+
+    @Override
+    public Collection<Comunidade> getRegistrosComunidades() {
+        return comunidades.getComunidades();
+    }
+
+    @Override
+    public void restaurarComunidade(Comunidade comunidade) {
+        Comunidade anterior = comunidades.buscar(comunidade.getNome());
+        if (anterior != null) {
+            desindexar(anterior);
+        }
+        comunidade.setLapides(lapides);
+        comunidades.salvar(comunidade);
+        indexar(comunidade);
+    }
+
+    @Override
+    public Comunidade getRegistroComunidade(String nome) {
+        return comunidades.buscar(nome);
+    }
+
+    @Override
+    public void descartarComunidade(String nome) {
+        Comunidade comunidade = comunidades.buscar(nome);
+        if (comunidade != null) {
+            desindexar(comunidade);
+        }
+        comunidades.remover(nome);
+    }
+
+    @Override
+    public void setRegistroAlteracoes(RegistroAlteracoes alteracoes) {
+        this.alteracoes = alteracoes;
+    }
+
+    @Override
+    public void setLapides(LapidesUsuarios lapides) {
+        this.lapides = lapides;
+        for (Comunidade comunidade : comunidades.getComunidades()) {
+            comunidade.setLapides(lapides);
+        }
+    }
+
+    /**
+     * Lê o formato antigo (serialização Java), em que as comunidades eram gravadas como um mapa.
+     */
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField campos = ois.readFields();
+        @SuppressWarnings("unchecked")
+        Map<String, Comunidade> legado = (Map<String, Comunidade>) campos.get("comunidades", null);
+        this.comunidades = new RepositorioComunidadesHeap();
+        this.porUsuario = new MapaConcorrente<>();
+        this.lapides = LapidesUsuarios.NENHUMA;
+        if (legado != null) {
+            for (Comunidade comunidade : legado.values()) {
+                restaurarComunidade(comunidade);
+            }
+        }
+        this.alteracoes = new RegistroAlteracoes();
+    }
+
+    /**
+     * Registra a comunidade no índice de cada um dos seus membros.
+     */
+    private void indexar(Comunidade comunidade) {
+        String nome = comunidade.getNome();
+        String dono = comunidade.getDono();
+        for (String membro : comunidade.listarMembros()) {
+            ComunidadesDoUsuario indice = comunidadesDe(membro);
+            (membro.equals(dono) ? indice.donas : indice.participacoes).add(nome);
+        }
+    }
+
+    /**
+     * Retira a comunidade do índice de cada um dos seus membros.
+     */
+    private void desindexar(Comunidade comunidade) {
+        String nome = comunidade.getNome();
+        for (String membro : comunidade.listarMembros()) {
+            ComunidadesDoUsuario indice = porUsuario.get(membro);
+            if (indice != null) {
+                indice.donas.remove(nome);
+                indice.participacoes.remove(nome);
+                if (indice.donas.isEmpty() && indice.participacoes.isEmpty()) {
+                    porUsuario.remove(membro);
+                }
+            }
+        }
+    }
+
+    private ComunidadesDoUsuario comunidadesDe(String login) {
+        return porUsuario.computeIfAbsent(login, l -> new ComunidadesDoUsuario());
+    }
+
+    /** Comunidades de um usuário, em ordem alfabética. */
+    private static final class ComunidadesDoUsuario {
+        final NavigableSet<String> donas = new TreeSet<>();
+        final NavigableSet<String> participacoes = new TreeSet<>();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioRecados;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioUsuarios;
+import br.ufal.ic.p2.jackut.Mensagem;
+import br.ufal.ic.p2.jackut.Users;
+
+import java.util.Arrays;
+
+/**
+ * Índice reverso dos relacionamentos do Jackut: para cada login, os usuários que o
+ * referenciam em algum relacionamento (amigo, solicitação, fã, ídolo, paquera, inimigo)
+ * ou que têm recados dele na caixa de entrada.
+ * <p>
+ * Usado na remoção de um usuário, que passa a visitar apenas os usuários afetados em vez
+ * de percorrer todo o sistema. O índice é um superconjunto: as arestas são registradas
+ * quando criadas e não são retiradas quando o relacionamento é desfeito, de forma que um
+ * usuário indicado pode não referenciar mais o login; as remoções sobre ele simplesmente
+ * não encontram nada.
+ * </p>
+ * <p>
+ * Os conjuntos são indexados pelo identificador do {@link DicionarioUsuarios}. Depois que o
+ * estado é lido de um arquivo, o índice fica {@linkplain #invalidar() incompleto} e é
+ * reconstruído com uma única varredura na primeira vez que for necessário.
+ * </p>
+ * <p>
+ * Os métodos são sincronizados, pois operações sobre usuários diferentes registram
+ * referências em paralelo ({@link TravasUsuarios}).
+ * </p>
+ */
+public class IndiceReferencias {
+    private ConjuntoIds[] referenciadores = new ConjuntoIds[0];
+    private boolean completo = true;
+
+    /**
+     * Registra que um usuário passou a referenciar outro.
+     *
+     * @param referenciador Login do usuário que guarda a referência
+     * @param referenciado Login referenciado
+     */
+    public synchronized void registrar(String referenciador, String referenciado) {
+        int id = DicionarioUsuarios.id(referenciado);
+        if (id >= referenciadores.length) {
+            referenciadores = Arrays.copyOf(referenciadores, Math.max(id + 1, referenciadores.length * 2));
+        }
+        ConjuntoIds conjunto = referenciadores[id];
+        if (conjunto == null) {
+            conjunto = referenciadores[id] = new ConjuntoIds();
+        }
+        conjunto.adicionar(DicionarioUsuarios.id(referenciador));
+    }
+
+    /**
+     * Retira do índice os usuários que referenciam um login, normalmente porque ele está
+     * sendo removido do sistema.
+     *
+     * @param referenciado Login referenciado
+     * @return Identificadores dos usuários que podem referenciar o login (vazio se nenhum)
+     */
+    public synchronized ConjuntoIds retirar(String referenciado) {
+        int id = DicionarioUsuarios.idExistente(referenciado);
+        if (id < 0 || id >= referenciadores.length || referenciadores[id] == null) {
+            return new ConjuntoIds();
+        }
+        ConjuntoIds conjunto = referenciadores[id];
+        referenciadores[id] = null;
+        return conjunto;
+    }
+
+    /**
+     * Indica se o índice cobre todos os relacionamentos do sistema.
+     * @return false se o índice precisa ser {@linkplain #reconstruir reconstruído}
+     */
+    public synchronized boolean completo() { return completo; }
+
+    /**
+     * Marca o índice como incompleto, após o estado ter sido carregado sem passar pelas
+     * operações que registram as referências.
+     */
+    public synchronized void invalidar() { completo = false; }
+
+    /**
+     * Descarta todas as referências. Um sistema vazio tem o índice completo.
+     */
+    public synchronized void limpar() {
+        referenciadores = new ConjuntoIds[0];
+        completo = true;
+    }
+
+    /**
+     * Reconstrói o índice percorrendo os relacionamentos e as caixas de recados de todos
+     * os usuários, sem alterar o conjunto de usuários residentes.
+     *
+     * @param usuarios Repositório de usuários
+     * @param recados Repositório das caixas de recados
+     */
+    public synchronized void reconstruir(IRepositorioUsuarios usuarios, IRepositorioRecados recados) {
+        referenciadores = new ConjuntoIds[0];
+        for (String login : usuarios.getLogins()) {
+            Users usuario = usuarios.consultar(login);
+            if (usuario == null) {
+                continue;
+            }
+            for (Users.Relacao relacao : Users.Relacao.values()) {
+                for (String outro : usuario.getRelacao(relacao)) {
+                    registrar(login, outro);
+                }
+            }
+            for (Mensagem recado : recados.listarRecados(login)) {
+                registrar(login, recado.getRemetente());
+            }
+        }
+        completo = true;
+    }
+}
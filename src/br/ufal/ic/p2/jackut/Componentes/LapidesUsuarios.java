@@ -0,0 +1,133 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.Arrays;
+
+/**
+ * Lápides dos usuários de uma instância do Jackut: logins removidos cujas referências ainda
+ * estão sendo expurgadas em segundo plano ({@link ExpurgoUsuarios}).
+ * <p>
+ * Enquanto houver lápides, as consultas e listagens de relacionamentos, recados e membros
+ * ignoram esses logins ({@link #removido(int)}). Os identificadores vêm do
+ * {@link DicionarioUsuarios}, que é global; as lápides pertencem ao expurgo de cada instância,
+ * de forma que remover um usuário numa instância não o esconde das demais.
+ * </p>
+ * <p>
+ * As consultas leem um vetor ordenado sem travas; cada alteração publica uma cópia. Por isso
+ * um {@linkplain #retrato() retrato} custa apenas uma referência ao vetor atual: as versões de
+ * leitura guardam o retrato do momento em que foram publicadas e não são afetadas pelas
+ * alterações seguintes.
+ * </p>
+ */
+public final class LapidesUsuarios {
+
+    /** Lápides sempre vazias, usadas pelos registros ainda não ligados a uma instância. */
+    public static final LapidesUsuarios NENHUMA = new LapidesUsuarios(new int[0], true);
+
+    /** Identificadores com lápide, em ordem crescente (copiado a cada alteração) */
+    private volatile int[] removidos;
+    /** Indica lápides que não podem ser alteradas: as compartilhadas e os retratos */
+    private final boolean fixas;
+
+    /**
+     * Cria lápides vazias, alteradas pelo expurgo de uma instância.
+     */
+    public LapidesUsuarios() {
+        this(new int[0], false);
+    }
+
+    private LapidesUsuarios(int[] removidos, boolean fixas) {
+        this.removidos = removidos;
+        this.fixas = fixas;
+    }
+
+    /**
+     * Retrato das lápides atuais, que não reflete as alterações seguintes.
+     *
+     * @return Lápides fixas com os mesmos logins
+     */
+    public LapidesUsuarios retrato() {
+        int[] atual = removidos;
+        return fixas ? this : atual.length == 0 ? NENHUMA : new LapidesUsuarios(atual, true);
+    }
+
+    /**
+     * Marca um login com lápide: a partir daqui ele é ignorado pelas consultas, até que
+     * as suas referências sejam expurgadas.
+     *
+     * @param login Login removido
+     */
+    public synchronized void marcar(String login) {
+        verificarAlteravel();
+        int id = DicionarioUsuarios.id(login);
+        int[] atual = removidos;
+        int posicao = Arrays.binarySearch(atual, id);
+        if (posicao < 0) {
+            posicao = -posicao - 1;
+            int[] novo = new int[atual.length + 1];
+            System.arraycopy(atual, 0, novo, 0, posicao);
+            novo[posicao] = id;
+            System.arraycopy(atual, posicao, novo, posicao + 1, atual.length - posicao);
+            removidos = novo;
+        }
+    }
+
+    /**
+     * Retira a lápide de um login, após o expurgo das suas referências.
+     *
+     * @param login Login expurgado
+     */
+    public synchronized void desmarcar(String login) {
+        verificarAlteravel();
+        int[] atual = removidos;
+        int posicao = Arrays.binarySearch(atual, DicionarioUsuarios.idExistente(login));
+        if (posicao >= 0) {
+            int[] novo = new int[atual.length - 1];
+            System.arraycopy(atual, 0, novo, 0, posicao);
+            System.arraycopy(atual, posicao + 1, novo, posicao, novo.length - posicao);
+            removidos = novo;
+        }
+    }
+
+    /**
+     * Retira todas as lápides.
+     */
+    public synchronized void limpar() {
+        verificarAlteravel();
+        removidos = new int[0];
+    }
+
+    /**
+     * Verifica se há logins com lápide.
+     * @return true se alguma consulta precisa filtrar logins removidos
+     */
+    public boolean haRemovidos() {
+        return removidos.length > 0;
+    }
+
+    /**
+     * Verifica se um identificador tem lápide.
+     *
+     * @param id Identificador a ser verificado
+     * @return true se o login correspondente foi removido e ainda está sendo expurgado
+     */
+    public boolean removido(int id) {
+        int[] atual = removidos;
+        return atual.length > 0 && id >= 0 && Arrays.binarySearch(atual, id) >= 0;
+    }
+
+    /**
+     * Verifica se um login tem lápide.
+     *
+     * @param login Login a ser verificado
+     * @return true se o login foi removido e ainda está sendo expurgado
+     */
+    public boolean removido(String login) {
+        return haRemovidos() && removido(DicionarioUsuarios.idExistente(login));
+    }
+
+    private void verificarAlteravel() {
+        if (fixas) {
+            throw new UnsupportedOperationException("Lápides compartilhadas não podem ser alteradas");
+        }
+    }
+}
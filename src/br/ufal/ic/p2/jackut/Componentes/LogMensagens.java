@@ -0,0 +1,267 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mensagens de uma comunidade, guardadas uma única vez em um registro apenas de acréscimo,
+ * com um cursor de leitura por membro.
+ * <p>
+ * Cada mensagem ocupa uma posição do registro e recebe um número de sequência global, comum a
+ * todas as comunidades, que permite intercalar na ordem de envio as mensagens das várias
+ * comunidades de um usuário. O cursor de um membro é a posição da próxima mensagem que ele
+ * ainda não leu; quem entra na comunidade começa no fim do registro e não recebe as mensagens
+ * anteriores.
+ * </p>
+ * <p>
+ * Além dos cursores ({@link PosicoesIds}), o registro conta quantos membros estão parados em
+ * cada posição. Publicar, ler, entrar e sair custam O(1): basta mover um membro de uma
+ * contagem para outra. As mensagens do início que já foram lidas por todos os membros
+ * (contagem zero na primeira posição) são descartadas em seguida.
+ * </p>
+ */
+public class LogMensagens {
+    /**
+     * Próximo número de sequência, compartilhado por todas as comunidades; começa em 1 porque
+     * o zero identifica as mensagens entregues antes da numeração
+     */
+    private static final AtomicLong SEQUENCIA = new AtomicLong(1);
+
+    private static final int CAPACIDADE_INICIAL = 4;
+
+    private String[] textos = new String[CAPACIDADE_INICIAL];
+    private long[] sequencias = new long[CAPACIDADE_INICIAL];
+    /** Membros com cursor em cada posição, da primeira mensagem guardada até o fim (inclusive) */
+    private int[] leitores = new int[CAPACIDADE_INICIAL];
+    /** Índice dos vetores correspondente à primeira mensagem guardada */
+    private int cabeca;
+    /** Posição da primeira mensagem guardada */
+    private int inicio;
+    /** Quantidade de mensagens guardadas */
+    private int quantidade;
+    private PosicoesIds cursores = new PosicoesIds();
+
+    /**
+     * @return Quantidade de mensagens guardadas (ainda não lidas por algum membro)
+     */
+    public int tamanho() { return quantidade; }
+
+    /**
+     * Texto de uma mensagem guardada.
+     *
+     * @param i Índice entre as mensagens guardadas, da mais antiga para a mais recente
+     * @return Texto da mensagem
+     */
+    public String texto(int i) { return textos[cabeca + i]; }
+
+    /**
+     * Número de sequência de uma mensagem guardada.
+     *
+     * @param i Índice entre as mensagens guardadas, da mais antiga para a mais recente
+     * @return Número de sequência global da mensagem
+     */
+    public long sequencia(int i) { return sequencias[cabeca + i]; }
+
+    /**
+     * @return Textos das mensagens guardadas, da mais antiga para a mais recente
+     */
+    public List<String> textos() {
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(textos, cabeca, cabeca + quantidade)));
+    }
+
+    /**
+     * Anexa uma mensagem ao fim do registro com o próximo número de sequência. A mensagem
+     * fica pendente para todos os membros atuais.
+     *
+     * @param texto Texto da mensagem
+     * @return Número de sequência atribuído
+     */
+    public long publicar(String texto) {
+        long sequencia = SEQUENCIA.getAndIncrement();
+        anexar(sequencia, texto);
+        return sequencia;
+    }
+
+    /**
+     * Anexa uma mensagem com número de sequência já conhecido, ao restaurar um snapshot.
+     * Os próximos números de sequência passam a ser maiores que ele.
+     *
+     * @param sequencia Número de sequência da mensagem
+     * @param texto Texto da mensagem
+     */
+    public void anexar(long sequencia, String texto) {
+        if (cabeca + quantidade + 1 >= textos.length) {
+            realocar();
+        }
+        int i = cabeca + quantidade;
+        textos[i] = texto;
+        sequencias[i] = sequencia;
+        leitores[i + 1] = 0;
+        quantidade++;
+        SEQUENCIA.accumulateAndGet(sequencia + 1, Math::max);
+        descartarLidas();
+    }
+
+    /**
+     * Registra um novo membro com o cursor no fim do registro.
+     *
+     * @param id Identificador do membro
+     */
+    public void entrar(int id) {
+        if (cursores.obter(id) != PosicoesIds.AUSENTE) {
+            return;
+        }
+        cursores.definir(id, inicio + quantidade);
+        leitores[cabeca + quantidade]++;
+    }
+
+    /**
+     * Retira o cursor de um membro que saiu da comunidade.
+     *
+     * @param id Identificador do membro
+     */
+    public void sair(int id) {
+        int cursor = cursores.remover(id);
+        if (cursor != PosicoesIds.AUSENTE) {
+            leitores[indice(cursor)]--;
+            descartarLidas();
+        }
+    }
+
+    /**
+     * Número de sequência da próxima mensagem não lida por um membro, sem consumi-la.
+     *
+     * @param id Identificador do membro
+     * @return Número de sequência, ou -1 se o membro não tiver mensagens pendentes
+     */
+    public long proximaSequencia(int id) {
+        int cursor = cursores.obter(id);
+        if (cursor == PosicoesIds.AUSENTE || cursor == inicio + quantidade) {
+            return -1;
+        }
+        return sequencias[indice(cursor)];
+    }
+
+    /**
+     * Consome a próxima mensagem não lida por um membro, avançando o seu cursor.
+     *
+     * @param id Identificador do membro
+     * @return Texto da mensagem, ou null se o membro não tiver mensagens pendentes
+     */
+    public String ler(int id) {
+        int cursor = cursores.obter(id);
+        if (cursor == PosicoesIds.AUSENTE || cursor == inicio + quantidade) {
+            return null;
+        }
+        int i = indice(cursor);
+        String texto = textos[i];
+        leitores[i]--;
+        leitores[i + 1]++;
+        cursores.definir(id, cursor + 1);
+        descartarLidas();
+        return texto;
+    }
+
+    /**
+     * Marca uma mensagem como entregue a um membro por outro meio (na caixa dele), se ela for
+     * a próxima que o membro ainda não leu.
+     *
+     * @param id Identificador do membro
+     * @param sequencia Número de sequência da mensagem
+     * @return true se o cursor do membro foi avançado para depois da mensagem
+     */
+    public boolean entregar(int id, long sequencia) {
+        int cursor = cursores.obter(id);
+        if (cursor == PosicoesIds.AUSENTE || cursor == inicio + quantidade) {
+            return false;
+        }
+        int i = indice(cursor);
+        if (sequencias[i] != sequencia) {
+            return false;
+        }
+        leitores[i]--;
+        leitores[i + 1]++;
+        cursores.definir(id, cursor + 1);
+        descartarLidas();
+        return true;
+    }
+
+    /**
+     * @param id Identificador do membro
+     * @return Quantidade de mensagens guardadas que o membro ainda não leu
+     */
+    public int naoLidas(int id) {
+        int cursor = cursores.obter(id);
+        return cursor == PosicoesIds.AUSENTE ? 0 : inicio + quantidade - cursor;
+    }
+
+    /**
+     * Posiciona o cursor de um membro de forma que ele tenha as últimas {@code naoLidas}
+     * mensagens pendentes, ao restaurar um snapshot.
+     *
+     * @param id Identificador de um membro já registrado
+     * @param naoLidas Quantidade de mensagens pendentes
+     */
+    public void definirNaoLidas(int id, int naoLidas) {
+        int cursor = cursores.obter(id);
+        if (cursor == PosicoesIds.AUSENTE) {
+            return;
+        }
+        int novo = inicio + quantidade - Math.max(0, Math.min(naoLidas, quantidade));
+        leitores[indice(cursor)]--;
+        leitores[indice(novo)]++;
+        cursores.definir(id, novo);
+        descartarLidas();
+    }
+
+    /**
+     * Cópia independente do registro e dos cursores.
+     * @return Novo registro com as mesmas mensagens e cursores
+     */
+    public LogMensagens copiar() {
+        LogMensagens copia = new LogMensagens();
+        copia.textos = Arrays.copyOf(textos, textos.length);
+        copia.sequencias = Arrays.copyOf(sequencias, sequencias.length);
+        copia.leitores = Arrays.copyOf(leitores, leitores.length);
+        copia.cabeca = cabeca;
+        copia.inicio = inicio;
+        copia.quantidade = quantidade;
+        copia.cursores = cursores.copiar();
+        return copia;
+    }
+
+    private int indice(int posicao) {
+        return cabeca + (posicao - inicio);
+    }
+
+    /**
+     * Descarta as mensagens do início que nenhum membro ainda precisa ler.
+     */
+    private void descartarLidas() {
+        while (quantidade > 0 && leitores[cabeca] == 0) {
+            textos[cabeca] = null;
+            cabeca++;
+            inicio++;
+            quantidade--;
+        }
+    }
+
+    /**
+     * Move as mensagens guardadas para o começo de vetores com o dobro do espaço ocupado.
+     */
+    private void realocar() {
+        int capacidade = Math.max(CAPACIDADE_INICIAL, (quantidade + 2) * 2);
+        String[] novosTextos = new String[capacidade];
+        long[] novasSequencias = new long[capacidade];
+        int[] novosLeitores = new int[capacidade];
+        System.arraycopy(textos, cabeca, novosTextos, 0, quantidade);
+        System.arraycopy(sequencias, cabeca, novasSequencias, 0, quantidade);
+        System.arraycopy(leitores, cabeca, novosLeitores, 0, quantidade + 1);
+        textos = novosTextos;
+        sequencias = novasSequencias;
+        leitores = novosLeitores;
+        cabeca = 0;
+    }
+}
@@ -0,0 +1,34 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mapa concorrente que aceita consultas por chave nula.
+ * <p>
+ * Os mapas do sistema passam a permitir leitura concorrente (por exemplo, por um snapshot
+ * gravado em segundo plano), mas as operações continuam recebendo logins, sessões e nomes
+ * nulos vindos da interface. Como nenhuma chave nula é armazenada, consultas por chave nula
+ * simplesmente não encontram nada, como acontecia com {@link java.util.HashMap}.
+ * </p>
+ *
+ * @param <K> Tipo das chaves
+ * @param <V> Tipo dos valores
+ */
+public class MapaConcorrente<K, V> extends ConcurrentHashMap<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public V get(Object chave) {
+        return chave == null ? null : super.get(chave);
+    }
+
+    @Override
+    public boolean containsKey(Object chave) {
+        return chave != null && super.containsKey(chave);
+    }
+
+    @Override
+    public V remove(Object chave) {
+        return chave == null ? null : super.remove(chave);
+    }
+}
@@ -0,0 +1,332 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Mapa imutável e persistente, organizado como uma trie de mapeamento de hash (HAMT).
+ * <p>
+ * Cada nível da trie consome 5 bits do hash da chave: um nó guarda um mapa de bits com as
+ * posições ocupadas (até 32) e um vetor compacto apenas com os filhos presentes, que podem ser
+ * entradas ou nós do nível seguinte. Chaves com o mesmo hash completo ficam juntas em um nó de
+ * colisão.
+ * </p>
+ * <p>
+ * Incluir ou retirar uma chave nunca altera o mapa: devolve um novo mapa que copia apenas os
+ * nós do caminho até a chave (no máximo 7, cada um com até 32 referências) e compartilha todos
+ * os demais com o original. Um mapa pode, portanto, ser lido por qualquer quantidade de threads
+ * sem sincronização enquanto novas versões são criadas a partir dele.
+ * </p>
+ *
+ * @param <K> Tipo das chaves
+ * @param <V> Tipo dos valores
+ */
+public final class MapaPersistente<K, V> {
+
+    private static final MapaPersistente<?, ?> VAZIO = new MapaPersistente<>(No.VAZIO, 0);
+
+    private final No raiz;
+    private final int tamanho;
+
+    private MapaPersistente(No raiz, int tamanho) {
+        this.raiz = raiz;
+        this.tamanho = tamanho;
+    }
+
+    /**
+     * @param <K> Tipo das chaves
+     * @param <V> Tipo dos valores
+     * @return Mapa sem chaves
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> MapaPersistente<K, V> vazio() {
+        return (MapaPersistente<K, V>) VAZIO;
+    }
+
+    /**
+     * @return Quantidade de chaves do mapa
+     */
+    public int tamanho() { return tamanho; }
+
+    /**
+     * Obtém o valor associado a uma chave.
+     *
+     * @param chave Chave procurada
+     * @return Valor associado ou null se a chave não estiver no mapa
+     */
+    @SuppressWarnings("unchecked")
+    public V obter(K chave) {
+        int hash = espalhar(chave);
+        Object atual = raiz;
+        for (int deslocamento = 0; ; deslocamento += 5) {
+            if (atual instanceof No) {
+                No no = (No) atual;
+                int bit = 1 << ((hash >>> deslocamento) & 31);
+                if ((no.mapa & bit) == 0) {
+                    return null;
+                }
+                atual = no.filhos[no.posicao(bit)];
+            } else if (atual instanceof Entrada) {
+                Entrada entrada = (Entrada) atual;
+                return entrada.hash == hash && entrada.chave.equals(chave) ? (V) entrada.valor : null;
+            } else {
+                Colisao colisao = (Colisao) atual;
+                int i = colisao.hash == hash ? colisao.indice(chave) : -1;
+                return i < 0 ? null : (V) colisao.entradas[i].valor;
+            }
+        }
+    }
+
+    /**
+     * Verifica se uma chave está no mapa.
+     *
+     * @param chave Chave procurada
+     * @return true se a chave estiver no mapa
+     */
+    public boolean contem(K chave) {
+        return obter(chave) != null;
+    }
+
+    /**
+     * Associa um valor a uma chave.
+     *
+     * @param chave Chave (não nula)
+     * @param valor Valor (não nulo)
+     * @return Novo mapa com a associação, ou este mesmo mapa se ela já existia
+     */
+    public MapaPersistente<K, V> com(K chave, V valor) {
+        boolean[] incluida = new boolean[1];
+        No novaRaiz = (No) incluir(raiz, 0, new Entrada(espalhar(chave), chave, valor), incluida);
+        return novaRaiz == raiz ? this : new MapaPersistente<>(novaRaiz, incluida[0] ? tamanho + 1 : tamanho);
+    }
+
+    /**
+     * Retira uma chave do mapa.
+     *
+     * @param chave Chave a ser retirada
+     * @return Novo mapa sem a chave, ou este mesmo mapa se ela não estava nele
+     */
+    public MapaPersistente<K, V> sem(K chave) {
+        Object novaRaiz = retirar(raiz, 0, espalhar(chave), chave);
+        if (novaRaiz == raiz) {
+            return this;
+        }
+        // A raiz nunca é substituída pelo seu único filho; sem filhos, o mapa fica vazio
+        return novaRaiz == null ? vazio() : new MapaPersistente<>((No) novaRaiz, tamanho - 1);
+    }
+
+    /**
+     * Percorre todas as associações do mapa, em ordem de hash.
+     *
+     * @param acao Ação executada para cada chave e valor
+     */
+    public void paraCada(BiConsumer<? super K, ? super V> acao) {
+        percorrer(raiz, acao);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void percorrer(Object atual, BiConsumer<? super K, ? super V> acao) {
+        if (atual instanceof No) {
+            for (Object filho : ((No) atual).filhos) {
+                percorrer(filho, acao);
+            }
+        } else if (atual instanceof Entrada) {
+            Entrada entrada = (Entrada) atual;
+            acao.accept((K) entrada.chave, (V) entrada.valor);
+        } else {
+            for (Entrada entrada : ((Colisao) atual).entradas) {
+                acao.accept((K) entrada.chave, (V) entrada.valor);
+            }
+        }
+    }
+
+    /**
+     * Inclui uma entrada abaixo de um filho, copiando o caminho.
+     *
+     * @return Novo filho, ou o mesmo se a associação já existia
+     */
+    private static Object incluir(Object atual, int deslocamento, Entrada nova, boolean[] incluida) {
+        if (atual instanceof No) {
+            No no = (No) atual;
+            int bit = 1 << ((nova.hash >>> deslocamento) & 31);
+            int i = no.posicao(bit);
+            if ((no.mapa & bit) == 0) {
+                incluida[0] = true;
+                return no.inserir(i, nova, bit);
+            }
+            Object filho = no.filhos[i];
+            Object novoFilho = incluir(filho, deslocamento + 5, nova, incluida);
+            return novoFilho == filho ? no : no.substituir(i, novoFilho);
+        }
+        if (atual instanceof Entrada) {
+            Entrada entrada = (Entrada) atual;
+            if (entrada.hash == nova.hash && entrada.chave.equals(nova.chave)) {
+                return entrada.valor == nova.valor ? entrada : nova;
+            }
+            incluida[0] = true;
+            if (entrada.hash == nova.hash) {
+                return new Colisao(nova.hash, new Entrada[]{entrada, nova});
+            }
+            return juntar(entrada, entrada.hash, nova, deslocamento);
+        }
+        Colisao colisao = (Colisao) atual;
+        if (colisao.hash != nova.hash) {
+            incluida[0] = true;
+            return juntar(colisao, colisao.hash, nova, deslocamento);
+        }
+        int i = colisao.indice(nova.chave);
+        if (i >= 0 && colisao.entradas[i].valor == nova.valor) {
+            return colisao;
+        }
+        Entrada[] entradas;
+        if (i >= 0) {
+            entradas = colisao.entradas.clone();
+            entradas[i] = nova;
+        } else {
+            incluida[0] = true;
+            entradas = Arrays.copyOf(colisao.entradas, colisao.entradas.length + 1);
+            entradas[entradas.length - 1] = nova;
+        }
+        return new Colisao(nova.hash, entradas);
+    }
+
+    /**
+     * Cria os nós necessários para separar um filho existente e uma nova entrada de hashes
+     * diferentes, a partir de um nível.
+     */
+    private static No juntar(Object existente, int hashExistente, Entrada nova, int deslocamento) {
+        int bitExistente = 1 << ((hashExistente >>> deslocamento) & 31);
+        int bitNovo = 1 << ((nova.hash >>> deslocamento) & 31);
+        if (bitExistente == bitNovo) {
+            return new No(bitExistente, new Object[]{juntar(existente, hashExistente, nova, deslocamento + 5)});
+        }
+        Object[] filhos = Integer.compareUnsigned(bitExistente, bitNovo) < 0
+                ? new Object[]{existente, nova} : new Object[]{nova, existente};
+        return new No(bitExistente | bitNovo, filhos);
+    }
+
+    /**
+     * Retira uma chave abaixo de um filho, copiando o caminho. Um nó que fica com um único
+     * filho que não é nó é substituído por esse filho, que sobe um nível.
+     *
+     * @return Novo filho, null se o filho ficou vazio, ou o mesmo se a chave não estava nele
+     */
+    private static Object retirar(Object atual, int deslocamento, int hash, Object chave) {
+        if (atual instanceof No) {
+            No no = (No) atual;
+            int bit = 1 << ((hash >>> deslocamento) & 31);
+            if ((no.mapa & bit) == 0) {
+                return no;
+            }
+            int i = no.posicao(bit);
+            Object filho = no.filhos[i];
+            Object novoFilho = retirar(filho, deslocamento + 5, hash, chave);
+            if (novoFilho == filho) {
+                return no;
+            }
+            if (novoFilho != null) {
+                return no.substituir(i, novoFilho);
+            }
+            if (no.filhos.length == 1) {
+                return null;
+            }
+            No restante = no.remover(i, bit);
+            if (deslocamento > 0 && restante.filhos.length == 1 && !(restante.filhos[0] instanceof No)) {
+                return restante.filhos[0];
+            }
+            return restante;
+        }
+        if (atual instanceof Entrada) {
+            Entrada entrada = (Entrada) atual;
+            return entrada.hash == hash && entrada.chave.equals(chave) ? null : entrada;
+        }
+        Colisao colisao = (Colisao) atual;
+        int i = colisao.hash == hash ? colisao.indice(chave) : -1;
+        if (i < 0) {
+            return colisao;
+        }
+        if (colisao.entradas.length == 2) {
+            return colisao.entradas[1 - i];
+        }
+        Entrada[] entradas = new Entrada[colisao.entradas.length - 1];
+        System.arraycopy(colisao.entradas, 0, entradas, 0, i);
+        System.arraycopy(colisao.entradas, i + 1, entradas, i, entradas.length - i);
+        return new Colisao(hash, entradas);
+    }
+
+    private static int espalhar(Object chave) {
+        int h = chave.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Nó interno: mapa de bits das posições ocupadas e os filhos presentes, em ordem. */
+    private static final class No {
+        static final No VAZIO = new No(0, new Object[0]);
+
+        final int mapa;
+        final Object[] filhos;
+
+        No(int mapa, Object[] filhos) {
+            this.mapa = mapa;
+            this.filhos = filhos;
+        }
+
+        int posicao(int bit) {
+            return Integer.bitCount(mapa & (bit - 1));
+        }
+
+        No inserir(int i, Object filho, int bit) {
+            Object[] novos = new Object[filhos.length + 1];
+            System.arraycopy(filhos, 0, novos, 0, i);
+            novos[i] = filho;
+            System.arraycopy(filhos, i, novos, i + 1, filhos.length - i);
+            return new No(mapa | bit, novos);
+        }
+
+        No substituir(int i, Object filho) {
+            Object[] novos = filhos.clone();
+            novos[i] = filho;
+            return new No(mapa, novos);
+        }
+
+        No remover(int i, int bit) {
+            Object[] novos = new Object[filhos.length - 1];
+            System.arraycopy(filhos, 0, novos, 0, i);
+            System.arraycopy(filhos, i + 1, novos, i, novos.length - i);
+            return new No(mapa & ~bit, novos);
+        }
+    }
+
+    /** Chave, valor e hash espalhado da chave. */
+    private static final class Entrada {
+        final int hash;
+        final Object chave;
+        final Object valor;
+
+        Entrada(int hash, Object chave, Object valor) {
+            this.hash = hash;
+            this.chave = chave;
+            this.valor = valor;
+        }
+    }
+
+    /** Entradas de chaves diferentes com o mesmo hash espalhado. */
+    private static final class Colisao {
+        final int hash;
+        final Entrada[] entradas;
+
+        Colisao(int hash, Entrada[] entradas) {
+            this.hash = hash;
+            this.entradas = entradas;
+        }
+
+        int indice(Object chave) {
+            for (int i = 0; i < entradas.length; i++) {
+                if (entradas[i].chave.equals(chave)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
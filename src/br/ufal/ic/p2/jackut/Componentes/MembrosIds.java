@@ -0,0 +1,208 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Membros de uma comunidade: um {@link BitmapIds} com os identificadores dos membros, para
+ * pertinência e interseções, e um vetor apenas de acréscimo com a ordem de entrada, para as
+ * listagens.
+ * <p>
+ * A entrada de um membro verifica o bitmap e anexa o identificador ao vetor, em O(1). A saída
+ * retira o membro do bitmap e deixa a posição dele no vetor como descartada; o vetor é
+ * compactado de uma vez quando as posições descartadas passam de metade dele, ou antes de um
+ * membro que saiu voltar a entrar (ele passa para o fim da ordem). Só as entradas e saídas
+ * compactam: as leituras e as cópias apenas pulam as posições descartadas, sem alterar o vetor.
+ * </p>
+ */
+public class MembrosIds {
+    private static final int[] VAZIO = new int[0];
+
+    private BitmapIds membros = new BitmapIds();
+    /** Identificadores que ainda ocupam uma posição no vetor sem serem membros */
+    private BitmapIds descartados = new BitmapIds();
+    private int[] ordem = VAZIO;
+    private int fim;
+    /** Quantidade de entradas e saídas, para reconhecer uma lista de membros inalterada */
+    private int modificacoes;
+
+    /**
+     * @return Quantidade de membros
+     */
+    public int tamanho() { return membros.tamanho(); }
+
+    /**
+     * @return Quantidade de entradas e saídas de membros desde a criação
+     */
+    public int modificacoes() { return modificacoes; }
+
+    /**
+     * Verifica se um identificador é membro.
+     *
+     * @param id Identificador ({@link DicionarioUsuarios#AUSENTE} nunca é membro)
+     * @return true se for membro
+     */
+    public boolean contem(int id) {
+        return membros.contem(id);
+    }
+
+    /**
+     * Adiciona um membro ao final da ordem de entrada.
+     *
+     * @param id Identificador do novo membro
+     * @return true se o identificador ainda não era membro
+     */
+    public boolean adicionar(int id) {
+        if (membros.contem(id)) {
+            return false;
+        }
+        if (descartados.contem(id)) {
+            compactar();
+        }
+        membros.adicionar(id);
+        if (fim == ordem.length) {
+            ordem = Arrays.copyOf(ordem, Math.max(4, fim + (fim >> 1)));
+        }
+        ordem[fim++] = id;
+        modificacoes++;
+        return true;
+    }
+
+    /**
+     * Remove um membro, preservando a ordem dos demais.
+     *
+     * @param id Identificador do membro
+     * @return true se o identificador era membro
+     */
+    public boolean remover(int id) {
+        if (!membros.remover(id)) {
+            return false;
+        }
+        descartados.adicionar(id);
+        modificacoes++;
+        if (descartados.tamanho() * 2 > fim) {
+            compactar();
+        }
+        return true;
+    }
+
+    /**
+     * Identificadores dos membros, para interseções com outros conjuntos. Não deve ser alterado.
+     * @return Bitmap dos membros
+     */
+    public BitmapIds bitmap() {
+        return membros;
+    }
+
+    /**
+     * Cópia independente dos membros.
+     * @return Novos membros com os mesmos identificadores, na mesma ordem
+     */
+    public MembrosIds copiar() {
+        MembrosIds copia = new MembrosIds();
+        copia.membros = membros.copiar();
+        if (descartados.tamanho() == 0) {
+            copia.ordem = Arrays.copyOf(ordem, fim);
+        } else {
+            copia.ordem = new int[membros.tamanho()];
+            int j = 0;
+            for (int i = 0; i < fim; i++) {
+                if (membros.contem(ordem[i])) {
+                    copia.ordem[j++] = ordem[i];
+                }
+            }
+        }
+        copia.fim = copia.ordem.length;
+        return copia;
+    }
+
+    /**
+     * Visão dos membros como logins, na ordem de entrada, para percorrê-los sem cópia com a
+     * comunidade travada. A visão reflete as alterações posteriores, não pode ser modificada e
+     * não altera os membros: o acesso por posição com saídas ainda não compactadas percorre o vetor.
+     *
+     * @return Lista de logins apoiada nestes membros
+     */
+    public List<String> logins() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int posicao) {
+                if (posicao < 0 || posicao >= membros.tamanho()) {
+                    throw new IndexOutOfBoundsException(String.valueOf(posicao));
+                }
+                if (descartados.tamanho() == 0) {
+                    return DicionarioUsuarios.login(ordem[posicao]);
+                }
+                int atual = 0;
+                for (int i = 0; i < fim; i++) {
+                    if (membros.contem(ordem[i]) && atual++ == posicao) {
+                        return DicionarioUsuarios.login(ordem[i]);
+                    }
+                }
+                throw new IndexOutOfBoundsException(String.valueOf(posicao));
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<String>() {
+                    private int proxima = pular(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return proxima < fim;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (proxima >= fim) {
+                            throw new NoSuchElementException();
+                        }
+                        String login = DicionarioUsuarios.login(ordem[proxima]);
+                        proxima = pular(proxima + 1);
+                        return login;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return membros.tamanho();
+            }
+
+            @Override
+            public boolean contains(Object login) {
+                return login instanceof String && contem(DicionarioUsuarios.idExistente((String) login));
+            }
+        };
+    }
+
+    /**
+     * @return Primeira posição a partir da informada ocupada por um membro, ou {@link #fim}
+     */
+    private int pular(int posicao) {
+        while (posicao < fim && !membros.contem(ordem[posicao])) {
+            posicao++;
+        }
+        return posicao;
+    }
+
+    /**
+     * Retira do vetor as posições descartadas. Chamado apenas pelas entradas e saídas.
+     */
+    private void compactar() {
+        if (descartados.tamanho() == 0) {
+            return;
+        }
+        int j = 0;
+        for (int i = 0; i < fim; i++) {
+            if (membros.contem(ordem[i])) {
+                ordem[j++] = ordem[i];
+            }
+        }
+        fim = j;
+        descartados = new BitmapIds();
+    }
+}
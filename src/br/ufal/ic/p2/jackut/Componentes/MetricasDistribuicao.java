@@ -0,0 +1,145 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Componentes.DistribuicaoMensagens.Estrategia;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas da entrega das mensagens de comunidade ({@link DistribuicaoMensagens}), por estratégia.
+ * <p>
+ * Para os envios, cada estratégia conta as mensagens enviadas, as cópias entregues nas caixas
+ * dos membros e o tempo gasto pelo remetente; a amplificação de escrita é a quantidade de
+ * registros gravados por mensagem (o registro da comunidade mais as cópias). As cópias são
+ * entregues em segundo plano ({@link EntregaMensagens}): o atraso de entrega é o tempo entre
+ * o envio e a última cópia, e a pendência é a quantidade de envios ainda não entregues. Para
+ * as leituras,
+ * {@link Estrategia#EMPURRAR} conta as mensagens lidas da caixa do usuário e
+ * {@link Estrategia#PUXAR} as lidas dos registros das comunidades, com o tempo de cada leitura.
+ * </p>
+ */
+public class MetricasDistribuicao {
+    private final LongAdder[] envios = novosContadores();
+    private final LongAdder[] entregas = novosContadores();
+    private final LongAdder[] temposEnvio = novosContadores();
+    private final LongAdder[] leituras = novosContadores();
+    private final LongAdder[] temposLeitura = novosContadores();
+    private final AtomicLong enviosPendentes = new AtomicLong();
+    private final LongAdder enviosEntregues = new LongAdder();
+    private final LongAdder atrasos = new LongAdder();
+    private final AtomicLong atrasoMaximo = new AtomicLong();
+
+    void registrarEnvio(Estrategia estrategia, long nanos) {
+        envios[estrategia.ordinal()].increment();
+        temposEnvio[estrategia.ordinal()].add(nanos);
+    }
+
+    void registrarEntregas(Estrategia estrategia, int copias) {
+        entregas[estrategia.ordinal()].add(copias);
+    }
+
+    void registrarEnfileiramento() {
+        enviosPendentes.incrementAndGet();
+    }
+
+    void registrarConclusao(long atraso) {
+        enviosPendentes.decrementAndGet();
+        enviosEntregues.increment();
+        atrasos.add(atraso);
+        atrasoMaximo.accumulateAndGet(atraso, Math::max);
+    }
+
+    void registrarCancelamento() {
+        enviosPendentes.set(0);
+    }
+
+    void registrarLeitura(Estrategia origem, long nanos) {
+        leituras[origem.ordinal()].increment();
+        temposLeitura[origem.ordinal()].add(nanos);
+    }
+
+    /**
+     * @param estrategia Estratégia de entrega
+     * @return Quantidade de mensagens enviadas com a estratégia
+     */
+    public long getEnvios(Estrategia estrategia) { return envios[estrategia.ordinal()].sum(); }
+
+    /**
+     * @param estrategia Estratégia de entrega
+     * @return Quantidade de cópias entregues nas caixas dos membros
+     */
+    public long getEntregas(Estrategia estrategia) { return entregas[estrategia.ordinal()].sum(); }
+
+    /**
+     * @param estrategia Estratégia de entrega
+     * @return Registros gravados por mensagem enviada, ou 0 se não houve envios
+     */
+    public double getAmplificacaoEscrita(Estrategia estrategia) {
+        long total = getEnvios(estrategia);
+        return total == 0 ? 0 : (double) (total + getEntregas(estrategia)) / total;
+    }
+
+    /**
+     * @param estrategia Estratégia de entrega
+     * @return Tempo médio gasto pelo remetente em um envio, em nanossegundos
+     */
+    public long getLatenciaMediaEnvio(Estrategia estrategia) {
+        long total = getEnvios(estrategia);
+        return total == 0 ? 0 : temposEnvio[estrategia.ordinal()].sum() / total;
+    }
+
+    /**
+     * @param origem {@link Estrategia#EMPURRAR} para a caixa do usuário ou
+     *               {@link Estrategia#PUXAR} para os registros das comunidades
+     * @return Quantidade de mensagens lidas da origem
+     */
+    public long getLeituras(Estrategia origem) { return leituras[origem.ordinal()].sum(); }
+
+    /**
+     * @param origem {@link Estrategia#EMPURRAR} para a caixa do usuário ou
+     *               {@link Estrategia#PUXAR} para os registros das comunidades
+     * @return Tempo médio de uma leitura da origem, em nanossegundos
+     */
+    public long getLatenciaMediaLeitura(Estrategia origem) {
+        long total = getLeituras(origem);
+        return total == 0 ? 0 : temposLeitura[origem.ordinal()].sum() / total;
+    }
+
+    /**
+     * @return Quantidade de envios com cópias ainda não entregues
+     */
+    public long getEnviosPendentes() { return enviosPendentes.get(); }
+
+    /**
+     * @return Atraso médio entre um envio e a entrega da sua última cópia, em nanossegundos
+     */
+    public long getAtrasoMedioEntrega() {
+        long total = enviosEntregues.sum();
+        return total == 0 ? 0 : atrasos.sum() / total;
+    }
+
+    /**
+     * @return Maior atraso entre um envio e a entrega da sua última cópia, em nanossegundos
+     */
+    public long getAtrasoMaximoEntrega() { return atrasoMaximo.get(); }
+
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder(String.format("pendentes=%d atrasoNs=%d atrasoMaximoNs=%d",
+                getEnviosPendentes(), getAtrasoMedioEntrega(), getAtrasoMaximoEntrega()));
+        for (Estrategia estrategia : Estrategia.values()) {
+            texto.append(' ').append(String.format("%s[envios=%d entregas=%d amplificacao=%.2f envioNs=%d leituras=%d leituraNs=%d]",
+                    estrategia, getEnvios(estrategia), getEntregas(estrategia), getAmplificacaoEscrita(estrategia),
+                    getLatenciaMediaEnvio(estrategia), getLeituras(estrategia), getLatenciaMediaLeitura(estrategia)));
+        }
+        return texto.toString();
+    }
+
+    private static LongAdder[] novosContadores() {
+        LongAdder[] contadores = new LongAdder[Estrategia.values().length];
+        for (int i = 0; i < contadores.length; i++) {
+            contadores[i] = new LongAdder();
+        }
+        return contadores;
+    }
+}
@@ -0,0 +1,76 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas do expurgo em segundo plano dos usuários removidos ({@link ExpurgoUsuarios}).
+ * <p>
+ * A pendência mostra quantos usuários removidos ainda têm referências a expurgar e quantos
+ * usuários referenciadores ainda serão visitados; o progresso mostra quantos referenciadores
+ * já foram visitados e quantos lotes foram executados.
+ * </p>
+ */
+public class MetricasExpurgo {
+    private final AtomicLong usuariosPendentes = new AtomicLong();
+    private final AtomicLong referenciadoresPendentes = new AtomicLong();
+    private final LongAdder usuariosExpurgados = new LongAdder();
+    private final LongAdder referenciadoresVisitados = new LongAdder();
+    private final LongAdder lotes = new LongAdder();
+
+    void registrarRemocao(int referenciadores) {
+        usuariosPendentes.incrementAndGet();
+        referenciadoresPendentes.addAndGet(referenciadores);
+    }
+
+    void registrarVisita() {
+        referenciadoresPendentes.decrementAndGet();
+        referenciadoresVisitados.increment();
+    }
+
+    void registrarConclusao() {
+        usuariosPendentes.decrementAndGet();
+        usuariosExpurgados.increment();
+    }
+
+    void registrarLote() {
+        lotes.increment();
+    }
+
+    void registrarCancelamento() {
+        usuariosPendentes.set(0);
+        referenciadoresPendentes.set(0);
+    }
+
+    /**
+     * @return Quantidade de usuários removidos com referências ainda não expurgadas
+     */
+    public long getUsuariosPendentes() { return usuariosPendentes.get(); }
+
+    /**
+     * @return Quantidade de usuários referenciadores ainda não visitados
+     */
+    public long getReferenciadoresPendentes() { return referenciadoresPendentes.get(); }
+
+    /**
+     * @return Quantidade de usuários removidos com o expurgo concluído
+     */
+    public long getUsuariosExpurgados() { return usuariosExpurgados.sum(); }
+
+    /**
+     * @return Quantidade de usuários referenciadores já visitados
+     */
+    public long getReferenciadoresVisitados() { return referenciadoresVisitados.sum(); }
+
+    /**
+     * @return Quantidade de lotes executados pela thread de expurgo
+     */
+    public long getLotes() { return lotes.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("usuariosPendentes=%d referenciadoresPendentes=%d usuariosExpurgados=%d referenciadoresVisitados=%d lotes=%d",
+                getUsuariosPendentes(), getReferenciadoresPendentes(), getUsuariosExpurgados(),
+                getReferenciadoresVisitados(), getLotes());
+    }
+}
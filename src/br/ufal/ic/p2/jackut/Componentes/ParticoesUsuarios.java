@@ -0,0 +1,385 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Partições dos usuários pelo hash do login, cada uma com uma única thread executora que
+ * aplica as operações sobre os seus usuários.
+ * <p>
+ * Cada partição é dona de um subconjunto fixo das listras das {@link TravasUsuarios}: o login
+ * pertence à partição da sua listra. As operações são enviadas como comandos à fila da
+ * partição do usuário que as inicia, e a executora as aplica em lotes de até
+ * {@link #LOTE_PADRAO} comandos ({@code jackut.particoes.lote}) com a trava global
+ * compartilhada adquirida uma única vez ({@link TravasUsuarios#executarEmLote(Runnable)}). Como
+ * todas as operações enviadas sobre os usuários de uma partição são aplicadas pela mesma
+ * executora, as operações locais à partição não disputam as listras entre si nem com as das
+ * outras partições; as listras continuam sendo adquiridas, de forma que as consultas que leem
+ * o estado vivo com travas e as operações executadas fora das partições permanecem corretas.
+ * </p>
+ * <p>
+ * Uma operação entre partições (por exemplo, um recado para um usuário de outra partição) é
+ * enviada à partição de quem a inicia, que adquire também a listra do outro usuário: a espera
+ * só ocorre quando a executora da outra partição estiver aplicando, no mesmo instante, uma
+ * operação sobre a mesma listra. A quantidade dessas operações é contada
+ * ({@link #getOperacoesEntreParticoes()}).
+ * </p>
+ * <p>
+ * A partição inicial de cada login é a da sua listra pelo hash; usuários podem ser migrados
+ * para outra partição ({@link #migrar(Map)}), por exemplo para que amigos fiquem na mesma
+ * partição ({@link BalanceadorParticoes}).
+ * </p>
+ * <p>
+ * Ao fim de cada lote a ação de conclusão (o commit do journal) é executada uma vez, e só
+ * então os chamadores recebem os resultados, como no {@link SequenciadorComandos}.
+ * </p>
+ * <p>
+ * A executora de cada partição é iniciada no primeiro comando da partição e termina em
+ * {@link #encerrar()}, depois de aplicar os comandos já enfileirados.
+ * </p>
+ */
+public class ParticoesUsuarios {
+
+    /** Quantidade padrão máxima de comandos aplicados por lote em cada partição. */
+    public static final int LOTE_PADRAO = 64;
+
+    private final TravasUsuarios travas;
+    private final Runnable aoConcluirLote;
+    private final Particao[] particoes;
+    private final int mascara;
+    private final int lote = Math.max(1, Integer.getInteger("jackut.particoes.lote", LOTE_PADRAO));
+
+    /**
+     * Cria as partições; a thread executora (daemon) de cada uma é iniciada no seu primeiro comando.
+     *
+     * @param travas Travas do sistema, cujas listras são repartidas entre as partições
+     * @param quantidade Quantidade de partições pedida, arredondada para uma potência de 2 e
+     *                   limitada à quantidade de listras
+     * @param aoConcluirLote Executada ao fim de cada lote, antes de os chamadores serem liberados
+     */
+    public ParticoesUsuarios(TravasUsuarios travas, int quantidade, Runnable aoConcluirLote) {
+        this.travas = travas;
+        this.aoConcluirLote = aoConcluirLote;
+        int n = 1;
+        while (n < quantidade && n < travas.quantidadeListras()) {
+            n <<= 1;
+        }
+        this.particoes = new Particao[n];
+        this.mascara = n - 1;
+        for (int i = 0; i < n; i++) {
+            particoes[i] = new Particao(i);
+        }
+    }
+
+    /**
+     * @return Quantidade de partições
+     */
+    public int quantidade() {
+        return particoes.length;
+    }
+
+    /**
+     * Obtém a partição de um login.
+     *
+     * @param login Login do usuário
+     * @return Índice da partição, de 0 a {@link #quantidade()} - 1
+     */
+    public int particao(String login) {
+        return travas.listra(login) & mascara;
+    }
+
+    /**
+     * Migra usuários para outras partições: cada login passa a usar a listra da partição de
+     * destino que mantém os demais bits da sua listra original, de forma que os logins
+     * migrados continuam espalhados pelas listras da partição. Os comandos já enfileirados na
+     * partição anterior continuam corretos, pois adquirem a nova listra. Deve ser chamado com
+     * a trava global exclusiva adquirida ({@link TravasUsuarios#travarTudo()}).
+     *
+     * @param destinos Partição de destino de cada login
+     * @return Quantidade de usuários que mudaram de partição
+     */
+    public int migrar(Map<String, Integer> destinos) {
+        int migrados = 0;
+        for (Map.Entry<String, Integer> destino : destinos.entrySet()) {
+            String login = destino.getKey();
+            int particao = destino.getValue() & mascara;
+            if (particao(login) != particao) {
+                travas.realocar(login, (travas.listraOriginal(login) & ~mascara) | particao);
+                migrados++;
+            }
+        }
+        return migrados;
+    }
+
+    /**
+     * Envia uma operação à partição de um usuário e espera a sua aplicação pela executora.
+     * Sem login (por exemplo, com uma sessão inválida) ou chamado por uma executora, aplica
+     * a operação na hora, na thread chamadora.
+     *
+     * @param login Login do usuário que inicia a operação, ou null
+     * @param outro Login do outro usuário envolvido, ou null; usado apenas nas métricas
+     * @param comando Operação
+     * @param <T> Tipo do resultado
+     * @return Resultado da operação
+     * @throws Exception Exceção lançada pela operação
+     */
+    public <T> T executar(String login, String outro, SequenciadorComandos.Comando<T> comando) throws Exception {
+        if (login == null || Thread.currentThread() instanceof Executora) {
+            return comando.executar();
+        }
+        int i = particao(login);
+        boolean entreParticoes = outro != null && particao(outro) != i;
+        Pedido<T> pedido = new Pedido<>(comando, entreParticoes);
+        particoes[i].enfileirar(pedido);
+        return pedido.aguardar();
+    }
+
+    /**
+     * Termina as threads executoras depois de elas aplicarem os comandos já enfileirados. Um
+     * comando enviado depois disso inicia outra executora. Não deve ser chamado com a trava
+     * global exclusiva adquirida, pois as executoras precisam da compartilhada para esvaziar
+     * as filas.
+     */
+    public void encerrar() {
+        for (Particao particao : particoes) {
+            particao.encerrar();
+        }
+    }
+
+    /**
+     * @return Quantidade de executoras em execução
+     */
+    public int executorasAtivas() {
+        int ativas = 0;
+        for (Particao particao : particoes) {
+            Executora executora = particao.executora;
+            if (executora != null && executora.isAlive()) {
+                ativas++;
+            }
+        }
+        return ativas;
+    }
+
+    /**
+     * @return Quantidade de comandos aplicados por todas as partições
+     */
+    public long getComandosAplicados() {
+        long total = 0;
+        for (Particao particao : particoes) {
+            total += particao.comandosAplicados;
+        }
+        return total;
+    }
+
+    /**
+     * @return Quantidade de comandos aplicados que envolviam um usuário de outra partição
+     */
+    public long getOperacoesEntreParticoes() {
+        long total = 0;
+        for (Particao particao : particoes) {
+            total += particao.entreParticoes;
+        }
+        return total;
+    }
+
+    /**
+     * @param i Índice da partição
+     * @return Quantidade de comandos aplicados pela partição
+     */
+    public long getComandosAplicados(int i) {
+        return particoes[i].comandosAplicados;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("particoes=%d comandos=%d entreParticoes=%d [",
+                quantidade(), getComandosAplicados(), getOperacoesEntreParticoes()));
+        for (int i = 0; i < particoes.length; i++) {
+            sb.append(i == 0 ? "" : " ").append(particoes[i].comandosAplicados);
+        }
+        return sb.append(']').toString();
+    }
+
+    /** Fila de comandos de uma partição e a sua thread executora. */
+    private final class Particao {
+        private final Queue<Pedido<?>> fila = new ConcurrentLinkedQueue<>();
+        private final String nome;
+        /** Executora em execução, ou null se ainda não foi iniciada ou já terminou */
+        private volatile Executora executora;
+        /** Indica que a executora deve terminar quando a fila esvaziar */
+        private volatile boolean encerrada;
+        /** Indica que a executora está parada à espera de comandos */
+        private volatile boolean aguardando;
+        private volatile long comandosAplicados;
+        private volatile long entreParticoes;
+
+        Particao(int indice) {
+            this.nome = "jackut-particao-" + indice;
+        }
+
+        void enfileirar(Pedido<?> pedido) {
+            fila.add(pedido);
+            Executora atual = executora;
+            if (atual == null || encerrada) {
+                iniciar();
+            } else if (aguardando) {
+                LockSupport.unpark(atual);
+            }
+        }
+
+        void encerrar() {
+            encerrada = true;
+            Executora atual = executora;
+            if (atual == null || atual == Thread.currentThread()) {
+                return;
+            }
+            LockSupport.unpark(atual);
+            try {
+                atual.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Inicia uma executora se não houver uma em execução. Sincronizado com o término da
+         * executora, de forma que um comando enfileirado enquanto ela termina é aplicado por
+         * ela ou pela seguinte.
+         */
+        private synchronized void iniciar() {
+            if (executora == null) {
+                encerrada = false;
+                Executora nova = new Executora(this::executar, nome);
+                nova.setDaemon(true);
+                executora = nova;
+                nova.start();
+            }
+        }
+
+        /**
+         * @return true se a executora deve sair do laço: não há comandos enfileirados
+         */
+        private synchronized boolean terminar() {
+            if (!fila.isEmpty()) {
+                return false;
+            }
+            executora = null;
+            return true;
+        }
+
+        /**
+         * Laço da executora: retira os comandos enfileirados, aplica-os em lotes e devolve
+         * os resultados; sem comandos, fica parada até um chamador enfileirar ou até o encerramento.
+         */
+        private void executar() {
+            List<Pedido<?>> retirados = new ArrayList<>(lote);
+            while (true) {
+                Pedido<?> pedido;
+                while (retirados.size() < lote && (pedido = fila.poll()) != null) {
+                    retirados.add(pedido);
+                }
+                if (retirados.isEmpty()) {
+                    if (encerrada) {
+                        if (terminar()) {
+                            return;
+                        }
+                        continue;
+                    }
+                    aguardando = true;
+                    // Confere de novo depois de anunciar a espera, para não perder um comando
+                    if (fila.isEmpty() && !encerrada) {
+                        LockSupport.park(this);
+                    }
+                    aguardando = false;
+                    continue;
+                }
+                travas.executarEmLote(() -> {
+                    for (Pedido<?> retirado : retirados) {
+                        retirado.aplicar();
+                    }
+                });
+                try {
+                    aoConcluirLote.run();
+                } catch (RuntimeException e) {
+                    // As operações do lote não são duráveis: os chamadores recebem a falha
+                    for (Pedido<?> retirado : retirados) {
+                        retirado.falhar(e);
+                    }
+                }
+                long cruzados = 0;
+                for (Pedido<?> retirado : retirados) {
+                    if (retirado.entreParticoes) {
+                        cruzados++;
+                    }
+                }
+                comandosAplicados += retirados.size();
+                entreParticoes += cruzados;
+                for (Pedido<?> retirado : retirados) {
+                    retirado.concluir();
+                }
+                retirados.clear();
+            }
+        }
+    }
+
+    /** Thread executora de uma partição. */
+    private static final class Executora extends Thread {
+        Executora(Runnable laco, String nome) {
+            super(laco, nome);
+        }
+    }
+
+    /** Comando enfileirado, o seu resultado e a thread que espera por ele. */
+    private static final class Pedido<T> {
+        private final SequenciadorComandos.Comando<T> comando;
+        private final boolean entreParticoes;
+        private final Thread chamador = Thread.currentThread();
+        private T resultado;
+        /** Exceção da operação; erros da JVM também são devolvidos, para não parar a executora */
+        private Throwable erro;
+        private volatile boolean concluido;
+
+        Pedido(SequenciadorComandos.Comando<T> comando, boolean entreParticoes) {
+            this.comando = comando;
+            this.entreParticoes = entreParticoes;
+        }
+
+        void aplicar() {
+            try {
+                resultado = comando.executar();
+            } catch (Exception | Error e) {
+                erro = e;
+            }
+        }
+
+        /** Devolve a falha da conclusão do lote, se a operação em si não falhou. */
+        void falhar(RuntimeException e) {
+            if (erro == null) {
+                erro = e;
+            }
+        }
+
+        void concluir() {
+            concluido = true;
+            LockSupport.unpark(chamador);
+        }
+
+        T aguardar() throws Exception {
+            while (!concluido) {
+                LockSupport.park(this);
+            }
+            if (erro instanceof Error) {
+                throw (Error) erro;
+            }
+            if (erro != null) {
+                throw (Exception) erro;
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.Arrays;
+
+/**
+ * Posição associada a cada identificador de usuário ({@link DicionarioUsuarios}), usada como
+ * cursor de leitura dos membros de uma comunidade ({@link LogMensagens}).
+ * <p>
+ * As chaves e as posições ficam em dois vetores de inteiros com endereçamento aberto
+ * (chave guardada como {@code id + 1}, 0 = livre) e carga máxima de 1/2. Diferente de
+ * {@link ContagemIds}, a remoção libera a posição na hora, deslocando para trás os elementos
+ * seguintes da mesma sequência de sondagem, porque os membros que saem não voltam a ser
+ * consultados.
+ * </p>
+ */
+public class PosicoesIds {
+    /** Valor devolvido para identificadores sem posição */
+    public static final int AUSENTE = -1;
+
+    private static final int CAPACIDADE_INICIAL = 8;
+
+    private int[] chaves = new int[CAPACIDADE_INICIAL];
+    private int[] posicoes = new int[CAPACIDADE_INICIAL];
+    private int tamanho;
+
+    /**
+     * @return Quantidade de identificadores com posição
+     */
+    public int tamanho() { return tamanho; }
+
+    /**
+     * Obtém a posição de um identificador.
+     *
+     * @param id Identificador ({@link DicionarioUsuarios#AUSENTE} nunca tem posição)
+     * @return Posição atual ou {@link #AUSENTE}
+     */
+    public int obter(int id) {
+        int i = indice(id);
+        return i < 0 ? AUSENTE : posicoes[i];
+    }
+
+    /**
+     * Define a posição de um identificador.
+     *
+     * @param id Identificador não negativo
+     * @param posicao Nova posição (não negativa)
+     */
+    public void definir(int id, int posicao) {
+        if ((tamanho + 1) * 2 > chaves.length) {
+            redimensionar(chaves.length * 2);
+        }
+        int mascara = chaves.length - 1;
+        int i = espalhar(id) & mascara;
+        while (chaves[i] != 0 && chaves[i] != id + 1) {
+            i = (i + 1) & mascara;
+        }
+        if (chaves[i] == 0) {
+            chaves[i] = id + 1;
+            tamanho++;
+        }
+        posicoes[i] = posicao;
+    }
+
+    /**
+     * Retira a posição de um identificador.
+     *
+     * @param id Identificador
+     * @return Posição anterior ou {@link #AUSENTE}
+     */
+    public int remover(int id) {
+        int i = indice(id);
+        if (i < 0) {
+            return AUSENTE;
+        }
+        int anterior = posicoes[i];
+        int mascara = chaves.length - 1;
+        // Desloca para a posição livre os elementos cuja sondagem passaria por ela
+        for (int j = (i + 1) & mascara; chaves[j] != 0; j = (j + 1) & mascara) {
+            int k = espalhar(chaves[j] - 1) & mascara;
+            boolean alcancavel = i <= j ? (i < k && k <= j) : (i < k || k <= j);
+            if (!alcancavel) {
+                chaves[i] = chaves[j];
+                posicoes[i] = posicoes[j];
+                i = j;
+            }
+        }
+        chaves[i] = 0;
+        tamanho--;
+        return anterior;
+    }
+
+    /**
+     * Cópia independente das posições.
+     * @return Novas posições com os mesmos identificadores
+     */
+    public PosicoesIds copiar() {
+        PosicoesIds copia = new PosicoesIds();
+        copia.chaves = Arrays.copyOf(chaves, chaves.length);
+        copia.posicoes = Arrays.copyOf(posicoes, posicoes.length);
+        copia.tamanho = tamanho;
+        return copia;
+    }
+
+    private int indice(int id) {
+        if (id < 0) {
+            return -1;
+        }
+        int mascara = chaves.length - 1;
+        for (int i = espalhar(id) & mascara; chaves[i] != 0; i = (i + 1) & mascara) {
+            if (chaves[i] == id + 1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void redimensionar(int capacidade) {
+        int[] chavesAntigas = chaves;
+        int[] posicoesAntigas = posicoes;
+        chaves = new int[capacidade];
+        posicoes = new int[capacidade];
+        int mascara = capacidade - 1;
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (chavesAntigas[i] != 0) {
+                int j = espalhar(chavesAntigas[i] - 1) & mascara;
+                while (chaves[j] != 0) {
+                    j = (j + 1) & mascara;
+                }
+                chaves[j] = chavesAntigas[i];
+                posicoes[j] = posicoesAntigas[i];
+            }
+        }
+    }
+
+    private static int espalhar(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
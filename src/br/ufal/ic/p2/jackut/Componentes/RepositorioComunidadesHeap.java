@@ -0,0 +1,55 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Comunidade;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioComunidades;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Repositório de comunidades mantido no heap, sobre um {@link MapaConcorrente}.
+ */
+public class RepositorioComunidadesHeap implements IRepositorioComunidades {
+    private final Map<String, Comunidade> comunidades = new MapaConcorrente<>();
+
+    @Override
+    public Comunidade buscar(String nome) {
+        return comunidades.get(nome);
+    }
+
+    @Override
+    public boolean existe(String nome) {
+        return comunidades.containsKey(nome);
+    }
+
+    @Override
+    public void salvar(Comunidade comunidade) {
+        comunidades.put(comunidade.getNome(), comunidade);
+    }
+
+    @Override
+    public void remover(String nome) {
+        comunidades.remove(nome);
+    }
+
+    @Override
+    public Collection<String> getNomes() {
+        return new ArrayList<>(comunidades.keySet());
+    }
+
+    @Override
+    public Collection<Comunidade> getComunidades() {
+        return Collections.unmodifiableCollection(comunidades.values());
+    }
+
+    @Override
+    public int quantidade() {
+        return comunidades.size();
+    }
+
+    @Override
+    public void limpar() {
+        comunidades.clear();
+    }
+}
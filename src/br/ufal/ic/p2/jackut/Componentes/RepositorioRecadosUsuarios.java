@@ -0,0 +1,121 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Exceptions.SemMensagemException;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioRecados;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioUsuarios;
+import br.ufal.ic.p2.jackut.Mensagem;
+import br.ufal.ic.p2.jackut.Users;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Repositório de caixas de entrada guardadas nos próprios registros de usuário.
+ * <p>
+ * As filas de recados e de mensagens de comunidade fazem parte de {@link Users}, de forma
+ * que ficam onde o {@link IRepositorioUsuarios repositório de usuários} guardar cada usuário
+ * e são gravadas junto com ele nos snapshots.
+ * </p>
+ */
+public class RepositorioRecadosUsuarios implements IRepositorioRecados {
+    private final IRepositorioUsuarios usuarios;
+
+    /**
+     * @param usuarios Repositório dos usuários donos das caixas
+     */
+    public RepositorioRecadosUsuarios(IRepositorioUsuarios usuarios) {
+        this.usuarios = usuarios;
+    }
+
+    @Override
+    public void depositarRecado(String destinatario, String remetente, String recado) {
+        usuarios.buscar(destinatario).receberRecado(remetente, recado);
+    }
+
+    @Override
+    public String retirarRecado(String login) {
+        Users usuario = usuarios.buscar(login);
+        return usuario == null ? null : usuario.lerRecado();
+    }
+
+    @Override
+    public boolean possuiRecado(String login) {
+        Users usuario = usuarios.buscar(login);
+        return usuario != null && usuario.possuiRecado();
+    }
+
+    @Override
+    public Collection<Mensagem> listarRecados(String login) {
+        Users usuario = usuarios.consultar(login);
+        return usuario == null ? Collections.emptyList() : usuario.getRecados();
+    }
+
+    @Override
+    public boolean possuiRecadosDe(String login, String remetente) {
+        return contarRecadosDe(login, remetente) > 0;
+    }
+
+    @Override
+    public int contarRecadosDe(String login, String remetente) {
+        Users usuario = usuarios.buscar(login);
+        return usuario == null ? 0 : usuario.contarRecadosDe(remetente);
+    }
+
+    @Override
+    public void removerRecadosDe(String login, String remetente) {
+        Users usuario = usuarios.buscar(login);
+        if (usuario != null) {
+            usuario.removerMensagensDoUsuario(remetente);
+        }
+    }
+
+    @Override
+    public void depositarMensagemComunidade(String login, long sequencia, String mensagem) {
+        usuarios.buscar(login).receberMensagemComunidade(sequencia, mensagem);
+    }
+
+    @Override
+    public long getSequenciaMensagemComunidade(String login) {
+        Users usuario = usuarios.buscar(login);
+        return usuario == null ? -1 : usuario.getSequenciaMensagemComunidade();
+    }
+
+    @Override
+    public String retirarMensagemComunidade(String login) throws SemMensagemException {
+        Users usuario = usuarios.buscar(login);
+        if (usuario == null) {
+            throw new SemMensagemException();
+        }
+        return usuario.lerMensagemComunidade();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A caixa é removida junto com o registro do usuário.
+     * </p>
+     */
+    @Override
+    public void removerCaixa(String login) {
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * As caixas são descartadas junto com os registros de usuário.
+     * </p>
+     */
+    @Override
+    public void limpar() {
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * As caixas ficam nos registros de usuário, que recebem as lápides do repositório de
+     * usuários.
+     * </p>
+     */
+    @Override
+    public void setLapides(LapidesUsuarios lapides) {
+    }
+}
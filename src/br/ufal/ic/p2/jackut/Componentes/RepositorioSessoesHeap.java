@@ -0,0 +1,58 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioSessoes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Repositório de sessões mantido no heap, com um mapa em cada sentido
+ * (ID da sessão -> login e login -> ID da sessão).
+ */
+public class RepositorioSessoesHeap implements IRepositorioSessoes {
+    private final Map<String, String> sessoes = new MapaConcorrente<>();
+    private final Map<String, String> loginParaSessao = new MapaConcorrente<>();
+
+    @Override
+    public String getLogin(String idSessao) {
+        return sessoes.get(idSessao);
+    }
+
+    @Override
+    public String getSessao(String login) {
+        return loginParaSessao.get(login);
+    }
+
+    @Override
+    public void registrar(String idSessao, String login) {
+        String anterior = loginParaSessao.put(login, idSessao);
+        if (anterior != null) {
+            sessoes.remove(anterior);
+        }
+        sessoes.put(idSessao, login);
+    }
+
+    @Override
+    public void encerrar(String login) {
+        String idSessao = loginParaSessao.remove(login);
+        if (idSessao != null) {
+            sessoes.remove(idSessao);
+        }
+    }
+
+    @Override
+    public Collection<String> getLogins() {
+        return new ArrayList<>(loginParaSessao.keySet());
+    }
+
+    @Override
+    public int quantidade() {
+        return sessoes.size();
+    }
+
+    @Override
+    public void limpar() {
+        sessoes.clear();
+        loginParaSessao.clear();
+    }
+}
@@ -0,0 +1,79 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioUsuarios;
+import br.ufal.ic.p2.jackut.Users;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Repositório de usuários mantido inteiramente no heap.
+ * <p>
+ * Armazenamento padrão do sistema: um {@link MapaConcorrente}, que permite a leitura
+ * concorrente dos usuários durante a gravação de snapshots e a alteração em paralelo de
+ * usuários diferentes.
+ * </p>
+ */
+public class RepositorioUsuariosHeap implements IRepositorioUsuarios {
+    private final Map<String, Users> usuarios = new MapaConcorrente<>();
+    private volatile LapidesUsuarios lapides = LapidesUsuarios.NENHUMA;
+
+    @Override
+    public Users buscar(String login) {
+        return usuarios.get(login);
+    }
+
+    @Override
+    public Users consultar(String login) {
+        return usuarios.get(login);
+    }
+
+    @Override
+    public boolean existe(String login) {
+        return usuarios.containsKey(login);
+    }
+
+    @Override
+    public void salvar(Users usuario) {
+        usuario.setLapides(lapides);
+        usuarios.put(usuario.getLogin(), usuario);
+    }
+
+    @Override
+    public void remover(String login) {
+        usuarios.remove(login);
+    }
+
+    @Override
+    public void marcarAlterado(String login) {
+        // Os usuários nunca deixam o heap
+    }
+
+    @Override
+    public Collection<String> getLogins() {
+        return new ArrayList<>(usuarios.keySet());
+    }
+
+    @Override
+    public int quantidade() {
+        return usuarios.size();
+    }
+
+    @Override
+    public void limpar() {
+        usuarios.clear();
+    }
+
+    @Override
+    public boolean permiteAlteracoesConcorrentes() {
+        return true;
+    }
+
+    @Override
+    public void setLapides(LapidesUsuarios lapides) {
+        this.lapides = lapides;
+        for (Users usuario : usuarios.values()) {
+            usuario.setLapides(lapides);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sequenciador das operações de escrita: cada operação vira um comando, enfileirado por
+ * qualquer thread e aplicado por uma única thread escritora, em lotes.
+ * <p>
+ * A fila é um buffer circular de {@link #CAPACIDADE_PADRAO} posições (propriedade
+ * {@code jackut.sequenciador.capacidade}, arredondada para uma potência de 2) sem travas,
+ * para vários produtores e um consumidor. Cada produtor reserva a próxima posição com um
+ * incremento atômico, grava o comando e o publica no número de sequência da posição; a
+ * escritora consome as posições em ordem e as libera para a volta seguinte. Com a fila cheia,
+ * o produtor espera a sua posição ser liberada. A ordem das reservas é a ordem de aplicação.
+ * </p>
+ * <p>
+ * A escritora retira até {@link #LOTE_PADRAO} comandos ({@code jackut.sequenciador.lote}) e
+ * os aplica em sequência com a trava exclusiva do sistema ({@link TravasUsuarios}) adquirida
+ * uma única vez, de forma que as consultas, que usam a trava compartilhada, veem o estado
+ * publicado ao fim do último lote. Ao fim de cada lote a ação de conclusão (o commit do
+ * journal) é executada uma vez, e só então os produtores recebem os resultados; se ela falhar,
+ * todos os produtores do lote recebem a falha.
+ * </p>
+ * <p>
+ * A escritora é iniciada no primeiro comando e termina em {@link #encerrar()}, depois de
+ * aplicar os comandos já enfileirados; um comando enfileirado depois disso inicia outra.
+ * </p>
+ */
+public class SequenciadorComandos {
+
+    /** Quantidade padrão de posições da fila. */
+    public static final int CAPACIDADE_PADRAO = 1024;
+
+    /** Quantidade padrão máxima de comandos aplicados por lote. */
+    public static final int LOTE_PADRAO = 256;
+
+    /** Espera ativa do produtor, em tentativas, antes de ceder o processador. */
+    private static final int TENTATIVAS = 64;
+
+    /**
+     * Operação de escrita executada pela thread escritora.
+     *
+     * @param <T> Tipo do resultado
+     */
+    @FunctionalInterface
+    public interface Comando<T> {
+        /**
+         * @return Resultado da operação
+         * @throws Exception Exceção da operação, relançada na thread que enfileirou o comando
+         */
+        T executar() throws Exception;
+    }
+
+    private final Lock trava;
+    private final Runnable aoConcluirLote;
+    private final Pedido<?>[] pedidos;
+    /** Número de sequência de cada posição: igual à posição reservada quando livre, um a mais quando publicada */
+    private final AtomicLongArray sequencias;
+    private final int mascara;
+    private final int lote = Math.max(1, Integer.getInteger("jackut.sequenciador.lote", LOTE_PADRAO));
+    /** Próxima posição a ser reservada por um produtor */
+    private final AtomicLong proxima = new AtomicLong();
+    /** Próxima posição a ser consumida, usada apenas pela escritora */
+    private long consumida;
+    /** Thread escritora em execução, ou null se ainda não foi iniciada ou já terminou */
+    private volatile Thread escritora;
+    /** Indica que a escritora deve terminar quando a fila esvaziar */
+    private volatile boolean encerrado;
+    /** Indica que a escritora está parada à espera de comandos */
+    private volatile boolean aguardando;
+    private volatile long comandosAplicados;
+    private volatile long lotesAplicados;
+
+    /**
+     * Cria o sequenciador; a thread escritora (daemon) é iniciada no primeiro comando.
+     *
+     * @param trava Trava exclusiva do estado do sistema ({@link TravasUsuarios#exclusiva()})
+     * @param aoConcluirLote Executada com a trava ainda adquirida ao fim de cada lote
+     */
+    public SequenciadorComandos(Lock trava, Runnable aoConcluirLote) {
+        this.trava = trava;
+        this.aoConcluirLote = aoConcluirLote;
+        int pedido = Math.max(2, Integer.getInteger("jackut.sequenciador.capacidade", CAPACIDADE_PADRAO));
+        int capacidade = 1;
+        while (capacidade < pedido) {
+            capacidade <<= 1;
+        }
+        this.pedidos = new Pedido<?>[capacidade];
+        this.sequencias = new AtomicLongArray(capacidade);
+        for (int i = 0; i < capacidade; i++) {
+            sequencias.set(i, i);
+        }
+        this.mascara = capacidade - 1;
+    }
+
+    /**
+     * Enfileira um comando e espera a sua aplicação pela thread escritora. Chamado pela
+     * própria escritora (um comando que executa outra operação), aplica o comando na hora.
+     *
+     * @param comando Operação de escrita
+     * @param <T> Tipo do resultado
+     * @return Resultado da operação
+     * @throws Exception Exceção lançada pela operação
+     */
+    public <T> T executar(Comando<T> comando) throws Exception {
+        if (Thread.currentThread() == escritora) {
+            return comando.executar();
+        }
+        Pedido<T> pedido = new Pedido<>(comando);
+        long posicao = proxima.getAndIncrement();
+        int i = (int) posicao & mascara;
+        for (int tentativa = 0; sequencias.get(i) != posicao; tentativa++) {
+            if (tentativa < TENTATIVAS) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        pedidos[i] = pedido;
+        sequencias.set(i, posicao + 1);
+        Thread atual = escritora;
+        if (atual == null || encerrado) {
+            iniciarEscritora();
+        } else if (aguardando) {
+            LockSupport.unpark(atual);
+        }
+        return pedido.aguardar();
+    }
+
+    /**
+     * Termina a thread escritora depois de ela aplicar os comandos já enfileirados. Chamado
+     * por outra thread, espera a escritora terminar; chamado por um comando, a escritora
+     * termina ao fim do lote. Não deve ser chamado com a trava do sistema adquirida por
+     * outra thread que não a escritora, pois a escritora precisa dela para esvaziar a fila.
+     */
+    public void encerrar() {
+        encerrado = true;
+        Thread atual = escritora;
+        if (atual == null || atual == Thread.currentThread()) {
+            return;
+        }
+        LockSupport.unpark(atual);
+        try {
+            atual.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return true se a thread escritora está em execução
+     */
+    public boolean ativo() {
+        Thread atual = escritora;
+        return atual != null && atual.isAlive();
+    }
+
+    /**
+     * Inicia uma escritora se não houver uma em execução. Sincronizado com o término da
+     * escritora ({@link #terminar()}), de forma que um comando publicado enquanto ela termina
+     * é aplicado por ela ou pela seguinte.
+     */
+    private synchronized void iniciarEscritora() {
+        if (escritora == null) {
+            encerrado = false;
+            Thread nova = new Thread(this::escrever, "jackut-sequenciador");
+            nova.setDaemon(true);
+            escritora = nova;
+            nova.start();
+        }
+    }
+
+    /**
+     * Termina a escritora se nenhum comando foi publicado desde a última retirada.
+     *
+     * @return true se a escritora deve sair do laço
+     */
+    private synchronized boolean terminar() {
+        if (publicado()) {
+            return false;
+        }
+        escritora = null;
+        return true;
+    }
+
+    /**
+     * @return Quantidade de comandos aplicados pela escritora
+     */
+    public long getComandosAplicados() { return comandosAplicados; }
+
+    /**
+     * @return Quantidade de lotes aplicados pela escritora
+     */
+    public long getLotesAplicados() { return lotesAplicados; }
+
+    /**
+     * @return Quantidade média de comandos por lote, ou 0 se nenhum lote foi aplicado
+     */
+    public double getTamanhoMedioLote() {
+        long lotes = lotesAplicados;
+        return lotes == 0 ? 0 : (double) comandosAplicados / lotes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("comandos=%d lotes=%d tamanhoMedioLote=%.2f",
+                getComandosAplicados(), getLotesAplicados(), getTamanhoMedioLote());
+    }
+
+    /**
+     * Laço da thread escritora: retira os comandos publicados, aplica-os em lotes e devolve
+     * os resultados; sem comandos, fica parada até um produtor publicar ou até o encerramento.
+     */
+    private void escrever() {
+        List<Pedido<?>> retirados = new ArrayList<>(lote);
+        while (true) {
+            retirar(retirados);
+            if (retirados.isEmpty()) {
+                if (encerrado) {
+                    if (terminar()) {
+                        return;
+                    }
+                    continue;
+                }
+                aguardando = true;
+                // Confere de novo depois de anunciar a espera, para não perder uma publicação
+                if (!publicado() && !encerrado) {
+                    LockSupport.park(this);
+                }
+                aguardando = false;
+                continue;
+            }
+            trava.lock();
+            try {
+                for (Pedido<?> pedido : retirados) {
+                    pedido.aplicar();
+                }
+                try {
+                    aoConcluirLote.run();
+                } catch (RuntimeException e) {
+                    // As operações do lote não são duráveis: os produtores recebem a falha
+                    for (Pedido<?> pedido : retirados) {
+                        pedido.falhar(e);
+                    }
+                }
+            } finally {
+                trava.unlock();
+            }
+            comandosAplicados += retirados.size();
+            lotesAplicados++;
+            for (Pedido<?> pedido : retirados) {
+                pedido.concluir();
+            }
+            retirados.clear();
+        }
+    }
+
+    /**
+     * Retira da fila, em ordem, até {@link #lote} comandos já publicados.
+     */
+    private void retirar(List<Pedido<?>> retirados) {
+        while (retirados.size() < lote && publicado()) {
+            int i = (int) consumida & mascara;
+            retirados.add(pedidos[i]);
+            pedidos[i] = null;
+            sequencias.set(i, consumida + pedidos.length);
+            consumida++;
+        }
+    }
+
+    private boolean publicado() {
+        return sequencias.get((int) consumida & mascara) == consumida + 1;
+    }
+
+    /** Comando enfileirado, o seu resultado e a thread que espera por ele. */
+    private static final class Pedido<T> {
+        private final Comando<T> comando;
+        private final Thread produtor = Thread.currentThread();
+        private T resultado;
+        /** Exceção da operação; erros da JVM também são devolvidos, para não parar a escritora */
+        private Throwable erro;
+        private volatile boolean concluido;
+
+        Pedido(Comando<T> comando) {
+            this.comando = comando;
+        }
+
+        void aplicar() {
+            try {
+                resultado = comando.executar();
+            } catch (Exception | Error e) {
+                erro = e;
+            }
+        }
+
+        /** Devolve a falha da conclusão do lote, se a operação em si não falhou. */
+        void falhar(RuntimeException e) {
+            if (erro == null) {
+                erro = e;
+            }
+        }
+
+        void concluir() {
+            concluido = true;
+            LockSupport.unpark(produtor);
+        }
+
+        T aguardar() throws Exception {
+            while (!concluido) {
+                LockSupport.park(this);
+            }
+            if (erro instanceof Error) {
+                throw (Error) erro;
+            }
+            if (erro != null) {
+                throw (Exception) erro;
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Travas das operações do sistema: uma trava global de leitura e escrita e conjuntos fixos
+ * de travas por usuário e por comunidade (listras), escolhidas pelo hash do login ou do nome.
+ * <p>
+ * As operações que envolvem apenas usuários (amizades, ídolos, inimigos, paqueras, recados,
+ * perfil e sessões), inclusive as consultas, adquirem a trava global em modo compartilhado e
+ * as listras dos usuários envolvidos, de forma que operações sobre usuários diferentes
+ * executam em paralelo. As operações de comunidade (criação, entrada, envio e leitura de
+ * mensagens) adquirem, além dessas, as listras das comunidades envolvidas
+ * ({@link #travarComunidade(String, String, String)}). As operações estruturais (criação e
+ * remoção de usuários, snapshots) e os lotes em segundo plano adquirem a trava global em modo
+ * exclusivo ({@link #exclusiva()}) e dispensam as listras.
+ * </p>
+ * <p>
+ * As operações sobre dois usuários adquirem as duas listras sempre em ordem crescente de
+ * índice, e as listras de comunidade, também em ordem crescente, só depois das de usuário, de
+ * forma que duas operações nunca esperam uma pela outra em ciclo. Os logins são
+ * distribuídos em {@link #LISTRAS_PADRAO} listras (propriedade {@code jackut.travas.listras},
+ * arredondada para uma potência de 2); usuários que compartilham uma listra apenas têm as
+ * suas operações serializadas.
+ * </p>
+ * <p>
+ * Se os repositórios não permitem alterações concorrentes ({@link #setConcorrente(boolean)}),
+ * todas as operações adquirem a trava global em modo exclusivo.
+ * </p>
+ * <p>
+ * Uma ação pode ser registrada para executar antes de cada liberação
+ * ({@link #setAoLiberar(Runnable)}), ainda com as travas adquiridas: é assim que as operações
+ * publicam as versões de leitura ({@link VersoesLeitura}) dos registros que alteraram.
+ * </p>
+ * <p>
+ * As threads das partições de usuários ({@link ParticoesUsuarios}) adquirem a trava global
+ * compartilhada uma única vez por lote de operações ({@link #executarEmLote(Runnable)}); dentro
+ * do lote, as operações adquirem apenas as listras, que no caso comum pertencem à própria
+ * partição e nunca são disputadas.
+ * </p>
+ * <p>
+ * Um login pode ser realocado para outra listra ({@link #realocar(String, int)}), por
+ * exemplo para mudar de partição; as realocações só são feitas com a trava global exclusiva,
+ * quando nenhuma operação detém listras.
+ * </p>
+ */
+public class TravasUsuarios {
+
+    /** Quantidade padrão de listras. */
+    public static final int LISTRAS_PADRAO = 64;
+
+    private final ReentrantReadWriteLock global = new ReentrantReadWriteLock();
+    private final ReentrantLock[] listras;
+    /** Listras das comunidades, na mesma quantidade das listras de usuário */
+    private final ReentrantLock[] listrasComunidades;
+    private final Lock exclusiva = new Exclusiva();
+    private boolean concorrente = true;
+    private Runnable aoLiberar;
+    /** Indica que alguma thread executa lotes, para dispensar a consulta de {@link #emLote} */
+    private volatile boolean haLotes;
+    /** Marca as threads que já detêm a trava global compartilhada por um lote */
+    private final ThreadLocal<Boolean> emLote = new ThreadLocal<>();
+    /** Listras dos logins realocados, em vez da escolhida pelo hash */
+    private final Map<String, Integer> realocados = new MapaConcorrente<>();
+    /** Indica que há logins realocados, para dispensar a consulta de {@link #realocados} */
+    private volatile boolean haRealocados;
+
+    /**
+     * Cria as travas com a quantidade de listras configurada.
+     */
+    public TravasUsuarios() {
+        int pedido = Math.max(1, Integer.getInteger("jackut.travas.listras", LISTRAS_PADRAO));
+        int quantidade = 1;
+        while (quantidade < pedido) {
+            quantidade <<= 1;
+        }
+        listras = new ReentrantLock[quantidade];
+        listrasComunidades = new ReentrantLock[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            listras[i] = new ReentrantLock();
+            listrasComunidades[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Define se as operações sobre usuários podem executar em paralelo. Deve ser chamado
+     * antes de o sistema ser usado por mais de uma thread.
+     *
+     * @param concorrente false para que todas as operações sejam exclusivas
+     */
+    public void setConcorrente(boolean concorrente) {
+        this.concorrente = concorrente;
+    }
+
+    /**
+     * Define a ação executada antes de cada liberação de travas. Deve ser chamado antes de o
+     * sistema ser usado por mais de uma thread.
+     *
+     * @param aoLiberar Ação executada com as travas ainda adquiridas, ou null para nenhuma
+     */
+    public void setAoLiberar(Runnable aoLiberar) {
+        this.aoLiberar = aoLiberar;
+    }
+
+    /**
+     * @return Trava global em modo exclusivo, usada pelos lotes em segundo plano; a ação de
+     *         liberação também é executada antes de cada {@link Lock#unlock()}
+     */
+    public Lock exclusiva() {
+        return exclusiva;
+    }
+
+    /**
+     * Adquire a trava global em modo exclusivo.
+     *
+     * @return Travamento a ser liberado com {@link Travamento#liberar()}
+     */
+    public Travamento travarTudo() {
+        if (noLote()) {
+            // A trava compartilhada do lote não pode ser promovida a exclusiva
+            throw new IllegalStateException("Operação exclusiva dentro de um lote de partição");
+        }
+        Lock trava = global.writeLock();
+        trava.lock();
+        return new Travamento(aoLiberar, trava, null, null, null);
+    }
+
+    /**
+     * Adquire a trava global em modo compartilhado, para consultas que não leem usuários.
+     *
+     * @return Travamento a ser liberado com {@link Travamento#liberar()}
+     */
+    public Travamento travarLeitura() {
+        if (!concorrente) {
+            return travarTudo();
+        }
+        Lock trava = noLote() ? null : global.readLock();
+        if (trava != null) {
+            trava.lock();
+        }
+        return new Travamento(aoLiberar, trava, null, null, null);
+    }
+
+    /**
+     * Adquire a trava global em modo compartilhado e as listras de até dois usuários.
+     *
+     * @param login Login de um usuário envolvido, ou null
+     * @param outro Login do outro usuário envolvido, ou null
+     * @return Travamento a ser liberado com {@link Travamento#liberar()}
+     */
+    public Travamento travar(String login, String outro) {
+        if (!concorrente) {
+            return travarTudo();
+        }
+        Lock trava = noLote() ? null : global.readLock();
+        if (trava != null) {
+            trava.lock();
+        }
+        int i = indice(login);
+        int j = indice(outro);
+        if (i == j) {
+            j = -1;
+        } else if (i > j) {
+            int troca = i;
+            i = j;
+            j = troca;
+        }
+        // Com duas listras, i < j; com uma, ela está em j
+        ReentrantLock primeira = null;
+        ReentrantLock segunda = null;
+        if (i >= 0) {
+            primeira = listras[i];
+            primeira.lock();
+        }
+        if (j >= 0) {
+            segunda = listras[j];
+            segunda.lock();
+        }
+        return new Travamento(aoLiberar, trava, primeira, segunda, null);
+    }
+
+    /**
+     * Adquire a trava global em modo compartilhado, as listras de até dois usuários e a listra
+     * de uma comunidade.
+     *
+     * @param comunidade Nome da comunidade envolvida
+     * @param login Login de um usuário envolvido, ou null
+     * @param outro Login do outro usuário envolvido, ou null
+     * @return Travamento a ser liberado com {@link Travamento#liberar()}
+     */
+    public Travamento travarComunidade(String comunidade, String login, String outro) {
+        return travarComunidades(() -> Collections.singletonList(comunidade), login, outro);
+    }
+
+    /**
+     * Adquire a trava global em modo compartilhado, as listras de até dois usuários e as
+     * listras de várias comunidades. As comunidades são consultadas já com as listras dos
+     * usuários adquiridas, por exemplo para obter as comunidades de um deles.
+     *
+     * @param comunidades Fornece os nomes das comunidades envolvidas
+     * @param login Login de um usuário envolvido, ou null
+     * @param outro Login do outro usuário envolvido, ou null
+     * @return Travamento a ser liberado com {@link Travamento#liberar()}
+     */
+    public Travamento travarComunidades(Supplier<? extends Collection<String>> comunidades, String login, String outro) {
+        if (!concorrente) {
+            return travarTudo();
+        }
+        Travamento usuarios = travar(login, outro);
+        boolean[] marcadas = new boolean[listrasComunidades.length];
+        int quantidade = 0;
+        try {
+            for (String nome : comunidades.get()) {
+                int i = listraComunidade(nome);
+                if (i >= 0 && !marcadas[i]) {
+                    marcadas[i] = true;
+                    quantidade++;
+                }
+            }
+        } catch (RuntimeException e) {
+            usuarios.liberar();
+            throw e;
+        }
+        Lock[] travadas = new Lock[quantidade];
+        for (int i = 0, k = 0; k < quantidade; i++) {
+            if (marcadas[i]) {
+                travadas[k] = listrasComunidades[i];
+                travadas[k++].lock();
+            }
+        }
+        return new Travamento(aoLiberar, usuarios.global, usuarios.primeira, usuarios.segunda, travadas);
+    }
+
+    /**
+     * Executa um lote de operações com a trava global compartilhada adquirida uma única vez:
+     * as operações do lote adquirem apenas as suas listras. As operações exclusivas não podem
+     * ser executadas dentro do lote.
+     *
+     * @param lote Operações a executar
+     */
+    public void executarEmLote(Runnable lote) {
+        if (!concorrente || noLote()) {
+            lote.run();
+            return;
+        }
+        haLotes = true;
+        Lock trava = global.readLock();
+        trava.lock();
+        emLote.set(Boolean.TRUE);
+        try {
+            lote.run();
+        } finally {
+            emLote.remove();
+            trava.unlock();
+        }
+    }
+
+    /**
+     * @return Quantidade de listras
+     */
+    public int quantidadeListras() {
+        return listras.length;
+    }
+
+    /**
+     * Obtém a listra de um login, a mesma adquirida pelas operações sobre ele.
+     *
+     * @param login Login do usuário
+     * @return Índice da listra, de 0 a {@link #quantidadeListras()} - 1, ou -1 se o login for null
+     */
+    public int listra(String login) {
+        return indice(login);
+    }
+
+    /**
+     * Obtém a listra escolhida pelo hash de um login, sem considerar realocações.
+     *
+     * @param login Login do usuário
+     * @return Índice da listra, ou -1 se o login for null
+     */
+    public int listraOriginal(String login) {
+        if (login == null) {
+            return -1;
+        }
+        int h = login.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (listras.length - 1);
+    }
+
+    /**
+     * Realoca um login para outra listra. Deve ser chamado com a trava global exclusiva
+     * adquirida ({@link #travarTudo()}).
+     *
+     * @param login Login do usuário
+     * @param listra Nova listra, ou -1 para voltar à listra escolhida pelo hash
+     */
+    public void realocar(String login, int listra) {
+        if (listra < 0 || listra == listraOriginal(login)) {
+            realocados.remove(login);
+        } else {
+            realocados.put(login, listra & (listras.length - 1));
+        }
+        haRealocados = !realocados.isEmpty();
+    }
+
+    /**
+     * Desfaz todas as realocações. Deve ser chamado com a trava global exclusiva adquirida.
+     */
+    public void limparRealocacoes() {
+        realocados.clear();
+        haRealocados = false;
+    }
+
+    /**
+     * @return Quantidade de logins realocados
+     */
+    public int quantidadeRealocados() {
+        return realocados.size();
+    }
+
+    private boolean noLote() {
+        return haLotes && emLote.get() != null;
+    }
+
+    private int listraComunidade(String nome) {
+        if (nome == null) {
+            return -1;
+        }
+        int h = nome.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (listrasComunidades.length - 1);
+    }
+
+    private int indice(String login) {
+        if (haRealocados && login != null) {
+            Integer listra = realocados.get(login);
+            if (listra != null) {
+                return listra;
+            }
+        }
+        return listraOriginal(login);
+    }
+
+    /**
+     * Travas adquiridas por uma operação, liberadas na ordem inversa. Como um {@link Lock}, é
+     * liberado em um bloco {@code finally} logo após a aquisição.
+     */
+    public static final class Travamento {
+        private final Runnable aoLiberar;
+        private final Lock global;
+        private final Lock primeira;
+        private final Lock segunda;
+        /** Listras de comunidade em ordem de aquisição, ou null */
+        private final Lock[] comunidades;
+
+        private Travamento(Runnable aoLiberar, Lock global, Lock primeira, Lock segunda, Lock[] comunidades) {
+            this.aoLiberar = aoLiberar;
+            this.global = global;
+            this.primeira = primeira;
+            this.segunda = segunda;
+            this.comunidades = comunidades;
+        }
+
+        /**
+         * Executa a ação de liberação e libera as travas adquiridas.
+         */
+        public void liberar() {
+            try {
+                if (aoLiberar != null) {
+                    aoLiberar.run();
+                }
+            } finally {
+                if (comunidades != null) {
+                    for (int i = comunidades.length - 1; i >= 0; i--) {
+                        comunidades[i].unlock();
+                    }
+                }
+                if (segunda != null) {
+                    segunda.unlock();
+                }
+                if (primeira != null) {
+                    primeira.unlock();
+                }
+                // Dentro de um lote a trava global pertence ao lote
+                if (global != null) {
+                    global.unlock();
+                }
+            }
+        }
+    }
+
+    /** Trava global em modo exclusivo que executa a ação de liberação antes de liberar. */
+    private final class Exclusiva implements Lock {
+        private final Lock trava = global.writeLock();
+
+        @Override
+        public void lock() {
+            trava.lock();
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            trava.lockInterruptibly();
+        }
+
+        @Override
+        public boolean tryLock() {
+            return trava.tryLock();
+        }
+
+        @Override
+        public boolean tryLock(long tempo, TimeUnit unidade) throws InterruptedException {
+            return trava.tryLock(tempo, unidade);
+        }
+
+        @Override
+        public void unlock() {
+            try {
+                Runnable acao = aoLiberar;
+                if (acao != null) {
+                    acao.run();
+                }
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        @Override
+        public Condition newCondition() {
+            return trava.newCondition();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Comunidade;
+import br.ufal.ic.p2.jackut.Users;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Versão imutável do estado consultado pelas leituras mais frequentes: perfil, amigos, fãs,
+ * solicitações de amizade, paqueras e comunidades de cada usuário e membros de cada comunidade.
+ * <p>
+ * Os usuários e as comunidades ficam em mapas persistentes ({@link MapaPersistente}); os
+ * relacionamentos de cada usuário são cópias congeladas dos seus conjuntos ({@link ConjuntoIds}),
+ * que nunca mais são alteradas. Uma nova versão ({@link VersoesLeitura}) copia apenas os
+ * registros alterados e compartilha os demais, de forma que uma versão obtida uma vez pode ser
+ * lida sem travas e continua coerente, como um retrato do momento em que foi publicada,
+ * enquanto novas versões são publicadas.
+ * </p>
+ * <p>
+ * Como no estado vivo, os logins com {@linkplain LapidesUsuarios#removido(String) lápide} na
+ * instância que publicou a versão são ignorados na leitura: um usuário removido deixa de aparecer nas listagens assim que é
+ * removido, antes de o expurgo publicar os registros que ainda o referenciam. Cada versão
+ * guarda o {@linkplain LapidesUsuarios#retrato() retrato} das lápides da sua publicação, de
+ * forma que retirar uma lápide não expõe o login a quem ainda lê uma versão anterior ao expurgo.
+ * </p>
+ */
+public final class VersaoLeitura {
+
+    /** Versão sem usuários nem comunidades. */
+    public static final VersaoLeitura VAZIA = new VersaoLeitura(0, MapaPersistente.vazio(), MapaPersistente.vazio(),
+            LapidesUsuarios.NENHUMA);
+
+    private final long numero;
+    private final MapaPersistente<String, Perfil> usuarios;
+    private final MapaPersistente<String, Membros> comunidades;
+    private final LapidesUsuarios lapides;
+
+    VersaoLeitura(long numero, MapaPersistente<String, Perfil> usuarios, MapaPersistente<String, Membros> comunidades,
+                  LapidesUsuarios lapides) {
+        this.numero = numero;
+        this.usuarios = usuarios;
+        this.comunidades = comunidades;
+        this.lapides = lapides;
+    }
+
+    /**
+     * @return Número da versão, crescente a cada publicação
+     */
+    public long getNumero() { return numero; }
+
+    /**
+     * @return Quantidade de usuários da versão, incluindo os removidos ainda não publicados
+     */
+    public int quantidadeUsuarios() { return usuarios.tamanho(); }
+
+    /**
+     * @return Quantidade de comunidades da versão
+     */
+    public int quantidadeComunidades() { return comunidades.tamanho(); }
+
+    /**
+     * Obtém o perfil de um usuário.
+     *
+     * @param login Login do usuário
+     * @return Perfil do usuário, ou null se ele não existir ou tiver sido removido
+     */
+    public Perfil getPerfil(String login) {
+        Perfil perfil = usuarios.obter(login);
+        return perfil == null || lapides.removido(login) ? null : perfil.com(lapides);
+    }
+
+    /**
+     * Obtém os membros de uma comunidade.
+     *
+     * @param nome Nome da comunidade
+     * @return Logins dos membros, na ordem de entrada, ou null se a comunidade não existir
+     */
+    public List<String> getMembros(String nome) {
+        Membros membros = comunidades.obter(nome);
+        return membros == null ? null : membros.ativos(lapides);
+    }
+
+    /**
+     * Percorre os perfis de todos os usuários da versão, para consultas que precisam de uma
+     * visão coerente do conjunto inteiro.
+     *
+     * @param acao Ação executada para cada login e perfil
+     */
+    public void paraCadaUsuario(BiConsumer<String, Perfil> acao) {
+        usuarios.paraCada((login, perfil) -> {
+            if (!lapides.removido(login)) {
+                acao.accept(login, perfil.com(lapides));
+            }
+        });
+    }
+
+    /**
+     * Percorre as comunidades da versão.
+     *
+     * @param acao Ação executada para cada nome de comunidade e lista de membros
+     */
+    public void paraCadaComunidade(BiConsumer<String, List<String>> acao) {
+        comunidades.paraCada((nome, membros) -> acao.accept(nome, membros.ativos(lapides)));
+    }
+
+    /**
+     * @param lapides Retrato das lápides da nova versão
+     * @return Versão seguinte sem usuários nem comunidades
+     */
+    VersaoLeitura esvaziar(LapidesUsuarios lapides) {
+        return new VersaoLeitura(numero + 1, MapaPersistente.vazio(), MapaPersistente.vazio(), lapides);
+    }
+
+    Perfil perfilPublicado(String login) {
+        return usuarios.obter(login);
+    }
+
+    Membros membrosPublicados(String nome) {
+        return comunidades.obter(nome);
+    }
+
+    /**
+     * Cria a versão seguinte substituindo alguns registros.
+     *
+     * @param perfis Perfis a substituir (valor null retira o usuário)
+     * @param membros Membros a substituir (valor null retira a comunidade)
+     * @param lapides Retrato das lápides da nova versão
+     * @return Nova versão
+     */
+    VersaoLeitura com(Map<String, Perfil> perfis, Map<String, Membros> membros, LapidesUsuarios lapides) {
+        MapaPersistente<String, Perfil> novosUsuarios = usuarios;
+        for (Map.Entry<String, Perfil> entrada : perfis.entrySet()) {
+            novosUsuarios = entrada.getValue() == null
+                    ? novosUsuarios.sem(entrada.getKey()) : novosUsuarios.com(entrada.getKey(), entrada.getValue());
+        }
+        MapaPersistente<String, Membros> novasComunidades = comunidades;
+        for (Map.Entry<String, Membros> entrada : membros.entrySet()) {
+            novasComunidades = entrada.getValue() == null
+                    ? novasComunidades.sem(entrada.getKey()) : novasComunidades.com(entrada.getKey(), entrada.getValue());
+        }
+        return new VersaoLeitura(numero + 1, novosUsuarios, novasComunidades, lapides);
+    }
+
+    /**
+     * Perfil imutável de um usuário: nome, atributos, relacionamentos consultados e comunidades.
+     * O mesmo perfil é compartilhado pelas versões enquanto o usuário não é alterado; a versão
+     * o entrega ligado ao seu retrato das lápides.
+     */
+    public static final class Perfil {
+        private final String nome;
+        private final String[] chaves;
+        private final String[] valores;
+        private final Copia amigos;
+        private final Copia fas;
+        private final Copia solicitacoes;
+        private final Copia paqueras;
+        private final List<String> comunidades;
+        private final LapidesUsuarios lapides;
+
+        /**
+         * Copia o perfil de um usuário, reaproveitando as cópias do perfil anterior dos
+         * conjuntos que não foram alterados desde então.
+         */
+        Perfil(Users usuario, Perfil anterior, List<String> comunidades) {
+            this.lapides = LapidesUsuarios.NENHUMA;
+            this.nome = usuario.getNome();
+            Map<String, String> atributos = usuario.getAtributos();
+            this.chaves = atributos.keySet().toArray(new String[0]);
+            this.valores = atributos.values().toArray(new String[0]);
+            this.amigos = Copia.de(usuario.getConjunto(Users.Relacao.AMIGOS), anterior == null ? null : anterior.amigos);
+            this.fas = Copia.de(usuario.getConjunto(Users.Relacao.FAS), anterior == null ? null : anterior.fas);
+            this.solicitacoes = Copia.de(usuario.getConjunto(Users.Relacao.SOLICITACOES),
+                    anterior == null ? null : anterior.solicitacoes);
+            this.paqueras = Copia.de(usuario.getConjunto(Users.Relacao.PAQUERAS), anterior == null ? null : anterior.paqueras);
+            this.comunidades = Collections.unmodifiableList(new ArrayList<>(comunidades));
+        }
+
+        private Perfil(Perfil perfil, LapidesUsuarios lapides) {
+            this.nome = perfil.nome;
+            this.chaves = perfil.chaves;
+            this.valores = perfil.valores;
+            this.amigos = perfil.amigos;
+            this.fas = perfil.fas;
+            this.solicitacoes = perfil.solicitacoes;
+            this.paqueras = perfil.paqueras;
+            this.comunidades = perfil.comunidades;
+            this.lapides = lapides;
+        }
+
+        /**
+         * @return Este perfil filtrado pelas lápides de uma versão
+         */
+        Perfil com(LapidesUsuarios lapides) {
+            return lapides == this.lapides ? this : new Perfil(this, lapides);
+        }
+
+        /**
+         * @return Nome do usuário
+         */
+        public String getNome() { return nome; }
+
+        /**
+         * Obtém o valor de um atributo do perfil.
+         *
+         * @param chave Nome do atributo (case-insensitive)
+         * @return Valor do atributo ou null se não existir
+         */
+        public String getAtributo(String chave) {
+            for (int i = 0; i < chaves.length; i++) {
+                if (chaves[i].equalsIgnoreCase(chave)) {
+                    return valores[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return Logins dos amigos sem lápide, na ordem de inserção
+         */
+        public List<String> getAmigos() { return amigos.conjunto.loginsAtivos(lapides); }
+
+        /**
+         * @param login Login do usuário
+         * @return true se for amigo e não tiver lápide
+         */
+        public boolean ehAmigo(String login) { return amigos.contem(login, lapides); }
+
+        /**
+         * @return Logins dos fãs sem lápide, na ordem de inserção
+         */
+        public List<String> getFas() { return fas.conjunto.loginsAtivos(lapides); }
+
+        /**
+         * @param login Login do usuário
+         * @return true se for fã e não tiver lápide
+         */
+        public boolean ehFa(String login) { return fas.contem(login, lapides); }
+
+        /**
+         * @return Logins dos solicitantes de amizade pendentes sem lápide, na ordem de chegada
+         */
+        public List<String> getSolicitacoes() { return solicitacoes.conjunto.loginsAtivos(lapides); }
+
+        /**
+         * @return Logins das paqueras sem lápide, na ordem de inserção
+         */
+        public List<String> getPaqueras() { return paqueras.conjunto.loginsAtivos(lapides); }
+
+        /**
+         * @param login Login do usuário
+         * @return true se for paquera e não tiver lápide
+         */
+        public boolean ehPaquera(String login) { return paqueras.contem(login, lapides); }
+
+        /**
+         * @return Nomes das comunidades do usuário: as que ele criou e depois as que integra
+         */
+        public List<String> getComunidades() { return comunidades; }
+    }
+
+    /**
+     * Cópia congelada de um conjunto de relacionamentos, com o conjunto vivo copiado e a sua
+     * contagem de modificações, para reaproveitar a cópia enquanto ele não for alterado.
+     */
+    private static final class Copia {
+        final ConjuntoIds conjunto;
+        private final ConjuntoIds origem;
+        private final int modificacoes;
+
+        private Copia(ConjuntoIds conjunto, ConjuntoIds origem, int modificacoes) {
+            this.conjunto = conjunto;
+            this.origem = origem;
+            this.modificacoes = modificacoes;
+        }
+
+        static Copia de(ConjuntoIds origem, Copia anterior) {
+            int modificacoes = origem.modificacoes();
+            if (anterior != null && anterior.origem == origem && anterior.modificacoes == modificacoes) {
+                return anterior;
+            }
+            return new Copia(origem.copiar(), origem, modificacoes);
+        }
+
+        boolean contem(String login, LapidesUsuarios lapides) {
+            int id = DicionarioUsuarios.idExistente(login);
+            return conjunto.contem(id) && !lapides.removido(id);
+        }
+    }
+
+    /**
+     * Membros imutáveis de uma comunidade, na ordem de entrada.
+     */
+    static final class Membros {
+        final String dono;
+        private final List<String> logins;
+        // Registro vivo copiado, para reaproveitar a cópia enquanto não for alterado
+        final MembrosIds origem;
+        final int modificacoes;
+
+        Membros(Comunidade comunidade) {
+            this.dono = comunidade.getDono();
+            this.origem = comunidade.getRegistroMembros();
+            this.modificacoes = origem.modificacoes();
+            this.logins = Collections.unmodifiableList(new ArrayList<>(comunidade.listarMembros()));
+        }
+
+        /**
+         * Verifica se a cópia ainda corresponde aos membros atuais de uma comunidade.
+         */
+        boolean atual(Comunidade comunidade) {
+            return origem == comunidade.getRegistroMembros() && modificacoes == origem.modificacoes();
+        }
+
+        List<String> todos() {
+            return logins;
+        }
+
+        List<String> ativos(LapidesUsuarios lapides) {
+            if (!lapides.haRemovidos()) {
+                return logins;
+            }
+            List<String> ativos = new ArrayList<>(logins);
+            ativos.removeIf(lapides::removido);
+            return Collections.unmodifiableList(ativos);
+        }
+    }
+}
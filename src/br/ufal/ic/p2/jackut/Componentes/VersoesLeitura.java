@@ -0,0 +1,307 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Comunidade;
+import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorComunidades;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioUsuarios;
+import br.ufal.ic.p2.jackut.Persistencia.RegistroAlteracoes;
+import br.ufal.ic.p2.jackut.Users;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Publicação das versões de leitura ({@link VersaoLeitura}) a partir do estado vivo.
+ * <p>
+ * Os pontos de mutação já marcam os usuários e as comunidades que alteram
+ * ({@link RegistroAlteracoes}); cada marcação também é
+ * anotada aqui, na lista de pendências da thread que a fez. Antes de liberar as suas travas
+ * ({@link TravasUsuarios#setAoLiberar(Runnable)}), a operação copia os registros que marcou e
+ * publica uma nova versão com todos eles de uma só vez, por comparação e troca da versão
+ * atual. Os leitores nunca esperam e nunca veem uma operação pela metade: uma amizade aparece
+ * nos dois usuários na mesma versão.
+ * </p>
+ * <p>
+ * Cada versão guarda o retrato das lápides do expurgo ({@link ExpurgoUsuarios}) da sua
+ * publicação. A lápide de um login expurgado é retirada pela publicação seguinte à conclusão
+ * do expurgo ({@link #desmarcarAoPublicar(String)}), que já não tem as suas referências: quem
+ * ainda lê uma versão anterior continua a vê-lo com lápide.
+ * </p>
+ * <p>
+ * Operações concorrentes sobre usuários diferentes publicam em paralelo; quando a troca falha,
+ * a operação reaplica os mesmos registros sobre a versão que venceu. Os registros copiados são
+ * protegidos pelas travas da própria operação, de forma que a cópia é sempre coerente.
+ * </p>
+ * <p>
+ * Quando os membros de uma comunidade mudam, os usuários que entraram ou saíram (e, na criação
+ * e na remoção, o dono e todos os membros) também são republicados, pois as suas listas de
+ * comunidades mudaram. Essa comparação custa O(membros), como a própria cópia da lista.
+ * </p>
+ */
+public class VersoesLeitura {
+
+    /** Estado vivo de onde os registros são copiados. */
+    public interface Fonte {
+        /**
+         * @param login Login do usuário
+         * @return Usuário, ou null se não existir
+         */
+        Users usuario(String login);
+
+        /**
+         * @param nome Nome da comunidade
+         * @return Comunidade, ou null se não existir
+         */
+        Comunidade comunidade(String nome);
+
+        /**
+         * @param login Login do usuário
+         * @return Comunidades criadas e depois as integradas pelo usuário
+         */
+        List<String> comunidadesDoUsuario(String login);
+
+        /**
+         * @return Logins de todos os usuários
+         */
+        Collection<String> logins();
+
+        /**
+         * @return Nomes de todas as comunidades
+         */
+        Collection<String> comunidades();
+    }
+
+    private final Fonte fonte;
+    private final LapidesUsuarios lapides;
+    private final AtomicReference<VersaoLeitura> atual;
+    private final ThreadLocal<Pendencias> pendencias = ThreadLocal.withInitial(Pendencias::new);
+
+    /**
+     * @param fonte Estado vivo de onde os registros são copiados
+     * @param lapides Lápides da instância, consultadas pelas leituras das versões
+     */
+    public VersoesLeitura(Fonte fonte, LapidesUsuarios lapides) {
+        this.fonte = fonte;
+        this.lapides = lapides;
+        this.atual = new AtomicReference<>(new VersaoLeitura(0, MapaPersistente.vazio(), MapaPersistente.vazio(),
+                lapides.retrato()));
+    }
+
+    /**
+     * Cria as versões de leitura de um sistema e as liga às marcações de alteração e às
+     * liberações de travas. Só são usadas com os usuários no heap: nos demais armazenamentos
+     * as consultas leem o estado vivo com as travas, pois copiar todos os usuários para a
+     * versão inicial os traria todos para o heap.
+     *
+     * @param usuarios Repositório de usuários do sistema
+     * @param comunidades Fornece o gerenciador de comunidades atual do sistema
+     * @param expurgo Expurgo do sistema, cujas lápides são consultadas pelas versões
+     * @param alteracoes Marcações de alteração do sistema
+     * @param travas Travas do sistema
+     * @return Versões ligadas, ou null se o repositório não permite alterações concorrentes
+     */
+    public static VersoesLeitura ligar(IRepositorioUsuarios usuarios, Supplier<IGerenciadorComunidades> comunidades,
+                                       ExpurgoUsuarios expurgo, RegistroAlteracoes alteracoes, TravasUsuarios travas) {
+        VersoesLeitura versoes = usuarios.permiteAlteracoesConcorrentes()
+                ? new VersoesLeitura(new FonteRepositorios(usuarios, comunidades), expurgo.getLapides()) : null;
+        alteracoes.setVersoes(versoes);
+        expurgo.setVersoes(versoes);
+        travas.setAoLiberar(versoes == null ? null : versoes::publicar);
+        return versoes;
+    }
+
+    /**
+     * @return Última versão publicada
+     */
+    public VersaoLeitura atual() {
+        return atual.get();
+    }
+
+    /**
+     * Anota que a thread atual alterou ou removeu um usuário.
+     *
+     * @param login Login do usuário
+     */
+    public void marcarUsuario(String login) {
+        pendencias.get().usuarios.add(login);
+    }
+
+    /**
+     * Anota que a thread atual alterou ou removeu uma comunidade.
+     *
+     * @param nome Nome da comunidade
+     */
+    public void marcarComunidade(String nome) {
+        pendencias.get().comunidades.add(nome);
+    }
+
+    /**
+     * Anota que a thread atual concluiu o expurgo de um login: a sua lápide é retirada na
+     * próxima publicação desta thread, cuja versão é a primeira sem ela.
+     *
+     * @param login Login expurgado
+     */
+    public void desmarcarAoPublicar(String login) {
+        pendencias.get().lapides.add(login);
+    }
+
+    /**
+     * Publica uma nova versão com os registros anotados pela thread atual, sem as lápides
+     * anotadas. Deve ser chamado
+     * com as travas da operação que os alterou ainda adquiridas.
+     */
+    public void publicar() {
+        Pendencias pendentes = pendencias.get();
+        if (pendentes.vazia()) {
+            return;
+        }
+        VersaoLeitura base = atual.get();
+        Map<String, VersaoLeitura.Membros> membros = new HashMap<>();
+        for (String nome : pendentes.comunidades) {
+            Comunidade comunidade = fonte.comunidade(nome);
+            VersaoLeitura.Membros anterior = base.membrosPublicados(nome);
+            if (comunidade == null) {
+                if (anterior != null) {
+                    membros.put(nome, null);
+                    pendentes.usuarios.add(anterior.dono);
+                    pendentes.usuarios.addAll(anterior.todos());
+                }
+            } else if (anterior == null || !anterior.atual(comunidade)) {
+                VersaoLeitura.Membros novos = new VersaoLeitura.Membros(comunidade);
+                if (anterior == null) {
+                    pendentes.usuarios.add(comunidade.getDono());
+                    pendentes.usuarios.addAll(novos.todos());
+                } else {
+                    // Quem entrou ou saiu tem uma nova lista de comunidades
+                    Set<String> antes = new HashSet<>(anterior.todos());
+                    Set<String> depois = new HashSet<>(novos.todos());
+                    for (String login : novos.todos()) {
+                        if (!antes.contains(login)) {
+                            pendentes.usuarios.add(login);
+                        }
+                    }
+                    for (String login : anterior.todos()) {
+                        if (!depois.contains(login)) {
+                            pendentes.usuarios.add(login);
+                        }
+                    }
+                }
+                membros.put(nome, novos);
+            }
+        }
+        Map<String, VersaoLeitura.Perfil> perfis = new HashMap<>();
+        for (String login : pendentes.usuarios) {
+            Users usuario = fonte.usuario(login);
+            perfis.put(login, usuario == null ? null
+                    : new VersaoLeitura.Perfil(usuario, base.perfilPublicado(login), fonte.comunidadesDoUsuario(login)));
+        }
+        // As lápides dos expurgados saem do retrato da nova versão; as versões anteriores
+        // mantêm as suas e continuam a esconder os logins das referências ainda não expurgadas
+        for (String login : pendentes.lapides) {
+            lapides.desmarcar(login);
+        }
+        pendentes.limpar();
+        LapidesUsuarios retrato = lapides.retrato();
+        VersaoLeitura anterior;
+        do {
+            anterior = atual.get();
+        } while (!atual.compareAndSet(anterior, anterior.com(perfis, membros, retrato)));
+    }
+
+    /**
+     * Publica uma versão copiada do estado inteiro, depois de ele ser carregado de um snapshot
+     * sem passar pelas operações. Deve ser chamado com a trava exclusiva do sistema adquirida.
+     */
+    public void reconstruir() {
+        for (String login : pendencias.get().lapides) {
+            lapides.desmarcar(login);
+        }
+        pendencias.get().limpar();
+        Map<String, VersaoLeitura.Perfil> perfis = new HashMap<>();
+        for (String login : fonte.logins()) {
+            Users usuario = fonte.usuario(login);
+            if (usuario != null) {
+                perfis.put(login, new VersaoLeitura.Perfil(usuario, null, fonte.comunidadesDoUsuario(login)));
+            }
+        }
+        Map<String, VersaoLeitura.Membros> membros = new HashMap<>();
+        for (String nome : fonte.comunidades()) {
+            Comunidade comunidade = fonte.comunidade(nome);
+            if (comunidade != null) {
+                membros.put(nome, new VersaoLeitura.Membros(comunidade));
+            }
+        }
+        LapidesUsuarios retrato = lapides.retrato();
+        atual.set(atual.get().esvaziar(retrato).com(perfis, membros, retrato));
+    }
+
+    /**
+     * Volta à versão vazia, quando o estado do sistema é apagado. Deve ser chamado com a
+     * trava exclusiva do sistema adquirida.
+     */
+    public void limpar() {
+        pendencias.get().limpar();
+        atual.set(atual.get().esvaziar(lapides.retrato()));
+    }
+
+    /** Estado vivo de um sistema: o seu repositório de usuários e o seu gerenciador de comunidades. */
+    private static final class FonteRepositorios implements Fonte {
+        private final IRepositorioUsuarios usuarios;
+        /** O gerenciador é substituído quando o sistema é zerado */
+        private final Supplier<IGerenciadorComunidades> comunidades;
+
+        FonteRepositorios(IRepositorioUsuarios usuarios, Supplier<IGerenciadorComunidades> comunidades) {
+            this.usuarios = usuarios;
+            this.comunidades = comunidades;
+        }
+
+        @Override
+        public Users usuario(String login) {
+            return usuarios.buscar(login);
+        }
+
+        @Override
+        public Comunidade comunidade(String nome) {
+            return comunidades.get().getRegistroComunidade(nome);
+        }
+
+        @Override
+        public List<String> comunidadesDoUsuario(String login) {
+            return comunidades.get().getComunidadesDoUsuario(login);
+        }
+
+        @Override
+        public Collection<String> logins() {
+            return usuarios.getLogins();
+        }
+
+        @Override
+        public Collection<String> comunidades() {
+            return comunidades.get().getComunidades();
+        }
+    }
+
+    /** Registros alterados por uma thread e ainda não publicados. */
+    private static final class Pendencias {
+        final Set<String> usuarios = new LinkedHashSet<>();
+        final Set<String> comunidades = new LinkedHashSet<>();
+        /** Logins expurgados cuja lápide é retirada após a publicação */
+        final Set<String> lapides = new LinkedHashSet<>();
+
+        boolean vazia() {
+            return usuarios.isEmpty() && comunidades.isEmpty() && lapides.isEmpty();
+        }
+
+        void limpar() {
+            usuarios.clear();
+            comunidades.clear();
+            lapides.clear();
+        }
+    }
+}
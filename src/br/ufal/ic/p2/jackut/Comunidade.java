@@ -1,149 +1,218 @@
 /**
  * Classe que representa uma Comunidade no sistema Jackut.
- * Gerencia membros, mensagens e atributos bsicos da comunidade.
+ * Gerencia membros, mensagens e atributos básicos da comunidade.
  */
 package br.ufal.ic.p2.jackut;
 
+import br.ufal.ic.p2.jackut.Componentes.BitmapIds;
+import br.ufal.ic.p2.jackut.Componentes.DicionarioUsuarios;
+import br.ufal.ic.p2.jackut.Componentes.LapidesUsuarios;
+import br.ufal.ic.p2.jackut.Componentes.LogMensagens;
+import br.ufal.ic.p2.jackut.Componentes.MembrosIds;
 import br.ufal.ic.p2.jackut.Exceptions.*;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * Classe que representa uma Comunidade no sistema Jackut, responsvel por:
+ * Classe que representa uma Comunidade no sistema Jackut, responsável por:
  * <ul>
- *   <li>Gerenciar membros e permisses</li>
- *   <li>Armazenar e distribuir mensagens comunitrias</li>
- *   <li>Manter metadados bsicos (nome, descrio, dono)</li>
- *   <li>Controlar o ciclo de vida das interaes comunitrias</li>
+ *   <li>Gerenciar membros e permissões</li>
+ *   <li>Armazenar e distribuir mensagens comunitárias</li>
+ *   <li>Manter metadados básicos (nome, descrição, dono)</li>
+ *   <li>Controlar o ciclo de vida das interações comunitárias</li>
  * </ul>
  *
- * <p>Implementa {@link Serializable} para permitir persistncia do estado.</p>
+ * <p>Os membros são guardados como identificadores do {@link DicionarioUsuarios} em um
+ * bitmap compactado, com a ordem de entrada à parte ({@link MembrosIds}): entrar na
+ * comunidade e verificar participação custam O(1) mesmo com milhões de membros.</p>
+ *
+ * <p>As mensagens são guardadas uma única vez em um registro com um cursor de leitura por
+ * membro ({@link LogMensagens}): enviar uma mensagem custa O(1), independente da quantidade
+ * de membros, e cada membro consome as mensagens a partir do seu cursor.</p>
+ *
+ * <p>Implementa {@link Serializable} para permitir persistência do estado. O formato
+ * serializado continua sendo o antigo, com os membros como lista de logins
+ * ({@link #serialPersistentFields}).</p>
  */
 
 public class Comunidade implements Serializable {
     private static final long serialVersionUID = 3L;
-    private final String nome;
-    private final String descricao;
-    private final String dono;
-    private final List<String> membros;
-    private final List<String> mensagens = new ArrayList<>();
+
+    /** Campos do formato serializado, mantidos para a leitura de arquivos antigos */
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("nome", String.class),
+            new ObjectStreamField("descricao", String.class),
+            new ObjectStreamField("dono", String.class),
+            new ObjectStreamField("membros", List.class),
+            new ObjectStreamField("mensagens", List.class)
+    };
+
+    // Não são final para que readObject possa restaurá-los a partir dos campos serializados
+    private String nome;
+    private String descricao;
+    private String dono;
+    private MembrosIds membros;
+    private LogMensagens mensagens;
+    /** Lápides da instância dona da comunidade, ou null antes de ela ser registrada */
+    private transient LapidesUsuarios lapides;
 
     /**
-     * Constri uma nova comunidade com configuraes iniciais.
+     * Constrói uma nova comunidade com configurações iniciais.
      *
-     * @param nome Nome nico da comunidade (case-sensitive, no nulo)
-     * @param descricao Descrio detalhada (no nula)
-     * @param dono Login do usurio fundador (adicionado automaticamente como membro)
+     * @param nome Nome único da comunidade (case-sensitive, não nulo)
+     * @param descricao Descrição detalhada (não nula)
+     * @param dono Login do usuário fundador (adicionado automaticamente como membro)
      *
      * <p><b>Comportamento inicial:</b></p>
      * <ul>
      *   <li>Cria lista de membros com o dono como primeiro integrante</li>
-     *   <li>Inicializa lista vazia de mensagens</li>
-     *   <li>Validaes devem ser feitas pela classe caller</li>
+     *   <li>Inicializa registro vazio de mensagens</li>
+     *   <li>Validações devem ser feitas pela classe caller</li>
      * </ul>
      */
     public Comunidade(String nome, String descricao, String dono) {
         this.nome = nome;
         this.descricao = descricao;
         this.dono = dono;
-        this.membros = new ArrayList<>();
-        this.membros.add(dono);
+        this.membros = new MembrosIds();
+        this.mensagens = new LogMensagens();
+        int id = DicionarioUsuarios.id(dono);
+        this.membros.adicionar(id);
+        this.mensagens.entrar(id);
     }
 
     /**
-     * Adiciona um novo membro  comunidade aps validaes.
+     * Adiciona um novo membro à comunidade após validações.
      *
-     * @param membro Login do usurio a ser adicionado (case-sensitive)
-     * @throws MembroJaExisteException Se o usurio j for membro
+     * @param membro Login do usuário a ser adicionado (case-sensitive)
+     * @throws MembroJaExisteException Se o usuário já for membro
      *
-     * <p><b>Observao de implementao:</b></p>
+     * <p><b>Observação de implementação:</b></p>
      * <ul>
-     *   <li>No realiza validao de existncia do usurio no sistema</li>
+     *   <li>Não realiza validação de existência do usuário no sistema</li>
+     *   <li>O novo membro recebe apenas as mensagens enviadas depois da sua entrada</li>
      * </ul>
      */
     public void adicionarMembro(String membro) throws MembroJaExisteException {
-        if (membros.contains(membro)) {
+        int id = DicionarioUsuarios.id(membro);
+        if (!membros.adicionar(id)) {
             throw new MembroJaExisteException();
         }
-        membros.add(membro);
+        mensagens.entrar(id);
     }
 
     /**
-     * Armazena nova mensagem na fila da comunidade.
+     * Anexa uma nova mensagem ao registro da comunidade, pendente para todos os membros atuais.
      *
-     * @param mensagem Texto completo da mensagem (no nulo)
+     * @param mensagem Texto completo da mensagem (não nulo)
+     * @return Número de sequência global atribuído à mensagem
+     *
+     * <p><b>Comportamento:</b> Mensagens são mantidas em ordem cronológica e guardadas uma
+     * única vez, qualquer que seja a quantidade de membros</p>
+     */
+    public long adicionarMensagem(String mensagem) {
+        return mensagens.publicar(mensagem);
+    }
+
+    /**
+     * Registra que uma mensagem foi entregue diretamente na caixa de um membro, para que ele
+     * não a leia de novo pelo registro da comunidade.
      *
-     * <p><b>Comportamento:</b> Mensagens so mantidas em ordem cronolgica</p>
+     * @param membro Login do membro (case-sensitive)
+     * @param sequencia Número de sequência da mensagem
+     * @return true se a mensagem era a próxima não lida do membro; caso contrário ela continua
+     *         pendente no registro (ou já foi lida) e não deve ser entregue
      */
-    public void adicionarMensagem(String mensagem) {
-        mensagens.add(mensagem);
+    public boolean marcarEntregue(String membro, long sequencia) {
+        return mensagens.entregar(DicionarioUsuarios.idExistente(membro), sequencia);
     }
 
     /**
-     * Recupera e remove a mensagem mais antiga da comunidade.
+     * Recupera a mensagem mais antiga ainda não lida por um membro, avançando o cursor dele.
      *
+     * @param membro Login do membro (case-sensitive)
      * @return Mensagem no formato original de envio
-     * @throws SemMensagemException Se no houver mensagens disponveis
+     * @throws SemMensagemException Se o membro não tiver mensagens pendentes
      *
      * <p><b>Comportamento:</b></p>
      * <ul>
-     *   <li>Sistema FIFO (First-In-First-Out)</li>
-     *   <li>Mensagem  permanentemente removida aps leitura</li>
+     *   <li>Sistema FIFO (First-In-First-Out) por membro</li>
+     *   <li>A mensagem não é relida pelo mesmo membro; ela é descartada quando todos a leram</li>
      *   <li>Ordem estrita de chegada</li>
      * </ul>
      */
-    public String lerMensagem() throws SemMensagemException {
-        if (mensagens.isEmpty()) {
+    public String lerMensagem(String membro) throws SemMensagemException {
+        String mensagem = mensagens.ler(DicionarioUsuarios.idExistente(membro));
+        if (mensagem == null) {
             throw new SemMensagemException();
         }
-        return mensagens.remove(0);
+        return mensagem;
+    }
+
+    /**
+     * Consulta, sem consumir, a ordem de envio da próxima mensagem pendente de um membro.
+     *
+     * @param membro Login do membro (case-sensitive)
+     * @return Número de sequência global da mensagem, ou -1 se não houver mensagens pendentes
+     */
+    public long getProximaMensagem(String membro) {
+        return mensagens.proximaSequencia(DicionarioUsuarios.idExistente(membro));
     }
 
     /**
-     * Verifica participao de usurio na comunidade.
+     * Verifica participação de usuário na comunidade.
      *
-     * @param membro Login do usurio (case-sensitive)
-     * @return true se for membro ativo, false caso contrrio
+     * @param membro Login do usuário (case-sensitive)
+     * @return true se for membro ativo, false caso contrário
      */
     public boolean isMembro(String membro) {
-        return membros.contains(membro);
+        return membros.contem(DicionarioUsuarios.idExistente(membro));
     }
 
     /**
-     * Remove um membro da comunidade sem realizar validaes adicionais.
+     * Remove um membro da comunidade sem realizar validações adicionais.
      *
-     * <p><b>Comportamento da operao:</b></p>
+     * <p><b>Comportamento da operação:</b></p>
      * <ul>
      *   <li>Remove o login especificado da lista de membros</li>
-     *   <li>No verifica se o membro existe previamente na lista</li>
-     *   <li>No realiza nenhuma ao se o membro no for encontrado</li>
+     *   <li>Não verifica se o membro existe previamente na lista</li>
+     *   <li>Não realiza nenhuma ação se o membro não for encontrado</li>
      * </ul>
      *
-     * <p><b>Consideraes importantes:</b></p>
+     * <p><b>Considerações importantes:</b></p>
      * <ul>
-     *   <li>No verifica permisses do solicitante</li>
-     *   <li>No valida a existncia do usurio no sistema</li>
-     *   <li>No atualiza relaes sociais ou mensagens do membro removido</li>
+     *   <li>Não verifica permissões do solicitante</li>
+     *   <li>Não valida a existência do usuário no sistema</li>
+     *   <li>Não atualiza relações sociais ou recados do membro removido</li>
+     *   <li>Descarta o cursor de leitura do membro</li>
      * </ul>
      *
-     * @param membro Login do usurio a ser removido (case-sensitive)
+     * @param membro Login do usuário a ser removido (case-sensitive)
      *
-     * @see #adicionarMembro(String) Para operao inversa
+     * @see #adicionarMembro(String) Para operação inversa
      */
     public void removerMembro(String membro) {
-        membros.remove(membro);
+        int id = DicionarioUsuarios.idExistente(membro);
+        membros.remover(id);
+        mensagens.sair(id);
     }
 
     // Getters
     /**
-     * @return Nome imutvel da comunidade (case-sensitive)
+     * @return Nome imutável da comunidade (case-sensitive)
      */
     public String getNome() { return nome; }
 
     /**
-     * @return Descrio original da comunidade
+     * @return Descrição original da comunidade
      */
     public String getDescricao() { return descricao; }
 
@@ -154,9 +223,132 @@ public class Comunidade implements Serializable {
 
 
     /**
-     * @return Cpia defensiva da lista de membros (no modificvel externamente)
+     * @return Cópia não modificável da lista de membros, sem os usuários removidos com expurgo
+     *         pendente, que pode ser usada depois de a comunidade ser liberada
+     */
+    public List<String> getMembros() {
+        LapidesUsuarios atuais = lapides != null ? lapides : LapidesUsuarios.NENHUMA;
+        List<String> copia = new ArrayList<>(membros.logins());
+        if (atuais.haRemovidos()) {
+            copia.removeIf(atuais::removido);
+        }
+        return Collections.unmodifiableList(copia);
+    }
+
+    /**
+     * @return Visão não modificável da lista de membros, incluindo os usuários removidos
+     *         cujo expurgo ainda está pendente; percorrida sem cópia e apenas com a comunidade travada
+     */
+    public List<String> listarMembros() { return membros.logins(); }
+
+    /**
+     * @return Quantidade de membros, incluindo os usuários removidos cujo expurgo ainda está pendente
+     */
+    public int getQuantidadeMembros() { return membros.tamanho(); }
+
+    /**
+     * @return Identificadores dos membros, para interseções; não deve ser alterado
+     */
+    public BitmapIds getIdsMembros() { return membros.bitmap(); }
+
+    /**
+     * @return Registro dos membros, para cópias das versões de leitura; não deve ser alterado
      */
-    public List<String> getMembros() { return new ArrayList<>(membros); }
+    public MembrosIds getRegistroMembros() { return membros; }
 
+    /**
+     * Conta os membros em comum com outra comunidade, pela interseção dos bitmaps.
+     *
+     * @param outra Outra comunidade
+     * @return Quantidade de usuários que participam das duas
+     */
+    public int contarMembrosEmComum(Comunidade outra) {
+        return membros.bitmap().tamanhoIntersecao(outra.membros.bitmap());
+    }
+
+    /**
+     * @return Cópia não modificável das mensagens ainda não lidas por algum membro, em ordem
+     *         cronológica
+     */
+    public List<String> getMensagens() { return mensagens.textos(); }
+
+    /**
+     * @return Registro de mensagens com os cursores dos membros, para gravação de snapshots
+     */
+    public LogMensagens getLogMensagens() { return mensagens; }
+
+    /**
+     * Substitui membros e mensagens pelo estado lido de um snapshot, sem validações. As
+     * mensagens ficam pendentes para todos os membros; os cursores podem ser ajustados em
+     * seguida pelo {@link #getLogMensagens() registro}.
+     *
+     * @param membrosSalvos Logins dos membros na ordem original (incluindo o dono)
+     * @param mensagensSalvas Mensagens armazenadas em ordem cronológica
+     */
+    public void restaurar(Collection<String> membrosSalvos, Collection<String> mensagensSalvas) {
+        membros = new MembrosIds();
+        mensagens = new LogMensagens();
+        for (String membro : membrosSalvos) {
+            int id = DicionarioUsuarios.id(membro);
+            membros.adicionar(id);
+            mensagens.entrar(id);
+        }
+        for (String mensagem : mensagensSalvas) {
+            mensagens.publicar(mensagem);
+        }
+    }
+
+    /**
+     * Liga a comunidade às lápides da instância que a registrou, consultadas pela listagem
+     * de membros ({@link #getMembros()}).
+     *
+     * @param lapides Lápides da instância
+     */
+    public void setLapides(LapidesUsuarios lapides) {
+        this.lapides = lapides;
+    }
+
+    /**
+     * Cria uma cópia independente da comunidade, usada para preservar a imagem de um
+     * snapshot em andamento antes de uma alteração.
+     *
+     * @return Nova comunidade com cópias dos membros, das mensagens e dos cursores
+     */
+    public Comunidade copiar() {
+        Comunidade copia = new Comunidade(nome, descricao, dono);
+        copia.membros = membros.copiar();
+        copia.mensagens = mensagens.copiar();
+        copia.lapides = lapides;
+        return copia;
+    }
+
+    /**
+     * Grava a comunidade no formato serializado antigo, com os membros como lista de logins
+     * e as mensagens não lidas como lista de textos (os cursores não fazem parte do formato).
+     */
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        ObjectOutputStream.PutField campos = oos.putFields();
+        campos.put("nome", nome);
+        campos.put("descricao", descricao);
+        campos.put("dono", dono);
+        campos.put("membros", new ArrayList<>(membros.logins()));
+        campos.put("mensagens", new ArrayList<>(mensagens.textos()));
+        oos.writeFields();
+    }
+
+    /**
+     * Lê o formato serializado antigo, convertendo a lista de logins em identificadores.
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField campos = ois.readFields();
+        nome = (String) campos.get("nome", null);
+        descricao = (String) campos.get("descricao", null);
+        dono = (String) campos.get("dono", null);
+        List<String> membrosLidos = (List<String>) campos.get("membros", null);
+        List<String> mensagensLidas = (List<String>) campos.get("mensagens", null);
+        restaurar(membrosLidos != null ? membrosLidos : Collections.emptyList(),
+                mensagensLidas != null ? mensagensLidas : Collections.emptyList());
+    }
 
 }
\ No newline at end of file
@@ -1,34 +1,35 @@
 /**
- * Pacote que contm todas as excees personalizadas do sistema Jackut.
- * As excees deste pacote so usadas para tratar situaes especficas
- * da lgica de negcio da aplicao.
+ * Pacote que contém todas as exceções personalizadas do sistema Jackut.
+ * As exceções deste pacote são usadas para tratar situações específicas
+ * da lógica de negócio da aplicação.
  */
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando um usurio tenta adicionar a si mesmo como amigo.
+ * Exceção lançada quando um usuário tenta adicionar a si mesmo como amigo.
  *
- * <p>Esta exceo representa uma violao das regras de negcio do sistema,
- * onde um usurio no pode estabelecer relao de amizade consigo mesmo.</p>
+ * <p>Esta exceção representa uma violação das regras de negócio do sistema,
+ * onde um usuário não pode estabelecer relação de amizade consigo mesmo.</p>
  *
- * <p>Situaes que geram esta exceo:</p>
+ * <p>Situações que geram esta exceção:</p>
  * <ul>
- *   <li>Tentativa de auto-amizade no mtodo {@code adicionarAmigo}</li>
- *   <li>Operaes que verificam relacionamentos entre usurios</li>
+ *   <li>Tentativa de auto-amizade no método {@code adicionarAmigo}</li>
+ *   <li>Operações que verificam relacionamentos entre usuários</li>
  * </ul>
  *
- * @author Vitria Lemos
+ * @author Vitória Lemos
  * @see br.ufal.ic.p2.jackut.Jackut#adicionarAmigo
  */
 public class AmigoDeSiException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri uma nova exceo com a mensagem padro.
-     * A mensagem padro : "Usurio no pode adicionar a si mesmo como amigo."
+     * Constrói uma nova exceção com a mensagem padrão.
+     * A mensagem padrão é: "Usuário não pode adicionar a si mesmo como amigo."
      */
     public AmigoDeSiException() {
-        super("Usurio no pode adicionar a si mesmo como amigo.");
+        super("Usuário não pode adicionar a si mesmo como amigo.");
     }
 
 
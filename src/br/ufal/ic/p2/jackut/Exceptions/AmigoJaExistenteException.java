@@ -1,34 +1,35 @@
 /**
- * Pacote que contm todas as excees personalizadas do sistema Jackut.
- * As excees deste pacote representam situaes excepcionais especficas
- * da lgica de negcio da aplicao de rede social.
+ * Pacote que contém todas as exceções personalizadas do sistema Jackut.
+ * As exceções deste pacote representam situações excepcionais específicas
+ * da lógica de negócio da aplicação de rede social.
  */
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando uma operao tenta criar uma amizade que j existe.
+ * Exceção lançada quando uma operação tenta criar uma amizade que já existe.
  *
- * <p>Esta exceo indica uma violao da regra de negcio que impede a criao
- * de amizades duplicadas entre os mesmos usurios.</p>
+ * <p>Esta exceção indica uma violação da regra de negócio que impede a criação
+ * de amizades duplicadas entre os mesmos usuários.</p>
  *
- * <p>Situaes tpicas que geram esta exceo:</p>
+ * <p>Situações típicas que geram esta exceção:</p>
  * <ul>
- *   <li>Tentativa de adicionar um usurio que j  amigo</li>
- *   <li>Operaes que verificam relacionamentos existentes</li>
+ *   <li>Tentativa de adicionar um usuário que já é amigo</li>
+ *   <li>Operações que verificam relacionamentos existentes</li>
  * </ul>
  *
- * @author Vitria Lemos
+ * @author Vitória Lemos
  * @see br.ufal.ic.p2.jackut.Jackut#adicionarAmigo
  * @see br.ufal.ic.p2.jackut.Users#ehAmigo
  */
 public class AmigoJaExistenteException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri uma nova exceo com a mensagem padro.
-     * A mensagem padro : "Usurio j est adicionado como amigo."
+     * Constrói uma nova exceção com a mensagem padrão.
+     * A mensagem padrão é: "Usuário já está adicionado como amigo."
      */
     public AmigoJaExistenteException() {
-        super("Usurio j est adicionado como amigo.");
+        super("Usuário já está adicionado como amigo.");
     }
 }
\ No newline at end of file
@@ -1,35 +1,36 @@
 /**
- * Pacote contendo todas as excees personalizadas do sistema Jackut.
- * Estas excees representam situaes especficas da lgica de negcio
+ * Pacote contendo todas as exceções personalizadas do sistema Jackut.
+ * Estas exceções representam situações específicas da lógica de negócio
  * da rede social Jackut.
  */
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando uma solicitao de amizade j est pendente de aceitao.
+ * Exceção lançada quando uma solicitação de amizade já está pendente de aceitação.
  *
- * <p>Indica que um usurio j enviou uma solicitao de amizade que ainda no foi
- * respondida pelo destinatrio.</p>
+ * <p>Indica que um usuário já enviou uma solicitação de amizade que ainda não foi
+ * respondida pelo destinatário.</p>
  *
- * <p>Situaes que geram esta exceo:</p>
+ * <p>Situações que geram esta exceção:</p>
  * <ul>
- *   <li>Tentativa de enviar nova solicitao para um usurio que j possui uma solicitao pendente</li>
- *   <li>Operaes que verificam o estado de solicitaes de amizade</li>
+ *   <li>Tentativa de enviar nova solicitação para um usuário que já possui uma solicitação pendente</li>
+ *   <li>Operações que verificam o estado de solicitações de amizade</li>
  * </ul>
  *
- * @author Vitria Lemos
+ * @author Vitória Lemos
  * @see br.ufal.ic.p2.jackut.Jackut#adicionarAmigo
  * @see br.ufal.ic.p2.jackut.Users#temSolicitacaoPendente
  */
 public class AmigoPendenteException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri uma nova exceo com a mensagem padro.
-     * A mensagem padro : "Usurio j est adicionado como amigo, esperando aceitao do convite."
+     * Constrói uma nova exceção com a mensagem padrão.
+     * A mensagem padrão é: "Usuário já está adicionado como amigo, esperando aceitação do convite."
      */
     public AmigoPendenteException() {
-        super("Usurio j est adicionado como amigo, esperando aceitao do convite.");
+        super("Usuário já está adicionado como amigo, esperando aceitação do convite.");
     }
 
 
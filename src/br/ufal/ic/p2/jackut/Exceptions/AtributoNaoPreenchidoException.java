@@ -1,33 +1,34 @@
 /**
- * Pacote que contm as excees especficas do sistema Jackut.
- * Estas excees representam violaes das regras de negcio da aplicao.
+ * Pacote que contém as exceções específicas do sistema Jackut.
+ * Estas exceções representam violações das regras de negócio da aplicação.
  */
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando uma operao tenta acessar um atributo de perfil
- * que no existe ou no foi preenchido.
+ * Exceção lançada quando uma operação tenta acessar um atributo de perfil
+ * que não existe ou não foi preenchido.
  *
- * <p>Esta exceo ocorre em situaes onde:</p>
+ * <p>Esta exceção ocorre em situações onde:</p>
  * <ul>
- *   <li>Um atributo obrigatrio no foi definido</li>
+ *   <li>Um atributo obrigatório não foi definido</li>
  *   <li>Tentativa de acesso a um atributo inexistente</li>
- *   <li>Operaes com atributos vazios ou nulos</li>
+ *   <li>Operações com atributos vazios ou nulos</li>
  * </ul>
  *
- * @author Vitria Lemos
+ * @author Vitória Lemos
  * @see br.ufal.ic.p2.jackut.Jackut#getAtributoUsuario
  * @see br.ufal.ic.p2.jackut.Jackut#editarPerfil
  * @see br.ufal.ic.p2.jackut.Users#getAtributo
  */
 public class AtributoNaoPreenchidoException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com mensagem padro "Atributo no preenchido.".
-     * Usado quando um atributo requerido no est disponvel.
+     * Constrói a exceção com mensagem padrão "Atributo não preenchido.".
+     * Usado quando um atributo requerido não está disponível.
      */
     public AtributoNaoPreenchidoException() {
-        super("Atributo no preenchido.");
+        super("Atributo não preenchido.");
     }
 }
\ No newline at end of file
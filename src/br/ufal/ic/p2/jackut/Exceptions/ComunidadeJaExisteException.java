@@ -3,35 +3,36 @@ package br.ufal.ic.p2.jackut.Exceptions;
 import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorComunidades;
 
 /**
- * Exceo lanada quando uma operao tenta criar uma comunidade com nome duplicado.
+ * Exceção lançada quando uma operação tenta criar uma comunidade com nome duplicado.
  * <p>
- * Ocorre especificamente em operaes de criao de comunidades onde o nome fornecido j est registrado no sistema.
+ * Ocorre especificamente em operações de criação de comunidades onde o nome fornecido já está registrado no sistema.
  *
  * <p><b>Causas comuns:</b>
  * <ul>
  *   <li>Tentativa de recriar uma comunidade existente</li>
- *   <li>Falha na verificao de unicidade antes da criao</li>
- *   <li>Coliso acidental de nomes entre usurios</li>
+ *   <li>Falha na verificação de unicidade antes da criação</li>
+ *   <li>Colisão acidental de nomes entre usuários</li>
  * </ul>
  *
- * <p><b>Soluo recomendada:</b>
+ * <p><b>Solução recomendada:</b>
  * <ul>
- *   <li>Verificar a existncia da comunidade com {@code existeComunidade()} antes da criao</li>
- *   <li>Utilizar nomes nicos contendo identificadores extras (ex: turma, regio)</li>
- *   <li>Informar ao usurio para escolher um nome diferente</li>
+ *   <li>Verificar a existência da comunidade com {@code existeComunidade()} antes da criação</li>
+ *   <li>Utilizar nomes únicos contendo identificadores extras (ex: turma, região)</li>
+ *   <li>Informar ao usuário para escolher um nome diferente</li>
  * </ul>
  *
  * @see IGerenciadorComunidades#criarComunidade(String, String, String)
  */
 public class ComunidadeJaExisteException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com mensagem padro contendo informaes sobre o erro de duplicidade.
+     * Constrói a exceção com mensagem padrão contendo informações sobre o erro de duplicidade.
      * <p>
-     * Mensagem fixa: "Comunidade com esse nome j existe."
+     * Mensagem fixa: "Comunidade com esse nome já existe."
      */
     public ComunidadeJaExisteException() {
-        super("Comunidade com esse nome j existe.");
+        super("Comunidade com esse nome já existe.");
     }
 }
\ No newline at end of file
@@ -3,33 +3,34 @@ package br.ufal.ic.p2.jackut.Exceptions;
 import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorComunidades;
 
 /**
- * Exceo lanada quando uma operao tenta acessar uma comunidade que ainda no foi criada.
+ * Exceção lançada quando uma operação tenta acessar uma comunidade que ainda não foi criada.
  * <p>
- * Ocorre em operaes que requerem uma comunidade previamente criada para funcionar corretamente.
+ * Ocorre em operações que requerem uma comunidade previamente criada para funcionar corretamente.
  *
- * <p><b>Cenrios comuns:</b>
+ * <p><b>Cenários comuns:</b>
  * <ul>
- *   <li>Tentativa de acessar propriedades de uma comunidade no inicializada</li>
- *   <li>Operaes em comunidades que falharam na criao</li>
- *   <li>Referncia a comunidades deletadas ou no persistidas</li>
+ *   <li>Tentativa de acessar propriedades de uma comunidade não inicializada</li>
+ *   <li>Operações em comunidades que falharam na criação</li>
+ *   <li>Referência a comunidades deletadas ou não persistidas</li>
  * </ul>
  *
- * <p><b>Aes recomendadas:</b>
+ * <p><b>Ações recomendadas:</b>
  * <ul>
- *   <li>Verificar o fluxo de criao da comunidade</li>
- *   <li>Garantir que a comunidade foi criada com sucesso antes de us-la</li>
- *   <li>Utilizar {@code existeComunidade()} para validao prvia</li>
+ *   <li>Verificar o fluxo de criação da comunidade</li>
+ *   <li>Garantir que a comunidade foi criada com sucesso antes de usá-la</li>
+ *   <li>Utilizar {@code existeComunidade()} para validação prévia</li>
  * </ul>
  *
  * @see IGerenciadorComunidades#criarComunidade(String, String, String)
  */
 public class ComunidadeNaoCriadaException extends Exception {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com mensagem padro indicando o estado incompleto da comunidade.
+     * Constrói a exceção com mensagem padrão indicando o estado incompleto da comunidade.
      * <p>
-     * Mensagem fixa: "Comunidade ainda no criada"
+     * Mensagem fixa: "Comunidade ainda não criada"
      */
     public ComunidadeNaoCriadaException() {
-        super("Comunidade ainda no criada");}
+        super("Comunidade ainda não criada");}
 }
\ No newline at end of file
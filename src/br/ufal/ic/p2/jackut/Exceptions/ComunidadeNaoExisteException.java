@@ -3,22 +3,22 @@ package br.ufal.ic.p2.jackut.Exceptions;
 import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorComunidades;
 
 /**
- * Exceo lanada quando uma operao tenta acessar uma comunidade inexistente no sistema.
+ * Exceção lançada quando uma operação tenta acessar uma comunidade inexistente no sistema.
  * <p>
- * Ocorre em operaes que requerem uma comunidade previamente registrada para funcionar corretamente.
+ * Ocorre em operações que requerem uma comunidade previamente registrada para funcionar corretamente.
  *
- * <p><b>Cenrios comuns:</b>
+ * <p><b>Cenários comuns:</b>
  * <ul>
- *   <li>Tentativa de acesso com nome de comunidade invlido/no cadastrado</li>
- *   <li>Referncia a comunidades removidas ou no persistidas</li>
- *   <li>Erros de digitao no nome da comunidade</li>
+ *   <li>Tentativa de acesso com nome de comunidade inválido/não cadastrado</li>
+ *   <li>Referência a comunidades removidas ou não persistidas</li>
+ *   <li>Erros de digitação no nome da comunidade</li>
  * </ul>
  *
- * <p><b>Aes recomendadas:</b>
+ * <p><b>Ações recomendadas:</b>
  * <ul>
- *   <li>Verificar a existncia da comunidade com {@code existeComunidade()} antes da operao</li>
+ *   <li>Verificar a existência da comunidade com {@code existeComunidade()} antes da operação</li>
  *   <li>Validar a grafia do nome da comunidade</li>
- *   <li>Listar comunidades disponveis com {@code getComunidades()}</li>
+ *   <li>Listar comunidades disponíveis com {@code getComunidades()}</li>
  * </ul>
  *
  * @see IGerenciadorComunidades#getMembros(String)
@@ -26,13 +26,14 @@ import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorComunidades;
  */
 public class ComunidadeNaoExisteException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com mensagem padro indicando a ausncia da comunidade.
+     * Constrói a exceção com mensagem padrão indicando a ausência da comunidade.
      * <p>
-     * Mensagem fixa: "Comunidade no existe."
+     * Mensagem fixa: "Comunidade não existe."
      */
     public ComunidadeNaoExisteException() {
-        super("Comunidade no existe.");
+        super("Comunidade não existe.");
     }
 }
\ No newline at end of file
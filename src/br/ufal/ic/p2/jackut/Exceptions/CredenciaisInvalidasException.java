@@ -1,34 +1,35 @@
 /**
- * Pacote contendo todas as excees personalizadas do sistema Jackut.
- * Estas excees representam situaes excepcionais especficas da lgica
- * de negcio da aplicao de rede social.
+ * Pacote contendo todas as exceções personalizadas do sistema Jackut.
+ * Estas exceções representam situações excepcionais específicas da lógica
+ * de negócio da aplicação de rede social.
  */
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando as credenciais de autenticao so invlidas.
+ * Exceção lançada quando as credenciais de autenticação são inválidas.
  *
- * <p>Esta exceo indica falha no processo de autenticao quando:</p>
+ * <p>Esta exceção indica falha no processo de autenticação quando:</p>
  * <ul>
- *   <li>O login no existe no sistema</li>
- *   <li>A senha no corresponde ao usurio</li>
- *   <li>As credenciais esto em formato invlido</li>
+ *   <li>O login não existe no sistema</li>
+ *   <li>A senha não corresponde ao usuário</li>
+ *   <li>As credenciais estão em formato inválido</li>
  * </ul>
  *
- * <p>Recomenda-se capturar esta exceo para fornecer feedback adequado
- * ao usurio sobre falhas de autenticao.</p>
+ * <p>Recomenda-se capturar esta exceção para fornecer feedback adequado
+ * ao usuário sobre falhas de autenticação.</p>
  *
- * @author Vitria Lemos
+ * @author Vitória Lemos
  * @see br.ufal.ic.p2.jackut.Jackut#abrirSessao
  */
 public class CredenciaisInvalidasException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com a mensagem padro "Login ou senha invlidos.".
-     * Usado quando a autenticao falha por credenciais incorretas.
+     * Constrói a exceção com a mensagem padrão "Login ou senha inválidos.".
+     * Usado quando a autenticação falha por credenciais incorretas.
      */
     public CredenciaisInvalidasException() {
-        super("Login ou senha invlidos.");
+        super("Login ou senha inválidos.");
     }
 }
\ No newline at end of file
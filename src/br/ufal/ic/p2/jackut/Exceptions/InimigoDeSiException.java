@@ -3,35 +3,36 @@ package br.ufal.ic.p2.jackut.Exceptions;
 import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorAmizades;
 
 /**
- * Exceo lanada quando um usurio tenta se adicionar como prprio inimigo.
+ * Exceção lançada quando um usuário tenta se adicionar como próprio inimigo.
  * <p>
- * Representa uma violao das regras de relacionamento social do sistema que impedem
+ * Representa uma violação das regras de relacionamento social do sistema que impedem
  * auto-inimizade.
  *
- * <p><b>Cenrios comuns:</b>
+ * <p><b>Cenários comuns:</b>
  * <ul>
- *   <li>Tentativa de adicionar o prprio login na lista de inimigos</li>
- *   <li>Erro lgico na seleo do usurio alvo</li>
- *   <li>Falha na validao de entrada de dados</li>
+ *   <li>Tentativa de adicionar o próprio login na lista de inimigos</li>
+ *   <li>Erro lógico na seleção do usuário alvo</li>
+ *   <li>Falha na validação de entrada de dados</li>
  * </ul>
  *
- * <p><b>Aes recomendadas:</b>
+ * <p><b>Ações recomendadas:</b>
  * <ul>
- *   <li>Verificar a lgica de seleo de usurio alvo</li>
- *   <li>Implementar validao de identidade antes da operao</li>
- *   <li>Exibir mensagem clara de erro ao usurio final</li>
+ *   <li>Verificar a lógica de seleção de usuário alvo</li>
+ *   <li>Implementar validação de identidade antes da operação</li>
+ *   <li>Exibir mensagem clara de erro ao usuário final</li>
  * </ul>
  *
  */
 public class InimigoDeSiException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com mensagem padro que descreve a restrio de auto-inimizade.
+     * Constrói a exceção com mensagem padrão que descreve a restrição de auto-inimizade.
      * <p>
-     * Mensagem fixa: "Usurio no pode ser inimigo de si mesmo."
+     * Mensagem fixa: "Usuário não pode ser inimigo de si mesmo."
      */
     public InimigoDeSiException() {
-        super("Usurio no pode ser inimigo de si mesmo.");
+        super("Usuário não pode ser inimigo de si mesmo.");
     }
 }
\ No newline at end of file
@@ -3,13 +3,13 @@ package br.ufal.ic.p2.jackut.Exceptions;
 import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorAmizades;
 
 /**
- * Exceo lanada quando uma operao  bloqueada devido a uma relao de inimizade entre usurios.
+ * Exceção lançada quando uma operação é bloqueada devido a uma relação de inimizade entre usuários.
  * <p>
- * Serve como base para restries sociais no sistema, sendo utilizada em operaes como:
+ * Serve como base para restrições sociais no sistema, sendo utilizada em operações como:
  * <ul>
  *   <li>Envio de mensagens entre inimigos</li>
- *   <li>Criao de relaes sociais conflitantes</li>
- *   <li>Acesso a funcionalidades restritas entre usurios hostis</li>
+ *   <li>Criação de relações sociais conflitantes</li>
+ *   <li>Acesso a funcionalidades restritas entre usuários hostis</li>
  * </ul>
  *
  *
@@ -18,14 +18,15 @@ import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorAmizades;
  */
 public class InimigoException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com mensagem personalizada para o contexto especfico.
+     * Constrói a exceção com mensagem personalizada para o contexto específico.
      *
-     * @param message Detalhes sobre a restrio de inimizade que causou o erro
+     * @param message Detalhes sobre a restrição de inimizade que causou o erro
      *
      *
-     * "Operao bloqueada: Joo  seu inimigo e no pode receber mensagens"
+     * "Operação bloqueada: João é seu inimigo e não pode receber mensagens"
      */
     public InimigoException(String message) {
         super(message);
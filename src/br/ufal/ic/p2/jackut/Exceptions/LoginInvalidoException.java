@@ -1,38 +1,39 @@
 /**
- * Pacote contendo todas as excees personalizadas do sistema Jackut.
- * Estas excees representam violaes das regras de negcio da aplicao.
+ * Pacote contendo todas as exceções personalizadas do sistema Jackut.
+ * Estas exceções representam violações das regras de negócio da aplicação.
  */
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando um login no atende aos requisitos do sistema.
+ * Exceção lançada quando um login não atende aos requisitos do sistema.
  *
- * <p>Esta exceo indica problemas na validao de logins durante:</p>
+ * <p>Esta exceção indica problemas na validação de logins durante:</p>
  * <ul>
- *   <li>Criao de novos usurios</li>
- *   <li>Modificao de credenciais</li>
- *   <li>Operaes de autenticao</li>
+ *   <li>Criação de novos usuários</li>
+ *   <li>Modificação de credenciais</li>
+ *   <li>Operações de autenticação</li>
  * </ul>
  *
- * <p>Motivos comuns para esta exceo:</p>
+ * <p>Motivos comuns para esta exceção:</p>
  * <ul>
  *   <li>Login nulo ou vazio</li>
- *   <li>Login com formato invlido (caracteres especiais, espaos, etc.)</li>
+ *   <li>Login com formato inválido (caracteres especiais, espaços, etc.)</li>
  *   <li>Login muito curto ou muito longo</li>
  * </ul>
  *
- * @author Vitria Lemos
+ * @author Vitória Lemos
  * @see br.ufal.ic.p2.jackut.Jackut#criarUsuario
  */
 public class LoginInvalidoException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com a mensagem padro "Login invlido.".
-     * Usado quando o login fornecido no atende aos requisitos bsicos.
+     * Constrói a exceção com a mensagem padrão "Login inválido.".
+     * Usado quando o login fornecido não atende aos requisitos básicos.
      */
     public LoginInvalidoException() {
-        super("Login invlido.");
+        super("Login inválido.");
     }
 
     public static class ComunidadeJaExiste {
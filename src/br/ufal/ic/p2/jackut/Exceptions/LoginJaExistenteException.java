@@ -1,34 +1,35 @@
 /**
- * Pacote contendo todas as excees personalizadas do sistema Jackut.
- * Estas excees representam situaes excepcionais especficas da
- * lgica de negcio da aplicao de rede social.
+ * Pacote contendo todas as exceções personalizadas do sistema Jackut.
+ * Estas exceções representam situações excepcionais específicas da
+ * lógica de negócio da aplicação de rede social.
  */
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando uma tentativa de cadastro utiliza um login j existente.
+ * Exceção lançada quando uma tentativa de cadastro utiliza um login já existente.
  *
- * <p>Esta exceo garante a unicidade dos logins no sistema, sendo lanada quando:</p>
+ * <p>Esta exceção garante a unicidade dos logins no sistema, sendo lançada quando:</p>
  * <ul>
- *   <li>Um novo usurio tenta se cadastrar com login j existente</li>
- *   <li>Uma operao de atualizao tenta duplicar um login</li>
+ *   <li>Um novo usuário tenta se cadastrar com login já existente</li>
+ *   <li>Uma operação de atualização tenta duplicar um login</li>
  * </ul>
  *
- * <p>A mensagem padro "Conta com esse nome j existe."  destinada a ser exibida
- * diretamente ao usurio final em interfaces grficas.</p>
+ * <p>A mensagem padrão "Conta com esse nome já existe." é destinada a ser exibida
+ * diretamente ao usuário final em interfaces gráficas.</p>
  *
- * @author Vitria Lemos
+ * @author Vitória Lemos
  * @see br.ufal.ic.p2.jackut.Jackut#criarUsuario
  * @see br.ufal.ic.p2.jackut.Users
  */
 public class LoginJaExistenteException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com a mensagem padro.
-     * A mensagem padro : "Conta com esse nome j existe."
+     * Constrói a exceção com a mensagem padrão.
+     * A mensagem padrão é: "Conta com esse nome já existe."
      */
     public LoginJaExistenteException() {
-        super("Conta com esse nome j existe.");
+        super("Conta com esse nome já existe.");
     }
 }
\ No newline at end of file
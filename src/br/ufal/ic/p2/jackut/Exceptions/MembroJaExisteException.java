@@ -3,35 +3,36 @@ package br.ufal.ic.p2.jackut.Exceptions;
 import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorComunidades;
 
 /**
- * Exceo lanada quando uma operao tenta adicionar um usurio j existente em uma comunidade.
+ * Exceção lançada quando uma operação tenta adicionar um usuário já existente em uma comunidade.
  * <p>
- * Ocorre em operaes de incluso de membros onde o usurio especificado j faz parte da comunidade alvo.
+ * Ocorre em operações de inclusão de membros onde o usuário especificado já faz parte da comunidade alvo.
  *
  * <p><b>Causas comuns:</b>
  * <ul>
- *   <li>Tentativa de adicionar o mesmo usurio mltiplas vezes</li>
- *   <li>Falha na verificao prvia de membros existentes</li>
- *   <li>Sincronizao incorreta entre diferentes componentes do sistema</li>
+ *   <li>Tentativa de adicionar o mesmo usuário múltiplas vezes</li>
+ *   <li>Falha na verificação prévia de membros existentes</li>
+ *   <li>Sincronização incorreta entre diferentes componentes do sistema</li>
  * </ul>
  *
- * <p><b>Solues recomendadas:</b>
+ * <p><b>Soluções recomendadas:</b>
  * <ul>
- *   <li>Verificar a lista de membros com {@code getMembros()} antes da adio</li>
- *   <li>Implementar verificao de duplicidade na lgica de negcio</li>
- *   <li>Garantir atomicidade nas operaes de atualizao de comunidades</li>
+ *   <li>Verificar a lista de membros com {@code getMembros()} antes da adição</li>
+ *   <li>Implementar verificação de duplicidade na lógica de negócio</li>
+ *   <li>Garantir atomicidade nas operações de atualização de comunidades</li>
  * </ul>
  *
  * @see IGerenciadorComunidades#adicionarmembro(String, String)
  */
 public class MembroJaExisteException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com mensagem padro indicando a duplicidade de membro.
+     * Constrói a exceção com mensagem padrão indicando a duplicidade de membro.
      * <p>
-     * Mensagem fixa: "Usuario j faz parte dessa comunidade."
+     * Mensagem fixa: "Usuario já faz parte dessa comunidade."
      */
     public MembroJaExisteException() {
-        super("Usuario j faz parte dessa comunidade.");
+        super("Usuario já faz parte dessa comunidade.");
     }
 }
\ No newline at end of file
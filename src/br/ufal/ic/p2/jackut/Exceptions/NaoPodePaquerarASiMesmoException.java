@@ -3,35 +3,36 @@ package br.ufal.ic.p2.jackut.Exceptions;
 import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorAmizades;
 
 /**
- * Exceo lanada quando um usurio tenta estabelecer relao de paquera consigo mesmo.
+ * Exceção lançada quando um usuário tenta estabelecer relação de paquera consigo mesmo.
  * <p>
- * Representa uma violao das regras de relacionamento social que impedem auto-paquera.
+ * Representa uma violação das regras de relacionamento social que impedem auto-paquera.
  *
- * <p><b>Cenrios comuns:</b>
+ * <p><b>Cenários comuns:</b>
  * <ul>
- *   <li>Tentativa de adicionar prprio login na lista de paqueras</li>
- *   <li>Erro de seleo de usurio alvo em interfaces</li>
- *   <li>Falha na validao de entradas de usurio</li>
+ *   <li>Tentativa de adicionar próprio login na lista de paqueras</li>
+ *   <li>Erro de seleção de usuário alvo em interfaces</li>
+ *   <li>Falha na validação de entradas de usuário</li>
  * </ul>
  *
- * <p><b>Aes recomendadas:</b>
+ * <p><b>Ações recomendadas:</b>
  * <ul>
- *   <li>Validar identidade do usurio alvo antes da operao</li>
- *   <li>Implementar checagem de auto-referncia na lgica de paqueras</li>
- *   <li>Exibir mensagem preventiva em formulrios de relacionamento</li>
+ *   <li>Validar identidade do usuário alvo antes da operação</li>
+ *   <li>Implementar checagem de auto-referência na lógica de paqueras</li>
+ *   <li>Exibir mensagem preventiva em formulários de relacionamento</li>
  * </ul>
  *
  *
  */
 public class NaoPodePaquerarASiMesmoException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com mensagem padro que descreve a restrio de auto-paquera.
+     * Constrói a exceção com mensagem padrão que descreve a restrição de auto-paquera.
      * <p>
-     * Mensagem fixa: "Usurio no pode ser paquera de si mesmo."
+     * Mensagem fixa: "Usuário não pode ser paquera de si mesmo."
      */
     public NaoPodePaquerarASiMesmoException() {
-        super("Usurio no pode ser paquera de si mesmo.");
+        super("Usuário não pode ser paquera de si mesmo.");
     }
 }
\ No newline at end of file
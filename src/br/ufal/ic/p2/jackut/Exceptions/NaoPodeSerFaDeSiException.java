@@ -3,35 +3,36 @@ package br.ufal.ic.p2.jackut.Exceptions;
 import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorAmizades;
 
 /**
- * Exceo lanada quando um usurio tenta se adicionar como prprio f/dolo.
+ * Exceção lançada quando um usuário tenta se adicionar como próprio fã/ídolo.
  * <p>
- * Representa uma violao das regras de relacionamento social que impedem auto-idolatria.
+ * Representa uma violação das regras de relacionamento social que impedem auto-idolatria.
  *
- * <p><b>Cenrios comuns:</b>
+ * <p><b>Cenários comuns:</b>
  * <ul>
- *   <li>Tentativa de adicionar prprio login na lista de fs/dolos</li>
- *   <li>Erro de lgica na seleo do usurio alvo</li>
- *   <li>Falha na validao de entrada em interfaces de usurio</li>
+ *   <li>Tentativa de adicionar próprio login na lista de fãs/ídolos</li>
+ *   <li>Erro de lógica na seleção do usuário alvo</li>
+ *   <li>Falha na validação de entrada em interfaces de usuário</li>
  * </ul>
  *
- * <p><b>Aes recomendadas:</b>
+ * <p><b>Ações recomendadas:</b>
  * <ul>
- *   <li>Validar identidade do usurio alvo antes da operao</li>
- *   <li>Implementar checagem de auto-referncia no fluxo de adio de dolos</li>
- *   <li>Exibir alerta claro em formulrios de relacionamento</li>
+ *   <li>Validar identidade do usuário alvo antes da operação</li>
+ *   <li>Implementar checagem de auto-referência no fluxo de adição de ídolos</li>
+ *   <li>Exibir alerta claro em formulários de relacionamento</li>
  * </ul>
  *
- * @see InimigoDeSiException Exceo similar para auto-inimizade
+ * @see InimigoDeSiException Exceção similar para auto-inimizade
  */
 public class NaoPodeSerFaDeSiException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com mensagem padro que descreve a restrio de auto-idolatria.
+     * Constrói a exceção com mensagem padrão que descreve a restrição de auto-idolatria.
      * <p>
-     * Mensagem fixa: "Usurio no pode ser f de si mesmo."
+     * Mensagem fixa: "Usuário não pode ser fã de si mesmo."
      */
     public NaoPodeSerFaDeSiException() {
-        super("Usurio no pode ser f de si mesmo.");
+        super("Usuário não pode ser fã de si mesmo.");
     }
 }
\ No newline at end of file
@@ -3,36 +3,37 @@ package br.ufal.ic.p2.jackut.Exceptions;
 import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorAmizades;
 
 /**
- * Exceo lanada quando um usurio tenta se adicionar como prprio inimigo.
+ * Exceção lançada quando um usuário tenta se adicionar como próprio inimigo.
  * <p>
- * Representa uma violao das regras de relacionamento social que impedem auto-inimizade.
+ * Representa uma violação das regras de relacionamento social que impedem auto-inimizade.
  *
- * <p><b>Cenrios comuns:</b>
+ * <p><b>Cenários comuns:</b>
  * <ul>
- *   <li>Tentativa de adicionar prprio login na lista de inimigos</li>
- *   <li>Erro de lgica na seleo do usurio alvo</li>
- *   <li>Falha na validao de entrada em interfaces</li>
+ *   <li>Tentativa de adicionar próprio login na lista de inimigos</li>
+ *   <li>Erro de lógica na seleção do usuário alvo</li>
+ *   <li>Falha na validação de entrada em interfaces</li>
  * </ul>
  *
- * <p><b>Aes recomendadas:</b>
+ * <p><b>Ações recomendadas:</b>
  * <ul>
- *   <li>Validar identidade do usurio alvo antes da operao</li>
- *   <li>Implementar checagem de auto-referncia no fluxo de inimizades</li>
- *   <li>Exibir mensagem clara em formulrios de relacionamento</li>
+ *   <li>Validar identidade do usuário alvo antes da operação</li>
+ *   <li>Implementar checagem de auto-referência no fluxo de inimizades</li>
+ *   <li>Exibir mensagem clara em formulários de relacionamento</li>
  * </ul>
  *
- * @see NaoPodeSerFaDeSiException Exceo similar para auto-idolatria
- * @see NaoPodePaquerarASiMesmoException Exceo similar para auto-paquera
+ * @see NaoPodeSerFaDeSiException Exceção similar para auto-idolatria
+ * @see NaoPodePaquerarASiMesmoException Exceção similar para auto-paquera
  */
 public class NaoPodeSerInimigoDeSiException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com mensagem padro que descreve a restrio de auto-inimizade.
+     * Constrói a exceção com mensagem padrão que descreve a restrição de auto-inimizade.
      * <p>
-     * Mensagem fixa: "Usurio no pode ser inimigo de si mesmo."
+     * Mensagem fixa: "Usuário não pode ser inimigo de si mesmo."
      */
     public NaoPodeSerInimigoDeSiException() {
-        super("Usurio no pode ser inimigo de si mesmo.");
+        super("Usuário não pode ser inimigo de si mesmo.");
     }
 }
\ No newline at end of file
@@ -2,5 +2,6 @@ package br.ufal.ic.p2.jackut.Exceptions;
 
 public class RecadoParaSiException  extends Exception
 {
-    public RecadoParaSiException(){super("Usurio no pode enviar recado para si mesmo.");}
+    private static final long serialVersionUID = 1L;
+    public RecadoParaSiException(){super("Usuário não pode enviar recado para si mesmo.");}
 }
@@ -1,34 +1,35 @@
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando uma operao tenta acessar mensagens inexistentes.
+ * Exceção lançada quando uma operação tenta acessar mensagens inexistentes.
  * <p>
- * Ocorre em operaes de leitura de mensagens quando no h contedo disponvel para recuperao.
+ * Ocorre em operações de leitura de mensagens quando não há conteúdo disponível para recuperação.
  *
- * <p><b>Cenrios comuns:</b>
+ * <p><b>Cenários comuns:</b>
  * <ul>
  *   <li>Tentativa de ler mensagens de uma comunidade vazia</li>
  *   <li>Acesso a caixa de entrada sem recados</li>
- *   <li>Leitura de histrico de mensagens no persistido</li>
+ *   <li>Leitura de histórico de mensagens não persistido</li>
  * </ul>
  *
- * <p><b>Aes recomendadas:</b>
+ * <p><b>Ações recomendadas:</b>
  * <ul>
- *   <li>Verificar a existncia de mensagens antes da leitura</li>
+ *   <li>Verificar a existência de mensagens antes da leitura</li>
  *   <li>Implementar tratamento para casos de listas vazias</li>
- *   <li>Informar ao usurio sobre a ausncia de contedo</li>
+ *   <li>Informar ao usuário sobre a ausência de conteúdo</li>
  * </ul>
  *
  */
 public class SemMensagemException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com mensagem padro indicando a ausncia de mensagens.
+     * Constrói a exceção com mensagem padrão indicando a ausência de mensagens.
      * <p>
-     * Mensagem fixa: "No h mensagens."
+     * Mensagem fixa: "Não há mensagens."
      */
     public SemMensagemException() {
-        super("No h mensagens.");
+        super("Não há mensagens.");
     }
 }
\ No newline at end of file
@@ -1,36 +1,37 @@
 /**
- * Pacote contendo todas as excees personalizadas do sistema Jackut.
- * Estas excees representam situaes excepcionais especficas da
- * lgica de negcio da aplicao de rede social.
+ * Pacote contendo todas as exceções personalizadas do sistema Jackut.
+ * Estas exceções representam situações excepcionais específicas da
+ * lógica de negócio da aplicação de rede social.
  */
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando uma tentativa de leitura de recados  feita,
- * mas no h mensagens disponveis para o usurio.
+ * Exceção lançada quando uma tentativa de leitura de recados é feita,
+ * mas não há mensagens disponíveis para o usuário.
  *
- * <p>Esta exceo ocorre em situaes onde:</p>
+ * <p>Esta exceção ocorre em situações onde:</p>
  * <ul>
- *   <li>O usurio tenta ler um recado quando sua caixa de entrada est vazia</li>
- *   <li>Todas as mensagens j foram lidas e removidas da fila</li>
- *   <li>Nenhuma mensagem foi enviada para o usurio</li>
+ *   <li>O usuário tenta ler um recado quando sua caixa de entrada está vazia</li>
+ *   <li>Todas as mensagens já foram lidas e removidas da fila</li>
+ *   <li>Nenhuma mensagem foi enviada para o usuário</li>
  * </ul>
  *
- * <p>Diferente de outras excees, esta representa uma condio normal
- * do sistema, no um erro de programao.</p>
+ * <p>Diferente de outras exceções, esta representa uma condição normal
+ * do sistema, não um erro de programação.</p>
  *
- * @author Vitria Lemos
+ * @author Vitória Lemos
  * @see br.ufal.ic.p2.jackut.Jackut#lerRecado
  * @see br.ufal.ic.p2.jackut.Users#lerRecado
  */
 public class SemRecadoException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com a mensagem padro "No h recados.".
-     * Usado quando a operao de leitura de recados no encontra mensagens disponveis.
+     * Constrói a exceção com a mensagem padrão "Não há recados.".
+     * Usado quando a operação de leitura de recados não encontra mensagens disponíveis.
      */
     public SemRecadoException() {
-        super("No h recados.");
+        super("Não há recados.");
     }
 }
\ No newline at end of file
@@ -1,39 +1,40 @@
 /**
- * Pacote contendo todas as excees personalizadas do sistema Jackut.
- * Estas excees representam violaes das regras de negcio da aplicao.
+ * Pacote contendo todas as exceções personalizadas do sistema Jackut.
+ * Estas exceções representam violações das regras de negócio da aplicação.
  */
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando uma senha no atende aos requisitos do sistema.
+ * Exceção lançada quando uma senha não atende aos requisitos do sistema.
  *
- * <p>Esta exceo  utilizada para sinalizar problemas de validao de senhas durante:</p>
+ * <p>Esta exceção é utilizada para sinalizar problemas de validação de senhas durante:</p>
  * <ul>
- *   <li>Criao de novos usurios</li>
- *   <li>Alterao de senhas</li>
- *   <li>Processos de autenticao</li>
+ *   <li>Criação de novos usuários</li>
+ *   <li>Alteração de senhas</li>
+ *   <li>Processos de autenticação</li>
  * </ul>
  *
- * <p>Condies comuns que geram esta exceo:</p>
+ * <p>Condições comuns que geram esta exceção:</p>
  * <ul>
  *   <li>Senha nula ou vazia</li>
- *   <li>Senha muito curta (abaixo do mnimo exigido)</li>
- *   <li>Senha sem os caracteres necessrios (nmeros, smbolos, etc.)</li>
- *   <li>Senha que no atende s polticas de segurana</li>
+ *   <li>Senha muito curta (abaixo do mínimo exigido)</li>
+ *   <li>Senha sem os caracteres necessários (números, símbolos, etc.)</li>
+ *   <li>Senha que não atende às políticas de segurança</li>
  * </ul>
  *
- * @author Vitria Lemos
+ * @author Vitória Lemos
  * @see br.ufal.ic.p2.jackut.Jackut#criarUsuario
  * @see br.ufal.ic.p2.jackut.Users
  */
 public class SenhaInvalidaException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com a mensagem padro "Senha invlida.".
-     * Usado quando a senha fornecida no atende aos requisitos bsicos do sistema.
+     * Constrói a exceção com a mensagem padrão "Senha inválida.".
+     * Usado quando a senha fornecida não atende aos requisitos básicos do sistema.
      */
     public SenhaInvalidaException() {
-        super("Senha invlida.");
+        super("Senha inválida.");
     }
 }
\ No newline at end of file
@@ -1,41 +1,42 @@
 /**
- * Pacote contendo todas as excees personalizadas do sistema Jackut.
- * Estas excees representam situaes excepcionais especficas da
- * lgica de negcio da aplicao de rede social.
+ * Pacote contendo todas as exceções personalizadas do sistema Jackut.
+ * Estas exceções representam situações excepcionais específicas da
+ * lógica de negócio da aplicação de rede social.
  */
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando uma operao tenta utilizar uma sesso invlida ou expirada.
+ * Exceção lançada quando uma operação tenta utilizar uma sessão inválida ou expirada.
  *
- * <p>Esta exceo ocorre nas seguintes situaes:</p>
+ * <p>Esta exceção ocorre nas seguintes situações:</p>
  * <ul>
- *   <li>Tentativa de usar um ID de sesso inexistente</li>
- *   <li>Sesso expirada por inatividade</li>
- *   <li>Token de sesso malformado</li>
- *   <li>Acesso aps logout</li>
+ *   <li>Tentativa de usar um ID de sessão inexistente</li>
+ *   <li>Sessão expirada por inatividade</li>
+ *   <li>Token de sessão malformado</li>
+ *   <li>Acesso após logout</li>
  * </ul>
  *
- * <p>Recomenda-se capturar esta exceo para:</p>
+ * <p>Recomenda-se capturar esta exceção para:</p>
  * <ul>
- *   <li>Redirecionar o usurio para a tela de login</li>
- *   <li>Registrar tentativas de acesso no autorizado</li>
- *   <li>Encerrar processos que dependiam da sesso</li>
+ *   <li>Redirecionar o usuário para a tela de login</li>
+ *   <li>Registrar tentativas de acesso não autorizado</li>
+ *   <li>Encerrar processos que dependiam da sessão</li>
  * </ul>
  *
- * @author Vitria Lemos
+ * @author Vitória Lemos
  * @see br.ufal.ic.p2.jackut.Jackut#abrirSessao
  * @see br.ufal.ic.p2.jackut.Jackut#encerrarSistema
  */
 public class SessaoInvalidaExecption extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com a mensagem padro "Sesso invlida.".
-     * Usado quando a validao da sesso falha por motivos genricos.
+     * Constrói a exceção com a mensagem padrão "Sessão inválida.".
+     * Usado quando a validação da sessão falha por motivos genéricos.
      */
     public SessaoInvalidaExecption() {
-        super("Sesso invlida.");
+        super("Sessão inválida.");
     }
 
 
@@ -1,37 +1,38 @@
 /**
- * Pacote contendo todas as excees personalizadas do sistema Jackut.
- * Estas excees representam violaes das regras de negcio da aplicao.
+ * Pacote contendo todas as exceções personalizadas do sistema Jackut.
+ * Estas exceções representam violações das regras de negócio da aplicação.
  */
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando uma operao tenta criar ou modificar um usurio com
- * credenciais que j existem no sistema.
+ * Exceção lançada quando uma operação tenta criar ou modificar um usuário com
+ * credenciais que já existem no sistema.
  *
- * <p>Esta exceo  especfica para casos de duplicao de identidade de usurio,
- * sendo lanada quando:</p>
+ * <p>Esta exceção é específica para casos de duplicação de identidade de usuário,
+ * sendo lançada quando:</p>
  * <ul>
- *   <li>Tentativa de criar usurio com login j existente</li>
- *   <li>Atualizao de credenciais para valores j utilizados</li>
- *   <li>Conflito de unicidade em operaes de merge</li>
+ *   <li>Tentativa de criar usuário com login já existente</li>
+ *   <li>Atualização de credenciais para valores já utilizados</li>
+ *   <li>Conflito de unicidade em operações de merge</li>
  * </ul>
  *
- * <p>Diferena para {@link LoginJaExistenteException}:<br>
- * Esta exceo  mais genrica e pode ser usada para outros tipos de conflitos
- * de identidade alm do login (como email, CPF, etc.).</p>
+ * <p>Diferença para {@link LoginJaExistenteException}:<br>
+ * Esta exceção é mais genérica e pode ser usada para outros tipos de conflitos
+ * de identidade além do login (como email, CPF, etc.).</p>
  *
- * @author Viria Lemos
+ * @author Viória Lemos
  * @see br.ufal.ic.p2.jackut.Jackut#criarUsuario
  * @see br.ufal.ic.p2.jackut.Users
  */
 public class UsuarioIgualException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com a mensagem padro "Conta com esse nome j existe.".
-     * Usado quando  detectada duplicao de informaes de usurio.
+     * Constrói a exceção com a mensagem padrão "Conta com esse nome já existe.".
+     * Usado quando é detectada duplicação de informações de usuário.
      */
     public UsuarioIgualException() {
-        super("Conta com esse nome j existe.");
+        super("Conta com esse nome já existe.");
     }
 }
\ No newline at end of file
@@ -1,34 +1,35 @@
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando uma operao tenta adicionar um dolo j existente na lista de admirao do usurio.
+ * Exceção lançada quando uma operação tenta adicionar um ídolo já existente na lista de admiração do usuário.
  * <p>
- * Ocorre em operaes de gesto de relacionamentos sociais onde um usurio j registrou outro como seu dolo anteriormente.
+ * Ocorre em operações de gestão de relacionamentos sociais onde um usuário já registrou outro como seu ídolo anteriormente.
  *
- * <p><b>Cenrios comuns:</b>
+ * <p><b>Cenários comuns:</b>
  * <ul>
- *   <li>Tentativa de adicionar o mesmo dolo mltiplas vezes</li>
- *   <li>Falha na verificao de existncia prvia na lista de dolos</li>
- *   <li>Sincronizao incorreta entre diferentes componentes do sistema</li>
+ *   <li>Tentativa de adicionar o mesmo ídolo múltiplas vezes</li>
+ *   <li>Falha na verificação de existência prévia na lista de ídolos</li>
+ *   <li>Sincronização incorreta entre diferentes componentes do sistema</li>
  * </ul>
  *
- * <p><b>Aes recomendadas:</b>
+ * <p><b>Ações recomendadas:</b>
  * <ul>
- *   <li>Verificar a lista de dolos com {@code getFas()} antes da adio</li>
- *   <li>Implementar verificao de duplicidade na lgica de adio de dolos</li>
- *   <li>Notificar o usurio sobre a relao j existente</li>
+ *   <li>Verificar a lista de ídolos com {@code ehIdolo(String)} antes da adição</li>
+ *   <li>Implementar verificação de duplicidade na lógica de adição de ídolos</li>
+ *   <li>Notificar o usuário sobre a relação já existente</li>
  * </ul>
  *
  */
 public class UsuarioJaEhIdoloException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com mensagem padro indicando a duplicidade na lista de dolos.
+     * Constrói a exceção com mensagem padrão indicando a duplicidade na lista de ídolos.
      * <p>
-     * Mensagem fixa: "Usurio j est adicionado como dolo."
+     * Mensagem fixa: "Usuário já está adicionado como ídolo."
      */
     public UsuarioJaEhIdoloException() {
-        super("Usurio j est adicionado como dolo.");
+        super("Usuário já está adicionado como ídolo.");
     }
 }
\ No newline at end of file
@@ -1,34 +1,35 @@
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando uma operao tenta adicionar um usurio j existente na lista de inimigos.
+ * Exceção lançada quando uma operação tenta adicionar um usuário já existente na lista de inimigos.
  * <p>
- * Ocorre em operaes de gesto de relaes sociais onde o usurio alvo j foi previamente registrado como inimigo.
+ * Ocorre em operações de gestão de relações sociais onde o usuário alvo já foi previamente registrado como inimigo.
  *
- * <p><b>Cenrios comuns:</b>
+ * <p><b>Cenários comuns:</b>
  * <ul>
- *   <li>Tentativa de adicionar o mesmo inimigo mltiplas vezes</li>
- *   <li>Falha na verificao de existncia prvia na lista de inimigos</li>
- *   <li>Sincronizao inadequada entre componentes do sistema</li>
+ *   <li>Tentativa de adicionar o mesmo inimigo múltiplas vezes</li>
+ *   <li>Falha na verificação de existência prévia na lista de inimigos</li>
+ *   <li>Sincronização inadequada entre componentes do sistema</li>
  * </ul>
  *
- * <p><b>Aes recomendadas:</b>
+ * <p><b>Ações recomendadas:</b>
  * <ul>
- *   <li>Verificar a lista de inimigos antes da operao usando {@code getInimigos()}</li>
- *   <li>Implementar checagem de duplicidade na lgica de adio de inimigos</li>
- *   <li>Notificar o usurio sobre a relao hostil j existente</li>
+ *   <li>Verificar a lista de inimigos antes da operação usando {@code ehInimigo(String)}</li>
+ *   <li>Implementar checagem de duplicidade na lógica de adição de inimigos</li>
+ *   <li>Notificar o usuário sobre a relação hostil já existente</li>
  * </ul>
  *
  */
 public class UsuarioJaEhInimigoException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com mensagem padro indicando a duplicidade na lista de inimigos.
+     * Constrói a exceção com mensagem padrão indicando a duplicidade na lista de inimigos.
      * <p>
-     * Mensagem fixa: "Usurio j est adicionado como inimigo."
+     * Mensagem fixa: "Usuário já está adicionado como inimigo."
      */
     public UsuarioJaEhInimigoException() {
-        super("Usurio j est adicionado como inimigo.");
+        super("Usuário já está adicionado como inimigo.");
     }
 }
\ No newline at end of file
@@ -1,36 +1,37 @@
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando uma operao tenta adicionar um usurio j existente na lista de paqueras.
+ * Exceção lançada quando uma operação tenta adicionar um usuário já existente na lista de paqueras.
  * <p>
- * Ocorre em operaes de gesto de relaes sociais onde o usurio alvo j foi previamente registrado como paquera.
+ * Ocorre em operações de gestão de relações sociais onde o usuário alvo já foi previamente registrado como paquera.
  *
- * <p><b>Cenrios comuns:</b>
+ * <p><b>Cenários comuns:</b>
  * <ul>
- *   <li>Tentativa de adicionar a mesma paquera mltiplas vezes</li>
- *   <li>Falha na verificao de existncia prvia na lista de paqueras</li>
- *   <li>Sincronizao inadequada entre componentes do sistema</li>
+ *   <li>Tentativa de adicionar a mesma paquera múltiplas vezes</li>
+ *   <li>Falha na verificação de existência prévia na lista de paqueras</li>
+ *   <li>Sincronização inadequada entre componentes do sistema</li>
  * </ul>
  *
- * <p><b>Aes recomendadas:</b>
+ * <p><b>Ações recomendadas:</b>
  * <ul>
- *   <li>Verificar a lista de paqueras antes da operao usando {@code getPaqueras()}</li>
- *   <li>Implementar checagem de duplicidade na lgica de adio de paqueras</li>
- *   <li>Notificar o usurio sobre a relao j existente</li>
+ *   <li>Verificar a lista de paqueras antes da operação usando {@code ehPaquera(String)}</li>
+ *   <li>Implementar checagem de duplicidade na lógica de adição de paqueras</li>
+ *   <li>Notificar o usuário sobre a relação já existente</li>
  * </ul>
  *
- * @see UsuarioJaEhIdoloException Exceo similar para dolos duplicados
- * @see UsuarioJaEhInimigoException Exceo similar para inimigos duplicados
+ * @see UsuarioJaEhIdoloException Exceção similar para ídolos duplicados
+ * @see UsuarioJaEhInimigoException Exceção similar para inimigos duplicados
  */
 public class UsuarioJaEhPaqueraException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com mensagem padro indicando a duplicidade na lista de paqueras.
+     * Constrói a exceção com mensagem padrão indicando a duplicidade na lista de paqueras.
      * <p>
-     * Mensagem fixa: "Usurio j est adicionado como paquera."
+     * Mensagem fixa: "Usuário já está adicionado como paquera."
      */
     public UsuarioJaEhPaqueraException() {
-        super("Usurio j est adicionado como paquera.");
+        super("Usuário já está adicionado como paquera.");
     }
 }
\ No newline at end of file
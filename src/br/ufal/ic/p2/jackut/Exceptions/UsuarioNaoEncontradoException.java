@@ -1,38 +1,39 @@
 /**
- * Pacote que contm todas as excees personalizadas do sistema Jackut.
- * Estas excees representam situaes excepcionais especficas da
- * lgica de negcio da aplicao de rede social.
+ * Pacote que contém todas as exceções personalizadas do sistema Jackut.
+ * Estas exceções representam situações excepcionais específicas da
+ * lógica de negócio da aplicação de rede social.
  */
 package br.ufal.ic.p2.jackut.Exceptions;
 
 /**
- * Exceo lanada quando uma operao tenta acessar um usurio inexistente no sistema.
+ * Exceção lançada quando uma operação tenta acessar um usuário inexistente no sistema.
  *
- * <p>Esta exceo  fundamental para garantir a integridade das operaes que dependem
- * da existncia de usurios registrados no sistema.</p>
+ * <p>Esta exceção é fundamental para garantir a integridade das operações que dependem
+ * da existência de usuários registrados no sistema.</p>
  *
- *<p><b>Situaes comuns que lanam esta exceo:</b>
+ *<p><b>Situações comuns que lançam esta exceção:</b>
  * <ul>
- *   <li>Tentativa de visualizar perfil de usurio no cadastrado</li>
- *   <li>Envio de mensagem para destinatrio inexistente</li>
- *   <li>Solicitao de amizade para usurio no registrado</li>
- *   <li>Acesso via ID de usurio invlido</li>
+ *   <li>Tentativa de visualizar perfil de usuário não cadastrado</li>
+ *   <li>Envio de mensagem para destinatário inexistente</li>
+ *   <li>Solicitação de amizade para usuário não registrado</li>
+ *   <li>Acesso via ID de usuário inválido</li>
  * </ul>
- * @author Vitria Lemos
+ * @author Vitória Lemos
  * @see br.ufal.ic.p2.jackut.Jackut#getAtributoUsuario
  * @see br.ufal.ic.p2.jackut.Jackut#adicionarAmigo
  * @see br.ufal.ic.p2.jackut.Jackut#enviarRecado
  */
 public class UsuarioNaoEncontradoException extends Exception
 {
+    private static final long serialVersionUID = 1L;
 
     /**
-     * Constri a exceo com a mensagem padro "Usurio no cadastrado.".
+     * Constrói a exceção com a mensagem padrão "Usuário não cadastrado.".
      *
-     * <p>Esta mensagem  adequada para exibio direta ao usurio final,
+     * <p>Esta mensagem é adequada para exibição direta ao usuário final,
      * sendo clara e objetiva sobre o problema ocorrido.</p>
      */
     public UsuarioNaoEncontradoException() {
-        super("Usurio no cadastrado.");
+        super("Usuário não cadastrado.");
     }
 }
\ No newline at end of file
@@ -1,14 +1,19 @@
 /**
  * Classe Facade que fornece uma interface simplificada para o sistema Jackut.
- * Atua como um ponto nico de acesso para todas as operaes do sistema,
- * encapsulando a complexidade das operaes internas.
+ * Atua como um ponto único de acesso para todas as operações do sistema,
+ * encapsulando a complexidade das operações internas.
  *
- * <p>Esta classe implementa o padro Facade, fornecendo mtodos simplificados
- * que delegam as operaes para a classe Jackut.</p>
+ * <p>Esta classe implementa o padrão Facade, fornecendo métodos simplificados
+ * que delegam as operações para a classe Jackut.</p>
  *
- * <p>Responsvel por gerenciar usurios, sesses, amizades, perfis e recados.</p>
+ * <p>Responsável por gerenciar usuários, sessões, amizades, perfis e recados.</p>
  *
- * @author Vitria Lemos
+ * <p>As operações de escrita são executadas por {@link Jackut#escrever}, que as aplica
+ * diretamente ou, com o sequenciador de comandos ativo, na thread escritora. As iniciadas por
+ * um usuário informam o seu login ou sessão, para que, com as partições ativas, sejam
+ * aplicadas pela executora da partição desse usuário.</p>
+ *
+ * @author Vitória Lemos
  */
 package br.ufal.ic.p2.jackut;
 
@@ -23,14 +28,14 @@ public class Facade implements Serializable {
     private Jackut jackut;
 
     /**
-     * Constri uma nova instncia do sistema Jackut e carrega dados persistentes.
+     * Constrói uma nova instância do sistema Jackut e carrega dados persistentes.
      * <p>
-     * Comportamento de inicializao:
+     * Comportamento de inicialização:
      * <ul>
-     *   <li>Verifica a existncia do arquivo de dados serializados</li>
+     *   <li>Verifica a existência do arquivo de dados serializados</li>
      *   <li>Recupera estado anterior se arquivo existir</li>
-     *   <li>Inicializa nova instncia com estruturas vazias caso contrrio</li>
-     *   <li>Configura mecanismos de serializao/deserializao</li>
+     *   <li>Inicializa nova instância com estruturas vazias caso contrário</li>
+     *   <li>Configura mecanismos de serialização/deserialização</li>
      * </ul>
      */
     public Facade() {
@@ -40,33 +45,36 @@ public class Facade implements Serializable {
     /**
      * Remove completamente todos os dados do sistema e reinicia estruturas.
      * <p>
-     * Aes executadas:
+     * Ações executadas:
      * <ul>
-     *   <li>Limpa todos os registros de usurios e sesses</li>
+     *   <li>Limpa todos os registros de usuários e sessões</li>
      *   <li>Remove comunidades e relacionamentos</li>
-     *   <li>Destri e recria gerenciadores internos</li>
-     *   <li>Exclui arquivo de persistncia permanentemente</li>
+     *   <li>Destrói e recria gerenciadores internos</li>
+     *   <li>Exclui arquivo de persistência permanentemente</li>
      * </ul>
      */
     public void zerarSistema() {
-        jackut.zerarSistema();
+        jackut.escrever(() -> {
+            jackut.zerarSistema();
+            return null;
+        });
     }
 
     /**
-     * Recupera um atributo especfico do perfil de usurio com validaes.
+     * Recupera um atributo específico do perfil de usuário com validações.
      * <p>
-     * Fluxo de operao:
+     * Fluxo de operação:
      * <ul>
-     *   <li>Verifica existncia do usurio no sistema</li>
+     *   <li>Verifica existência do usuário no sistema</li>
      *   <li>Valida preenchimento do atributo solicitado</li>
      *   <li>Retorna valor formatado conforme tipo</li>
      *   <li>Trata atributos reservados (ex: 'nome')</li>
      * </ul>
      *
-     * @param login Identificador nico do usurio
+     * @param login Identificador único do usuário
      * @param atributo Nome do campo desejado (case-insensitive)
      * @return Valor do atributo em formato String
-     * @throws UsuarioNaoEncontradoException Se usurio no cadastrado
+     * @throws UsuarioNaoEncontradoException Se usuário não cadastrado
      * @throws AtributoNaoPreenchidoException Se atributo inexistente/vazio
      */
     public String getAtributoUsuario(String login, String atributo)
@@ -75,86 +83,107 @@ public class Facade implements Serializable {
     }
 
     /**
-     * Estabelece relao de amizade entre dois usurios.
+     * Estabelece relação de amizade entre dois usuários.
      * <p>
      * Comportamento complexo:
      * <ul>
-     *   <li>Valida sesso ativa do solicitante</li>
-     *   <li>Verifica existncia do usurio alvo</li>
-     *   <li>Cria solicitao pendente ou aceita existente</li>
-     *   <li>Notifica ambos usurios em caso de match</li>
+     *   <li>Valida sessão ativa do solicitante</li>
+     *   <li>Verifica existência do usuário alvo</li>
+     *   <li>Cria solicitação pendente ou aceita existente</li>
+     *   <li>Notifica ambos usuários em caso de match</li>
      *   <li>Atualiza listas de amigos bilateralmente</li>
      * </ul>
      *
-     * @param idSessao Identificador nico da sesso ativa
-     * @param amigo Login do usurio a ser adicionado
-     * @throws SessaoInvalidaExecption Se sesso inexistente/expirada
-     * @throws UsuarioNaoEncontradoException Se amigo no cadastrado
+     * @param idSessao Identificador único da sessão ativa
+     * @param amigo Login do usuário a ser adicionado
+     * @throws SessaoInvalidaExecption Se sessão inexistente/expirada
+     * @throws UsuarioNaoEncontradoException Se amigo não cadastrado
      * @throws AmigoDeSiException Se tentativa de auto-amizade
      */
     public void adicionarAmigo(String idSessao, String amigo)
             throws UsuarioNaoEncontradoException, SessaoInvalidaExecption,
             AmigoDeSiException, AmigoJaExistenteException, AmigoPendenteException, InimigoException {
-        jackut.adicionarAmigo(idSessao, amigo);
+        jackut.escreverNaSessao(idSessao, amigo, () -> {
+            jackut.adicionarAmigo(idSessao, amigo);
+            return null;
+        });
     }
 
     /**
-     * Cria novo usurio no sistema com validao de credenciais.
+     * Cria novo usuário no sistema com validação de credenciais.
      * <p>
-     * Requisitos de criao:
+     * Requisitos de criação:
      * <ul>
-     *   <li>Login nico e no vazio</li>
+     *   <li>Login único e não vazio</li>
      *   <li>Senha com pelo menos 1 caractere</li>
-     *   <li>Nome no nulo para exibio pblica</li>
-     *   <li>Verificao de duplicidade de login</li>
+     *   <li>Nome não nulo para exibição pública</li>
+     *   <li>Verificação de duplicidade de login</li>
      * </ul>
      *
-     * @param login Identificador nico para acesso
-     * @param senha Credencial de autenticao
-     * @param nome Nome completo para exibio
-     * @throws LoginInvalidoException Se login invlido
-     * @throws SenhaInvalidaException Se senha no atender critrios
-     * @throws LoginJaExistenteException Se login j cadastrado
+     * @param login Identificador único para acesso
+     * @param senha Credencial de autenticação
+     * @param nome Nome completo para exibição
+     * @throws LoginInvalidoException Se login inválido
+     * @throws SenhaInvalidaException Se senha não atender critérios
+     * @throws LoginJaExistenteException Se login já cadastrado
      */
     public void criarUsuario(String login, String senha, String nome)
             throws LoginInvalidoException, SenhaInvalidaException, LoginJaExistenteException {
-        jackut.criarUsuario(login, senha, nome);
+        jackut.escrever(() -> {
+            jackut.criarUsuario(login, senha, nome);
+            return null;
+        });
     }
 
     /**
-     * Autentica usurio e inicia nova sesso exclusiva.
+     * Autentica usuário e inicia nova sessão exclusiva.
      * <p>
-     * Segurana:
+     * Segurança:
      * <ul>
-     *   <li>Valida combinao login/senha</li>
-     *   <li>Encerra sesses anteriores do usurio</li>
-     *   <li>Gera novo UUID como identificador de sesso</li>
-     *   <li>Armazena dados de sesso criptografados</li>
+     *   <li>Valida combinação login/senha</li>
+     *   <li>Encerra sessões anteriores do usuário</li>
+     *   <li>Gera novo UUID como identificador de sessão</li>
+     *   <li>Armazena dados de sessão criptografados</li>
      * </ul>
      *
-     * @param login Credencial de identificao
-     * @param senha Credencial de autenticao
-     * @return UUID nico para sesso criada
-     * @throws CredenciaisInvalidasException Se falha na autenticao
+     * @param login Credencial de identificação
+     * @param senha Credencial de autenticação
+     * @return UUID único para sessão criada
+     * @throws CredenciaisInvalidasException Se falha na autenticação
      */
     public String abrirSessao(String login, String senha) throws CredenciaisInvalidasException {
-        return jackut.abrirSessao(login, senha);
+        return jackut.escrever(login, null, () -> jackut.abrirSessao(login, senha));
     }
 
 
     /**
      * Persiste estado atual do sistema em arquivo.
      * <p>
-     * Processo de serializao:
+     * Processo de serialização:
      * <ul>
      *   <li>Converte estado interno em fluxo de bytes</li>
-     *   <li>Armazena em arquivo com formato especfico</li>
-     *   <li>Trata possveis erros de I/O</li>
-     *   <li>Mantm compatibilidade entre verses</li>
+     *   <li>Armazena em arquivo com formato específico</li>
+     *   <li>Trata possíveis erros de I/O</li>
+     *   <li>Mantém compatibilidade entre versões</li>
      * </ul>
      */
     public void encerrarSistema() {
-        jackut.encerrarSistema();
+        jackut.escrever(() -> {
+            jackut.encerrarSistema();
+            return null;
+        });
+    }
+
+    /**
+     * Aguarda a entrega de todas as mensagens de comunidade enviadas até aqui nas caixas dos
+     * membros.
+     * <p>
+     * As cópias nas caixas são entregues em segundo plano; a leitura de mensagens não depende
+     * delas, mas este comando deixa as caixas em um estado determinado entre os passos de um teste.
+     * </p>
+     */
+    public void aguardarEntregas() {
+        jackut.aguardarEntregas();
     }
 
 
@@ -163,153 +192,162 @@ public class Facade implements Serializable {
     }
 
     /**
-     * Modifica atributo do perfil do usurio autenticado.
+     * Modifica atributo do perfil do usuário autenticado.
      * <p>
-     * Validaes:
+     * Validações:
      * <ul>
-     *   <li>Existncia da sesso informada</li>
-     *   <li>Permisso para edio do atributo</li>
-     *   <li>Formatao adequada do valor</li>
-     *   <li>Restries para atributos reservados</li>
+     *   <li>Existência da sessão informada</li>
+     *   <li>Permissão para edição do atributo</li>
+     *   <li>Formatação adequada do valor</li>
+     *   <li>Restrições para atributos reservados</li>
      * </ul>
      *
-     * @param idSessao Identificador de sesso vlida
+     * @param idSessao Identificador de sessão válida
      * @param atributo Campo a ser modificado
-     * @param valor Novo contedo do campo
-     * @throws SessaoInvalidaExecption Se sesso invlida
-     * @throws AtributoNaoPreenchidoException Se nome do atributo invlido
+     * @param valor Novo conteúdo do campo
+     * @throws SessaoInvalidaExecption Se sessão inválida
+     * @throws AtributoNaoPreenchidoException Se nome do atributo inválido
      */
     public void editarPerfil(String idSessao, String atributo, String valor)
             throws UsuarioNaoEncontradoException, SessaoInvalidaExecption, AtributoNaoPreenchidoException {
-        jackut.editarPerfil(idSessao, atributo, valor);
+        jackut.escreverNaSessao(idSessao, null, () -> {
+            jackut.editarPerfil(idSessao, atributo, valor);
+            return null;
+        });
     }
 
     /**
-     * Verifica relao de amizade unilateral entre usurios.
+     * Verifica relação de amizade unilateral entre usuários.
      * <p>
-     * Lgica de verificao:
+     * Lógica de verificação:
      * <ul>
-     *   <li>Consulta lista de amigos do usurio origem</li>
-     *   <li>Compara com login do usurio destino</li>
-     *   <li>No considera reciprocidade</li>
+     *   <li>Consulta lista de amigos do usuário origem</li>
+     *   <li>Compara com login do usuário destino</li>
+     *   <li>Não considera reciprocidade</li>
      *   <li>Case-sensitive para logins</li>
      * </ul>
      *
-     * @param login Usurio base para verificao
-     * @param amigo Usurio alvo da verificao
-     * @return true se relao existir, false caso contrrio
-     * @throws UsuarioNaoEncontradoException Se algum usurio inexistente
+     * @param login Usuário base para verificação
+     * @param amigo Usuário alvo da verificação
+     * @return true se relação existir, false caso contrário
+     * @throws UsuarioNaoEncontradoException Se algum usuário inexistente
      */
     public boolean ehAmigo(String login, String amigo) throws UsuarioNaoEncontradoException {
         return jackut.ehAmigo(login, amigo);
     }
 
     /**
-     * Verifica se dois usurios so amigos mtuos (ambos adicionaram um ao outro).
+     * Verifica se dois usuários são amigos mútuos (ambos adicionaram um ao outro).
      *
-     * @param login Login do primeiro usurio (no pode ser nulo ou vazio)
-     * @param amigo Login do segundo usurio (no pode ser nulo ou vazio)
-     * @return true se forem amigos mtuos, false caso contrrio
-     * @throws UsuarioNaoEncontradoException Se algum usurio no for encontrado
+     * @param login Login do primeiro usuário (não pode ser nulo ou vazio)
+     * @param amigo Login do segundo usuário (não pode ser nulo ou vazio)
+     * @return true se forem amigos mútuos, false caso contrário
+     * @throws UsuarioNaoEncontradoException Se algum usuário não for encontrado
      */
     public boolean ehAmigoMutuo(String login, String amigo) throws UsuarioNaoEncontradoException {
         return jackut.ehAmigoMutuo(login, amigo);
     }
 
     /**
-     * Recupera lista formatada de amigos de um usurio.
+     * Recupera lista formatada de amigos de um usuário.
      * <p>
      * Formato de retorno:
      * <ul>
      *   <li>Delimitadores: chaves {} envolvendo a lista</li>
-     *   <li>Separadores: vrgulas entre logins</li>
-     *   <li>Ordenao: alfabtica de A-Z</li>
-     *   <li>Case-sensitive: mantm capitalizao original</li>
+     *   <li>Separadores: vírgulas entre logins</li>
+     *   <li>Ordenação: alfabética de A-Z</li>
+     *   <li>Case-sensitive: mantém capitalização original</li>
      * </ul>
      *
-     * @param login Usurio alvo da consulta
+     * @param login Usuário alvo da consulta
      * @return String formatada com lista de amigos
-     * @throws UsuarioNaoEncontradoException Se usurio inexistente
+     * @throws UsuarioNaoEncontradoException Se usuário inexistente
      */
     public String getAmigos(String login) throws UsuarioNaoEncontradoException {
         return jackut.getAmigos(login);
     }
 
     /**
-     * Obtm as solicitaes de amizade pendentes de um usurio no formato {solicitante1,solicitante2,...}.
+     * Obtém as solicitações de amizade pendentes de um usuário no formato {solicitante1,solicitante2,...}.
      *
-     * @param login Login do usurio (no pode ser nulo ou vazio)
-     * @return String formatada com as solicitaes pendentes entre chaves
-     * @throws UsuarioNaoEncontradoException Se o usurio no for encontrado
+     * @param login Login do usuário (não pode ser nulo ou vazio)
+     * @return String formatada com as solicitações pendentes entre chaves
+     * @throws UsuarioNaoEncontradoException Se o usuário não for encontrado
      */
     public String getSolicitacoesPendentes(String login) throws UsuarioNaoEncontradoException {
         return jackut.getSolicitacoesPendentes(login);
     }
 
     /**
-     * Envia mensagem privada entre usurios com restries.
+     * Envia mensagem privada entre usuários com restrições.
      * <p>
      * Controles aplicados:
      * <ul>
-     *   <li>Validao de sesso do remetente</li>
-     *   <li>Verificao de bloqueios/inimizades</li>
-     *   <li>Armazenamento FIFO no destinatrio</li>
-     *   <li>Limite mximo de mensagens armazenadas</li>
+     *   <li>Validação de sessão do remetente</li>
+     *   <li>Verificação de bloqueios/inimizades</li>
+     *   <li>Armazenamento FIFO no destinatário</li>
+     *   <li>Limite máximo de mensagens armazenadas</li>
      * </ul>
      *
-     * @param idSessao Identificador de sesso vlida
-     * @param destinatario Login do usurio alvo
-     * @param recado Contedo textual da mensagem
-     * @throws InimigoException Se existir relao de inimizade
-     * @throws SemRecadoException Se contedo da mensagem for invlido
+     * @param idSessao Identificador de sessão válida
+     * @param destinatario Login do usuário alvo
+     * @param recado Conteúdo textual da mensagem
+     * @throws InimigoException Se existir relação de inimizade
+     * @throws SemRecadoException Se conteúdo da mensagem for inválido
      */
     public void enviarRecado(String idSessao, String destinatario, String recado)
             throws UsuarioNaoEncontradoException, SessaoInvalidaExecption, SemRecadoException, InimigoException, AmigoDeSiException, RecadoParaSiException {
-        jackut.enviarRecado(idSessao, destinatario, recado);
+        jackut.escreverNaSessao(idSessao, destinatario, () -> {
+            jackut.enviarRecado(idSessao, destinatario, recado);
+            return null;
+        });
     }
 
 
     /**
-     * Remove e retorna a mensagem mais antiga no lida.
+     * Remove e retorna a mensagem mais antiga não lida.
      * <p>
      * Comportamento FIFO:
      * <ul>
-     *   <li>Acessa fila de mensagens do usurio</li>
+     *   <li>Acessa fila de mensagens do usuário</li>
      *   <li>Remove mensagem mais antiga</li>
-     *   <li>Mantm histrico de mensagens lidas</li>
-     *   <li>Limpa mensagens aps perodo de expirao</li>
+     *   <li>Mantém histórico de mensagens lidas</li>
+     *   <li>Limpa mensagens após período de expiração</li>
      * </ul>
      *
-     * @param idSessao Identificador de sesso vlida
-     * @return Contedo da mensagem mais antiga
-     * @throws SemRecadoException Se nenhuma mensagem disponvel
+     * @param idSessao Identificador de sessão válida
+     * @return Conteúdo da mensagem mais antiga
+     * @throws SemRecadoException Se nenhuma mensagem disponível
      */
     public String lerRecado(String idSessao) throws SessaoInvalidaExecption, SemRecadoException, UsuarioNaoEncontradoException {
-        return jackut.lerRecado(idSessao);
+        return jackut.escreverNaSessao(idSessao, null, () -> jackut.lerRecado(idSessao));
     }
 
 
     /**
-     * Cria nova comunidade com usurio autenticado como dono.
+     * Cria nova comunidade com usuário autenticado como dono.
      * <p>
-     * Requisitos de criao:
+     * Requisitos de criação:
      * <ul>
-     *   <li>Nome nico no registrado anteriormente</li>
-     *   <li>Descrio no vazia</li>
-     *   <li>Sesso vlida do usurio criador</li>
-     *   <li>Adio automtica do criador como membro</li>
+     *   <li>Nome único não registrado anteriormente</li>
+     *   <li>Descrição não vazia</li>
+     *   <li>Sessão válida do usuário criador</li>
+     *   <li>Adição automática do criador como membro</li>
      * </ul>
      *
-     * @param idSessao Identificador de sesso vlida
-     * @param nome Nome nico da comunidade
+     * @param idSessao Identificador de sessão válida
+     * @param nome Nome único da comunidade
      * @param descricao Texto descritivo
-     * @throws ComunidadeJaExisteException Se nome j registrado
+     * @throws ComunidadeJaExisteException Se nome já registrado
      */
     public void criarComunidade(String idSessao, String nome, String descricao)
             throws SessaoInvalidaExecption, ComunidadeJaExisteException, UsuarioNaoEncontradoException {
-        // Valida a sesso primeiro
-        String login = jackut.getLoginPorSessao(idSessao);
-        jackut.registrarComunidade(nome, descricao, login);
+        jackut.escrever(() -> {
+            // Valida a sessão primeiro
+            String login = jackut.getLoginPorSessao(idSessao);
+            jackut.registrarComunidade(nome, descricao, login);
+            return null;
+        });
     }
 
     public String getDonoComunidade(String nome) throws ComunidadeNaoExisteException {
@@ -329,12 +367,15 @@ public class Facade implements Serializable {
     // Modify the adicionarComunidade method to handle exceptions
     public void adicionarComunidade(String idSessao, String nomeComunidade)
             throws SessaoInvalidaExecption, ComunidadeNaoExisteException, MembroJaExisteException, UsuarioNaoEncontradoException {
-        String login = jackut.getLoginPorSessao(idSessao);
-        jackut.adicionarComunidade(nomeComunidade, login);
+        jackut.escrever(() -> {
+            String login = jackut.getLoginPorSessao(idSessao);
+            jackut.adicionarComunidade(nomeComunidade, login);
+            return null;
+        });
     }
 
     public String getComunidades(String login) throws UsuarioNaoEncontradoException {
-        if (!jackut.getUsuarios().containsKey(login)) {
+        if (!jackut.getUsuarios().existe(login)) {
             throw new UsuarioNaoEncontradoException();
         }
         List<String> comunidades = jackut.getComunidadesDoUsuario(login);
@@ -345,94 +386,84 @@ public class Facade implements Serializable {
     /**
      * Envia uma mensagem para todos os membros de uma comunidade.
      *
-     * @param idSessao ID da sesso do remetente (no pode ser nulo ou vazio)
-     * @param comunidade Nome da comunidade (no pode ser nulo ou vazio)
-     * @param mensagem Texto da mensagem (no pode ser nulo ou vazio)
-     * @throws SessaoInvalidaExecption Se a sesso for invlida
-     * @throws ComunidadeNaoExisteException Se a comunidade no existir
-     * @throws UsuarioNaoEncontradoException Se o usurio da sesso no for encontrado
+     * @param idSessao ID da sessão do remetente (não pode ser nulo ou vazio)
+     * @param comunidade Nome da comunidade (não pode ser nulo ou vazio)
+     * @param mensagem Texto da mensagem (não pode ser nulo ou vazio)
+     * @throws SessaoInvalidaExecption Se a sessão for inválida
+     * @throws ComunidadeNaoExisteException Se a comunidade não existir
+     * @throws UsuarioNaoEncontradoException Se o usuário da sessão não for encontrado
      */
     public void enviarMensagem(String idSessao, String comunidade, String mensagem)
             throws SessaoInvalidaExecption, ComunidadeNaoExisteException, UsuarioNaoEncontradoException {
-        // Valida a sesso e obtm o remetente
-        String remetente = jackut.getLoginPorSessao(idSessao);
-
-        // Obtm os membros da comunidade
-        List<String> membros = jackut.getMembrosComunidade(comunidade);
-
-        // Envia a mensagem para todos os membros
-        for (String membro : membros) {
-            Users usuario = jackut.getUsuarios().get(membro);
-            usuario.receberMensagemComunidade(mensagem);
-        }
+        jackut.escrever(() -> {
+            jackut.enviarMensagem(idSessao, comunidade, mensagem);
+            return null;
+        });
     }
 
     /**
-     * Recupera e remove a prxima mensagem da comunidade destinada ao usurio autenticado (sistema FIFO).
+     * Recupera e remove a próxima mensagem da comunidade destinada ao usuário autenticado (sistema FIFO).
      *
-     * <p><b>Fluxo de operao:</b></p>
+     * <p><b>Fluxo de operação:</b></p>
      * <ul>
-     *   <li>Valida a sesso do usurio atravs do ID fornecido</li>
-     *   <li>Verifica existncia do usurio no sistema</li>
+     *   <li>Valida a sessão do usuário através do ID fornecido</li>
+     *   <li>Verifica existência do usuário no sistema</li>
      *   <li>Acessa a fila de mensagens da comunidade</li>
      *   <li>Remove e retorna a mensagem mais antiga</li>
      * </ul>
      *
-     * <p><b>Comportamento crtico:</b></p>
+     * <p><b>Comportamento crítico:</b></p>
      * <ul>
-     *   <li>Mensagem  permanentemente removida aps leitura</li>
-     *   <li>Ordem estrita de chegada (primeira mensagem enviada  a primeira lida)</li>
-     *   <li>Mensagens so armazenadas mesmo aps logout</li>
+     *   <li>Mensagem é permanentemente removida após leitura</li>
+     *   <li>Ordem estrita de chegada (primeira mensagem enviada é a primeira lida)</li>
+     *   <li>Mensagens são armazenadas mesmo após logout</li>
      * </ul>
      *
      * <p><b>Exemplo de retorno:</b></p>
      * <pre>{@code
-     * "Geral: Reunio marcada para sexta-feira"
+     * "Geral: Reunião marcada para sexta-feira"
      * }</pre>
      *
-     * @param idSessao ID da sesso vlida do usurio
-     * @return Contedo completo da mensagem no formato "Comunidade: texto"
+     * @param idSessao ID da sessão válida do usuário
+     * @return Conteúdo completo da mensagem no formato "Comunidade: texto"
      * @throws SessaoInvalidaExecption Se:
      * <ul>
-     *   <li>ID de sesso invlido/expirado</li>
-     *   <li>Usurio associado no existir</li>
+     *   <li>ID de sessão inválido/expirado</li>
+     *   <li>Usuário associado não existir</li>
      * </ul>
-     * @throws SemMensagemException Se no houver mensagens disponveis
+     * @throws SemMensagemException Se não houver mensagens disponíveis
      *
      * @see #enviarMensagem(String, String, String) Para origem das mensagens
      * @see #lerRecado(String) Para ler mensagens privadas
      */
     public String lerMensagem(String idSessao) throws SessaoInvalidaExecption, SemMensagemException {
-        try {
-            String login = jackut.getLoginPorSessao(idSessao);
-            Users usuario = jackut.getUsuarios().get(login);
-            if (usuario == null) {
+        return jackut.escrever(() -> {
+            try {
+                return jackut.lerMensagem(idSessao);
+            } catch (SessaoInvalidaExecption | UsuarioNaoEncontradoException e) {
                 throw new SessaoInvalidaExecption();
             }
-            return usuario.lerMensagemComunidade();
-        } catch (SessaoInvalidaExecption | UsuarioNaoEncontradoException e) {
-            throw new SessaoInvalidaExecption();
-        }
+        });
     }
 
 
     /**
-     * Estabelece uma relao de admirao (f-dolo) entre o usurio autenticado e outro usurio.
+     * Estabelece uma relação de admiração (fã-ídolo) entre o usuário autenticado e outro usuário.
      *
-     * <p><b>Validaes e comportamentos:</b></p>
+     * <p><b>Validações e comportamentos:</b></p>
      * <ul>
-     *   <li>Verifica validade da sesso do usurio admirador</li>
-     *   <li>Confirma existncia do usurio dolo</li>
-     *   <li>Impede auto-idolatria (usurio no pode ser f de si mesmo)</li>
-     *   <li>Verifica se a relao j existe</li>
-     *   <li>Bloqueia operao se existir inimizade mtua</li>
+     *   <li>Verifica validade da sessão do usuário admirador</li>
+     *   <li>Confirma existência do usuário ídolo</li>
+     *   <li>Impede auto-idolatria (usuário não pode ser fã de si mesmo)</li>
+     *   <li>Verifica se a relação já existe</li>
+     *   <li>Bloqueia operação se existir inimizade mútua</li>
      * </ul>
      *
      * <p><b>Comportamentos especiais:</b></p>
      * <ul>
-     *   <li>Cria relao mtua f/dolo automaticamente se ambos se adicionarem</li>
-     *   <li>Envia mensagem automtica do sistema para ambos em caso de match</li>
-     *   <li>Atualiza listas de fs e dolos em tempo real</li>
+     *   <li>Cria relação mútua fã/ídolo automaticamente se ambos se adicionarem</li>
+     *   <li>Envia mensagem automática do sistema para ambos em caso de match</li>
+     *   <li>Atualiza listas de fãs e ídolos em tempo real</li>
      *   <li>Case-sensitive para logins</li>
      * </ul>
      *
@@ -441,85 +472,88 @@ public class Facade implements Serializable {
      * adicionarIdolo("sessao123", "artista_famoso")
      * }</pre>
      *
-     * @param idSessao ID da sesso vlida do usurio que est adicionando o dolo
-     * @param idolo Login do usurio sendo admirado/dolo
+     * @param idSessao ID da sessão válida do usuário que está adicionando o ídolo
+     * @param idolo Login do usuário sendo admirado/ídolo
      * @throws SessaoInvalidaExecption Se:
      * <ul>
-     *   <li>Sesso invlida ou expirada</li>
-     *   <li>ID de sesso malformado</li>
+     *   <li>Sessão inválida ou expirada</li>
+     *   <li>ID de sessão malformado</li>
      * </ul>
-     * @throws UsuarioNaoEncontradoException Se o dolo no existir no sistema
-     * @throws UsuarioJaEhIdoloException Se j existir relao de admirao
+     * @throws UsuarioNaoEncontradoException Se o ídolo não existir no sistema
+     * @throws UsuarioJaEhIdoloException Se já existir relação de admiração
      * @throws NaoPodeSerFaDeSiException Se tentar admirar a si mesmo
-     * @throws InimigoException Se houver relao de inimizade bilateral
+     * @throws InimigoException Se houver relação de inimizade bilateral
      *
-     * @see #getFas(String) Para consultar fs de um usurio
-     * @see #ehFa(String, String) Para verificar relao de admirao
-     * @see #adicionarInimigo(String, String) Operao conflitante
+     * @see #getFas(String) Para consultar fãs de um usuário
+     * @see #ehFa(String, String) Para verificar relação de admiração
+     * @see #adicionarInimigo(String, String) Operação conflitante
      */
     public void adicionarIdolo(String idSessao, String idolo)
             throws SessaoInvalidaExecption, UsuarioNaoEncontradoException,
             UsuarioJaEhIdoloException, AmigoDeSiException, NaoPodeSerFaDeSiException, InimigoException {
 
-        jackut.adicionarIdolo(idSessao, idolo); // Passa o idSessao, no o login
+        jackut.escreverNaSessao(idSessao, idolo, () -> {
+            jackut.adicionarIdolo(idSessao, idolo); // Passa o idSessao, não o login
+            return null;
+        });
     }
 
 
     /**
-     * Remove uma relao de inimizade previamente estabelecida.
+     * Remove uma relação de inimizade previamente estabelecida.
      *
-     * <p><b>Validaes:</b></p>
+     * <p><b>Validações:</b></p>
      * <ul>
-     *   <li>Verifica validade da sesso do usurio</li>
-     *   <li>Confirma existncia do usurio alvo</li>
+     *   <li>Verifica validade da sessão do usuário</li>
+     *   <li>Confirma existência do usuário alvo</li>
      *   <li>Remove o inimigo da lista se existir</li>
      * </ul>
      *
-     * @param idSessao ID da sesso vlida do usurio
-     * @param inimigo Login do usurio alvo
-     * @throws SessaoInvalidaExecption Se a sesso for invlida
-     * @throws UsuarioNaoEncontradoException Se o usurio alvo no existir
+     * @param idSessao ID da sessão válida do usuário
+     * @param inimigo Login do usuário alvo
+     * @throws SessaoInvalidaExecption Se a sessão for inválida
+     * @throws UsuarioNaoEncontradoException Se o usuário alvo não existir
      *
-     * @see #adicionarInimigo(String, String) Para operao inversa
+     * @see #adicionarInimigo(String, String) Para operação inversa
      */
     public void adicionarInimigo(String idSessao, String inimigo)
             throws SessaoInvalidaExecption, UsuarioNaoEncontradoException,
             UsuarioJaEhInimigoException, AmigoDeSiException, InimigoDeSiException {
-        jackut.adicionarInimigo(idSessao, inimigo); // Passa o idSessao
+        jackut.escreverNaSessao(idSessao, inimigo, () -> {
+            jackut.adicionarInimigo(idSessao, inimigo); // Passa o idSessao
+            return null;
+        });
     }
 
 
     /**
-     * Verifica se um usurio  f de um determinado dolo.
+     * Verifica se um usuário é fã de um determinado ídolo.
      *
-     * @param usuario Login do usurio que est sendo verificado (case-sensitive)
-     * @param idolo Login do dolo que est sendo consultado (case-sensitive)
-     * @return {@code true} se o usurio  f do dolo, {@code false} caso contrrio
-     * @throws UsuarioNaoEncontradoException Se qualquer um dos logins no existir no sistema
+     * @param usuario Login do usuário que está sendo verificado (case-sensitive)
+     * @param idolo Login do ídolo que está sendo consultado (case-sensitive)
+     * @return {@code true} se o usuário é fã do ídolo, {@code false} caso contrário
+     * @throws UsuarioNaoEncontradoException Se qualquer um dos logins não existir no sistema
      */
     public boolean ehFa(String usuario, String idolo) throws UsuarioNaoEncontradoException {
-        Users user = jackut.getUsuarios().get(usuario);
-        Users idol = jackut.getUsuarios().get(idolo);
-        if (user == null || idol == null) throw new UsuarioNaoEncontradoException();
-        return idol.getFas().contains(usuario);
+        return jackut.ehFa(usuario, idolo);
     }
 
     /**
-     * Recupera a lista de fs de um usurio em formato estruturado.
+     * Recupera a lista de fãs de um usuário em formato estruturado.
      *
      * <p><b>Formato de retorno:</b></p>
      * <ul>
      *   <li>Delimitado por chaves "{}"</li>
-     *   <li>Logins separados por vrgulas</li>
-     *   <li>Ordenao alfabtica A-Z</li>
-     *   <li>Mantm capitalizao original dos logins</li>
+     *   <li>Logins separados por vírgulas</li>
+     *   <li>Ordenação alfabética A-Z</li>
+     *   <li>Mantém capitalização original dos logins</li>
      * </ul>
      *
      * <p><b>Comportamento especial:</b></p>
      * <ul>
-     *   <li>Retorna "{}" se o usurio no tiver fs</li>
-     *   <li>Lista atualizada em tempo real conforme novos fs so adicionados</li>
-     *   <li>No inclui relaes de inimizade ou paqueras</li>
+     *   <li>Retorna "{}" se o usuário não tiver fãs</li>
+     *   <li>Lista atualizada em tempo real conforme novos fãs são adicionados</li>
+     *   <li>Não inclui relações de inimizade ou paqueras</li>
      * </ul>
      *
      * <p><b>Exemplo de retorno:</b></p>
@@ -527,84 +561,78 @@ public class Facade implements Serializable {
      * "{maria_2023,joao_silva,ana_123}"
      * }</pre>
      *
-     * @param usuario Login do usurio alvo (case-sensitive)
-     * @return String formatada com a lista de fs
-     * @throws UsuarioNaoEncontradoException Se o usurio no estiver cadastrado no sistema
+     * @param usuario Login do usuário alvo (case-sensitive)
+     * @return String formatada com a lista de fãs
+     * @throws UsuarioNaoEncontradoException Se o usuário não estiver cadastrado no sistema
      *
-     * @see #adicionarIdolo(String, String) Para entender como os fs so registrados
-     * @see #ehFa(String, String) Para verificar se um usurio especfico  f
+     * @see #adicionarIdolo(String, String) Para entender como os fãs são registrados
+     * @see #ehFa(String, String) Para verificar se um usuário específico é fã
      */
     public String getFas(String usuario) throws UsuarioNaoEncontradoException {
-        Users user = jackut.getUsuarios().get(usuario);
-        if (user == null) throw new UsuarioNaoEncontradoException();
-        return "{" + String.join(",", user.getFas()) + "}";
+        return jackut.getFas(usuario);
     }
 
     /**
-     * Verifica se um usurio especfico est na lista de paqueras do usurio autenticado.
+     * Verifica se um usuário específico está na lista de paqueras do usuário autenticado.
      *
-     * <p><b>Comportamento da verificao:</b></p>
+     * <p><b>Comportamento da verificação:</b></p>
      * <ul>
-     *   <li>Valida a sesso do usurio que realiza a consulta</li>
-     *   <li>Confirma a existncia do usurio alvo (paquera)</li>
-     *   <li>Verifica presena unilateral na lista de paqueras</li>
+     *   <li>Valida a sessão do usuário que realiza a consulta</li>
+     *   <li>Confirma a existência do usuário alvo (paquera)</li>
+     *   <li>Verifica presença unilateral na lista de paqueras</li>
      * </ul>
      *
-     * <p><b>Detalhes tcnicos:</b></p>
+     * <p><b>Detalhes técnicos:</b></p>
      * <ul>
-     *   <li>Verificao case-sensitive para logins</li>
-     *   <li>No verifica reciprocidade (apenas relao unilateral)</li>
-     *   <li>Consulta direta na lista de paqueras do usurio</li>
+     *   <li>Verificação case-sensitive para logins</li>
+     *   <li>Não verifica reciprocidade (apenas relação unilateral)</li>
+     *   <li>Consulta direta na lista de paqueras do usuário</li>
      * </ul>
      *
      * <p><b>Exemplo:</b></p>
      * <pre>{@code
-     * // Se usurioA tem usurioB em sua lista de paqueras:
+     * // Se usuárioA tem usuárioB em sua lista de paqueras:
      * ehPaquera("sessaoA", "usuarioB") // retorna true
      * }</pre>
      *
-     * @param idSessao ID da sesso vlida do usurio consultante
-     * @param paquera Login do usurio alvo da verificao
-     * @return true se o usurio alvo estiver na lista de paqueras, false caso contrrio
+     * @param idSessao ID da sessão válida do usuário consultante
+     * @param paquera Login do usuário alvo da verificação
+     * @return true se o usuário alvo estiver na lista de paqueras, false caso contrário
      * @throws SessaoInvalidaExecption Se:
      * <ul>
-     *   <li>ID de sesso for invlido</li>
-     *   <li>Sesso estiver expirada</li>
+     *   <li>ID de sessão for inválido</li>
+     *   <li>Sessão estiver expirada</li>
      * </ul>
      * @throws UsuarioNaoEncontradoException Se:
      * <ul>
-     *   <li>Usurio da sesso no existir</li>
-     *   <li>Usurio alvo (paquera) no estiver cadastrado</li>
+     *   <li>Usuário da sessão não existir</li>
+     *   <li>Usuário alvo (paquera) não estiver cadastrado</li>
      * </ul>
      *
-     * @see #adicionarPaquera(String, String) Para criar novas relaes de paquera
+     * @see #adicionarPaquera(String, String) Para criar novas relações de paquera
      * @see #getPaqueras(String) Para obter a lista completa de paqueras
      */
     public boolean ehPaquera(String idSessao, String paquera)
             throws SessaoInvalidaExecption, UsuarioNaoEncontradoException {
-        String usuario = jackut.getLoginPorSessao(idSessao);
-        Users user = jackut.getUsuarios().get(usuario);
-        Users pq = jackut.getUsuarios().get(paquera);
-        if (pq == null) throw new UsuarioNaoEncontradoException();
-        return user.getPaqueras().contains(paquera);
+        return jackut.ehPaquera(idSessao, paquera);
     }
 
     /**
-     * Recupera a lista de paqueras do usurio autenticado em formato estruturado.
+     * Recupera a lista de paqueras do usuário autenticado em formato estruturado.
      *
      * <p><b>Formato de retorno:</b></p>
      * <ul>
      *   <li>Delimitado por chaves "{}"</li>
-     *   <li>Logins separados por vrgulas</li>
-     *   <li>Ordenao alfabtica A-Z</li>
-     *   <li>Case-sensitive (mantm capitalizao original)</li>
+     *   <li>Logins separados por vírgulas</li>
+     *   <li>Ordenação alfabética A-Z</li>
+     *   <li>Case-sensitive (mantém capitalização original)</li>
      * </ul>
      *
-     * <p><b>Caractersticas:</b></p>
+     * <p><b>Características:</b></p>
      * <ul>
-     *   <li>Retorna lista vazia "{}" se no houver paqueras</li>
-     *   <li>Exibe apenas paqueras ativas (no mostra rejeitadas)</li>
-     *   <li>Atualizao em tempo real conforme novas paqueras so adicionadas</li>
+     *   <li>Retorna lista vazia "{}" se não houver paqueras</li>
+     *   <li>Exibe apenas paqueras ativas (não mostra rejeitadas)</li>
+     *   <li>Atualização em tempo real conforme novas paqueras são adicionadas</li>
      * </ul>
      *
      * <p><b>Exemplo de retorno:</b></p>
@@ -612,56 +640,54 @@ public class Facade implements Serializable {
      * "{joao_123,maria_silva,ana_99}"
      * }</pre>
      *
-     * @param idSessao ID da sesso vlida do usurio
+     * @param idSessao ID da sessão válida do usuário
      * @return String formatada com a lista de paqueras
      * @throws SessaoInvalidaExecption Se:
      * <ul>
-     *   <li>ID de sesso for nulo/vazio</li>
-     *   <li>Sesso no estiver ativa</li>
+     *   <li>ID de sessão for nulo/vazio</li>
+     *   <li>Sessão não estiver ativa</li>
      * </ul>
-     * @throws UsuarioNaoEncontradoException Se o usurio associado  sesso no existir
+     * @throws UsuarioNaoEncontradoException Se o usuário associado à sessão não existir
      *
      * @see #adicionarPaquera(String, String) Para adicionar novas paqueras
-     * @see #ehPaquera(String, String) Para verificar paquera especfica
+     * @see #ehPaquera(String, String) Para verificar paquera específica
      */
     public String getPaqueras(String idSessao)
             throws SessaoInvalidaExecption, UsuarioNaoEncontradoException {
-        String usuario = jackut.getLoginPorSessao(idSessao);
-        Users user = jackut.getUsuarios().get(usuario);
-        return "{" + String.join(",", user.getPaqueras()) + "}";
+        return jackut.getPaqueras(idSessao);
     }
 
 
 
     /**
-     * Estabelece uma relao de paquera entre o usurio autenticado e outro usurio.
+     * Estabelece uma relação de paquera entre o usuário autenticado e outro usuário.
      * <p>
      * <b>Comportamento principal:</b>
      * <ul>
-     *   <li>Valida a sesso do usurio solicitante</li>
-     *   <li>Verifica existncia do usurio alvo</li>
-     *   <li>Cria relao unilateral de paquera</li>
-     *   <li>Notifica ambos usurios em caso de paquera mtua</li>
+     *   <li>Valida a sessão do usuário solicitante</li>
+     *   <li>Verifica existência do usuário alvo</li>
+     *   <li>Cria relação unilateral de paquera</li>
+     *   <li>Notifica ambos usuários em caso de paquera mútua</li>
      * </ul>
      *
      * <p><b>Comportamento especial:</b>
      * <ul>
-     *   <li>Gera mensagem automtica do sistema para ambos usurios em caso de match mtuo</li>
-     *   <li>Verifica relaes de inimizade antes de criar a paquera</li>
-     *   <li>Armazena histrico de paqueras para sugestes futuras</li>
+     *   <li>Gera mensagem automática do sistema para ambos usuários em caso de match mútuo</li>
+     *   <li>Verifica relações de inimizade antes de criar a paquera</li>
+     *   <li>Armazena histórico de paqueras para sugestões futuras</li>
      * </ul>
      *
-     * @param idSessao ID da sesso vlida do usurio que est paquerando
-     * @param paquera Login do usurio sendo paquerado
-     * @throws SessaoInvalidaExecption Se a sesso for invlida ou expirada
-     * @throws UsuarioNaoEncontradoException Se o usurio alvo no existir
-     * @throws UsuarioJaEhPaqueraException Se j existir relao de paquera
+     * @param idSessao ID da sessão válida do usuário que está paquerando
+     * @param paquera Login do usuário sendo paquerado
+     * @throws SessaoInvalidaExecption Se a sessão for inválida ou expirada
+     * @throws UsuarioNaoEncontradoException Se o usuário alvo não existir
+     * @throws UsuarioJaEhPaqueraException Se já existir relação de paquera
      * @throws PaqueraDeSiException Se tentar paquerar a si mesmo
-     * @throws InimigoException Se existir relao de inimizade entre os usurios
+     * @throws InimigoException Se existir relação de inimizade entre os usuários
      *
      * @see #getPaqueras(String) Para consultar paqueras existentes
-     * @see #ehPaquera(String, String) Para verificar relao de paquera
-     * @see InimigoException Para detalhes sobre relaes de inimizade
+     * @see #ehPaquera(String, String) Para verificar relação de paquera
+     * @see InimigoException Para detalhes sobre relações de inimizade
      *
      * <p><b>Exemplo de uso:</b></p>
      * <pre>{@code
@@ -671,82 +697,88 @@ public class Facade implements Serializable {
     public void adicionarPaquera(String idSessao, String paquera)
             throws SessaoInvalidaExecption, UsuarioNaoEncontradoException,
             UsuarioJaEhPaqueraException, AmigoDeSiException, PaqueraDeSiException, InimigoException {
-        jackut.adicionarPaquera(idSessao, paquera); // Passa o idSessao
+        jackut.escreverNaSessao(idSessao, paquera, () -> {
+            jackut.adicionarPaquera(idSessao, paquera); // Passa o idSessao
+            return null;
+        });
     }
 
 
     /**
-     * Recupera o login do usurio associado a uma sesso ativa aps validaes rigorosas.
+     * Recupera o login do usuário associado a uma sessão ativa após validações rigorosas.
      * <p>
-     * Validaes realizadas:
+     * Validações realizadas:
      * <ul>
-     *   <li>Verifica formato bsico do ID de sesso (no nulo/no vazio)</li>
-     *   <li>Consulta o registro de sesses ativas</li>
-     *   <li>Confirma existncia do usurio na base de dados</li>
+     *   <li>Verifica formato básico do ID de sessão (não nulo/não vazio)</li>
+     *   <li>Consulta o registro de sessões ativas</li>
+     *   <li>Confirma existência do usuário na base de dados</li>
      * </ul>
      *
-     * @param idSessao ID nico da sesso (formato UUID)
-     * @return Login do usurio associado  sesso (case-sensitive)
+     * @param idSessao ID único da sessão (formato UUID)
+     * @return Login do usuário associado à sessão (case-sensitive)
      * @throws SessaoInvalidaExecption Se:
      * <ul>
-     *   <li>ID da sesso for nulo</li>
-     *   <li>ID da sesso estiver vazio</li>
-     *   <li>Sesso no estiver registrada</li>
+     *   <li>ID da sessão for nulo</li>
+     *   <li>ID da sessão estiver vazio</li>
+     *   <li>Sessão não estiver registrada</li>
      * </ul>
-     * @throws UsuarioNaoEncontradoException Se o usurio associado  sesso no existir no sistema
+     * @throws UsuarioNaoEncontradoException Se o usuário associado à sessão não existir no sistema
      *
-     * <p><b>Fluxo de validao:</b>
+     * <p><b>Fluxo de validação:</b>
      * <ol>
-     *   <li>Validao sinttica do ID da sesso</li>
-     *   <li>Consulta ao mapa de sesses ativas</li>
-     *   <li>Verificao de existncia do usurio</li>
+     *   <li>Validação sintática do ID da sessão</li>
+     *   <li>Consulta ao mapa de sessões ativas</li>
+     *   <li>Verificação de existência do usuário</li>
      * </ol>
      *
-     * @see #abrirSessao(String, String) Para entender como as sesses so criadas
-     * @see Jackut#getSessoes() Para acessar o mapa completo de sesses
+     * @see #abrirSessao(String, String) Para entender como as sessões são criadas
+     * @see Jackut#getSessoes() Para acessar o repositório de sessões
      */
     public String getLoginPorSessao(String idSessao)
             throws SessaoInvalidaExecption, UsuarioNaoEncontradoException {
         if (idSessao == null || idSessao.isEmpty())
             throw new SessaoInvalidaExecption();
-        String login = jackut.getSessoes().get(idSessao);
-        if (login == null || !jackut.getUsuarios().containsKey(login))
+        String login = jackut.getSessoes().getLogin(idSessao);
+        if (login == null || !jackut.getUsuarios().existe(login))
             throw new UsuarioNaoEncontradoException();
         return login;
     }
 
 
     /**
-     * Remove permanentemente o usurio associado  sesso fornecida do sistema.
+     * Remove permanentemente o usuário associado à sessão fornecida do sistema.
      * <p>
      * <b>Comportamento detalhado:</b>
      * <ul>
-     *   <li>Valida a sesso atravs do ID fornecido</li>
-     *   <li>Remove todos os dados do usurio (relacionamentos, mensagens, comunidades)</li>
-     *   <li>Invalida a sesso utilizada na operao</li>
+     *   <li>Valida a sessão através do ID fornecido</li>
+     *   <li>Remove todos os dados do usuário (relacionamentos, mensagens, comunidades)</li>
+     *   <li>Invalida a sessão utilizada na operação</li>
      * </ul>
      *
-     * <p><b>Nota especial:</b> Se a sesso for invlida (expirada/no existente),
-     * assume-se que o usurio j foi removido anteriormente e lana {@code UsuarioNaoEncontradoException}</p>
+     * <p><b>Nota especial:</b> Se a sessão for inválida (expirada/não existente),
+     * assume-se que o usuário já foi removido anteriormente e lança {@code UsuarioNaoEncontradoException}</p>
      *
-     * @param idSessao ID da sesso ativa do usurio que ser removido (formato UUID)
-     * @throws SessaoInvalidaExecption Se o ID de sesso for invlido, inexistente ou expirado
+     * @param idSessao ID da sessão ativa do usuário que será removido (formato UUID)
+     * @throws SessaoInvalidaExecption Se o ID de sessão for inválido, inexistente ou expirado
      * @throws UsuarioNaoEncontradoException Se:
      * <ul>
-     *   <li>No existir usurio associado  sesso</li>
-     *   <li>A sesso estiver invlida (tratado como usurio no encontrado)</li>
+     *   <li>Não existir usuário associado à sessão</li>
+     *   <li>A sessão estiver inválida (tratado como usuário não encontrado)</li>
      * </ul>
      *
-     * @see Jackut#removerUsuario(String) Para detalhes da implementao no subsistema
-     * @see #getLoginPorSessao(String) Mtodo relacionado para obteno de login a partir da sesso
+     * @see Jackut#removerUsuario(String) Para detalhes da implementação no subsistema
+     * @see #getLoginPorSessao(String) Método relacionado para obtenção de login a partir da sessão
      */
     public void removerUsuario(String idSessao) throws SessaoInvalidaExecption, UsuarioNaoEncontradoException {
-        try {
-            String login = jackut.getLoginPorSessao(idSessao);
-            jackut.removerUsuario(login);
-        } catch (SessaoInvalidaExecption e) {
-            // Se a sesso  invlida, verificar se o usurio j foi removido
-            throw new UsuarioNaoEncontradoException();
-        }
+        jackut.escrever(() -> {
+            try {
+                String login = jackut.getLoginPorSessao(idSessao);
+                jackut.removerUsuario(login);
+            } catch (SessaoInvalidaExecption e) {
+                // Se a sessão é inválida, verificar se o usuário já foi removido
+                throw new UsuarioNaoEncontradoException();
+            }
+            return null;
+        });
     }
 }
\ No newline at end of file
@@ -1,39 +1,43 @@
 package br.ufal.ic.p2.jackut.Interfaces;
 
+import br.ufal.ic.p2.jackut.Comunidade;
 import br.ufal.ic.p2.jackut.Exceptions.*;
+import br.ufal.ic.p2.jackut.Componentes.LapidesUsuarios;
+import br.ufal.ic.p2.jackut.Persistencia.RegistroAlteracoes;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Interface para gerenciamento de comunidades no sistema Jackut.
  * <p>
- * Define operaes para:
+ * Define operações para:
  * <ul>
- *   <li>Criao e remoo de comunidades</li>
- *   <li>Gesto de membros</li>
- *   <li>Consulta de informaes comunitrias</li>
+ *   <li>Criação e remoção de comunidades</li>
+ *   <li>Gestão de membros</li>
+ *   <li>Consulta de informações comunitárias</li>
  *   <li>Controle de propriedade</li>
  * </ul>
  *
- * <p>Lana excees especficas para casos de comunidades duplicadas, inexistentes e membros j cadastrados.</p>
+ * <p>Lança exceções específicas para casos de comunidades duplicadas, inexistentes e membros já cadastrados.</p>
  */
 
 public interface IGerenciadorComunidades {
     /**
-     * Cria uma nova comunidade com nome nico e dados bsicos.
+     * Cria uma nova comunidade com nome único e dados básicos.
      *
-     * @param nome Nome nico da comunidade (case-sensitive)
-     * @param descricao Descrio detalhada da comunidade
-     * @param dono Login do usurio fundador
-     * @throws ComunidadeJaExisteException Se o nome j estiver em uso
+     * @param nome Nome único da comunidade (case-sensitive)
+     * @param descricao Descrição detalhada da comunidade
+     * @param dono Login do usuário fundador
+     * @throws ComunidadeJaExisteException Se o nome já estiver em uso
      */
     void criarComunidade(String nome, String descricao, String dono) throws ComunidadeJaExisteException;
 
     /**
-     * Recupera a descrio de uma comunidade existente.
+     * Recupera a descrição de uma comunidade existente.
      *
      * @param nome Nome da comunidade (case-sensitive)
-     * @return Descrio original cadastrada
-     * @throws ComunidadeNaoExisteException Se a comunidade no existir
+     * @return Descrição original cadastrada
+     * @throws ComunidadeNaoExisteException Se a comunidade não existir
      */
     String getDescricao(String nome) throws ComunidadeNaoExisteException;
 
@@ -41,8 +45,8 @@ public interface IGerenciadorComunidades {
      * Lista todos os membros de uma comunidade.
      *
      * @param nome Nome da comunidade (case-sensitive)
-     * @return Lista imutvel de logins dos membros (ordem alfabtica)
-     * @throws ComunidadeNaoExisteException Se a comunidade no existir
+     * @return Lista imutável de logins dos membros (ordem alfabética)
+     * @throws ComunidadeNaoExisteException Se a comunidade não existir
      */
     List<String> getMembros(String nome) throws ComunidadeNaoExisteException;
 
@@ -50,55 +54,141 @@ public interface IGerenciadorComunidades {
      * Identifica o criador/dono de uma comunidade.
      *
      * @param nome Nome da comunidade (case-sensitive)
-     * @return Login do usurio fundador
-     * @throws ComunidadeNaoExisteException Se a comunidade no existir
+     * @return Login do usuário fundador
+     * @throws ComunidadeNaoExisteException Se a comunidade não existir
      */
     String getDono(String nome) throws ComunidadeNaoExisteException;
 
     /**
-     * Verifica existncia de uma comunidade pelo nome.
+     * Verifica existência de uma comunidade pelo nome.
      *
      * @param nome Nome exato da comunidade (case-sensitive)
-     * @return true se a comunidade existir, false caso contrrio
+     * @return true se a comunidade existir, false caso contrário
      */
     boolean existeComunidade(String nome);
 
     /**
-     * Adiciona um usurio como membro de uma comunidade.
+     * Adiciona um usuário como membro de uma comunidade.
      *
      * @param comunidade Nome da comunidade alvo (case-sensitive)
-     * @param membro Login do usurio a ser adicionado (case-sensitive)
-     * @throws ComunidadeNaoExisteException Se a comunidade no existir
-     * @throws MembroJaExisteException Se o usurio j for membro
+     * @param membro Login do usuário a ser adicionado (case-sensitive)
+     * @throws ComunidadeNaoExisteException Se a comunidade não existir
+     * @throws MembroJaExisteException Se o usuário já for membro
      */
     void adicionarmembro(String comunidade, String membro) throws ComunidadeNaoExisteException, MembroJaExisteException;
 
+    /**
+     * Envia uma mensagem a todos os membros atuais de uma comunidade.
+     *
+     * @param comunidade Nome da comunidade de destino (case-sensitive)
+     * @param mensagem Texto da mensagem
+     * @return Número de sequência global atribuído à mensagem
+     * @throws ComunidadeNaoExisteException Se a comunidade não existir
+     */
+    long publicarMensagem(String comunidade, String mensagem) throws ComunidadeNaoExisteException;
+
+    /**
+     * Localiza a comunidade com a mensagem pendente mais antiga de um usuário.
+     *
+     * @param login Login do usuário (case-sensitive)
+     * @return Comunidade, ou null se o usuário não tiver mensagens pendentes nos registros
+     */
+    Comunidade getComunidadeComMensagem(String login);
+
+    /**
+     * Consome a mensagem pendente mais antiga de um usuário entre todas as suas comunidades,
+     * se ela tiver sido enviada antes de um limite.
+     *
+     * @param login Login do usuário (case-sensitive)
+     * @param limite Número de sequência a partir do qual as mensagens não são consumidas
+     * @return Texto da mensagem, ou null se o usuário não tiver mensagens pendentes anteriores ao limite
+     */
+    String retirarMensagem(String login, long limite);
+
     /**
      * Lista todas as comunidades registradas no sistema.
      *
-     * @return Lista imutvel de nomes de comunidades (ordem alfabtica)
+     * @return Lista imutável de nomes de comunidades (ordem alfabética)
      */
     List<String> getComunidades();
 
     /**
-     * Lista comunidades das quais um usurio  membro.
+     * Lista comunidades das quais um usuário é membro.
      *
-     * @param usuario Login do usurio (case-sensitive)
-     * @return Lista imutvel de nomes de comunidades (ordem alfabtica)
+     * @param usuario Login do usuário (case-sensitive)
+     * @return Lista imutável de nomes de comunidades (ordem alfabética)
      */
     List<String> getComunidadesDoUsuario(String usuario);
 
 
     /**
-     * Remove um usurio de todas as comunidades.
+     * Remove um usuário de todas as comunidades.
      * <p>
      * Comportamento:
      * <ul>
-     *   <li>Retira o usurio de todas as listas de membros</li>
-     *   <li>Transfere propriedade se o usurio for dono de comunidades</li>
+     *   <li>Retira o usuário de todas as listas de membros</li>
+     *   <li>Transfere propriedade se o usuário for dono de comunidades</li>
      * </ul>
      *
-     * @param login Login do usurio a ser removido (case-sensitive)
+     * @param login Login do usuário a ser removido (case-sensitive)
      */
     void removerUsuario(String login);
+
+    /**
+     * Remove as comunidades das quais um usuário é dono.
+     *
+     * @param dono Login do usuário removido (case-sensitive)
+     */
+    void removerComunidadesDoDono(String dono);
+
+    /**
+     * Retira um usuário das listas de membros de todas as comunidades.
+     *
+     * @param login Login do usuário removido (case-sensitive)
+     */
+    void removerMembro(String login);
+
+    /**
+     * Lista os objetos de todas as comunidades registradas, para gravação de snapshots.
+     *
+     * @return Visão não modificável das comunidades
+     */
+    Collection<Comunidade> getRegistrosComunidades();
+
+    /**
+     * Registra uma comunidade lida de um snapshot, sem validações.
+     *
+     * @param comunidade Comunidade já com membros e mensagens restaurados
+     */
+    void restaurarComunidade(Comunidade comunidade);
+
+    /**
+     * Obtém o objeto de uma comunidade, para gravação de snapshots incrementais.
+     *
+     * @param nome Nome da comunidade (case-sensitive)
+     * @return Comunidade registrada ou null se não existir
+     */
+    Comunidade getRegistroComunidade(String nome);
+
+    /**
+     * Descarta uma comunidade removida em um snapshot incremental, sem validações.
+     *
+     * @param nome Nome da comunidade (case-sensitive)
+     */
+    void descartarComunidade(String nome);
+
+    /**
+     * Define onde as comunidades criadas, alteradas ou removidas devem ser marcadas.
+     *
+     * @param alteracoes Registro de alterações do sistema
+     */
+    void setRegistroAlteracoes(RegistroAlteracoes alteracoes);
+
+    /**
+     * Define as lápides consultadas pelas comunidades registradas e pelas consultas de
+     * comunidades de um usuário.
+     *
+     * @param lapides Lápides dos usuários removidos desta instância do sistema
+     */
+    void setLapides(LapidesUsuarios lapides);
 }
\ No newline at end of file
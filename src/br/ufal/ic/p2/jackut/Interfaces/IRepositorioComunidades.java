@@ -0,0 +1,61 @@
+package br.ufal.ic.p2.jackut.Interfaces;
+
+import br.ufal.ic.p2.jackut.Comunidade;
+import java.util.Collection;
+
+/**
+ * Repositório dos registros de comunidade do sistema Jackut (nome -> {@link Comunidade}).
+ * <p>
+ * Usado por {@link IGerenciadorComunidades}, que concentra as regras de negócio; o
+ * repositório apenas guarda e localiza as comunidades.
+ * </p>
+ */
+public interface IRepositorioComunidades {
+    /**
+     * Obtém uma comunidade para leitura ou alteração.
+     *
+     * @param nome Nome da comunidade (case-sensitive)
+     * @return Instância viva da comunidade ou null se não existir
+     */
+    Comunidade buscar(String nome);
+
+    /**
+     * @param nome Nome da comunidade (case-sensitive)
+     * @return true se a comunidade existir
+     */
+    boolean existe(String nome);
+
+    /**
+     * Registra uma comunidade, substituindo o registro anterior de mesmo nome.
+     *
+     * @param comunidade Comunidade a ser registrada
+     */
+    void salvar(Comunidade comunidade);
+
+    /**
+     * Remove uma comunidade.
+     *
+     * @param nome Nome da comunidade (case-sensitive)
+     */
+    void remover(String nome);
+
+    /**
+     * @return Cópia dos nomes das comunidades no momento da chamada
+     */
+    Collection<String> getNomes();
+
+    /**
+     * @return Visão não modificável das comunidades registradas
+     */
+    Collection<Comunidade> getComunidades();
+
+    /**
+     * @return Quantidade de comunidades registradas
+     */
+    int quantidade();
+
+    /**
+     * Remove todas as comunidades.
+     */
+    void limpar();
+}
@@ -0,0 +1,126 @@
+package br.ufal.ic.p2.jackut.Interfaces;
+
+import br.ufal.ic.p2.jackut.Componentes.LapidesUsuarios;
+import br.ufal.ic.p2.jackut.Exceptions.SemMensagemException;
+import br.ufal.ic.p2.jackut.Mensagem;
+import java.util.Collection;
+
+/**
+ * Repositório das caixas de entrada dos usuários do sistema Jackut: recados recebidos e
+ * mensagens de comunidade ainda não lidos.
+ * <p>
+ * As caixas são filas: cada leitura devolve e remove o item mais antigo. O repositório não
+ * valida usuários nem relacionamentos; essas regras ficam no sistema, que também marca o
+ * usuário como alterado antes de cada operação de escrita.
+ * </p>
+ */
+public interface IRepositorioRecados {
+    /**
+     * Entrega um recado na caixa de um usuário.
+     *
+     * @param destinatario Login do destinatário
+     * @param remetente Login do remetente
+     * @param recado Conteúdo do recado
+     */
+    void depositarRecado(String destinatario, String remetente, String recado);
+
+    /**
+     * Lê e remove o recado mais antigo de um usuário.
+     *
+     * @param login Login do usuário
+     * @return Conteúdo do recado ou null se não houver recados
+     */
+    String retirarRecado(String login);
+
+    /**
+     * Verifica se um usuário tem recado a ler, sem retirá-lo.
+     *
+     * @param login Login do usuário
+     * @return true se {@link #retirarRecado(String)} devolveria um recado
+     */
+    boolean possuiRecado(String login);
+
+    /**
+     * Lista os recados não lidos de um usuário, do mais antigo para o mais recente.
+     * <p>
+     * Usado pelas gravações de snapshot: não altera o conjunto de usuários residentes.
+     * </p>
+     *
+     * @param login Login do usuário
+     * @return Recados não modificáveis
+     */
+    Collection<Mensagem> listarRecados(String login);
+
+    /**
+     * Verifica se a caixa de um usuário contém recados de um remetente.
+     *
+     * @param login Login do dono da caixa
+     * @param remetente Login do remetente
+     * @return true se houver ao menos um recado do remetente
+     */
+    boolean possuiRecadosDe(String login, String remetente);
+
+    /**
+     * Conta os recados não lidos de um remetente na caixa de um usuário.
+     *
+     * @param login Login do dono da caixa
+     * @param remetente Login do remetente
+     * @return Quantidade de recados do remetente
+     */
+    int contarRecadosDe(String login, String remetente);
+
+    /**
+     * Remove da caixa de um usuário todos os recados enviados por um remetente, isto é, a
+     * conversa com ele. Caixas sem recados do remetente não são percorridas.
+     *
+     * @param login Login do dono da caixa
+     * @param remetente Login do remetente
+     */
+    void removerRecadosDe(String login, String remetente);
+
+    /**
+     * Entrega uma mensagem de comunidade na caixa de um membro, em ordem de envio.
+     *
+     * @param login Login do membro
+     * @param sequencia Número de sequência global da mensagem
+     * @param mensagem Conteúdo da mensagem
+     */
+    void depositarMensagemComunidade(String login, long sequencia, String mensagem);
+
+    /**
+     * Consulta o número de sequência da mensagem de comunidade mais antiga na caixa de um usuário.
+     *
+     * @param login Login do usuário
+     * @return Número de sequência, ou -1 se a caixa não tiver mensagens de comunidade
+     */
+    long getSequenciaMensagemComunidade(String login);
+
+    /**
+     * Lê e remove a mensagem de comunidade mais antiga de um usuário.
+     *
+     * @param login Login do usuário
+     * @return Conteúdo da mensagem
+     * @throws SemMensagemException Se não houver mensagens disponíveis
+     */
+    String retirarMensagemComunidade(String login) throws SemMensagemException;
+
+    /**
+     * Descarta a caixa de um usuário removido.
+     *
+     * @param login Login do usuário
+     */
+    void removerCaixa(String login);
+
+    /**
+     * Descarta todas as caixas.
+     */
+    void limpar();
+
+    /**
+     * Define as lápides da instância do sistema: os recados de remetentes com lápide são
+     * descartados na leitura.
+     *
+     * @param lapides Lápides dos usuários removidos
+     */
+    void setLapides(LapidesUsuarios lapides);
+}
@@ -0,0 +1,58 @@
+package br.ufal.ic.p2.jackut.Interfaces;
+
+import java.util.Collection;
+
+/**
+ * Repositório das sessões ativas do sistema Jackut.
+ * <p>
+ * Cada usuário tem no máximo uma sessão ativa; a sessão é consultada tanto pelo seu
+ * identificador (validação de operações) quanto pelo login (gravação de snapshots).
+ * </p>
+ */
+public interface IRepositorioSessoes {
+    /**
+     * Obtém o usuário de uma sessão.
+     *
+     * @param idSessao ID da sessão
+     * @return Login do usuário ou null se a sessão não existir
+     */
+    String getLogin(String idSessao);
+
+    /**
+     * Obtém a sessão ativa de um usuário.
+     *
+     * @param login Login do usuário
+     * @return ID da sessão ou null se o usuário não tiver sessão ativa
+     */
+    String getSessao(String login);
+
+    /**
+     * Registra a sessão de um usuário, encerrando a sua sessão anterior se houver.
+     *
+     * @param idSessao ID da nova sessão
+     * @param login Login do usuário
+     */
+    void registrar(String idSessao, String login);
+
+    /**
+     * Encerra a sessão ativa de um usuário, se houver.
+     *
+     * @param login Login do usuário
+     */
+    void encerrar(String login);
+
+    /**
+     * @return Cópia dos logins com sessão ativa no momento da chamada
+     */
+    Collection<String> getLogins();
+
+    /**
+     * @return Quantidade de sessões ativas
+     */
+    int quantidade();
+
+    /**
+     * Encerra todas as sessões.
+     */
+    void limpar();
+}
@@ -0,0 +1,100 @@
+package br.ufal.ic.p2.jackut.Interfaces;
+
+import br.ufal.ic.p2.jackut.Componentes.LapidesUsuarios;
+import br.ufal.ic.p2.jackut.Users;
+import java.util.Collection;
+
+/**
+ * Repositório dos registros de usuário do sistema Jackut (login -> {@link Users}).
+ * <p>
+ * Isola o sistema da forma de armazenamento dos usuários: todo o heap, um conjunto
+ * residente limitado com os demais usuários fora do heap, ou em disco.
+ * </p>
+ *
+ * <p>O objeto devolvido por {@link #buscar(String)} é a instância viva do usuário e deve ser
+ * alterado diretamente. Antes de cada alteração, o usuário deve ser anunciado por
+ * {@link #marcarAlterado(String)}, para que implementações que mantêm os usuários fora do heap
+ * não descartem a alteração.</p>
+ */
+public interface IRepositorioUsuarios {
+    /**
+     * Obtém um usuário para leitura ou alteração.
+     *
+     * @param login Login do usuário (case-sensitive)
+     * @return Instância viva do usuário ou null se não existir
+     */
+    Users buscar(String login);
+
+    /**
+     * Obtém um usuário para leitura, sem alterar o conjunto de usuários residentes.
+     * <p>
+     * Usado pelas gravações de snapshot, que percorrem todos os usuários.
+     * </p>
+     *
+     * @param login Login do usuário (case-sensitive)
+     * @return Usuário ou null se não existir; não deve ser alterado
+     */
+    Users consultar(String login);
+
+    /**
+     * Verifica se um usuário existe, sem carregá-lo.
+     *
+     * @param login Login do usuário (case-sensitive)
+     * @return true se o usuário estiver registrado
+     */
+    boolean existe(String login);
+
+    /**
+     * Registra um usuário, substituindo o registro anterior de mesmo login.
+     *
+     * @param usuario Usuário a ser registrado
+     */
+    void salvar(Users usuario);
+
+    /**
+     * Remove um usuário.
+     *
+     * @param login Login do usuário (case-sensitive)
+     */
+    void remover(String login);
+
+    /**
+     * Anuncia que um usuário está para ser alterado.
+     *
+     * @param login Login do usuário (case-sensitive)
+     */
+    void marcarAlterado(String login);
+
+    /**
+     * Lista os logins registrados, sem carregar os usuários.
+     *
+     * @return Cópia dos logins no momento da chamada
+     */
+    Collection<String> getLogins();
+
+    /**
+     * @return Quantidade de usuários registrados
+     */
+    int quantidade();
+
+    /**
+     * Remove todos os usuários.
+     */
+    void limpar();
+
+    /**
+     * Indica se usuários diferentes podem ser buscados e alterados por threads diferentes ao
+     * mesmo tempo. Caso contrário, o sistema executa as operações uma de cada vez.
+     *
+     * @return true se o repositório permite alterações concorrentes de usuários diferentes
+     */
+    boolean permiteAlteracoesConcorrentes();
+
+    /**
+     * Define as lápides da instância do sistema, ligadas a cada usuário registrado ou lido
+     * ({@link Users#setLapides(LapidesUsuarios)}).
+     *
+     * @param lapides Lápides dos usuários removidos
+     */
+    void setLapides(LapidesUsuarios lapides);
+}
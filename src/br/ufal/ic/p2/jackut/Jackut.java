@@ -1,309 +1,903 @@
 
 package br.ufal.ic.p2.jackut;
 
+import br.ufal.ic.p2.jackut.Componentes.BalanceadorParticoes;
+import br.ufal.ic.p2.jackut.Componentes.DicionarioUsuarios;
+import br.ufal.ic.p2.jackut.Componentes.DistribuicaoMensagens;
+import br.ufal.ic.p2.jackut.Componentes.EntregaMensagens;
+import br.ufal.ic.p2.jackut.Componentes.ExpurgoUsuarios;
 import br.ufal.ic.p2.jackut.Componentes.GerenciadorAmizades;
 import br.ufal.ic.p2.jackut.Componentes.GerenciadorComunidades;
+import br.ufal.ic.p2.jackut.Componentes.IndiceReferencias;
+import br.ufal.ic.p2.jackut.Componentes.LapidesUsuarios;
+import br.ufal.ic.p2.jackut.Componentes.LogMensagens;
+import br.ufal.ic.p2.jackut.Componentes.MetricasDistribuicao;
+import br.ufal.ic.p2.jackut.Componentes.MetricasExpurgo;
+import br.ufal.ic.p2.jackut.Componentes.ParticoesUsuarios;
+import br.ufal.ic.p2.jackut.Componentes.RepositorioRecadosUsuarios;
+import br.ufal.ic.p2.jackut.Componentes.RepositorioSessoesHeap;
+import br.ufal.ic.p2.jackut.Componentes.RepositorioUsuariosHeap;
+import br.ufal.ic.p2.jackut.Componentes.SequenciadorComandos;
+import br.ufal.ic.p2.jackut.Componentes.TravasUsuarios;
+import br.ufal.ic.p2.jackut.Componentes.VersaoLeitura;
+import br.ufal.ic.p2.jackut.Componentes.VersoesLeitura;
 import br.ufal.ic.p2.jackut.Exceptions.*;
 import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorAmizades;
 import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorComunidades;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioRecados;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioSessoes;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioUsuarios;
+import br.ufal.ic.p2.jackut.Persistencia.Armazenamento;
+import br.ufal.ic.p2.jackut.Persistencia.ArvoreLsm;
+import br.ufal.ic.p2.jackut.Persistencia.CompactadorSnapshot;
+import br.ufal.ic.p2.jackut.Persistencia.GravadorSnapshots;
+import br.ufal.ic.p2.jackut.Persistencia.ImagemSnapshot;
+import br.ufal.ic.p2.jackut.Persistencia.Journal;
+import br.ufal.ic.p2.jackut.Persistencia.JournalOperacoes;
+import br.ufal.ic.p2.jackut.Persistencia.MetricasCache;
+import br.ufal.ic.p2.jackut.Persistencia.RegistroAlteracoes;
+import br.ufal.ic.p2.jackut.Persistencia.SnapshotBinario;
+import br.ufal.ic.p2.jackut.Persistencia.SnapshotLsm;
+import br.ufal.ic.p2.jackut.Persistencia.UsuariosSobDemanda;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Classe principal do sistema Jackut que gerencia usurios, sesses, comunidades e operaes relacionadas.
+ * Classe principal do sistema Jackut que gerencia usuários, sessões, comunidades e operações relacionadas.
  * <p>
- * Responsvel por:
+ * Responsável por:
  * <ul>
- *   <li>Persistncia de dados do sistema</li>
- *   <li>Gesto de autenticao de usurios</li>
- *   <li>Operaes sociais (amizades, paqueras, dolos)</li>
+ *   <li>Persistência de dados do sistema</li>
+ *   <li>Gestão de autenticação de usuários</li>
+ *   <li>Operações sociais (amizades, paqueras, ídolos)</li>
  *   <li>Comunidades e mensagens</li>
  * </ul>
- * Implementa {@link Serializable} para permitir serializao dos dados.
+ * Implementa {@link Serializable} para permitir serialização dos dados.
+ * <p>
+ * Cada escrita é registrada no journal ({@link JournalOperacoes}) e o estado é gravado em
+ * snapshots ({@link GravadorSnapshots}). As operações podem ser chamadas por várias threads
+ * ({@link TravasUsuarios}), ou aplicadas por um sequenciador ({@link SequenciadorComandos}) ou
+ * por partições ({@link ParticoesUsuarios}); com os usuários no heap, as consultas leem uma
+ * versão imutável, sem travas ({@link VersaoLeitura}).
+ * </p>
  */
 public class Jackut implements Serializable{
     private static final long serialVersionUID = 2L;
+    /** Campos do formato serializado, mantidos para a leitura de arquivos antigos */
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("usuarios", Map.class),
+            new ObjectStreamField("sessoes", Map.class),
+            new ObjectStreamField("loginParaSessao", Map.class),
+            new ObjectStreamField("gerenciadorComunidades", IGerenciadorComunidades.class),
+            new ObjectStreamField("gerenciadorAmizades", IGerenciadorAmizades.class),
+            new ObjectStreamField("ultimoLsn", long.class)
+    };
     private static final String ARQUIVO_DADOS = "arquivo.dat";
-
-    /** Mapa de usurios registrados (login -> objeto Users) */
-    private Map<String, Users> usuarios;
-    /** Mapa de sesses ativas (idSessao -> login) */
-    private Map<String, String> sessoes;
-    /** Mapa reverso de sesses (login -> idSessao) */
-    private Map<String, String> loginParaSessao;
+    private static final String ARQUIVO_JOURNAL = "arquivo.journal";
+    private static final String DIRETORIO_LSM = "arquivo.lsm";
+    /** Propriedade com o diretório dos arquivos de dados; por padrão, o diretório atual */
+    private static final String PROPRIEDADE_DIRETORIO = "jackut.diretorio";
+
+    /** Repositório de usuários registrados (login -> objeto Users) */
+    private transient IRepositorioUsuarios usuarios;
+    /** Repositório de sessões ativas (idSessao <-> login) */
+    private transient IRepositorioSessoes sessoes;
+    /** Caixas de entrada de recados e mensagens de comunidade */
+    private transient IRepositorioRecados recados;
     /** Mapa de comunidades (nome -> objeto Comunidade) */
     private transient Map<String, Comunidade> comunidades = new HashMap<>();
-    /** Gerenciador de operaes relacionadas a comunidades */
+    /** Gerenciador de operações relacionadas a comunidades */
     private IGerenciadorComunidades gerenciadorComunidades;
-    /** Gerenciador de operaes relacionadas a amizades */
+    /** Gerenciador de operações relacionadas a amizades */
     private IGerenciadorAmizades gerenciadorAmizades;
+    /** Journal onde as operações de escrita são registradas */
+    private transient JournalOperacoes journal = novoJournal();
+    /** Usuários e comunidades alterados desde o último snapshot gravado */
+    private transient RegistroAlteracoes alteracoes = new RegistroAlteracoes();
+    /** Gravação dos snapshots do estado */
+    private transient GravadorSnapshots snapshots = novoGravador();
+    /** Travas das operações: global e por usuário */
+    private transient TravasUsuarios travas = new TravasUsuarios();
+    /** Versões imutáveis das consultas mais frequentes, se os usuários ficam no heap */
+    private transient VersoesLeitura versoes;
+    /** Usuários que referenciam cada login, consultado na remoção de usuários */
+    private transient IndiceReferencias referencias = new IndiceReferencias();
+    /** Expurgo em segundo plano das referências aos usuários removidos */
+    private transient ExpurgoUsuarios expurgo = novoExpurgo();
+    /** Estratégia de entrega das mensagens de comunidade e leitores recentes */
+    private transient DistribuicaoMensagens distribuicao = new DistribuicaoMensagens();
+    /** Entrega em segundo plano das cópias das mensagens de comunidade nas caixas */
+    private transient EntregaMensagens entregas = novaEntrega();
+    /** Sequenciador das operações de escrita da {@link Facade}, se ativo ({@code jackut.sequenciador}) */
+    private transient SequenciadorComandos sequenciador = novoSequenciador();
+    /** Partições dos usuários com as suas executoras, se ativas ({@code jackut.particoes}) */
+    private transient ParticoesUsuarios particoes;
 
     // ========== CONSTRUTOR ==========
 
     /**
-     * Constri uma nova instncia do sistema Jackut com estruturas de dados vazias.
+     * Constrói uma nova instância do sistema Jackut com estruturas de dados vazias.
      */
     public Jackut() {
-        this.usuarios = new HashMap<>();
-        this.sessoes = new HashMap<>();
-        this.loginParaSessao = new HashMap<>();
+        this(new RepositorioUsuariosHeap());
+    }
+
+    /**
+     * Constrói uma nova instância do sistema Jackut usando o repositório de usuários informado,
+     * com as caixas de recados guardadas nos próprios usuários.
+     *
+     * @param usuarios Repositório de usuários vazio
+     */
+    private Jackut(IRepositorioUsuarios usuarios) {
+        this(usuarios, new RepositorioRecadosUsuarios(usuarios));
+    }
+
+    /**
+     * Constrói uma nova instância do sistema Jackut usando os repositórios informados.
+     *
+     * @param usuarios Repositório de usuários vazio
+     * @param recados Repositório de recados vazio, sobre o mesmo repositório de usuários
+     */
+    private Jackut(IRepositorioUsuarios usuarios, IRepositorioRecados recados) {
+        this.usuarios = usuarios;
+        this.sessoes = new RepositorioSessoesHeap();
+        this.recados = recados;
         this.comunidades = new HashMap<>();
         this.gerenciadorComunidades = new GerenciadorComunidades();
-        this.gerenciadorAmizades = new GerenciadorAmizades(usuarios, sessoes, loginParaSessao);
+        this.gerenciadorAmizades = new GerenciadorAmizades(usuarios, sessoes);
+        this.gerenciadorComunidades.setRegistroAlteracoes(alteracoes);
+        alteracoes.setUsuarios(usuarios);
+        travas.setConcorrente(usuarios.permiteAlteracoesConcorrentes());
+        ligarLapides();
+        configurarVersoes();
+        this.particoes = novasParticoes();
+    }
 
+    // ========== GESTÃO DO SISTEMA ==========
 
+    /**
+     * Executa uma operação de escrita da {@link Facade}, pelo sequenciador de comandos se
+     * estiver ativo ({@link SequenciadorComandos}). As exceções verificadas da operação são
+     * relançadas sem alteração. Depois de uma falha do journal, a operação é recusada.
+     *
+     * @param comando Operação de escrita
+     * @param <T> Tipo do resultado
+     * @return Resultado da operação
+     */
+    public <T> T escrever(SequenciadorComandos.Comando<T> comando) {
+        journal.verificar();
+        try {
+            return sequenciador == null ? comando.executar() : sequenciador.executar(comando);
+        } catch (Exception e) {
+            throw Jackut.<RuntimeException>relancar(e);
+        }
     }
 
+    /**
+     * Executa uma operação de escrita da {@link Facade} iniciada por um usuário. Com as
+     * partições ativas (propriedade {@code jackut.particoes}), a operação é aplicada pela
+     * executora da partição do usuário ({@link ParticoesUsuarios}); caso contrário, é
+     * executada como em {@link #escrever(SequenciadorComandos.Comando)}.
+     *
+     * @param login Login do usuário que inicia a operação, ou null se desconhecido
+     * @param outro Login do outro usuário envolvido, ou null
+     * @param comando Operação de escrita
+     * @param <T> Tipo do resultado
+     * @return Resultado da operação
+     */
+    public <T> T escrever(String login, String outro, SequenciadorComandos.Comando<T> comando) {
+        if (particoes == null) {
+            return escrever(comando);
+        }
+        journal.verificar();
+        try {
+            return particoes.executar(login, outro, comando);
+        } catch (Exception e) {
+            throw Jackut.<RuntimeException>relancar(e);
+        }
+    }
 
-    // ========== GESTO DO SISTEMA ==========
+    /**
+     * Executa uma operação de escrita da {@link Facade} iniciada pelo usuário de uma sessão,
+     * na partição desse usuário ({@link #escrever(String, String, SequenciadorComandos.Comando)}).
+     *
+     * @param idSessao ID da sessão de quem inicia a operação
+     * @param outro Login do outro usuário envolvido, ou null
+     * @param comando Operação de escrita
+     * @param <T> Tipo do resultado
+     * @return Resultado da operação
+     */
+    public <T> T escreverNaSessao(String idSessao, String outro, SequenciadorComandos.Comando<T> comando) {
+        return escrever(particoes == null ? null : sessoes.getLogin(idSessao), outro, comando);
+    }
+
+    /**
+     * Relança uma exceção verificada sem declará-la, para que ela chegue inalterada ao
+     * chamador de {@link #escrever(SequenciadorComandos.Comando)}.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Exception> E relancar(Exception e) throws E {
+        throw (E) e;
+    }
+
+    /**
+     * @return Sequenciador de comandos ativo, ou null se as escritas são diretas
+     */
+    public SequenciadorComandos getSequenciador() {
+        return sequenciador;
+    }
+
+    /**
+     * @return Partições dos usuários ativas, ou null se as operações não são particionadas
+     */
+    public ParticoesUsuarios getParticoes() {
+        return particoes;
+    }
 
     /**
      * Reinicializa completamente o sistema, removendo todos os dados.
      * <p>
-     * Aes realizadas:
+     * Ações realizadas:
      * <ul>
-     *   <li>Limpa usurios, sesses e comunidades</li>
-     *   <li>Remove arquivo de persistncia</li>
+     *   <li>Limpa usuários, sessões e comunidades</li>
+     *   <li>Remove arquivo de persistência</li>
      *   <li>Reinicia gerenciadores</li>
      * </ul>
      */
     public void zerarSistema() {
-        usuarios.clear();
-        sessoes.clear();
-        loginParaSessao.clear();
-        comunidades = new HashMap<>();
-
-        // Reinicializa os gerenciadores
-        this.gerenciadorComunidades = new GerenciadorComunidades();
-        this.gerenciadorAmizades = new GerenciadorAmizades(usuarios, sessoes, loginParaSessao);
-
-        // Remove o arquivo de persistncia
-        File arquivo = new File(ARQUIVO_DADOS);
-        if (arquivo.exists()) {
-            arquivo.delete();
+        TravasUsuarios.Travamento travamento = travas.travarTudo();
+        try {
+            snapshots.aguardar();
+            expurgo.cancelar();
+            entregas.cancelar();
+            usuarios.limpar();
+            sessoes.limpar();
+            recados.limpar();
+            comunidades = new HashMap<>();
+            referencias.limpar();
+            travas.limparRealocacoes();
+
+            // Reinicializa os gerenciadores
+            this.gerenciadorComunidades = new GerenciadorComunidades();
+            this.gerenciadorAmizades = new GerenciadorAmizades(usuarios, sessoes);
+            this.gerenciadorComunidades.setRegistroAlteracoes(alteracoes);
+            this.gerenciadorComunidades.setLapides(expurgo.getLapides());
+
+            // Remove o arquivo de persistência e o journal
+            journal.apagar();
+            snapshots.apagar();
+            if (versoes != null) {
+                versoes.limpar();
+            }
+        } finally {
+            travamento.liberar();
         }
+        encerrarExecutoras();
     }
 
     /**
-     * Carrega o sistema a partir do arquivo de persistncia ou cria nova instncia.
-     * @return Instncia do sistema Jackut
+     * Carrega o sistema a partir do arquivo de persistência ou cria nova instância.
+     * <p>
+     * Lê a árvore LSM ({@link SnapshotLsm}), o snapshot binário ({@link SnapshotBinario}) ou um
+     * arquivo antigo de serialização Java, conforme o {@link Armazenamento} configurado, e
+     * reproduz o journal posterior ao snapshot. Os arquivos ficam no diretório da propriedade
+     * {@code jackut.diretorio}, por padrão o diretório atual.
+     * </p>
+     * <p>
+     * Se os dados existentes não puderem ser lidos, a inicialização é interrompida e os arquivos
+     * são mantidos: um sistema vazio gravaria o seu snapshot por cima deles.
+     * </p>
+     * @return Instância do sistema Jackut
+     * @throws UncheckedIOException Se o snapshot, a árvore LSM ou o arquivo antigo não puderem ser lidos
+     * @throws IllegalStateException Se um registro do journal não puder ser reproduzido
      */
     public static Jackut iniciarSistema() {
-        File arquivo = new File(ARQUIVO_DADOS);
-        if (arquivo.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(ARQUIVO_DADOS))) {
-                return (Jackut) ois.readObject();
-            } catch (IOException | ClassNotFoundException e) {
-                System.err.println("Erro ao carregar dados: " + e.getMessage());
+        Jackut sistema = null;
+        File arquivo = new File(caminho(ARQUIVO_DADOS));
+        ArvoreLsm arvore = abrirArvore();
+        if (arvore != null && SnapshotLsm.possuiEstado(arvore)) {
+            sistema = novoSistema();
+            try {
+                sistema.journal.setUltimoLsn(SnapshotLsm.carregar(arvore, sistema));
+                sistema.snapshots.carregado();
+            } catch (IOException e) {
+                throw falhaAoCarregar(e);
+            }
+        } else if (arquivo.exists() && SnapshotBinario.ehSnapshotBinario(caminho(ARQUIVO_DADOS))) {
+            sistema = novoSistema();
+            try {
+                sistema.journal.setUltimoLsn(SnapshotBinario.carregar(caminho(ARQUIVO_DADOS), sistema));
+                sistema.snapshots.carregado();
+            } catch (IOException e) {
+                throw falhaAoCarregar(e);
             }
+        } else if (arquivo.exists()) {
+            sistema = carregarSerializacaoJava();
+        }
+        if (sistema == null) {
+            sistema = novoSistema();
+        }
+        if (sistema.usuarios.quantidade() > 0) {
+            // O estado lido do arquivo não passou pelas operações que alimentam o índice
+            sistema.referencias.invalidar();
+            sistema.reconstruirVersoes();
+        }
+        if (arvore != null) {
+            sistema.snapshots.setArvore(arvore);
+        }
+        if (sistema.journal.existe()) {
+            sistema.journal.reproduzir(sistema::aplicarRegistro);
         }
-        return new Jackut();
+        if (arvore == null) {
+            CompactadorSnapshot.iniciar(caminho(ARQUIVO_DADOS));
+        }
+        if (Boolean.getBoolean("jackut.particoes.balancear")) {
+            sistema.rebalancearParticoes();
+        }
+        return sistema;
     }
 
+    /**
+     * @param nome Nome de um arquivo de dados do sistema
+     * @return Caminho do arquivo no diretório de dados ({@code jackut.diretorio})
+     */
+    private static String caminho(String nome) {
+        String diretorio = System.getProperty(PROPRIEDADE_DIRETORIO);
+        return diretorio == null ? nome : new File(diretorio, nome).getPath();
+    }
 
     /**
-     * Salva o estado atual do sistema no arquivo de persistncia.
+     * Abre a árvore LSM se o {@link Armazenamento#LSM armazenamento LSM} estiver configurado.
+     * @return Árvore aberta ou null se o armazenamento configurado for outro
+     * @throws UncheckedIOException Se a árvore não puder ser aberta
      */
-    public void encerrarSistema() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(ARQUIVO_DADOS))) {
-            oos.writeObject(this);
+    private static ArvoreLsm abrirArvore() {
+        if (Armazenamento.configurado() != Armazenamento.LSM) {
+            return null;
+        }
+        try {
+            return ArvoreLsm.abrir(new File(caminho(DIRETORIO_LSM)));
+        } catch (IOException e) {
+            throw falhaAoCarregar(e);
+        }
+    }
+
+    /**
+     * Cria um sistema vazio com os repositórios de usuários e de recados configurados
+     * ({@link Armazenamento#configurado()}, {@link Armazenamento#criarRepositorioRecados}).
+     * @return Instância vazia do sistema Jackut
+     */
+    private static Jackut novoSistema() {
+        File diretorio = new File(caminho(ARQUIVO_DADOS)).getAbsoluteFile().getParentFile();
+        IRepositorioUsuarios usuarios = Armazenamento.configurado().criarRepositorioUsuarios(diretorio);
+        return new Jackut(usuarios, Armazenamento.criarRepositorioRecados(usuarios, diretorio));
+    }
+
+    /**
+     * Lê um arquivo de dados no formato antigo (serialização Java), mantido para migração.
+     * @return Sistema lido
+     * @throws UncheckedIOException Se o arquivo não puder ser lido
+     */
+    private static Jackut carregarSerializacaoJava() {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(caminho(ARQUIVO_DADOS))))) {
+            return (Jackut) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw falhaAoCarregar(new IOException(e.getMessage(), e));
         } catch (IOException e) {
-            System.err.println("Erro ao salvar dados: " + e.getMessage());
+            throw falhaAoCarregar(e);
+        }
+    }
+
+    /**
+     * @param causa Erro de leitura dos dados existentes
+     * @return Exceção que interrompe a inicialização sem alterar os arquivos
+     */
+    private static UncheckedIOException falhaAoCarregar(IOException causa) {
+        return new UncheckedIOException("Erro ao carregar dados (arquivos mantidos): " + causa.getMessage(), causa);
+    }
+
+    /**
+     * Salva o estado atual do sistema no arquivo de persistência.
+     * <p>
+     * Grava um delta com os registros alterados desde o snapshot em disco ou, sem base para
+     * ele, o snapshot completo ({@link GravadorSnapshots}). Após a gravação, o journal é descartado.
+     * </p>
+     */
+    public void encerrarSistema() {
+        TravasUsuarios.Travamento travamento = travas.travarTudo();
+        try {
+            snapshots.aguardar();
+            expurgo.concluirTodos();
+            try {
+                snapshots.gravar();
+            } catch (IOException e) {
+                System.err.println("Erro ao salvar dados: " + e.getMessage());
+            }
+        } finally {
+            travamento.liberar();
+        }
+        encerrarExecutoras();
+    }
+
+    /**
+     * Termina a thread escritora do sequenciador e as executoras das partições, que deixariam
+     * esta instância sempre alcançável. Um comando enviado depois disso as inicia de novo.
+     */
+    private void encerrarExecutoras() {
+        if (sequenciador != null) {
+            sequenciador.encerrar();
+        }
+        if (particoes != null) {
+            particoes.encerrar();
+        }
+    }
+
+    /**
+     * Obtém as métricas do conjunto de usuários residentes no heap.
+     *
+     * @return Métricas de acertos, faltas e despejos, ou null se os usuários não são
+     *         carregados sob demanda
+     */
+    public MetricasCache getMetricasCache() {
+        return usuarios instanceof UsuariosSobDemanda ? ((UsuariosSobDemanda) usuarios).getMetricas() : null;
+    }
+
+    /**
+     * Obtém as métricas do expurgo em segundo plano dos usuários removidos.
+     *
+     * @return Métricas de pendência e progresso do expurgo
+     */
+    public MetricasExpurgo getMetricasExpurgo() {
+        return expurgo.getMetricas();
+    }
+
+    /**
+     * Obtém as métricas de entrega das mensagens de comunidade.
+     *
+     * @return Envios, cópias entregues, amplificação de escrita, latências por estratégia e
+     *         atraso das entregas em segundo plano
+     */
+    public MetricasDistribuicao getMetricasDistribuicao() {
+        return distribuicao.getMetricas();
+    }
+
+    /**
+     * Migra usuários entre as partições ({@link ParticoesUsuarios}) para que amigos, fãs e
+     * ídolos fiquem na mesma partição, reduzindo as operações entre partições.
+     * <p>
+     * As partições de destino são calculadas sobre a versão de leitura atual
+     * ({@link BalanceadorParticoes}), sem interromper as operações; apenas a migração, que
+     * troca a listra dos usuários migrados, adquire a trava global exclusiva. As partições
+     * escolhidas não são gravadas: com a propriedade {@code jackut.particoes.balancear}, o
+     * balanceamento é refeito ao iniciar o sistema, depois de o estado ser carregado.
+     * </p>
+     *
+     * @return Proporção de relacionamentos entre partições antes e depois e usuários migrados,
+     *         ou null se as partições não estão ativas
+     */
+    public BalanceadorParticoes.Resultado rebalancearParticoes() {
+        VersaoLeitura versao = getVersaoLeitura();
+        if (particoes == null || versao == null) {
+            return null;
+        }
+        BalanceadorParticoes.Resultado resultado = new BalanceadorParticoes(particoes).calcular(versao);
+        TravasUsuarios.Travamento travamento = travas.travarTudo();
+        try {
+            particoes.migrar(resultado.getDestinos());
+        } finally {
+            travamento.liberar();
+        }
+        return resultado;
+    }
+
+    /**
+     * Entrega imediatamente, na thread do chamador, todas as cópias de mensagens de comunidade
+     * ainda pendentes nas caixas dos membros.
+     * <p>
+     * As leituras já devolvem as mensagens na ordem de envio antes da entrega das cópias; este
+     * método serve para observar as caixas em um estado determinado, por exemplo em testes.
+     * </p>
+     */
+    public void aguardarEntregas() {
+        TravasUsuarios.Travamento travamento = travas.travarTudo();
+        try {
+            entregas.concluirTodas();
+        } finally {
+            travamento.liberar();
         }
     }
 
     /**
-     * Mtodo chamado durante a desserializao para reconfigurar os campos transient
-     * e garantir a consistncia interna do objeto aps a leitura.
+     * Inicia a gravação de um snapshot completo em segundo plano, sem interromper as operações.
      * <p>
-     * Executa a desserializao padro e ento:
+     * O snapshot reflete o estado no instante da chamada ({@link ImagemSnapshot}), depois de
+     * concluídos os expurgos pendentes. Se já houver um snapshot em gravação, nenhum outro é
+     * iniciado. No armazenamento LSM, os registros alterados são gravados imediatamente.
+     * </p>
+     *
+     * @return Conclusão da gravação
+     */
+    public CompletableFuture<Void> gravarSnapshotOnline() {
+        TravasUsuarios.Travamento travamento = travas.travarTudo();
+        try {
+            CompletableFuture<Void> emAndamento = snapshots.emAndamento();
+            if (emAndamento != null) {
+                return emAndamento;
+            }
+            snapshots.aguardar();
+            expurgo.concluirTodos();
+            return snapshots.gravarOnline(() -> new ImagemSnapshot(usuarios, sessoes, recados, gerenciadorComunidades));
+        } finally {
+            travamento.liberar();
+        }
+    }
+
+    // ========== JOURNAL ==========
+
+    /**
+     * Sincroniza com o disco os registros pendentes do journal. Executado ao fim de cada
+     * lote do sequenciador e das partições; após o retorno, todas as operações concluídas
+     * antes da chamada são duráveis.
+     *
+     * @throws UncheckedIOException Se o journal não puder ser sincronizado
+     */
+    public void confirmarJournal() {
+        journal.confirmar();
+    }
+
+    /**
+     * @return Gravação dos snapshots no diretório de dados
+     */
+    private GravadorSnapshots novoGravador() {
+        return new GravadorSnapshots(this, () -> caminho(ARQUIVO_DADOS), journal, alteracoes);
+    }
+
+    /**
+     * @return Journal aberto sob demanda no diretório de dados
+     */
+    private static JournalOperacoes novoJournal() {
+        return new JournalOperacoes(() -> caminho(ARQUIVO_JOURNAL));
+    }
+
+    /**
+     * Aplica um registro do journal executando novamente a operação correspondente.
+     * <p>
+     * As operações só são registradas depois de validadas; uma operação que falha na
+     * reprodução indica um estado divergente do journal, e a inicialização é interrompida.
+     * </p>
+     *
+     * @param registro Registro lido do journal
+     * @throws IllegalStateException Se a operação falhar
+     */
+    private void aplicarRegistro(Journal.Registro registro) {
+        try {
+            switch (registro.getOperacao()) {
+                case CRIAR_USUARIO:
+                    criarUsuario(registro.getArgumento(0), registro.getArgumento(1), registro.getArgumento(2));
+                    break;
+                case ABRIR_SESSAO:
+                    registrarSessao(registro.getArgumento(0), registro.getArgumento(1));
+                    break;
+                case EDITAR_PERFIL:
+                    editarPerfil(registro.getArgumento(0), registro.getArgumento(1), registro.getArgumento(2));
+                    break;
+                case ADICIONAR_AMIGO:
+                    adicionarAmigo(registro.getArgumento(0), registro.getArgumento(1));
+                    break;
+                case ACEITAR_SOLICITACAO:
+                    aceitarSolicitacao(registro.getArgumento(0), registro.getArgumento(1));
+                    break;
+                case RECUSAR_SOLICITACAO:
+                    recusarSolicitacao(registro.getArgumento(0), registro.getArgumento(1));
+                    break;
+                case ENVIAR_RECADO:
+                    enviarRecado(registro.getArgumento(0), registro.getArgumento(1), registro.getArgumento(2));
+                    break;
+                case LER_RECADO:
+                    lerRecado(registro.getArgumento(0));
+                    break;
+                case CRIAR_COMUNIDADE:
+                    criarComunidade(registro.getArgumento(0), registro.getArgumento(1), registro.getArgumento(2));
+                    break;
+                case ADICIONAR_COMUNIDADE:
+                    adicionarComunidade(registro.getArgumento(0), registro.getArgumento(1));
+                    break;
+                case ENVIAR_MENSAGEM:
+                    enviarMensagem(registro.getArgumento(0), registro.getArgumento(1), registro.getArgumento(2));
+                    break;
+                case LER_MENSAGEM:
+                    lerMensagem(registro.getArgumento(0));
+                    break;
+                case ADICIONAR_IDOLO:
+                    adicionarIdolo(registro.getArgumento(0), registro.getArgumento(1));
+                    break;
+                case ADICIONAR_INIMIGO:
+                    adicionarInimigo(registro.getArgumento(0), registro.getArgumento(1));
+                    break;
+                case ADICIONAR_PAQUERA:
+                    adicionarPaquera(registro.getArgumento(0), registro.getArgumento(1));
+                    break;
+                case REMOVER_USUARIO:
+                    removerUsuario(registro.getArgumento(0));
+                    break;
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Erro ao reproduzir registro " + registro.getLsn() + " do journal: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Método chamado durante a desserialização para reconfigurar os campos transient
+     * e garantir a consistência interna do objeto após a leitura.
+     * <p>
+     * Lê os campos do formato antigo e então:
      * <ul>
-     *   <li>Inicializa o {@link GerenciadorComunidades} caso esteja nulo.</li>
-     *   <li>Inicializa o {@link GerenciadorAmizades} com as tabelas de usurios,
-     *       sesses e mapeamento de login para sesso caso esteja nulo.</li>
-     *   <li>Inicializa o mapa de comunidades caso esteja nulo.</li>
+     *   <li>Migra usuários e sessões para os repositórios.</li>
+     *   <li>Recria o {@link GerenciadorComunidades} com as comunidades lidas.</li>
+     *   <li>Recria o {@link GerenciadorAmizades} sobre os repositórios.</li>
+     *   <li>Recria os componentes transientes (journal, snapshots, travas, versões).</li>
      * </ul>
      *
      * @param ois fluxo de entrada de objetos contendo o estado serializado
      * @throws IOException            se ocorrer erro de I/O durante a leitura
-     * @throws ClassNotFoundException se a classe de algum objeto desserializado no for encontrada
+     * @throws ClassNotFoundException se a classe de algum objeto desserializado não for encontrada
      */
     private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
-        ois.defaultReadObject();
+        ObjectInputStream.GetField campos = ois.readFields();
 
-        // Garante que os gerenciadores sejam inicializados
-        if (this.gerenciadorComunidades == null) {
-            this.gerenciadorComunidades = new GerenciadorComunidades();
+        // Migra os mapas do formato antigo para os repositórios
+        this.usuarios = new RepositorioUsuariosHeap();
+        for (Users usuario : Jackut.<Users>lerMapaLegado(campos, "usuarios").values()) {
+            usuarios.salvar(usuario);
+        }
+        this.sessoes = new RepositorioSessoesHeap();
+        for (Map.Entry<String, String> sessao : Jackut.<String>lerMapaLegado(campos, "sessoes").entrySet()) {
+            sessoes.registrar(sessao.getKey(), sessao.getValue());
         }
-        if (this.gerenciadorAmizades == null) {
-            this.gerenciadorAmizades = new GerenciadorAmizades(usuarios, sessoes, loginParaSessao);
+        this.recados = new RepositorioRecadosUsuarios(usuarios);
+        this.journal = novoJournal();
+        journal.setUltimoLsn(campos.get("ultimoLsn", 0L));
+        GerenciadorComunidades migrado = new GerenciadorComunidades();
+        IGerenciadorComunidades legado = (IGerenciadorComunidades) campos.get("gerenciadorComunidades", null);
+        if (legado != null) {
+            for (Comunidade comunidade : legado.getRegistrosComunidades()) {
+                migrado.restaurarComunidade(comunidade);
+            }
         }
+        this.gerenciadorComunidades = migrado;
+        this.gerenciadorAmizades = new GerenciadorAmizades(usuarios, sessoes);
 
         // Garante que o mapa de comunidades transiente seja inicializado
         if (this.comunidades == null) {
             this.comunidades = new HashMap<>();
         }
-    }
 
+        this.alteracoes = new RegistroAlteracoes();
+        this.snapshots = novoGravador();
+        this.gerenciadorComunidades.setRegistroAlteracoes(alteracoes);
+        alteracoes.setUsuarios(usuarios);
+        this.referencias = new IndiceReferencias();
+        referencias.invalidar();
+        this.travas = new TravasUsuarios();
+        travas.setConcorrente(usuarios.permiteAlteracoesConcorrentes());
+        this.expurgo = novoExpurgo();
+        ligarLapides();
+        configurarVersoes();
+        this.distribuicao = new DistribuicaoMensagens();
+        this.entregas = novaEntrega();
+        this.sequenciador = novoSequenciador();
+        this.particoes = novasParticoes();
+    }
 
+    /**
+     * Obtém um mapa gravado no formato antigo.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> Map<String, V> lerMapaLegado(ObjectInputStream.GetField campos, String nome)
+            throws IOException {
+        Map<String, V> mapa = (Map<String, V>) campos.get(nome, null);
+        return mapa == null ? Collections.emptyMap() : mapa;
+    }
 
-    // ========== GERENCIAMENTO DE USURIOS ==========
+    // ========== GERENCIAMENTO DE USUÁRIOS ==========
 
     /**
-     * Cria um novo usurio no sistema.
-     * @param login Identificador nico
+     * Cria um novo usuário no sistema.
+     * @param login Identificador único
      * @param senha Senha de acesso
-     * @param nome Nome de exibio
-     * @throws LoginInvalidoException Se o login for invlido
-     * @throws SenhaInvalidaException Se a senha for invlida
-     * @throws LoginJaExistenteException Se o login j existir
+     * @param nome Nome de exibição
+     * @throws LoginInvalidoException Se o login for inválido
+     * @throws SenhaInvalidaException Se a senha for inválida
+     * @throws LoginJaExistenteException Se o login já existir
      */
     public void criarUsuario(String login, String senha, String nome)
             throws LoginInvalidoException, SenhaInvalidaException, LoginJaExistenteException {
-        if (login == null || login.trim().isEmpty()) throw new LoginInvalidoException();
-        if (senha == null || senha.trim().isEmpty()) throw new SenhaInvalidaException();
-        if (usuarios.containsKey(login)) throw new LoginJaExistenteException();
+        TravasUsuarios.Travamento travamento = travas.travarTudo();
+        try {
+            if (login == null || login.trim().isEmpty()) throw new LoginInvalidoException();
+            if (senha == null || senha.trim().isEmpty()) throw new SenhaInvalidaException();
+            if (usuarios.existe(login)) throw new LoginJaExistenteException();
+            if (expurgo.pendente(login)) {
+                // O novo usuário não pode herdar referências ao removido
+                expurgo.concluir(login);
+            }
 
-        usuarios.put(login, new Users(login, senha, nome));
+            journal.registrar(Journal.Operacao.CRIAR_USUARIO, login, senha, nome);
+            alteracoes.marcarUsuario(login);
+            usuarios.salvar(new Users(login, senha, nome));
+        } finally {
+            travamento.liberar();
+        }
     }
 
-
     /**
-     * Autentica um usurio e inicia nova sesso.
-     * @param login Identificador do usurio
-     * @param senha Senha do usurio
-     * @return ID da sesso criada
-     * @throws CredenciaisInvalidasException Se as credenciais forem invlidas
+     * Autentica um usuário e inicia nova sessão.
+     * @param login Identificador do usuário
+     * @param senha Senha do usuário
+     * @return ID da sessão criada
+     * @throws CredenciaisInvalidasException Se as credenciais forem inválidas
      */
     public String abrirSessao(String login, String senha) throws CredenciaisInvalidasException {
-        Users usuario = usuarios.get(login);
-        if (usuario == null || !usuario.getSenha().equals(senha)) {
-            throw new CredenciaisInvalidasException();
-        }
-
-        // Encerra sesses anteriores do usurio
-        if (loginParaSessao.containsKey(login)) {
-            sessoes.remove(loginParaSessao.get(login));
-        }
+        TravasUsuarios.Travamento travamento = travas.travar(login, null);
+        try {
+            Users usuario = usuarios.buscar(login);
+            if (usuario == null || !usuario.getSenha().equals(senha)) {
+                throw new CredenciaisInvalidasException();
+            }
 
-        // Gera novo ID de sesso
-        String idSessao = UUID.randomUUID().toString();
-        sessoes.put(idSessao, login);
-        loginParaSessao.put(login, idSessao);
+            // Gera novo ID de sessão
+            String idSessao = UUID.randomUUID().toString();
+            journal.registrar(Journal.Operacao.ABRIR_SESSAO, login, idSessao);
+            registrarSessao(login, idSessao);
 
-        return idSessao; // Retorne o ID gerado
+            return idSessao; // Retorne o ID gerado
+        } finally {
+            travamento.liberar();
+        }
     }
 
+    /**
+     * Associa uma sessão ao usuário, encerrando a sessão anterior se houver.
+     * @param login Identificador do usuário
+     * @param idSessao ID da nova sessão
+     */
+    private void registrarSessao(String login, String idSessao) {
+        // O repositório encerra a sessão anterior do usuário
+        alteracoes.marcarUsuario(login);
+        sessoes.registrar(idSessao, login);
+    }
 
-
-    // ========== OPERAES SOCIAIS ==========
+    // ========== OPERAÇÕES SOCIAIS ==========
 
     /**
-     * Adiciona um dolo ao perfil do usurio.
-     * @param idSessao ID da sesso do usurio
-     * @param idoloLogin Login do dolo
-     * @throws SessaoInvalidaExecption Se a sesso for invlida
-     * @throws UsuarioNaoEncontradoException Se o dolo no existir
-     * @throws UsuarioJaEhIdoloException Se o dolo j estiver na lista
+     * Adiciona um ídolo ao perfil do usuário.
+     * @param idSessao ID da sessão do usuário
+     * @param idoloLogin Login do ídolo
+     * @throws SessaoInvalidaExecption Se a sessão for inválida
+     * @throws UsuarioNaoEncontradoException Se o ídolo não existir
+     * @throws UsuarioJaEhIdoloException Se o ídolo já estiver na lista
      * @throws NaoPodeSerFaDeSiException Se tentar adicionar a si mesmo
-     * @throws InimigoException Se houver relao de inimizade
+     * @throws InimigoException Se houver relação de inimizade
      */
     public void adicionarIdolo(String idSessao, String idoloLogin)
             throws SessaoInvalidaExecption, UsuarioNaoEncontradoException,
             UsuarioJaEhIdoloException, NaoPodeSerFaDeSiException, InimigoException {
-        String usuarioLogin = getLoginPorSessao(idSessao);
-        Users usuario = usuarios.get(usuarioLogin);
-        Users idolo = usuarios.get(idoloLogin);
-
-        if (idolo == null) throw new UsuarioNaoEncontradoException();
+        TravasUsuarios.Travamento travamento = travas.travar(sessoes.getLogin(idSessao), idoloLogin);
+        try {
+            String usuarioLogin = getLoginPorSessao(idSessao);
+            Users usuario = usuarios.buscar(usuarioLogin);
+            Users idolo = usuarios.buscar(idoloLogin);
 
+            if (idolo == null) throw new UsuarioNaoEncontradoException();
 
+            if (idolo.ehInimigo(usuarioLogin)) {
+                String nomeIdolo = idolo.getNome();
+                throw new InimigoException("Função inválida: " + nomeIdolo + " é seu inimigo.");
+            }
 
-        if (idolo.getInimigos().contains(usuarioLogin)) {
-            String nomeIdolo = idolo.getNome();
-            throw new InimigoException("Funo invlida: " + nomeIdolo + "  seu inimigo.");
-        }
+            if (usuario.ehIdolo(idoloLogin)) {
+                throw new UsuarioJaEhIdoloException();
+            }
 
-        if (usuario.getIdolos().contains(idoloLogin)) {
-            throw new UsuarioJaEhIdoloException();
+            if (usuarioLogin.equals(idoloLogin))
+                throw new NaoPodeSerFaDeSiException();
+
+            journal.registrar(Journal.Operacao.ADICIONAR_IDOLO, idSessao, idoloLogin);
+            alteracoes.marcarUsuario(usuarioLogin);
+            alteracoes.marcarUsuario(idoloLogin);
+            usuario.adicionarIdolo(idoloLogin);
+            idolo.adicionarFa(usuarioLogin);
+            referencias.registrar(usuarioLogin, idoloLogin);
+            referencias.registrar(idoloLogin, usuarioLogin);
+        } finally {
+            travamento.liberar();
         }
-
-        if (usuarioLogin.equals(idoloLogin))
-            throw new NaoPodeSerFaDeSiException();
-
-        usuario.adicionarIdolo(idoloLogin);
-        idolo.adicionarFa(usuarioLogin);
     }
 
     /**
-     * Adiciona um inimigo ao perfil do usurio.
-     * @param idSessao ID da sesso do usurio
+     * Adiciona um inimigo ao perfil do usuário.
+     * @param idSessao ID da sessão do usuário
      * @param inimigoLogin Login do inimigo
-     * @throws SessaoInvalidaExecption Se a sesso for invlida
-     * @throws UsuarioNaoEncontradoException Se o inimigo no existir
-     * @throws UsuarioJaEhInimigoException Se o inimigo j estiver na lista
+     * @throws SessaoInvalidaExecption Se a sessão for inválida
+     * @throws UsuarioNaoEncontradoException Se o inimigo não existir
+     * @throws UsuarioJaEhInimigoException Se o inimigo já estiver na lista
      * @throws InimigoDeSiException Se tentar adicionar a si mesmo
      */
     public void adicionarInimigo(String idSessao, String inimigoLogin)
             throws SessaoInvalidaExecption, UsuarioNaoEncontradoException,
             UsuarioJaEhInimigoException, InimigoDeSiException {
-
-        String usuarioLogin = getLoginPorSessao(idSessao);
-        Users usuario = usuarios.get(usuarioLogin);
-        Users inimigo = usuarios.get(inimigoLogin);
-
-        if (usuarioLogin.equals(inimigoLogin))
-            throw new InimigoDeSiException(); // Erro especfico
-
-        if (inimigo == null)
-            throw new UsuarioNaoEncontradoException();
-
-        if (usuario.getInimigos().contains(inimigoLogin))
-            throw new UsuarioJaEhInimigoException();
-
-        usuario.adicionarInimigo(inimigoLogin);
+        TravasUsuarios.Travamento travamento = travas.travar(sessoes.getLogin(idSessao), inimigoLogin);
+        try {
+            String usuarioLogin = getLoginPorSessao(idSessao);
+            Users usuario = usuarios.buscar(usuarioLogin);
+            Users inimigo = usuarios.buscar(inimigoLogin);
+
+            if (usuarioLogin.equals(inimigoLogin))
+                throw new InimigoDeSiException(); // Erro específico
+
+            if (inimigo == null)
+                throw new UsuarioNaoEncontradoException();
+
+            if (usuario.ehInimigo(inimigoLogin))
+                throw new UsuarioJaEhInimigoException();
+
+            journal.registrar(Journal.Operacao.ADICIONAR_INIMIGO, idSessao, inimigoLogin);
+            alteracoes.marcarUsuario(usuarioLogin);
+            usuario.adicionarInimigo(inimigoLogin);
+            referencias.registrar(usuarioLogin, inimigoLogin);
+        } finally {
+            travamento.liberar();
+        }
     }
 
     // ========== MENSAGENS ==========
 
     /**
-     * Envia um recado para outro usurio.
-     * @param idSessao ID da sesso do remetente
-     * @param destinatarioLogin Login do destinatrio
-     * @param recado Contedo da mensagem
-     * @throws UsuarioNaoEncontradoException Se o destinatrio no existir
-     * @throws SessaoInvalidaExecption Se a sesso for invlida
-     * @throws InimigoException Se houver relao de inimizade
+     * Envia um recado para outro usuário.
+     * @param idSessao ID da sessão do remetente
+     * @param destinatarioLogin Login do destinatário
+     * @param recado Conteúdo da mensagem
+     * @throws UsuarioNaoEncontradoException Se o destinatário não existir
+     * @throws SessaoInvalidaExecption Se a sessão for inválida
+     * @throws InimigoException Se houver relação de inimizade
      */
     public void enviarRecado(String idSessao, String destinatarioLogin, String recado)
             throws UsuarioNaoEncontradoException, SessaoInvalidaExecption, InimigoException, AmigoDeSiException, RecadoParaSiException {
-        String remetenteLogin = getLoginPorSessao(idSessao);
-        Users remetente = usuarios.get(remetenteLogin);
-        Users destinatario = usuarios.get(destinatarioLogin);
-
-        if (destinatario == null) {
-            throw new UsuarioNaoEncontradoException();
-        }
+        TravasUsuarios.Travamento travamento = travas.travar(sessoes.getLogin(idSessao), destinatarioLogin);
+        try {
+            String remetenteLogin = getLoginPorSessao(idSessao);
+            Users remetente = usuarios.buscar(remetenteLogin);
+            Users destinatario = usuarios.buscar(destinatarioLogin);
+
+            if (destinatario == null) {
+                throw new UsuarioNaoEncontradoException();
+            }
 
-        if (remetenteLogin.equals(destinatarioLogin)) {
-            throw new RecadoParaSiException();
-        }
-        // Enhanced enemy check
-        if (remetente.getInimigos().contains(destinatarioLogin)) {
-            String nomeDestinatario = destinatario.getNome(); // Get the recipient's name
-            throw new InimigoException("Funo invlida: " + nomeDestinatario + "  seu inimigo.");
-        }
+            if (remetenteLogin.equals(destinatarioLogin)) {
+                throw new RecadoParaSiException();
+            }
+            // Enhanced enemy check
+            if (remetente.ehInimigo(destinatarioLogin)) {
+                String nomeDestinatario = destinatario.getNome(); // Get the recipient's name
+                throw new InimigoException("Função inválida: " + nomeDestinatario + " é seu inimigo.");
+            }
 
+            // Check if the recipient (destinatario) has the sender (remetente) as an enemy
+            if (destinatario.ehInimigo(remetenteLogin)) {
+                String nomeDestinatario = destinatario.getNome();
+                throw new InimigoException("Função inválida: " + nomeDestinatario + " é seu inimigo.");
+            }
 
-        // Check if the recipient (destinatario) has the sender (remetente) as an enemy
-        if (destinatario.getInimigos().contains(remetenteLogin)) {
-            String nomeDestinatario = destinatario.getNome();
-            throw new InimigoException("Funo invlida: " + nomeDestinatario + "  seu inimigo.");
+            journal.registrar(Journal.Operacao.ENVIAR_RECADO, idSessao, destinatarioLogin, recado);
+            alteracoes.marcarUsuario(destinatarioLogin);
+            recados.depositarRecado(destinatarioLogin, remetenteLogin, recado);
+            referencias.registrar(destinatarioLogin, remetenteLogin);
+        } finally {
+            travamento.liberar();
         }
-
-
-        destinatario.receberRecado(remetenteLogin, recado);
     }
 
     // ========== COMUNIDADES ==========
@@ -316,732 +910,1195 @@ public class Jackut implements Serializable{
      *     criarComunidade("DevsJava", "Comunidade de desenvolvedores", "user123");
      * }</pre>
      *
-     * <p><b>Nota de implementao:</b> Esta operao  atmica e thread-safe.</p>
+     * <p><b>Nota de implementação:</b> Esta operação é atômica e thread-safe: adquire apenas as
+     * listras da comunidade e do dono ({@link TravasUsuarios#travarComunidade}).</p>
      *
-     * @param nome Nome nico da comunidade (case-sensitive)
-     * @param descricao Descrio detalhada da comunidade
-     * @param dono Login do usurio criador
-     * @throws ComunidadeJaExisteException Se j existir comunidade com o mesmo nome
+     * @param nome Nome único da comunidade (case-sensitive)
+     * @param descricao Descrição detalhada da comunidade
+     * @param dono Login do usuário criador
+     * @throws ComunidadeJaExisteException Se já existir comunidade com o mesmo nome
      */
     public void criarComunidade(String nome, String descricao, String dono) throws ComunidadeJaExisteException {
-        gerenciadorComunidades.criarComunidade(nome, descricao, dono);
+        TravasUsuarios.Travamento travamento = travas.travarComunidade(nome, dono, null);
+        try {
+            if (gerenciadorComunidades.existeComunidade(nome)) {
+                throw new ComunidadeJaExisteException();
+            }
+            journal.registrar(Journal.Operacao.CRIAR_COMUNIDADE, nome, descricao, dono);
+            gerenciadorComunidades.criarComunidade(nome, descricao, dono);
+        } finally {
+            travamento.liberar();
+        }
     }
 
     /**
-     * Retorna a descrio de uma comunidade existente.
+     * Retorna a descrição de uma comunidade existente.
      *
-     * @param nome nome da comunidade cuja descrio se deseja obter (no pode ser nulo ou vazio)
-     * @return descrio cadastrada da comunidade
-     * @throws ComunidadeNaoExisteException se no houver comunidade com o nome informado
+     * @param nome nome da comunidade cuja descrição se deseja obter (não pode ser nulo ou vazio)
+     * @return descrição cadastrada da comunidade
+     * @throws ComunidadeNaoExisteException se não houver comunidade com o nome informado
      */
     public String getDescricaoComunidade(String nome) throws ComunidadeNaoExisteException {
-        return gerenciadorComunidades.getDescricao(nome);
+        TravasUsuarios.Travamento travamento = travas.travarLeitura();
+        try {
+            return gerenciadorComunidades.getDescricao(nome);
+        } finally {
+            travamento.liberar();
+        }
     }
 
-
     /**
      * Verifica se uma comunidade com o nome informado existe no sistema.
      *
-     * @param nome nome da comunidade a ser verificada (no pode ser nulo ou vazio)
-     * @return {@code true} se a comunidade existir; {@code false} caso contrrio
+     * @param nome nome da comunidade a ser verificada (não pode ser nulo ou vazio)
+     * @return {@code true} se a comunidade existir; {@code false} caso contrário
      */
     public boolean existeComunidade(String nome) {
-        return gerenciadorComunidades.existeComunidade(nome);
+        TravasUsuarios.Travamento travamento = travas.travarLeitura();
+        try {
+            return gerenciadorComunidades.existeComunidade(nome);
+        } finally {
+            travamento.liberar();
+        }
     }
 
     /**
      * Registra (cria) uma nova comunidade no sistema delegando ao gerenciador de comunidades.
      *
-     * @param nome      nome desejado para a comunidade (no pode ser nulo ou vazio)
-     * @param descricao texto descritivo da comunidade (no pode ser nulo)
-     * @param dono      login do usurio que ser definido como criador da comunidade
-     * @throws ComunidadeJaExisteException se j existir uma comunidade com o mesmo nome
+     * @param nome      nome desejado para a comunidade (não pode ser nulo ou vazio)
+     * @param descricao texto descritivo da comunidade (não pode ser nulo)
+     * @param dono      login do usuário que será definido como criador da comunidade
+     * @throws ComunidadeJaExisteException se já existir uma comunidade com o mesmo nome
      */
     public void registrarComunidade(String nome, String descricao, String dono)
             throws ComunidadeJaExisteException {
-        gerenciadorComunidades.criarComunidade(nome, descricao, dono);
+        // criarComunidade já adquire as listras da comunidade e do dono
+        criarComunidade(nome, descricao, dono);
     }
 
     /**
-     * Envia uma solicitao de amizade ou aceita amizade existente entre usurios.
-     *
-     * @param idSessao    ID da sesso do usurio que est enviando a solicitao (no pode ser nulo ou vazio)
-     * @param amigoLogin  login do usurio a ser adicionado como amigo (no pode ser nulo ou vazio)
-     * @throws SessaoInvalidaExecption       se o ID de sesso for invlido ou expirado
-     * @throws UsuarioNaoEncontradoException se no existir usurio com o login {@code amigoLogin}
-     * @throws AmigoDeSiException            se o usurio tentar adicionar a si mesmo
-     * @throws AmigoJaExistenteException     se j houver amizade estabelecida
-     * @throws AmigoPendenteException        se j existir uma solicitao pendente para esse usurio
-     * @throws InimigoException              se houver relao de inimizade entre os usurios
+     * Envia uma solicitação de amizade ou aceita amizade existente entre usuários.
+     *
+     * @param idSessao    ID da sessão do usuário que está enviando a solicitação (não pode ser nulo ou vazio)
+     * @param amigoLogin  login do usuário a ser adicionado como amigo (não pode ser nulo ou vazio)
+     * @throws SessaoInvalidaExecption       se o ID de sessão for inválido ou expirado
+     * @throws UsuarioNaoEncontradoException se não existir usuário com o login {@code amigoLogin}
+     * @throws AmigoDeSiException            se o usuário tentar adicionar a si mesmo
+     * @throws AmigoJaExistenteException     se já houver amizade estabelecida
+     * @throws AmigoPendenteException        se já existir uma solicitação pendente para esse usuário
+     * @throws InimigoException              se houver relação de inimizade entre os usuários
      */
     public void adicionarAmigo(String idSessao, String amigoLogin)
             throws UsuarioNaoEncontradoException, SessaoInvalidaExecption,
             AmigoDeSiException, AmigoJaExistenteException, AmigoPendenteException, InimigoException {
+        TravasUsuarios.Travamento travamento = travas.travar(sessoes.getLogin(idSessao), amigoLogin);
+        try {
+            // 1. Verifica se o amigo existe primeiro
+            if (amigoLogin == null || amigoLogin.trim().isEmpty() || !usuarios.existe(amigoLogin)) {
+                throw new UsuarioNaoEncontradoException(); // ERRO ESPERADO PELO TESTE
+            }
 
-        // 1. Verifica se o amigo existe primeiro
-        if (amigoLogin == null || amigoLogin.trim().isEmpty() || !usuarios.containsKey(amigoLogin)) {
-            throw new UsuarioNaoEncontradoException(); // ERRO ESPERADO PELO TESTE
-        }
+            // 2. Valida a sessão
+            if (idSessao == null || idSessao.trim().isEmpty()) {
+                throw new UsuarioNaoEncontradoException();
+            }
 
-        // 2. Valida a sesso
-        if (idSessao == null || idSessao.trim().isEmpty()) {
-            throw new UsuarioNaoEncontradoException();
-        }
+            String usuarioLogin = sessoes.getLogin(idSessao);
+          if (usuarioLogin == null) {
+                throw new UsuarioNaoEncontradoException();
+            }
 
-        String usuarioLogin = sessoes.get(idSessao);
-      if (usuarioLogin == null) {
-            throw new UsuarioNaoEncontradoException();
-        }
+            // 3. Verifica relações de inimizade
+            Users usuario = usuarios.buscar(usuarioLogin);
+            Users amigo = usuarios.buscar(amigoLogin);
 
-        // 3. Verifica relaes de inimizade
-        Users usuario = usuarios.get(usuarioLogin);
-        Users amigo = usuarios.get(amigoLogin);
+            if (amigo.ehInimigo(usuarioLogin) || usuario.ehInimigo(amigoLogin)) {
+                throw new InimigoException("Função inválida: " + amigo.getNome() + " é seu inimigo.");
+            }
 
-        if (amigo.getInimigos().contains(usuarioLogin) || usuario.getInimigos().contains(amigoLogin)) {
-            throw new InimigoException("Funo invlida: " + amigo.getNome() + "  seu inimigo.");
+            // 4. Delega para o gerenciador de amizades, que valida antes de o journal registrar
+            gerenciadorAmizades.verificarAmizade(idSessao, amigoLogin);
+            journal.registrar(Journal.Operacao.ADICIONAR_AMIGO, idSessao, amigoLogin);
+            alteracoes.marcarUsuario(usuarioLogin);
+            alteracoes.marcarUsuario(amigoLogin);
+            gerenciadorAmizades.adicionarAmigo(idSessao, amigoLogin);
+            referencias.registrar(usuarioLogin, amigoLogin);
+            referencias.registrar(amigoLogin, usuarioLogin);
+        } finally {
+            travamento.liberar();
         }
-
-        // 4. Delega para o gerenciador de amizades
-        gerenciadorAmizades.adicionarAmigo(idSessao, amigoLogin);
     }
 
     // ========== GETTERS ==========
 
     /**
-     * Obtm o mapa de sesses ativas do sistema.
+     * Obtém o repositório de sessões ativas do sistema.
      *
-     * @return Mapa no modificvel contendo as sesses ativas no formato (ID da sesso -> login do usurio)
+     * @return Repositório que associa IDs de sessão a logins de usuário
      */
-    public Map<String, String> getSessoes() {
+    public IRepositorioSessoes getSessoes() {
         return sessoes;
     }
 
     /**
-     * Obtm o mapa completo de usurios registrados no sistema.
+     * Obtém o repositório das caixas de recados e de mensagens de comunidade.
+     *
+     * @return Repositório de recados
+     */
+    public IRepositorioRecados getRecados() {
+        return recados;
+    }
+
+    /**
+     * Obtém o repositório de usuários registrados no sistema.
      *
-     * @return Mapa no modificvel contendo todos os usurios no formato (login -> objeto Users)
+     * @return Repositório de usuários, indexado por login
      * @see Users
      */
-    public Map<String, Users> getUsuarios() {
+    public IRepositorioUsuarios getUsuarios() {
         return usuarios;
     }
 
-
-
-
-
-
     /**
-     * Estabelece uma relao de paquera (crush) entre o usurio autenticado e outro usurio.
+     * Estabelece uma relação de paquera (crush) entre o usuário autenticado e outro usuário.
      * <p>
-     * Realiza mltiplas validaes antes de adicionar a paquera:</p>
+     * Realiza múltiplas validações antes de adicionar a paquera:</p>
      * <ul>
-     *   <li>Verifica se a sesso do usurio  vlida</li>
-     *   <li>Impede auto-paquera (usurio no pode se adicionar como paquera)</li>
-     *   <li>Confirma existncia do usurio alvo</li>
-     *   <li>Verifica relaes de inimizade mtua</li>
-     *   <li>Envia notificao automtica se houver paquera mtua</li>
+     *   <li>Verifica se a sessão do usuário é válida</li>
+     *   <li>Impede auto-paquera (usuário não pode se adicionar como paquera)</li>
+     *   <li>Confirma existência do usuário alvo</li>
+     *   <li>Verifica relações de inimizade mútua</li>
+     *   <li>Envia notificação automática se houver paquera mútua</li>
      * </ul>
      *
      * <p><b>Comportamentos especiais:</b></p>
      * <ul>
-     *   <li>Envia recado automtico para ambos usurios em caso de paquera mtua</li>
-     *   <li>Verifica inimizade em ambas as direes (A?B e B?A)</li>
-     *   <li>Mantm a lista de paqueras privada para cada usurio</li>
+     *   <li>Envia recado automático para ambos usuários em caso de paquera mútua</li>
+     *   <li>Verifica inimizade em ambas as direções (A?B e B?A)</li>
+     *   <li>Mantém a lista de paqueras privada para cada usuário</li>
      * </ul>
      *
-     * @param idSessao     ID da sesso vlida do usurio que est adicionando a paquera
-     * @param paqueraLogin Login do usurio a ser adicionado como paquera
-     * @throws SessaoInvalidaExecption      Se o ID de sesso for invlido/expirado
-     * @throws UsuarioNaoEncontradoException Se o usurio paquera no existir no sistema
-     * @throws UsuarioJaEhPaqueraException  Se a paquera j estiver na lista do usurio
-     * @throws PaqueraDeSiException         Se o usurio tentar adicionar a si mesmo como paquera
-     * @throws InimigoException             Se existir relao de inimizade entre os usurios
+     * @param idSessao     ID da sessão válida do usuário que está adicionando a paquera
+     * @param paqueraLogin Login do usuário a ser adicionado como paquera
+     * @throws SessaoInvalidaExecption      Se o ID de sessão for inválido/expirado
+     * @throws UsuarioNaoEncontradoException Se o usuário paquera não existir no sistema
+     * @throws UsuarioJaEhPaqueraException  Se a paquera já estiver na lista do usuário
+     * @throws PaqueraDeSiException         Se o usuário tentar adicionar a si mesmo como paquera
+     * @throws InimigoException             Se existir relação de inimizade entre os usuários
      */
     public void adicionarPaquera(String idSessao, String paqueraLogin)
             throws SessaoInvalidaExecption, UsuarioNaoEncontradoException,
             UsuarioJaEhPaqueraException, PaqueraDeSiException, InimigoException {
-        String usuarioLogin = getLoginPorSessao(idSessao);
-        Users usuario = usuarios.get(usuarioLogin);
-        Users paquera = usuarios.get(paqueraLogin);
-
-        if (usuarioLogin.equals(paqueraLogin))
-            throw new PaqueraDeSiException();
-
-        if (paquera == null)
-            throw new UsuarioNaoEncontradoException();
+        TravasUsuarios.Travamento travamento = travas.travar(sessoes.getLogin(idSessao), paqueraLogin);
+        try {
+            String usuarioLogin = getLoginPorSessao(idSessao);
+            Users usuario = usuarios.buscar(usuarioLogin);
+            Users paquera = usuarios.buscar(paqueraLogin);
+
+            if (usuarioLogin.equals(paqueraLogin))
+                throw new PaqueraDeSiException();
+
+            if (paquera == null)
+                throw new UsuarioNaoEncontradoException();
+
+            // Verificação de inimizade mútua
+            if (usuario.ehInimigo(paqueraLogin) || paquera.ehInimigo(usuarioLogin)) {
+                String nomePaquera = paquera.getNome();
+                throw new InimigoException("Função inválida: " + nomePaquera + " é seu inimigo.");
+            }
 
-        // Verificao de inimizade mtua
-        if (usuario.getInimigos().contains(paqueraLogin) || paquera.getInimigos().contains(usuarioLogin)) {
-            String nomePaquera = paquera.getNome();
-            throw new InimigoException("Funo invlida: " + nomePaquera + "  seu inimigo.");
-        }
+            // Verificada antes dos recados: uma operação recusada não deixa efeitos fora do journal
+            if (usuario.ehPaquera(paqueraLogin)) {
+                throw new UsuarioJaEhPaqueraException();
+            }
 
-        if (paquera.getPaqueras().contains(usuarioLogin)) {
-            usuario.receberRecado("Sistema", paquera.getNome() + "  seu paquera - Recado do Jackut.");
-            paquera.receberRecado("Sistema", usuario.getNome() + "  seu paquera - Recado do Jackut.");
-        }
+            journal.registrar(Journal.Operacao.ADICIONAR_PAQUERA, idSessao, paqueraLogin);
+            if (paquera.ehPaquera(usuarioLogin)) {
+                alteracoes.marcarUsuario(usuarioLogin);
+                alteracoes.marcarUsuario(paqueraLogin);
+                recados.depositarRecado(usuarioLogin, "Sistema", paquera.getNome() + " é seu paquera - Recado do Jackut.");
+                recados.depositarRecado(paqueraLogin, "Sistema", usuario.getNome() + " é seu paquera - Recado do Jackut.");
+                referencias.registrar(usuarioLogin, "Sistema");
+                referencias.registrar(paqueraLogin, "Sistema");
+            }
 
-        if (usuario.getPaqueras().contains(paqueraLogin)) {
-            throw new UsuarioJaEhPaqueraException();
+            alteracoes.marcarUsuario(usuarioLogin);
+            usuario.adicionarPaquera(paqueraLogin);
+            referencias.registrar(usuarioLogin, paqueraLogin);
+        } finally {
+            travamento.liberar();
         }
-
-        usuario.adicionarPaquera(paqueraLogin);
-
-
     }
 
-
     /**
-     * Remove completamente um usurio do sistema, incluindo todos os seus relacionamentos e dados associados.
+     * Remove completamente um usuário do sistema, incluindo todos os seus relacionamentos e dados associados.
      * <p>
-     * Aes realizadas:
+     * Ações realizadas:
      * <ul>
-     *   <li>Remove o usurio do registro principal</li>
-     *   <li>Encerra todas as sesses ativas do usurio</li>
-     *   <li>Exclui o usurio de todas as comunidades</li>
-     *   <li>Remove todas as relaes sociais (amizades, paqueras, dolos, fs, inimigos)</li>
-     *   <li>Apaga mensagens enviadas pelo usurio</li>
+     *   <li>Remove o usuário do registro principal</li>
+     *   <li>Encerra todas as sessões ativas do usuário</li>
+     *   <li>Exclui o usuário de todas as comunidades</li>
+     *   <li>Remove todas as relações sociais (amizades, paqueras, ídolos, fãs, inimigos)</li>
+     *   <li>Apaga mensagens enviadas pelo usuário</li>
      * </ul>
      *
-     * @param login Login do usurio a ser removido
-     * @throws UsuarioNaoEncontradoException Se nenhum usurio com o login especificado for encontrado
+     * @param login Login do usuário a ser removido
+     * @throws UsuarioNaoEncontradoException Se nenhum usuário com o login especificado for encontrado
      *
      * <p>Efeitos colaterais:</p>
      * <ul>
-     *   <li>Atualiza os registros de todos os outros usurios do sistema</li>
-     *   <li>Remove quaisquer referncias ao usurio em mensagens e comunidades</li>
+     *   <li>Marca o login com lápide ({@link LapidesUsuarios}): as consultas passam a ignorá-lo</li>
+     *   <li>Retira as referências ao usuário em segundo plano ({@link ExpurgoUsuarios})</li>
      * </ul>
      */
     public void removerUsuario(String login) throws UsuarioNaoEncontradoException {
+        TravasUsuarios.Travamento travamento = travas.travarTudo();
+        try {
+            if (!usuarios.existe(login)) {
+                throw new UsuarioNaoEncontradoException();
+            }
 
+            else
+            {
+                journal.registrar(Journal.Operacao.REMOVER_USUARIO, login);
+                alteracoes.marcarUsuarioRemovido(login);
+
+                // 1. Remove todas as sessões associadas ao usuário
+                sessoes.encerrar(login);
+
+                // 2. Remove o usuário do sistema
+                usuarios.remover(login);
+                recados.removerCaixa(login);
+
+                // 3. As referências ao usuário são expurgadas em segundo plano
+                entregarMensagensPendentes(login);
+                gerenciadorComunidades.removerComunidadesDoDono(login);
+                if (!referencias.completo()) {
+                    referencias.reconstruir(usuarios, recados);
+                }
+                expurgo.agendar(login, referencias.retirar(login));
+                if (journal.reproduzindo()) {
+                    expurgo.concluir(login);
+                }
+            }
+        } finally {
+            travamento.liberar();
+        }
+    }
 
-        if (!usuarios.containsKey(login)) {
-            throw new UsuarioNaoEncontradoException();
+    /**
+     * Retira de um usuário as referências a um login removido: relacionamentos e recados.
+     * Executado pelo {@link ExpurgoUsuarios}.
+     *
+     * @param outro Login do usuário que pode referenciar o removido
+     * @param login Login removido
+     */
+    private void expurgarReferencias(String outro, String login) {
+        Users user = usuarios.buscar(outro);
+        if (user == null) {
+            return;
+        }
+        if (user.referencia(login) || recados.possuiRecadosDe(outro, login)) {
+            alteracoes.marcarUsuario(user.getLogin());
+        }
+        user.removerAmigo(login);
+        user.removerSolicitacao(login);
+        user.removerFa(login);
+        user.removerIdolo(login);
+        user.removerPaquera(login);
+        user.removerInimigo(login);
+        recados.removerRecadosDe(outro, login);
+    }
 
+    /**
+     * Antes de as comunidades de um dono removido serem descartadas, entrega nas caixas dos
+     * membros as mensagens delas que eles ainda não leram, com os seus números de sequência,
+     * para que continuem disponíveis na ordem de envio.
+     */
+    private void entregarMensagensPendentes(String dono) {
+        for (String nome : gerenciadorComunidades.getComunidadesDoUsuario(dono)) {
+            Comunidade comunidade = gerenciadorComunidades.getRegistroComunidade(nome);
+            if (comunidade == null || !comunidade.getDono().equals(dono)) {
+                continue;
+            }
+            LogMensagens mensagens = comunidade.getLogMensagens();
+            for (String membro : comunidade.getMembros()) {
+                int id = DicionarioUsuarios.idExistente(membro);
+                if (membro.equals(dono) || mensagens.naoLidas(id) == 0) {
+                    continue;
+                }
+                alteracoes.marcarUsuario(membro);
+                for (long sequencia = mensagens.proximaSequencia(id); sequencia >= 0;
+                     sequencia = mensagens.proximaSequencia(id)) {
+                    recados.depositarMensagemComunidade(membro, sequencia, mensagens.ler(id));
+                }
+            }
         }
+    }
 
+    /**
+     * Cria a entrega em segundo plano das mensagens de comunidade desta instância, com a sua
+     * trava exclusiva.
+     */
+    private EntregaMensagens novaEntrega() {
+        return new EntregaMensagens(travas.exclusiva(), this::entregarNaCaixa, distribuicao.getMetricas());
+    }
 
-        else
-        {
-            // 1. Remove todas as sesses associadas ao usurio
-            String idSessao = loginParaSessao.get(login);
-            if (idSessao != null) {
-                sessoes.remove(idSessao); // Invalida a sesso
-                loginParaSessao.remove(login);
-            }
+    /**
+     * Cria o sequenciador das operações de escrita desta instância, com a sua trava exclusiva,
+     * se ativado pela propriedade {@code jackut.sequenciador}.
+     */
+    private SequenciadorComandos novoSequenciador() {
+        return Boolean.getBoolean("jackut.sequenciador")
+                ? new SequenciadorComandos(travas.exclusiva(), this::confirmarJournal) : null;
+    }
+
+    /**
+     * Cria as partições dos usuários desta instância, sobre as suas travas, se ativadas pela
+     * propriedade {@code jackut.particoes}. Como o sequenciador já aplica todas as escritas
+     * em uma única thread, as partições não são usadas com ele; nem nos armazenamentos que não
+     * permitem alterações concorrentes, em que todas as operações seriam exclusivas.
+     */
+    private ParticoesUsuarios novasParticoes() {
+        int quantidade = Integer.getInteger("jackut.particoes", 0);
+        if (quantidade <= 0 || sequenciador != null || !usuarios.permiteAlteracoesConcorrentes()) {
+            return null;
+        }
+        return new ParticoesUsuarios(travas, quantidade, this::confirmarJournal);
+    }
+
+    /**
+     * Cria o expurgo dos usuários removidos desta instância, com a sua trava exclusiva.
+     */
+    private ExpurgoUsuarios novoExpurgo() {
+        return new ExpurgoUsuarios(travas.exclusiva(), this::expurgarReferencias,
+                login -> gerenciadorComunidades.removerMembro(login));
+    }
 
-            // 2. Remove o usurio do sistema
-            usuarios.remove(login);
+    /**
+     * Liga os registros desta instância às lápides do seu expurgo, para que um usuário
+     * removido aqui deixe de aparecer apenas nesta instância.
+     */
+    private void ligarLapides() {
+        LapidesUsuarios lapides = expurgo.getLapides();
+        usuarios.setLapides(lapides);
+        recados.setLapides(lapides);
+        gerenciadorComunidades.setLapides(lapides);
+    }
 
+    /**
+     * Cria as versões de leitura desta instância, se os usuários ficam no heap.
+     */
+    private void configurarVersoes() {
+        versoes = VersoesLeitura.ligar(usuarios, () -> gerenciadorComunidades, expurgo, alteracoes, travas);
+    }
 
-            // 3. Atualiza outros componentes (comunidades, amigos, etc.)
-            gerenciadorComunidades.removerUsuario(login);
-            for (Users user : usuarios.values()) {
-                user.removerAmigo(login);
-                user.removerSolicitacao(login);
-                user.removerFa(login);
-                user.removerIdolo(login);
-                user.removerPaquera(login);
-                user.removerInimigo(login);
-                user.removerMensagensDoUsuario(login);
+    /**
+     * Publica uma versão de leitura com o estado inteiro, carregado sem passar pelas operações.
+     */
+    private void reconstruirVersoes() {
+        if (versoes != null) {
+            TravasUsuarios.Travamento travamento = travas.travarTudo();
+            try {
+                versoes.reconstruir();
+            } finally {
+                travamento.liberar();
             }
         }
+    }
+
+    /**
+     * Obtém o perfil de um usuário em uma versão de leitura.
+     *
+     * @throws UsuarioNaoEncontradoException Se o usuário não existir na versão
+     */
+    private static VersaoLeitura.Perfil perfil(VersaoLeitura versao, String login) throws UsuarioNaoEncontradoException {
+        VersaoLeitura.Perfil perfil = versao.getPerfil(login);
+        if (perfil == null) throw new UsuarioNaoEncontradoException();
+        return perfil;
+    }
 
+    /**
+     * Obtém o perfil do usuário de uma sessão em uma versão de leitura, com as validações de
+     * {@link #getLoginPorSessao(String)}.
+     */
+    private VersaoLeitura.Perfil perfilDaSessao(VersaoLeitura versao, String idSessao)
+            throws SessaoInvalidaExecption, UsuarioNaoEncontradoException {
+        if (idSessao == null || idSessao.isEmpty()) throw new UsuarioNaoEncontradoException();
+        String login = sessoes.getLogin(idSessao);
+        if (login == null) throw new SessaoInvalidaExecption();
+        return perfil(versao, login);
     }
 
     /**
-     * Atualiza ou cria um atributo personalizado no perfil do usurio autenticado.
+     * Última versão de leitura publicada: um retrato imutável dos perfis, relacionamentos e
+     * comunidades, que pode ser percorrido sem travas e sem bloquear as escritas.
+     *
+     * @return Versão atual, ou null se o armazenamento configurado não mantém versões
+     */
+    public VersaoLeitura getVersaoLeitura() {
+        return versoes == null ? null : versoes.atual();
+    }
+
+    /**
+     * Atualiza ou cria um atributo personalizado no perfil do usuário autenticado.
      * <p>
      * Funcionalidades:
      * <ul>
      *   <li>Atualiza atributos existentes ou cria novos pares chave-valor</li>
-     *   <li>Valida a existncia da sesso e do usurio</li>
-     *   <li>Garante que o nome do atributo no esteja vazio</li>
+     *   <li>Valida a existência da sessão e do usuário</li>
+     *   <li>Garante que o nome do atributo não esteja vazio</li>
      * </ul>
      *
-     * @param idSessao ID da sesso do usurio (deve ser vlida e ativa)
+     * @param idSessao ID da sessão do usuário (deve ser válida e ativa)
      * @param atributo Nome do atributo a ser modificado (case-insensitive)
      * @param valor Novo valor para o atributo
-     * @throws UsuarioNaoEncontradoException Se o usurio associado  sesso no existir
-     * @throws SessaoInvalidaExecption Se o ID de sesso for invlido ou expirado
+     * @throws UsuarioNaoEncontradoException Se o usuário associado à sessão não existir
+     * @throws SessaoInvalidaExecption Se o ID de sessão for inválido ou expirado
      * @throws AtributoNaoPreenchidoException Se o nome do atributo for nulo/vazio
      *
-     * <p>Observaes:</p>
+     * <p>Observações:</p>
      * <ul>
-     *   <li>No altera atributos reservados como 'nome'</li>
-     *   <li>Atributos so armazenados em lowercase para padronizao</li>
-     *   <li>Valores vazios so permitidos para limpeza de atributos</li>
+     *   <li>Não altera atributos reservados como 'nome'</li>
+     *   <li>Atributos são armazenados em lowercase para padronização</li>
+     *   <li>Valores vazios são permitidos para limpeza de atributos</li>
      * </ul>
      */
     public void editarPerfil(String idSessao, String atributo, String valor)
             throws UsuarioNaoEncontradoException, SessaoInvalidaExecption, AtributoNaoPreenchidoException {
-        if (atributo == null || atributo.trim().isEmpty()) throw new AtributoNaoPreenchidoException();
+        TravasUsuarios.Travamento travamento = travas.travar(sessoes.getLogin(idSessao), null);
+        try {
+            if (atributo == null || atributo.trim().isEmpty()) throw new AtributoNaoPreenchidoException();
 
-        String login = sessoes.get(idSessao);
-        if (login == null || !usuarios.containsKey(login)) {
-            throw new UsuarioNaoEncontradoException();
-        }
+            String login = sessoes.getLogin(idSessao);
+            if (login == null || !usuarios.existe(login)) {
+                throw new UsuarioNaoEncontradoException();
+            }
 
-        Users usuario = usuarios.get(login);
-        usuario.setAtributo(atributo, valor);
+            Users usuario = usuarios.buscar(login);
+            journal.registrar(Journal.Operacao.EDITAR_PERFIL, idSessao, atributo, valor);
+            alteracoes.marcarUsuario(login);
+            usuario.setAtributo(atributo, valor);
+        } finally {
+            travamento.liberar();
+        }
     }
 
-
-
-
-
-
     /**
-     * Obtm o valor de um atributo especfico do perfil de um usurio.
+     * Obtém o valor de um atributo específico do perfil de um usuário.
      * <p>
      * Funcionalidades:
      * <ul>
-     *   <li>Recupera atributos padro (como 'nome') e personalizados</li>
-     *   <li>Valida a existncia do usurio e do atributo solicitado</li>
-     *   <li>Garante consistncia no tratamento de case para nomes de atributos</li>
+     *   <li>Recupera atributos padrão (como 'nome') e personalizados</li>
+     *   <li>Valida a existência do usuário e do atributo solicitado</li>
+     *   <li>Garante consistência no tratamento de case para nomes de atributos</li>
      * </ul>
      *
-     * @param login Login do usurio alvo da consulta
+     * @param login Login do usuário alvo da consulta
      * @param atributo Nome do atributo desejado (case-insensitive)
      * @return Valor do atributo solicitado
-     * @throws UsuarioNaoEncontradoException Se nenhum usurio com o login especificado for encontrado
-     * @throws AtributoNaoPreenchidoException Se o atributo no existir ou estiver vazio
+     * @throws UsuarioNaoEncontradoException Se nenhum usuário com o login especificado for encontrado
+     * @throws AtributoNaoPreenchidoException Se o atributo não existir ou estiver vazio
      *
      * <p>Comportamento especial:</p>
      * <ul>
-     *   <li>Atributo 'nome' retorna o nome cadastrado do usurio</li>
+     *   <li>Atributo 'nome' retorna o nome cadastrado do usuário</li>
      *   <li>Atributos personalizados seguem regras de case-insensitive na busca</li>
-     *   <li>Valores vazios em atributos personalizados so considerados no preenchidos</li>
+     *   <li>Valores vazios em atributos personalizados são considerados não preenchidos</li>
      * </ul>
      */
     public String getAtributoUsuario(String login, String atributo) throws UsuarioNaoEncontradoException, AtributoNaoPreenchidoException {
-        Users usuario = usuarios.get(login);
-        if (usuario == null) throw new UsuarioNaoEncontradoException();
-
-        if ("nome".equalsIgnoreCase(atributo)) {
-            return usuario.getNome();
+        VersaoLeitura versao = getVersaoLeitura();
+        if (versao != null) {
+            VersaoLeitura.Perfil perfil = perfil(versao, login);
+            if ("nome".equalsIgnoreCase(atributo)) {
+                return perfil.getNome();
+            }
+            String valor = perfil.getAtributo(atributo);
+            if (valor == null || valor.isEmpty()) {
+                throw new AtributoNaoPreenchidoException();
+            }
+            return valor;
         }
+        TravasUsuarios.Travamento travamento = travas.travar(login, null);
+        try {
+            Users usuario = usuarios.buscar(login);
+            if (usuario == null) throw new UsuarioNaoEncontradoException();
 
-        String valor = usuario.getAtributo(atributo); // Assumindo que o mtodo 'getAtributo' j exista na classe 'Users'
-        if (valor == null || valor.isEmpty()) {
-            throw new AtributoNaoPreenchidoException();
+            if ("nome".equalsIgnoreCase(atributo)) {
+                return usuario.getNome();
+            }
+
+            String valor = usuario.getAtributo(atributo); // Assumindo que o método 'getAtributo' já exista na classe 'Users'
+            if (valor == null || valor.isEmpty()) {
+                throw new AtributoNaoPreenchidoException();
+            }
+            return valor;
+        } finally {
+            travamento.liberar();
         }
-        return valor;
     }
 
-
-
-
     /**
-     * L e remove o recado mais antigo da caixa de entrada do usurio autenticado.
+     * Lê e remove o recado mais antigo da caixa de entrada do usuário autenticado.
      * <p>
      * Funcionalidades:
      * <ul>
-     *   <li>Valida a sesso do usurio</li>
+     *   <li>Valida a sessão do usuário</li>
      *   <li>Recupera mensagens no formato FIFO (primeiro a entrar, primeiro a sair)</li>
-     *   <li>Remove permanentemente o recado aps a leitura</li>
+     *   <li>Remove permanentemente o recado após a leitura</li>
      * </ul>
      *
-     * @param idSessao ID da sesso vlida do usurio
-     * @return Contedo do recado mais antigo
-     * @throws SessaoInvalidaExecption Se o ID de sesso no corresponder a nenhuma sesso ativa
-     * @throws SemRecadoException Se no houver recados disponveis na caixa de entrada
+     * @param idSessao ID da sessão válida do usuário
+     * @return Conteúdo do recado mais antigo
+     * @throws SessaoInvalidaExecption Se o ID de sessão não corresponder a nenhuma sessão ativa
+     * @throws SemRecadoException Se não houver recados disponíveis na caixa de entrada
      *
      * <p>Comportamento:</p>
      * <ul>
-     *   <li>Mensagens so consumidas - no podem ser relidas aps recuperao</li>
-     *   <li>A exceo SemRecadoException inclui mensagem descritiva do erro</li>
-     *   <li>Ordenao garantida pela sequncia de chegada das mensagens</li>
+     *   <li>Mensagens são consumidas - não podem ser relidas após recuperação</li>
+     *   <li>A exceção SemRecadoException inclui mensagem descritiva do erro</li>
+     *   <li>Ordenação garantida pela sequência de chegada das mensagens</li>
      * </ul>
      */
     public String lerRecado(String idSessao) throws SessaoInvalidaExecption, SemRecadoException {
-        String usuarioLogin = sessoes.get(idSessao);
-        if (usuarioLogin == null) {
-            throw new SessaoInvalidaExecption();
+        TravasUsuarios.Travamento travamento = travas.travar(sessoes.getLogin(idSessao), null);
+        try {
+            String usuarioLogin = sessoes.getLogin(idSessao);
+            if (usuarioLogin == null) {
+                throw new SessaoInvalidaExecption();
+            }
+
+            alteracoes.marcarUsuario(usuarioLogin);
+            if (!recados.possuiRecado(usuarioLogin)) {
+                throw new SemRecadoException(); // This now includes the message
+            }
+            journal.registrar(Journal.Operacao.LER_RECADO, idSessao);
+            return recados.retirarRecado(usuarioLogin);
+        } finally {
+            travamento.liberar();
+        }
+    }
+
+    /**
+     * Envia uma mensagem para todos os membros de uma comunidade.
+     *
+     * @param idSessao ID da sessão do remetente
+     * @param comunidade Nome da comunidade de destino (case-sensitive)
+     * @param mensagem Conteúdo da mensagem
+     * @throws SessaoInvalidaExecption Se a sessão for inválida
+     * @throws UsuarioNaoEncontradoException Se o remetente não existir
+     * @throws ComunidadeNaoExisteException Se a comunidade não existir
+     */
+    public void enviarMensagem(String idSessao, String comunidade, String mensagem)
+            throws SessaoInvalidaExecption, UsuarioNaoEncontradoException, ComunidadeNaoExisteException {
+        // Com a fila de entregas cheia, o remetente entrega cópias antes de adquirir as travas
+        entregas.aliviar();
+        TravasUsuarios.Travamento travamento = travas.travarComunidade(comunidade, sessoes.getLogin(idSessao), null);
+        try {
+            // Valida a sessão do remetente
+            getLoginPorSessao(idSessao);
+            if (!gerenciadorComunidades.existeComunidade(comunidade)) {
+                throw new ComunidadeNaoExisteException();
+            }
+            journal.registrar(Journal.Operacao.ENVIAR_MENSAGEM, idSessao, comunidade, mensagem);
+
+            // A mensagem é guardada no registro da comunidade; as cópias nas caixas, conforme a
+            // estratégia, são entregues em segundo plano
+            long inicio = System.nanoTime();
+            long sequencia = gerenciadorComunidades.publicarMensagem(comunidade, mensagem);
+            Comunidade registro = gerenciadorComunidades.getRegistroComunidade(comunidade);
+            DistribuicaoMensagens.Estrategia estrategia = distribuicao.escolher(registro);
+            entregas.agendar(comunidade, sequencia, mensagem, estrategia, distribuicao.destinatarios(registro, estrategia));
+            distribuicao.registrarEnvio(estrategia, System.nanoTime() - inicio);
+        } finally {
+            travamento.liberar();
         }
+    }
 
-        Users usuario = usuarios.get(usuarioLogin);
-        String recado = usuario.lerRecado();
-        if (recado == null) {
-            throw new SemRecadoException(); // This now includes the message
+    /**
+     * Lê e remove a mensagem de comunidade mais antiga do usuário autenticado.
+     *
+     * @param idSessao ID da sessão do usuário
+     * @return Conteúdo da mensagem
+     * @throws SessaoInvalidaExecption Se a sessão for inválida
+     * @throws UsuarioNaoEncontradoException Se o usuário da sessão não existir
+     * @throws SemMensagemException Se não houver mensagens disponíveis
+     */
+    public String lerMensagem(String idSessao)
+            throws SessaoInvalidaExecption, UsuarioNaoEncontradoException, SemMensagemException {
+        // A leitura percorre os registros de todas as comunidades do usuário
+        String leitor = sessoes.getLogin(idSessao);
+        TravasUsuarios.Travamento travamento = travas.travarComunidades(
+                () -> gerenciadorComunidades.getComunidadesDoUsuario(leitor), leitor, null);
+        try {
+            String login = getLoginPorSessao(idSessao);
+            long inicio = System.nanoTime();
+            distribuicao.marcarLeitor(DicionarioUsuarios.idExistente(login));
+
+            // Lê a mais antiga entre a caixa do usuário e os registros das suas comunidades
+            long caixa = recados.getSequenciaMensagemComunidade(login);
+            if (caixa < 0 && gerenciadorComunidades.getComunidadeComMensagem(login) == null) {
+                throw new SemMensagemException();
+            }
+            journal.registrar(Journal.Operacao.LER_MENSAGEM, idSessao);
+            String mensagem = gerenciadorComunidades.retirarMensagem(login, caixa < 0 ? Long.MAX_VALUE : caixa);
+            if (mensagem != null) {
+                distribuicao.registrarLeitura(DistribuicaoMensagens.Estrategia.PUXAR, System.nanoTime() - inicio);
+            } else {
+                alteracoes.marcarUsuario(login);
+                mensagem = recados.retirarMensagemComunidade(login);
+                distribuicao.registrarLeitura(DistribuicaoMensagens.Estrategia.EMPURRAR, System.nanoTime() - inicio);
+            }
+            return mensagem;
+        } finally {
+            travamento.liberar();
+        }
+    }
+
+    /**
+     * Entrega uma mensagem de comunidade na caixa de um membro, se ela ainda for a próxima
+     * que ele não leu. Chamado pelas threads de entrega com a trava exclusiva adquirida.
+     *
+     * @return true se a mensagem foi entregue
+     */
+    private boolean entregarNaCaixa(String nome, int id, long sequencia, String mensagem) {
+        Comunidade comunidade = gerenciadorComunidades.getRegistroComunidade(nome);
+        if (comunidade == null || expurgo.getLapides().removido(id)) {
+            return false;
+        }
+        String membro = DicionarioUsuarios.login(id);
+        if (comunidade.getProximaMensagem(membro) != sequencia) {
+            return false;
         }
-        return recado;
+        alteracoes.marcarComunidade(nome);
+        alteracoes.marcarUsuario(membro);
+        comunidade.marcarEntregue(membro, sequencia);
+        recados.depositarMensagemComunidade(membro, sequencia, mensagem);
+        return true;
     }
 
     /**
-     * Obtm o login do usurio associado a uma sesso ativa aps validaes rigorosas.
+     * Obtém o login do usuário associado a uma sessão ativa após validações rigorosas.
      * <p>
      * Funcionalidades principais:
      * <ul>
-     *   <li>Valida formato bsico do ID de sesso</li>
-     *   <li>Verifica existncia da sesso no sistema</li>
-     *   <li>Confirma registro do usurio na base de dados</li>
+     *   <li>Valida formato básico do ID de sessão</li>
+     *   <li>Verifica existência da sessão no sistema</li>
+     *   <li>Confirma registro do usuário na base de dados</li>
      * </ul>
      *
-     * @param idSessao ID da sesso a ser consultada (formato UUID)
-     * @return Login do usurio associado  sesso
+     * @param idSessao ID da sessão a ser consultada (formato UUID)
+     * @return Login do usuário associado à sessão
      * @throws SessaoInvalidaExecption Se:
      * <ul>
-     *   <li>ID da sesso for nulo/vazio</li>
-     *   <li>Sesso no estiver registrada</li>
+     *   <li>ID da sessão for nulo/vazio</li>
+     *   <li>Sessão não estiver registrada</li>
      * </ul>
-     * @throws UsuarioNaoEncontradoException Se o usurio associado  sesso no existir no sistema
+     * @throws UsuarioNaoEncontradoException Se o usuário associado à sessão não existir no sistema
      *
-     * <p>Fluxo crtico:</p>
-     * 1. Validao de entrada ? 2. Consulta de sesso ? 3. Verificao de usurio
+     * <p>Fluxo crítico:</p>
+     * 1. Validação de entrada ? 2. Consulta de sessão ? 3. Verificação de usuário
      */
     public String getLoginPorSessao(String idSessao)
             throws SessaoInvalidaExecption, UsuarioNaoEncontradoException {
+        TravasUsuarios.Travamento travamento = travas.travarLeitura();
+        try {
+            // 1. Validação da sessão primeiro
+            if (idSessao == null || idSessao.isEmpty()) {
+                throw new UsuarioNaoEncontradoException();
+            }
 
-        // 1. Validao da sesso primeiro
-        if (idSessao == null || idSessao.isEmpty()) {
-            throw new UsuarioNaoEncontradoException();
-        }
-
-        String login = sessoes.get(idSessao);
-        if (login == null) { // Sesso no existe
-            throw new SessaoInvalidaExecption();
-        }
+            String login = sessoes.getLogin(idSessao);
+            if (login == null) { // Sessão não existe
+                throw new SessaoInvalidaExecption();
+            }
 
-        // 2. Agora verifica se o usurio existe
-        if (!usuarios.containsKey(login)) {
-            throw new UsuarioNaoEncontradoException();
+            // 2. Agora verifica se o usuário existe
+            if (!usuarios.existe(login)) {
+                throw new UsuarioNaoEncontradoException();
+            }
+            return login;
+        } finally {
+            travamento.liberar();
         }
-        return login;
     }
 
-
-
-
     /**
-     * Recupera a lista de membros de uma comunidade especfica.
+     * Recupera a lista de membros de uma comunidade específica.
      * <p>
-     * Este mtodo consulta o gerenciador de comunidades para obter os logins dos usurios
-     * associados  comunidade solicitada.
+     * Este método consulta o gerenciador de comunidades para obter os logins dos usuários
+     * associados à comunidade solicitada.
      * </p>
      *
      * @param nome Nome da comunidade a ser consultada (case-sensitive)
-     * @return Lista contendo os logins dos membros da comunidade, em ordem alfabtica
+     * @return Lista contendo os logins dos membros da comunidade, em ordem alfabética
      * @throws ComunidadeNaoExisteException Se nenhuma comunidade com o nome especificado for encontrada
      *
-     * <p>Caractersticas:</p>
+     * <p>Características:</p>
      * <ul>
-     *   <li>Retorna uma nova lista para evitar modificaes acidentais na estrutura interna</li>
-     *   <li>Nomes de comunidades so tratados com distino entre maisculas e minsculas</li>
-     *   <li>A lista pode estar vazia se a comunidade no tiver membros</li>
+     *   <li>Retorna uma nova lista para evitar modificações acidentais na estrutura interna</li>
+     *   <li>Nomes de comunidades são tratados com distinção entre maiúsculas e minúsculas</li>
+     *   <li>A lista pode estar vazia se a comunidade não tiver membros</li>
      * </ul>
      */
     public List<String> getMembrosComunidade(String nome) throws ComunidadeNaoExisteException {
-        return gerenciadorComunidades.getMembros(nome);
+        VersaoLeitura versao = getVersaoLeitura();
+        if (versao != null) {
+            List<String> membros = versao.getMembros(nome);
+            if (membros == null) throw new ComunidadeNaoExisteException();
+            return membros;
+        }
+        TravasUsuarios.Travamento travamento = travas.travarLeitura();
+        try {
+            return gerenciadorComunidades.getMembros(nome);
+        } finally {
+            travamento.liberar();
+        }
     }
 
-
     /**
-     * Obtm o login do dono de uma comunidade especfica.
+     * Obtém o login do dono de uma comunidade específica.
      * <p>
-     * Este mtodo consulta o sistema para recuperar o identificador do usurio criador da comunidade.
+     * Este método consulta o sistema para recuperar o identificador do usuário criador da comunidade.
      * </p>
      *
      * @param nome Nome da comunidade (case-sensitive)
-     * @return Login do usurio proprietrio da comunidade
+     * @return Login do usuário proprietário da comunidade
      * @throws ComunidadeNaoExisteException Se nenhuma comunidade com o nome especificado for encontrada
      *
      * <p>Detalhes importantes:</p>
      * <ul>
-     *   <li>O nome da comunidade deve corresponder exatamente ao cadastrado (incluindo capitalizao)</li>
-     *   <li>Sempre retorna um valor no nulo se a comunidade existir</li>
-     *   <li>Relacionado ao mtodo {@link #criarComunidade(String, String, String)}</li>
+     *   <li>O nome da comunidade deve corresponder exatamente ao cadastrado (incluindo capitalização)</li>
+     *   <li>Sempre retorna um valor não nulo se a comunidade existir</li>
+     *   <li>Relacionado ao método {@link #criarComunidade(String, String, String)}</li>
      * </ul>
      */
     public String getDonoComunidade(String nome) throws ComunidadeNaoExisteException {
-        return gerenciadorComunidades.getDono(nome);
+        TravasUsuarios.Travamento travamento = travas.travarLeitura();
+        try {
+            return gerenciadorComunidades.getDono(nome);
+        } finally {
+            travamento.liberar();
+        }
     }
 
-
-
     /**
-     * Verifica se existe uma relao de amizade estabelecida entre dois usurios.
-     * <p>
-     * Este mtodo consulta o gerenciador de amizades para determinar se o primeiro usurio
-     * tem o segundo usurio em sua lista de amigos.
-     * </p>
+     * Verifica se existe uma relação de amizade unilateral entre dois usuários.
      *
-     * @param login Login do primeiro usurio (usurio base da consulta)
-     * @param amigo Login do segundo usurio (amigo potencial)
-     * @return true se o primeiro usurio tem o segundo em sua lista de amigos, false caso contrrio
-     * @throws UsuarioNaoEncontradoException Se algum dos usurios (login ou amigo) no existir no sistema
+     * <p>Este método verifica se o usuário especificado pelo primeiro parâmetro (login)
+     * possui o segundo usuário (amigo) em sua lista de amigos.</p>
      *
-     * <p>Caractersticas:</p>
-     * <ul>
-     *   <li>Verificao unidirecional (no garante amizade mtua)</li>
-     *   <li>Diferencia letras maisculas/minsculas nos logins</li>
-     *   <li>Relacionado com {@link #adicionarAmigo(String, String)} e {@link #getAmigos(String)}</li>
-     * </ul>
-     */
-
-    /**
-     * Verifica se existe uma relao de amizade unilateral entre dois usurios.
-     *
-     * <p>Este mtodo verifica se o usurio especificado pelo primeiro parmetro (login)
-     * possui o segundo usurio (amigo) em sua lista de amigos.</p>
+     * @param login Login do usuário base para a verificação
+     * @param amigo Login do usuário a ser verificado como amigo
+     * @return true se existir a relação de amizade, false caso contrário
+     * @throws UsuarioNaoEncontradoException Se algum dos usuários não estiver cadastrado no sistema
      *
-     * @param login Login do usurio base para a verificao
-     * @param amigo Login do usurio a ser verificado como amigo
-     * @return true se existir a relao de amizade, false caso contrrio
-     * @throws UsuarioNaoEncontradoException Se algum dos usurios no estiver cadastrado no sistema
-     *
-     * <p>Caractersticas:</p>
+     * <p>Características:</p>
      * <ul>
-     *   <li>Verificao unidirecional (no verifica reciprocidade)</li>
-     *   <li>Diferenciao de case-sensitive nos logins</li>
+     *   <li>Verificação unidirecional (não verifica reciprocidade)</li>
+     *   <li>Diferenciação de case-sensitive nos logins</li>
      *   <li>Consistente com a estrutura {@link Users#getAmigos()}</li>
      * </ul>
      *
-     * @see #adicionarAmigo(String, String) Mtodo relacionado para adicionar amizades
-     * @see #ehAmigoMutuo(String, String) Mtodo para verificao mtua
+     * @see #adicionarAmigo(String, String) Método relacionado para adicionar amizades
+     * @see #ehAmigoMutuo(String, String) Método para verificação mútua
      */
     public boolean ehAmigo(String login, String amigo) throws UsuarioNaoEncontradoException {
-        return gerenciadorAmizades.ehAmigo(login, amigo);
+        VersaoLeitura versao = getVersaoLeitura();
+        if (versao != null) {
+            return perfil(versao, login).ehAmigo(amigo);
+        }
+        TravasUsuarios.Travamento travamento = travas.travar(login, amigo);
+        try {
+            return gerenciadorAmizades.ehAmigo(login, amigo);
+        } finally {
+            travamento.liberar();
+        }
     }
 
     /**
-     * Verifica se existe uma relao de amizade mtua entre dois usurios.
+     * Verifica se existe uma relação de amizade mútua entre dois usuários.
      * <p>
-     * Este mtodo confirma se ambos os usurios esto na lista de amigos um do outro,
+     * Este método confirma se ambos os usuários estão na lista de amigos um do outro,
      * caracterizando uma amizade bidirecional.
      * </p>
      *
-     * @param login Login do primeiro usurio
-     * @param amigo Login do segundo usurio
-     * @return true se ambos usurios so amigos mtuos, false caso contrrio
-     * @throws UsuarioNaoEncontradoException Se algum dos usurios no estiver cadastrado
+     * @param login Login do primeiro usuário
+     * @param amigo Login do segundo usuário
+     * @return true se ambos usuários são amigos mútuos, false caso contrário
+     * @throws UsuarioNaoEncontradoException Se algum dos usuários não estiver cadastrado
      *
-     * <p>Caractersticas:</p>
+     * <p>Características:</p>
      * <ul>
-     *   <li>Verificao bidirecional (ambas as direes da relao)</li>
+     *   <li>Verificação bidirecional (ambas as direções da relação)</li>
      *   <li>Case-sensitive para os logins</li>
-     *   <li>Depende da integridade das listas de amigos em ambos os usurios</li>
+     *   <li>Depende da integridade das listas de amigos em ambos os usuários</li>
      * </ul>
      *
-     * @see #ehAmigo(String, String) Para verificao unidirecional
-     * @see #adicionarAmigo(String, String) Para estabelecer relaes de amizade
+     * @see #ehAmigo(String, String) Para verificação unidirecional
+     * @see #adicionarAmigo(String, String) Para estabelecer relações de amizade
      */
     public boolean ehAmigoMutuo(String login, String amigo) throws UsuarioNaoEncontradoException {
-        return gerenciadorAmizades.ehAmigoMutuo(login, amigo);
+        VersaoLeitura versao = getVersaoLeitura();
+        if (versao != null) {
+            VersaoLeitura.Perfil perfil = perfil(versao, login);
+            VersaoLeitura.Perfil outro = perfil(versao, amigo);
+            return perfil.ehAmigo(amigo) && outro.ehAmigo(login);
+        }
+        TravasUsuarios.Travamento travamento = travas.travar(login, amigo);
+        try {
+            return gerenciadorAmizades.ehAmigoMutuo(login, amigo);
+        } finally {
+            travamento.liberar();
+        }
     }
 
     /**
-     * Recupera a lista de amigos de um usurio formatada como string.
+     * Recupera a lista de amigos de um usuário formatada como string.
      * <p>
-     * O formato de retorno segue o padro {@code {amigo1,amigo2,...}} onde:
+     * O formato de retorno segue o padrão {@code {amigo1,amigo2,...}} onde:
      * <ul>
-     *   <li>A lista  delimitada por chaves</li>
-     *   <li>Os amigos so listados em ordem alfabtica</li>
-     *   <li>Logins so separados por vrgulas sem espaos</li>
+     *   <li>A lista é delimitada por chaves</li>
+     *   <li>Os amigos são listados em ordem alfabética</li>
+     *   <li>Logins são separados por vírgulas sem espaços</li>
      * </ul>
      *
-     * @param login Login do usurio (case-sensitive)
-     * @return String formatada com a lista de amigos ou {@code {}} se no houver amigos
-     * @throws UsuarioNaoEncontradoException Se o login no corresponder a nenhum usurio cadastrado
+     * @param login Login do usuário (case-sensitive)
+     * @return String formatada com a lista de amigos ou {@code {}} se não houver amigos
+     * @throws UsuarioNaoEncontradoException Se o login não corresponder a nenhum usuário cadastrado
      *
      * <p>Exemplo de uso:</p>
      * <pre>
      * String amigos = sistema.getAmigos("joao123");
-     * // Retorno possvel: "{maria456,pedro789}"
+     * // Retorno possível: "{maria456,pedro789}"
      * </pre>
      *
-     * @see #adicionarAmigo(String, String) Para adicionar amigos  lista
+     * @see #adicionarAmigo(String, String) Para adicionar amigos à lista
      * @see #ehAmigo(String, String) Para verificar amizade individual
      */
     public String getAmigos(String login) throws UsuarioNaoEncontradoException {
-        return gerenciadorAmizades.getAmigos(login);
+        VersaoLeitura versao = getVersaoLeitura();
+        if (versao != null) {
+            return "{" + String.join(",", perfil(versao, login).getAmigos()) + "}";
+        }
+        TravasUsuarios.Travamento travamento = travas.travar(login, null);
+        try {
+            return gerenciadorAmizades.getAmigos(login);
+        } finally {
+            travamento.liberar();
+        }
+    }
+
+    /**
+     * Verifica se um usuário é fã de um ídolo.
+     *
+     * @param usuario Login do possível fã
+     * @param idolo Login do ídolo
+     * @return true se o usuário é fã do ídolo
+     * @throws UsuarioNaoEncontradoException Se algum dos usuários não estiver cadastrado
+     */
+    public boolean ehFa(String usuario, String idolo) throws UsuarioNaoEncontradoException {
+        VersaoLeitura versao = getVersaoLeitura();
+        if (versao != null) {
+            perfil(versao, usuario);
+            return perfil(versao, idolo).ehFa(usuario);
+        }
+        TravasUsuarios.Travamento travamento = travas.travar(usuario, idolo);
+        try {
+            Users user = usuarios.buscar(usuario);
+            Users idol = usuarios.buscar(idolo);
+            if (user == null || idol == null) throw new UsuarioNaoEncontradoException();
+            return idol.ehFa(usuario);
+        } finally {
+            travamento.liberar();
+        }
+    }
+
+    /**
+     * Recupera os fãs de um usuário no formato {@code {fa1,fa2,...}}.
+     *
+     * @param login Login do usuário
+     * @return Fãs na ordem em que foram adicionados, ou {@code {}} se não houver
+     * @throws UsuarioNaoEncontradoException Se o usuário não estiver cadastrado
+     */
+    public String getFas(String login) throws UsuarioNaoEncontradoException {
+        VersaoLeitura versao = getVersaoLeitura();
+        if (versao != null) {
+            return "{" + String.join(",", perfil(versao, login).getFas()) + "}";
+        }
+        TravasUsuarios.Travamento travamento = travas.travar(login, null);
+        try {
+            Users user = usuarios.buscar(login);
+            if (user == null) throw new UsuarioNaoEncontradoException();
+            return "{" + String.join(",", user.getFas()) + "}";
+        } finally {
+            travamento.liberar();
+        }
+    }
+
+    /**
+     * Verifica se um usuário está entre as paqueras do usuário da sessão.
+     *
+     * @param idSessao ID da sessão do usuário consultante
+     * @param paquera Login do usuário alvo
+     * @return true se o usuário alvo é paquera do usuário da sessão
+     * @throws SessaoInvalidaExecption Se a sessão for inválida
+     * @throws UsuarioNaoEncontradoException Se algum dos usuários não estiver cadastrado
+     */
+    public boolean ehPaquera(String idSessao, String paquera)
+            throws SessaoInvalidaExecption, UsuarioNaoEncontradoException {
+        VersaoLeitura versao = getVersaoLeitura();
+        if (versao != null) {
+            VersaoLeitura.Perfil perfil = perfilDaSessao(versao, idSessao);
+            perfil(versao, paquera);
+            return perfil.ehPaquera(paquera);
+        }
+        TravasUsuarios.Travamento travamento = travas.travar(sessoes.getLogin(idSessao), null);
+        try {
+            Users user = usuarios.buscar(getLoginPorSessao(idSessao));
+            if (!usuarios.existe(paquera)) throw new UsuarioNaoEncontradoException();
+            return user.ehPaquera(paquera);
+        } finally {
+            travamento.liberar();
+        }
     }
 
     /**
-     * Recupera as solicitaes de amizade pendentes de um usurio em formato especfico.
+     * Recupera as paqueras do usuário da sessão no formato {@code {paquera1,paquera2,...}}.
+     *
+     * @param idSessao ID da sessão do usuário
+     * @return Paqueras na ordem em que foram adicionadas, ou {@code {}} se não houver
+     * @throws SessaoInvalidaExecption Se a sessão for inválida
+     * @throws UsuarioNaoEncontradoException Se o usuário da sessão não existir
+     */
+    public String getPaqueras(String idSessao)
+            throws SessaoInvalidaExecption, UsuarioNaoEncontradoException {
+        VersaoLeitura versao = getVersaoLeitura();
+        if (versao != null) {
+            return "{" + String.join(",", perfilDaSessao(versao, idSessao).getPaqueras()) + "}";
+        }
+        TravasUsuarios.Travamento travamento = travas.travar(sessoes.getLogin(idSessao), null);
+        try {
+            Users user = usuarios.buscar(getLoginPorSessao(idSessao));
+            return "{" + String.join(",", user.getPaqueras()) + "}";
+        } finally {
+            travamento.liberar();
+        }
+    }
+
+    /**
+     * Recupera as solicitações de amizade pendentes de um usuário em formato específico.
      * <p>
-     * Retorna uma string formatada contendo os logins dos usurios que enviaram solicitaes
-     * ainda no respondidas, seguindo o padro {@code {solicitante1,solicitante2,...}}.
+     * Retorna uma string formatada contendo os logins dos usuários que enviaram solicitações
+     * ainda não respondidas, seguindo o padrão {@code {solicitante1,solicitante2,...}}.
      * </p>
      *
-     * @param login Login do usurio alvo (case-sensitive)
-     * @return String estruturada com solicitaes pendentes ou {@code {}} se no houver
-     * @throws UsuarioNaoEncontradoException Se o login no corresponder a um usurio registrado
+     * @param login Login do usuário alvo (case-sensitive)
+     * @return String estruturada com solicitações pendentes ou {@code {}} se não houver
+     * @throws UsuarioNaoEncontradoException Se o login não corresponder a um usuário registrado
      *
-     * <p>Caractersticas:</p>
+     * <p>Características:</p>
      * <ul>
-     *   <li>Formato imutvel - alteraes requerem aceitar/recusar solicitaes</li>
-     *   <li>Ordem determinada pela sequncia de chegada das solicitaes</li>
-     *   <li>Case-sensitive para o parmetro login</li>
+     *   <li>Formato imutável - alterações requerem aceitar/recusar solicitações</li>
+     *   <li>Ordem determinada pela sequência de chegada das solicitações</li>
+     *   <li>Case-sensitive para o parâmetro login</li>
      * </ul>
      *
-     * @see #aceitarSolicitacao(String, String) Para aceitar uma solicitao
-     * @see #recusarSolicitacao(String, String) Para recusar uma solicitao
+     * @see #aceitarSolicitacao(String, String) Para aceitar uma solicitação
+     * @see #recusarSolicitacao(String, String) Para recusar uma solicitação
      *
      * <p>Exemplo:</p>
      * <pre>
      * String pendentes = sistema.getSolicitacoesPendentes("maria");
-     * // Retorno possvel: "{joao,ana,carlos}"
+     * // Retorno possível: "{joao,ana,carlos}"
      * </pre>
      */
     public String getSolicitacoesPendentes(String login) throws UsuarioNaoEncontradoException {
-        return gerenciadorAmizades.getSolicitacoesPendentes(login);
+        VersaoLeitura versao = getVersaoLeitura();
+        if (versao != null) {
+            return "{" + String.join(",", perfil(versao, login).getSolicitacoes()) + "}";
+        }
+        TravasUsuarios.Travamento travamento = travas.travar(login, null);
+        try {
+            return gerenciadorAmizades.getSolicitacoesPendentes(login);
+        } finally {
+            travamento.liberar();
+        }
     }
 
     /**
-     * Aceita uma solicitao de amizade pendente entre dois usurios, estabelecendo uma relao mtua.
+     * Aceita uma solicitação de amizade pendente entre dois usuários, estabelecendo uma relação mútua.
      * <p>
-     * Aps a aceitao:
+     * Após a aceitação:
      * <ul>
-     *   <li>Ambos usurios so adicionados s listas de amigos um do outro</li>
-     *   <li>A solicitao  removida da lista de pendentes do usurio que aceitou</li>
+     *   <li>Ambos usuários são adicionados às listas de amigos um do outro</li>
+     *   <li>A solicitação é removida da lista de pendentes do usuário que aceitou</li>
      *   <li>Atualiza os registros de relacionamentos em tempo real</li>
      * </ul>
      *
-     * @param usuario Login do usurio que est aceitando a solicitao (case-sensitive)
-     * @param amigo Login do usurio que enviou a solicitao (case-sensitive)
+     * @param usuario Login do usuário que está aceitando a solicitação (case-sensitive)
+     * @param amigo Login do usuário que enviou a solicitação (case-sensitive)
      * @throws UsuarioNaoEncontradoException Se:
      * <ul>
-     *   <li>O usurio que aceita no existir</li>
-     *   <li>O usurio solicitante no existir</li>
-     *   <li>No houver solicitao pendente entre os usurios</li>
+     *   <li>O usuário que aceita não existir</li>
+     *   <li>O usuário solicitante não existir</li>
+     *   <li>Não houver solicitação pendente entre os usuários</li>
      * </ul>
      *
-     * <p>Fluxo tpico:</p>
+     * <p>Fluxo típico:</p>
      * <pre>
-     * // 1. Usurio A envia solicitao para B
+     * // 1. Usuário A envia solicitação para B
      * sistema.adicionarAmigo(sessaoA, "B");
      *
-     * // 2. Usurio B aceita solicitao
+     * // 2. Usuário B aceita solicitação
      * sistema.aceitarSolicitacao("B", "A");
      *
-     * // 3. Verifica amizade mtua
+     * // 3. Verifica amizade mútua
      * boolean amigos = sistema.ehAmigoMutuo("A", "B"); // retorna true
      * </pre>
      *
-     * @see #recusarSolicitacao(String, String) Para operao complementar
-     * @see #getSolicitacoesPendentes(String) Para consultar pendncias
+     * @see #recusarSolicitacao(String, String) Para operação complementar
+     * @see #getSolicitacoesPendentes(String) Para consultar pendências
      */
     public void aceitarSolicitacao(String usuario, String amigo) throws UsuarioNaoEncontradoException {
-        gerenciadorAmizades.aceitarSolicitacao(usuario, amigo);
+        TravasUsuarios.Travamento travamento = travas.travar(usuario, amigo);
+        try {
+            if (!usuarios.existe(usuario) || !usuarios.existe(amigo)) {
+                throw new UsuarioNaoEncontradoException();
+            }
+            journal.registrar(Journal.Operacao.ACEITAR_SOLICITACAO, usuario, amigo);
+            alteracoes.marcarUsuario(usuario);
+            alteracoes.marcarUsuario(amigo);
+            gerenciadorAmizades.aceitarSolicitacao(usuario, amigo);
+            referencias.registrar(usuario, amigo);
+            referencias.registrar(amigo, usuario);
+        } finally {
+            travamento.liberar();
+        }
     }
 
-
     /**
-     * Recusa uma solicitao de amizade pendente, removendo-a definitivamente do sistema.
+     * Recusa uma solicitação de amizade pendente, removendo-a definitivamente do sistema.
      * <p>
-     * Aps esta operao:
+     * Após esta operação:
      * <ul>
-     *   <li>A solicitao  permanentemente descartada</li>
-     *   <li>Nenhuma relao de amizade  estabelecida</li>
-     *   <li>No h notificao automtica para o solicitante</li>
+     *   <li>A solicitação é permanentemente descartada</li>
+     *   <li>Nenhuma relação de amizade é estabelecida</li>
+     *   <li>Não há notificação automática para o solicitante</li>
      * </ul>
      *
-     * @param usuario Login do usurio que est recusando (case-sensitive)
-     * @param amigo Login do usurio solicitante (case-sensitive)
+     * @param usuario Login do usuário que está recusando (case-sensitive)
+     * @param amigo Login do usuário solicitante (case-sensitive)
      * @throws UsuarioNaoEncontradoException Se:
      * <ul>
-     *   <li>O usurio que recusa no existir</li>
-     *   <li>O solicitante no existir</li>
-     *   <li>No houver solicitao ativa entre os usurios</li>
+     *   <li>O usuário que recusa não existir</li>
+     *   <li>O solicitante não existir</li>
+     *   <li>Não houver solicitação ativa entre os usuários</li>
      * </ul>
      *
      * <p>Exemplo de fluxo:</p>
      * <pre>
-     * // 1. Usurio A envia solicitao para B
+     * // 1. Usuário A envia solicitação para B
      * sistema.adicionarAmigo(sessaoA, "B");
      *
-     * // 2. Usurio B recusa solicitao
+     * // 2. Usuário B recusa solicitação
      * sistema.recusarSolicitacao("B", "A");
      *
-     * // 3. Verifica pendncias
+     * // 3. Verifica pendências
      * String pendentes = sistema.getSolicitacoesPendentes("B"); // retorna "{}"
      * </pre>
      *
-     * @see #aceitarSolicitacao(String, String) Para operao complementar
-     * @see #getSolicitacoesPendentes(String) Para consultar solicitaes ativas
+     * @see #aceitarSolicitacao(String, String) Para operação complementar
+     * @see #getSolicitacoesPendentes(String) Para consultar solicitações ativas
      */
     public void recusarSolicitacao(String usuario, String amigo) throws UsuarioNaoEncontradoException {
-        gerenciadorAmizades.recusarSolicitacao(usuario, amigo);
+        TravasUsuarios.Travamento travamento = travas.travar(usuario, amigo);
+        try {
+            if (!usuarios.existe(usuario)) {
+                throw new UsuarioNaoEncontradoException();
+            }
+            journal.registrar(Journal.Operacao.RECUSAR_SOLICITACAO, usuario, amigo);
+            alteracoes.marcarUsuario(usuario);
+            alteracoes.marcarUsuario(amigo);
+            gerenciadorAmizades.recusarSolicitacao(usuario, amigo);
+        } finally {
+            travamento.liberar();
+        }
     }
 
-
     /**
      * Adiciona um novo membro a uma comunidade existente no sistema.
      *
-     * <p><b>Comportamento aps adio bem-sucedida:</b></p>
+     * <p><b>Comportamento após adição bem-sucedida:</b></p>
      * <ul>
-     *   <li>O membro ganha acesso total s funcionalidades da comunidade</li>
-     *   <li>A comunidade aparece na lista de comunidades do usurio</li>
-     *   <li>Nenhuma notificao automtica  enviada aos membros existentes</li>
+     *   <li>O membro ganha acesso total às funcionalidades da comunidade</li>
+     *   <li>A comunidade aparece na lista de comunidades do usuário</li>
+     *   <li>Nenhuma notificação automática é enviada aos membros existentes</li>
      * </ul>
      *
-     * @param comunidade Nome da comunidade onde o membro ser adicionado (case-sensitive)
-     * @param membro Login do usurio que ser adicionado como membro
-     * @throws ComunidadeNaoExisteException Se no existir comunidade com o nome especificado
-     * @throws MembroJaExisteException Se o usurio j for membro da comunidade
+     * @param comunidade Nome da comunidade onde o membro será adicionado (case-sensitive)
+     * @param membro Login do usuário que será adicionado como membro
+     * @throws ComunidadeNaoExisteException Se não existir comunidade com o nome especificado
+     * @throws MembroJaExisteException Se o usuário já for membro da comunidade
      *
      * @see GerenciadorComunidades#adicionarmembro(String, String)
      */
     public void adicionarComunidade(String comunidade, String membro)
             throws ComunidadeNaoExisteException, MembroJaExisteException, UsuarioNaoEncontradoException {
-        gerenciadorComunidades.adicionarmembro(comunidade, membro);
+        TravasUsuarios.Travamento travamento = travas.travarComunidade(comunidade, membro, null);
+        try {
+            Comunidade registro = gerenciadorComunidades.getRegistroComunidade(comunidade);
+            if (registro == null) {
+                throw new ComunidadeNaoExisteException();
+            }
+            if (registro.isMembro(membro)) {
+                throw new MembroJaExisteException();
+            }
+            journal.registrar(Journal.Operacao.ADICIONAR_COMUNIDADE, comunidade, membro);
+            gerenciadorComunidades.adicionarmembro(comunidade, membro);
+        } finally {
+            travamento.liberar();
+        }
     }
 
     /**
-     * Recupera a lista de comunidades das quais um usurio  membro.
+     * Recupera a lista de comunidades das quais um usuário é membro.
      *
-     * <p><b>Caractersticas do retorno:</b></p>
+     * <p><b>Características do retorno:</b></p>
      * <ul>
-     *   <li>Retorna lista vazia se o usurio no pertencer a comunidades</li>
-     *   <li>Nomes de comunidades mantm capitalizao original</li>
-     *   <li>A lista  uma cpia defensiva para evitar modificaes externas</li>
+     *   <li>Retorna lista vazia se o usuário não pertencer a comunidades</li>
+     *   <li>Nomes de comunidades mantêm capitalização original</li>
+     *   <li>A lista é uma cópia defensiva para evitar modificações externas</li>
      * </ul>
      *
-     * @param usuario Login do usurio (case-sensitive) para consulta
-     * @return Lista no modificvel de nomes de comunidades em ordem alfabtica
+     * @param usuario Login do usuário (case-sensitive) para consulta
+     * @return Lista não modificável de nomes de comunidades em ordem alfabética
      * @see GerenciadorComunidades#getComunidadesDoUsuario(String)
      */
     public List<String> getComunidadesDoUsuario(String usuario) {
-        return gerenciadorComunidades.getComunidadesDoUsuario(usuario);
-    }
-
-
-    /**
-     * Retorna o mapeamento interno de logins de usurio para IDs de sesso ativas.
-     *
-     * <p><b>Caractersticas importantes:</b></p>
-     * <ul>
-     *   <li>O mapa retornado  uma cpia defensiva para garantir encapsulamento</li>
-     *   <li>Modificaes no mapa retornado NO afetam o estado interno do sistema</li>
-     *   <li>IDs de sesso so dados sensveis - tratar com cuidado de segurana</li>
-     * </ul>
-     *
-     * @return Mapa no modificvel onde:
-     *         <ul>
-     *           <li><b>Chave:</b> Login do usurio (case-sensitive)</li>
-     *           <li><b>Valor:</b> ID nico da sesso associada (formato UUID)</li>
-     *         </ul>
-     *         Retorna mapa vazio se no houver sesses ativas
-     *
-     * @see #abrirSessao(String, String) Para entender como as sesses so criadas
-     * @see #getSessoes() Para obter o mapeamento inverso (ID sesso ? login)
-     */
-    public Map<String, String> getLoginParaSessao() {
-        return loginParaSessao;
+        VersaoLeitura versao = getVersaoLeitura();
+        if (versao != null) {
+            VersaoLeitura.Perfil perfil = versao.getPerfil(usuario);
+            return perfil == null ? new ArrayList<>() : perfil.getComunidades();
+        }
+        TravasUsuarios.Travamento travamento = travas.travarLeitura();
+        try {
+            return gerenciadorComunidades.getComunidadesDoUsuario(usuario);
+        } finally {
+            travamento.liberar();
+        }
     }
 
-
     /**
      * Retorna o mapa completo de comunidades registradas no sistema.
      *
-     * <p><b>Caractersticas importantes:</b></p>
+     * <p><b>Características importantes:</b></p>
      * <ul>
-     *   <li>O mapa  transiente e no persiste entre serializaes</li>
-     *   <li>Modificaes no mapa retornado AFETAM diretamente o estado interno do sistema</li>
-     *   <li>Para operaes seguras, prefira usar os mtodos dedicados de gesto de comunidades</li>
-     *   <li>Reinicializado automaticamente durante desserializao se necessrio</li>
+     *   <li>O mapa é transiente e não persiste entre serializações</li>
+     *   <li>Modificações no mapa retornado AFETAM diretamente o estado interno do sistema</li>
+     *   <li>Para operações seguras, prefira usar os métodos dedicados de gestão de comunidades</li>
+     *   <li>Reinicializado automaticamente durante desserialização se necessário</li>
      * </ul>
      *
      * @return Mapa onde:
@@ -1049,10 +2106,10 @@ public class Jackut implements Serializable{
      *           <li><b>Chave:</b> Nome da comunidade (case-sensitive)</li>
      *           <li><b>Valor:</b> Objeto {@link Comunidade} correspondente</li>
      *         </ul>
-     *         Retorna mapa vazio se no houver comunidades registradas
+     *         Retorna mapa vazio se não houver comunidades registradas
      *
      * @see #criarComunidade(String, String, String) Para criar novas comunidades
-     * @see GerenciadorComunidades Para operaes controladas de gesto de comunidades
+     * @see GerenciadorComunidades Para operações controladas de gestão de comunidades
      * @see java.io.Serializable Para entender o comportamento transiente
      */
     public Map<String, Comunidade> getComunidades() {
@@ -1060,26 +2117,26 @@ public class Jackut implements Serializable{
     }
 
     /**
-     * Retorna a instncia do gerenciador de comunidades do sistema.
+     * Retorna a instância do gerenciador de comunidades do sistema.
      *
-     * <p><b>Caractersticas importantes:</b></p>
+     * <p><b>Características importantes:</b></p>
      * <ul>
-     *   <li>A instncia retornada  o controlador central das operaes de comunidades</li>
-     *   <li>Modificaes no gerenciador AFETAM diretamente o estado global do sistema</li>
-     *   <li>Prefira usar mtodos pblicos da classe Jackut para operaes comuns</li>
-     *   <li>Para extenses avanadas, utilize a interface {@link IGerenciadorComunidades}</li>
+     *   <li>A instância retornada é o controlador central das operações de comunidades</li>
+     *   <li>Modificações no gerenciador AFETAM diretamente o estado global do sistema</li>
+     *   <li>Prefira usar métodos públicos da classe Jackut para operações comuns</li>
+     *   <li>Para extensões avançadas, utilize a interface {@link IGerenciadorComunidades}</li>
      * </ul>
      *
-     * @return Implementao concreta de {@link IGerenciadorComunidades} responsvel por:
+     * @return Implementação concreta de {@link IGerenciadorComunidades} responsável por:
      *         <ul>
-     *           <li>Criao/remoo de comunidades</li>
-     *           <li>Gesto de membros</li>
+     *           <li>Criação/remoção de comunidades</li>
+     *           <li>Gestão de membros</li>
      *           <li>Consulta de dados de comunidades</li>
      *         </ul>
      *
-     * @see GerenciadorComunidades Para detalhes da implementao padro
-     * @see #criarComunidade(String, String, String) Exemplo de mtodo que utiliza este gerenciador
-     * @see #getComunidadesDoUsuario(String) Mtodo relacionado para consulta de membros
+     * @see GerenciadorComunidades Para detalhes da implementação padrão
+     * @see #criarComunidade(String, String, String) Exemplo de método que utiliza este gerenciador
+     * @see #getComunidadesDoUsuario(String) Método relacionado para consulta de membros
      */
 
     public IGerenciadorComunidades getGerenciadorComunidades() {
@@ -1087,33 +2144,30 @@ public class Jackut implements Serializable{
     }
 
     /**
-     * Retorna o gerenciador central de operaes relacionadas a amizades e relacionamentos sociais.
+     * Retorna o gerenciador central de operações relacionadas a amizades e relacionamentos sociais.
      *
-     * <p><b>Consideraes importantes:</b></p>
+     * <p><b>Considerações importantes:</b></p>
      * <ul>
-     *   <li>O gerenciador retornado  o componente central das interaes sociais do sistema</li>
-     *   <li>Modificaes diretas neste componente AFETAM todo o estado de relacionamentos</li>
-     *   <li>Para operaes rotineiras, utilize os mtodos dedicados da classe Jackut</li>
-     *   <li>Para customizaes avanadas, implemente {@link IGerenciadorAmizades}</li>
+     *   <li>O gerenciador retornado é o componente central das interações sociais do sistema</li>
+     *   <li>Modificações diretas neste componente AFETAM todo o estado de relacionamentos</li>
+     *   <li>Para operações rotineiras, utilize os métodos dedicados da classe Jackut</li>
+     *   <li>Para customizações avançadas, implemente {@link IGerenciadorAmizades}</li>
      * </ul>
      *
-     * @return Implementao concreta de {@link IGerenciadorAmizades} responsvel por:
+     * @return Implementação concreta de {@link IGerenciadorAmizades} responsável por:
      *         <ul>
-     *           <li>Gesto de solicitaes de amizade</li>
-     *           <li>Manuteno das listas de amigos</li>
-     *           <li>Verificao de status de relacionamentos</li>
-     *           <li>Resoluo de conflitos em relaes sociais</li>
+     *           <li>Gestão de solicitações de amizade</li>
+     *           <li>Manutenção das listas de amigos</li>
+     *           <li>Verificação de status de relacionamentos</li>
+     *           <li>Resolução de conflitos em relações sociais</li>
      *         </ul>
      *
-     * @see GerenciadorAmizades Para detalhes da implementao padro
-     * @see #adicionarAmigo(String, String) Exemplo de operao gerenciada
-     * @see #getAmigos(String) Mtodo relacionado para consulta de amigos
-     * @see #ehAmigoMutuo(String, String) Mtodo de verificao de relacionamento
+     * @see GerenciadorAmizades Para detalhes da implementação padrão
+     * @see #adicionarAmigo(String, String) Exemplo de operação gerenciada
+     * @see #getAmigos(String) Método relacionado para consulta de amigos
+     * @see #ehAmigoMutuo(String, String) Método de verificação de relacionamento
      */
     public IGerenciadorAmizades getGerenciadorAmizades() {
         return gerenciadorAmizades;
     }
 }
-
-
-
@@ -5,25 +5,25 @@ import java.io.Serializable;
 /**
  * Classe que representa uma mensagem trocada no sistema Jackut.
  * <p>
- * Armazena informaes bsicas sobre uma mensagem, incluindo:
+ * Armazena informações básicas sobre uma mensagem, incluindo:
  * <ul>
- *   <li>Identificao do remetente</li>
- *   <li>Contedo textual da mensagem</li>
- *   <li>Metadados para serializao</li>
+ *   <li>Identificação do remetente</li>
+ *   <li>Conteúdo textual da mensagem</li>
+ *   <li>Metadados para serialização</li>
  * </ul>
  *
- * <p>Implementa {@link Serializable} para permitir persistncia e transmisso.</p>
+ * <p>Implementa {@link Serializable} para permitir persistência e transmissão.</p>
  */
 public class Mensagem implements Serializable {
 
     /**
-     * Identificador de verso para controle de serializao.
+     * Identificador de versão para controle de serialização.
      * <p>
-     * Garante compatibilidade entre verses diferentes da classe durante desserializao.
+     * Garante compatibilidade entre versões diferentes da classe durante desserialização.
      */
     private static final long serialVersionUID = 1L;
     /**
-     * Login do usurio que enviou a mensagem (case-sensitive).
+     * Login do usuário que enviou a mensagem (case-sensitive).
      */
     private final String remetente;
     /**
@@ -32,12 +32,12 @@ public class Mensagem implements Serializable {
     private final String conteudo;
 
     /**
-     * Constri uma nova mensagem com dados completos.
+     * Constrói uma nova mensagem com dados completos.
      *
-     * @param remetente Login do usurio remetente (no nulo)
-     * @param conteudo Texto da mensagem (no nulo)
+     * @param remetente Login do usuário remetente (não nulo)
+     * @param conteudo Texto da mensagem (não nulo)
      *
-     * <p><b>Nota:</b> Este construtor no realiza validaes nos parmetros</p>
+     * <p><b>Nota:</b> Este construtor não realiza validações nos parâmetros</p>
      */
     public Mensagem(String remetente, String conteudo) {
         this.remetente = remetente;
@@ -49,12 +49,12 @@ public class Mensagem implements Serializable {
     /**
      * Recupera o identificador do autor da mensagem.
      *
-     * @return Login do remetente (formato original de criao)
+     * @return Login do remetente (formato original de criação)
      */
     public String getRemetente() { return remetente; }
 
     /**
-     * Recupera o contedo completo da mensagem.
+     * Recupera o conteúdo completo da mensagem.
      *
      * @return Texto da mensagem exatamente como foi enviado
      */
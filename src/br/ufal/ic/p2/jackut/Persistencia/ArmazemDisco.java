@@ -0,0 +1,79 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Users;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Armazém de usuários despejados em um arquivo temporário.
+ * <p>
+ * Cada registro é gravado no final do arquivo, precedido pelo seu tamanho, e relido por
+ * leitura posicional. O arquivo é criado no primeiro despejo, esvaziado por
+ * {@link #limpar()} e apagado ao encerrar a JVM.
+ * </p>
+ */
+public class ArmazemDisco implements ArmazemRegistros {
+    private final File diretorio;
+    private final SaidaBinaria registro = new SaidaBinaria(4096);
+    private FileChannel canal;
+    private long tamanho;
+
+    /**
+     * @param diretorio Diretório onde o arquivo temporário será criado
+     */
+    public ArmazemDisco(File diretorio) {
+        this.diretorio = diretorio;
+    }
+
+    @Override
+    public long gravar(Users usuario) throws IOException {
+        if (canal == null) {
+            File arquivo = File.createTempFile("jackut-", ".despejo", diretorio);
+            arquivo.deleteOnExit();
+            canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        }
+        CodecRegistros.codificarUsuario(usuario, registro);
+
+        long posicao = tamanho;
+        ByteBuffer bytes = ByteBuffer.allocate(Integer.BYTES + registro.tamanho());
+        bytes.putInt(registro.tamanho()).put(registro.paraBytes()).flip();
+        while (bytes.hasRemaining()) {
+            canal.write(bytes, posicao + bytes.position());
+        }
+        tamanho += bytes.limit();
+        return posicao;
+    }
+
+    @Override
+    public Users ler(long posicao) throws IOException {
+        ByteBuffer cabecalho = lerCompleto(ByteBuffer.allocate(Integer.BYTES), posicao);
+        ByteBuffer conteudo = lerCompleto(ByteBuffer.allocate(cabecalho.getInt()), posicao + Integer.BYTES);
+        return CodecRegistros.decodificarUsuario(new EntradaBinaria(conteudo));
+    }
+
+    @Override
+    public long tamanho() { return tamanho; }
+
+    @Override
+    public void limpar() throws IOException {
+        if (canal != null) {
+            canal.truncate(0);
+        }
+        tamanho = 0;
+    }
+
+    private ByteBuffer lerCompleto(ByteBuffer destino, long posicao) throws IOException {
+        while (destino.hasRemaining()) {
+            if (canal.read(destino, posicao + destino.position()) < 0) {
+                throw new IOException("Registro incompleto no armazém de despejo");
+            }
+        }
+        destino.flip();
+        return destino;
+    }
+}
@@ -0,0 +1,60 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Users;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Armazém de usuários despejados em memória fora do heap.
+ * <p>
+ * Os registros são anexados a blocos alocados com {@link ByteBuffer#allocateDirect(int)},
+ * que não são percorridos pelo coletor de lixo; um registro maior que o bloco padrão recebe
+ * um bloco próprio. A posição de um registro combina o número do bloco (32 bits superiores)
+ * e o deslocamento dentro dele. A leitura decodifica diretamente do bloco, sem cópia
+ * intermediária.
+ * </p>
+ */
+public class ArmazemForaDoHeap implements ArmazemRegistros {
+    /** Tamanho padrão de cada bloco alocado */
+    private static final int TAMANHO_BLOCO = 4 << 20;
+
+    private final List<ByteBuffer> blocos = new ArrayList<>();
+    private final SaidaBinaria registro = new SaidaBinaria(4096);
+    private long tamanho;
+
+    @Override
+    public long gravar(Users usuario) {
+        CodecRegistros.codificarUsuario(usuario, registro);
+        int necessario = Integer.BYTES + registro.tamanho();
+
+        ByteBuffer bloco = blocos.isEmpty() ? null : blocos.get(blocos.size() - 1);
+        if (bloco == null || bloco.remaining() < necessario) {
+            bloco = ByteBuffer.allocateDirect(Math.max(TAMANHO_BLOCO, necessario));
+            blocos.add(bloco);
+        }
+        long posicao = ((long) (blocos.size() - 1) << 32) | bloco.position();
+        bloco.putInt(registro.tamanho());
+        bloco.put(registro.paraBytes());
+        tamanho += necessario;
+        return posicao;
+    }
+
+    @Override
+    public Users ler(long posicao) {
+        ByteBuffer conteudo = blocos.get((int) (posicao >>> 32)).duplicate();
+        int inicio = (int) posicao;
+        conteudo.limit(inicio + Integer.BYTES + conteudo.getInt(inicio)).position(inicio + Integer.BYTES);
+        return CodecRegistros.decodificarUsuario(new EntradaBinaria(conteudo.slice()));
+    }
+
+    @Override
+    public long tamanho() { return tamanho; }
+
+    @Override
+    public void limpar() {
+        blocos.clear();
+        tamanho = 0;
+    }
+}
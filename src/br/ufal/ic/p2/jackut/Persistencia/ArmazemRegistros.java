@@ -0,0 +1,47 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Users;
+
+import java.io.IOException;
+
+/**
+ * Armazém dos usuários despejados do heap por {@link UsuariosSobDemanda}.
+ * <p>
+ * Cada gravação anexa um registro autocontido ({@link CodecRegistros#codificarUsuario})
+ * e devolve a posição pela qual ele é relido. Registros substituídos não são reaproveitados
+ * até {@link #limpar()}.
+ * </p>
+ *
+ * <p>As implementações não são sincronizadas: o chamador deve garantir exclusão mútua.</p>
+ */
+public interface ArmazemRegistros {
+    /**
+     * Anexa o registro de um usuário ao armazém.
+     *
+     * @param usuario Usuário a ser gravado
+     * @return Posição (não negativa) do registro no armazém
+     * @throws IOException Se ocorrer erro de escrita
+     */
+    long gravar(Users usuario) throws IOException;
+
+    /**
+     * Lê o registro de um usuário gravado por {@link #gravar(Users)}.
+     *
+     * @param posicao Posição do registro
+     * @return Usuário reconstruído
+     * @throws IOException Se ocorrer erro de leitura
+     */
+    Users ler(long posicao) throws IOException;
+
+    /**
+     * @return Espaço ocupado pelos registros, em bytes
+     */
+    long tamanho();
+
+    /**
+     * Descarta todos os registros gravados.
+     *
+     * @throws IOException Se o armazenamento não puder ser esvaziado
+     */
+    void limpar() throws IOException;
+}
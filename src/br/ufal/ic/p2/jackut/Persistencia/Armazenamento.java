@@ -0,0 +1,119 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Componentes.RepositorioRecadosUsuarios;
+import br.ufal.ic.p2.jackut.Componentes.RepositorioUsuariosHeap;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioRecados;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioUsuarios;
+
+import java.io.File;
+
+/**
+ * Formas de armazenamento dos registros de usuário, escolhida na inicialização pela
+ * propriedade de sistema {@code jackut.armazenamento} ({@code heap}, {@code foraDoHeap},
+ * {@code disco} ou {@code lsm}).
+ * <p>
+ * Fora do heap, em disco e no LSM, apenas os usuários mais usados residem no heap (até
+ * {@code jackut.usuarios.capacidade}, por padrão {@value #CAPACIDADE_PADRAO}); os demais são
+ * guardados codificados e decodificados no próximo acesso ({@link UsuariosSobDemanda}).
+ * Sessões e comunidades continuam no heap em todas as formas; as caixas de entrada ficam nos
+ * registros de usuário, ou em logs mapeados em memória com {@code jackut.recados=mapeado}
+ * ({@link #criarRepositorioRecados}).
+ * </p>
+ * <p>
+ * No armazenamento {@link #LSM}, o estado do sistema é gravado em uma {@link ArvoreLsm árvore LSM}
+ * ({@link SnapshotLsm}) em vez do arquivo de snapshot, e os usuários são lidos da árvore sob demanda.
+ * </p>
+ */
+public enum Armazenamento {
+    /** Todos os usuários no heap */
+    HEAP,
+    /** Usuários menos usados codificados em memória fora do heap */
+    FORA_DO_HEAP,
+    /** Usuários menos usados codificados em um arquivo temporário */
+    DISCO,
+    /** Estado gravado em uma árvore LSM, de onde os usuários são lidos sob demanda */
+    LSM;
+
+    /** Quantidade padrão de usuários residentes fora do armazenamento {@link #HEAP} */
+    public static final int CAPACIDADE_PADRAO = 10000;
+    /** Tamanho padrão, em KB, dos segmentos do log de recados mapeado */
+    public static final int SEGMENTO_RECADOS_KB = 1024;
+
+    /**
+     * Obtém o armazenamento configurado pelas propriedades de sistema. Sem
+     * {@code jackut.armazenamento}, uma capacidade positiva em {@code jackut.usuarios.capacidade}
+     * seleciona {@link #DISCO}.
+     *
+     * @return Armazenamento configurado ({@link #HEAP} se a propriedade for inválida)
+     */
+    public static Armazenamento configurado() {
+        String nome = System.getProperty("jackut.armazenamento");
+        if (nome == null) {
+            return Integer.getInteger("jackut.usuarios.capacidade", 0) > 0 ? DISCO : HEAP;
+        }
+        switch (nome.trim().toLowerCase()) {
+            case "heap":
+                return HEAP;
+            case "foradoheap":
+            case "fora_do_heap":
+                return FORA_DO_HEAP;
+            case "disco":
+                return DISCO;
+            case "lsm":
+                return LSM;
+            default:
+                System.err.println("Armazenamento desconhecido: " + nome + " (usando heap)");
+                return HEAP;
+        }
+    }
+
+    /**
+     * Cria um repositório de usuários vazio nesta forma de armazenamento.
+     * <p>
+     * No heap, a propriedade {@code jackut.snapshot.sobDemanda} faz com que os usuários do
+     * snapshot sejam decodificados apenas no primeiro acesso.
+     * </p>
+     *
+     * @param diretorio Diretório dos arquivos temporários do armazenamento em disco
+     * @return Repositório de usuários
+     */
+    public IRepositorioUsuarios criarRepositorioUsuarios(File diretorio) {
+        int capacidade = Integer.getInteger("jackut.usuarios.capacidade", CAPACIDADE_PADRAO);
+        switch (this) {
+            case FORA_DO_HEAP:
+                return new UsuariosSobDemanda(capacidade, new ArmazemForaDoHeap());
+            case DISCO:
+            case LSM:
+                return new UsuariosSobDemanda(capacidade, new ArmazemDisco(diretorio));
+            default:
+                return Boolean.getBoolean("jackut.snapshot.sobDemanda")
+                        ? new UsuariosSobDemanda() : new RepositorioUsuariosHeap();
+        }
+    }
+
+    /**
+     * Cria o repositório de recados configurado pela propriedade de sistema {@code jackut.recados}.
+     * <p>
+     * Com {@code mapeado}, os recados ficam em logs segmentados mapeados em memória
+     * ({@link RepositorioRecadosMapeado}), divididos em {@code jackut.recados.particoes} partições
+     * (por padrão, a quantidade de processadores) com segmentos de {@code jackut.recados.segmento.kb}
+     * KB (por padrão, {@value #SEGMENTO_RECADOS_KB}). Caso contrário, ficam nos registros de usuário.
+     * </p>
+     *
+     * @param usuarios Repositório dos usuários donos das caixas
+     * @param diretorio Diretório dos arquivos temporários dos segmentos
+     * @return Repositório de recados vazio
+     */
+    public static IRepositorioRecados criarRepositorioRecados(IRepositorioUsuarios usuarios, File diretorio) {
+        String nome = System.getProperty("jackut.recados", "usuarios").trim();
+        if (nome.equalsIgnoreCase("mapeado")) {
+            return new RepositorioRecadosMapeado(usuarios, diretorio,
+                    Integer.getInteger("jackut.recados.particoes", Runtime.getRuntime().availableProcessors()),
+                    Integer.getInteger("jackut.recados.segmento.kb", SEGMENTO_RECADOS_KB) * 1024);
+        }
+        if (!nome.equalsIgnoreCase("usuarios")) {
+            System.err.println("Repositório de recados desconhecido: " + nome + " (usando usuarios)");
+        }
+        return new RepositorioRecadosUsuarios(usuarios);
+    }
+}
@@ -0,0 +1,713 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Armazenamento chave-valor local organizado como uma árvore LSM (log-structured merge-tree).
+ * <p>
+ * As escritas são anexadas a um registro de escrita antecipada ({@code registro.log}) e
+ * aplicadas a uma tabela em memória ordenada. Quando a tabela em memória atinge
+ * {@code jackut.lsm.memoria.kb} (por padrão {@value #LIMITE_MEMORIA_PADRAO_KB} KB), ela é gravada
+ * como uma {@link TabelaOrdenada tabela ordenada imutável} no nível 0 e o registro é esvaziado.
+ * Após uma queda, as escritas ainda não gravadas em tabelas são recuperadas do registro.
+ * </p>
+ *
+ * <p><b>Compactação por níveis:</b> as tabelas do nível 0 podem ter chaves sobrepostas; a partir
+ * do nível 1, as tabelas de cada nível cobrem intervalos disjuntos e o tamanho máximo do nível
+ * cresce dez vezes a cada nível. Quando o nível 0 acumula {@value #GATILHO_NIVEL0} tabelas, ou um
+ * nível excede o seu tamanho, as tabelas excedentes são mescladas com as tabelas sobrepostas do
+ * nível seguinte por uma thread daemon, sem bloquear leituras e escritas. Remoções são descartadas
+ * quando chegam ao nível mais profundo.</p>
+ *
+ * <p>As tabelas de cada nível são listadas no {@code MANIFESTO}, substituído atomicamente
+ * após cada gravação ou compactação; tabelas fora do manifesto são apagadas na abertura.
+ * Uma leitura consulta a tabela em memória e depois as tabelas do mais novo para o mais antigo,
+ * com um {@link FiltroBloom filtro de Bloom} por tabela.</p>
+ *
+ * <p>Há no máximo uma instância aberta por diretório ({@link #abrir(File)}).</p>
+ */
+public class ArvoreLsm implements Closeable {
+    /** Limite padrão da tabela em memória, em KB */
+    public static final int LIMITE_MEMORIA_PADRAO_KB = 4096;
+    /** Tamanho padrão das tabelas geradas pela compactação, em KB */
+    public static final int TAMANHO_TABELA_PADRAO_KB = 2048;
+    /** Quantidade de tabelas no nível 0 que dispara uma compactação */
+    public static final int GATILHO_NIVEL0 = 4;
+    /** Quantidade máxima de níveis */
+    public static final int NIVEIS = 7;
+
+    /** Valor que marca uma chave removida na tabela em memória e nas tabelas ordenadas */
+    static final byte[] REMOVIDO = new byte[0];
+
+    private static final int MAGICO_MANIFESTO = 0x4A4B4C4D;
+    private static final String MANIFESTO = "MANIFESTO";
+    private static final String REGISTRO = "registro.log";
+
+    /** Árvores abertas, por diretório canônico */
+    private static final Map<File, ArvoreLsm> ABERTAS = new HashMap<>();
+    /** Thread de compactação compartilhada pelas árvores abertas */
+    private static final ExecutorService COMPACTADOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "jackut-lsm");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File diretorio;
+    private final long limiteMemoria;
+    private final long tamanhoTabela;
+    private final FileChannel registro;
+
+    /** Tabela em memória: chave -> valor ou {@link #REMOVIDO} */
+    private volatile ConcurrentSkipListMap<String, byte[]> memoria = new ConcurrentSkipListMap<>();
+    private long tamanhoMemoria;
+    /** Tabelas de cada nível (listas imutáveis, substituídas a cada alteração) */
+    private volatile List<List<TabelaOrdenada>> niveis;
+    private long proximaTabela = 1;
+    /** Incrementada por {@link #limpar()}, para descartar compactações em andamento */
+    private long epoca;
+    private boolean compactacaoAgendada;
+    /** Última chave compactada de cada nível, para alternar entre as tabelas do nível */
+    private final String[] cursores = new String[NIVEIS];
+
+    private ArvoreLsm(File diretorio) throws IOException {
+        this.diretorio = diretorio;
+        this.limiteMemoria = Long.getLong("jackut.lsm.memoria.kb", LIMITE_MEMORIA_PADRAO_KB) * 1024;
+        this.tamanhoTabela = Long.getLong("jackut.lsm.tabela.kb", TAMANHO_TABELA_PADRAO_KB) * 1024;
+        if (!diretorio.isDirectory() && !diretorio.mkdirs()) {
+            throw new IOException("Não foi possível criar o diretório " + diretorio);
+        }
+        this.niveis = lerManifesto();
+        apagarTabelasOrfas();
+        this.registro = FileChannel.open(new File(diretorio, REGISTRO).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recuperarRegistro();
+        agendarCompactacao();
+    }
+
+    /**
+     * Abre a árvore de um diretório, criando-a se não existir. Aberturas repetidas do
+     * mesmo diretório devolvem a mesma instância.
+     *
+     * @param diretorio Diretório da árvore
+     * @return Árvore aberta
+     * @throws IOException Se o diretório não puder ser criado ou os arquivos não puderem ser lidos
+     */
+    public static ArvoreLsm abrir(File diretorio) throws IOException {
+        File chave = diretorio.getCanonicalFile();
+        synchronized (ABERTAS) {
+            ArvoreLsm arvore = ABERTAS.get(chave);
+            if (arvore == null) {
+                arvore = new ArvoreLsm(chave);
+                ABERTAS.put(chave, arvore);
+            }
+            return arvore;
+        }
+    }
+
+    /**
+     * Obtém o valor de uma chave.
+     *
+     * @param chave Chave procurada
+     * @return Valor ou null se a chave não existir
+     */
+    public byte[] ler(String chave) {
+        byte[] valor = memoria.get(chave);
+        if (valor == null) {
+            List<List<TabelaOrdenada>> atuais = niveis;
+            List<TabelaOrdenada> nivel0 = atuais.get(0);
+            for (int i = nivel0.size() - 1; i >= 0 && valor == null; i--) {
+                valor = nivel0.get(i).ler(chave);
+            }
+            for (int n = 1; n < atuais.size() && valor == null; n++) {
+                for (TabelaOrdenada tabela : atuais.get(n)) {
+                    if (tabela.sobrepoe(chave, chave)) {
+                        valor = tabela.ler(chave);
+                        break;
+                    }
+                }
+            }
+        }
+        return valor == REMOVIDO ? null : valor;
+    }
+
+    /**
+     * Grava um conjunto de escritas atomicamente: após uma queda, ou todas são recuperadas,
+     * ou nenhuma.
+     *
+     * @param escritas Chave -> novo valor, ou null para remover a chave
+     * @throws IOException Se o registro de escrita antecipada não puder ser gravado
+     */
+    public synchronized void gravarLote(Map<String, byte[]> escritas) throws IOException {
+        if (escritas.isEmpty()) {
+            return;
+        }
+        SaidaBinaria corpo = new SaidaBinaria(4096);
+        corpo.escreverVarInt(escritas.size());
+        for (Map.Entry<String, byte[]> escrita : escritas.entrySet()) {
+            corpo.escreverTexto(escrita.getKey());
+            byte[] valor = escrita.getValue();
+            if (valor == null) {
+                corpo.escreverByte(1);
+            } else {
+                corpo.escreverByte(0);
+                corpo.escreverVarInt(valor.length);
+                corpo.escreverBytes(valor, 0, valor.length);
+            }
+        }
+        byte[] conteudo = corpo.paraBytes();
+        CRC32 crc = new CRC32();
+        crc.update(conteudo);
+        ByteBuffer bytes = ByteBuffer.allocate(8 + conteudo.length);
+        bytes.putInt(conteudo.length).putInt((int) crc.getValue()).put(conteudo).flip();
+        long posicao = registro.size();
+        while (bytes.hasRemaining()) {
+            registro.write(bytes, posicao + bytes.position());
+        }
+        registro.force(false);
+
+        for (Map.Entry<String, byte[]> escrita : escritas.entrySet()) {
+            aplicar(escrita.getKey(), escrita.getValue() == null ? REMOVIDO : escrita.getValue());
+        }
+        if (tamanhoMemoria >= limiteMemoria) {
+            descarregar();
+        }
+    }
+
+    /**
+     * Grava uma única chave.
+     *
+     * @param chave Chave
+     * @param valor Novo valor
+     * @throws IOException Se o registro de escrita antecipada não puder ser gravado
+     */
+    public void gravar(String chave, byte[] valor) throws IOException {
+        gravarLote(Collections.singletonMap(chave, valor));
+    }
+
+    /**
+     * Remove uma chave.
+     *
+     * @param chave Chave
+     * @throws IOException Se o registro de escrita antecipada não puder ser gravado
+     */
+    public void remover(String chave) throws IOException {
+        gravarLote(Collections.singletonMap(chave, null));
+    }
+
+    /**
+     * Percorre, em ordem, as chaves existentes que começam com o prefixo informado.
+     *
+     * @param prefixo Prefixo das chaves
+     * @param comValores false para não ler os valores (o consumidor recebe um array vazio)
+     * @param consumidor Recebe cada chave e o seu valor
+     */
+    public void varrer(String prefixo, boolean comValores, BiConsumer<String, byte[]> consumidor) {
+        ConcurrentSkipListMap<String, byte[]> emMemoria = memoria;
+        List<Iterator<TabelaOrdenada.Entrada>> fontes = new ArrayList<>();
+        fontes.add(iterarMemoria(emMemoria.tailMap(prefixo)));
+        adicionarFontes(fontes, niveis, prefixo, comValores);
+        Iterator<TabelaOrdenada.Entrada> mescla = new Mescla(fontes, true);
+        while (mescla.hasNext()) {
+            TabelaOrdenada.Entrada entrada = mescla.next();
+            if (!entrada.chave.startsWith(prefixo)) {
+                break;
+            }
+            consumidor.accept(entrada.chave, entrada.valor);
+        }
+    }
+
+    /**
+     * Grava a tabela em memória como uma tabela ordenada do nível 0 e esvazia o registro de
+     * escrita antecipada.
+     *
+     * @throws IOException Se a tabela ou o manifesto não puderem ser gravados
+     */
+    public synchronized void descarregar() throws IOException {
+        ConcurrentSkipListMap<String, byte[]> atual = memoria;
+        if (atual.isEmpty()) {
+            return;
+        }
+        TabelaOrdenada tabela = TabelaOrdenada.gravar(diretorio, proximaTabela++,
+                iterarMemoria(atual), atual.size());
+        List<List<TabelaOrdenada>> novos = copiarNiveis(niveis);
+        novos.get(0).add(tabela);
+        instalar(novos);
+        // A tabela já está visível para as leituras antes da troca da tabela em memória
+        memoria = new ConcurrentSkipListMap<>();
+        tamanhoMemoria = 0;
+        registro.truncate(0);
+        registro.force(true);
+        agendarCompactacao();
+    }
+
+    /**
+     * Remove todas as chaves, apagando as tabelas e o registro.
+     *
+     * @throws IOException Se o manifesto não puder ser gravado
+     */
+    public synchronized void limpar() throws IOException {
+        epoca++;
+        List<List<TabelaOrdenada>> antigos = niveis;
+        memoria = new ConcurrentSkipListMap<>();
+        tamanhoMemoria = 0;
+        instalar(copiarNiveis(Collections.emptyList()));
+        registro.truncate(0);
+        registro.force(true);
+        for (List<TabelaOrdenada> nivel : antigos) {
+            for (TabelaOrdenada tabela : nivel) {
+                tabela.apagar();
+            }
+        }
+    }
+
+    /**
+     * @param nivel Nível consultado
+     * @return Quantidade de tabelas do nível
+     */
+    public int getQuantidadeTabelas(int nivel) {
+        return niveis.get(nivel).size();
+    }
+
+    /**
+     * Fecha o registro de escrita antecipada. As escritas da tabela em memória continuam
+     * no registro e são recuperadas na próxima abertura.
+     *
+     * @throws IOException Se o registro não puder ser fechado
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (ABERTAS) {
+            ABERTAS.remove(diretorio, this);
+        }
+        synchronized (this) {
+            epoca++;
+            registro.close();
+        }
+    }
+
+    // ========== COMPACTAÇÃO ==========
+
+    private void agendarCompactacao() {
+        if (!compactacaoAgendada && escolherCompactacao(niveis) != null) {
+            compactacaoAgendada = true;
+            COMPACTADOR.execute(this::compactar);
+        }
+    }
+
+    private void compactar() {
+        while (true) {
+            Compactacao compactacao;
+            List<List<TabelaOrdenada>> base;
+            long epocaInicial;
+            synchronized (this) {
+                base = niveis;
+                compactacao = registro.isOpen() ? escolherCompactacao(base) : null;
+                if (compactacao == null) {
+                    compactacaoAgendada = false;
+                    return;
+                }
+                epocaInicial = epoca;
+            }
+            try {
+                List<TabelaOrdenada> saidas = mesclar(compactacao, base);
+                synchronized (this) {
+                    if (epoca != epocaInicial) {
+                        saidas.forEach(TabelaOrdenada::apagar);
+                        continue;
+                    }
+                    List<List<TabelaOrdenada>> novos = copiarNiveis(niveis);
+                    novos.get(compactacao.nivel).removeAll(compactacao.origens);
+                    novos.get(compactacao.nivel + 1).removeAll(compactacao.sobrepostas);
+                    novos.get(compactacao.nivel + 1).addAll(saidas);
+                    novos.get(compactacao.nivel + 1).sort(Comparator.comparing(TabelaOrdenada::getPrimeiraChave));
+                    instalar(novos);
+                    cursores[compactacao.nivel] = compactacao.ultimaChave;
+                }
+                compactacao.origens.forEach(TabelaOrdenada::apagar);
+                compactacao.sobrepostas.forEach(TabelaOrdenada::apagar);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Erro ao compactar árvore LSM: " + e.getMessage());
+                synchronized (this) {
+                    compactacaoAgendada = false;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Escolhe as tabelas da próxima compactação: todo o nível 0, se ele atingiu o gatilho, ou
+     * uma tabela do primeiro nível que excede o seu tamanho, alternando entre as tabelas do nível.
+     */
+    private Compactacao escolherCompactacao(List<List<TabelaOrdenada>> atuais) {
+        if (atuais.get(0).size() >= GATILHO_NIVEL0) {
+            return new Compactacao(0, atuais.get(0), atuais.get(1));
+        }
+        long limite = tamanhoTabela * 10;
+        for (int n = 1; n < NIVEIS - 1; n++, limite *= 10) {
+            List<TabelaOrdenada> nivel = atuais.get(n);
+            long tamanho = 0;
+            for (TabelaOrdenada tabela : nivel) {
+                tamanho += tabela.getTamanho();
+            }
+            if (tamanho <= limite) {
+                continue;
+            }
+            TabelaOrdenada escolhida = nivel.get(0);
+            for (TabelaOrdenada tabela : nivel) {
+                if (cursores[n] == null || tabela.getPrimeiraChave().compareTo(cursores[n]) > 0) {
+                    escolhida = tabela;
+                    break;
+                }
+            }
+            return new Compactacao(n, Collections.singletonList(escolhida), atuais.get(n + 1));
+        }
+        return null;
+    }
+
+    private List<TabelaOrdenada> mesclar(Compactacao compactacao, List<List<TabelaOrdenada>> base)
+            throws IOException {
+        // Fontes da mais nova para a mais antiga: a primeira ocorrência de cada chave prevalece
+        List<Iterator<TabelaOrdenada.Entrada>> fontes = new ArrayList<>();
+        for (int i = compactacao.origens.size() - 1; i >= 0; i--) {
+            fontes.add(compactacao.origens.get(i).iterar("", true));
+        }
+        for (TabelaOrdenada tabela : compactacao.sobrepostas) {
+            fontes.add(tabela.iterar("", true));
+        }
+        boolean ultimoNivel = true;
+        for (int n = compactacao.nivel + 2; n < base.size(); n++) {
+            ultimoNivel &= base.get(n).isEmpty();
+        }
+        Iterator<TabelaOrdenada.Entrada> mescla = new Mescla(fontes, ultimoNivel);
+
+        long entradas = 0;
+        long tamanhoEntradas = 0;
+        for (TabelaOrdenada tabela : compactacao.origens) {
+            entradas += tabela.getQuantidade();
+            tamanhoEntradas += tabela.getTamanho();
+        }
+        for (TabelaOrdenada tabela : compactacao.sobrepostas) {
+            entradas += tabela.getQuantidade();
+            tamanhoEntradas += tabela.getTamanho();
+        }
+        // Cada tabela gerada recebe no máximo tamanhoTabela bytes de entradas
+        long porTabela = Math.min(entradas, tamanhoTabela / Math.max(1, tamanhoEntradas / Math.max(1, entradas)) * 5 / 4 + 1);
+
+        List<TabelaOrdenada> saidas = new ArrayList<>();
+        try {
+            while (mescla.hasNext()) {
+                Iterator<TabelaOrdenada.Entrada> parte = new Iterator<TabelaOrdenada.Entrada>() {
+                    private long bytes;
+
+                    @Override
+                    public boolean hasNext() {
+                        return bytes < tamanhoTabela && mescla.hasNext();
+                    }
+
+                    @Override
+                    public TabelaOrdenada.Entrada next() {
+                        TabelaOrdenada.Entrada entrada = mescla.next();
+                        bytes += entrada.chave.length() + entrada.valor.length + 8;
+                        return entrada;
+                    }
+                };
+                saidas.add(TabelaOrdenada.gravar(diretorio, novoNumero(), parte,
+                        (int) Math.min(Integer.MAX_VALUE / FiltroBloom.BITS_POR_CHAVE, porTabela)));
+            }
+        } catch (IOException | RuntimeException e) {
+            saidas.forEach(TabelaOrdenada::apagar);
+            throw e;
+        }
+        return saidas;
+    }
+
+    private synchronized long novoNumero() {
+        return proximaTabela++;
+    }
+
+    /**
+     * Tabelas de uma compactação: as tabelas de origem do nível e as tabelas do nível seguinte
+     * que se sobrepõem a elas.
+     */
+    private static final class Compactacao {
+        final int nivel;
+        final List<TabelaOrdenada> origens;
+        final List<TabelaOrdenada> sobrepostas = new ArrayList<>();
+        final String ultimaChave;
+
+        Compactacao(int nivel, List<TabelaOrdenada> origens, List<TabelaOrdenada> seguinte) {
+            this.nivel = nivel;
+            this.origens = new ArrayList<>(origens);
+            String inicio = null;
+            String fim = null;
+            for (TabelaOrdenada tabela : origens) {
+                if (inicio == null || tabela.getPrimeiraChave().compareTo(inicio) < 0) {
+                    inicio = tabela.getPrimeiraChave();
+                }
+                if (fim == null || tabela.getUltimaChave().compareTo(fim) > 0) {
+                    fim = tabela.getUltimaChave();
+                }
+            }
+            for (TabelaOrdenada tabela : seguinte) {
+                if (tabela.sobrepoe(inicio, fim)) {
+                    sobrepostas.add(tabela);
+                }
+            }
+            this.ultimaChave = fim;
+        }
+    }
+
+    // ========== ITERAÇÃO ==========
+
+    private static Iterator<TabelaOrdenada.Entrada> iterarMemoria(Map<String, byte[]> entradas) {
+        Iterator<Map.Entry<String, byte[]>> iterador = entradas.entrySet().iterator();
+        return new Iterator<TabelaOrdenada.Entrada>() {
+            @Override
+            public boolean hasNext() {
+                return iterador.hasNext();
+            }
+
+            @Override
+            public TabelaOrdenada.Entrada next() {
+                Map.Entry<String, byte[]> entrada = iterador.next();
+                return new TabelaOrdenada.Entrada(entrada.getKey(), entrada.getValue());
+            }
+        };
+    }
+
+    private static void adicionarFontes(List<Iterator<TabelaOrdenada.Entrada>> fontes,
+                                        List<List<TabelaOrdenada>> atuais, String inicio, boolean comValores) {
+        List<TabelaOrdenada> nivel0 = atuais.get(0);
+        for (int i = nivel0.size() - 1; i >= 0; i--) {
+            fontes.add(nivel0.get(i).iterar(inicio, comValores));
+        }
+        for (int n = 1; n < atuais.size(); n++) {
+            for (TabelaOrdenada tabela : atuais.get(n)) {
+                if (tabela.getUltimaChave().compareTo(inicio) >= 0) {
+                    fontes.add(tabela.iterar(inicio, comValores));
+                }
+            }
+        }
+    }
+
+    /**
+     * Mescla ordenada de várias fontes de entradas. Quando a mesma chave aparece em mais de
+     * uma fonte, prevalece a da fonte de menor índice (a mais nova).
+     */
+    private static final class Mescla implements Iterator<TabelaOrdenada.Entrada> {
+        private final PriorityQueue<Cursor> fila = new PriorityQueue<>();
+        private final boolean descartarRemocoes;
+        private TabelaOrdenada.Entrada proxima;
+
+        Mescla(List<Iterator<TabelaOrdenada.Entrada>> fontes, boolean descartarRemocoes) {
+            this.descartarRemocoes = descartarRemocoes;
+            for (int i = 0; i < fontes.size(); i++) {
+                Cursor cursor = new Cursor(i, fontes.get(i));
+                if (cursor.avancar()) {
+                    fila.add(cursor);
+                }
+            }
+            proxima = avancar();
+        }
+
+        private TabelaOrdenada.Entrada avancar() {
+            while (!fila.isEmpty()) {
+                Cursor menor = fila.poll();
+                TabelaOrdenada.Entrada entrada = menor.atual;
+                while (!fila.isEmpty() && fila.peek().atual.chave.equals(entrada.chave)) {
+                    Cursor repetido = fila.poll();
+                    if (repetido.avancar()) {
+                        fila.add(repetido);
+                    }
+                }
+                if (menor.avancar()) {
+                    fila.add(menor);
+                }
+                if (entrada.valor != REMOVIDO || !descartarRemocoes) {
+                    return entrada;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return proxima != null;
+        }
+
+        @Override
+        public TabelaOrdenada.Entrada next() {
+            TabelaOrdenada.Entrada atual = proxima;
+            proxima = avancar();
+            return atual;
+        }
+
+        private static final class Cursor implements Comparable<Cursor> {
+            final int ordem;
+            final Iterator<TabelaOrdenada.Entrada> fonte;
+            TabelaOrdenada.Entrada atual;
+
+            Cursor(int ordem, Iterator<TabelaOrdenada.Entrada> fonte) {
+                this.ordem = ordem;
+                this.fonte = fonte;
+            }
+
+            boolean avancar() {
+                atual = fonte.hasNext() ? fonte.next() : null;
+                return atual != null;
+            }
+
+            @Override
+            public int compareTo(Cursor outro) {
+                int comparacao = atual.chave.compareTo(outro.atual.chave);
+                return comparacao != 0 ? comparacao : Integer.compare(ordem, outro.ordem);
+            }
+        }
+    }
+
+    // ========== ARQUIVOS ==========
+
+    private void aplicar(String chave, byte[] valor) {
+        byte[] anterior = memoria.put(chave, valor);
+        tamanhoMemoria += chave.length() * 2L + valor.length + 48
+                - (anterior == null ? 0 : chave.length() * 2L + anterior.length + 48);
+    }
+
+    private void instalar(List<List<TabelaOrdenada>> novos) throws IOException {
+        SaidaBinaria saida = new SaidaBinaria();
+        saida.escreverInt(MAGICO_MANIFESTO);
+        saida.escreverLong(proximaTabela);
+        saida.escreverVarInt(novos.size());
+        for (List<TabelaOrdenada> nivel : novos) {
+            saida.escreverVarInt(nivel.size());
+            for (TabelaOrdenada tabela : nivel) {
+                saida.escreverLong(tabela.getNumero());
+            }
+        }
+        File temporario = new File(diretorio, MANIFESTO + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = ByteBuffer.wrap(saida.paraBytes());
+            while (bytes.hasRemaining()) {
+                canal.write(bytes);
+            }
+            canal.force(true);
+        }
+        Files.move(temporario.toPath(), new File(diretorio, MANIFESTO).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        niveis = congelar(novos);
+    }
+
+    private List<List<TabelaOrdenada>> lerManifesto() throws IOException {
+        File arquivo = new File(diretorio, MANIFESTO);
+        List<List<TabelaOrdenada>> lidos = new ArrayList<>();
+        if (arquivo.exists() && arquivo.length() > 0) {
+            EntradaBinaria entrada = EntradaBinaria.mapear(arquivo.getPath());
+            if (entrada.lerInt() != MAGICO_MANIFESTO) {
+                throw new IOException("Manifesto inválido: " + arquivo);
+            }
+            proximaTabela = entrada.lerLong();
+            int quantidade = entrada.lerVarInt();
+            for (int n = 0; n < quantidade; n++) {
+                int tabelas = entrada.lerVarInt();
+                List<TabelaOrdenada> nivel = new ArrayList<>(tabelas);
+                for (int i = 0; i < tabelas; i++) {
+                    nivel.add(TabelaOrdenada.abrir(diretorio, entrada.lerLong()));
+                }
+                lidos.add(nivel);
+            }
+        }
+        return congelar(copiarNiveis(lidos));
+    }
+
+    private void apagarTabelasOrfas() {
+        Set<String> listadas = new HashSet<>();
+        for (List<TabelaOrdenada> nivel : niveis) {
+            for (TabelaOrdenada tabela : nivel) {
+                listadas.add(TabelaOrdenada.arquivo(diretorio, tabela.getNumero()).getName());
+            }
+        }
+        File[] arquivos = diretorio.listFiles((dir, nome) -> nome.endsWith(".sst") || nome.endsWith(".tmp"));
+        if (arquivos != null) {
+            for (File arquivo : arquivos) {
+                if (!listadas.contains(arquivo.getName())) {
+                    arquivo.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reaplica na tabela em memória os lotes do registro de escrita antecipada. Um lote
+     * incompleto ou corrompido no final (queda durante a escrita) é descartado.
+     */
+    private void recuperarRegistro() throws IOException {
+        long tamanho = registro.size();
+        if (tamanho == 0) {
+            return;
+        }
+        ByteBuffer conteudo = ByteBuffer.allocate((int) tamanho);
+        while (conteudo.hasRemaining()) {
+            if (registro.read(conteudo, conteudo.position()) < 0) {
+                break;
+            }
+        }
+        conteudo.flip();
+        long valido = 0;
+        while (conteudo.remaining() >= 8) {
+            int tamanhoCorpo = conteudo.getInt();
+            int esperado = conteudo.getInt();
+            if (tamanhoCorpo < 0 || tamanhoCorpo > conteudo.remaining()) {
+                break;
+            }
+            byte[] corpo = new byte[tamanhoCorpo];
+            conteudo.get(corpo);
+            CRC32 crc = new CRC32();
+            crc.update(corpo);
+            if ((int) crc.getValue() != esperado) {
+                break;
+            }
+            EntradaBinaria entrada = new EntradaBinaria(ByteBuffer.wrap(corpo));
+            int quantidade = entrada.lerVarInt();
+            for (int i = 0; i < quantidade; i++) {
+                String chave = entrada.lerTexto();
+                aplicar(chave, entrada.lerByte() == 1 ? REMOVIDO : entrada.lerBytes(entrada.lerVarInt()));
+            }
+            valido = conteudo.position();
+        }
+        if (valido < tamanho) {
+            registro.truncate(valido);
+        }
+    }
+
+    private static List<List<TabelaOrdenada>> copiarNiveis(List<List<TabelaOrdenada>> origem) {
+        List<List<TabelaOrdenada>> copia = new ArrayList<>(NIVEIS);
+        for (int n = 0; n < NIVEIS; n++) {
+            copia.add(n < origem.size() ? new ArrayList<>(origem.get(n)) : new ArrayList<>());
+        }
+        return copia;
+    }
+
+    private static List<List<TabelaOrdenada>> congelar(List<List<TabelaOrdenada>> origem) {
+        List<List<TabelaOrdenada>> imutaveis = new ArrayList<>(origem.size());
+        for (List<TabelaOrdenada> nivel : origem) {
+            imutaveis.add(Collections.unmodifiableList(new ArrayList<>(nivel)));
+        }
+        return Collections.unmodifiableList(imutaveis);
+    }
+}
@@ -0,0 +1,323 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Componentes.DicionarioUsuarios;
+import br.ufal.ic.p2.jackut.Componentes.LogMensagens;
+import br.ufal.ic.p2.jackut.Comunidade;
+import br.ufal.ic.p2.jackut.Mensagem;
+import br.ufal.ic.p2.jackut.Users;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codificação binária dos registros de usuário e de comunidade do Jackut.
+ * <p>
+ * Os logins referenciados por um registro são gravados como identificadores de um
+ * {@link DicionarioLogins}, de forma que o mesmo registro pode ser usado em qualquer
+ * arquivo que grave o dicionário correspondente.
+ * </p>
+ *
+ * <p><b>Registro de usuário:</b> login, senha, nome, atributos, quantidade de relacionamentos
+ * seguida de cada lista (na ordem de {@link Users.Relacao}), recados (remetente e conteúdo) e
+ * mensagens de comunidade entregues na caixa: a marca {@link #MARCA_SEQUENCIAS}, a quantidade
+ * de mensagens e a sequência e o texto de cada uma. Registros gravados antes da numeração das
+ * mensagens trazem no lugar da marca a quantidade, seguida dos textos, e continuam sendo
+ * lidos, com {@link Users#SEQUENCIA_LEGADA}.</p>
+ *
+ * <p><b>Registro de comunidade:</b> nome, descrição, dono, membros e mensagens. As mensagens
+ * são gravadas como o {@link LogMensagens registro} da comunidade: a marca
+ * {@link #MARCA_LOG_MENSAGENS}, a quantidade de mensagens, a sequência e o texto de cada uma e,
+ * na ordem dos membros, quantas delas cada membro ainda não leu. Registros gravados antes do
+ * registro de mensagens trazem no lugar da marca a quantidade de mensagens, seguida dos textos,
+ * e continuam sendo lidos.</p>
+ */
+public final class CodecRegistros {
+
+    /**
+     * Marca que precede o registro de mensagens de uma comunidade; no formato anterior, a mesma
+     * posição guardava a quantidade de mensagens, que nunca é negativa.
+     */
+    static final int MARCA_LOG_MENSAGENS = -1;
+
+    /**
+     * Marca que precede as mensagens de comunidade numeradas de um usuário; no formato
+     * anterior, a mesma posição guardava a quantidade de mensagens, que nunca é negativa.
+     */
+    static final int MARCA_SEQUENCIAS = -1;
+
+    private CodecRegistros() {
+    }
+
+    /**
+     * Escreve o registro completo de um usuário.
+     *
+     * @param saida Buffer de destino
+     * @param usuario Usuário a ser gravado
+     * @param dicionario Dicionário de logins do arquivo
+     */
+    public static void escreverUsuario(SaidaBinaria saida, Users usuario, DicionarioLogins dicionario) {
+        escreverUsuario(saida, usuario, usuario.getRecados(), dicionario);
+    }
+
+    /**
+     * Escreve o registro completo de um usuário com os recados informados no lugar dos
+     * recados guardados no próprio usuário. Usado quando a caixa de recados é mantida fora
+     * do heap pelo repositório de recados.
+     *
+     * @param saida Buffer de destino
+     * @param usuario Usuário a ser gravado
+     * @param recados Caixa de recados do usuário
+     * @param dicionario Dicionário de logins do arquivo
+     */
+    public static void escreverUsuario(SaidaBinaria saida, Users usuario, Collection<Mensagem> recados,
+                                       DicionarioLogins dicionario) {
+        saida.escreverVarInt(dicionario.id(usuario.getLogin()));
+        saida.escreverTexto(usuario.getSenha());
+        saida.escreverTexto(usuario.getNome());
+
+        Map<String, String> atributos = usuario.getAtributos();
+        saida.escreverVarInt(atributos.size());
+        for (Map.Entry<String, String> atributo : atributos.entrySet()) {
+            saida.escreverTexto(atributo.getKey());
+            saida.escreverTexto(atributo.getValue());
+        }
+
+        Users.Relacao[] relacoes = Users.Relacao.values();
+        saida.escreverVarInt(relacoes.length);
+        for (Users.Relacao relacao : relacoes) {
+            dicionario.escreverLista(saida, usuario.getRelacao(relacao));
+        }
+
+        saida.escreverVarInt(recados.size());
+        for (Mensagem recado : recados) {
+            saida.escreverVarInt(dicionario.id(recado.getRemetente()));
+            saida.escreverTexto(recado.getConteudo());
+        }
+
+        Collection<String> mensagensComunidade = usuario.getMensagensComunidade();
+        saida.escreverVarInt(MARCA_SEQUENCIAS);
+        saida.escreverVarInt(mensagensComunidade.size());
+        Iterator<Long> sequencias = usuario.getSequenciasComunidade().iterator();
+        for (String mensagem : mensagensComunidade) {
+            saida.escreverLong(sequencias.next());
+            saida.escreverTexto(mensagem);
+        }
+    }
+
+    /**
+     * Lê um registro de usuário gravado por {@link #escreverUsuario}.
+     *
+     * @param entrada Leitor posicionado no início do registro
+     * @param logins Dicionário lido do mesmo arquivo
+     * @return Usuário reconstruído
+     */
+    public static Users lerUsuario(EntradaBinaria entrada, String[] logins) {
+        Users usuario = new Users(logins[entrada.lerVarInt()], entrada.lerTexto(), entrada.lerTexto());
+
+        int atributos = entrada.lerVarInt();
+        for (int i = 0; i < atributos; i++) {
+            usuario.setAtributo(entrada.lerTexto(), entrada.lerTexto());
+        }
+
+        Users.Relacao[] relacoes = Users.Relacao.values();
+        int quantidadeRelacoes = entrada.lerVarInt();
+        for (int i = 0; i < quantidadeRelacoes; i++) {
+            List<String> lista = DicionarioLogins.lerLista(entrada, logins);
+            if (i < relacoes.length) {
+                usuario.restaurarRelacao(relacoes[i], lista);
+            }
+        }
+
+        int recados = entrada.lerVarInt();
+        for (int i = 0; i < recados; i++) {
+            usuario.receberRecado(logins[entrada.lerVarInt()], entrada.lerTexto());
+        }
+
+        int mensagensComunidade = entrada.lerVarInt();
+        if (mensagensComunidade != MARCA_SEQUENCIAS) {
+            for (int i = 0; i < mensagensComunidade; i++) {
+                usuario.receberMensagemComunidade(entrada.lerTexto());
+            }
+            return usuario;
+        }
+        mensagensComunidade = entrada.lerVarInt();
+        for (int i = 0; i < mensagensComunidade; i++) {
+            long sequencia = entrada.lerLong();
+            usuario.receberMensagemComunidade(sequencia, entrada.lerTexto());
+        }
+        return usuario;
+    }
+
+    /**
+     * Codifica um registro de usuário autocontido: o dicionário dos logins que ele referencia
+     * seguido do registro. Usado pelos armazéns de usuários despejados do heap e pela
+     * {@link ArvoreLsm árvore LSM}.
+     *
+     * @param usuario Usuário a ser codificado
+     * @param destino Buffer de destino (é limpo antes da escrita)
+     */
+    public static void codificarUsuario(Users usuario, SaidaBinaria destino) {
+        codificarUsuario(usuario, usuario.getRecados(), destino);
+    }
+
+    /**
+     * Codifica um registro de usuário autocontido com os recados informados.
+     *
+     * @param usuario Usuário a ser codificado
+     * @param recados Caixa de recados do usuário
+     * @param destino Buffer de destino (é limpo antes da escrita)
+     * @see #escreverUsuario(SaidaBinaria, Users, Collection, DicionarioLogins)
+     */
+    public static void codificarUsuario(Users usuario, Collection<Mensagem> recados, SaidaBinaria destino) {
+        DicionarioLogins dicionario = new DicionarioLogins();
+        SaidaBinaria registro = new SaidaBinaria(1024);
+        escreverUsuario(registro, usuario, recados, dicionario);
+        destino.limpar();
+        dicionario.escrever(destino);
+        destino.escreverBytes(registro.paraBytes(), 0, registro.tamanho());
+    }
+
+    /**
+     * Lê um registro de usuário gravado por {@link #codificarUsuario(Users, SaidaBinaria)}.
+     *
+     * @param entrada Leitor posicionado no início do registro
+     * @return Usuário reconstruído
+     */
+    public static Users decodificarUsuario(EntradaBinaria entrada) {
+        return lerUsuario(entrada, DicionarioLogins.ler(entrada));
+    }
+
+    /**
+     * Codifica um registro de comunidade autocontido: o dicionário dos logins que ele referencia
+     * seguido do registro. Usado pela {@link ArvoreLsm árvore LSM}.
+     *
+     * @param comunidade Comunidade a ser codificada
+     * @param destino Buffer de destino (é limpo antes da escrita)
+     */
+    public static void codificarComunidade(Comunidade comunidade, SaidaBinaria destino) {
+        DicionarioLogins dicionario = new DicionarioLogins();
+        SaidaBinaria registro = new SaidaBinaria(1024);
+        escreverComunidade(registro, comunidade, dicionario);
+        destino.limpar();
+        dicionario.escrever(destino);
+        destino.escreverBytes(registro.paraBytes(), 0, registro.tamanho());
+    }
+
+    /**
+     * Lê um registro de comunidade gravado por {@link #codificarComunidade(Comunidade, SaidaBinaria)}.
+     *
+     * @param entrada Leitor posicionado no início do registro
+     * @return Comunidade reconstruída
+     */
+    public static Comunidade decodificarComunidade(EntradaBinaria entrada) {
+        return lerComunidade(entrada, DicionarioLogins.ler(entrada));
+    }
+
+    /**
+     * Avança sobre um registro de usuário sem decodificá-lo, lendo apenas o seu login.
+     *
+     * @param entrada Leitor posicionado no início do registro
+     * @param logins Dicionário lido do mesmo arquivo
+     * @return Login do usuário do registro
+     */
+    public static String pularUsuario(EntradaBinaria entrada, String[] logins) {
+        String login = logins[entrada.lerVarInt()];
+        entrada.pularTexto();
+        entrada.pularTexto();
+
+        int atributos = entrada.lerVarInt();
+        for (int i = 0; i < atributos * 2; i++) {
+            entrada.pularTexto();
+        }
+
+        int quantidadeRelacoes = entrada.lerVarInt();
+        for (int i = 0; i < quantidadeRelacoes; i++) {
+            int quantidade = entrada.lerVarInt();
+            for (int j = 0; j < quantidade; j++) {
+                entrada.lerVarInt();
+            }
+        }
+
+        int recados = entrada.lerVarInt();
+        for (int i = 0; i < recados; i++) {
+            entrada.lerVarInt();
+            entrada.pularTexto();
+        }
+
+        int mensagensComunidade = entrada.lerVarInt();
+        boolean numeradas = mensagensComunidade == MARCA_SEQUENCIAS;
+        if (numeradas) {
+            mensagensComunidade = entrada.lerVarInt();
+        }
+        for (int i = 0; i < mensagensComunidade; i++) {
+            if (numeradas) {
+                entrada.lerLong();
+            }
+            entrada.pularTexto();
+        }
+        return login;
+    }
+
+    /**
+     * Escreve o registro completo de uma comunidade.
+     *
+     * @param saida Buffer de destino
+     * @param comunidade Comunidade a ser gravada
+     * @param dicionario Dicionário de logins do arquivo
+     */
+    public static void escreverComunidade(SaidaBinaria saida, Comunidade comunidade, DicionarioLogins dicionario) {
+        saida.escreverTexto(comunidade.getNome());
+        saida.escreverTexto(comunidade.getDescricao());
+        saida.escreverVarInt(dicionario.id(comunidade.getDono()));
+        List<String> membros = comunidade.getMembros();
+        dicionario.escreverLista(saida, membros);
+
+        LogMensagens mensagens = comunidade.getLogMensagens();
+        saida.escreverVarInt(MARCA_LOG_MENSAGENS);
+        saida.escreverVarInt(mensagens.tamanho());
+        for (int i = 0; i < mensagens.tamanho(); i++) {
+            saida.escreverLong(mensagens.sequencia(i));
+            saida.escreverTexto(mensagens.texto(i));
+        }
+        for (String membro : membros) {
+            saida.escreverVarInt(mensagens.naoLidas(DicionarioUsuarios.idExistente(membro)));
+        }
+    }
+
+    /**
+     * Lê um registro de comunidade gravado por {@link #escreverComunidade}.
+     *
+     * @param entrada Leitor posicionado no início do registro
+     * @param logins Dicionário lido do mesmo arquivo
+     * @return Comunidade reconstruída
+     */
+    public static Comunidade lerComunidade(EntradaBinaria entrada, String[] logins) {
+        Comunidade comunidade = new Comunidade(entrada.lerTexto(), entrada.lerTexto(), logins[entrada.lerVarInt()]);
+        List<String> membros = DicionarioLogins.lerLista(entrada, logins);
+
+        int quantidade = entrada.lerVarInt();
+        if (quantidade != MARCA_LOG_MENSAGENS) {
+            List<String> mensagens = new ArrayList<>(quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                mensagens.add(entrada.lerTexto());
+            }
+            comunidade.restaurar(membros, mensagens);
+            return comunidade;
+        }
+
+        comunidade.restaurar(membros, new ArrayList<>());
+        LogMensagens mensagens = comunidade.getLogMensagens();
+        quantidade = entrada.lerVarInt();
+        for (int i = 0; i < quantidade; i++) {
+            long sequencia = entrada.lerLong();
+            mensagens.anexar(sequencia, entrada.lerTexto());
+        }
+        for (String membro : membros) {
+            mensagens.definirNaoLidas(DicionarioUsuarios.idExistente(membro), entrada.lerVarInt());
+        }
+        return comunidade;
+    }
+}
@@ -0,0 +1,77 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compactador em segundo plano dos snapshots incrementais.
+ * <p>
+ * Incorpora periodicamente os {@link DeltaSnapshot deltas} pendentes a uma nova base
+ * (ver {@link SnapshotBinario#compactar(String)}), de forma que a carga do sistema não
+ * precise aplicar uma sequência crescente de deltas. A compactação também é solicitada
+ * quando a quantidade de deltas pendentes atinge o limite configurado.
+ * </p>
+ *
+ * <p>O intervalo entre compactações periódicas pode ser configurado pela propriedade
+ * {@code jackut.snapshot.compactacao.segundos}. As compactações rodam em uma única
+ * thread daemon e não bloqueiam as operações do sistema, apenas outras operações sobre
+ * os arquivos do mesmo snapshot.</p>
+ */
+public final class CompactadorSnapshot {
+
+    /** Intervalo padrão entre compactações periódicas, em segundos. */
+    public static final long INTERVALO_PADRAO_SEGUNDOS = 300;
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "jackut-compactador");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Snapshots com compactação periódica agendada. */
+    private static final Set<String> AGENDADOS = ConcurrentHashMap.newKeySet();
+    /** Snapshots com compactação imediata aguardando execução. */
+    private static final Set<String> SOLICITADOS = ConcurrentHashMap.newKeySet();
+
+    private CompactadorSnapshot() {
+    }
+
+    /**
+     * Agenda a compactação periódica de um snapshot. Chamadas repetidas para o mesmo
+     * snapshot não criam agendamentos adicionais.
+     *
+     * @param caminho Caminho do manifesto
+     */
+    public static void iniciar(String caminho) {
+        if (AGENDADOS.add(caminho)) {
+            long intervalo = Long.getLong("jackut.snapshot.compactacao.segundos", INTERVALO_PADRAO_SEGUNDOS);
+            EXECUTOR.scheduleWithFixedDelay(() -> compactar(caminho), intervalo, intervalo, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Solicita uma compactação imediata, em segundo plano. Solicitações feitas enquanto
+     * outra ainda aguarda execução são agrupadas.
+     *
+     * @param caminho Caminho do manifesto
+     */
+    public static void solicitar(String caminho) {
+        if (SOLICITADOS.add(caminho)) {
+            EXECUTOR.execute(() -> {
+                SOLICITADOS.remove(caminho);
+                compactar(caminho);
+            });
+        }
+    }
+
+    private static void compactar(String caminho) {
+        try {
+            SnapshotBinario.compactar(caminho);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Erro ao compactar snapshot: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Comunidade;
+import br.ufal.ic.p2.jackut.Jackut;
+import br.ufal.ic.p2.jackut.Users;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arquivo de snapshot incremental (delta) do Jackut.
+ * <p>
+ * Contém apenas os registros marcados em um {@link RegistroAlteracoes} desde o snapshot
+ * anterior: o registro completo de cada usuário e comunidade alterados, as remoções e as
+ * sessões dos usuários alterados. Os deltas são aplicados sobre o snapshot base em ordem
+ * de sequência e incorporados a uma nova base pelo {@link CompactadorSnapshot}.
+ * </p>
+ *
+ * <p><b>Estrutura:</b> cabeçalho (mágico {@code "JKUD"}, sequência, LSN do journal,
+ * quantidade de usuários e posições das seções), registros de usuário, remoções (logins
+ * e nomes de comunidade), registros de comunidade, sessões e dicionário.</p>
+ *
+ * <p>Um delta é lido para um {@link Destino}: o estado de um {@link Jackut} na carga, ou as
+ * alterações acumuladas pela compactação, que não carrega o snapshot inteiro.</p>
+ */
+public final class DeltaSnapshot {
+
+    /** Número mágico dos arquivos de delta ("JKUD"). */
+    public static final int MAGICO = 0x4A4B5544;
+
+    private static final int TAMANHO_CABECALHO = 4 + 8 + 8 + 4 + 8 + 8 + 8 + 8;
+
+    private DeltaSnapshot() {
+    }
+
+    /**
+     * Destino dos registros de um delta, na ordem em que devem ser aplicados.
+     */
+    public interface Destino {
+        /**
+         * @param login Login do usuário removido; a sua sessão também é encerrada
+         */
+        void removerUsuario(String login);
+
+        /**
+         * @param usuario Registro completo do usuário alterado; a sua sessão é encerrada e só
+         *                volta se o delta a contiver
+         */
+        void salvarUsuario(Users usuario);
+
+        /**
+         * @param nome Nome da comunidade removida
+         */
+        void descartarComunidade(String nome);
+
+        /**
+         * @param comunidade Registro completo da comunidade alterada
+         */
+        void restaurarComunidade(Comunidade comunidade);
+
+        /**
+         * @param login Login do usuário
+         * @param idSessao ID da sessão aberta
+         */
+        void registrarSessao(String login, String idSessao);
+    }
+
+    /**
+     * Grava os registros alterados do sistema em um arquivo de delta.
+     *
+     * @param caminho Caminho do arquivo de destino (sobrescrito)
+     * @param sequencia Número de sequência do delta
+     * @param ultimoLsn LSN do último registro do journal refletido no estado
+     * @param sistema Sistema de onde os registros são lidos
+     * @param alteracoes Registros alterados desde o snapshot anterior
+     * @throws IOException Se ocorrer erro de escrita
+     */
+    public static void gravar(String caminho, long sequencia, long ultimoLsn, Jackut sistema,
+                              RegistroAlteracoes alteracoes) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(caminho), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream saida = new BufferedOutputStream(Channels.newOutputStream(canal), 1 << 16);
+            DicionarioLogins dicionario = new DicionarioLogins();
+            SaidaBinaria registro = new SaidaBinaria(4096);
+            long posicao = TAMANHO_CABECALHO;
+            saida.write(new byte[TAMANHO_CABECALHO]);
+
+            // Registros marcados como alterados que não existem mais são gravados como remoções
+            List<String> usuariosRemovidos = new ArrayList<>(alteracoes.getUsuariosRemovidos());
+            List<String> comSessao = new ArrayList<>();
+            int quantidadeUsuarios = 0;
+            for (String login : alteracoes.getUsuariosAlterados()) {
+                Users usuario = sistema.getUsuarios().consultar(login);
+                if (usuario == null) {
+                    usuariosRemovidos.add(login);
+                    continue;
+                }
+                CodecRegistros.escreverUsuario(registro, usuario, sistema.getRecados().listarRecados(login), dicionario);
+                posicao += descarregar(registro, saida);
+                quantidadeUsuarios++;
+                if (sistema.getSessoes().getSessao(login) != null) {
+                    comSessao.add(login);
+                }
+            }
+
+            List<String> comunidadesRemovidas = new ArrayList<>(alteracoes.getComunidadesRemovidas());
+            List<Comunidade> comunidades = new ArrayList<>();
+            for (String nome : alteracoes.getComunidadesAlteradas()) {
+                Comunidade comunidade = sistema.getGerenciadorComunidades().getRegistroComunidade(nome);
+                if (comunidade != null) {
+                    comunidades.add(comunidade);
+                } else {
+                    comunidadesRemovidas.add(nome);
+                }
+            }
+
+            long offsetRemocoes = posicao;
+            registro.escreverVarInt(usuariosRemovidos.size());
+            for (String login : usuariosRemovidos) {
+                registro.escreverVarInt(dicionario.id(login));
+            }
+            registro.escreverVarInt(comunidadesRemovidas.size());
+            for (String nome : comunidadesRemovidas) {
+                registro.escreverTexto(nome);
+            }
+            posicao += descarregar(registro, saida);
+
+            long offsetComunidades = posicao;
+            registro.escreverVarInt(comunidades.size());
+            for (Comunidade comunidade : comunidades) {
+                CodecRegistros.escreverComunidade(registro, comunidade, dicionario);
+                posicao += descarregar(registro, saida);
+            }
+            posicao += descarregar(registro, saida);
+
+            long offsetSessoes = posicao;
+            registro.escreverVarInt(comSessao.size());
+            for (String login : comSessao) {
+                registro.escreverVarInt(dicionario.id(login));
+                registro.escreverTexto(sistema.getSessoes().getSessao(login));
+            }
+            posicao += descarregar(registro, saida);
+
+            long offsetDicionario = posicao;
+            dicionario.escrever(registro);
+            descarregar(registro, saida);
+            saida.flush();
+
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+            cabecalho.putInt(MAGICO).putLong(sequencia).putLong(ultimoLsn).putInt(quantidadeUsuarios)
+                    .putLong(offsetRemocoes).putLong(offsetComunidades).putLong(offsetSessoes)
+                    .putLong(offsetDicionario);
+            cabecalho.flip();
+            canal.write(cabecalho, 0);
+            canal.force(true);
+        }
+    }
+
+    /**
+     * Aplica um arquivo de delta sobre o estado carregado do snapshot base e dos deltas anteriores.
+     * <p>
+     * As remoções são aplicadas antes dos registros alterados. A sessão de um usuário alterado
+     * é substituída pela gravada no delta ou encerrada, se o delta não contiver sessão para ele.
+     * </p>
+     *
+     * @param caminho Caminho do arquivo de delta
+     * @param destino Sistema sobre o qual o delta é aplicado
+     * @return LSN do último registro do journal refletido no delta
+     * @throws IOException Se o arquivo não puder ser lido ou não for um delta válido
+     */
+    public static long aplicar(String caminho, Jackut destino) throws IOException {
+        return ler(caminho, new Destino() {
+            @Override
+            public void removerUsuario(String login) {
+                destino.getUsuarios().remover(login);
+                destino.getSessoes().encerrar(login);
+            }
+
+            @Override
+            public void salvarUsuario(Users usuario) {
+                destino.getUsuarios().salvar(usuario);
+                destino.getSessoes().encerrar(usuario.getLogin());
+            }
+
+            @Override
+            public void descartarComunidade(String nome) {
+                destino.getGerenciadorComunidades().descartarComunidade(nome);
+            }
+
+            @Override
+            public void restaurarComunidade(Comunidade comunidade) {
+                destino.getGerenciadorComunidades().restaurarComunidade(comunidade);
+            }
+
+            @Override
+            public void registrarSessao(String login, String idSessao) {
+                destino.getSessoes().registrar(idSessao, login);
+            }
+        });
+    }
+
+    /**
+     * Lê um arquivo de delta, entregando os seus registros a um destino: as remoções, os
+     * usuários alterados, as comunidades alteradas e as sessões, nessa ordem.
+     *
+     * @param caminho Caminho do arquivo de delta
+     * @param destino Destino dos registros
+     * @return LSN do último registro do journal refletido no delta
+     * @throws IOException Se o arquivo não puder ser lido ou não for um delta válido
+     */
+    public static long ler(String caminho, Destino destino) throws IOException {
+        EntradaBinaria entrada = EntradaBinaria.mapear(caminho);
+        if (entrada.lerInt() != MAGICO) {
+            throw new IOException("Arquivo de delta inválido: " + caminho);
+        }
+        entrada.lerLong();
+        long ultimoLsn = entrada.lerLong();
+        int quantidadeUsuarios = entrada.lerInt();
+        int offsetRemocoes = (int) entrada.lerLong();
+        int offsetComunidades = (int) entrada.lerLong();
+        int offsetSessoes = (int) entrada.lerLong();
+        int offsetDicionario = (int) entrada.lerLong();
+
+        int inicioUsuarios = entrada.posicao();
+        entrada.posicionar(offsetDicionario);
+        String[] logins = DicionarioLogins.ler(entrada);
+
+        entrada.posicionar(offsetRemocoes);
+        int usuariosRemovidos = entrada.lerVarInt();
+        for (int i = 0; i < usuariosRemovidos; i++) {
+            destino.removerUsuario(logins[entrada.lerVarInt()]);
+        }
+        int comunidadesRemovidas = entrada.lerVarInt();
+        for (int i = 0; i < comunidadesRemovidas; i++) {
+            destino.descartarComunidade(entrada.lerTexto());
+        }
+
+        entrada.posicionar(inicioUsuarios);
+        for (int i = 0; i < quantidadeUsuarios; i++) {
+            destino.salvarUsuario(CodecRegistros.lerUsuario(entrada, logins));
+        }
+
+        entrada.posicionar(offsetComunidades);
+        int quantidadeComunidades = entrada.lerVarInt();
+        for (int i = 0; i < quantidadeComunidades; i++) {
+            destino.restaurarComunidade(CodecRegistros.lerComunidade(entrada, logins));
+        }
+
+        entrada.posicionar(offsetSessoes);
+        int quantidadeSessoes = entrada.lerVarInt();
+        for (int i = 0; i < quantidadeSessoes; i++) {
+            String login = logins[entrada.lerVarInt()];
+            destino.registrarSessao(login, entrada.lerTexto());
+        }
+        return ultimoLsn;
+    }
+
+    private static int descarregar(SaidaBinaria registro, OutputStream saida) throws IOException {
+        int tamanho = registro.tamanho();
+        registro.gravarEm(saida);
+        registro.limpar();
+        return tamanho;
+    }
+}
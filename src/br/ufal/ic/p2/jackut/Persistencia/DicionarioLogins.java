@@ -0,0 +1,111 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dicionário de logins de um arquivo binário do Jackut.
+ * <p>
+ * Cada login referenciado no arquivo recebe um identificador inteiro sequencial,
+ * de forma que relacionamentos (amigos, fãs, membros, remetentes...) são gravados
+ * como inteiros de tamanho variável e cada texto aparece uma única vez no arquivo.
+ * </p>
+ */
+public class DicionarioLogins {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> logins = new ArrayList<>();
+
+    /**
+     * Cria um dicionário que começa com os logins de outro arquivo, com os mesmos
+     * identificadores, para que os registros desse arquivo possam ser copiados sem recodificação.
+     *
+     * @param existentes Logins indexados pelo identificador, lidos com {@link #ler(EntradaBinaria)}
+     * @return Dicionário com os logins informados
+     */
+    public static DicionarioLogins de(String[] existentes) {
+        DicionarioLogins dicionario = new DicionarioLogins();
+        for (String login : existentes) {
+            dicionario.ids.put(login, dicionario.logins.size());
+            dicionario.logins.add(login);
+        }
+        return dicionario;
+    }
+
+    /**
+     * Obtém o identificador de um login, registrando-o se ainda não existir.
+     *
+     * @param login Login a ser identificado
+     * @return Identificador do login neste dicionário
+     */
+    public int id(String login) {
+        Integer id = ids.get(login);
+        if (id == null) {
+            id = logins.size();
+            ids.put(login, id);
+            logins.add(login);
+        }
+        return id;
+    }
+
+    /**
+     * Escreve uma lista de logins como quantidade seguida dos identificadores.
+     *
+     * @param saida Buffer de destino
+     * @param lista Logins a serem escritos
+     */
+    public void escreverLista(SaidaBinaria saida, List<String> lista) {
+        saida.escreverVarInt(lista.size());
+        for (String login : lista) {
+            saida.escreverVarInt(id(login));
+        }
+    }
+
+    /**
+     * @return Quantidade de logins registrados
+     */
+    public int tamanho() { return logins.size(); }
+
+    /**
+     * Escreve o dicionário completo (quantidade seguida dos logins, em ordem de identificador).
+     *
+     * @param saida Buffer de destino
+     */
+    public void escrever(SaidaBinaria saida) {
+        saida.escreverVarInt(logins.size());
+        for (String login : logins) {
+            saida.escreverTexto(login);
+        }
+    }
+
+    /**
+     * Lê um dicionário gravado por {@link #escrever(SaidaBinaria)}.
+     *
+     * @param entrada Leitor posicionado no início do dicionário
+     * @return Logins indexados pelo identificador
+     */
+    public static String[] ler(EntradaBinaria entrada) {
+        String[] logins = new String[entrada.lerVarInt()];
+        for (int i = 0; i < logins.length; i++) {
+            logins[i] = entrada.lerTexto();
+        }
+        return logins;
+    }
+
+    /**
+     * Lê uma lista de logins gravada por {@link #escreverLista(SaidaBinaria, List)}.
+     *
+     * @param entrada Leitor posicionado no início da lista
+     * @param logins Dicionário lido do mesmo arquivo
+     * @return Logins da lista, na ordem gravada
+     */
+    public static List<String> lerLista(EntradaBinaria entrada, String[] logins) {
+        int quantidade = entrada.lerVarInt();
+        List<String> lista = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            lista.add(logins[entrada.lerVarInt()]);
+        }
+        return lista;
+    }
+}
@@ -0,0 +1,138 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Leitor sequencial dos formatos binários do Jackut sobre um {@link ByteBuffer}.
+ * <p>
+ * Complementa {@link SaidaBinaria}: lê inteiros de tamanho fixo e variável e textos
+ * UTF-8 prefixados pelo tamanho. Normalmente o buffer é um mapeamento em memória do
+ * arquivo, de forma que a leitura é uma varredura sequencial sem cópias intermediárias.
+ * </p>
+ */
+public class EntradaBinaria {
+    private final ByteBuffer buffer;
+
+    /**
+     * Cria um leitor sobre o buffer informado, a partir da sua posição atual.
+     *
+     * @param buffer Buffer de origem
+     */
+    public EntradaBinaria(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Mapeia um arquivo inteiro em memória (somente leitura).
+     *
+     * @param caminho Caminho do arquivo
+     * @return Leitor posicionado no início do arquivo
+     * @throws IOException Se o arquivo não puder ser aberto ou mapeado
+     */
+    public static EntradaBinaria mapear(String caminho) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(caminho), StandardOpenOption.READ)) {
+            return new EntradaBinaria(canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()));
+        }
+    }
+
+    /**
+     * @return Byte lido, sem sinal
+     */
+    public int lerByte() { return buffer.get() & 0xFF; }
+
+    /**
+     * @return Inteiro de 32 bits lido
+     */
+    public int lerInt() { return buffer.getInt(); }
+
+    /**
+     * @return Inteiro de 64 bits lido
+     */
+    public long lerLong() { return buffer.getLong(); }
+
+    /**
+     * @return Inteiro não negativo lido em formato de tamanho variável
+     */
+    public int lerVarInt() {
+        int valor = 0;
+        int deslocamento = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            valor |= (b & 0x7F) << deslocamento;
+            deslocamento += 7;
+        } while ((b & 0x80) != 0);
+        return valor;
+    }
+
+    /**
+     * @return Texto UTF-8 prefixado pelo tamanho
+     */
+    public String lerTexto() {
+        int tamanho = lerVarInt();
+        String texto;
+        if (buffer.hasArray()) {
+            texto = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), tamanho, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + tamanho);
+        } else {
+            byte[] utf8 = new byte[tamanho];
+            buffer.get(utf8);
+            texto = new String(utf8, StandardCharsets.UTF_8);
+        }
+        return texto;
+    }
+
+    /**
+     * Avança sobre um texto prefixado pelo tamanho sem decodificá-lo.
+     */
+    public void pularTexto() {
+        int tamanho = lerVarInt();
+        buffer.position(buffer.position() + tamanho);
+    }
+
+    /**
+     * Cria um leitor independente sobre o mesmo conteúdo, para leituras concorrentes.
+     *
+     * @param posicao Posição inicial do novo leitor
+     * @return Leitor com posição própria
+     */
+    public EntradaBinaria copiaEm(int posicao) {
+        ByteBuffer copia = buffer.duplicate();
+        copia.position(posicao);
+        return new EntradaBinaria(copia);
+    }
+
+    /**
+     * Lê uma sequência de bytes de tamanho conhecido.
+     *
+     * @param quantidade Quantidade de bytes
+     * @return Bytes lidos
+     */
+    public byte[] lerBytes(int quantidade) {
+        byte[] bytes = new byte[quantidade];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * @return Posição atual de leitura
+     */
+    public int posicao() { return buffer.position(); }
+
+    /**
+     * Move a posição de leitura.
+     *
+     * @param posicao Nova posição absoluta
+     */
+    public void posicionar(int posicao) { buffer.position(posicao); }
+
+    /**
+     * @return Quantidade de bytes ainda não lidos
+     */
+    public int restante() { return buffer.remaining(); }
+}
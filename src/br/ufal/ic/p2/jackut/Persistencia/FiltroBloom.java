@@ -0,0 +1,95 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+/**
+ * Filtro de Bloom das chaves de uma {@link TabelaOrdenada}.
+ * <p>
+ * Responde se uma chave certamente não está na tabela, evitando ler blocos de tabelas que
+ * não contêm a chave procurada. As posições são obtidas por hash duplo sobre o
+ * {@link String#hashCode() hash} da chave, com cerca de 10 bits por chave (taxa de falsos
+ * positivos em torno de 1%).
+ * </p>
+ */
+final class FiltroBloom {
+    /** Bits reservados por chave */
+    static final int BITS_POR_CHAVE = 10;
+
+    private final long[] bits;
+    private final int funcoes;
+
+    /**
+     * Cria um filtro vazio dimensionado para a quantidade de chaves informada.
+     *
+     * @param quantidadeChaves Quantidade esperada de chaves
+     */
+    FiltroBloom(int quantidadeChaves) {
+        this(new long[Math.max(1, (Math.max(1, quantidadeChaves) * BITS_POR_CHAVE + 63) / 64)],
+                Math.max(1, (int) Math.round(BITS_POR_CHAVE * Math.log(2))));
+    }
+
+    private FiltroBloom(long[] bits, int funcoes) {
+        this.bits = bits;
+        this.funcoes = funcoes;
+    }
+
+    /**
+     * @param chave Chave a ser adicionada
+     */
+    void adicionar(String chave) {
+        long total = (long) bits.length * 64;
+        int h1 = espalhar(chave.hashCode());
+        int h2 = espalhar(h1) | 1;
+        for (int i = 0; i < funcoes; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % total;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @param chave Chave procurada
+     * @return false se a chave certamente não foi adicionada
+     */
+    boolean talvezContenha(String chave) {
+        long total = (long) bits.length * 64;
+        int h1 = espalhar(chave.hashCode());
+        int h2 = espalhar(h1) | 1;
+        for (int i = 0; i < funcoes; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % total;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param saida Buffer de destino
+     */
+    void escrever(SaidaBinaria saida) {
+        saida.escreverVarInt(funcoes);
+        saida.escreverVarInt(bits.length);
+        for (long palavra : bits) {
+            saida.escreverLong(palavra);
+        }
+    }
+
+    /**
+     * @param entrada Leitor posicionado no início do filtro
+     * @return Filtro lido
+     */
+    static FiltroBloom ler(EntradaBinaria entrada) {
+        int funcoes = entrada.lerVarInt();
+        long[] bits = new long[entrada.lerVarInt()];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = entrada.lerLong();
+        }
+        return new FiltroBloom(bits, funcoes);
+    }
+
+    private static int espalhar(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,82 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Comunidade;
+import br.ufal.ic.p2.jackut.Mensagem;
+import br.ufal.ic.p2.jackut.Users;
+
+import java.util.Collection;
+
+/**
+ * Origem dos registros gravados em um snapshot completo.
+ * <p>
+ * Permite que o mesmo código de gravação ({@link SnapshotBinario}, {@link ParticaoSnapshot})
+ * leia tanto o estado de um sistema parado quanto uma {@link ImagemSnapshot imagem
+ * consistente} de um sistema que continua recebendo alterações.
+ * </p>
+ */
+public interface FonteSnapshot {
+
+    /**
+     * Lista os logins candidatos a serem gravados. Pode incluir logins que não pertencem
+     * à imagem; para esses, {@link #getUsuario(String)} retorna null.
+     *
+     * @return Logins candidatos
+     */
+    Collection<String> getLogins();
+
+    /**
+     * Obtém o registro de um usuário na imagem.
+     *
+     * @param login Login do usuário
+     * @return Usuário e sessão, ou null se o login não pertence à imagem
+     */
+    RegistroUsuario getUsuario(String login);
+
+    /**
+     * @return Comunidades pertencentes à imagem
+     */
+    Collection<Comunidade> getComunidades();
+
+    /**
+     * Usuário, caixa de recados e sessão ativa, lidos no mesmo instante.
+     */
+    final class RegistroUsuario {
+        private final Users usuario;
+        private final Collection<Mensagem> recados;
+        private final String idSessao;
+
+        /**
+         * @param usuario Usuário (não deve ser alterado enquanto o registro é gravado)
+         * @param idSessao ID da sessão ativa do usuário ou null
+         */
+        public RegistroUsuario(Users usuario, String idSessao) {
+            this(usuario, usuario.getRecados(), idSessao);
+        }
+
+        /**
+         * @param usuario Usuário (não deve ser alterado enquanto o registro é gravado)
+         * @param recados Caixa de recados do usuário, quando mantida fora dele
+         * @param idSessao ID da sessão ativa do usuário ou null
+         */
+        public RegistroUsuario(Users usuario, Collection<Mensagem> recados, String idSessao) {
+            this.usuario = usuario;
+            this.recados = recados;
+            this.idSessao = idSessao;
+        }
+
+        /**
+         * @return Usuário
+         */
+        public Users getUsuario() { return usuario; }
+
+        /**
+         * @return Recados não lidos do usuário
+         */
+        public Collection<Mensagem> getRecados() { return recados; }
+
+        /**
+         * @return ID da sessão ativa ou null
+         */
+        public String getIdSessao() { return idSessao; }
+    }
+}
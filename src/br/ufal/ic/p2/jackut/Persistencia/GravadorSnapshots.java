@@ -0,0 +1,188 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Jackut;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Gravação dos snapshots de um {@link Jackut}: escolhe entre o delta, o snapshot completo e a
+ * árvore LSM, controla o snapshot em segundo plano e descarta o journal já refletido.
+ * <p>
+ * Os métodos são chamados com a trava global exclusiva do sistema.
+ * </p>
+ */
+public class GravadorSnapshots {
+    private final Jackut sistema;
+    /** Caminho do manifesto do snapshot, resolvido a cada gravação */
+    private final Supplier<String> caminho;
+    private final JournalOperacoes journal;
+    /** Usuários e comunidades alterados desde o último snapshot gravado */
+    private final RegistroAlteracoes alteracoes;
+    /** Indica que o snapshot em disco corresponde ao estado menos as {@link #alteracoes} */
+    private boolean baseIncremental;
+    /** Snapshot em gravação em segundo plano, se houver */
+    private CompletableFuture<Void> snapshotOnline;
+    /** Árvore LSM onde o estado é gravado no {@link Armazenamento#LSM armazenamento LSM}, se houver */
+    private ArvoreLsm arvore;
+
+    /**
+     * @param sistema Sistema gravado
+     * @param caminho Fornece o caminho do manifesto do snapshot
+     * @param journal Journal descartado após cada snapshot
+     * @param alteracoes Registros alterados desde o último snapshot
+     */
+    public GravadorSnapshots(Jackut sistema, Supplier<String> caminho, JournalOperacoes journal,
+                             RegistroAlteracoes alteracoes) {
+        this.sistema = sistema;
+        this.caminho = caminho;
+        this.journal = journal;
+        this.alteracoes = alteracoes;
+    }
+
+    /**
+     * Indica que o estado foi carregado do snapshot em disco, que passa a receber deltas.
+     */
+    public void carregado() {
+        baseIncremental = true;
+    }
+
+    /**
+     * Passa a gravar o estado na árvore LSM. Um estado vindo do arquivo de snapshot é gravado
+     * por completo na árvore.
+     *
+     * @param arvore Árvore aberta
+     */
+    public void setArvore(ArvoreLsm arvore) {
+        baseIncremental &= SnapshotLsm.possuiEstado(arvore);
+        this.arvore = arvore;
+    }
+
+    /**
+     * @return true se o estado é gravado na árvore LSM
+     */
+    public boolean usaArvore() {
+        return arvore != null;
+    }
+
+    /**
+     * Grava o estado: na árvore LSM, em um delta sobre o snapshot em disco ou, sem base para
+     * o delta, no snapshot completo. Após a gravação, o journal é descartado.
+     *
+     * @throws IOException Se o snapshot não puder ser gravado; o journal é mantido
+     */
+    public void gravar() throws IOException {
+        aguardar();
+        if (arvore != null) {
+            gravarArvore();
+        } else if (!baseIncremental
+                || !SnapshotBinario.gravarDelta(sistema, journal.getUltimoLsn(), caminho.get(), alteracoes)) {
+            SnapshotBinario.gravar(sistema, journal.getUltimoLsn(), caminho.get());
+        }
+        alteracoes.limpar();
+        baseIncremental = true;
+        journal.descartar();
+    }
+
+    /**
+     * Inicia a gravação de um snapshot completo em segundo plano, a partir de uma
+     * {@link ImagemSnapshot} que copia cada registro antes da sua primeira alteração. Na árvore
+     * LSM, os registros alterados são gravados imediatamente.
+     *
+     * @param imagem Cria a imagem do estado atual
+     * @return Conclusão da gravação
+     */
+    public CompletableFuture<Void> gravarOnline(Supplier<ImagemSnapshot> imagem) {
+        aguardar();
+        if (arvore != null) {
+            CompletableFuture<Void> gravacao = new CompletableFuture<>();
+            try {
+                gravarArvore();
+                alteracoes.limpar();
+                baseIncremental = true;
+                gravacao.complete(null);
+            } catch (IOException e) {
+                gravacao.completeExceptionally(new UncheckedIOException(e));
+            }
+            return gravacao;
+        }
+        ImagemSnapshot gravada = imagem.get();
+        long lsnImagem = journal.getUltimoLsn();
+        String destino = caminho.get();
+        // As alterações anteriores estão na imagem; os próximos deltas partem dela
+        alteracoes.limpar();
+        alteracoes.setImagem(gravada);
+        snapshotOnline = CompletableFuture.runAsync(() -> {
+            try {
+                SnapshotBinario.gravar(gravada, lsnImagem, destino);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                gravada.encerrar();
+            }
+        }, tarefa -> {
+            Thread thread = new Thread(tarefa, "jackut-snapshot");
+            thread.setDaemon(true);
+            thread.start();
+        });
+        return snapshotOnline;
+    }
+
+    /**
+     * @return Snapshot em gravação em segundo plano, ou null se nenhum estiver em andamento
+     */
+    public CompletableFuture<Void> emAndamento() {
+        return snapshotOnline != null && !snapshotOnline.isDone() ? snapshotOnline : null;
+    }
+
+    /**
+     * Grava na árvore LSM os registros alterados, ou o estado completo se a árvore não
+     * corresponde ao estado carregado. Após a migração de um arquivo de snapshot para a
+     * árvore, o arquivo é apagado.
+     */
+    private void gravarArvore() throws IOException {
+        SnapshotLsm.gravar(arvore, sistema, journal.getUltimoLsn(), baseIncremental ? alteracoes : null);
+        if (!baseIncremental) {
+            SnapshotBinario.apagar(caminho.get());
+        }
+    }
+
+    /**
+     * Aguarda o término do snapshot em gravação em segundo plano, se houver.
+     * Se a gravação falhou, o próximo {@link #gravar()} grava o snapshot completo.
+     */
+    public void aguardar() {
+        if (snapshotOnline == null) {
+            return;
+        }
+        try {
+            snapshotOnline.join();
+            baseIncremental = true;
+        } catch (CompletionException e) {
+            System.err.println("Erro ao gravar snapshot: " + e.getCause().getMessage());
+            baseIncremental = false;
+        }
+        alteracoes.setImagem(null);
+        snapshotOnline = null;
+    }
+
+    /**
+     * Apaga o snapshot em disco e o conteúdo da árvore LSM.
+     */
+    public void apagar() {
+        aguardar();
+        alteracoes.limpar();
+        baseIncremental = false;
+        SnapshotBinario.apagar(caminho.get());
+        if (arvore != null) {
+            try {
+                arvore.limpar();
+            } catch (IOException e) {
+                System.err.println("Erro ao limpar árvore LSM: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Comunidade;
+import br.ufal.ic.p2.jackut.Interfaces.IGerenciadorComunidades;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioRecados;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioSessoes;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioUsuarios;
+import br.ufal.ic.p2.jackut.Users;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Imagem consistente (point-in-time) do sistema, gravada em segundo plano enquanto as
+ * operações continuam sendo executadas.
+ * <p>
+ * Usa cópia sob escrita por registro: antes de alterar, criar ou remover um usuário ou uma
+ * comunidade, o sistema chama {@link #preservarUsuario(String)} /
+ * {@link #preservarComunidade(String)} (através de {@link RegistroAlteracoes}); se o registro
+ * ainda não foi lido pela gravação, o seu estado no instante da imagem é copiado. A gravação
+ * lê a cópia preservada ou, se o registro não foi alterado, uma cópia do registro atual.
+ * Nenhuma das duas operações bloqueia mais do que a cópia de um único registro.
+ * </p>
+ *
+ * <p>Os repositórios de usuários, sessões, recados e comunidades do sistema devem permitir leitura
+ * concorrente (por exemplo, sobre um {@link ConcurrentHashMap}).</p>
+ */
+public class ImagemSnapshot implements FonteSnapshot {
+    private static final int QUANTIDADE_TRAVAS = 64;
+
+    private final IRepositorioUsuarios usuarios;
+    private final IRepositorioSessoes sessoes;
+    private final IRepositorioRecados recados;
+    private final IGerenciadorComunidades comunidades;
+    private final Object[] travas = new Object[QUANTIDADE_TRAVAS];
+
+    /** Estado no instante da imagem dos usuários alterados depois dela (vazio: não existia) */
+    private final Map<String, Optional<RegistroUsuario>> usuariosPreservados = new ConcurrentHashMap<>();
+    private final Set<String> usuariosLidos = ConcurrentHashMap.newKeySet();
+    /** Estado no instante da imagem das comunidades alteradas depois dela (vazio: não existia) */
+    private final Map<String, Optional<Comunidade>> comunidadesPreservadas = new ConcurrentHashMap<>();
+    private final Set<String> comunidadesLidas = ConcurrentHashMap.newKeySet();
+    private volatile boolean encerrada;
+
+    /**
+     * Cria a imagem do estado atual. Deve ser chamado sem alterações em andamento; a partir
+     * daí, toda alteração deve ser precedida pela preservação do registro correspondente.
+     *
+     * @param usuarios Repositório de usuários do sistema
+     * @param sessoes Repositório de sessões do sistema
+     * @param recados Repositório de recados do sistema
+     * @param comunidades Gerenciador de comunidades do sistema
+     */
+    public ImagemSnapshot(IRepositorioUsuarios usuarios, IRepositorioSessoes sessoes,
+                          IRepositorioRecados recados, IGerenciadorComunidades comunidades) {
+        this.usuarios = usuarios;
+        this.sessoes = sessoes;
+        this.recados = recados;
+        this.comunidades = comunidades;
+        for (int i = 0; i < travas.length; i++) {
+            travas[i] = new Object();
+        }
+    }
+
+    /**
+     * Preserva o estado de um usuário (e da sua sessão) antes de uma alteração.
+     *
+     * @param login Login do usuário que será criado, alterado ou removido
+     */
+    public void preservarUsuario(String login) {
+        if (encerrada || usuariosLidos.contains(login) || usuariosPreservados.containsKey(login)) {
+            return;
+        }
+        synchronized (trava(login)) {
+            if (!usuariosLidos.contains(login) && !usuariosPreservados.containsKey(login)) {
+                usuariosPreservados.put(login, Optional.ofNullable(copiarUsuario(login)));
+            }
+        }
+    }
+
+    /**
+     * Preserva o estado de uma comunidade antes de uma alteração.
+     *
+     * @param nome Nome da comunidade que será criada, alterada ou removida
+     */
+    public void preservarComunidade(String nome) {
+        if (encerrada || comunidadesLidas.contains(nome) || comunidadesPreservadas.containsKey(nome)) {
+            return;
+        }
+        synchronized (trava(nome)) {
+            if (!comunidadesLidas.contains(nome) && !comunidadesPreservadas.containsKey(nome)) {
+                Comunidade comunidade = comunidades.getRegistroComunidade(nome);
+                comunidadesPreservadas.put(nome, Optional.ofNullable(comunidade == null ? null : comunidade.copiar()));
+            }
+        }
+    }
+
+    /**
+     * Libera as cópias preservadas. Alterações posteriores não são mais acompanhadas.
+     */
+    public void encerrar() {
+        encerrada = true;
+        usuariosPreservados.clear();
+        comunidadesPreservadas.clear();
+    }
+
+    @Override
+    public Collection<String> getLogins() {
+        Set<String> logins = new HashSet<>(usuarios.getLogins());
+        logins.addAll(usuariosPreservados.keySet());
+        return logins;
+    }
+
+    @Override
+    public RegistroUsuario getUsuario(String login) {
+        synchronized (trava(login)) {
+            // Marcado como lido só depois da cópia: até lá, quem for alterá-lo espera na trava
+            Optional<RegistroUsuario> preservado = usuariosPreservados.remove(login);
+            RegistroUsuario registro = preservado != null ? preservado.orElse(null) : copiarUsuario(login);
+            usuariosLidos.add(login);
+            return registro;
+        }
+    }
+
+    @Override
+    public Collection<Comunidade> getComunidades() {
+        Set<String> nomes = new HashSet<>(comunidades.getComunidades());
+        nomes.addAll(comunidadesPreservadas.keySet());
+        List<Comunidade> imagem = new ArrayList<>(nomes.size());
+        for (String nome : nomes) {
+            synchronized (trava(nome)) {
+                Optional<Comunidade> preservada = comunidadesPreservadas.remove(nome);
+                Comunidade comunidade = preservada != null ? preservada.orElse(null) : copiarComunidade(nome);
+                comunidadesLidas.add(nome);
+                if (comunidade != null) {
+                    imagem.add(comunidade);
+                }
+            }
+        }
+        return imagem;
+    }
+
+    private RegistroUsuario copiarUsuario(String login) {
+        Users usuario = usuarios.consultar(login);
+        return usuario == null ? null : new RegistroUsuario(usuario.copiar(),
+                new ArrayList<>(recados.listarRecados(login)), sessoes.getSessao(login));
+    }
+
+    private Comunidade copiarComunidade(String nome) {
+        Comunidade comunidade = comunidades.getRegistroComunidade(nome);
+        return comunidade == null ? null : comunidade.copiar();
+    }
+
+    private Object trava(String chave) {
+        return travas[Math.floorMod(chave.hashCode(), travas.length)];
+    }
+}
@@ -0,0 +1,359 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Diário (journal) de escrita antecipada do sistema Jackut.
+ * <p>
+ * Cada operação que altera o estado do sistema é anexada ao final do arquivo como um
+ * registro binário compacto, de forma que o custo de cada escrita é proporcional ao
+ * tamanho da alteração e não ao tamanho da base de dados.
+ * </p>
+ *
+ * <p><b>Formato de cada registro:</b></p>
+ * <ul>
+ *   <li>{@code int} tamanho do corpo em bytes</li>
+ *   <li>Corpo: {@code long} LSN, {@code byte} código da operação, {@code byte} quantidade de
+ *       argumentos e, para cada argumento, {@code int} tamanho seguido dos bytes UTF-8
+ *       (tamanho {@code -1} para um argumento nulo)</li>
+ *   <li>{@code int} CRC32 do corpo</li>
+ * </ul>
+ *
+ * <p><b>Commit em grupo:</b> os registros são acumulados em buffer e sincronizados com o disco
+ * ({@code fsync}) a cada {@link #TAMANHO_LOTE} registros ou a cada {@link #INTERVALO_COMMIT_MS}
+ * milissegundos, o que ocorrer primeiro. Um registro anexado só é durável depois do commit
+ * seguinte; {@link #commit()} força a sincronização imediata.</p>
+ *
+ * <p>Depois de uma falha de escrita ou de sincronização, o diário não aceita novos registros
+ * ({@link #getFalha()}): os registros pendentes podem ter sido perdidos, e anexar outros depois
+ * deles deixaria lacunas na reprodução.</p>
+ *
+ * <p>Um registro incompleto ou corrompido no final do arquivo (queda durante a escrita) é
+ * descartado na abertura do diário.</p>
+ */
+public class Journal implements Closeable {
+
+    /** Quantidade de registros pendentes que dispara um commit em grupo. */
+    public static final int TAMANHO_LOTE = 64;
+    /** Intervalo máximo, em milissegundos, entre dois commits com registros pendentes. */
+    public static final long INTERVALO_COMMIT_MS = 5;
+    /** Tamanho gravado no lugar dos bytes de um argumento nulo. */
+    private static final int NULO = -1;
+
+    /** Agendador compartilhado pelos diários abertos para os commits periódicos. */
+    private static final ScheduledExecutorService AGENDADOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "jackut-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Operações registradas no diário, identificadas por um código de um byte.
+     */
+    public enum Operacao {
+        CRIAR_USUARIO(1),
+        ABRIR_SESSAO(2),
+        EDITAR_PERFIL(3),
+        ADICIONAR_AMIGO(4),
+        ACEITAR_SOLICITACAO(5),
+        RECUSAR_SOLICITACAO(6),
+        ENVIAR_RECADO(7),
+        LER_RECADO(8),
+        CRIAR_COMUNIDADE(9),
+        ADICIONAR_COMUNIDADE(10),
+        ENVIAR_MENSAGEM(11),
+        LER_MENSAGEM(12),
+        ADICIONAR_IDOLO(13),
+        ADICIONAR_INIMIGO(14),
+        ADICIONAR_PAQUERA(15),
+        REMOVER_USUARIO(16);
+
+        private final byte codigo;
+
+        Operacao(int codigo) {
+            this.codigo = (byte) codigo;
+        }
+
+        /**
+         * @return Código binário da operação
+         */
+        public byte getCodigo() { return codigo; }
+
+        /**
+         * Recupera a operação correspondente a um código lido do arquivo.
+         *
+         * @param codigo Código binário da operação
+         * @return Operação correspondente ou {@code null} se o código for desconhecido
+         */
+        public static Operacao doCodigo(byte codigo) {
+            for (Operacao operacao : values()) {
+                if (operacao.codigo == codigo) {
+                    return operacao;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Registro lido do diário durante a reprodução.
+     */
+    public static final class Registro {
+        private final long lsn;
+        private final Operacao operacao;
+        private final String[] argumentos;
+
+        Registro(long lsn, Operacao operacao, String[] argumentos) {
+            this.lsn = lsn;
+            this.operacao = operacao;
+            this.argumentos = argumentos;
+        }
+
+        /**
+         * @return Número de sequência do registro no diário
+         */
+        public long getLsn() { return lsn; }
+
+        /**
+         * @return Operação registrada
+         */
+        public Operacao getOperacao() { return operacao; }
+
+        /**
+         * @param indice Posição do argumento
+         * @return Argumento da operação na posição indicada
+         */
+        public String getArgumento(int indice) { return argumentos[indice]; }
+    }
+
+    private final String caminho;
+    private final FileChannel canal;
+    private final DataOutputStream saida;
+    private final ScheduledFuture<?> commitPeriodico;
+    private final long tamanhoValido;
+    private long proximoLsn;
+    private int pendentes;
+    /** Primeira falha de escrita ou de sincronização, após a qual nenhum registro é aceito */
+    private volatile IOException falha;
+
+    /**
+     * Abre (ou cria) o diário no caminho informado, descartando registros incompletos no final.
+     *
+     * @param caminho Caminho do arquivo do diário
+     * @param lsnMinimo Menor LSN que poderá ser atribuído ao próximo registro
+     * @throws IOException Se ocorrer erro de I/O ao abrir ou validar o arquivo
+     */
+    public Journal(String caminho, long lsnMinimo) throws IOException {
+        this.caminho = caminho;
+        this.canal = FileChannel.open(Paths.get(caminho),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long[] ultimoLsn = {lsnMinimo - 1};
+        this.tamanhoValido = percorrer(r -> ultimoLsn[0] = Math.max(ultimoLsn[0], r.getLsn()));
+        canal.truncate(tamanhoValido);
+        canal.position(tamanhoValido);
+
+        this.proximoLsn = ultimoLsn[0] + 1;
+        this.saida = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal), 1 << 16));
+        this.commitPeriodico = AGENDADOR.scheduleWithFixedDelay(this::commitSeHouverPendentes,
+                INTERVALO_COMMIT_MS, INTERVALO_COMMIT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reproduz, em ordem, os registros do diário com LSN maior que o informado.
+     * <p>
+     * Deve ser chamado antes de novos registros serem anexados.
+     * </p>
+     *
+     * @param aposLsn Último LSN já refletido no snapshot carregado
+     * @param consumidor Função que aplica cada registro ao estado do sistema
+     * @throws IOException Se ocorrer erro de leitura
+     */
+    public void reproduzir(long aposLsn, Consumer<Registro> consumidor) throws IOException {
+        percorrer(r -> {
+            if (r.getLsn() > aposLsn) {
+                consumidor.accept(r);
+            }
+        });
+    }
+
+    /**
+     * Anexa um registro ao diário. O registro só se torna durável no próximo commit em grupo,
+     * após até {@link #TAMANHO_LOTE} registros ou {@link #INTERVALO_COMMIT_MS} milissegundos.
+     *
+     * @param operacao Operação executada
+     * @param argumentos Argumentos necessários para reproduzir a operação
+     * @return LSN atribuído ao registro
+     * @throws IOException Se ocorrer erro de escrita, ou se uma escrita anterior já falhou
+     */
+    public synchronized long registrar(Operacao operacao, String... argumentos) throws IOException {
+        verificarFalha();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream corpo = new DataOutputStream(bytes);
+        long lsn = proximoLsn++;
+        corpo.writeLong(lsn);
+        corpo.writeByte(operacao.getCodigo());
+        corpo.writeByte(argumentos.length);
+        for (String argumento : argumentos) {
+            if (argumento == null) {
+                corpo.writeInt(NULO);
+                continue;
+            }
+            byte[] utf8 = argumento.getBytes(StandardCharsets.UTF_8);
+            corpo.writeInt(utf8.length);
+            corpo.write(utf8);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        try {
+            saida.writeInt(bytes.size());
+            bytes.writeTo(saida);
+            saida.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            falha = e;
+            throw e;
+        }
+
+        if (++pendentes >= TAMANHO_LOTE) {
+            commit();
+        }
+        return lsn;
+    }
+
+    /**
+     * Força a gravação em disco de todos os registros pendentes.
+     *
+     * @throws IOException Se ocorrer erro de escrita, ou se uma escrita anterior já falhou
+     */
+    public synchronized void commit() throws IOException {
+        verificarFalha();
+        try {
+            saida.flush();
+            canal.force(false);
+        } catch (IOException e) {
+            falha = e;
+            throw e;
+        }
+        pendentes = 0;
+    }
+
+    /**
+     * @return Primeira falha de escrita ou de sincronização do diário, ou null se não houve
+     */
+    public IOException getFalha() { return falha; }
+
+    /**
+     * Descarta todo o conteúdo do diário, normalmente após um checkpoint (snapshot) completo.
+     *
+     * @throws IOException Se ocorrer erro de escrita
+     */
+    public synchronized void truncar() throws IOException {
+        saida.flush();
+        canal.truncate(0);
+        canal.position(0);
+        canal.force(true);
+        pendentes = 0;
+    }
+
+    /**
+     * @return LSN do último registro anexado (ou reproduzido) neste diário
+     */
+    public synchronized long getUltimoLsn() { return proximoLsn - 1; }
+
+    /**
+     * @return Tamanho, em bytes, da parte válida do diário no momento da abertura
+     */
+    public long getTamanhoValido() { return tamanhoValido; }
+
+    /**
+     * Realiza o commit pendente e libera o arquivo do diário.
+     *
+     * @throws IOException Se ocorrer erro ao gravar ou fechar o arquivo
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        commitPeriodico.cancel(false);
+        try {
+            commit();
+        } finally {
+            canal.close();
+        }
+    }
+
+    private void verificarFalha() throws IOException {
+        if (falha != null) {
+            throw new IOException("Journal " + caminho + " indisponível após falha: " + falha.getMessage(), falha);
+        }
+    }
+
+    private synchronized void commitSeHouverPendentes() {
+        if (pendentes > 0 && falha == null && canal.isOpen()) {
+            try {
+                commit();
+            } catch (IOException e) {
+                System.err.println("Erro ao sincronizar journal " + caminho + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Percorre os registros válidos do arquivo a partir do início.
+     *
+     * @return Posição final do último registro válido
+     */
+    private long percorrer(Consumer<Registro> consumidor) throws IOException {
+        long posicao = 0;
+        long tamanho = canal.size();
+        ByteBuffer cabecalho = ByteBuffer.allocate(Integer.BYTES);
+
+        while (posicao + Integer.BYTES <= tamanho) {
+            cabecalho.clear();
+            canal.read(cabecalho, posicao);
+            int tamanhoCorpo = cabecalho.getInt(0);
+            if (tamanhoCorpo <= 0 || posicao + Integer.BYTES + tamanhoCorpo + Integer.BYTES > tamanho) {
+                break;
+            }
+
+            ByteBuffer corpo = ByteBuffer.allocate(tamanhoCorpo + Integer.BYTES);
+            canal.read(corpo, posicao + Integer.BYTES);
+            corpo.flip();
+
+            CRC32 crc = new CRC32();
+            crc.update(corpo.array(), 0, tamanhoCorpo);
+            if ((int) crc.getValue() != corpo.getInt(tamanhoCorpo)) {
+                break;
+            }
+
+            long lsn = corpo.getLong();
+            Operacao operacao = Operacao.doCodigo(corpo.get());
+            String[] argumentos = new String[corpo.get()];
+            for (int i = 0; i < argumentos.length; i++) {
+                int tamanhoArgumento = corpo.getInt();
+                if (tamanhoArgumento == NULO) {
+                    continue;
+                }
+                byte[] utf8 = new byte[tamanhoArgumento];
+                corpo.get(utf8);
+                argumentos[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+            if (operacao != null) {
+                consumidor.accept(new Registro(lsn, operacao, argumentos));
+            }
+            posicao += Integer.BYTES + tamanhoCorpo + Integer.BYTES;
+        }
+        return posicao;
+    }
+}
@@ -0,0 +1,180 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Journal das operações de escrita do sistema: abre o {@link Journal} sob demanda, mantém o
+ * LSN do último registro refletido no estado e controla a sua reprodução.
+ * <p>
+ * O registro é sincronizado porque operações sobre usuários diferentes registram em paralelo;
+ * como cada operação registra enquanto ainda tem as listras dos seus usuários, as operações
+ * sobre um mesmo usuário aparecem no journal na ordem em que foram aplicadas.
+ * </p>
+ */
+public class JournalOperacoes {
+    /** Caminho do arquivo do journal, resolvido a cada abertura */
+    private final Supplier<String> caminho;
+    /** Journal aberto, ou null até o primeiro registro */
+    private volatile Journal journal;
+    /** LSN do último registro do journal refletido no estado */
+    private volatile long ultimoLsn;
+    /** Indica que o journal está sendo reproduzido e as operações não devem ser registradas novamente */
+    private volatile boolean reproduzindo;
+
+    /**
+     * @param caminho Fornece o caminho do arquivo do journal
+     */
+    public JournalOperacoes(Supplier<String> caminho) {
+        this.caminho = caminho;
+    }
+
+    /**
+     * @return LSN do último registro do journal refletido no estado
+     */
+    public long getUltimoLsn() {
+        return ultimoLsn;
+    }
+
+    /**
+     * Define o LSN do estado carregado de um snapshot; a numeração do journal continua a partir dele.
+     *
+     * @param ultimoLsn LSN do último registro refletido no snapshot
+     */
+    public void setUltimoLsn(long ultimoLsn) {
+        this.ultimoLsn = ultimoLsn;
+    }
+
+    /**
+     * @return true se o journal está sendo reproduzido
+     */
+    public boolean reproduzindo() {
+        return reproduzindo;
+    }
+
+    /**
+     * @return true se existe um arquivo de journal a reproduzir
+     */
+    public boolean existe() {
+        return new File(caminho.get()).exists();
+    }
+
+    private Journal journal() throws IOException {
+        if (journal == null) {
+            journal = new Journal(caminho.get(), ultimoLsn + 1);
+        }
+        return journal;
+    }
+
+    /**
+     * Registra uma operação de escrita já validada, antes de ela ser aplicada: se o registro
+     * falhar, o estado não é alterado. Durante a reprodução nenhuma operação é registrada novamente.
+     * <p>
+     * O registro só é durável após o próximo commit em grupo do {@link Journal} ou
+     * {@link #confirmar()}.
+     * </p>
+     *
+     * @param operacao Operação executada
+     * @param argumentos Argumentos necessários para reproduzi-la
+     * @throws UncheckedIOException Se o registro não puder ser anexado; as escritas seguintes são recusadas
+     */
+    public synchronized void registrar(Journal.Operacao operacao, String... argumentos) {
+        if (reproduzindo) {
+            return;
+        }
+        try {
+            ultimoLsn = journal().registrar(operacao, argumentos);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao registrar operação no journal: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sincroniza com o disco os registros pendentes do journal aberto.
+     *
+     * @throws UncheckedIOException Se o journal não puder ser sincronizado
+     */
+    public synchronized void confirmar() {
+        if (journal != null) {
+            try {
+                journal.commit();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erro ao sincronizar journal: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Recusa as escritas depois de uma falha do journal, que não poderiam ser registradas.
+     *
+     * @throws UncheckedIOException Se o journal falhou
+     */
+    public void verificar() {
+        Journal aberto = journal;
+        IOException falha = aberto == null ? null : aberto.getFalha();
+        if (falha != null) {
+            throw new UncheckedIOException("Escrita recusada: journal indisponível: " + falha.getMessage(), falha);
+        }
+    }
+
+    /**
+     * Reaplica as operações do journal posteriores ao último LSN, avançando-o a cada registro.
+     *
+     * @param aplicar Executa novamente a operação de um registro
+     * @throws UncheckedIOException Se o journal não puder ser lido
+     */
+    public void reproduzir(Consumer<Journal.Registro> aplicar) {
+        reproduzindo = true;
+        try {
+            journal().reproduzir(ultimoLsn, registro -> {
+                aplicar.accept(registro);
+                ultimoLsn = registro.getLsn();
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao reproduzir journal: " + e.getMessage(), e);
+        } finally {
+            reproduzindo = false;
+        }
+    }
+
+    /**
+     * Descarta o journal depois de um snapshot que já reflete todas as suas operações.
+     */
+    public synchronized void descartar() {
+        try {
+            if (journal != null) {
+                journal.truncar();
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao truncar journal: " + e.getMessage());
+        }
+        fechar();
+        new File(caminho.get()).delete();
+    }
+
+    /**
+     * Apaga o journal e reinicia a numeração.
+     */
+    public synchronized void apagar() {
+        fechar();
+        ultimoLsn = 0;
+        new File(caminho.get()).delete();
+    }
+
+    /**
+     * Fecha o journal aberto, sincronizando os registros pendentes.
+     */
+    public synchronized void fechar() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Erro ao fechar journal: " + e.getMessage());
+            }
+            journal = null;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Componentes.ContagemIds;
+import br.ufal.ic.p2.jackut.Componentes.DicionarioUsuarios;
+import br.ufal.ic.p2.jackut.Mensagem;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Log segmentado de recados de uma partição do {@link RepositorioRecadosMapeado}.
+ * <p>
+ * Os recados são anexados, na ordem de chegada, a segmentos de tamanho fixo mapeados em
+ * memória. Os recados de um mesmo destinatário formam uma lista encadeada dentro do log: cada
+ * registro guarda a posição do próximo recado do mesmo destinatário, e o heap guarda apenas a
+ * posição do primeiro e do último recado de cada caixa ({@link Fila}). Assim, o custo de heap de
+ * uma caixa não depende da quantidade de recados não lidos, apenas da quantidade de
+ * remetentes distintos: cada caixa conta os seus recados por remetente, de forma que verificar
+ * ou contar os recados de um remetente não lê o log, e removê-los só percorre a caixa se ele
+ * tiver recados nela.
+ * </p>
+ *
+ * <p><b>Registro:</b> {@code long} posição do próximo recado da caixa ({@code -1} se for o
+ * último), {@code int} tamanho do conteúdo, remetente e conteúdo (textos UTF-8).</p>
+ *
+ * <p>Cada segmento conta os seus recados ainda não lidos. Um segmento totalmente consumido
+ * volta para a lista de segmentos livres e é reaproveitado pelos próximos recados, sem novo
+ * mapeamento. Os arquivos dos segmentos são temporários: o log não é durável, pois os recados
+ * são gravados nos snapshots junto com os registros de usuário.</p>
+ */
+final class LogRecados {
+    private static final int CABECALHO = Long.BYTES + Integer.BYTES;
+    private static final long NENHUM = -1;
+
+    private final File diretorio;
+    private final int tamanhoSegmento;
+    private final List<ByteBuffer> segmentos = new ArrayList<>();
+    /** Recados não lidos de cada segmento */
+    private int[] vivos = new int[8];
+    private final ArrayDeque<Integer> livres = new ArrayDeque<>();
+    /** Segmento que recebe os próximos recados (-1 se nenhum) */
+    private int atual = -1;
+    private int posicaoEscrita;
+    private final Map<String, Fila> filas = new HashMap<>();
+    private final SaidaBinaria registro = new SaidaBinaria(256);
+
+    /**
+     * @param diretorio Diretório dos arquivos temporários dos segmentos
+     * @param tamanhoSegmento Tamanho de cada segmento, em bytes
+     */
+    LogRecados(File diretorio, int tamanhoSegmento) {
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+    }
+
+    /**
+     * Anexa um recado ao final da caixa de um usuário.
+     *
+     * @param login Login do destinatário
+     * @param remetente Login do remetente
+     * @param conteudo Conteúdo do recado
+     * @throws IOException Se um novo segmento não puder ser criado
+     */
+    synchronized void anexar(String login, String remetente, String conteudo) throws IOException {
+        registro.limpar();
+        registro.escreverTexto(remetente);
+        registro.escreverTexto(conteudo);
+        int tamanho = CABECALHO + registro.tamanho();
+        if (atual < 0 || posicaoEscrita + tamanho > segmentos.get(atual).capacity()) {
+            trocarSegmento(tamanho);
+        }
+
+        ByteBuffer segmento = segmentos.get(atual);
+        long posicao = ((long) atual << 32) | posicaoEscrita;
+        segmento.putLong(posicaoEscrita, NENHUM);
+        segmento.putInt(posicaoEscrita + Long.BYTES, registro.tamanho());
+        ByteBuffer destino = segmento.duplicate();
+        destino.position(posicaoEscrita + CABECALHO);
+        registro.copiarPara(destino);
+        posicaoEscrita += tamanho;
+        vivos[atual]++;
+
+        Fila fila = filas.get(login);
+        if (fila == null) {
+            fila = new Fila(posicao);
+            filas.put(login, fila);
+        } else {
+            segmento(fila.ultimo).putLong(deslocamento(fila.ultimo), posicao);
+            fila.ultimo = posicao;
+            fila.quantidade++;
+        }
+        fila.remetentes.incrementar(DicionarioUsuarios.id(remetente));
+    }
+
+    /**
+     * Remove e devolve o recado mais antigo da caixa de um usuário.
+     *
+     * @param login Login do dono da caixa
+     * @return Recado ou null se a caixa estiver vazia
+     */
+    synchronized Mensagem retirar(String login) {
+        Fila fila = filas.get(login);
+        if (fila == null) {
+            return null;
+        }
+        long posicao = fila.primeiro;
+        Mensagem recado = ler(posicao);
+        fila.remetentes.decrementar(DicionarioUsuarios.idExistente(recado.getRemetente()));
+        fila.primeiro = proximo(posicao);
+        if (--fila.quantidade == 0) {
+            filas.remove(login);
+        }
+        liberar(posicao);
+        return recado;
+    }
+
+    /**
+     * @param login Login do dono da caixa
+     * @return Remetente do recado mais antigo da caixa, ou null se a caixa estiver vazia
+     */
+    synchronized String primeiroRemetente(String login) {
+        Fila fila = filas.get(login);
+        return fila == null ? null : remetente(fila.primeiro);
+    }
+
+    /**
+     * @param login Login do dono da caixa
+     * @return Cópia dos recados da caixa, do mais antigo para o mais recente
+     */
+    synchronized List<Mensagem> listar(String login) {
+        Fila fila = filas.get(login);
+        if (fila == null) {
+            return Collections.emptyList();
+        }
+        List<Mensagem> recados = new ArrayList<>(fila.quantidade);
+        for (long posicao = fila.primeiro; posicao != NENHUM; posicao = proximo(posicao)) {
+            recados.add(ler(posicao));
+        }
+        return recados;
+    }
+
+    /**
+     * @param login Login do dono da caixa
+     * @param remetente Login do remetente
+     * @return Quantidade de recados do remetente na caixa
+     */
+    synchronized int contarDe(String login, String remetente) {
+        Fila fila = filas.get(login);
+        return fila == null ? 0 : fila.remetentes.quantidade(DicionarioUsuarios.idExistente(remetente));
+    }
+
+    /**
+     * Remove da caixa de um usuário os recados de um remetente, religando a lista da caixa.
+     * O percurso termina no último recado do remetente.
+     *
+     * @param login Login do dono da caixa
+     * @param remetente Login do remetente
+     */
+    synchronized void removerDe(String login, String remetente) {
+        Fila fila = filas.get(login);
+        if (fila == null) {
+            return;
+        }
+        int restantes = fila.remetentes.zerar(DicionarioUsuarios.idExistente(remetente));
+        long anterior = NENHUM;
+        long posicao = fila.primeiro;
+        while (restantes > 0 && posicao != NENHUM) {
+            long seguinte = proximo(posicao);
+            if (remetente(posicao).equals(remetente)) {
+                if (anterior == NENHUM) {
+                    fila.primeiro = seguinte;
+                } else {
+                    segmento(anterior).putLong(deslocamento(anterior), seguinte);
+                }
+                if (posicao == fila.ultimo) {
+                    fila.ultimo = anterior;
+                }
+                fila.quantidade--;
+                restantes--;
+                liberar(posicao);
+            } else {
+                anterior = posicao;
+            }
+            posicao = seguinte;
+        }
+        if (fila.quantidade == 0) {
+            filas.remove(login);
+        }
+    }
+
+    /**
+     * Descarta todos os recados da caixa de um usuário.
+     *
+     * @param login Login do dono da caixa
+     */
+    synchronized void descartar(String login) {
+        Fila fila = filas.remove(login);
+        if (fila != null) {
+            for (long posicao = fila.primeiro; posicao != NENHUM; ) {
+                long seguinte = proximo(posicao);
+                liberar(posicao);
+                posicao = seguinte;
+            }
+        }
+    }
+
+    /**
+     * Descarta todas as caixas e libera os segmentos.
+     */
+    synchronized void limpar() {
+        filas.clear();
+        segmentos.clear();
+        livres.clear();
+        vivos = new int[8];
+        atual = -1;
+        posicaoEscrita = 0;
+    }
+
+    /**
+     * @return Quantidade de segmentos mapeados
+     */
+    synchronized int getQuantidadeSegmentos() {
+        return segmentos.size();
+    }
+
+    /**
+     * @return Quantidade de segmentos livres para reaproveitamento
+     */
+    synchronized int getQuantidadeSegmentosLivres() {
+        return livres.size();
+    }
+
+    private void trocarSegmento(int tamanhoMinimo) throws IOException {
+        if (atual >= 0 && vivos[atual] == 0) {
+            livres.add(atual);
+        }
+        Integer livre = null;
+        for (Iterator<Integer> it = livres.iterator(); it.hasNext() && livre == null; ) {
+            Integer candidato = it.next();
+            if (segmentos.get(candidato).capacity() >= tamanhoMinimo) {
+                it.remove();
+                livre = candidato;
+            }
+        }
+        if (livre != null) {
+            atual = livre;
+        } else {
+            segmentos.add(mapear(Math.max(tamanhoSegmento, tamanhoMinimo)));
+            atual = segmentos.size() - 1;
+            if (atual >= vivos.length) {
+                vivos = Arrays.copyOf(vivos, vivos.length * 2);
+            }
+        }
+        posicaoEscrita = 0;
+    }
+
+    private ByteBuffer mapear(int tamanho) throws IOException {
+        File arquivo = File.createTempFile("jackut-recados-", ".seg", diretorio);
+        try (FileChannel canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanho);
+        } finally {
+            // O mapeamento continua válido sem o arquivo, onde o sistema operacional permitir
+            if (!arquivo.delete()) {
+                arquivo.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Marca um recado como consumido. Um segmento sem recados não lidos é reaproveitado:
+     * o segmento atual volta a ser escrito desde o início, e os demais voltam para a lista
+     * de segmentos livres.
+     */
+    private void liberar(long posicao) {
+        int indice = (int) (posicao >>> 32);
+        if (--vivos[indice] == 0) {
+            if (indice == atual) {
+                posicaoEscrita = 0;
+            } else {
+                livres.add(indice);
+            }
+        }
+    }
+
+    private Mensagem ler(long posicao) {
+        EntradaBinaria entrada = new EntradaBinaria(segmento(posicao).duplicate());
+        entrada.posicionar(deslocamento(posicao) + CABECALHO);
+        return new Mensagem(entrada.lerTexto(), entrada.lerTexto());
+    }
+
+    private String remetente(long posicao) {
+        EntradaBinaria entrada = new EntradaBinaria(segmento(posicao).duplicate());
+        entrada.posicionar(deslocamento(posicao) + CABECALHO);
+        return entrada.lerTexto();
+    }
+
+    private long proximo(long posicao) {
+        return segmento(posicao).getLong(deslocamento(posicao));
+    }
+
+    private ByteBuffer segmento(long posicao) {
+        return segmentos.get((int) (posicao >>> 32));
+    }
+
+    private static int deslocamento(long posicao) {
+        return (int) posicao;
+    }
+
+    /**
+     * Caixa de um usuário: posições do primeiro e do último recado, quantidade de recados e
+     * quantidade por remetente.
+     */
+    private static final class Fila {
+        long primeiro;
+        long ultimo;
+        int quantidade = 1;
+        final ContagemIds remetentes = new ContagemIds();
+
+        Fila(long posicao) {
+            this.primeiro = posicao;
+            this.ultimo = posicao;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas do conjunto de usuários residentes no heap ({@link UsuariosSobDemanda}).
+ * <p>
+ * Um acerto é um acesso a um usuário residente; uma falta é um acesso que precisou
+ * decodificar o usuário do snapshot ou do armazém de despejo, e tem a sua latência medida.
+ * Um despejo remove um usuário do heap, gravando-o no armazém apenas quando a cópia em
+ * disco não estiver atualizada.
+ * </p>
+ */
+public class MetricasCache {
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+    private final LongAdder tempoFaltasNanos = new LongAdder();
+    private final AtomicLong maiorFaltaNanos = new AtomicLong();
+    private final LongAdder despejos = new LongAdder();
+    private final LongAdder gravacoesDisco = new LongAdder();
+
+    void registrarAcerto() {
+        acertos.increment();
+    }
+
+    void registrarFalta(long nanos) {
+        faltas.increment();
+        tempoFaltasNanos.add(nanos);
+        maiorFaltaNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void registrarDespejo(boolean gravado) {
+        despejos.increment();
+        if (gravado) {
+            gravacoesDisco.increment();
+        }
+    }
+
+    /**
+     * @return Quantidade de acessos a usuários residentes
+     */
+    public long getAcertos() { return acertos.sum(); }
+
+    /**
+     * @return Quantidade de acessos que decodificaram o usuário do disco
+     */
+    public long getFaltas() { return faltas.sum(); }
+
+    /**
+     * @return Fração dos acessos atendida pelo heap (0 a 1), ou 1 sem acessos
+     */
+    public double getTaxaAcerto() {
+        long acertos = getAcertos();
+        long total = acertos + getFaltas();
+        return total == 0 ? 1.0 : (double) acertos / total;
+    }
+
+    /**
+     * @return Latência média de uma falta, em microssegundos
+     */
+    public double getLatenciaMediaFaltaMicros() {
+        long faltas = getFaltas();
+        return faltas == 0 ? 0.0 : tempoFaltasNanos.sum() / 1000.0 / faltas;
+    }
+
+    /**
+     * @return Maior latência de uma falta, em microssegundos
+     */
+    public double getLatenciaMaximaFaltaMicros() {
+        return maiorFaltaNanos.get() / 1000.0;
+    }
+
+    /**
+     * @return Quantidade de usuários removidos do heap
+     */
+    public long getDespejos() { return despejos.sum(); }
+
+    /**
+     * @return Quantidade de despejos que gravaram o usuário no armazém em disco
+     */
+    public long getGravacoesDisco() { return gravacoesDisco.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("acertos=%d faltas=%d taxaAcerto=%.4f faltaMedia=%.1fus faltaMaxima=%.1fus despejos=%d gravacoes=%d",
+                getAcertos(), getFaltas(), getTaxaAcerto(), getLatenciaMediaFaltaMicros(),
+                getLatenciaMaximaFaltaMicros(), getDespejos(), getGravacoesDisco());
+    }
+}
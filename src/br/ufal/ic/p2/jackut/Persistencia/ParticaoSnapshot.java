@@ -0,0 +1,307 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Users;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Arquivo de partição de um snapshot particionado do Jackut.
+ * <p>
+ * Cada partição contém os usuários cujo login pertence a ela (ver {@link #particaoDe(String, int)}),
+ * com seus atributos, relacionamentos e caixas de mensagens, além das sessões desses usuários.
+ * Cada arquivo tem seu próprio {@link DicionarioLogins} e é independente dos demais, de forma
+ * que as partições podem ser gravadas e decodificadas em paralelo.
+ * </p>
+ *
+ * <p>Uma partição pode ser decodificada por completo ({@link #carregar(String)}) ou apenas
+ * indexada ({@link #indexar(String)}): nesse caso o arquivo permanece mapeado em memória e
+ * cada usuário é decodificado sob demanda a partir da posição do seu registro.</p>
+ *
+ * <p>A compactação ({@link #compactar(String, String, int, Map, Map)}) grava a partição da
+ * geração seguinte copiando byte a byte os registros dos usuários inalterados, com o
+ * dicionário da partição anterior preservado; apenas os usuários alterados nos deltas são
+ * codificados de novo.</p>
+ *
+ * <p><b>Estrutura:</b> cabeçalho (mágico {@code "JKUP"}, índice da partição, quantidade de
+ * usuários, posições das seções de sessões e dicionário), registros de usuário, sessões
+ * (login e ID) e dicionário.</p>
+ */
+public final class ParticaoSnapshot {
+
+    /** Número mágico dos arquivos de partição ("JKUP"). */
+    public static final int MAGICO = 0x4A4B5550;
+
+    private static final int TAMANHO_CABECALHO = 4 + 4 + 4 + 8 + 8;
+
+    /** Usuários decodificados de uma partição. */
+    private final List<Users> usuarios;
+    /** Sessões dos usuários da partição (login -> ID da sessão). */
+    private final Map<String, String> sessoes;
+    /** Posição do registro de cada usuário no arquivo (apenas em partições indexadas). */
+    private final Map<String, Integer> posicoes;
+    /** Arquivo mapeado e dicionário, mantidos para decodificação sob demanda. */
+    private final EntradaBinaria entrada;
+    private final String[] logins;
+
+    private ParticaoSnapshot(List<Users> usuarios, Map<String, String> sessoes, Map<String, Integer> posicoes,
+                             EntradaBinaria entrada, String[] logins) {
+        this.usuarios = usuarios;
+        this.sessoes = sessoes;
+        this.posicoes = posicoes;
+        this.entrada = entrada;
+        this.logins = logins;
+    }
+
+    /**
+     * @return Usuários decodificados da partição
+     */
+    public List<Users> getUsuarios() { return usuarios; }
+
+    /**
+     * @return Sessões dos usuários da partição (login -> ID da sessão)
+     */
+    public Map<String, String> getSessoes() { return sessoes; }
+
+    /**
+     * @return Posição do registro de cada usuário (login -> posição); vazio se a partição foi carregada por completo
+     */
+    public Map<String, Integer> getPosicoes() { return posicoes; }
+
+    /**
+     * Decodifica o usuário cujo registro começa na posição informada de uma partição indexada.
+     * Pode ser chamado concorrentemente.
+     *
+     * @param posicao Posição do registro, obtida de {@link #getPosicoes()}
+     * @return Usuário decodificado
+     */
+    public Users lerUsuario(int posicao) {
+        return CodecRegistros.lerUsuario(entrada.copiaEm(posicao), logins);
+    }
+
+    /**
+     * Calcula a partição de um login pelo seu hash.
+     *
+     * @param login Login do usuário
+     * @param quantidadeParticoes Quantidade total de partições
+     * @return Índice da partição, entre 0 e {@code quantidadeParticoes - 1}
+     */
+    public static int particaoDe(String login, int quantidadeParticoes) {
+        return Math.floorMod(login.hashCode(), quantidadeParticoes);
+    }
+
+    /**
+     * Grava um arquivo de partição.
+     *
+     * @param caminho Caminho do arquivo de destino (sobrescrito)
+     * @param indice Índice da partição
+     * @param logins Logins pertencentes à partição
+     * @param fonte Origem dos usuários e das suas sessões
+     * @throws IOException Se ocorrer erro de escrita
+     */
+    public static void gravar(String caminho, int indice, Collection<String> logins,
+                              FonteSnapshot fonte) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(caminho), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream saida = new BufferedOutputStream(Channels.newOutputStream(canal), 1 << 16);
+            DicionarioLogins dicionario = new DicionarioLogins();
+            SaidaBinaria registro = new SaidaBinaria(4096);
+            long posicao = TAMANHO_CABECALHO;
+            saida.write(new byte[TAMANHO_CABECALHO]);
+
+            Map<String, String> sessoes = new LinkedHashMap<>();
+            int quantidadeUsuarios = 0;
+            for (String login : logins) {
+                FonteSnapshot.RegistroUsuario usuario = fonte.getUsuario(login);
+                if (usuario == null) {
+                    continue;
+                }
+                CodecRegistros.escreverUsuario(registro, usuario.getUsuario(), usuario.getRecados(), dicionario);
+                posicao += descarregar(registro, saida);
+                quantidadeUsuarios++;
+                if (usuario.getIdSessao() != null) {
+                    sessoes.put(login, usuario.getIdSessao());
+                }
+            }
+
+            concluir(canal, saida, registro, posicao, indice, quantidadeUsuarios, sessoes, dicionario);
+        }
+    }
+
+    /**
+     * Grava a partição da geração seguinte a partir da atual e das alterações dos deltas, sem
+     * decodificar os usuários inalterados: os seus registros são copiados byte a byte, pois o
+     * novo dicionário começa com os logins do atual.
+     *
+     * @param origem Caminho da partição atual
+     * @param caminho Caminho do arquivo de destino (sobrescrito)
+     * @param indice Índice da partição
+     * @param alterados Usuários da partição alterados nos deltas (valor null para os removidos)
+     * @param sessoesAlteradas Sessões dos usuários alterados (valor null para as encerradas)
+     * @throws IOException Se a partição atual não puder ser lida ou ocorrer erro de escrita
+     */
+    public static void compactar(String origem, String caminho, int indice, Map<String, Users> alterados,
+                                 Map<String, String> sessoesAlteradas) throws IOException {
+        EntradaBinaria entrada = EntradaBinaria.mapear(origem);
+        if (entrada.lerInt() != MAGICO) {
+            throw new IOException("Arquivo de partição inválido: " + origem);
+        }
+        entrada.lerInt();
+        int quantidadeAtual = entrada.lerInt();
+        int offsetSessoes = (int) entrada.lerLong();
+        int offsetDicionario = (int) entrada.lerLong();
+
+        int inicioUsuarios = entrada.posicao();
+        entrada.posicionar(offsetDicionario);
+        String[] logins = DicionarioLogins.ler(entrada);
+
+        entrada.posicionar(offsetSessoes);
+        int quantidadeSessoes = entrada.lerVarInt();
+        Map<String, String> sessoes = new LinkedHashMap<>(quantidadeSessoes * 2);
+        for (int i = 0; i < quantidadeSessoes; i++) {
+            sessoes.put(logins[entrada.lerVarInt()], entrada.lerTexto());
+        }
+        for (Map.Entry<String, String> sessao : sessoesAlteradas.entrySet()) {
+            if (sessao.getValue() == null) {
+                sessoes.remove(sessao.getKey());
+            } else {
+                sessoes.put(sessao.getKey(), sessao.getValue());
+            }
+        }
+
+        try (FileChannel canal = FileChannel.open(Paths.get(caminho), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream saida = new BufferedOutputStream(Channels.newOutputStream(canal), 1 << 16);
+            DicionarioLogins dicionario = DicionarioLogins.de(logins);
+            SaidaBinaria registro = new SaidaBinaria(4096);
+            long posicao = TAMANHO_CABECALHO;
+            saida.write(new byte[TAMANHO_CABECALHO]);
+
+            int quantidadeUsuarios = 0;
+            entrada.posicionar(inicioUsuarios);
+            for (int i = 0; i < quantidadeAtual; i++) {
+                int inicio = entrada.posicao();
+                String login = CodecRegistros.pularUsuario(entrada, logins);
+                if (alterados.containsKey(login)) {
+                    continue;
+                }
+                int fim = entrada.posicao();
+                entrada.posicionar(inicio);
+                saida.write(entrada.lerBytes(fim - inicio));
+                posicao += fim - inicio;
+                quantidadeUsuarios++;
+            }
+            for (Users usuario : alterados.values()) {
+                if (usuario == null) {
+                    continue;
+                }
+                CodecRegistros.escreverUsuario(registro, usuario, dicionario);
+                posicao += descarregar(registro, saida);
+                quantidadeUsuarios++;
+            }
+
+            concluir(canal, saida, registro, posicao, indice, quantidadeUsuarios, sessoes, dicionario);
+        }
+    }
+
+    /**
+     * Grava as sessões e o dicionário depois dos registros de usuário e preenche o cabeçalho.
+     */
+    private static void concluir(FileChannel canal, OutputStream saida, SaidaBinaria registro, long posicao,
+                                 int indice, int quantidadeUsuarios, Map<String, String> sessoes,
+                                 DicionarioLogins dicionario) throws IOException {
+        long offsetSessoes = posicao;
+        registro.escreverVarInt(sessoes.size());
+        for (Map.Entry<String, String> sessao : sessoes.entrySet()) {
+            registro.escreverVarInt(dicionario.id(sessao.getKey()));
+            registro.escreverTexto(sessao.getValue());
+        }
+        posicao += descarregar(registro, saida);
+
+        long offsetDicionario = posicao;
+        dicionario.escrever(registro);
+        descarregar(registro, saida);
+        saida.flush();
+
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+        cabecalho.putInt(MAGICO).putInt(indice).putInt(quantidadeUsuarios)
+                .putLong(offsetSessoes).putLong(offsetDicionario);
+        cabecalho.flip();
+        canal.write(cabecalho, 0);
+        canal.force(true);
+    }
+
+    /**
+     * Decodifica um arquivo de partição por completo.
+     *
+     * @param caminho Caminho do arquivo
+     * @return Usuários e sessões da partição
+     * @throws IOException Se o arquivo não puder ser lido ou não for uma partição válida
+     */
+    public static ParticaoSnapshot carregar(String caminho) throws IOException {
+        return ler(caminho, false);
+    }
+
+    /**
+     * Lê apenas as sessões e a posição do registro de cada usuário de um arquivo de partição,
+     * sem decodificar os usuários. O arquivo permanece mapeado para {@link #lerUsuario(int)}.
+     *
+     * @param caminho Caminho do arquivo
+     * @return Partição indexada
+     * @throws IOException Se o arquivo não puder ser lido ou não for uma partição válida
+     */
+    public static ParticaoSnapshot indexar(String caminho) throws IOException {
+        return ler(caminho, true);
+    }
+
+    private static ParticaoSnapshot ler(String caminho, boolean sobDemanda) throws IOException {
+        EntradaBinaria entrada = EntradaBinaria.mapear(caminho);
+        if (entrada.lerInt() != MAGICO) {
+            throw new IOException("Arquivo de partição inválido: " + caminho);
+        }
+        entrada.lerInt();
+        int quantidadeUsuarios = entrada.lerInt();
+        int offsetSessoes = (int) entrada.lerLong();
+        int offsetDicionario = (int) entrada.lerLong();
+
+        int inicioUsuarios = entrada.posicao();
+        entrada.posicionar(offsetDicionario);
+        String[] logins = DicionarioLogins.ler(entrada);
+
+        entrada.posicionar(inicioUsuarios);
+        List<Users> usuarios = new ArrayList<>(sobDemanda ? 0 : quantidadeUsuarios);
+        Map<String, Integer> posicoes = new HashMap<>(sobDemanda ? quantidadeUsuarios * 2 : 0);
+        for (int i = 0; i < quantidadeUsuarios; i++) {
+            if (sobDemanda) {
+                int posicao = entrada.posicao();
+                posicoes.put(CodecRegistros.pularUsuario(entrada, logins), posicao);
+            } else {
+                usuarios.add(CodecRegistros.lerUsuario(entrada, logins));
+            }
+        }
+
+        entrada.posicionar(offsetSessoes);
+        int quantidadeSessoes = entrada.lerVarInt();
+        Map<String, String> sessoes = new HashMap<>(quantidadeSessoes * 2);
+        for (int i = 0; i < quantidadeSessoes; i++) {
+            sessoes.put(logins[entrada.lerVarInt()], entrada.lerTexto());
+        }
+        return sobDemanda
+                ? new ParticaoSnapshot(usuarios, sessoes, posicoes, entrada, logins)
+                : new ParticaoSnapshot(usuarios, sessoes, posicoes, null, null);
+    }
+
+    private static int descarregar(SaidaBinaria registro, OutputStream saida) throws IOException {
+        int tamanho = registro.tamanho();
+        registro.gravarEm(saida);
+        registro.limpar();
+        return tamanho;
+    }
+}
@@ -0,0 +1,145 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Política de substituição LRU segmentada (SLRU) de um cache de capacidade limitada.
+ * <p>
+ * As chaves entram no segmento probatório e são promovidas ao segmento protegido no
+ * segundo acesso. O segmento protegido ocupa até 80% da capacidade; quando excede esse
+ * limite, a chave menos recente é rebaixada de volta ao segmento probatório. As vítimas
+ * são escolhidas primeiro entre as chaves probatórias menos recentes, de forma que uma
+ * varredura de chaves acessadas uma única vez não expulsa as chaves usadas com frequência.
+ * </p>
+ *
+ * <p>As {@value #JANELA} chaves tocadas mais recentemente nunca são escolhidas como vítimas,
+ * de forma que os registros obtidos por uma mesma operação continuam residentes até que ela
+ * termine de alterá-los. Com capacidade menor que a janela, o cache pode excedê-la
+ * temporariamente.</p>
+ *
+ * <p>A classe não é sincronizada: o chamador deve garantir exclusão mútua.</p>
+ *
+ * @param <K> Tipo das chaves
+ */
+class PoliticaSlru<K> {
+    /** Quantidade de chaves recentes protegidas de despejo */
+    static final int JANELA = 4;
+
+    private final int capacidade;
+    private final int capacidadeProtegida;
+    /** Segmento probatório, da chave menos recente para a mais recente */
+    private final LinkedHashSet<K> probatorio = new LinkedHashSet<>();
+    /** Segmento protegido, da chave menos recente para a mais recente */
+    private final LinkedHashSet<K> protegido = new LinkedHashSet<>();
+    /** Últimas chaves tocadas, da menos recente para a mais recente */
+    private final ArrayDeque<K> recentes = new ArrayDeque<>(JANELA + 1);
+
+    /**
+     * @param capacidade Quantidade máxima de chaves residentes
+     */
+    PoliticaSlru(int capacidade) {
+        this.capacidade = capacidade;
+        this.capacidadeProtegida = Math.max(1, capacidade * 4 / 5);
+    }
+
+    /**
+     * Registra o acesso a uma chave residente.
+     *
+     * @param chave Chave acessada
+     */
+    void acessar(K chave) {
+        tocar(chave);
+        if (protegido.remove(chave)) {
+            protegido.add(chave);
+        } else if (probatorio.remove(chave)) {
+            protegido.add(chave);
+            if (protegido.size() > capacidadeProtegida) {
+                K rebaixada = removerPrimeira(protegido);
+                probatorio.add(rebaixada);
+            }
+        }
+    }
+
+    /**
+     * Registra uma nova chave residente no segmento probatório.
+     *
+     * @param chave Chave inserida
+     */
+    void inserir(K chave) {
+        tocar(chave);
+        probatorio.add(chave);
+    }
+
+    /**
+     * Remove uma chave da política.
+     *
+     * @param chave Chave removida
+     */
+    void remover(K chave) {
+        recentes.remove(chave);
+        if (!probatorio.remove(chave)) {
+            protegido.remove(chave);
+        }
+    }
+
+    /**
+     * @return true se há mais chaves residentes do que a capacidade
+     */
+    boolean excedeCapacidade() {
+        return probatorio.size() + protegido.size() > capacidade;
+    }
+
+    /**
+     * Escolhe e remove a próxima vítima: a chave probatória menos recente ou, se não houver
+     * outra, a chave protegida menos recente, excluídas as chaves tocadas recentemente.
+     *
+     * @return Chave removida da política ou null se todas as chaves são recentes
+     */
+    K removerVitima() {
+        Iterator<K> candidatas = probatorio.iterator();
+        while (candidatas.hasNext()) {
+            K chave = candidatas.next();
+            if (!recentes.contains(chave)) {
+                candidatas.remove();
+                return chave;
+            }
+        }
+        candidatas = protegido.iterator();
+        while (candidatas.hasNext()) {
+            K chave = candidatas.next();
+            if (!recentes.contains(chave)) {
+                candidatas.remove();
+                return chave;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remove todas as chaves.
+     */
+    void limpar() {
+        recentes.clear();
+        probatorio.clear();
+        protegido.clear();
+    }
+
+    private void tocar(K chave) {
+        if (!chave.equals(recentes.peekLast())) {
+            recentes.remove(chave);
+            recentes.addLast(chave);
+            if (recentes.size() > JANELA) {
+                recentes.removeFirst();
+            }
+        }
+    }
+
+    private static <K> K removerPrimeira(LinkedHashSet<K> segmento) {
+        Iterator<K> iterador = segmento.iterator();
+        K chave = iterador.next();
+        iterador.remove();
+        return chave;
+    }
+}
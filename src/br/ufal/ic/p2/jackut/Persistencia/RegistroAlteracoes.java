@@ -0,0 +1,176 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Componentes.VersoesLeitura;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioUsuarios;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conjunto de registros alterados desde o último snapshot gravado.
+ * <p>
+ * Os pontos de mutação do sistema marcam os usuários e comunidades que alteram (ou removem),
+ * de forma que o próximo snapshot pode gravar apenas esses registros em um
+ * {@link DeltaSnapshot delta}, em vez de regravar o estado completo.
+ * </p>
+ *
+ * <p>Uma marcação de alteração cancela uma remoção anterior do mesmo registro e vice-versa,
+ * de forma que o delta reflete sempre o último estado conhecido.</p>
+ *
+ * <p>Como as marcações são feitas antes de cada alteração, elas também servem de ponto de
+ * cópia sob escrita para uma {@link ImagemSnapshot} em gravação e mantêm no heap os usuários
+ * alterados de um repositório de usuários com capacidade limitada. Também indicam às
+ * {@link VersoesLeitura versões de leitura} os registros que a operação deve publicar.</p>
+ *
+ * <p>Os conjuntos são concorrentes, pois operações sobre usuários diferentes fazem as suas
+ * marcações em paralelo; as marcações de um mesmo usuário são serializadas pela listra dele.</p>
+ */
+public class RegistroAlteracoes {
+    private final Set<String> usuariosAlterados = ConcurrentHashMap.newKeySet();
+    private final Set<String> usuariosRemovidos = ConcurrentHashMap.newKeySet();
+    private final Set<String> comunidadesAlteradas = ConcurrentHashMap.newKeySet();
+    private final Set<String> comunidadesRemovidas = ConcurrentHashMap.newKeySet();
+    /** Imagem em gravação que deve preservar os registros antes de serem alterados */
+    private volatile ImagemSnapshot imagem;
+    /** Repositório de usuários que deve ser avisado antes de cada alteração de usuário */
+    private volatile IRepositorioUsuarios usuarios;
+    /** Versões de leitura que devem publicar os registros marcados */
+    private volatile VersoesLeitura versoes;
+
+    /**
+     * Define a imagem em gravação que deve ser avisada antes de cada alteração.
+     *
+     * @param imagem Imagem em gravação ou null para nenhuma
+     */
+    public void setImagem(ImagemSnapshot imagem) {
+        this.imagem = imagem;
+    }
+
+    /**
+     * Define o repositório de usuários que deve ser avisado antes de cada alteração de usuário
+     * ({@link IRepositorioUsuarios#marcarAlterado(String)}).
+     *
+     * @param usuarios Repositório de usuários ou null para nenhum
+     */
+    public void setUsuarios(IRepositorioUsuarios usuarios) {
+        this.usuarios = usuarios;
+    }
+
+    /**
+     * Define as versões de leitura que devem ser avisadas de cada marcação.
+     *
+     * @param versoes Versões de leitura ou null para nenhuma
+     */
+    public void setVersoes(VersoesLeitura versoes) {
+        this.versoes = versoes;
+    }
+
+    /**
+     * Marca um usuário como alterado.
+     *
+     * @param login Login do usuário
+     */
+    public void marcarUsuario(String login) {
+        IRepositorioUsuarios atuais = usuarios;
+        if (atuais != null) {
+            atuais.marcarAlterado(login);
+        }
+        preservarUsuario(login);
+        usuariosRemovidos.remove(login);
+        usuariosAlterados.add(login);
+    }
+
+    /**
+     * Marca um usuário como removido.
+     *
+     * @param login Login do usuário
+     */
+    public void marcarUsuarioRemovido(String login) {
+        preservarUsuario(login);
+        usuariosAlterados.remove(login);
+        usuariosRemovidos.add(login);
+    }
+
+    /**
+     * Marca uma comunidade como alterada.
+     *
+     * @param nome Nome da comunidade
+     */
+    public void marcarComunidade(String nome) {
+        preservarComunidade(nome);
+        comunidadesRemovidas.remove(nome);
+        comunidadesAlteradas.add(nome);
+    }
+
+    /**
+     * Marca uma comunidade como removida.
+     *
+     * @param nome Nome da comunidade
+     */
+    public void marcarComunidadeRemovida(String nome) {
+        preservarComunidade(nome);
+        comunidadesAlteradas.remove(nome);
+        comunidadesRemovidas.add(nome);
+    }
+
+    /**
+     * @return Logins dos usuários alterados
+     */
+    public Set<String> getUsuariosAlterados() { return Collections.unmodifiableSet(usuariosAlterados); }
+
+    /**
+     * @return Logins dos usuários removidos
+     */
+    public Set<String> getUsuariosRemovidos() { return Collections.unmodifiableSet(usuariosRemovidos); }
+
+    /**
+     * @return Nomes das comunidades alteradas
+     */
+    public Set<String> getComunidadesAlteradas() { return Collections.unmodifiableSet(comunidadesAlteradas); }
+
+    /**
+     * @return Nomes das comunidades removidas
+     */
+    public Set<String> getComunidadesRemovidas() { return Collections.unmodifiableSet(comunidadesRemovidas); }
+
+    /**
+     * @return true se nenhum registro foi marcado
+     */
+    public boolean estaVazio() {
+        return usuariosAlterados.isEmpty() && usuariosRemovidos.isEmpty()
+                && comunidadesAlteradas.isEmpty() && comunidadesRemovidas.isEmpty();
+    }
+
+    /**
+     * Descarta todas as marcações (após gravar um snapshot).
+     */
+    public void limpar() {
+        usuariosAlterados.clear();
+        usuariosRemovidos.clear();
+        comunidadesAlteradas.clear();
+        comunidadesRemovidas.clear();
+    }
+
+    private void preservarUsuario(String login) {
+        ImagemSnapshot atual = imagem;
+        if (atual != null) {
+            atual.preservarUsuario(login);
+        }
+        VersoesLeitura atuais = versoes;
+        if (atuais != null) {
+            atuais.marcarUsuario(login);
+        }
+    }
+
+    private void preservarComunidade(String nome) {
+        ImagemSnapshot atual = imagem;
+        if (atual != null) {
+            atual.preservarComunidade(nome);
+        }
+        VersoesLeitura atuais = versoes;
+        if (atuais != null) {
+            atuais.marcarComunidade(nome);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Componentes.LapidesUsuarios;
+import br.ufal.ic.p2.jackut.Componentes.RepositorioRecadosUsuarios;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioUsuarios;
+import br.ufal.ic.p2.jackut.Mensagem;
+import br.ufal.ic.p2.jackut.Users;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Repositório de recados em logs segmentados mapeados em memória ({@link LogRecados}).
+ * <p>
+ * Enviar um recado anexa um registro ao log e ler um recado avança a caixa do destinatário;
+ * o heap guarda apenas a posição do início e do fim de cada caixa, de forma que a quantidade
+ * de recados não lidos não pesa no heap nem nos registros de usuário despejados. As caixas são
+ * distribuídas entre partições pelo login do destinatário, cada uma com o seu log e a sua trava.
+ * </p>
+ *
+ * <p>Os usuários lidos de um snapshot trazem a sua caixa dentro do registro. Ela é transferida
+ * para o log na primeira escrita na caixa, de forma que a caixa de um usuário fica inteira em um
+ * dos dois lugares: no log só há recados de um usuário depois que a sua caixa no registro foi
+ * esvaziada. As mensagens de comunidade continuam nos registros de usuário.</p>
+ *
+ * <p>Recados de remetentes com lápide ({@link LapidesUsuarios#removido(String)}) são
+ * descartados na leitura, antes que o expurgo os retire do log.</p>
+ */
+public class RepositorioRecadosMapeado extends RepositorioRecadosUsuarios {
+    private final IRepositorioUsuarios usuarios;
+    private final LogRecados[] particoes;
+    private volatile LapidesUsuarios lapides = LapidesUsuarios.NENHUMA;
+
+    /**
+     * @param usuarios Repositório dos usuários donos das caixas
+     * @param diretorio Diretório dos arquivos temporários dos segmentos
+     * @param quantidadeParticoes Quantidade de partições
+     * @param tamanhoSegmento Tamanho de cada segmento, em bytes
+     */
+    public RepositorioRecadosMapeado(IRepositorioUsuarios usuarios, File diretorio,
+                                     int quantidadeParticoes, int tamanhoSegmento) {
+        super(usuarios);
+        this.usuarios = usuarios;
+        this.particoes = new LogRecados[Math.max(1, quantidadeParticoes)];
+        for (int i = 0; i < particoes.length; i++) {
+            particoes[i] = new LogRecados(diretorio, tamanhoSegmento);
+        }
+    }
+
+    @Override
+    public void depositarRecado(String destinatario, String remetente, String recado) {
+        transferirCaixa(destinatario);
+        anexar(particao(destinatario), destinatario, remetente, recado);
+    }
+
+    @Override
+    public String retirarRecado(String login) {
+        transferirCaixa(login);
+        LogRecados particao = particao(login);
+        Mensagem recado = particao.retirar(login);
+        while (recado != null && lapides.removido(recado.getRemetente())) {
+            recado = particao.retirar(login);
+        }
+        return recado == null ? null : recado.getConteudo();
+    }
+
+    @Override
+    public boolean possuiRecado(String login) {
+        transferirCaixa(login);
+        LogRecados particao = particao(login);
+        String remetente = particao.primeiroRemetente(login);
+        while (remetente != null && lapides.removido(remetente)) {
+            particao.retirar(login);
+            remetente = particao.primeiroRemetente(login);
+        }
+        return remetente != null;
+    }
+
+    @Override
+    public Collection<Mensagem> listarRecados(String login) {
+        List<Mensagem> recados = new ArrayList<>(super.listarRecados(login));
+        recados.addAll(particao(login).listar(login));
+        return Collections.unmodifiableList(recados);
+    }
+
+    @Override
+    public int contarRecadosDe(String login, String remetente) {
+        return super.contarRecadosDe(login, remetente) + particao(login).contarDe(login, remetente);
+    }
+
+    @Override
+    public void removerRecadosDe(String login, String remetente) {
+        super.removerRecadosDe(login, remetente);
+        particao(login).removerDe(login, remetente);
+    }
+
+    @Override
+    public void removerCaixa(String login) {
+        particao(login).descartar(login);
+    }
+
+    @Override
+    public void limpar() {
+        for (LogRecados particao : particoes) {
+            particao.limpar();
+        }
+    }
+
+    /**
+     * Move para o log os recados guardados no registro do usuário, na mesma ordem.
+     */
+    private void transferirCaixa(String login) {
+        Users usuario = usuarios.buscar(login);
+        if (usuario == null || usuario.getRecados().isEmpty()) {
+            return;
+        }
+        LogRecados particao = particao(login);
+        Mensagem recado;
+        while ((recado = usuario.retirarRecado()) != null) {
+            anexar(particao, login, recado.getRemetente(), recado.getConteudo());
+        }
+    }
+
+    private static void anexar(LogRecados particao, String login, String remetente, String recado) {
+        try {
+            particao.anexar(login, remetente, recado);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar recado no log", e);
+        }
+    }
+
+    private LogRecados particao(String login) {
+        return particoes[Math.floorMod(login.hashCode(), particoes.length)];
+    }
+
+    @Override
+    public void setLapides(LapidesUsuarios lapides) {
+        this.lapides = lapides;
+    }
+}
@@ -0,0 +1,150 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Buffer de escrita para os formatos binários do Jackut.
+ * <p>
+ * Codifica inteiros em formato de tamanho variável (varint) e textos como UTF-8
+ * prefixado pelo tamanho. O buffer cresce sob demanda e pode ser reutilizado
+ * com {@link #limpar()} após descarregar seu conteúdo.
+ * </p>
+ */
+public class SaidaBinaria {
+    private byte[] dados;
+    private int tamanho;
+
+    /**
+     * Cria um buffer com capacidade inicial padrão.
+     */
+    public SaidaBinaria() {
+        this(256);
+    }
+
+    /**
+     * Cria um buffer com a capacidade inicial informada.
+     *
+     * @param capacidade Capacidade inicial em bytes
+     */
+    public SaidaBinaria(int capacidade) {
+        this.dados = new byte[Math.max(16, capacidade)];
+    }
+
+    /**
+     * Escreve um byte.
+     *
+     * @param valor Valor a ser escrito (apenas os 8 bits menos significativos)
+     */
+    public void escreverByte(int valor) {
+        garantirCapacidade(1);
+        dados[tamanho++] = (byte) valor;
+    }
+
+    /**
+     * Escreve um inteiro de 32 bits em formato big-endian de tamanho fixo.
+     *
+     * @param valor Valor a ser escrito
+     */
+    public void escreverInt(int valor) {
+        garantirCapacidade(Integer.BYTES);
+        dados[tamanho++] = (byte) (valor >>> 24);
+        dados[tamanho++] = (byte) (valor >>> 16);
+        dados[tamanho++] = (byte) (valor >>> 8);
+        dados[tamanho++] = (byte) valor;
+    }
+
+    /**
+     * Escreve um inteiro de 64 bits em formato big-endian de tamanho fixo.
+     *
+     * @param valor Valor a ser escrito
+     */
+    public void escreverLong(long valor) {
+        escreverInt((int) (valor >>> 32));
+        escreverInt((int) valor);
+    }
+
+    /**
+     * Escreve um inteiro não negativo em formato de tamanho variável (7 bits por byte).
+     *
+     * @param valor Valor não negativo a ser escrito
+     */
+    public void escreverVarInt(int valor) {
+        garantirCapacidade(5);
+        while ((valor & ~0x7F) != 0) {
+            dados[tamanho++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        dados[tamanho++] = (byte) valor;
+    }
+
+    /**
+     * Escreve um texto como UTF-8 prefixado pelo tamanho em bytes.
+     * Textos nulos são gravados como texto vazio.
+     *
+     * @param texto Texto a ser escrito
+     */
+    public void escreverTexto(String texto) {
+        byte[] utf8 = (texto == null ? "" : texto).getBytes(StandardCharsets.UTF_8);
+        escreverVarInt(utf8.length);
+        escreverBytes(utf8, 0, utf8.length);
+    }
+
+    /**
+     * Escreve uma sequência de bytes sem prefixo de tamanho.
+     *
+     * @param origem Bytes de origem
+     * @param inicio Posição inicial em {@code origem}
+     * @param quantidade Quantidade de bytes a copiar
+     */
+    public void escreverBytes(byte[] origem, int inicio, int quantidade) {
+        garantirCapacidade(quantidade);
+        System.arraycopy(origem, inicio, dados, tamanho, quantidade);
+        tamanho += quantidade;
+    }
+
+    /**
+     * @return Quantidade de bytes escritos desde a última limpeza
+     */
+    public int tamanho() { return tamanho; }
+
+    /**
+     * @return Cópia dos bytes escritos
+     */
+    public byte[] paraBytes() { return Arrays.copyOf(dados, tamanho); }
+
+    /**
+     * Descarrega os bytes escritos no fluxo de saída informado.
+     *
+     * @param saida Fluxo de destino
+     * @throws IOException Se ocorrer erro de escrita
+     */
+    public void gravarEm(OutputStream saida) throws IOException {
+        saida.write(dados, 0, tamanho);
+    }
+
+    /**
+     * Copia os bytes escritos para um buffer, a partir da sua posição atual.
+     *
+     * @param destino Buffer de destino (com pelo menos {@link #tamanho()} bytes restantes)
+     */
+    public void copiarPara(ByteBuffer destino) {
+        destino.put(dados, 0, tamanho);
+    }
+
+    /**
+     * Descarta o conteúdo escrito, mantendo a capacidade alocada.
+     */
+    public void limpar() {
+        tamanho = 0;
+    }
+
+    private void garantirCapacidade(int adicional) {
+        if (tamanho + adicional > dados.length) {
+            dados = Arrays.copyOf(dados, Math.max(dados.length * 2, tamanho + adicional));
+        }
+    }
+}
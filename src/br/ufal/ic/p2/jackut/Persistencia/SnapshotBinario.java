@@ -0,0 +1,622 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Comunidade;
+import br.ufal.ic.p2.jackut.Jackut;
+import br.ufal.ic.p2.jackut.Users;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Formato binário versionado do snapshot do sistema Jackut.
+ * <p>
+ * Substitui a serialização padrão do Java (que percorre os objetos por reflexão e grava
+ * descritores de classe e tabelas de referências) por registros compactos escritos à mão.
+ * Os registros são gravados em fluxo, um usuário por vez, e cada arquivo é lido com uma
+ * varredura sequencial sobre o seu mapeamento em memória.
+ * </p>
+ *
+ * <p><b>Estrutura (particionada):</b> o arquivo principal é um manifesto com
+ * cabeçalho (mágico {@code "JKUT"}, versão, LSN do journal, geração, quantidade de partições,
+ * último delta incorporado e posição do dicionário), registros de comunidade e dicionário de logins. Os usuários
+ * ficam em {@link ParticaoSnapshot arquivos de partição} independentes, particionados pelo
+ * hash do login, gravados e decodificados em paralelo no {@link ForkJoinPool} comum.</p>
+ *
+ * <p>Os arquivos de partição levam a geração do snapshot no nome. Eles são gravados antes
+ * do manifesto, que é substituído atomicamente; só então as partições de gerações
+ * anteriores são apagadas. Uma falha durante a gravação preserva o snapshot anterior.</p>
+ *
+ * <p><b>Snapshots incrementais (versão 3):</b> entre duas gravações completas, apenas os
+ * registros alterados são gravados em {@link DeltaSnapshot deltas} numerados
+ * ({@code arquivo.dat.d<sequência>}), aplicados sobre a base durante a carga. O manifesto
+ * registra a última sequência já incorporada à base; o {@link CompactadorSnapshot} gera
+ * periodicamente uma nova base com os deltas pendentes, mesclando os registros das partições
+ * com os dos deltas sem carregar o snapshot em um sistema. Todas as operações sobre os
+ * arquivos de um snapshot são serializadas entre si.</p>
+ *
+ * <p>Snapshots da versão 1 (arquivo único) continuam sendo lidos. Arquivos no formato
+ * antigo (serialização Java) são identificados por {@link #ehSnapshotBinario(String)} e
+ * lidos por {@link Jackut#iniciarSistema()} para migração.</p>
+ */
+public final class SnapshotBinario {
+
+    /** Número mágico que identifica o formato ("JKUT"). */
+    public static final int MAGICO = 0x4A4B5554;
+    /** Versão atual do formato. */
+    public static final int VERSAO = 3;
+    /** Quantidade de deltas pendentes que dispara uma compactação, se não configurada. */
+    public static final int LIMITE_DELTAS = 8;
+    /** Quantidade aproximada de usuários por partição quando a quantidade não é configurada. */
+    public static final int USUARIOS_POR_PARTICAO = 65536;
+
+    private static final int TAMANHO_CABECALHO_V1 = 4 + 4 + 8 + 4 + 8 + 8 + 8;
+    private static final int TAMANHO_CABECALHO = 4 + 4 + 8 + 8 + 4 + 8 + 8;
+
+    private SnapshotBinario() {
+    }
+
+    /**
+     * Verifica se o arquivo informado está no formato binário do Jackut.
+     *
+     * @param caminho Caminho do arquivo
+     * @return true se o arquivo começar com o número mágico do formato
+     */
+    public static boolean ehSnapshotBinario(String caminho) {
+        try (DataInputStream entrada = new DataInputStream(new FileInputStream(caminho))) {
+            return entrada.readInt() == MAGICO;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Define a quantidade de partições de um snapshot.
+     * <p>
+     * Pode ser fixada pela propriedade de sistema {@code jackut.snapshot.particoes}; caso
+     * contrário, cresce com a quantidade de usuários até o paralelismo do pool comum.
+     * </p>
+     *
+     * @param quantidadeUsuarios Quantidade de usuários a serem gravados
+     * @return Quantidade de partições (no mínimo 1)
+     */
+    public static int quantidadeParticoes(int quantidadeUsuarios) {
+        Integer configurada = Integer.getInteger("jackut.snapshot.particoes");
+        if (configurada != null) {
+            return Math.max(1, configurada);
+        }
+        int necessarias = (quantidadeUsuarios + USUARIOS_POR_PARTICAO - 1) / USUARIOS_POR_PARTICAO;
+        return Math.max(1, Math.min(necessarias, ForkJoinPool.getCommonPoolParallelism()));
+    }
+
+    /**
+     * Grava o estado completo do sistema, substituindo atomicamente o snapshot anterior.
+     *
+     * @param sistema Sistema a ser gravado
+     * @param ultimoLsn LSN do último registro do journal refletido no estado
+     * @param caminho Caminho do manifesto (os arquivos de partição são criados ao lado dele)
+     * @throws IOException Se ocorrer erro de escrita
+     */
+    public static void gravar(Jackut sistema, long ultimoLsn, String caminho) throws IOException {
+        gravar(new FonteSistema(sistema), ultimoLsn, caminho);
+    }
+
+    /**
+     * Grava um snapshot completo a partir de uma fonte de registros, substituindo atomicamente
+     * o snapshot anterior. Usado para gravar uma {@link ImagemSnapshot} em segundo plano.
+     *
+     * @param fonte Origem dos usuários, sessões e comunidades
+     * @param ultimoLsn LSN do último registro do journal refletido na fonte
+     * @param caminho Caminho do manifesto (os arquivos de partição são criados ao lado dele)
+     * @throws IOException Se ocorrer erro de escrita
+     */
+    public static synchronized void gravar(FonteSnapshot fonte, long ultimoLsn, String caminho) throws IOException {
+        long geracao = lerGeracao(caminho) + 1;
+        long deltaIncorporado = ultimoDelta(caminho);
+        Collection<String> logins = fonte.getLogins();
+        int particoes = quantidadeParticoes(logins.size());
+
+        List<List<String>> porParticao = new ArrayList<>(particoes);
+        for (int i = 0; i < particoes; i++) {
+            porParticao.add(new ArrayList<>(logins.size() / particoes + 1));
+        }
+        for (String login : logins) {
+            porParticao.get(ParticaoSnapshot.particaoDe(login, particoes)).add(login);
+        }
+
+        List<Callable<Void>> tarefas = new ArrayList<>(particoes);
+        for (int i = 0; i < particoes; i++) {
+            int indice = i;
+            tarefas.add(() -> {
+                ParticaoSnapshot.gravar(caminhoParticao(caminho, geracao, indice), indice,
+                        porParticao.get(indice), fonte);
+                return null;
+            });
+        }
+        aguardar(ForkJoinPool.commonPool().invokeAll(tarefas));
+
+        String temporario = caminho + ".tmp";
+        gravarManifesto(fonte.getComunidades(), ultimoLsn, geracao, particoes, deltaIncorporado, temporario);
+        Files.move(Paths.get(temporario), Paths.get(caminho),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        apagarParticoes(caminho, geracao);
+        apagarDeltas(caminho, deltaIncorporado);
+    }
+
+    /**
+     * Grava apenas os registros alterados desde o último snapshot em um novo delta.
+     * <p>
+     * Só é possível quando já existe um snapshot base na versão atual; caso contrário nada é
+     * gravado e o chamador deve fazer uma gravação completa com {@link #gravar}. Quando a
+     * quantidade de deltas pendentes atinge o limite ({@code jackut.snapshot.deltas}), uma
+     * compactação é solicitada ao {@link CompactadorSnapshot}.
+     * </p>
+     *
+     * @param sistema Sistema de onde os registros são lidos
+     * @param ultimoLsn LSN do último registro do journal refletido no estado
+     * @param caminho Caminho do manifesto
+     * @param alteracoes Registros alterados desde o snapshot anterior
+     * @return true se o delta foi gravado; false se não há base para recebê-lo
+     * @throws IOException Se ocorrer erro de escrita
+     */
+    public static synchronized boolean gravarDelta(Jackut sistema, long ultimoLsn, String caminho,
+                                                   RegistroAlteracoes alteracoes) throws IOException {
+        Long incorporado = lerDeltaIncorporado(caminho);
+        if (incorporado == null) {
+            return false;
+        }
+        if (alteracoes.estaVazio()) {
+            return true;
+        }
+        long sequencia = Math.max(incorporado, ultimoDelta(caminho)) + 1;
+        String temporario = caminho + ".tmp";
+        DeltaSnapshot.gravar(temporario, sequencia, ultimoLsn, sistema, alteracoes);
+        Files.move(Paths.get(temporario), Paths.get(caminhoDelta(caminho, sequencia)),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        if (sequenciasDelta(caminho, incorporado).size() >= Integer.getInteger("jackut.snapshot.deltas", LIMITE_DELTAS)) {
+            CompactadorSnapshot.solicitar(caminho);
+        }
+        return true;
+    }
+
+    /**
+     * Incorpora os deltas pendentes a uma nova base. Não faz nada se não houver base na
+     * versão atual ou deltas pendentes.
+     * <p>
+     * A compactação trabalha sobre os registros: apenas os usuários e as comunidades dos
+     * deltas são decodificados, e cada partição da nova geração copia os registros inalterados
+     * da anterior ({@link ParticaoSnapshot#compactar}). A quantidade de partições da base é
+     * mantida, de forma que cada usuário continua na mesma partição.
+     * </p>
+     *
+     * @param caminho Caminho do manifesto
+     * @throws IOException Se algum arquivo não puder ser lido ou gravado; a base anterior é preservada
+     */
+    public static synchronized void compactar(String caminho) throws IOException {
+        Long incorporado = lerDeltaIncorporado(caminho);
+        List<Long> sequencias = incorporado == null ? Collections.emptyList() : sequenciasDelta(caminho, incorporado);
+        if (sequencias.isEmpty()) {
+            return;
+        }
+        EntradaBinaria entrada = EntradaBinaria.mapear(caminho);
+        entrada.lerInt();
+        entrada.lerInt();
+        long ultimoLsn = entrada.lerLong();
+        long geracao = entrada.lerLong();
+        int particoes = entrada.lerInt();
+        entrada.lerLong();
+        int offsetDicionario = (int) entrada.lerLong();
+
+        int inicioComunidades = entrada.posicao();
+        entrada.posicionar(offsetDicionario);
+        String[] logins = DicionarioLogins.ler(entrada);
+        entrada.posicionar(inicioComunidades);
+        Map<String, Comunidade> comunidades = new LinkedHashMap<>();
+        int quantidadeComunidades = entrada.lerVarInt();
+        for (int i = 0; i < quantidadeComunidades; i++) {
+            Comunidade comunidade = CodecRegistros.lerComunidade(entrada, logins);
+            comunidades.put(comunidade.getNome(), comunidade);
+        }
+
+        AlteracoesDeltas alteracoes = new AlteracoesDeltas(particoes, comunidades);
+        for (long sequencia : sequencias) {
+            ultimoLsn = Math.max(ultimoLsn, DeltaSnapshot.ler(caminhoDelta(caminho, sequencia), alteracoes));
+        }
+
+        long novaGeracao = geracao + 1;
+        List<Callable<Void>> tarefas = new ArrayList<>(particoes);
+        for (int i = 0; i < particoes; i++) {
+            int indice = i;
+            tarefas.add(() -> {
+                ParticaoSnapshot.compactar(caminhoParticao(caminho, geracao, indice),
+                        caminhoParticao(caminho, novaGeracao, indice), indice,
+                        alteracoes.usuarios.get(indice), alteracoes.sessoes.get(indice));
+                return null;
+            });
+        }
+        aguardar(ForkJoinPool.commonPool().invokeAll(tarefas));
+
+        long deltaIncorporado = sequencias.get(sequencias.size() - 1);
+        String temporario = caminho + ".tmp";
+        gravarManifesto(comunidades.values(), ultimoLsn, novaGeracao, particoes, deltaIncorporado, temporario);
+        Files.move(Paths.get(temporario), Paths.get(caminho),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        apagarParticoes(caminho, novaGeracao);
+        apagarDeltas(caminho, deltaIncorporado);
+    }
+
+    /**
+     * Carrega um snapshot binário sobre um sistema vazio.
+     * <p>
+     * Se o mapa de usuários do destino for um {@link UsuariosSobDemanda}, as partições são
+     * apenas indexadas e cada usuário é decodificado no seu primeiro acesso.
+     * </p>
+     *
+     * @param caminho Caminho do manifesto
+     * @param destino Sistema recém-criado que receberá usuários, comunidades e sessões
+     * @return LSN do último registro do journal refletido no snapshot
+     * @throws IOException Se algum arquivo não puder ser lido ou estiver em versão desconhecida
+     */
+    public static synchronized long carregar(String caminho, Jackut destino) throws IOException {
+        EntradaBinaria entrada = EntradaBinaria.mapear(caminho);
+        if (entrada.lerInt() != MAGICO) {
+            throw new IOException("Arquivo não está no formato binário do Jackut: " + caminho);
+        }
+        int versao = entrada.lerInt();
+        if (versao == 1) {
+            return carregarVersao1(entrada, destino);
+        }
+        if (versao != 2 && versao != VERSAO) {
+            throw new IOException("Versão de snapshot não suportada: " + versao);
+        }
+        long ultimoLsn = entrada.lerLong();
+        long geracao = entrada.lerLong();
+        int particoes = entrada.lerInt();
+        long deltaIncorporado = versao == 2 ? 0 : entrada.lerLong();
+        int offsetDicionario = (int) entrada.lerLong();
+
+        UsuariosSobDemanda sobDemanda = destino.getUsuarios() instanceof UsuariosSobDemanda
+                ? (UsuariosSobDemanda) destino.getUsuarios() : null;
+        List<Callable<ParticaoSnapshot>> tarefas = new ArrayList<>(particoes);
+        for (int i = 0; i < particoes; i++) {
+            String caminhoParticao = caminhoParticao(caminho, geracao, i);
+            tarefas.add(sobDemanda != null
+                    ? () -> ParticaoSnapshot.indexar(caminhoParticao)
+                    : () -> ParticaoSnapshot.carregar(caminhoParticao));
+        }
+        List<Future<ParticaoSnapshot>> carregadas = ForkJoinPool.commonPool().invokeAll(tarefas);
+
+        int inicioComunidades = entrada.posicao();
+        entrada.posicionar(offsetDicionario);
+        String[] logins = DicionarioLogins.ler(entrada);
+        entrada.posicionar(inicioComunidades);
+        lerComunidades(entrada, logins, destino);
+
+        for (ParticaoSnapshot particao : aguardar(carregadas)) {
+            if (sobDemanda != null) {
+                sobDemanda.indexar(particao);
+            }
+            for (Users usuario : particao.getUsuarios()) {
+                destino.getUsuarios().salvar(usuario);
+            }
+            for (Map.Entry<String, String> sessao : particao.getSessoes().entrySet()) {
+                destino.getSessoes().registrar(sessao.getValue(), sessao.getKey());
+            }
+        }
+
+        for (long sequencia : sequenciasDelta(caminho, deltaIncorporado)) {
+            ultimoLsn = Math.max(ultimoLsn, DeltaSnapshot.aplicar(caminhoDelta(caminho, sequencia), destino));
+        }
+        return ultimoLsn;
+    }
+
+    /**
+     * Apaga o manifesto e todos os arquivos de partição do snapshot.
+     *
+     * @param caminho Caminho do manifesto
+     */
+    public static synchronized void apagar(String caminho) {
+        new File(caminho).delete();
+        apagarParticoes(caminho, -1);
+        apagarDeltas(caminho, Long.MAX_VALUE);
+    }
+
+    /**
+     * Monta o nome do arquivo de uma partição.
+     *
+     * @param caminho Caminho do manifesto
+     * @param geracao Geração do snapshot
+     * @param indice Índice da partição
+     * @return Caminho do arquivo da partição
+     */
+    static String caminhoParticao(String caminho, long geracao, int indice) {
+        return caminho + ".g" + geracao + ".p" + indice;
+    }
+
+    /**
+     * Monta o nome do arquivo de um delta.
+     *
+     * @param caminho Caminho do manifesto
+     * @param sequencia Sequência do delta
+     * @return Caminho do arquivo do delta
+     */
+    static String caminhoDelta(String caminho, long sequencia) {
+        return caminho + ".d" + sequencia;
+    }
+
+    private static void gravarManifesto(Collection<Comunidade> comunidades, long ultimoLsn, long geracao, int particoes,
+                                        long deltaIncorporado, String caminho) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(caminho), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream saida = new BufferedOutputStream(Channels.newOutputStream(canal), 1 << 16);
+            DicionarioLogins dicionario = new DicionarioLogins();
+            SaidaBinaria registro = new SaidaBinaria(4096);
+            long posicao = TAMANHO_CABECALHO;
+            saida.write(new byte[TAMANHO_CABECALHO]);
+
+            registro.escreverVarInt(comunidades.size());
+            for (Comunidade comunidade : comunidades) {
+                CodecRegistros.escreverComunidade(registro, comunidade, dicionario);
+                posicao += descarregar(registro, saida);
+            }
+            posicao += descarregar(registro, saida);
+
+            long offsetDicionario = posicao;
+            dicionario.escrever(registro);
+            descarregar(registro, saida);
+            saida.flush();
+
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+            cabecalho.putInt(MAGICO).putInt(VERSAO).putLong(ultimoLsn).putLong(geracao)
+                    .putInt(particoes).putLong(deltaIncorporado).putLong(offsetDicionario);
+            cabecalho.flip();
+            canal.write(cabecalho, 0);
+            canal.force(true);
+        }
+    }
+
+    private static void lerComunidades(EntradaBinaria entrada, String[] logins, Jackut destino) {
+        int quantidadeComunidades = entrada.lerVarInt();
+        for (int i = 0; i < quantidadeComunidades; i++) {
+            destino.getGerenciadorComunidades().restaurarComunidade(CodecRegistros.lerComunidade(entrada, logins));
+        }
+    }
+
+    /**
+     * Lê um snapshot da versão 1, em que usuários, comunidades e sessões ficam no mesmo arquivo.
+     */
+    private static long carregarVersao1(EntradaBinaria entrada, Jackut destino) {
+        long ultimoLsn = entrada.lerLong();
+        int quantidadeUsuarios = entrada.lerInt();
+        int offsetComunidades = (int) entrada.lerLong();
+        int offsetSessoes = (int) entrada.lerLong();
+        int offsetDicionario = (int) entrada.lerLong();
+
+        entrada.posicionar(offsetDicionario);
+        String[] logins = DicionarioLogins.ler(entrada);
+
+        entrada.posicionar(TAMANHO_CABECALHO_V1);
+        for (int i = 0; i < quantidadeUsuarios; i++) {
+            destino.getUsuarios().salvar(CodecRegistros.lerUsuario(entrada, logins));
+        }
+
+        entrada.posicionar(offsetComunidades);
+        lerComunidades(entrada, logins, destino);
+
+        entrada.posicionar(offsetSessoes);
+        int quantidadeSessoes = entrada.lerVarInt();
+        for (int i = 0; i < quantidadeSessoes; i++) {
+            String login = logins[entrada.lerVarInt()];
+            String idSessao = entrada.lerTexto();
+            destino.getSessoes().registrar(idSessao, login);
+        }
+        return ultimoLsn;
+    }
+
+    /**
+     * Lê a geração do snapshot atual, ou -1 se não houver snapshot particionado.
+     */
+    private static long lerGeracao(String caminho) {
+        try (DataInputStream entrada = new DataInputStream(new FileInputStream(caminho))) {
+            int versao = entrada.readInt() == MAGICO ? entrada.readInt() : -1;
+            if (versao == 2 || versao == VERSAO) {
+                entrada.readLong();
+                return entrada.readLong();
+            }
+        } catch (IOException e) {
+            // Sem snapshot particionado anterior
+        }
+        return -1;
+    }
+
+    /**
+     * Lê a última sequência de delta incorporada à base, ou null se não houver base na versão atual.
+     */
+    private static Long lerDeltaIncorporado(String caminho) {
+        try (DataInputStream entrada = new DataInputStream(new FileInputStream(caminho))) {
+            if (entrada.readInt() == MAGICO && entrada.readInt() == VERSAO) {
+                entrada.readLong();
+                entrada.readLong();
+                entrada.readInt();
+                return entrada.readLong();
+            }
+        } catch (IOException e) {
+            // Sem base para receber deltas
+        }
+        return null;
+    }
+
+    /**
+     * Lista, em ordem crescente, as sequências dos deltas posteriores à informada.
+     */
+    private static List<Long> sequenciasDelta(String caminho, long aposSequencia) {
+        File manifesto = new File(caminho).getAbsoluteFile();
+        String prefixo = manifesto.getName() + ".d";
+        File[] arquivos = manifesto.getParentFile().listFiles((dir, nome) -> nome.startsWith(prefixo));
+        List<Long> sequencias = new ArrayList<>();
+        if (arquivos != null) {
+            for (File arquivo : arquivos) {
+                try {
+                    long sequencia = Long.parseLong(arquivo.getName().substring(prefixo.length()));
+                    if (sequencia > aposSequencia) {
+                        sequencias.add(sequencia);
+                    }
+                } catch (NumberFormatException e) {
+                    // Não é um arquivo de delta
+                }
+            }
+        }
+        Collections.sort(sequencias);
+        return sequencias;
+    }
+
+    /**
+     * Maior sequência de delta existente em disco, ou 0 se não houver deltas.
+     */
+    private static long ultimoDelta(String caminho) {
+        List<Long> sequencias = sequenciasDelta(caminho, 0);
+        return sequencias.isEmpty() ? 0 : sequencias.get(sequencias.size() - 1);
+    }
+
+    /**
+     * Apaga os deltas com sequência menor ou igual à informada.
+     */
+    private static void apagarDeltas(String caminho, long ateSequencia) {
+        for (long sequencia : sequenciasDelta(caminho, 0)) {
+            if (sequencia <= ateSequencia) {
+                new File(caminhoDelta(caminho, sequencia)).delete();
+            }
+        }
+    }
+
+    /**
+     * Apaga os arquivos de partição de todas as gerações diferentes da informada.
+     */
+    private static void apagarParticoes(String caminho, long geracaoMantida) {
+        File manifesto = new File(caminho).getAbsoluteFile();
+        String prefixo = manifesto.getName() + ".g";
+        String mantido = prefixo + geracaoMantida + ".p";
+        File[] arquivos = manifesto.getParentFile().listFiles((dir, nome) -> nome.startsWith(prefixo));
+        if (arquivos == null) {
+            return;
+        }
+        for (File arquivo : arquivos) {
+            if (!arquivo.getName().startsWith(mantido)) {
+                arquivo.delete();
+            }
+        }
+    }
+
+    private static <T> List<T> aguardar(List<Future<T>> futuros) throws IOException {
+        List<T> resultados = new ArrayList<>(futuros.size());
+        for (Future<T> futuro : futuros) {
+            try {
+                resultados.add(futuro.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Snapshot interrompido");
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Fonte que lê diretamente o estado de um sistema sem alterações em andamento.
+     */
+    private static final class FonteSistema implements FonteSnapshot {
+        private final Jackut sistema;
+
+        FonteSistema(Jackut sistema) {
+            this.sistema = sistema;
+        }
+
+        @Override
+        public Collection<String> getLogins() {
+            return sistema.getUsuarios().getLogins();
+        }
+
+        @Override
+        public RegistroUsuario getUsuario(String login) {
+            Users usuario = sistema.getUsuarios().consultar(login);
+            return usuario == null ? null : new RegistroUsuario(usuario, sistema.getRecados().listarRecados(login),
+                    sistema.getSessoes().getSessao(login));
+        }
+
+        @Override
+        public Collection<Comunidade> getComunidades() {
+            return sistema.getGerenciadorComunidades().getRegistrosComunidades();
+        }
+    }
+
+    /**
+     * Alterações acumuladas dos deltas de uma compactação: o último registro de cada usuário
+     * alterado e a sua sessão, separados pela partição do login, e as comunidades da base com
+     * as alterações aplicadas.
+     */
+    private static final class AlteracoesDeltas implements DeltaSnapshot.Destino {
+        /** Por partição: usuários alterados (null para os removidos) */
+        final List<Map<String, Users>> usuarios;
+        /** Por partição: sessões dos usuários alterados (null para as encerradas) */
+        final List<Map<String, String>> sessoes;
+        private final Map<String, Comunidade> comunidades;
+
+        AlteracoesDeltas(int particoes, Map<String, Comunidade> comunidades) {
+            this.usuarios = new ArrayList<>(particoes);
+            this.sessoes = new ArrayList<>(particoes);
+            for (int i = 0; i < particoes; i++) {
+                usuarios.add(new LinkedHashMap<>());
+                sessoes.add(new HashMap<>());
+            }
+            this.comunidades = comunidades;
+        }
+
+        @Override
+        public void removerUsuario(String login) {
+            int particao = ParticaoSnapshot.particaoDe(login, usuarios.size());
+            usuarios.get(particao).put(login, null);
+            sessoes.get(particao).put(login, null);
+        }
+
+        @Override
+        public void salvarUsuario(Users usuario) {
+            int particao = ParticaoSnapshot.particaoDe(usuario.getLogin(), usuarios.size());
+            usuarios.get(particao).put(usuario.getLogin(), usuario);
+            sessoes.get(particao).put(usuario.getLogin(), null);
+        }
+
+        @Override
+        public void descartarComunidade(String nome) {
+            comunidades.remove(nome);
+        }
+
+        @Override
+        public void restaurarComunidade(Comunidade comunidade) {
+            comunidades.put(comunidade.getNome(), comunidade);
+        }
+
+        @Override
+        public void registrarSessao(String login, String idSessao) {
+            sessoes.get(ParticaoSnapshot.particaoDe(login, usuarios.size())).put(login, idSessao);
+        }
+    }
+
+    private static int descarregar(SaidaBinaria registro, OutputStream saida) throws IOException {
+        int tamanho = registro.tamanho();
+        registro.gravarEm(saida);
+        registro.limpar();
+        return tamanho;
+    }
+}
@@ -0,0 +1,162 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Comunidade;
+import br.ufal.ic.p2.jackut.Jackut;
+import br.ufal.ic.p2.jackut.Users;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Persistência do estado do sistema Jackut em uma {@link ArvoreLsm árvore LSM}, usada no
+ * {@link Armazenamento#LSM armazenamento LSM} no lugar do {@link SnapshotBinario arquivo de snapshot}.
+ * <p>
+ * Cada registro é uma chave da árvore: {@code "u:<login>"} guarda o registro autocontido do
+ * usuário (com recados e mensagens de comunidade), {@code "s:<login>"} o ID da sessão ativa e
+ * {@code "c:<nome>"} o registro da comunidade. A chave {@value #CHAVE_LSN} guarda o LSN do
+ * último registro do journal refletido na árvore.
+ * </p>
+ *
+ * <p>Cada gravação é um único lote da árvore, de forma que uma queda preserva o estado anterior
+ * ou o novo, nunca uma mistura dos dois. Normalmente apenas os registros marcados em um
+ * {@link RegistroAlteracoes} são gravados; a gravação completa remove as chaves que não
+ * correspondem mais a nenhum registro.</p>
+ *
+ * <p>Na carga, comunidades e sessões são decodificadas e os usuários apenas indexados pelo
+ * login, se o repositório de usuários for um {@link UsuariosSobDemanda}: cada usuário é lido da
+ * árvore no primeiro acesso.</p>
+ */
+public final class SnapshotLsm {
+
+    /** Chave do LSN do último registro do journal refletido na árvore */
+    public static final String CHAVE_LSN = "m:lsn";
+
+    private static final String PREFIXO_USUARIO = "u:";
+    private static final String PREFIXO_SESSAO = "s:";
+    private static final String PREFIXO_COMUNIDADE = "c:";
+
+    private SnapshotLsm() {
+    }
+
+    /**
+     * Verifica se a árvore já recebeu alguma gravação do sistema.
+     *
+     * @param arvore Árvore consultada
+     * @return true se a árvore contém um estado gravado
+     */
+    public static boolean possuiEstado(ArvoreLsm arvore) {
+        return arvore.ler(CHAVE_LSN) != null;
+    }
+
+    /**
+     * Carrega o estado gravado na árvore.
+     *
+     * @param arvore Árvore de origem
+     * @param destino Sistema vazio que receberá os registros
+     * @return LSN do último registro do journal refletido na árvore
+     * @throws IOException Se algum registro não puder ser decodificado
+     */
+    public static long carregar(ArvoreLsm arvore, Jackut destino) throws IOException {
+        try {
+            arvore.varrer(PREFIXO_COMUNIDADE, true, (chave, valor) -> destino.getGerenciadorComunidades()
+                    .restaurarComunidade(CodecRegistros.decodificarComunidade(entrada(valor))));
+            arvore.varrer(PREFIXO_SESSAO, true, (chave, valor) -> destino.getSessoes()
+                    .registrar(new String(valor, StandardCharsets.UTF_8), chave.substring(PREFIXO_SESSAO.length())));
+
+            if (destino.getUsuarios() instanceof UsuariosSobDemanda) {
+                List<String> logins = new ArrayList<>();
+                arvore.varrer(PREFIXO_USUARIO, false, (chave, valor) -> logins.add(chave.substring(PREFIXO_USUARIO.length())));
+                ((UsuariosSobDemanda) destino.getUsuarios()).indexar(arvore, logins);
+            } else {
+                arvore.varrer(PREFIXO_USUARIO, true, (chave, valor) -> destino.getUsuarios()
+                        .salvar(CodecRegistros.decodificarUsuario(entrada(valor))));
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Registro inválido na árvore LSM: " + e.getMessage(), e);
+        }
+        byte[] lsn = arvore.ler(CHAVE_LSN);
+        return lsn == null ? 0 : ByteBuffer.wrap(lsn).getLong();
+    }
+
+    /**
+     * Grava o estado do sistema na árvore em um único lote.
+     *
+     * @param arvore Árvore de destino
+     * @param sistema Sistema de onde os registros são lidos
+     * @param ultimoLsn LSN do último registro do journal refletido no estado
+     * @param alteracoes Registros alterados desde a última gravação, ou null para gravar o
+     *                   estado completo
+     * @throws IOException Se o lote não puder ser gravado
+     */
+    public static void gravar(ArvoreLsm arvore, Jackut sistema, long ultimoLsn,
+                              RegistroAlteracoes alteracoes) throws IOException {
+        Map<String, byte[]> lote = new HashMap<>();
+        SaidaBinaria registro = new SaidaBinaria(4096);
+        if (alteracoes == null) {
+            for (String login : sistema.getUsuarios().getLogins()) {
+                gravarUsuario(lote, registro, sistema, login);
+            }
+            for (String nome : sistema.getGerenciadorComunidades().getComunidades()) {
+                gravarComunidade(lote, registro, sistema, nome);
+            }
+            // Chaves de registros que não existem mais
+            arvore.varrer("", false, (chave, valor) -> {
+                if (!lote.containsKey(chave)) {
+                    lote.put(chave, null);
+                }
+            });
+        } else {
+            for (String login : alteracoes.getUsuariosAlterados()) {
+                gravarUsuario(lote, registro, sistema, login);
+            }
+            for (String login : alteracoes.getUsuariosRemovidos()) {
+                lote.put(PREFIXO_USUARIO + login, null);
+                lote.put(PREFIXO_SESSAO + login, null);
+            }
+            for (String nome : alteracoes.getComunidadesAlteradas()) {
+                gravarComunidade(lote, registro, sistema, nome);
+            }
+            for (String nome : alteracoes.getComunidadesRemovidas()) {
+                lote.put(PREFIXO_COMUNIDADE + nome, null);
+            }
+        }
+        lote.put(CHAVE_LSN, ByteBuffer.allocate(Long.BYTES).putLong(ultimoLsn).array());
+        arvore.gravarLote(lote);
+    }
+
+    /**
+     * @param login Login do usuário
+     * @return Chave do registro do usuário na árvore
+     */
+    static String chaveUsuario(String login) {
+        return PREFIXO_USUARIO + login;
+    }
+
+    private static void gravarUsuario(Map<String, byte[]> lote, SaidaBinaria registro, Jackut sistema, String login) {
+        Users usuario = sistema.getUsuarios().consultar(login);
+        String sessao = usuario == null ? null : sistema.getSessoes().getSessao(login);
+        if (usuario == null) {
+            lote.put(PREFIXO_USUARIO + login, null);
+        } else {
+            CodecRegistros.codificarUsuario(usuario, sistema.getRecados().listarRecados(login), registro);
+            lote.put(PREFIXO_USUARIO + login, registro.paraBytes());
+        }
+        lote.put(PREFIXO_SESSAO + login, sessao == null ? null : sessao.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void gravarComunidade(Map<String, byte[]> lote, SaidaBinaria registro, Jackut sistema, String nome) {
+        Comunidade comunidade = sistema.getGerenciadorComunidades().getRegistroComunidade(nome);
+        if (comunidade == null) {
+            lote.put(PREFIXO_COMUNIDADE + nome, null);
+        } else {
+            CodecRegistros.codificarComunidade(comunidade, registro);
+            lote.put(PREFIXO_COMUNIDADE + nome, registro.paraBytes());
+        }
+    }
+
+    private static EntradaBinaria entrada(byte[] valor) {
+        return new EntradaBinaria(ByteBuffer.wrap(valor));
+    }
+}
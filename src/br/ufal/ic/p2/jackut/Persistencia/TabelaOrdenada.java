@@ -0,0 +1,317 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Tabela ordenada imutável (SSTable) de uma {@link ArvoreLsm}.
+ * <p>
+ * As entradas são gravadas em ordem de chave, agrupadas em blocos de aproximadamente
+ * {@link #TAMANHO_BLOCO} bytes. Após os blocos vêm o índice de blocos (primeira chave, posição e
+ * tamanho de cada bloco, seguidos da última chave da tabela) e o {@link FiltroBloom filtro de
+ * Bloom} das chaves. O arquivo é mapeado em memória; apenas o índice e o filtro são mantidos no
+ * heap, de forma que uma consulta lê no máximo um bloco.
+ * </p>
+ *
+ * <p><b>Entrada:</b> chave (texto), tipo ({@code 0} valor, {@code 1} remoção) e, para valores,
+ * tamanho seguido dos bytes.</p>
+ *
+ * <p><b>Rodapé:</b> posição do índice, posição do filtro, quantidade de entradas e número
+ * mágico {@code "JKSS"}.</p>
+ */
+final class TabelaOrdenada {
+    /** Número mágico das tabelas ("JKSS"). */
+    static final int MAGICO = 0x4A4B5353;
+    /** Tamanho aproximado de cada bloco de entradas, em bytes */
+    static final int TAMANHO_BLOCO = 4096;
+
+    private static final int TAMANHO_RODAPE = 8 + 8 + 8 + 4;
+    private static final int TIPO_VALOR = 0;
+    private static final int TIPO_REMOCAO = 1;
+    /** Valor devolvido pelas iterações sem valores */
+    private static final byte[] SEM_VALOR = new byte[0];
+
+    private final long numero;
+    private final File arquivo;
+    private final EntradaBinaria conteudo;
+    private final String[] primeirasChaves;
+    private final int[] posicoes;
+    private final int[] tamanhos;
+    private final String ultimaChave;
+    private final FiltroBloom filtro;
+    private final long quantidade;
+
+    private TabelaOrdenada(long numero, File arquivo) throws IOException {
+        this.numero = numero;
+        this.arquivo = arquivo;
+        this.conteudo = EntradaBinaria.mapear(arquivo.getPath());
+
+        int tamanhoArquivo = conteudo.restante();
+        EntradaBinaria rodape = conteudo.copiaEm(tamanhoArquivo - TAMANHO_RODAPE);
+        int offsetIndice = (int) rodape.lerLong();
+        int offsetFiltro = (int) rodape.lerLong();
+        this.quantidade = rodape.lerLong();
+        if (rodape.lerInt() != MAGICO) {
+            throw new IOException("Tabela ordenada inválida: " + arquivo);
+        }
+
+        EntradaBinaria indice = conteudo.copiaEm(offsetIndice);
+        int blocos = indice.lerVarInt();
+        this.primeirasChaves = new String[blocos];
+        this.posicoes = new int[blocos];
+        this.tamanhos = new int[blocos];
+        for (int i = 0; i < blocos; i++) {
+            primeirasChaves[i] = indice.lerTexto();
+            posicoes[i] = indice.lerVarInt();
+            tamanhos[i] = indice.lerVarInt();
+        }
+        this.ultimaChave = indice.lerTexto();
+        this.filtro = FiltroBloom.ler(conteudo.copiaEm(offsetFiltro));
+    }
+
+    /**
+     * Abre uma tabela gravada por {@link #gravar}.
+     *
+     * @param diretorio Diretório da árvore
+     * @param numero Número da tabela
+     * @return Tabela aberta
+     * @throws IOException Se o arquivo não puder ser lido ou não for uma tabela válida
+     */
+    static TabelaOrdenada abrir(File diretorio, long numero) throws IOException {
+        return new TabelaOrdenada(numero, arquivo(diretorio, numero));
+    }
+
+    /**
+     * Grava uma tabela com as entradas informadas, que devem estar em ordem crescente de chave
+     * e sem chaves repetidas. O arquivo é sincronizado com o disco antes de ser aberto.
+     *
+     * @param diretorio Diretório da árvore
+     * @param numero Número da nova tabela
+     * @param entradas Entradas em ordem de chave (valores {@link ArvoreLsm#REMOVIDO} são remoções)
+     * @param quantidadeEstimada Quantidade aproximada de entradas, para dimensionar o filtro
+     * @return Tabela gravada e aberta
+     * @throws IOException Se ocorrer erro de escrita
+     */
+    static TabelaOrdenada gravar(File diretorio, long numero, Iterator<Entrada> entradas,
+                                 int quantidadeEstimada) throws IOException {
+        File destino = arquivo(diretorio, numero);
+        FiltroBloom filtro = new FiltroBloom(quantidadeEstimada);
+        List<String> primeiras = new ArrayList<>();
+        List<int[]> blocos = new ArrayList<>();
+        SaidaBinaria bloco = new SaidaBinaria(TAMANHO_BLOCO * 2);
+        SaidaBinaria auxiliar = new SaidaBinaria(1024);
+        String ultima = "";
+        long quantidade = 0;
+        int posicao = 0;
+
+        try (FileChannel canal = FileChannel.open(destino.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream saida = new BufferedOutputStream(Channels.newOutputStream(canal), 1 << 16);
+            while (entradas.hasNext()) {
+                Entrada entrada = entradas.next();
+                if (bloco.tamanho() == 0) {
+                    primeiras.add(entrada.chave);
+                }
+                bloco.escreverTexto(entrada.chave);
+                if (entrada.valor == ArvoreLsm.REMOVIDO) {
+                    bloco.escreverByte(TIPO_REMOCAO);
+                } else {
+                    bloco.escreverByte(TIPO_VALOR);
+                    bloco.escreverVarInt(entrada.valor.length);
+                    bloco.escreverBytes(entrada.valor, 0, entrada.valor.length);
+                }
+                filtro.adicionar(entrada.chave);
+                ultima = entrada.chave;
+                quantidade++;
+                if (bloco.tamanho() >= TAMANHO_BLOCO) {
+                    blocos.add(new int[] {posicao, bloco.tamanho()});
+                    posicao += bloco.tamanho();
+                    bloco.gravarEm(saida);
+                    bloco.limpar();
+                }
+            }
+            if (bloco.tamanho() > 0) {
+                blocos.add(new int[] {posicao, bloco.tamanho()});
+                posicao += bloco.tamanho();
+                bloco.gravarEm(saida);
+                bloco.limpar();
+            }
+
+            int offsetIndice = posicao;
+            auxiliar.escreverVarInt(blocos.size());
+            for (int i = 0; i < blocos.size(); i++) {
+                auxiliar.escreverTexto(primeiras.get(i));
+                auxiliar.escreverVarInt(blocos.get(i)[0]);
+                auxiliar.escreverVarInt(blocos.get(i)[1]);
+            }
+            auxiliar.escreverTexto(ultima);
+            int offsetFiltro = offsetIndice + auxiliar.tamanho();
+            filtro.escrever(auxiliar);
+            auxiliar.escreverLong(offsetIndice);
+            auxiliar.escreverLong(offsetFiltro);
+            auxiliar.escreverLong(quantidade);
+            auxiliar.escreverInt(MAGICO);
+            auxiliar.gravarEm(saida);
+            saida.flush();
+            canal.force(true);
+        }
+        return new TabelaOrdenada(numero, destino);
+    }
+
+    /**
+     * Procura uma chave na tabela.
+     *
+     * @param chave Chave procurada
+     * @return Valor, {@link ArvoreLsm#REMOVIDO} se a chave foi removida, ou null se a tabela
+     *         não contém a chave
+     */
+    byte[] ler(String chave) {
+        if (primeirasChaves.length == 0 || chave.compareTo(primeirasChaves[0]) < 0
+                || chave.compareTo(ultimaChave) > 0 || !filtro.talvezContenha(chave)) {
+            return null;
+        }
+        int bloco = blocoDe(chave);
+        EntradaBinaria entrada = conteudo.copiaEm(posicoes[bloco]);
+        int fim = posicoes[bloco] + tamanhos[bloco];
+        while (entrada.posicao() < fim) {
+            int comparacao = entrada.lerTexto().compareTo(chave);
+            if (comparacao > 0) {
+                return null;
+            }
+            if (entrada.lerByte() == TIPO_REMOCAO) {
+                if (comparacao == 0) {
+                    return ArvoreLsm.REMOVIDO;
+                }
+                continue;
+            }
+            int tamanho = entrada.lerVarInt();
+            if (comparacao == 0) {
+                return entrada.lerBytes(tamanho);
+            }
+            entrada.posicionar(entrada.posicao() + tamanho);
+        }
+        return null;
+    }
+
+    /**
+     * Percorre as entradas da tabela em ordem, a partir da primeira chave maior ou igual a
+     * {@code inicio}.
+     *
+     * @param inicio Menor chave desejada
+     * @param comValores false para pular os valores (entradas de valor trazem um array vazio)
+     * @return Iterador das entradas
+     */
+    Iterator<Entrada> iterar(String inicio, boolean comValores) {
+        int bloco = inicio.isEmpty() || primeirasChaves.length == 0 ? 0 : blocoDe(inicio);
+        EntradaBinaria entrada = conteudo.copiaEm(primeirasChaves.length == 0 ? 0 : posicoes[bloco]);
+        int fim = primeirasChaves.length == 0 ? 0 : posicoes[posicoes.length - 1] + tamanhos[tamanhos.length - 1];
+        return new Iterator<Entrada>() {
+            private Entrada proxima = avancar();
+
+            private Entrada avancar() {
+                while (entrada.posicao() < fim) {
+                    String chave = entrada.lerTexto();
+                    byte[] valor;
+                    if (entrada.lerByte() == TIPO_REMOCAO) {
+                        valor = ArvoreLsm.REMOVIDO;
+                    } else {
+                        int tamanho = entrada.lerVarInt();
+                        if (comValores) {
+                            valor = entrada.lerBytes(tamanho);
+                        } else {
+                            entrada.posicionar(entrada.posicao() + tamanho);
+                            valor = SEM_VALOR;
+                        }
+                    }
+                    if (chave.compareTo(inicio) >= 0) {
+                        return new Entrada(chave, valor);
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return proxima != null;
+            }
+
+            @Override
+            public Entrada next() {
+                Entrada atual = proxima;
+                proxima = avancar();
+                return atual;
+            }
+        };
+    }
+
+    /**
+     * @param inicio Menor chave do intervalo
+     * @param fim Maior chave do intervalo
+     * @return true se a tabela contém chaves no intervalo (inclusive)
+     */
+    boolean sobrepoe(String inicio, String fim) {
+        return primeirasChaves.length > 0 && primeirasChaves[0].compareTo(fim) <= 0
+                && ultimaChave.compareTo(inicio) >= 0;
+    }
+
+    long getNumero() { return numero; }
+
+    String getPrimeiraChave() { return primeirasChaves.length == 0 ? "" : primeirasChaves[0]; }
+
+    String getUltimaChave() { return ultimaChave; }
+
+    long getQuantidade() { return quantidade; }
+
+    /**
+     * @return Tamanho do arquivo em bytes
+     */
+    long getTamanho() { return arquivo.length(); }
+
+    /**
+     * Apaga o arquivo da tabela. Leituras em andamento continuam válidas enquanto o
+     * mapeamento em memória existir.
+     */
+    void apagar() {
+        arquivo.delete();
+    }
+
+    static File arquivo(File diretorio, long numero) {
+        return new File(diretorio, numero + ".sst");
+    }
+
+    private int blocoDe(String chave) {
+        int baixo = 0;
+        int alto = primeirasChaves.length - 1;
+        while (baixo < alto) {
+            int meio = (baixo + alto + 1) >>> 1;
+            if (primeirasChaves[meio].compareTo(chave) <= 0) {
+                baixo = meio;
+            } else {
+                alto = meio - 1;
+            }
+        }
+        return baixo;
+    }
+
+    /**
+     * Entrada (chave e valor) de uma tabela ou da memória da árvore.
+     */
+    static final class Entrada {
+        final String chave;
+        final byte[] valor;
+
+        Entrada(String chave, byte[] valor) {
+            this.chave = chave;
+            this.valor = valor;
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import br.ufal.ic.p2.jackut.Componentes.LapidesUsuarios;
+import br.ufal.ic.p2.jackut.Interfaces.IRepositorioUsuarios;
+import br.ufal.ic.p2.jackut.Users;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Repositório de usuários que decodifica cada registro do snapshot apenas quando ele é
+ * acessado pela primeira vez.
+ * <p>
+ * Na carga, as partições do snapshot são apenas {@link ParticaoSnapshot#indexar(String) indexadas}:
+ * o mapa guarda o login e a posição do registro de cada usuário e os arquivos permanecem
+ * mapeados em memória. Um usuário é decodificado na primeira {@link #buscar(String)} e passa a
+ * residir no heap a partir daí, de forma que o tempo de inicialização e o uso de memória
+ * dependem dos usuários ativos, e não de todos os usuários registrados. Da mesma forma, os
+ * usuários guardados em uma {@link ArvoreLsm árvore LSM} são indexados apenas pelo login e lidos
+ * da árvore no primeiro acesso.
+ * </p>
+ *
+ * <p>Com uma capacidade positiva, no máximo essa quantidade de usuários reside no heap.
+ * Ao exceder a capacidade, o usuário escolhido pela {@link PoliticaSlru política SLRU} é
+ * despejado: se a sua cópia fora do heap (no snapshot ou no {@link ArmazemRegistros armazém de
+ * despejo}) ainda estiver atualizada, apenas a sua posição é mantida; caso contrário, ele é
+ * gravado no armazém. O próximo acesso o decodifica novamente de forma transparente. Os usuários
+ * acessados mais recentemente nunca são despejados, para que a instância obtida por uma
+ * operação continue residente enquanto ela é alterada.</p>
+ *
+ * <p>Um usuário despejado continua acessível por uma referência fraca enquanto houver quem o
+ * referencie, de forma que existe no máximo uma instância viva de cada usuário. Como todo
+ * ponto de mutação marca o usuário em {@link RegistroAlteracoes} antes de alterá-lo, a
+ * marcação ({@link #marcarAlterado(String)}) devolve ao heap a instância que está para ser
+ * alterada e impede que um usuário alterado seja despejado sem ser gravado.</p>
+ *
+ * <p>Consultas de existência ({@link #existe(String)}, {@link #getLogins()}, {@link #quantidade()})
+ * não decodificam registros. Leituras para gravação de snapshots usam
+ * {@link #consultar(String)}, que não altera o conjunto residente.</p>
+ */
+public class UsuariosSobDemanda implements IRepositorioUsuarios {
+    /** Usuários residentes no heap */
+    private final Map<String, Users> carregados = new HashMap<>();
+    /**
+     * Usuários não residentes (login -> localização do registro). Localizações no snapshot
+     * combinam partição e posição; localizações no armazém de despejo são negativas
+     * (complemento da posição).
+     */
+    private final Map<String, Long> indice = new HashMap<>();
+    private final List<ParticaoSnapshot> particoes = new ArrayList<>();
+    /** Árvore LSM de onde são lidos os usuários indexados em {@link #NA_ARVORE} */
+    private ArvoreLsm arvore;
+
+    /** Quantidade máxima de usuários residentes (0 para ilimitado) */
+    private final int capacidade;
+    private final PoliticaSlru<String> politica;
+    private final ArmazemRegistros despejo;
+    /** Localização de uma cópia atualizada de cada usuário residente, se houver */
+    private final Map<String, Long> origens = new HashMap<>();
+    /** Usuários marcados como alterados desde a última gravação no armazém */
+    private final Set<String> alterados = new HashSet<>();
+    /** Usuários despejados que ainda podem estar referenciados */
+    private final Map<String, ReferenciaDespejada> despejados = new HashMap<>();
+    private final ReferenceQueue<Users> referenciasLiberadas = new ReferenceQueue<>();
+    private final MetricasCache metricas = new MetricasCache();
+    private LapidesUsuarios lapides = LapidesUsuarios.NENHUMA;
+
+    /** Localização dos usuários cujo registro está na {@link #arvore árvore LSM} */
+    private static final long NA_ARVORE = Long.MAX_VALUE;
+
+    /**
+     * Cria um repositório sem limite de usuários residentes.
+     */
+    public UsuariosSobDemanda() {
+        this(0, null);
+    }
+
+    /**
+     * Cria um repositório com limite de usuários residentes.
+     *
+     * @param capacidade Quantidade máxima de usuários no heap (0 para ilimitado)
+     * @param despejo Armazém dos usuários despejados
+     */
+    public UsuariosSobDemanda(int capacidade, ArmazemRegistros despejo) {
+        this.capacidade = Math.max(0, capacidade);
+        this.politica = this.capacidade > 0 ? new PoliticaSlru<>(this.capacidade) : null;
+        this.despejo = despejo;
+    }
+
+    /**
+     * Registra os usuários de uma partição indexada, sem decodificá-los.
+     *
+     * @param particao Partição lida por {@link ParticaoSnapshot#indexar(String)}
+     */
+    public synchronized void indexar(ParticaoSnapshot particao) {
+        long numero = particoes.size();
+        particoes.add(particao);
+        for (Map.Entry<String, Integer> posicao : particao.getPosicoes().entrySet()) {
+            descartar(posicao.getKey());
+            indice.put(posicao.getKey(), (numero << 32) | posicao.getValue());
+        }
+    }
+
+    /**
+     * Registra os usuários guardados em uma árvore LSM, sem decodificá-los.
+     *
+     * @param arvore Árvore onde estão os registros dos usuários
+     * @param logins Logins dos usuários guardados na árvore
+     */
+    public synchronized void indexar(ArvoreLsm arvore, Collection<String> logins) {
+        this.arvore = arvore;
+        for (String login : logins) {
+            descartar(login);
+            indice.put(login, NA_ARVORE);
+        }
+    }
+
+    /**
+     * @return Quantidade de usuários residentes no heap
+     */
+    public synchronized int getQuantidadeCarregados() {
+        return carregados.size();
+    }
+
+    /**
+     * @return Quantidade máxima de usuários residentes (0 para ilimitado)
+     */
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    /**
+     * @return Métricas de acertos, faltas e despejos
+     */
+    public MetricasCache getMetricas() {
+        return metricas;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Se o usuário foi despejado mas a instância ainda está referenciada, ela volta a residir
+     * no heap; em qualquer caso, o próximo despejo do usuário o grava no armazém.
+     * </p>
+     */
+    @Override
+    public synchronized void marcarAlterado(String login) {
+        if (politica == null || login == null) {
+            return;
+        }
+        alterados.add(login);
+        if (!carregados.containsKey(login)) {
+            Users despejado = recuperarDespejado(login);
+            if (despejado != null) {
+                indice.remove(login);
+                residir(login, despejado);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Usuários não residentes são decodificados numa instância descartável, de forma que
+     * uma varredura completa não expulsa os usuários ativos do heap.
+     * </p>
+     */
+    @Override
+    public synchronized Users consultar(String login) {
+        Users usuario = carregados.get(login);
+        if (usuario != null || login == null) {
+            return usuario;
+        }
+        ReferenciaDespejada referencia = despejados.get(login);
+        if (referencia != null && (usuario = referencia.get()) != null) {
+            return usuario;
+        }
+        Long localizacao = indice.get(login);
+        return localizacao == null ? null : ler(login, localizacao);
+    }
+
+    @Override
+    public synchronized Users buscar(String login) {
+        Users usuario = carregados.get(login);
+        if (usuario != null) {
+            if (politica != null) {
+                politica.acessar(login);
+            }
+            metricas.registrarAcerto();
+            return usuario;
+        }
+        if (login == null || !indice.containsKey(login)) {
+            return null;
+        }
+        return carregar(login);
+    }
+
+    @Override
+    public synchronized boolean existe(String login) {
+        return login != null && (carregados.containsKey(login) || indice.containsKey(login));
+    }
+
+    @Override
+    public synchronized void salvar(Users usuario) {
+        String login = usuario.getLogin();
+        usuario.setLapides(lapides);
+        if (carregados.containsKey(login)) {
+            carregados.put(login, usuario);
+            origens.remove(login);
+        } else {
+            indice.remove(login);
+            despejados.remove(login);
+            residir(login, usuario);
+        }
+    }
+
+    @Override
+    public synchronized void remover(String login) {
+        if (login != null) {
+            indice.remove(login);
+            descartar(login);
+        }
+    }
+
+    @Override
+    public synchronized Collection<String> getLogins() {
+        List<String> logins = new ArrayList<>(carregados.keySet());
+        logins.addAll(indice.keySet());
+        return logins;
+    }
+
+    @Override
+    public synchronized int quantidade() {
+        return carregados.size() + indice.size();
+    }
+
+    @Override
+    public synchronized void limpar() {
+        carregados.clear();
+        indice.clear();
+        particoes.clear();
+        arvore = null;
+        origens.clear();
+        alterados.clear();
+        despejados.clear();
+        if (politica != null) {
+            politica.limpar();
+        }
+        if (despejo != null) {
+            try {
+                despejo.limpar();
+            } catch (IOException e) {
+                System.err.println("Erro ao limpar armazém de despejo: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Não permite: a garantia de que a instância obtida por uma operação continua residente
+     * vale apenas enquanto nenhuma outra operação acessa usuários ao mesmo tempo.
+     * </p>
+     */
+    @Override
+    public boolean permiteAlteracoesConcorrentes() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Os usuários residentes recebem as lápides na hora; os demais, ao serem decodificados.
+     * </p>
+     */
+    @Override
+    public synchronized void setLapides(LapidesUsuarios lapides) {
+        this.lapides = lapides;
+        for (Users usuario : carregados.values()) {
+            usuario.setLapides(lapides);
+        }
+    }
+
+    private Users carregar(String login) {
+        long inicio = System.nanoTime();
+        Users usuario = recuperarDespejado(login);
+        long localizacao = indice.remove(login);
+        if (usuario == null) {
+            usuario = ler(login, localizacao);
+            if (politica != null) {
+                origens.put(login, localizacao);
+            }
+        } else {
+            // A instância pode ter sido alterada depois de gravada
+            alterados.add(login);
+        }
+        residir(login, usuario);
+        metricas.registrarFalta(System.nanoTime() - inicio);
+        return usuario;
+    }
+
+    private void residir(String login, Users usuario) {
+        carregados.put(login, usuario);
+        if (politica == null) {
+            return;
+        }
+        politica.inserir(login);
+        while (politica.excedeCapacidade()) {
+            String vitima = politica.removerVitima();
+            if (vitima == null || !despejar(vitima)) {
+                if (vitima != null) {
+                    politica.inserir(vitima);
+                }
+                break;
+            }
+        }
+    }
+
+    private boolean despejar(String login) {
+        Users usuario = carregados.get(login);
+        Long localizacao = origens.get(login);
+        boolean gravar = localizacao == null || alterados.contains(login);
+        if (gravar) {
+            try {
+                localizacao = ~despejo.gravar(usuario);
+            } catch (IOException e) {
+                System.err.println("Erro ao despejar usuário: " + e.getMessage());
+                return false;
+            }
+        }
+        carregados.remove(login);
+        origens.remove(login);
+        alterados.remove(login);
+        indice.put(login, localizacao);
+
+        liberarReferencias();
+        despejados.put(login, new ReferenciaDespejada(login, usuario, referenciasLiberadas));
+        metricas.registrarDespejo(gravar);
+        return true;
+    }
+
+    private void descartar(String login) {
+        carregados.remove(login);
+        origens.remove(login);
+        alterados.remove(login);
+        despejados.remove(login);
+        if (politica != null) {
+            politica.remover(login);
+        }
+    }
+
+    private Users recuperarDespejado(String login) {
+        ReferenciaDespejada referencia = despejados.remove(login);
+        return referencia == null ? null : referencia.get();
+    }
+
+    private void liberarReferencias() {
+        Reference<? extends Users> referencia;
+        while ((referencia = referenciasLiberadas.poll()) != null) {
+            despejados.remove(((ReferenciaDespejada) referencia).login, referencia);
+        }
+    }
+
+    private Users ler(String login, long localizacao) {
+        Users usuario = decodificar(login, localizacao);
+        usuario.setLapides(lapides);
+        return usuario;
+    }
+
+    private Users decodificar(String login, long localizacao) {
+        if (localizacao == NA_ARVORE) {
+            byte[] registro = arvore.ler(SnapshotLsm.chaveUsuario(login));
+            if (registro == null) {
+                throw new IllegalStateException("Usuário ausente da árvore LSM: " + login);
+            }
+            return CodecRegistros.decodificarUsuario(new EntradaBinaria(ByteBuffer.wrap(registro)));
+        }
+        if (localizacao < 0) {
+            try {
+                return despejo.ler(~localizacao);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erro ao ler usuário despejado", e);
+            }
+        }
+        return particoes.get((int) (localizacao >>> 32)).lerUsuario((int) localizacao);
+    }
+
+    /**
+     * Referência fraca a um usuário despejado, identificada pelo login.
+     */
+    private static final class ReferenciaDespejada extends WeakReference<Users> {
+        private final String login;
+
+        ReferenciaDespejada(String login, Users usuario, ReferenceQueue<Users> fila) {
+            super(usuario, fila);
+            this.login = login;
+        }
+    }
+}
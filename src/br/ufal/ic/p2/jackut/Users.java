@@ -1,37 +1,81 @@
 package br.ufal.ic.p2.jackut;
 
+import br.ufal.ic.p2.jackut.Componentes.ConjuntoIds;
+import br.ufal.ic.p2.jackut.Componentes.ContagemIds;
+import br.ufal.ic.p2.jackut.Componentes.DicionarioUsuarios;
+import br.ufal.ic.p2.jackut.Componentes.LapidesUsuarios;
 import br.ufal.ic.p2.jackut.Exceptions.SemMensagemException;
 import br.ufal.ic.p2.jackut.Exceptions.UsuarioJaEhIdoloException;
 import br.ufal.ic.p2.jackut.Exceptions.UsuarioJaEhInimigoException;
 import br.ufal.ic.p2.jackut.Exceptions.UsuarioJaEhPaqueraException;
 import br.ufal.ic.p2.jackut.Mensagem;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
+import java.util.*;
 
 /**
  * Classe que representa um usuário no sistema Jackut, contendo informações de perfil,
  * relacionamentos, mensagens e funcionalidades de gerenciamento.
  * <p>
- * Implementa {@link Serializable} para permitir serialização dos dados do usuário.
+ * Os relacionamentos são guardados como conjuntos de identificadores inteiros do
+ * {@link DicionarioUsuarios} ({@link ConjuntoIds}), na ordem de inserção. Consultas,
+ * listagens e leituras de recados ignoram logins com lápide (removidos e ainda não
+ * expurgados) nas lápides da instância dona do usuário ({@link #setLapides}, ligadas pelo
+ * repositório de usuários); {@link #getRelacao}, {@link #referencia} e {@link #getRecados()}
+ * não filtram.
+ * <p>
+ * A caixa de recados é indexada pelo remetente ({@link ContagemIds}): verificar, contar ou
+ * remover os recados de um remetente que nunca escreveu para este usuário não percorre a caixa.
+ * <p>
+ * Implementa {@link Serializable} para permitir serialização dos dados do usuário. O formato
+ * serializado continua sendo o antigo, com cada relacionamento como lista de logins
+ * ({@link #serialPersistentFields}).
  */
 public class Users implements Serializable {
     private static final long serialVersionUID = 2L;
-    private final String login;
-    private final String senha;
-    private final String nome;
-    private final List<String> amigos = new ArrayList<>();
-    private final List<String> solicitacoesRecebidas = new ArrayList<>();
-    private final List<Atributo> atributos = new ArrayList<>();
+
+    /** Número de sequência das mensagens de comunidade entregues antes da numeração */
+    public static final long SEQUENCIA_LEGADA = 0;
+
+    /** Campos do formato serializado, mantidos para a leitura de arquivos antigos */
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("login", String.class),
+            new ObjectStreamField("senha", String.class),
+            new ObjectStreamField("nome", String.class),
+            new ObjectStreamField("amigos", List.class),
+            new ObjectStreamField("solicitacoesRecebidas", List.class),
+            new ObjectStreamField("atributos", List.class),
+            new ObjectStreamField("mensagens", Queue.class),
+            new ObjectStreamField("mensagensComunidade", Queue.class),
+            new ObjectStreamField("fas", List.class),
+            new ObjectStreamField("idolos", List.class),
+            new ObjectStreamField("paqueras", List.class),
+            new ObjectStreamField("inimigos", List.class)
+    };
+
+    // Não são final para que readObject possa restaurá-los a partir dos campos serializados
+    private String login;
+    private String senha;
+    private String nome;
+    private ConjuntoIds amigos = new ConjuntoIds();
+    private ConjuntoIds solicitacoesRecebidas = new ConjuntoIds();
+    private List<Atributo> atributos = new ArrayList<>();
     private Queue<Mensagem> mensagens = new LinkedList<>();
-    private Queue<String> mensagensComunidade = new LinkedList<>();
-    private List<String> fas = new ArrayList<>();
-    private List<String> idolos = new ArrayList<>();
-    private List<String> paqueras = new ArrayList<>();
-    private List<String> inimigos = new ArrayList<>();
+    /** Quantidade de recados na caixa por remetente (reconstruída na leitura) */
+    private transient ContagemIds recadosPorRemetente = new ContagemIds();
+    private LinkedList<String> mensagensComunidade = new LinkedList<>();
+    /** Número de sequência de cada mensagem de comunidade, na mesma ordem da fila */
+    private LinkedList<Long> sequenciasComunidade = new LinkedList<>();
+    private ConjuntoIds fas = new ConjuntoIds();
+    private ConjuntoIds idolos = new ConjuntoIds();
+    private ConjuntoIds paqueras = new ConjuntoIds();
+    private ConjuntoIds inimigos = new ConjuntoIds();
+    /** Lápides da instância dona do usuário, ou null antes de ele ser registrado */
+    private transient LapidesUsuarios lapides;
 
     /**
      * Classe interna que representa um atributo personalizado do usuário.
@@ -53,6 +97,24 @@ public class Users implements Serializable {
         }
     }
 
+    /**
+     * Tipos de relacionamento mantidos pelo usuário, cada um como conjunto de logins.
+     */
+    public enum Relacao {
+        /** Amigos confirmados */
+        AMIGOS,
+        /** Solicitações de amizade recebidas e ainda não respondidas */
+        SOLICITACOES,
+        /** Usuários que têm este usuário como ídolo */
+        FAS,
+        /** Usuários admirados por este usuário */
+        IDOLOS,
+        /** Paqueras deste usuário */
+        PAQUERAS,
+        /** Inimigos deste usuário */
+        INIMIGOS
+    }
+
     // ========== CONSTRUTOR ==========
 
     /**
@@ -94,8 +156,9 @@ public class Users implements Serializable {
      * @param deUsuario Login do usuário que enviou a solicitação
      */
     public void receberSolicitacao(String deUsuario) {
-        if (!amigos.contains(deUsuario) && !solicitacoesRecebidas.contains(deUsuario)) {
-            solicitacoesRecebidas.add(deUsuario);
+        int id = DicionarioUsuarios.id(deUsuario);
+        if (!amigos.contem(id)) {
+            solicitacoesRecebidas.adicionar(id);
         }
     }
 
@@ -105,10 +168,9 @@ public class Users implements Serializable {
      * @return true se a solicitação foi aceita, false caso contrário
      */
     public boolean aceitarSolicitacao(String deUsuario) {
-        if (solicitacoesRecebidas.remove(deUsuario)) {
-            if (!amigos.contains(deUsuario)) {
-                amigos.add(deUsuario);
-            }
+        int id = DicionarioUsuarios.idExistente(deUsuario);
+        if (solicitacoesRecebidas.remover(id)) {
+            amigos.adicionar(id);
             return true;
         }
         return false;
@@ -119,35 +181,33 @@ public class Users implements Serializable {
      * @param usuario Login do usuário a ser verificado
      * @return true se for amigo, false caso contrário
      */
-    public boolean ehAmigo(String usuario) { return amigos.contains(usuario); }
+    public boolean ehAmigo(String usuario) { return contem(amigos, usuario); }
 
     /**
      * Lista de amigos do usuário.
-     * @return Cópia imutável da lista de amigos
+     * @return Lista somente leitura de amigos, na ordem de inserção
      */
-    public List<String> getAmigos() { return new ArrayList<>(amigos); }
+    public List<String> getAmigos() { return amigos.loginsAtivos(lapides()); }
 
     /**
      * Lista de solicitações de amizade pendentes.
-     * @return Cópia imutável da lista de solicitações
+     * @return Lista somente leitura de solicitações, na ordem de chegada
      */
-    public List<String> getSolicitacoesPendentes() { return new ArrayList<>(solicitacoesRecebidas); }
+    public List<String> getSolicitacoesPendentes() { return solicitacoesRecebidas.loginsAtivos(lapides()); }
 
     /**
      * Verifica se há uma solicitação pendente de um usuário específico.
      * @param deUsuario Login do solicitante
      * @return true se houver solicitação pendente, false caso contrário
      */
-    public boolean temSolicitacaoPendente(String deUsuario) { return solicitacoesRecebidas.contains(deUsuario); }
+    public boolean temSolicitacaoPendente(String deUsuario) { return contem(solicitacoesRecebidas, deUsuario); }
 
     /**
      * Adiciona um usuário à lista de amigos.
      * @param amigo Login do amigo a ser adicionado
      */
     public void adicionarAmigo(String amigo) {
-        if (!amigos.contains(amigo)) {
-            amigos.add(amigo);
-        }
+        amigos.adicionar(DicionarioUsuarios.id(amigo));
     }
 
     // ========== GERENCIAMENTO DE ATRIBUTOS ==========
@@ -185,14 +245,32 @@ public class Users implements Serializable {
      */
     public void receberRecado(String remetente, String recado) {
         mensagens.add(new Mensagem(remetente, recado));
+        recadosPorRemetente.incrementar(DicionarioUsuarios.id(remetente));
     }
 
     /**
-     * Remove todas as mensagens de um remetente específico.
+     * Remove todas as mensagens de um remetente específico. Se o remetente não tiver recados
+     * na caixa, a caixa não é percorrida; caso contrário, o percurso termina no último
+     * recado dele.
      * @param remetente Login do remetente
      */
     public void removerMensagensDoUsuario(String remetente) {
-        mensagens.removeIf(m -> m.getRemetente().equals(remetente));
+        int restantes = recadosPorRemetente.zerar(DicionarioUsuarios.idExistente(remetente));
+        for (Iterator<Mensagem> it = mensagens.iterator(); restantes > 0 && it.hasNext(); ) {
+            if (it.next().getRemetente().equals(remetente)) {
+                it.remove();
+                restantes--;
+            }
+        }
+    }
+
+    /**
+     * Conta os recados não lidos de um remetente, sem percorrer a caixa.
+     * @param remetente Login do remetente
+     * @return Quantidade de recados do remetente na caixa
+     */
+    public int contarRecadosDe(String remetente) {
+        return recadosPorRemetente.quantidade(DicionarioUsuarios.idExistente(remetente));
     }
 
     /**
@@ -200,18 +278,72 @@ public class Users implements Serializable {
      * @return Conteúdo do recado ou null se a fila estiver vazia
      */
     public String lerRecado() {
-        Mensagem msg = mensagens.poll();
+        Mensagem msg = retirarRecado();
         return msg != null ? msg.getConteudo() : null;
     }
 
+    /**
+     * Remove e devolve o recado mais antigo da fila, com o seu remetente. Recados de
+     * remetentes com lápide são descartados.
+     * @return Recado ou null se a fila estiver vazia
+     */
+    public Mensagem retirarRecado() {
+        Mensagem recado = mensagens.poll();
+        while (recado != null) {
+            int remetente = DicionarioUsuarios.idExistente(recado.getRemetente());
+            recadosPorRemetente.decrementar(remetente);
+            if (!lapides().removido(remetente)) {
+                break;
+            }
+            recado = mensagens.poll();
+        }
+        return recado;
+    }
+
+    /**
+     * Verifica se a fila tem um recado a ler, sem retirá-lo. Os recados de remetentes com
+     * lápide no início da fila, que nenhuma leitura devolveria, são descartados.
+     * @return true se {@link #retirarRecado()} devolveria um recado
+     */
+    public boolean possuiRecado() {
+        Mensagem recado = mensagens.peek();
+        while (recado != null) {
+            int remetente = DicionarioUsuarios.idExistente(recado.getRemetente());
+            if (!lapides().removido(remetente)) {
+                return true;
+            }
+            mensagens.poll();
+            recadosPorRemetente.decrementar(remetente);
+            recado = mensagens.peek();
+        }
+        return false;
+    }
+
     // ========== GERENCIAMENTO DE COMUNIDADES ==========
 
     /**
-     * Recebe uma mensagem de comunidade.
+     * Recebe uma mensagem de comunidade entregue antes da numeração das mensagens, mais
+     * antiga que todas as numeradas.
      * @param mensagem Conteúdo da mensagem
      */
     public void receberMensagemComunidade(String mensagem) {
-        mensagensComunidade.add(mensagem);
+        receberMensagemComunidade(SEQUENCIA_LEGADA, mensagem);
+    }
+
+    /**
+     * Recebe uma mensagem de comunidade, mantendo a fila em ordem de envio. As entregas no
+     * momento do envio chegam em ordem e são anexadas ao fim.
+     * @param sequencia Número de sequência global da mensagem
+     * @param mensagem Conteúdo da mensagem
+     */
+    public void receberMensagemComunidade(long sequencia, String mensagem) {
+        int posicao = sequenciasComunidade.size();
+        for (ListIterator<Long> it = sequenciasComunidade.listIterator(posicao);
+             it.hasPrevious() && it.previous() > sequencia; ) {
+            posicao--;
+        }
+        sequenciasComunidade.add(posicao, sequencia);
+        mensagensComunidade.add(posicao, mensagem);
     }
 
     /**
@@ -220,6 +352,14 @@ public class Users implements Serializable {
      */
     public boolean temMensagensComunidade() { return !mensagensComunidade.isEmpty(); }
 
+    /**
+     * Número de sequência da mensagem de comunidade mais antiga, sem consumi-la.
+     * @return Número de sequência, ou -1 se não houver mensagens
+     */
+    public long getSequenciaMensagemComunidade() {
+        return sequenciasComunidade.isEmpty() ? -1 : sequenciasComunidade.getFirst();
+    }
+
     /**
      * Lê e remove a mensagem de comunidade mais antiga.
      * @return Conteúdo da mensagem
@@ -229,6 +369,7 @@ public class Users implements Serializable {
         if (mensagensComunidade.isEmpty()) {
             throw new SemMensagemException();
         }
+        sequenciasComunidade.poll();
         return mensagensComunidade.poll();
     }
 
@@ -240,10 +381,9 @@ public class Users implements Serializable {
      * @throws UsuarioJaEhIdoloException Se o ídolo já estiver na lista
      */
     public void adicionarIdolo(String idolo) throws UsuarioJaEhIdoloException {
-        if (idolos.contains(idolo)) {
+        if (!idolos.adicionar(DicionarioUsuarios.id(idolo))) {
             throw new UsuarioJaEhIdoloException();
         }
-        idolos.add(idolo);
     }
 
     /**
@@ -251,9 +391,7 @@ public class Users implements Serializable {
      * @param fa Login do fã
      */
     public void adicionarFa(String fa) {
-        if (!fas.contains(fa)) {
-            fas.add(fa);
-        }
+        fas.adicionar(DicionarioUsuarios.id(fa));
     }
 
     /**
@@ -262,10 +400,9 @@ public class Users implements Serializable {
      * @throws UsuarioJaEhInimigoException Se o inimigo já estiver na lista
      */
     public void adicionarInimigo(String inimigo) throws UsuarioJaEhInimigoException {
-        if (inimigos.contains(inimigo)) {
+        if (!inimigos.adicionar(DicionarioUsuarios.id(inimigo))) {
             throw new UsuarioJaEhInimigoException();
         }
-        inimigos.add(inimigo);
     }
 
     /**
@@ -274,10 +411,9 @@ public class Users implements Serializable {
      * @throws UsuarioJaEhPaqueraException Se a paquera já estiver na lista
      */
     public void adicionarPaquera(String paquera) throws UsuarioJaEhPaqueraException {
-        if (this.paqueras.contains(paquera)) {
+        if (!this.paqueras.adicionar(DicionarioUsuarios.id(paquera))) {
             throw new UsuarioJaEhPaqueraException();
         }
-        this.paqueras.add(paquera);
     }
 
     // ========== MÉTODOS DE REMOÇÃO ==========
@@ -286,61 +422,285 @@ public class Users implements Serializable {
      * Remove um amigo da lista de amigos.
      * @param amigo Login do amigo a ser removido
      */
-    public void removerAmigo(String amigo) { amigos.remove(amigo); }
+    public void removerAmigo(String amigo) { amigos.remover(DicionarioUsuarios.idExistente(amigo)); }
 
     /**
      * Remove uma solicitação pendente.
      * @param solicitante Login do solicitante a ser removido
      */
-    public void removerSolicitacao(String solicitante) { solicitacoesRecebidas.remove(solicitante); }
+    public void removerSolicitacao(String solicitante) { solicitacoesRecebidas.remover(DicionarioUsuarios.idExistente(solicitante)); }
 
     /**
      * Remove um fã da lista de fãs.
      * @param fa Login do fã a ser removido
      */
-    public void removerFa(String fa) { fas.remove(fa); }
+    public void removerFa(String fa) { fas.remover(DicionarioUsuarios.idExistente(fa)); }
 
     /**
      * Remove um ídolo da lista de ídolos.
      * @param idolo Login do ídolo a ser removido
      */
-    public void removerIdolo(String idolo) { idolos.remove(idolo); }
+    public void removerIdolo(String idolo) { idolos.remover(DicionarioUsuarios.idExistente(idolo)); }
 
     /**
      * Remove uma paquera da lista de paqueras.
      * @param paquera Login da paquera a ser removida
      */
-    public void removerPaquera(String paquera) { paqueras.remove(paquera); }
+    public void removerPaquera(String paquera) { paqueras.remover(DicionarioUsuarios.idExistente(paquera)); }
 
     /**
      * Remove um inimigo da lista de inimigos.
      * @param inimigo Login do inimigo a ser removido
      */
-    public void removerInimigo(String inimigo) { inimigos.remove(inimigo); }
+    public void removerInimigo(String inimigo) { inimigos.remover(DicionarioUsuarios.idExistente(inimigo)); }
+
+    /**
+     * Verifica se outro usuário aparece em algum relacionamento ou como remetente de recado.
+     * @param outro Login a ser procurado
+     * @return true se a remoção de {@code outro} alteraria este usuário
+     */
+    public boolean referencia(String outro) {
+        int id = DicionarioUsuarios.idExistente(outro);
+        for (Relacao relacao : Relacao.values()) {
+            if (conjunto(relacao).contem(id)) return true;
+        }
+        return recadosPorRemetente.quantidade(id) > 0;
+    }
+
+    // ========== PERSISTÊNCIA ==========
+
+    /**
+     * Visão somente leitura de um relacionamento, usada na gravação de snapshots.
+     * @param relacao Tipo de relacionamento
+     * @return Lista não modificável de logins, na ordem de inserção
+     */
+    public List<String> getRelacao(Relacao relacao) {
+        return conjunto(relacao).logins();
+    }
+
+    /**
+     * Conjunto de um relacionamento, para cópias das versões de leitura. Não deve ser alterado.
+     * @param relacao Tipo de relacionamento
+     * @return Conjunto de identificadores do relacionamento
+     */
+    public ConjuntoIds getConjunto(Relacao relacao) {
+        return conjunto(relacao);
+    }
+
+    /**
+     * Restaura um relacionamento lido de um snapshot, sem as validações das operações normais.
+     * @param relacao Tipo de relacionamento
+     * @param logins Logins a serem anexados, na ordem original
+     */
+    public void restaurarRelacao(Relacao relacao, Collection<String> logins) {
+        ConjuntoIds conjunto = conjunto(relacao);
+        for (String outro : logins) {
+            conjunto.adicionar(DicionarioUsuarios.id(outro));
+        }
+    }
+
+    /**
+     * Atributos personalizados do perfil, na ordem em que foram definidos.
+     * @return Cópia dos atributos (chave em minúsculas -> valor)
+     */
+    public Map<String, String> getAtributos() {
+        Map<String, String> copia = new LinkedHashMap<>();
+        for (Atributo a : atributos) {
+            copia.put(a.chave, a.valor);
+        }
+        return copia;
+    }
+
+    /**
+     * Recados ainda não lidos, do mais antigo para o mais recente.
+     * @return Visão não modificável da caixa de recados
+     */
+    public Collection<Mensagem> getRecados() { return Collections.unmodifiableCollection(mensagens); }
+
+    /**
+     * Mensagens de comunidade ainda não lidas, da mais antiga para a mais recente.
+     * @return Visão não modificável da fila de mensagens de comunidade
+     */
+    public Collection<String> getMensagensComunidade() { return Collections.unmodifiableCollection(mensagensComunidade); }
+
+    /**
+     * Números de sequência das mensagens de comunidade, na ordem de {@link #getMensagensComunidade()}.
+     * @return Visão não modificável dos números de sequência
+     */
+    public Collection<Long> getSequenciasComunidade() { return Collections.unmodifiableCollection(sequenciasComunidade); }
+
+    /**
+     * Liga o usuário às lápides da instância que o registrou, consultadas pelas listagens,
+     * verificações de relacionamento e leituras de recados.
+     * @param lapides Lápides da instância
+     */
+    public void setLapides(LapidesUsuarios lapides) { this.lapides = lapides; }
+
+    /**
+     * Cópia independente do usuário, usada para preservar a imagem de um snapshot em
+     * andamento antes de uma alteração.
+     * @return Novo usuário com cópias de atributos, relacionamentos e caixas de mensagens
+     */
+    public Users copiar() {
+        Users copia = new Users(login, senha, nome);
+        for (Atributo a : atributos) {
+            copia.atributos.add(new Atributo(a.chave, a.valor));
+        }
+        copia.amigos = amigos.copiar();
+        copia.solicitacoesRecebidas = solicitacoesRecebidas.copiar();
+        copia.fas = fas.copiar();
+        copia.idolos = idolos.copiar();
+        copia.paqueras = paqueras.copiar();
+        copia.inimigos = inimigos.copiar();
+        for (Mensagem recado : mensagens) {
+            copia.mensagens.add(recado);
+            copia.recadosPorRemetente.incrementar(DicionarioUsuarios.id(recado.getRemetente()));
+        }
+        copia.mensagensComunidade.addAll(mensagensComunidade);
+        copia.sequenciasComunidade.addAll(sequenciasComunidade);
+        copia.lapides = lapides;
+        return copia;
+    }
+
+    private ConjuntoIds conjunto(Relacao relacao) {
+        switch (relacao) {
+            case AMIGOS: return amigos;
+            case SOLICITACOES: return solicitacoesRecebidas;
+            case FAS: return fas;
+            case IDOLOS: return idolos;
+            case PAQUERAS: return paqueras;
+            default: return inimigos;
+        }
+    }
+
+    private boolean contem(ConjuntoIds conjunto, String login) {
+        int id = DicionarioUsuarios.idExistente(login);
+        return conjunto.contem(id) && !lapides().removido(id);
+    }
+
+    private LapidesUsuarios lapides() {
+        LapidesUsuarios atuais = lapides;
+        return atuais != null ? atuais : LapidesUsuarios.NENHUMA;
+    }
+
+    /**
+     * Grava o usuário no formato serializado antigo, com os relacionamentos como listas de logins.
+     */
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        ObjectOutputStream.PutField campos = oos.putFields();
+        campos.put("login", login);
+        campos.put("senha", senha);
+        campos.put("nome", nome);
+        campos.put("atributos", atributos);
+        campos.put("mensagens", mensagens);
+        campos.put("mensagensComunidade", mensagensComunidade);
+        campos.put("amigos", new ArrayList<>(amigos.logins()));
+        campos.put("solicitacoesRecebidas", new ArrayList<>(solicitacoesRecebidas.logins()));
+        campos.put("fas", new ArrayList<>(fas.logins()));
+        campos.put("idolos", new ArrayList<>(idolos.logins()));
+        campos.put("paqueras", new ArrayList<>(paqueras.logins()));
+        campos.put("inimigos", new ArrayList<>(inimigos.logins()));
+        oos.writeFields();
+    }
+
+    /**
+     * Lê o formato serializado antigo, convertendo as listas de logins em conjuntos de identificadores.
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField campos = ois.readFields();
+        login = (String) campos.get("login", null);
+        senha = (String) campos.get("senha", null);
+        nome = (String) campos.get("nome", null);
+        List<Atributo> atributosLidos = (List<Atributo>) campos.get("atributos", null);
+        atributos = atributosLidos != null ? atributosLidos : new ArrayList<>();
+        Queue<Mensagem> mensagensLidas = (Queue<Mensagem>) campos.get("mensagens", null);
+        mensagens = mensagensLidas != null ? mensagensLidas : new LinkedList<>();
+        recadosPorRemetente = new ContagemIds();
+        for (Mensagem recado : mensagens) {
+            recadosPorRemetente.incrementar(DicionarioUsuarios.id(recado.getRemetente()));
+        }
+        Queue<String> mensagensComunidadeLidas = (Queue<String>) campos.get("mensagensComunidade", null);
+        mensagensComunidade = new LinkedList<>();
+        sequenciasComunidade = new LinkedList<>();
+        if (mensagensComunidadeLidas != null) {
+            for (String mensagem : mensagensComunidadeLidas) {
+                receberMensagemComunidade(mensagem);
+            }
+        }
+        amigos = new ConjuntoIds();
+        solicitacoesRecebidas = new ConjuntoIds();
+        fas = new ConjuntoIds();
+        idolos = new ConjuntoIds();
+        paqueras = new ConjuntoIds();
+        inimigos = new ConjuntoIds();
+        restaurarRelacao(Relacao.AMIGOS, lerListaLegada(campos, "amigos"));
+        restaurarRelacao(Relacao.SOLICITACOES, lerListaLegada(campos, "solicitacoesRecebidas"));
+        restaurarRelacao(Relacao.FAS, lerListaLegada(campos, "fas"));
+        restaurarRelacao(Relacao.IDOLOS, lerListaLegada(campos, "idolos"));
+        restaurarRelacao(Relacao.PAQUERAS, lerListaLegada(campos, "paqueras"));
+        restaurarRelacao(Relacao.INIMIGOS, lerListaLegada(campos, "inimigos"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> lerListaLegada(ObjectInputStream.GetField campos, String nome) throws IOException {
+        List<String> lista = (List<String>) campos.get(nome, null);
+        return lista != null ? lista : Collections.emptyList();
+    }
+
+    // ========== CONSULTAS DE RELACIONAMENTOS ==========
+
+    /**
+     * Verifica se um usuário é fã deste usuário.
+     * @param usuario Login do usuário a ser verificado
+     * @return true se o usuário estiver na lista de fãs
+     */
+    public boolean ehFa(String usuario) { return contem(fas, usuario); }
+
+    /**
+     * Verifica se um usuário é ídolo deste usuário.
+     * @param usuario Login do usuário a ser verificado
+     * @return true se o usuário estiver na lista de ídolos
+     */
+    public boolean ehIdolo(String usuario) { return contem(idolos, usuario); }
+
+    /**
+     * Verifica se um usuário é paquera deste usuário.
+     * @param usuario Login do usuário a ser verificado
+     * @return true se o usuário estiver na lista de paqueras
+     */
+    public boolean ehPaquera(String usuario) { return contem(paqueras, usuario); }
+
+    /**
+     * Verifica se um usuário é inimigo deste usuário.
+     * @param usuario Login do usuário a ser verificado
+     * @return true se o usuário estiver na lista de inimigos
+     */
+    public boolean ehInimigo(String usuario) { return contem(inimigos, usuario); }
 
     // ========== GETTERS DE RELACIONAMENTOS ==========
 
     /**
      * Lista de fãs do usuário.
-     * @return Cópia imutável da lista de fãs
+     * @return Lista somente leitura de fãs, na ordem de inserção
      */
-    public List<String> getFas() { return new ArrayList<>(fas); }
+    public List<String> getFas() { return fas.loginsAtivos(lapides()); }
 
     /**
      * Lista de ídolos do usuário.
-     * @return Cópia imutável da lista de ídolos
+     * @return Lista somente leitura de ídolos, na ordem de inserção
      */
-    public List<String> getIdolos() { return new ArrayList<>(idolos); }
+    public List<String> getIdolos() { return idolos.loginsAtivos(lapides()); }
 
     /**
      * Lista de paqueras do usuário.
-     * @return Cópia imutável da lista de paqueras
+     * @return Lista somente leitura de paqueras, na ordem de inserção
      */
-    public List<String> getPaqueras() { return new ArrayList<>(paqueras); }
+    public List<String> getPaqueras() { return paqueras.loginsAtivos(lapides()); }
 
     /**
      * Lista de inimigos do usuário.
-     * @return Cópia imutável da lista de inimigos
+     * @return Lista somente leitura de inimigos, na ordem de inserção
      */
-    public List<String> getInimigos() { return new ArrayList<>(inimigos); }
+    public List<String> getInimigos() { return inimigos.loginsAtivos(lapides()); }
 }
\ No newline at end of file
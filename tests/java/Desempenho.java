@@ -0,0 +1,283 @@
+import br.ufal.ic.p2.jackut.Jackut;
+import br.ufal.ic.p2.jackut.Verificacoes;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Medição de desempenho dos armazenamentos de usuários: a mesma carga de trabalho é executada
+ * sobre cada {@code jackut.armazenamento}, com aquecimento e várias iterações medidas, e são
+ * informados a média, o desvio padrão, o mínimo e o máximo de cada métrica por iteração.
+ * <p>
+ * Para cada armazenamento, cria os usuários e uma rede de amizades e executa uma mistura de
+ * consultas de atributos, consultas de amizade, envios e leituras de recados; em seguida grava
+ * o estado ({@link Jackut#encerrarSistema()}) e o carrega de novo ({@link Jackut#iniciarSistema()})
+ * repetidas vezes. Tanto a mistura quanto o ciclo de gravação e carga passam por
+ * {@code desempenho.aquecimento} iterações descartadas (padrão 3) antes de
+ * {@code desempenho.iteracoes} iterações medidas (padrão 5). Os armazenamentos fora do heap
+ * mantêm residente um décimo dos usuários.
+ * </p>
+ * <p>
+ * Com {@code desempenho.forks} maior que zero, cada armazenamento é medido nessa quantidade de
+ * JVMs novas, e as amostras de todas são reunidas; assim o resultado não depende do perfil de
+ * compilação deixado pelos armazenamentos anteriores. Com zero (padrão), tudo roda nesta JVM.
+ * </p>
+ * <p>
+ * Uso: {@code java -cp <classes>:lib/easyaccept.jar [-Ddesempenho.aquecimento=N]
+ * [-Ddesempenho.iteracoes=N] [-Ddesempenho.forks=N] Desempenho [usuarios] [operacoes]
+ * [armazenamentos]}, com armazenamentos separados por vírgula (padrão
+ * {@code heap,foradoheap,disco,lsm}). Não é executada por {@code Testes}.
+ * </p>
+ */
+public class Desempenho {
+
+    private static final String[] PROPRIEDADES = {
+            "jackut.diretorio", "jackut.armazenamento", "jackut.usuarios.capacidade"
+    };
+
+    /** Prefixo das linhas de amostra que uma JVM filha escreve para a JVM que a criou */
+    private static final String AMOSTRA = "#amostra ";
+
+    private static final String CRIACAO = "criação ms";
+    private static final String VAZAO = "operações/s";
+    private static final String ALOCACAO = "B/op";
+    private static final String GRAVACAO = "grava ms";
+    private static final String CARGA = "carga ms";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        int usuarios = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int operacoes = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        String[] armazenamentos = (args.length > 2 ? args[2] : "heap,foradoheap,disco,lsm").split(",");
+        int aquecimento = Integer.getInteger("desempenho.aquecimento", 3);
+        int iteracoes = Math.max(1, Integer.getInteger("desempenho.iteracoes", 5));
+        int forks = Integer.getInteger("desempenho.forks", 0);
+
+        if (Boolean.getBoolean("desempenho.filha")) {
+            Map<String, Estatistica> metricas = medir(armazenamentos[0].trim(), usuarios, operacoes,
+                    aquecimento, iteracoes);
+            for (Map.Entry<String, Estatistica> metrica : metricas.entrySet()) {
+                for (double valor : metrica.getValue().amostras) {
+                    System.out.println(AMOSTRA + metrica.getKey() + "\t" + valor);
+                }
+            }
+            return;
+        }
+
+        System.out.printf("%d usuários, %d operações, %d iterações de aquecimento, %d medidas, %s%n",
+                usuarios, operacoes, aquecimento, iteracoes, forks > 0 ? forks + " forks" : "sem forks");
+        System.out.printf("%-12s %-12s %12s %10s %12s %12s %4s%n",
+                "armazenam.", "métrica", "média", "desvio", "mínimo", "máximo", "n");
+        for (String armazenamento : armazenamentos) {
+            Map<String, Estatistica> metricas = forks > 0
+                    ? medirEmForks(armazenamento.trim(), usuarios, operacoes, aquecimento, iteracoes, forks)
+                    : medir(armazenamento.trim(), usuarios, operacoes, aquecimento, iteracoes);
+            for (Map.Entry<String, Estatistica> metrica : metricas.entrySet()) {
+                Estatistica estatistica = metrica.getValue();
+                System.out.printf("%-12s %-12s %12.1f %10.1f %12.1f %12.1f %4d%n", armazenamento.trim(),
+                        metrica.getKey(), estatistica.media(), estatistica.desvio(), estatistica.minimo(),
+                        estatistica.maximo(), estatistica.amostras.size());
+            }
+        }
+    }
+
+    /**
+     * Mede um armazenamento em JVMs novas, com o mesmo classpath e as mesmas opções de
+     * iteração, e reúne as amostras que cada uma escreve.
+     */
+    private static Map<String, Estatistica> medirEmForks(String armazenamento, int usuarios, int operacoes,
+                                                         int aquecimento, int iteracoes, int forks)
+            throws Exception {
+        Map<String, Estatistica> metricas = novasMetricas();
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        for (int fork = 0; fork < forks; fork++) {
+            List<String> comando = new ArrayList<>();
+            comando.add(java);
+            comando.add("-Dfile.encoding=UTF-8");
+            comando.add("-Ddesempenho.filha=true");
+            comando.add("-Ddesempenho.aquecimento=" + aquecimento);
+            comando.add("-Ddesempenho.iteracoes=" + iteracoes);
+            comando.add("-cp");
+            comando.add(System.getProperty("java.class.path"));
+            comando.add(Desempenho.class.getName());
+            comando.add(String.valueOf(usuarios));
+            comando.add(String.valueOf(operacoes));
+            comando.add(armazenamento);
+            Process processo = new ProcessBuilder(comando).redirectErrorStream(true).start();
+            try (BufferedReader saida = new BufferedReader(
+                    new InputStreamReader(processo.getInputStream(), StandardCharsets.UTF_8))) {
+                String linha;
+                while ((linha = saida.readLine()) != null) {
+                    if (linha.startsWith(AMOSTRA)) {
+                        String[] partes = linha.substring(AMOSTRA.length()).split("\t");
+                        metricas.get(partes[0]).adicionar(Double.parseDouble(partes[1]));
+                    } else {
+                        System.out.println(linha);
+                    }
+                }
+            }
+            int status = processo.waitFor();
+            if (status != 0) {
+                throw new IllegalStateException("Fork de " + armazenamento + " terminou com status " + status);
+            }
+        }
+        return metricas;
+    }
+
+    private static Map<String, Estatistica> medir(String armazenamento, int quantidade, int operacoes,
+                                                  int aquecimento, int iteracoes) throws Exception {
+        Map<String, Estatistica> metricas = novasMetricas();
+        File diretorio = Verificacoes.diretorioTemporario();
+        System.setProperty("jackut.diretorio", diretorio.getPath());
+        System.setProperty("jackut.armazenamento", armazenamento);
+        if (!armazenamento.equals("heap")) {
+            System.setProperty("jackut.usuarios.capacidade", String.valueOf(Math.max(1, quantidade / 10)));
+        }
+        try {
+            long inicio = System.nanoTime();
+            Jackut sistema = Jackut.iniciarSistema();
+            String[] logins = new String[quantidade];
+            String[] sessoes = new String[quantidade];
+            for (int i = 0; i < quantidade; i++) {
+                logins[i] = "dsp-" + i;
+                sistema.criarUsuario(logins[i], "s", "Usuário " + i);
+                sessoes[i] = sistema.abrirSessao(logins[i], "s");
+                sistema.editarPerfil(sessoes[i], "cidade", "Cidade " + i % 100);
+            }
+            Random aleatorio = new Random(7);
+            for (int i = 0; i < quantidade; i++) {
+                for (int a = 0; a < 5; a++) {
+                    int j = aleatorio.nextInt(quantidade);
+                    if (j != i && !sistema.ehAmigo(logins[i], logins[j])
+                            && !sistema.getGerenciadorAmizades().temSolicitacaoPendente(logins[i], logins[j])) {
+                        sistema.adicionarAmigo(sessoes[i], logins[j]);
+                    }
+                }
+            }
+            metricas.get(CRIACAO).adicionar((System.nanoTime() - inicio) / 1e6);
+
+            int[] pendentes = new int[quantidade];
+            for (int iteracao = 0; iteracao < aquecimento + iteracoes; iteracao++) {
+                Random sorteio = new Random(11 + iteracao);
+                long alocadosAntes = THREADS.getCurrentThreadAllocatedBytes();
+                inicio = System.nanoTime();
+                misturar(sistema, logins, sessoes, pendentes, operacoes, sorteio);
+                long mistura = System.nanoTime() - inicio;
+                long alocados = THREADS.getCurrentThreadAllocatedBytes() - alocadosAntes;
+                if (iteracao >= aquecimento) {
+                    metricas.get(VAZAO).adicionar(operacoes / (mistura / 1e9));
+                    metricas.get(ALOCACAO).adicionar((double) alocados / operacoes);
+                }
+            }
+
+            for (int iteracao = 0; iteracao < aquecimento + iteracoes; iteracao++) {
+                inicio = System.nanoTime();
+                sistema.encerrarSistema();
+                long gravacao = System.nanoTime() - inicio;
+
+                inicio = System.nanoTime();
+                sistema = Jackut.iniciarSistema();
+                long carga = System.nanoTime() - inicio;
+                if (iteracao >= aquecimento) {
+                    metricas.get(GRAVACAO).adicionar(gravacao / 1e6);
+                    metricas.get(CARGA).adicionar(carga / 1e6);
+                }
+            }
+            if (!("Usuário 0").equals(sistema.getAtributoUsuario(logins[0], "nome"))) {
+                throw new IllegalStateException("Estado carregado difere do gravado em " + armazenamento);
+            }
+            sistema.encerrarSistema();
+            return metricas;
+        } finally {
+            for (String propriedade : PROPRIEDADES) {
+                System.clearProperty(propriedade);
+            }
+            Verificacoes.apagar(diretorio);
+        }
+    }
+
+    /**
+     * Mistura de operações sobre usuários sorteados: 40% consultas de atributo, 30% consultas
+     * de amizade, 15% envios e 15% leituras de recados. {@code pendentes} conta os recados não
+     * lidos de cada usuário entre uma iteração e a seguinte.
+     */
+    private static void misturar(Jackut sistema, String[] logins, String[] sessoes, int[] pendentes,
+                                 int operacoes, Random aleatorio) throws Exception {
+        for (int n = 0; n < operacoes; n++) {
+            int i = aleatorio.nextInt(logins.length);
+            int j = aleatorio.nextInt(logins.length);
+            int tipo = aleatorio.nextInt(100);
+            if (tipo < 40) {
+                sistema.getAtributoUsuario(logins[i], "cidade");
+            } else if (tipo < 70) {
+                sistema.ehAmigo(logins[i], logins[j]);
+            } else if (tipo < 85) {
+                if (i != j) {
+                    sistema.enviarRecado(sessoes[i], logins[j], "recado " + n);
+                    pendentes[j]++;
+                }
+            } else if (pendentes[i] > 0) {
+                sistema.lerRecado(sessoes[i]);
+                pendentes[i]--;
+            }
+        }
+    }
+
+    private static Map<String, Estatistica> novasMetricas() {
+        Map<String, Estatistica> metricas = new LinkedHashMap<>();
+        for (String metrica : new String[]{CRIACAO, VAZAO, ALOCACAO, GRAVACAO, CARGA}) {
+            metricas.put(metrica, new Estatistica());
+        }
+        return metricas;
+    }
+
+    /**
+     * Amostras de uma métrica, uma por iteração medida.
+     */
+    private static final class Estatistica {
+        final List<Double> amostras = new ArrayList<>();
+
+        void adicionar(double valor) {
+            amostras.add(valor);
+        }
+
+        double media() {
+            double soma = 0;
+            for (double valor : amostras) {
+                soma += valor;
+            }
+            return amostras.isEmpty() ? 0 : soma / amostras.size();
+        }
+
+        /** Desvio padrão amostral; zero com menos de duas amostras. */
+        double desvio() {
+            if (amostras.size() < 2) {
+                return 0;
+            }
+            double media = media();
+            double soma = 0;
+            for (double valor : amostras) {
+                soma += (valor - media) * (valor - media);
+            }
+            return Math.sqrt(soma / (amostras.size() - 1));
+        }
+
+        double minimo() {
+            return amostras.stream().mapToDouble(Double::doubleValue).min().orElse(0);
+        }
+
+        double maximo() {
+            return amostras.stream().mapToDouble(Double::doubleValue).max().orElse(0);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Executor dos testes de unidade do sistema Jackut, complementares aos roteiros de aceitação
+ * do EasyAccept executados por {@code Main}.
+ * <p>
+ * Cada classe de teste tem um construtor sem argumentos e métodos públicos sem parâmetros
+ * cujo nome começa com {@code teste}; cada método é executado, em ordem alfabética, sobre uma
+ * nova instância da classe. Sem argumentos, executa todas as classes de {@link #CLASSES};
+ * com argumentos, apenas as classes informadas (nome simples ou completo). Termina com status
+ * 1 se algum teste falhar.
+ * </p>
+ */
+public class Testes {
+
+    /** Classes de teste executadas por padrão. */
+    private static final String[] CLASSES = {
+            "br.ufal.ic.p2.jackut.JackutJournalTeste",
+            "br.ufal.ic.p2.jackut.JackutLeiturasTeste",
+            "br.ufal.ic.p2.jackut.JackutSnapshotTeste",
+            "br.ufal.ic.p2.jackut.JackutConcorrenciaTeste",
+            "br.ufal.ic.p2.jackut.AlocacaoRelacionamentosTeste",
+            "br.ufal.ic.p2.jackut.Persistencia.JournalTeste",
+            "br.ufal.ic.p2.jackut.Persistencia.ArvoreLsmTeste",
+            "br.ufal.ic.p2.jackut.Componentes.ExpurgoUsuariosTeste",
+            "br.ufal.ic.p2.jackut.Componentes.GerenciadorAmizadesTeste",
+            "br.ufal.ic.p2.jackut.Componentes.TravasUsuariosTeste",
+            "br.ufal.ic.p2.jackut.Componentes.SequenciadorComandosTeste",
+            "br.ufal.ic.p2.jackut.Componentes.ParticoesUsuariosTeste",
+            "br.ufal.ic.p2.jackut.Componentes.BalanceadorParticoesTeste",
+            "br.ufal.ic.p2.jackut.Componentes.MapaPersistenteTeste",
+            "br.ufal.ic.p2.jackut.Componentes.BitmapIdsTeste",
+            "br.ufal.ic.p2.jackut.Componentes.IndiceReferenciasTeste",
+            "br.ufal.ic.p2.jackut.Componentes.ContagemIdsTeste",
+            "br.ufal.ic.p2.jackut.Componentes.LogMensagensTeste",
+            "br.ufal.ic.p2.jackut.Componentes.DistribuicaoMensagensTeste",
+    };
+
+    public static void main(String[] args) throws Exception {
+        int executados = 0;
+        int falhas = 0;
+        for (String nome : CLASSES) {
+            if (args.length > 0 && Arrays.stream(args).noneMatch(a -> nome.equals(a) || nome.endsWith("." + a))) {
+                continue;
+            }
+            Class<?> classe = Class.forName(nome);
+            Method[] metodos = classe.getMethods();
+            Arrays.sort(metodos, Comparator.comparing(Method::getName));
+            for (Method metodo : metodos) {
+                if (!metodo.getName().startsWith("teste") || metodo.getParameterCount() != 0
+                        || Modifier.isStatic(metodo.getModifiers())) {
+                    continue;
+                }
+                executados++;
+                String teste = classe.getSimpleName() + "." + metodo.getName();
+                long inicio = System.nanoTime();
+                try {
+                    metodo.invoke(classe.getDeclaredConstructor().newInstance());
+                    System.out.printf("OK     %s (%d ms)%n", teste, (System.nanoTime() - inicio) / 1_000_000);
+                } catch (InvocationTargetException e) {
+                    falhas++;
+                    System.out.printf("FALHOU %s: %s%n", teste, e.getCause());
+                    e.getCause().printStackTrace(System.out);
+                }
+            }
+        }
+        System.out.printf("%d testes, %d falhas%n", executados, falhas);
+        System.exit(falhas == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,90 @@
+package br.ufal.ic.p2.jackut;
+
+import java.lang.management.ManagementFactory;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes de alocação das consultas de relacionamento: depois do aquecimento, cada consulta de
+ * {@link Users} e das versões de leitura do {@link Jackut} não aloca memória no heap.
+ * <p>
+ * Mede os bytes alocados pela própria thread ({@link com.sun.management.ThreadMXBean}), a
+ * mesma medida que o perfil de alocação do JMH normaliza por operação. Sem suporte da JVM à
+ * medida, os testes não verificam nada.
+ * </p>
+ */
+public class AlocacaoRelacionamentosTeste {
+
+    private static final int AQUECIMENTO = 200_000;
+    private static final int REPETICOES = 100_000;
+    private static final int RELACIONADOS = 5_000;
+
+    /** Operação medida; devolve um resultado para que a consulta não seja descartada. */
+    @FunctionalInterface
+    private interface Consulta {
+        boolean executar() throws Exception;
+    }
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public void testeConsultasDeUsersNaoAlocam() throws Exception {
+        Users usuario = new Users("aloc-ana", "s", "Ana");
+        for (int i = 0; i < RELACIONADOS; i++) {
+            String outro = "aloc-" + i;
+            usuario.adicionarAmigo(outro);
+            usuario.adicionarFa(outro);
+            usuario.adicionarIdolo(outro);
+            usuario.adicionarPaquera(outro);
+            usuario.adicionarInimigo(outro);
+        }
+        String presente = "aloc-" + (RELACIONADOS / 2);
+        String ausente = "aloc-ausente";
+
+        verificarSemAlocacao("Users.ehAmigo", () -> usuario.ehAmigo(presente) & !usuario.ehAmigo(ausente));
+        verificarSemAlocacao("Users.ehFa", () -> usuario.ehFa(presente) & !usuario.ehFa(ausente));
+        verificarSemAlocacao("Users.ehIdolo", () -> usuario.ehIdolo(presente) & !usuario.ehIdolo(ausente));
+        verificarSemAlocacao("Users.ehPaquera", () -> usuario.ehPaquera(presente) & !usuario.ehPaquera(ausente));
+        verificarSemAlocacao("Users.ehInimigo", () -> usuario.ehInimigo(presente) & !usuario.ehInimigo(ausente));
+        verificarSemAlocacao("Users.temSolicitacaoPendente", () -> !usuario.temSolicitacaoPendente(presente));
+    }
+
+    public void testeConsultasDoJackutNaoAlocam() throws Exception {
+        Jackut sistema = new Jackut();
+        sistema.criarUsuario("aloc-bia", "s", "Bia");
+        sistema.criarUsuario("aloc-caio", "s", "Caio");
+        String bia = sistema.abrirSessao("aloc-bia", "s");
+        String caio = sistema.abrirSessao("aloc-caio", "s");
+        sistema.adicionarAmigo(bia, "aloc-caio");
+        sistema.adicionarAmigo(caio, "aloc-bia");
+        sistema.adicionarIdolo(bia, "aloc-caio");
+        sistema.adicionarPaquera(bia, "aloc-caio");
+
+        verificarSemAlocacao("Jackut.ehAmigo", () -> sistema.ehAmigo("aloc-bia", "aloc-caio"));
+        verificarSemAlocacao("Jackut.ehAmigoMutuo", () -> sistema.ehAmigoMutuo("aloc-bia", "aloc-caio"));
+        verificarSemAlocacao("Jackut.ehFa", () -> sistema.ehFa("aloc-bia", "aloc-caio"));
+        verificarSemAlocacao("Jackut.ehPaquera", () -> sistema.ehPaquera(bia, "aloc-caio"));
+    }
+
+    /**
+     * Aquece a consulta e verifica que as repetições seguintes não alocam.
+     */
+    private void verificarSemAlocacao(String descricao, Consulta consulta) throws Exception {
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return;
+        }
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            verificar(consulta.executar(), descricao + " devolveu false");
+        }
+        long antes = threads.getCurrentThreadAllocatedBytes();
+        boolean resultado = true;
+        for (int i = 0; i < REPETICOES; i++) {
+            resultado &= consulta.executar();
+        }
+        long alocados = threads.getCurrentThreadAllocatedBytes() - antes;
+        verificar(resultado, descricao + " devolveu false");
+        // Tolerância para alocações da própria medida, nunca proporcionais às repetições
+        verificar(alocados < 1024, String.format("%s alocou %d bytes em %d consultas (%.3f B/op)",
+                descricao, alocados, REPETICOES, (double) alocados / REPETICOES));
+    }
+}
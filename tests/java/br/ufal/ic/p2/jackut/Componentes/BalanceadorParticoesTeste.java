@@ -0,0 +1,103 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Jackut;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes do {@link BalanceadorParticoes} pelo {@link Jackut#rebalancearParticoes()}: grupos
+ * de usuários relacionados entre si passam a ocupar uma partição cada, sem desequilibrar as
+ * partições, e uma distribuição que não reduz as arestas entre partições não migra ninguém.
+ */
+public class BalanceadorParticoesTeste {
+
+    private static final int GRUPOS = 4;
+    private static final int MEMBROS = 8;
+
+    private final Jackut sistema;
+
+    public BalanceadorParticoesTeste() {
+        System.setProperty("jackut.particoes", String.valueOf(GRUPOS));
+        try {
+            sistema = new Jackut();
+        } finally {
+            System.clearProperty("jackut.particoes");
+        }
+    }
+
+    public void testeGruposRelacionadosFicamNaMesmaParticao() throws Exception {
+        String[][] grupos = new String[GRUPOS][MEMBROS];
+        String[][] sessoes = new String[GRUPOS][MEMBROS];
+        for (int g = 0; g < GRUPOS; g++) {
+            for (int m = 0; m < MEMBROS; m++) {
+                grupos[g][m] = "bal-" + g + "-" + m;
+                sistema.criarUsuario(grupos[g][m], "s", grupos[g][m]);
+                sessoes[g][m] = sistema.abrirSessao(grupos[g][m], "s");
+            }
+        }
+        // Metade dos grupos ligada por amizades e a outra por relações de fã e ídolo
+        for (int g = 0; g < GRUPOS; g++) {
+            for (int m = 0; m < MEMBROS; m++) {
+                for (int o = 0; o < MEMBROS; o++) {
+                    if (o == m) {
+                        continue;
+                    }
+                    if (g % 2 == 0) {
+                        sistema.adicionarAmigo(sessoes[g][m], grupos[g][o]);
+                    } else if (o == (m + 1) % MEMBROS || o == (m + 2) % MEMBROS) {
+                        sistema.adicionarIdolo(sessoes[g][m], grupos[g][o]);
+                    }
+                }
+            }
+        }
+
+        BalanceadorParticoes.Resultado resultado = sistema.rebalancearParticoes();
+
+        verificarIgual(GRUPOS * MEMBROS, resultado.getUsuarios(), "usuários do grafo");
+        verificarIgual(2L * MEMBROS * (MEMBROS - 1) / 2 + 2L * MEMBROS * 2, resultado.getArestas(), "arestas do grafo");
+        verificar(resultado.getCruzadasAntes() > 0, "distribuição pelo hash já separava os grupos");
+        verificarIgual(0L, resultado.getCruzadasDepois(), "arestas entre partições após o balanceamento");
+
+        ParticoesUsuarios particoes = sistema.getParticoes();
+        int capacidade = (int) Math.ceil((double) GRUPOS * MEMBROS / particoes.quantidade()
+                * (1 + BalanceadorParticoes.FOLGA_PADRAO));
+        int[] tamanhos = new int[particoes.quantidade()];
+        Set<Integer> ocupadas = new HashSet<>();
+        for (String[] grupo : grupos) {
+            int particao = particoes.particao(grupo[0]);
+            for (String login : grupo) {
+                verificarIgual(particao, particoes.particao(login), "partição de " + login);
+                tamanhos[particao]++;
+            }
+            ocupadas.add(particao);
+        }
+        for (int tamanho : tamanhos) {
+            verificar(tamanho <= capacidade, "partição acima da capacidade: " + tamanho + " > " + capacidade);
+        }
+        verificarIgual(GRUPOS, ocupadas.size(), "partições ocupadas pelos grupos");
+
+        // Já balanceado: nada a migrar
+        BalanceadorParticoes.Resultado repetido = sistema.rebalancearParticoes();
+        verificarIgual(0L, repetido.getCruzadasAntes(), "arestas entre partições no novo cálculo");
+        verificar(repetido.getDestinos().isEmpty(), "migrações sem ganho");
+    }
+
+    public void testeSemRelacionamentosNaoMigra() throws Exception {
+        for (int i = 0; i < GRUPOS * MEMBROS; i++) {
+            sistema.criarUsuario("bal-solo-" + i, "s", "Solo");
+        }
+
+        BalanceadorParticoes.Resultado resultado = sistema.rebalancearParticoes();
+
+        verificarIgual(0L, resultado.getArestas(), "arestas do grafo");
+        verificar(resultado.getDestinos().isEmpty(), "migrações sem arestas");
+        verificarIgual(0L, resultado.getCruzadasDepois(), "arestas entre partições");
+    }
+
+    public void testeSemParticoesNaoBalanceia() {
+        verificar(new Jackut().rebalancearParticoes() == null, "balanceamento sem partições ativas");
+    }
+}
@@ -0,0 +1,192 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Comunidade;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes do {@link BitmapIds} e dos {@link MembrosIds}: operações aleatórias comparadas a
+ * conjuntos do JDK, com grupos densos o bastante para trocar o contêiner vetor pelo mapa de
+ * bits e de volta. As leituras e as cópias dos membros não os alteram, e a lista de membros
+ * de uma comunidade é uma cópia.
+ */
+public class BitmapIdsTeste {
+
+    public void testeOperacoesAleatoriasIguaisAoTreeSet() {
+        Random aleatorio = new Random(17);
+        BitmapIds bitmap = new BitmapIds();
+        TreeSet<Integer> modelo = new TreeSet<>();
+
+        for (int n = 0; n < 60_000; n++) {
+            int id = sortearId(aleatorio);
+            boolean incluir = aleatorio.nextInt(10) < (n < 30_000 ? 8 : 3);
+            if (incluir) {
+                verificarIgual(modelo.add(id), bitmap.adicionar(id), "inclusão de " + id);
+            } else {
+                verificarIgual(modelo.remove(id), bitmap.remover(id), "remoção de " + id);
+            }
+            verificarIgual(modelo.contains(id), bitmap.contem(id), "pertinência de " + id);
+            verificarIgual(modelo.size(), bitmap.tamanho(), "tamanho após a operação " + n);
+            if (n == 30_000) {
+                // Grupo 0 denso: acima do limite do contêiner vetor
+                verificar(modelo.subSet(0, 1 << 16).size() > BitmapIds.LIMITE_VETOR, "grupo 0 não ficou denso");
+                verificarIgual(new ArrayList<>(modelo), elementos(bitmap), "elementos com o grupo denso");
+            }
+        }
+        verificarIgual(new ArrayList<>(modelo), elementos(bitmap), "elementos em ordem crescente");
+        verificar(!bitmap.contem(DicionarioUsuarios.AUSENTE), "identificador ausente pertence ao conjunto");
+    }
+
+    public void testeIntersecaoEntreContaineres() {
+        Random aleatorio = new Random(23);
+        BitmapIds denso = new BitmapIds();
+        BitmapIds esparso = new BitmapIds();
+        TreeSet<Integer> modeloDenso = new TreeSet<>();
+        TreeSet<Integer> modeloEsparso = new TreeSet<>();
+        for (int n = 0; n < 20_000; n++) {
+            int id = sortearId(aleatorio);
+            denso.adicionar(id);
+            modeloDenso.add(id);
+            if (n % 7 == 0) {
+                int outro = sortearId(aleatorio);
+                esparso.adicionar(outro);
+                modeloEsparso.add(outro);
+            }
+        }
+        // Bits com bits, bits com vetor e vetor com vetor
+        BitmapIds[] conjuntos = {denso, esparso, denso.copiar()};
+        List<TreeSet<Integer>> modelos = List.of(modeloDenso, modeloEsparso, modeloDenso);
+        for (int a = 0; a < conjuntos.length; a++) {
+            for (int b = 0; b < conjuntos.length; b++) {
+                TreeSet<Integer> esperada = new TreeSet<>(modelos.get(a));
+                esperada.retainAll(modelos.get(b));
+                BitmapIds intersecao = conjuntos[a].intersecao(conjuntos[b]);
+                verificarIgual(new ArrayList<>(esperada), elementos(intersecao), "interseção " + a + " com " + b);
+                verificarIgual(esperada.size(), intersecao.tamanho(), "tamanho da interseção " + a + " com " + b);
+                verificarIgual(esperada.size(), conjuntos[a].tamanhoIntersecao(conjuntos[b]),
+                        "tamanhoIntersecao " + a + " com " + b);
+            }
+        }
+    }
+
+    public void testeCopiaIndependente() {
+        BitmapIds original = new BitmapIds();
+        for (int id = 0; id < 2 * BitmapIds.LIMITE_VETOR; id++) {
+            original.adicionar(id);
+        }
+        original.adicionar(1 << 20);
+        BitmapIds copia = original.copiar();
+
+        original.remover(5);
+        original.remover(1 << 20);
+        copia.adicionar(1 << 21);
+
+        verificar(copia.contem(5) && copia.contem(1 << 20), "remoção no original alterou a cópia");
+        verificar(!original.contem(1 << 21), "inclusão na cópia alterou o original");
+        verificarIgual(2 * BitmapIds.LIMITE_VETOR + 2, copia.tamanho(), "tamanho da cópia");
+        verificarIgual(2 * BitmapIds.LIMITE_VETOR - 1, original.tamanho(), "tamanho do original");
+    }
+
+    public void testeMembrosMantemAOrdemDeEntrada() {
+        Random aleatorio = new Random(31);
+        int[] ids = new int[200];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = DicionarioUsuarios.id("bmp-" + i);
+        }
+        MembrosIds membros = new MembrosIds();
+        List<String> visao = membros.logins();
+        Set<String> modelo = new LinkedHashSet<>();
+
+        for (int n = 0; n < 10_000; n++) {
+            int i = aleatorio.nextInt(ids.length);
+            String login = "bmp-" + i;
+            int modificacoes = membros.modificacoes();
+            boolean alterou;
+            if (aleatorio.nextBoolean()) {
+                alterou = modelo.add(login);
+                verificarIgual(alterou, membros.adicionar(ids[i]), "entrada de " + login);
+            } else {
+                alterou = modelo.remove(login);
+                verificarIgual(alterou, membros.remover(ids[i]), "saída de " + login);
+            }
+            verificarIgual(modificacoes + (alterou ? 1 : 0), membros.modificacoes(), "modificações de " + login);
+            verificarIgual(modelo.contains(login), membros.contem(ids[i]), "pertinência de " + login);
+            verificarIgual(modelo.contains(login), visao.contains(login), "visão contém " + login);
+            if (n % 250 == 0) {
+                verificarIgual(new ArrayList<>(modelo), new ArrayList<>(visao), "ordem de entrada após " + n);
+            }
+        }
+        verificarIgual(new ArrayList<>(modelo), new ArrayList<>(visao), "ordem de entrada final");
+        verificarIgual(modelo.size(), membros.bitmap().tamanho(), "tamanho do bitmap");
+
+        MembrosIds copia = membros.copiar();
+        membros.adicionar(DicionarioUsuarios.id("bmp-novo"));
+        verificarIgual(new ArrayList<>(modelo), new ArrayList<>(copia.logins()), "cópia independente");
+    }
+
+    public void testeLeiturasConcorrentesNaoAlteramOsMembros() throws Exception {
+        MembrosIds membros = new MembrosIds();
+        List<String> esperados = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            membros.adicionar(DicionarioUsuarios.id("bmp-leit-" + i));
+            if (i % 4 != 0) {
+                esperados.add("bmp-leit-" + i);
+            }
+        }
+        // Saídas abaixo do limite de compactação: as posições descartadas continuam no vetor
+        for (int i = 0; i < 64; i += 4) {
+            membros.remover(DicionarioUsuarios.id("bmp-leit-" + i));
+        }
+
+        List<String> visao = membros.logins();
+        Thread[] leitoras = new Thread[4];
+        List<String> erros = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < leitoras.length; t++) {
+            leitoras[t] = new Thread(() -> {
+                for (int n = 0; n < 2_000; n++) {
+                    List<String> lidos = new ArrayList<>(visao);
+                    List<String> copiados = new ArrayList<>(membros.copiar().logins());
+                    String posicional = visao.get(n % esperados.size());
+                    if (!lidos.equals(esperados) || !copiados.equals(esperados)
+                            || !posicional.equals(esperados.get(n % esperados.size()))) {
+                        erros.add(lidos + " / " + copiados + " / " + posicional);
+                        return;
+                    }
+                }
+            });
+            leitoras[t].start();
+        }
+        for (Thread leitora : leitoras) {
+            leitora.join();
+        }
+        verificarIgual(Collections.emptyList(), erros, "leituras concorrentes");
+        verificarIgual(esperados, new ArrayList<>(visao), "membros após as leituras");
+    }
+
+    public void testeMembrosDaComunidadeSaoUmaCopia() throws Exception {
+        Comunidade comunidade = new Comunidade("bmp-com", "Comunidade", "bmp-dono");
+        List<String> membros = comunidade.getMembros();
+        comunidade.adicionarMembro("bmp-outro");
+        verificarIgual(List.of("bmp-dono"), membros, "membros obtidos antes da entrada");
+        verificarIgual(List.of("bmp-dono", "bmp-outro"), comunidade.getMembros(), "membros atuais");
+    }
+
+    /** Metade dos identificadores num intervalo denso do grupo 0, os demais em outros grupos. */
+    private static int sortearId(Random aleatorio) {
+        return aleatorio.nextBoolean() ? aleatorio.nextInt(12_000) : aleatorio.nextInt(5 << 16);
+    }
+
+    private static List<Integer> elementos(BitmapIds bitmap) {
+        List<Integer> elementos = new ArrayList<>();
+        bitmap.paraCada(elementos::add);
+        return elementos;
+    }
+}
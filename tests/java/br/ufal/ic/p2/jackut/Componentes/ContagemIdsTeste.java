@@ -0,0 +1,72 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes da {@link ContagemIds}: operações aleatórias comparadas a um mapa do JDK, com
+ * contagens que chegam a zero e reconstruções da tabela no meio da sequência.
+ */
+public class ContagemIdsTeste {
+
+    private final ContagemIds contagem = new ContagemIds();
+
+    public void testeOperacoesAleatoriasIguaisAoHashMap() {
+        Random aleatorio = new Random(31);
+        Map<Integer, Integer> modelo = new HashMap<>();
+
+        for (int n = 0; n < 50_000; n++) {
+            // Poucos ids no início, muitos depois: a tabela cresce e reaproveita contagens zeradas
+            int id = aleatorio.nextInt(n < 20_000 ? 64 : 4_096);
+            int operacao = aleatorio.nextInt(10);
+            if (operacao < 5) {
+                contagem.incrementar(id);
+                modelo.merge(id, 1, Integer::sum);
+            } else if (operacao < 9) {
+                contagem.decrementar(id);
+                modelo.computeIfPresent(id, (chave, valor) -> Math.max(0, valor - 1));
+            } else {
+                Integer anterior = modelo.put(id, 0);
+                verificarIgual(anterior == null ? 0 : anterior, contagem.zerar(id), "zerar " + id);
+            }
+            verificarIgual(modelo.getOrDefault(id, 0), contagem.quantidade(id), "contagem de " + id + " na operação " + n);
+        }
+        for (Map.Entry<Integer, Integer> entrada : modelo.entrySet()) {
+            verificarIgual(entrada.getValue(), contagem.quantidade(entrada.getKey()), "contagem final de " + entrada.getKey());
+        }
+    }
+
+    public void testeDecrementarNaoFicaNegativo() {
+        contagem.decrementar(5);
+        contagem.incrementar(5);
+        contagem.decrementar(5);
+        contagem.decrementar(5);
+
+        verificarIgual(0, contagem.quantidade(5), "contagem após decrementos a mais");
+        contagem.incrementar(5);
+        verificarIgual(1, contagem.quantidade(5), "contagem após novo incremento");
+    }
+
+    public void testeIdAusenteTemContagemZero() {
+        contagem.incrementar(0);
+        verificarIgual(0, contagem.quantidade(DicionarioUsuarios.AUSENTE), "contagem do ausente");
+        verificarIgual(0, contagem.zerar(DicionarioUsuarios.AUSENTE), "zerar o ausente");
+        verificarIgual(1, contagem.quantidade(0), "contagem do id 0");
+    }
+
+    public void testeLimparZeraTodasAsContagens() {
+        for (int id = 0; id < 100; id++) {
+            contagem.incrementar(id);
+        }
+        contagem.limpar();
+
+        for (int id = 0; id < 100; id++) {
+            verificarIgual(0, contagem.quantidade(id), "contagem de " + id + " após limpar");
+        }
+        contagem.incrementar(7);
+        verificarIgual(1, contagem.quantidade(7), "contagem após limpar e incrementar");
+    }
+}
@@ -0,0 +1,98 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Comunidade;
+import br.ufal.ic.p2.jackut.Componentes.DistribuicaoMensagens.Estrategia;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes da escolha de estratégia da {@link DistribuicaoMensagens}: comunidades pequenas
+ * entregam a todos, as grandes entregam apenas aos leitores recentes ou a ninguém, e um leitor
+ * deixa de ser recente depois de duas janelas de atividade sem leituras.
+ */
+public class DistribuicaoMensagensTeste {
+
+    private static final int LIMITE = 3;
+
+    public void testeComunidadePequenaEntregaATodos() throws Exception {
+        DistribuicaoMensagens distribuicao = distribuicao(DistribuicaoMensagens.JANELA_PADRAO);
+        Comunidade comunidade = comunidade("dm-pequena", LIMITE);
+
+        verificarIgual(Estrategia.EMPURRAR, distribuicao.escolher(comunidade), "estratégia");
+        verificarIgual(ids(comunidade), elementos(distribuicao.destinatarios(comunidade, Estrategia.EMPURRAR)),
+                "destinatários");
+    }
+
+    public void testeComunidadeGrandeSemLeitoresNaoEntrega() throws Exception {
+        DistribuicaoMensagens distribuicao = distribuicao(DistribuicaoMensagens.JANELA_PADRAO);
+        Comunidade comunidade = comunidade("dm-grande", LIMITE + 2);
+        distribuicao.marcarLeitor(DicionarioUsuarios.id("dm-de-fora"));
+
+        verificarIgual(Estrategia.PUXAR, distribuicao.escolher(comunidade), "estratégia");
+        verificar(distribuicao.destinatarios(comunidade, Estrategia.PUXAR).tamanho() == 0, "destinatários");
+    }
+
+    public void testeComunidadeGrandeEntregaAosLeitoresRecentes() throws Exception {
+        DistribuicaoMensagens distribuicao = distribuicao(DistribuicaoMensagens.JANELA_PADRAO);
+        Comunidade comunidade = comunidade("dm-ativa", LIMITE + 2);
+        int leitor = DicionarioUsuarios.id("dm-ativa-1");
+        distribuicao.marcarLeitor(leitor);
+        distribuicao.marcarLeitor(DicionarioUsuarios.id("dm-de-fora"));
+
+        verificarIgual(Estrategia.HIBRIDA, distribuicao.escolher(comunidade), "estratégia");
+        verificarIgual(List.of(leitor), elementos(distribuicao.destinatarios(comunidade, Estrategia.HIBRIDA)),
+                "destinatários");
+    }
+
+    public void testeLeitorDeixaDeSerRecenteAposDuasJanelas() throws Exception {
+        long janela = 500;
+        DistribuicaoMensagens distribuicao = distribuicao(janela);
+        Comunidade comunidade = comunidade("dm-janela", LIMITE + 2);
+        distribuicao.marcarLeitor(DicionarioUsuarios.id("dm-janela-1"));
+
+        // Na janela seguinte, o leitor ainda conta pela janela anterior
+        Thread.sleep(janela + janela / 5);
+        verificarIgual(Estrategia.HIBRIDA, distribuicao.escolher(comunidade), "estratégia na janela seguinte");
+
+        Thread.sleep(2 * janela + janela / 5);
+        verificarIgual(Estrategia.PUXAR, distribuicao.escolher(comunidade), "estratégia após duas janelas");
+    }
+
+    /**
+     * Cria a distribuição com o limite de {@link #LIMITE} membros e a janela informada.
+     */
+    private static DistribuicaoMensagens distribuicao(long janela) {
+        System.setProperty("jackut.distribuicao.limite", String.valueOf(LIMITE));
+        System.setProperty("jackut.distribuicao.janela", String.valueOf(janela));
+        try {
+            return new DistribuicaoMensagens();
+        } finally {
+            System.clearProperty("jackut.distribuicao.limite");
+            System.clearProperty("jackut.distribuicao.janela");
+        }
+    }
+
+    /**
+     * Comunidade com o dono e mais membros, até a quantidade informada.
+     */
+    private static Comunidade comunidade(String nome, int membros) throws Exception {
+        Comunidade comunidade = new Comunidade(nome, "Comunidade", nome + "-0");
+        for (int i = 1; i < membros; i++) {
+            comunidade.adicionarMembro(nome + "-" + i);
+        }
+        return comunidade;
+    }
+
+    private static List<Integer> ids(Comunidade comunidade) {
+        return elementos(comunidade.getIdsMembros());
+    }
+
+    private static List<Integer> elementos(BitmapIds conjunto) {
+        List<Integer> elementos = new ArrayList<>();
+        conjunto.paraCada(elementos::add);
+        return elementos;
+    }
+}
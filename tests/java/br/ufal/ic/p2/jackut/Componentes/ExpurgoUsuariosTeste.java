@@ -0,0 +1,80 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Users;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes das lápides do {@link ExpurgoUsuarios}: pertencem ao expurgo que removeu o usuário e
+ * não escondem o mesmo login dos registros de outra instância; os retratos guardados pelas
+ * versões de leitura não mudam quando uma lápide é retirada.
+ */
+public class ExpurgoUsuariosTeste {
+
+    public void testeLapideNaoAfetaOutraInstancia() throws Exception {
+        ReentrantLock trava = new ReentrantLock();
+        ExpurgoUsuarios removeu = new ExpurgoUsuarios(trava, (usuario, removido) -> { }, login -> { });
+        ExpurgoUsuarios outro = new ExpurgoUsuarios(new ReentrantLock(), (usuario, removido) -> { }, login -> { });
+        Users deste = usuarioComAmigo(removeu.getLapides());
+        Users daquele = usuarioComAmigo(outro.getLapides());
+
+        // Com a trava adquirida, o lote do expurgo não executa e a lápide continua marcada
+        trava.lock();
+        try {
+            removeu.agendar("lap-bia", new ConjuntoIds());
+            verificar(removeu.getLapides().removido("lap-bia"), "lápide na instância que removeu");
+            verificar(!deste.ehAmigo("lap-bia"), "amigo removido ainda visível na própria instância");
+            verificar(!outro.getLapides().removido("lap-bia"), "lápide vazou para outra instância");
+            verificar(daquele.ehAmigo("lap-bia"), "amigo escondido na outra instância");
+            verificarIgual("[lap-bia]", daquele.getAmigos().toString(), "amigos na outra instância");
+        } finally {
+            trava.unlock();
+        }
+
+        long limite = System.nanoTime() + 5_000_000_000L;
+        while (removeu.getLapides().removido("lap-bia") && System.nanoTime() < limite) {
+            Thread.sleep(1);
+        }
+        verificar(!removeu.getLapides().removido("lap-bia"), "lápide retirada ao fim do expurgo");
+    }
+
+    public void testeCancelarRetiraApenasAsProprias() {
+        ReentrantLock trava = new ReentrantLock();
+        ExpurgoUsuarios primeiro = new ExpurgoUsuarios(trava, (usuario, removido) -> { }, login -> { });
+        ExpurgoUsuarios segundo = new ExpurgoUsuarios(trava, (usuario, removido) -> { }, login -> { });
+        trava.lock();
+        try {
+            primeiro.agendar("lap-caio", new ConjuntoIds());
+            segundo.agendar("lap-caio", new ConjuntoIds());
+            primeiro.cancelar();
+            verificar(!primeiro.getLapides().removido("lap-caio"), "lápide cancelada");
+            verificar(segundo.getLapides().removido("lap-caio"), "cancelamento apagou lápide de outra instância");
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public void testeLapidesCompartilhadasNaoSaoAlteradas() {
+        verificarExcecao(UnsupportedOperationException.class, () -> LapidesUsuarios.NENHUMA.marcar("lap-dani"));
+    }
+
+    public void testeRetratoNaoRefleteAlteracoesSeguintes() {
+        LapidesUsuarios lapides = new LapidesUsuarios();
+        verificar(lapides.retrato() == LapidesUsuarios.NENHUMA, "retrato sem lápides");
+        lapides.marcar("lap-edu");
+        LapidesUsuarios retrato = lapides.retrato();
+        lapides.desmarcar("lap-edu");
+        verificar(retrato.removido("lap-edu"), "retrato perdeu a lápide retirada depois dele");
+        verificar(!lapides.removido("lap-edu"), "lápide retirada");
+        verificarExcecao(UnsupportedOperationException.class, () -> retrato.desmarcar("lap-edu"));
+    }
+
+    private static Users usuarioComAmigo(LapidesUsuarios lapides) {
+        Users usuario = new Users("lap-ana", "s", "Ana");
+        usuario.adicionarAmigo("lap-bia");
+        usuario.setLapides(lapides);
+        return usuario;
+    }
+}
@@ -0,0 +1,44 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Exceptions.AmigoPendenteException;
+import br.ufal.ic.p2.jackut.Users;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes das solicitações de amizade do {@link GerenciadorAmizades}.
+ */
+public class GerenciadorAmizadesTeste {
+
+    private final RepositorioUsuariosHeap usuarios = new RepositorioUsuariosHeap();
+    private final RepositorioSessoesHeap sessoes = new RepositorioSessoesHeap();
+    private final GerenciadorAmizades amizades = new GerenciadorAmizades(usuarios, sessoes);
+
+    public GerenciadorAmizadesTeste() {
+        for (String login : new String[]{"ga-ana", "ga-bia"}) {
+            usuarios.salvar(new Users(login, "s", login));
+            sessoes.registrar("sessao-" + login, login);
+        }
+    }
+
+    public void testeRecusarRetiraSolicitacaoPendente() throws Exception {
+        amizades.adicionarAmigo("sessao-ga-ana", "ga-bia");
+        verificarIgual("{ga-ana}", amizades.getSolicitacoesPendentes("ga-bia"), "pendentes antes da recusa");
+
+        amizades.recusarSolicitacao("ga-bia", "ga-ana");
+
+        verificarIgual("{}", amizades.getSolicitacoesPendentes("ga-bia"), "pendentes após a recusa");
+        verificar(!amizades.temSolicitacaoPendente("ga-ana", "ga-bia"), "solicitação recusada ainda pendente");
+        verificar(!usuarios.buscar("ga-bia").ehAmigo("ga-ana"), "recusa não cria amizade");
+    }
+
+    public void testeSolicitacaoPodeSerRefeitaAposRecusa() throws Exception {
+        amizades.adicionarAmigo("sessao-ga-ana", "ga-bia");
+        verificarExcecao(AmigoPendenteException.class, () -> amizades.adicionarAmigo("sessao-ga-ana", "ga-bia"));
+
+        amizades.recusarSolicitacao("ga-bia", "ga-ana");
+        amizades.adicionarAmigo("sessao-ga-ana", "ga-bia");
+
+        verificarIgual("{ga-ana}", amizades.getSolicitacoesPendentes("ga-bia"), "nova solicitação pendente");
+    }
+}
@@ -0,0 +1,69 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import br.ufal.ic.p2.jackut.Users;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes do {@link IndiceReferencias}: retirar um login devolve uma única vez quem o
+ * referencia, e a reconstrução a partir dos usuários e das caixas de recados devolve o
+ * índice a um estado completo.
+ */
+public class IndiceReferenciasTeste {
+
+    private final IndiceReferencias indice = new IndiceReferencias();
+
+    public void testeRetirarDevolveOsReferenciadores() {
+        indice.registrar("ir-ana", "ir-caio");
+        indice.registrar("ir-bia", "ir-caio");
+        indice.registrar("ir-ana", "ir-caio");
+        indice.registrar("ir-caio", "ir-ana");
+
+        verificarIgual(Set.of("ir-ana", "ir-bia"), logins(indice.retirar("ir-caio")), "referenciadores de Caio");
+        verificar(indice.retirar("ir-caio").vazio(), "referências retiradas devolvidas de novo");
+        verificarIgual(Set.of("ir-caio"), logins(indice.retirar("ir-ana")), "referenciadores de Ana");
+    }
+
+    public void testeRetirarLoginSemReferencias() {
+        verificar(indice.retirar("ir-nunca-referenciado").vazio(), "login sem referências");
+        verificarIgual(DicionarioUsuarios.AUSENTE, DicionarioUsuarios.idExistente("ir-nunca-referenciado"),
+                "retirada registrou o login no dicionário");
+    }
+
+    public void testeReconstruirPercorreRelacoesERecados() {
+        RepositorioUsuariosHeap usuarios = new RepositorioUsuariosHeap();
+        Users ana = new Users("ir-ana", "s", "Ana");
+        Users bia = new Users("ir-bia", "s", "Bia");
+        Users caio = new Users("ir-caio", "s", "Caio");
+        ana.adicionarAmigo("ir-bia");
+        caio.receberRecado("ir-bia", "oi");
+        for (Users usuario : List.of(ana, bia, caio)) {
+            usuarios.salvar(usuario);
+        }
+
+        indice.invalidar();
+        verificar(!indice.completo(), "índice invalidado");
+        indice.reconstruir(usuarios, new RepositorioRecadosUsuarios(usuarios));
+
+        verificar(indice.completo(), "índice reconstruído");
+        verificarIgual(Set.of("ir-ana", "ir-caio"), logins(indice.retirar("ir-bia")), "referenciadores de Bia");
+        verificar(indice.retirar("ir-caio").vazio(), "Caio não é referenciado");
+    }
+
+    public void testeLimparDeixaOIndiceCompletoEVazio() {
+        indice.registrar("ir-ana", "ir-bia");
+        indice.invalidar();
+        indice.limpar();
+
+        verificar(indice.completo(), "índice vazio incompleto");
+        verificar(indice.retirar("ir-bia").vazio(), "referência mantida após limpar");
+    }
+
+    private static Set<String> logins(ConjuntoIds conjunto) {
+        return new TreeSet<>(conjunto.logins());
+    }
+}
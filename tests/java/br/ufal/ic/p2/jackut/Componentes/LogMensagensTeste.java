@@ -0,0 +1,125 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes dos cursores do {@link LogMensagens}: cada membro lê as mensagens publicadas depois
+ * da sua entrada, uma única vez e em ordem, e o registro guarda apenas as mensagens que algum
+ * membro ainda não leu.
+ */
+public class LogMensagensTeste {
+
+    private final LogMensagens log = new LogMensagens();
+
+    public void testeMembroNovoComecaNoFim() {
+        log.entrar(1);
+        log.publicar("a");
+        log.entrar(2);
+        log.publicar("b");
+
+        verificarIgual(2, log.naoLidas(1), "não lidas do primeiro membro");
+        verificarIgual(1, log.naoLidas(2), "não lidas do membro novo");
+        verificarIgual("b", log.ler(2), "primeira leitura do membro novo");
+        verificarIgual(null, log.ler(2), "membro novo sem pendências");
+        verificarIgual("a", log.ler(1), "primeira leitura");
+        verificarIgual("b", log.ler(1), "segunda leitura");
+    }
+
+    public void testeMensagensLidasPorTodosSaoDescartadas() {
+        log.entrar(1);
+        log.entrar(2);
+        log.publicar("a");
+        log.publicar("b");
+
+        log.ler(1);
+        verificarIgual(2, log.tamanho(), "mensagens guardadas com leitura pendente");
+        log.ler(2);
+        verificarIgual(List.of("b"), log.textos(), "mensagem lida por todos descartada");
+        log.sair(2);
+        verificarIgual(List.of("b"), log.textos(), "mensagem ainda pendente para o primeiro membro");
+        log.ler(1);
+        verificarIgual(0, log.tamanho(), "registro vazio");
+        verificarIgual(0, log.naoLidas(2), "membro que saiu");
+    }
+
+    public void testeEntregarAvancaApenasNaProximaMensagem() {
+        log.entrar(1);
+        long primeira = log.publicar("a");
+        long segunda = log.publicar("b");
+        verificar(segunda > primeira, "sequências crescentes");
+
+        verificarIgual(primeira, log.proximaSequencia(1), "próxima sequência");
+        verificar(!log.entregar(1, segunda), "entrega fora de ordem aceita");
+        verificar(log.entregar(1, primeira), "entrega da próxima mensagem");
+        verificarIgual(segunda, log.proximaSequencia(1), "sequência após a entrega");
+        verificarIgual("b", log.ler(1), "leitura após a entrega");
+        verificarIgual(-1L, log.proximaSequencia(1), "sem pendências");
+    }
+
+    public void testeDefinirNaoLidasECopiar() {
+        log.entrar(1);
+        log.entrar(2);
+        log.anexar(100, "a");
+        log.anexar(101, "b");
+        log.anexar(102, "c");
+        log.definirNaoLidas(1, 1);
+        log.definirNaoLidas(2, 5);
+
+        verificarIgual(1, log.naoLidas(1), "não lidas limitadas ao pedido");
+        verificarIgual(3, log.naoLidas(2), "não lidas limitadas ao registro");
+        verificar(log.publicar("d") > 102, "sequência após restaurar");
+
+        LogMensagens copia = log.copiar();
+        verificarIgual("c", log.ler(1), "leitura no original");
+        verificarIgual("c", copia.ler(1), "cópia não acompanha o original");
+        verificarIgual("a", copia.ler(2), "leitura na cópia");
+        verificarIgual(4, log.naoLidas(2), "original não acompanha a cópia");
+    }
+
+    public void testeOperacoesAleatoriasIguaisAFilasPorMembro() {
+        Random aleatorio = new Random(41);
+        Map<Integer, ArrayDeque<String>> modelo = new HashMap<>();
+
+        for (int n = 0; n < 20_000; n++) {
+            int id = aleatorio.nextInt(12);
+            int operacao = aleatorio.nextInt(10);
+            if (operacao < 3) {
+                String texto = "m" + n;
+                log.publicar(texto);
+                for (ArrayDeque<String> fila : modelo.values()) {
+                    fila.add(texto);
+                }
+            } else if (operacao < 8) {
+                ArrayDeque<String> fila = modelo.get(id);
+                verificarIgual(fila == null ? null : fila.poll(), log.ler(id), "leitura de " + id + " na operação " + n);
+            } else if (operacao < 9) {
+                log.entrar(id);
+                modelo.putIfAbsent(id, new ArrayDeque<>());
+            } else {
+                log.sair(id);
+                modelo.remove(id);
+            }
+            int guardadas = 0;
+            for (Map.Entry<Integer, ArrayDeque<String>> membro : modelo.entrySet()) {
+                verificarIgual(membro.getValue().size(), log.naoLidas(membro.getKey()), "não lidas de " + membro.getKey());
+                guardadas = Math.max(guardadas, membro.getValue().size());
+            }
+            verificarIgual(guardadas, log.tamanho(), "mensagens guardadas na operação " + n);
+        }
+        List<String> pendentes = new ArrayList<>();
+        for (int id : modelo.keySet()) {
+            for (String texto; (texto = log.ler(id)) != null; ) {
+                pendentes.add(texto);
+            }
+            verificarIgual(new ArrayList<>(modelo.get(id)), pendentes, "leituras finais de " + id);
+            pendentes.clear();
+        }
+    }
+}
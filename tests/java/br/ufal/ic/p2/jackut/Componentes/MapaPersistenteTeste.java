@@ -0,0 +1,107 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes do {@link MapaPersistente}: operações aleatórias comparadas a um {@link HashMap},
+ * inclusive com chaves de mesmo hash, e versões anteriores que não mudam com as seguintes.
+ */
+public class MapaPersistenteTeste {
+
+    /** Chaves comuns e chaves com o mesmo {@link String#hashCode()} ("Aa" e "BB" colidem). */
+    private static final List<String> CHAVES = new ArrayList<>();
+
+    static {
+        for (int i = 0; i < 300; i++) {
+            CHAVES.add("chave-" + i);
+        }
+        for (int i = 0; i < 16; i++) {
+            StringBuilder colidente = new StringBuilder();
+            for (int bit = 0; bit < 4; bit++) {
+                colidente.append((i >> bit & 1) == 0 ? "Aa" : "BB");
+            }
+            CHAVES.add(colidente.toString());
+        }
+    }
+
+    public void testeOperacoesAleatoriasIguaisAoHashMap() {
+        Random aleatorio = new Random(42);
+        MapaPersistente<String, Integer> mapa = MapaPersistente.vazio();
+        Map<String, Integer> modelo = new HashMap<>();
+        List<MapaPersistente<String, Integer>> versoes = new ArrayList<>();
+        List<Map<String, Integer>> esperadas = new ArrayList<>();
+
+        for (int n = 0; n < 20_000; n++) {
+            String chave = CHAVES.get(aleatorio.nextInt(CHAVES.size()));
+            if (aleatorio.nextInt(10) < 6) {
+                Integer valor = aleatorio.nextInt(1000);
+                mapa = mapa.com(chave, valor);
+                modelo.put(chave, valor);
+            } else {
+                mapa = mapa.sem(chave);
+                modelo.remove(chave);
+            }
+            verificarIgual(modelo.size(), mapa.tamanho(), "tamanho após a operação " + n);
+            verificarIgual(modelo.get(chave), mapa.obter(chave), "valor de " + chave + " após a operação " + n);
+            if (n % 500 == 0) {
+                versoes.add(mapa);
+                esperadas.add(new HashMap<>(modelo));
+            }
+        }
+
+        // As versões guardadas não foram alteradas pelas operações seguintes
+        for (int v = 0; v < versoes.size(); v++) {
+            verificarConteudo(esperadas.get(v), versoes.get(v), "versão " + v);
+        }
+        verificarConteudo(modelo, mapa, "versão final");
+    }
+
+    public void testeChavesDeMesmoHash() {
+        List<String> colidentes = CHAVES.subList(CHAVES.size() - 16, CHAVES.size());
+        MapaPersistente<String, Integer> mapa = MapaPersistente.vazio();
+        for (int i = 0; i < colidentes.size(); i++) {
+            mapa = mapa.com(colidentes.get(i), i);
+        }
+        verificarIgual(16, mapa.tamanho(), "chaves colidentes incluídas");
+        for (int i = 0; i < colidentes.size(); i++) {
+            verificarIgual(i, mapa.obter(colidentes.get(i)), "valor de " + colidentes.get(i));
+        }
+
+        MapaPersistente<String, Integer> completo = mapa;
+        for (int i = 0; i < colidentes.size() - 1; i++) {
+            mapa = mapa.sem(colidentes.get(i));
+        }
+        verificarIgual(1, mapa.tamanho(), "chave colidente restante");
+        verificarIgual(15, mapa.obter(colidentes.get(15)), "valor restante");
+        verificarIgual(16, completo.tamanho(), "versão anterior às remoções");
+        verificarIgual(0, completo.obter(colidentes.get(0)), "chave removida na versão anterior");
+    }
+
+    public void testeOperacoesSemEfeitoDevolvemOMesmoMapa() {
+        Integer valor = 1000;
+        MapaPersistente<String, Integer> mapa = MapaPersistente.<String, Integer>vazio().com("a", valor).com("b", 2);
+
+        verificar(mapa.com("a", valor) == mapa, "associação existente recriou o mapa");
+        verificar(mapa.sem("ausente") == mapa, "remoção de chave ausente recriou o mapa");
+        verificar(mapa.sem("a").sem("b") == MapaPersistente.<String, Integer>vazio(), "mapa esvaziado não é o vazio");
+        verificar(!MapaPersistente.<String, Integer>vazio().contem("a"), "chave no mapa vazio");
+    }
+
+    private static void verificarConteudo(Map<String, Integer> esperado, MapaPersistente<String, Integer> mapa,
+                                          String descricao) {
+        verificarIgual(esperado.size(), mapa.tamanho(), "tamanho da " + descricao);
+        for (String chave : CHAVES) {
+            verificarIgual(esperado.get(chave), mapa.obter(chave), chave + " na " + descricao);
+            verificarIgual(esperado.containsKey(chave), mapa.contem(chave), "presença de " + chave + " na " + descricao);
+        }
+        Map<String, Integer> percorrido = new HashMap<>();
+        mapa.paraCada((chave, valor) -> verificar(percorrido.put(chave, valor) == null, "chave repetida: " + chave));
+        verificarIgual(esperado, percorrido, "associações percorridas na " + descricao);
+    }
+}
@@ -0,0 +1,295 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes das {@link ParticoesUsuarios}: as operações de um usuário são aplicadas pela
+ * executora da sua partição, mesmo enviadas por muitas threads, e as operações entre
+ * partições adquirem as listras dos dois usuários. As executoras terminam no encerramento
+ * sem perder comandos e são reiniciadas pelo comando seguinte.
+ */
+public class ParticoesUsuariosTeste {
+
+    private static final int THREADS = 8;
+    private static final int OPERACOES = 5_000;
+    private static final String[] LOGINS = new String[32];
+
+    static {
+        for (int i = 0; i < LOGINS.length; i++) {
+            LOGINS[i] = "prt-" + i;
+        }
+    }
+
+    private final TravasUsuarios travas = new TravasUsuarios();
+    private final ParticoesUsuarios particoes = new ParticoesUsuarios(travas, 4, () -> { });
+
+    public void testeOperacoesAplicadasPelaExecutoraDaParticao() throws Exception {
+        // Contadores sem sincronização: apenas a executora da partição do usuário os altera,
+        // ou quem detém a sua listra
+        int[] contadores = new int[LOGINS.length];
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long esperadosEntreParticoes = 0;
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<long[]>> resultados = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                resultados.add(executor.submit(() -> {
+                    long[] esperados = new long[LOGINS.length + 1];
+                    ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                    largada.await();
+                    for (int n = 0; n < OPERACOES; n++) {
+                        int a = aleatorio.nextInt(LOGINS.length);
+                        int b = aleatorio.nextInt(LOGINS.length);
+                        String login = LOGINS[a];
+                        String outro = LOGINS[b];
+                        boolean entre = particoes.particao(login) != particoes.particao(outro);
+                        particoes.executar(login, outro, () -> {
+                            verificarIgual("jackut-particao-" + particoes.particao(login),
+                                    Thread.currentThread().getName(), "executora de " + login);
+                            TravasUsuarios.Travamento travamento = travas.travar(login, outro);
+                            try {
+                                contadores[a]++;
+                                if (b != a) {
+                                    contadores[b]++;
+                                }
+                            } finally {
+                                travamento.liberar();
+                            }
+                            return null;
+                        });
+                        esperados[a]++;
+                        if (b != a) {
+                            esperados[b]++;
+                        }
+                        if (entre) {
+                            esperados[LOGINS.length]++;
+                        }
+                    }
+                    return esperados;
+                }));
+            }
+            largada.countDown();
+
+            long[] esperados = new long[LOGINS.length];
+            for (Future<long[]> resultado : resultados) {
+                long[] parcial;
+                try {
+                    parcial = resultado.get(60, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    throw new AssertionError("impasse: operações não terminaram em 60 s");
+                }
+                for (int i = 0; i < LOGINS.length; i++) {
+                    esperados[i] += parcial[i];
+                }
+                esperadosEntreParticoes += parcial[LOGINS.length];
+            }
+            // Lidos sob a trava exclusiva, depois de todas as executoras liberarem as listras
+            TravasUsuarios.Travamento travamento = travas.travarTudo();
+            try {
+                for (int i = 0; i < LOGINS.length; i++) {
+                    verificarIgual(esperados[i], (long) contadores[i], "operações sobre " + LOGINS[i]);
+                }
+            } finally {
+                travamento.liberar();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verificarIgual((long) THREADS * OPERACOES, particoes.getComandosAplicados(), "comandos aplicados");
+        verificarIgual(esperadosEntreParticoes, particoes.getOperacoesEntreParticoes(), "operações entre partições");
+        long soma = 0;
+        for (int i = 0; i < particoes.quantidade(); i++) {
+            soma += particoes.getComandosAplicados(i);
+        }
+        verificarIgual(particoes.getComandosAplicados(), soma, "soma dos comandos por partição");
+    }
+
+    public void testeMigracaoMudaAExecutora() throws Exception {
+        String login = LOGINS[0];
+        int destino = (particoes.particao(login) + 1) % particoes.quantidade();
+
+        TravasUsuarios.Travamento travamento = travas.travarTudo();
+        try {
+            verificarIgual(1, particoes.migrar(Map.of(login, destino)), "usuários migrados");
+            verificarIgual(0, particoes.migrar(Map.of(login, destino)), "migração repetida");
+        } finally {
+            travamento.liberar();
+        }
+
+        verificarIgual(destino, particoes.particao(login), "partição após a migração");
+        verificarIgual("jackut-particao-" + destino,
+                particoes.executar(login, null, () -> Thread.currentThread().getName()), "executora após a migração");
+        verificarIgual(travas.listraOriginal(login) & ~(particoes.quantidade() - 1),
+                travas.listra(login) & ~(particoes.quantidade() - 1), "bits da listra original mantidos");
+    }
+
+    public void testeMigracoesDuranteAsOperacoes() throws Exception {
+        int[] contadores = new int[LOGINS.length];
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<long[]>> resultados = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                resultados.add(executor.submit(() -> {
+                    long[] esperados = new long[LOGINS.length];
+                    ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                    for (int n = 0; n < OPERACOES; n++) {
+                        int a = aleatorio.nextInt(LOGINS.length);
+                        int b = aleatorio.nextInt(LOGINS.length);
+                        // Comandos já enfileirados na partição anterior adquirem a nova listra
+                        particoes.executar(LOGINS[a], LOGINS[b], () -> {
+                            TravasUsuarios.Travamento travamento = travas.travar(LOGINS[a], LOGINS[b]);
+                            try {
+                                contadores[a]++;
+                                if (b != a) {
+                                    contadores[b]++;
+                                }
+                            } finally {
+                                travamento.liberar();
+                            }
+                            return null;
+                        });
+                        esperados[a]++;
+                        if (b != a) {
+                            esperados[b]++;
+                        }
+                    }
+                    return esperados;
+                }));
+            }
+            ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+            for (int m = 0; m < 200; m++) {
+                TravasUsuarios.Travamento travamento = travas.travarTudo();
+                try {
+                    particoes.migrar(Map.of(LOGINS[aleatorio.nextInt(LOGINS.length)],
+                            aleatorio.nextInt(particoes.quantidade())));
+                } finally {
+                    travamento.liberar();
+                }
+                Thread.yield();
+            }
+
+            long[] esperados = new long[LOGINS.length];
+            for (Future<long[]> resultado : resultados) {
+                long[] parcial;
+                try {
+                    parcial = resultado.get(60, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    throw new AssertionError("impasse: operações não terminaram em 60 s");
+                }
+                for (int i = 0; i < LOGINS.length; i++) {
+                    esperados[i] += parcial[i];
+                }
+            }
+            TravasUsuarios.Travamento travamento = travas.travarTudo();
+            try {
+                for (int i = 0; i < LOGINS.length; i++) {
+                    verificarIgual(esperados[i], (long) contadores[i], "operações sobre " + LOGINS[i]);
+                }
+            } finally {
+                travamento.liberar();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testeSemLoginAplicaNaThreadChamadora() throws Exception {
+        Thread chamadora = Thread.currentThread();
+        verificar(particoes.executar(null, null, () -> Thread.currentThread() == chamadora), "aplicado na chamadora");
+        verificarIgual(0L, particoes.getComandosAplicados(), "nenhum comando enfileirado");
+    }
+
+    public void testeExcecoesChegamAoChamador() throws Exception {
+        IOException falha = new IOException("falha do comando");
+        IOException lancada = verificarExcecao(IOException.class, () -> particoes.executar(LOGINS[1], null, () -> {
+            throw falha;
+        }));
+        verificar(lancada == falha, "exceção relançada sem alteração");
+
+        IllegalStateException conclusao = new IllegalStateException("journal indisponível");
+        ParticoesUsuarios falhando = new ParticoesUsuarios(new TravasUsuarios(), 2, () -> {
+            throw conclusao;
+        });
+        verificar(verificarExcecao(IllegalStateException.class,
+                () -> falhando.executar(LOGINS[2], null, () -> "aplicado")) == conclusao,
+                "chamador recebe a falha da conclusão do lote");
+    }
+
+    public void testeEncerrarTerminaAsExecutoras() throws Exception {
+        verificarIgual(0, particoes.executorasAtivas(), "executoras iniciadas antes do primeiro comando");
+        for (String login : LOGINS) {
+            particoes.executar(login, null, () -> null);
+        }
+        verificarIgual(particoes.quantidade(), particoes.executorasAtivas(), "executoras iniciadas pelos comandos");
+
+        particoes.encerrar();
+        verificarIgual(0, particoes.executorasAtivas(), "executoras ativas após o encerramento");
+
+        // Um comando depois do encerramento inicia apenas a executora da sua partição
+        verificarIgual("ok", particoes.executar(LOGINS[0], null, () -> "ok"), "comando após o encerramento");
+        verificarIgual(1, particoes.executorasAtivas(), "executoras reiniciadas");
+        particoes.encerrar();
+        verificarIgual(0, particoes.executorasAtivas(), "executora ativa após o segundo encerramento");
+    }
+
+    public void testeEncerramentosConcorrentesNaoPerdemComandos() throws Exception {
+        int[] contadores = new int[LOGINS.length];
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            List<Future<?>> resultados = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                resultados.add(executor.submit(() -> {
+                    ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                    for (int n = 0; n < OPERACOES / 5; n++) {
+                        int a = aleatorio.nextInt(LOGINS.length);
+                        particoes.executar(LOGINS[a], null, () -> {
+                            TravasUsuarios.Travamento travamento = travas.travar(LOGINS[a], null);
+                            try {
+                                return ++contadores[a];
+                            } finally {
+                                travamento.liberar();
+                            }
+                        });
+                    }
+                    return null;
+                }));
+            }
+            Future<?> encerramentos = executor.submit(() -> {
+                while (!resultados.stream().allMatch(Future::isDone)) {
+                    particoes.encerrar();
+                    Thread.yield();
+                }
+                return null;
+            });
+            for (Future<?> resultado : resultados) {
+                try {
+                    resultado.get(60, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    throw new AssertionError("comando perdido durante um encerramento");
+                }
+            }
+            encerramentos.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        particoes.encerrar();
+        int total = 0;
+        for (int contador : contadores) {
+            total += contador;
+        }
+        verificarIgual(THREADS * (OPERACOES / 5), total, "comandos aplicados");
+        verificarIgual(0, particoes.executorasAtivas(), "executoras ativas após o encerramento");
+    }
+}
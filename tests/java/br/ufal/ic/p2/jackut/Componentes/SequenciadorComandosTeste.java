@@ -0,0 +1,198 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes do {@link SequenciadorComandos}: com muitos produtores e uma fila pequena, cada
+ * comando é aplicado exatamente uma vez, na ordem em que o seu produtor o enfileirou, com a
+ * trava adquirida; as exceções dos comandos e da conclusão do lote chegam aos produtores. A
+ * escritora termina no encerramento sem perder comandos e é reiniciada pelo comando seguinte.
+ */
+public class SequenciadorComandosTeste {
+
+    private static final int PRODUTORES = 8;
+    private static final int COMANDOS = 5_000;
+
+    private final ReentrantLock trava = new ReentrantLock();
+
+    public void testeComandosAplicadosUmaVezNaOrdemDeCadaProdutor() throws Exception {
+        // Fila bem menor que a quantidade de produtores e comandos: dá várias voltas e enche
+        System.setProperty("jackut.sequenciador.capacidade", "8");
+        SequenciadorComandos sequenciador;
+        try {
+            sequenciador = new SequenciadorComandos(trava, () -> { });
+        } finally {
+            System.clearProperty("jackut.sequenciador.capacidade");
+        }
+        // Lida e alterada apenas pela escritora
+        List<long[]> aplicados = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUTORES);
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<?>> resultados = new ArrayList<>();
+            for (int p = 0; p < PRODUTORES; p++) {
+                long produtor = p;
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    for (long n = 0; n < COMANDOS; n++) {
+                        long numero = n;
+                        long devolvido = sequenciador.executar(() -> {
+                            verificar(trava.isHeldByCurrentThread(), "comando aplicado sem a trava");
+                            aplicados.add(new long[]{produtor, numero});
+                            return numero;
+                        });
+                        verificarIgual(numero, devolvido, "resultado do comando");
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> resultado : resultados) {
+                try {
+                    resultado.get(60, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    throw new AssertionError("produtores não terminaram em 60 s");
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // A última conclusão publicou a lista junto com os resultados
+        verificarIgual((long) PRODUTORES * COMANDOS, (long) aplicados.size(), "comandos aplicados");
+        verificarIgual((long) PRODUTORES * COMANDOS, sequenciador.getComandosAplicados(), "contador de comandos");
+        long[] proximo = new long[PRODUTORES];
+        for (long[] aplicado : aplicados) {
+            int produtor = (int) aplicado[0];
+            verificarIgual(proximo[produtor], aplicado[1], "ordem dos comandos do produtor " + produtor);
+            proximo[produtor]++;
+        }
+        verificar(sequenciador.getLotesAplicados() <= sequenciador.getComandosAplicados(), "lotes a mais que comandos");
+    }
+
+    public void testeExcecaoDoComandoChegaAoProdutor() throws Exception {
+        SequenciadorComandos sequenciador = new SequenciadorComandos(trava, () -> { });
+        IOException falha = new IOException("falha do comando");
+
+        IOException lancada = verificarExcecao(IOException.class, () -> sequenciador.executar(() -> {
+            throw falha;
+        }));
+        verificar(lancada == falha, "exceção relançada sem alteração");
+        verificarExcecao(AssertionError.class, () -> sequenciador.executar(() -> {
+            throw new AssertionError("erro do comando");
+        }));
+        // A escritora segue aplicando os comandos seguintes
+        verificarIgual("ok", sequenciador.executar(() -> "ok"), "comando após as falhas");
+    }
+
+    public void testeFalhaNaConclusaoDoLoteChegaAosProdutores() throws Exception {
+        IllegalStateException falha = new IllegalStateException("journal indisponível");
+        SequenciadorComandos sequenciador = new SequenciadorComandos(trava, () -> {
+            throw falha;
+        });
+
+        IllegalStateException lancada = verificarExcecao(IllegalStateException.class,
+                () -> sequenciador.executar(() -> "aplicado"));
+        verificar(lancada == falha, "produtor recebe a falha da conclusão");
+        // A exceção do próprio comando prevalece sobre a da conclusão
+        verificarExcecao(IOException.class, () -> sequenciador.executar(() -> {
+            throw new IOException("falha do comando");
+        }));
+    }
+
+    public void testeComandoAninhadoAplicadoNaHora() throws Exception {
+        SequenciadorComandos[] sequenciador = new SequenciadorComandos[1];
+        sequenciador[0] = new SequenciadorComandos(trava, () -> { });
+
+        String resultado = sequenciador[0].executar(() -> sequenciador[0].executar(() -> "aninhado"));
+
+        verificarIgual("aninhado", resultado, "resultado do comando aninhado");
+        verificarIgual(1L, sequenciador[0].getComandosAplicados(), "comando aninhado não é enfileirado");
+    }
+
+    public void testeEncerrarTerminaAEscritora() throws Exception {
+        SequenciadorComandos sequenciador = new SequenciadorComandos(trava, () -> { });
+        verificar(!sequenciador.ativo(), "escritora iniciada antes do primeiro comando");
+        sequenciador.executar(() -> "primeiro");
+        verificar(sequenciador.ativo(), "escritora não iniciada pelo comando");
+
+        sequenciador.encerrar();
+        verificar(!sequenciador.ativo(), "escritora ativa após o encerramento");
+
+        // Um comando depois do encerramento inicia outra escritora
+        verificarIgual("depois", sequenciador.executar(() -> "depois"), "comando após o encerramento");
+        sequenciador.encerrar();
+        verificar(!sequenciador.ativo(), "segunda escritora ativa após o encerramento");
+    }
+
+    public void testeEncerrarPorUmComando() throws Exception {
+        SequenciadorComandos sequenciador = new SequenciadorComandos(trava, () -> { });
+
+        sequenciador.executar(() -> {
+            sequenciador.encerrar();
+            return null;
+        });
+
+        aguardarTermino(sequenciador);
+        verificarIgual("ok", sequenciador.executar(() -> "ok"), "comando após o encerramento pela escritora");
+        sequenciador.encerrar();
+    }
+
+    public void testeEncerramentosConcorrentesNaoPerdemComandos() throws Exception {
+        SequenciadorComandos sequenciador = new SequenciadorComandos(trava, () -> { });
+        long[] aplicados = new long[1];
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUTORES + 1);
+        try {
+            List<Future<?>> resultados = new ArrayList<>();
+            for (int p = 0; p < PRODUTORES; p++) {
+                resultados.add(executor.submit(() -> {
+                    for (int n = 0; n < COMANDOS / 5; n++) {
+                        sequenciador.executar(() -> ++aplicados[0]);
+                    }
+                    return null;
+                }));
+            }
+            Future<?> encerramentos = executor.submit(() -> {
+                while (!resultados.stream().allMatch(Future::isDone)) {
+                    sequenciador.encerrar();
+                    Thread.yield();
+                }
+                return null;
+            });
+            for (Future<?> resultado : resultados) {
+                try {
+                    resultado.get(60, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    throw new AssertionError("comando perdido durante um encerramento");
+                }
+            }
+            encerramentos.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        sequenciador.encerrar();
+        verificarIgual((long) PRODUTORES * (COMANDOS / 5), aplicados[0], "comandos aplicados");
+        verificar(!sequenciador.ativo(), "escritora ativa após o encerramento");
+    }
+
+    /** Espera a escritora terminar, por até 10 s. */
+    private static void aguardarTermino(SequenciadorComandos sequenciador) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (sequenciador.ativo()) {
+            verificar(System.nanoTime() < limite, "escritora não terminou em 10 s");
+            Thread.sleep(1);
+        }
+    }
+}
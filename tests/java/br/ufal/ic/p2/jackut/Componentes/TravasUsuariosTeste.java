@@ -0,0 +1,164 @@
+package br.ufal.ic.p2.jackut.Componentes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes de concorrência das {@link TravasUsuarios}: exclusão mútua por listra, ausência de
+ * impasse entre operações que adquirem os mesmos dois usuários em ordens opostas e exclusão
+ * da trava global.
+ */
+public class TravasUsuariosTeste {
+
+    private static final int THREADS = 8;
+    private static final int OPERACOES = 20_000;
+    private static final String[] LOGINS = new String[24];
+
+    static {
+        for (int i = 0; i < LOGINS.length; i++) {
+            LOGINS[i] = "trv-" + i;
+        }
+    }
+
+    private final TravasUsuarios travas = new TravasUsuarios();
+
+    public void testeOrdensOpostasSemImpasseNemPerdaDeIncrementos() throws Exception {
+        // Contadores sem sincronização própria: apenas as listras os protegem
+        int[] contadores = new int[LOGINS.length];
+        int[] tudo = new int[1];
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<long[]>> resultados = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                boolean invertida = t % 2 == 1;
+                resultados.add(executor.submit(() -> {
+                    long[] esperados = new long[LOGINS.length + 1];
+                    ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                    largada.await();
+                    for (int n = 0; n < OPERACOES; n++) {
+                        int a = aleatorio.nextInt(LOGINS.length);
+                        int b = aleatorio.nextInt(LOGINS.length);
+                        if (n % 500 == 0) {
+                            TravasUsuarios.Travamento travamento = travas.travarTudo();
+                            try {
+                                tudo[0]++;
+                            } finally {
+                                travamento.liberar();
+                            }
+                            esperados[LOGINS.length]++;
+                            continue;
+                        }
+                        TravasUsuarios.Travamento travamento = invertida
+                                ? travas.travar(LOGINS[b], LOGINS[a])
+                                : travas.travar(LOGINS[a], LOGINS[b]);
+                        try {
+                            contadores[a]++;
+                            if (b != a) {
+                                contadores[b]++;
+                            }
+                        } finally {
+                            travamento.liberar();
+                        }
+                        esperados[a]++;
+                        if (b != a) {
+                            esperados[b]++;
+                        }
+                    }
+                    return esperados;
+                }));
+            }
+            largada.countDown();
+
+            long[] esperados = new long[LOGINS.length + 1];
+            for (Future<long[]> resultado : resultados) {
+                long[] parcial;
+                try {
+                    parcial = resultado.get(60, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    throw new AssertionError("impasse: operações não terminaram em 60 s");
+                }
+                for (int i = 0; i < esperados.length; i++) {
+                    esperados[i] += parcial[i];
+                }
+            }
+            for (int i = 0; i < LOGINS.length; i++) {
+                verificarIgual(esperados[i], (long) contadores[i], "incrementos de " + LOGINS[i]);
+            }
+            verificarIgual(esperados[LOGINS.length], (long) tudo[0], "incrementos com a trava global");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testeTravarTudoExcluiOperacoesSobreUsuarios() throws Exception {
+        CountDownLatch adquiriu = new CountDownLatch(1);
+        Thread operacao = new Thread(() -> {
+            TravasUsuarios.Travamento travamento = travas.travar("trv-ana", "trv-bia");
+            adquiriu.countDown();
+            travamento.liberar();
+        });
+
+        TravasUsuarios.Travamento global = travas.travarTudo();
+        try {
+            operacao.start();
+            verificar(!adquiriu.await(200, TimeUnit.MILLISECONDS), "listras adquiridas com a trava global exclusiva");
+        } finally {
+            global.liberar();
+        }
+        verificar(adquiriu.await(5, TimeUnit.SECONDS), "operação não prosseguiu após a liberação");
+        operacao.join();
+    }
+
+    public void testeMesmaListraAdquiridaUmaVez() throws Exception {
+        String login = LOGINS[0];
+        String outro = null;
+        for (int i = 0; outro == null; i++) {
+            String candidato = "trv-mesma-" + i;
+            if (travas.listra(candidato) == travas.listra(login)) {
+                outro = candidato;
+            }
+        }
+        TravasUsuarios.Travamento travamento = travas.travar(login, outro);
+        travamento.liberar();
+
+        // Se a listra tivesse sido adquirida duas vezes, continuaria detida por esta thread
+        String segundo = outro;
+        Thread outra = new Thread(() -> travas.travar(login, segundo).liberar());
+        outra.start();
+        outra.join(5_000);
+        verificar(!outra.isAlive(), "listra compartilhada não foi liberada");
+    }
+
+    public void testeOperacaoExclusivaRecusadaDentroDoLote() {
+        travas.executarEmLote(() -> {
+            verificarExcecao(IllegalStateException.class, travas::travarTudo);
+            // As operações do lote adquirem apenas as listras
+            travas.travar("trv-ana", "trv-bia").liberar();
+        });
+        travas.travarTudo().liberar();
+    }
+
+    public void testeRealocacaoMudaAListra() {
+        String login = "trv-realocado";
+        int original = travas.listraOriginal(login);
+        int destino = (original + 1) % travas.quantidadeListras();
+
+        travas.realocar(login, destino);
+        verificarIgual(destino, travas.listra(login), "listra realocada");
+        verificarIgual(1, travas.quantidadeRealocados(), "logins realocados");
+
+        travas.realocar(login, -1);
+        verificarIgual(original, travas.listra(login), "listra original restaurada");
+        verificarIgual(0, travas.quantidadeRealocados(), "realocação desfeita");
+    }
+}
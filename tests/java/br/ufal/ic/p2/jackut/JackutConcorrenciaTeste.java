@@ -0,0 +1,289 @@
+package br.ufal.ic.p2.jackut;
+
+import br.ufal.ic.p2.jackut.Exceptions.SemMensagemException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes de concorrência do sistema pela {@link Facade}: várias threads pedem amizade umas às
+ * outras em ordens opostas, trocam recados e entram na mesma comunidade; ao fim, todas as
+ * operações devem ter sido aplicadas exatamente uma vez, sem impasse. Comunidades diferentes
+ * recebem membros e mensagens em paralelo, e cada leitor recebe as mensagens de cada
+ * comunidade uma única vez, em ordem de envio. O encerramento do
+ * sistema termina as threads que aplicam as operações.
+ */
+public class JackutConcorrenciaTeste {
+
+    /** Propriedades de configuração alteradas pelos testes, retiradas ao fim de cada um. */
+    private static final String[] PROPRIEDADES = {"jackut.sequenciador", "jackut.particoes"};
+
+    private static final int THREADS = 8;
+    private static final int USUARIOS = 24;
+    private static final String COMUNIDADE = "cc-com";
+    private static final int MENSAGENS = 50;
+
+    public JackutConcorrenciaTeste() throws Exception {
+        System.setProperty("jackut.diretorio", diretorioTemporario().getPath());
+        limparPropriedades();
+    }
+
+    public void testeOperacoesConcorrentesComListras() throws Exception {
+        exercitar();
+    }
+
+    public void testeOperacoesConcorrentesComSequenciador() throws Exception {
+        System.setProperty("jackut.sequenciador", "true");
+        exercitar();
+    }
+
+    public void testeOperacoesConcorrentesEmParticoes() throws Exception {
+        System.setProperty("jackut.particoes", "4");
+        exercitar();
+    }
+
+    public void testeComunidadesConcorrentes() throws Exception {
+        Facade facade = new Facade();
+        try {
+            String[] logins = new String[USUARIOS];
+            String[] sessoes = new String[USUARIOS];
+            for (int i = 0; i < USUARIOS; i++) {
+                logins[i] = "cc-" + i;
+                facade.criarUsuario(logins[i], "s", "Usuário " + i);
+                sessoes[i] = facade.abrirSessao(logins[i], "s");
+            }
+
+            // Cada thread cria a sua comunidade e põe nela os seus usuários e os das outras
+            executar(thread -> {
+                facade.criarComunidade(sessoes[thread], "cc-com-" + thread, "Comunidade " + thread);
+            });
+            executar(thread -> {
+                for (int i = thread; i < USUARIOS; i += THREADS) {
+                    for (int c = 0; c < THREADS; c++) {
+                        if (c != i) {
+                            facade.adicionarComunidade(sessoes[i], "cc-com-" + c);
+                        }
+                    }
+                }
+            });
+
+            // Os donos enviam enquanto todos leem; cada comunidade entrega em ordem de envio
+            List<List<String>> lidas = new ArrayList<>();
+            for (int i = 0; i < USUARIOS; i++) {
+                lidas.add(new ArrayList<>());
+            }
+            executar(thread -> {
+                for (int n = 0; n < MENSAGENS; n++) {
+                    facade.enviarMensagem(sessoes[thread], "cc-com-" + thread, thread + ":" + n);
+                    for (int i = thread; i < USUARIOS; i += THREADS) {
+                        lerMensagens(facade, sessoes[i], lidas.get(i));
+                    }
+                }
+            });
+            for (int i = 0; i < USUARIOS; i++) {
+                lerMensagens(facade, sessoes[i], lidas.get(i));
+                verificarIgual(THREADS * MENSAGENS, lidas.get(i).size(), "mensagens lidas por " + logins[i]);
+                int[] proxima = new int[THREADS];
+                for (String mensagem : lidas.get(i)) {
+                    String[] partes = mensagem.split(":");
+                    int comunidade = Integer.parseInt(partes[0]);
+                    verificarIgual(proxima[comunidade]++, Integer.parseInt(partes[1]),
+                            "ordem da comunidade " + comunidade + " para " + logins[i]);
+                }
+            }
+            for (int c = 0; c < THREADS; c++) {
+                verificarIgual(new TreeSet<>(Arrays.asList(logins)),
+                        elementos(facade.getMembrosComunidade("cc-com-" + c)), "membros de cc-com-" + c);
+            }
+        } finally {
+            facade.zerarSistema();
+            facade.encerrarSistema();
+            limparPropriedades();
+        }
+    }
+
+    public void testeEncerrarTerminaOSequenciador() throws Exception {
+        System.setProperty("jackut.sequenciador", "true");
+        try {
+            Jackut sistema = Jackut.iniciarSistema();
+            sistema.escrever(() -> {
+                sistema.criarUsuario("cc-enc", "s", "Enc");
+                return null;
+            });
+            verificar(sistema.getSequenciador().ativo(), "escritora não iniciada");
+
+            sistema.zerarSistema();
+            verificar(!sistema.getSequenciador().ativo(), "escritora ativa após zerarSistema");
+            sistema.escrever(() -> {
+                sistema.criarUsuario("cc-enc", "s", "Enc");
+                return null;
+            });
+            sistema.encerrarSistema();
+            verificar(!sistema.getSequenciador().ativo(), "escritora ativa após encerrarSistema");
+            sistema.zerarSistema();
+        } finally {
+            limparPropriedades();
+        }
+    }
+
+    public void testeEncerrarTerminaAsParticoes() throws Exception {
+        System.setProperty("jackut.particoes", "4");
+        try {
+            Jackut sistema = Jackut.iniciarSistema();
+            sistema.criarUsuario("cc-part", "s", "Part");
+            String sessao = sistema.abrirSessao("cc-part", "s");
+            sistema.escreverNaSessao(sessao, null, () -> {
+                sistema.editarPerfil(sessao, "cidade", "Maceió");
+                return null;
+            });
+            verificarIgual(1, sistema.getParticoes().executorasAtivas(), "executoras iniciadas");
+
+            sistema.encerrarSistema();
+            verificarIgual(0, sistema.getParticoes().executorasAtivas(), "executoras ativas após encerrarSistema");
+            sistema.zerarSistema();
+        } finally {
+            limparPropriedades();
+        }
+    }
+
+    /**
+     * Cria os usuários e a comunidade, executa as operações concorrentes e verifica o estado
+     * final: todos os pares são amigos, cada usuário recebeu um recado de cada outro e todos
+     * são membros da comunidade.
+     */
+    private void exercitar() throws Exception {
+        Facade facade = new Facade();
+        try {
+            String[] logins = new String[USUARIOS];
+            String[] sessoes = new String[USUARIOS];
+            for (int i = 0; i < USUARIOS; i++) {
+                logins[i] = "cc-" + i;
+                facade.criarUsuario(logins[i], "s", "Usuário " + i);
+                sessoes[i] = facade.abrirSessao(logins[i], "s");
+            }
+            facade.criarComunidade(sessoes[0], COMUNIDADE, "Comunidade");
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                CountDownLatch largada = new CountDownLatch(1);
+                List<Future<?>> resultados = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    int thread = t;
+                    resultados.add(executor.submit(() -> {
+                        largada.await();
+                        // Cada thread age pelos seus usuários; o outro lado de cada par pede
+                        // amizade pela sua própria thread, na ordem inversa
+                        for (int i = thread; i < USUARIOS; i += THREADS) {
+                            for (int j = 0; j < USUARIOS; j++) {
+                                if (j != i) {
+                                    facade.adicionarAmigo(sessoes[i], logins[j]);
+                                    facade.enviarRecado(sessoes[i], logins[j], "de " + logins[i]);
+                                }
+                            }
+                            if (i != 0) {
+                                facade.adicionarComunidade(sessoes[i], COMUNIDADE);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                largada.countDown();
+                for (Future<?> resultado : resultados) {
+                    try {
+                        resultado.get(120, TimeUnit.SECONDS);
+                    } catch (TimeoutException e) {
+                        throw new AssertionError("impasse: operações não terminaram em 120 s");
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            for (int i = 0; i < USUARIOS; i++) {
+                Set<String> outros = new TreeSet<>(Arrays.asList(logins));
+                outros.remove(logins[i]);
+                verificarIgual(outros, elementos(facade.getAmigos(logins[i])), "amigos de " + logins[i]);
+                verificarIgual("{}", facade.getSolicitacoesPendentes(logins[i]), "pendentes de " + logins[i]);
+
+                Set<String> recebidos = new HashSet<>();
+                for (int n = 0; n < USUARIOS - 1; n++) {
+                    verificar(recebidos.add(facade.lerRecado(sessoes[i])), "recado duplicado para " + logins[i]);
+                }
+                verificarIgual(USUARIOS - 1, recebidos.size(), "recados de " + logins[i]);
+            }
+            verificarIgual(new TreeSet<>(Arrays.asList(logins)), elementos(facade.getMembrosComunidade(COMUNIDADE)),
+                    "membros da comunidade");
+        } finally {
+            facade.zerarSistema();
+            facade.encerrarSistema();
+            limparPropriedades();
+        }
+    }
+
+    /** Executa a tarefa em {@link #THREADS} threads, com o índice de cada uma, e aguarda o fim. */
+    private static void executar(Tarefa tarefa) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<?>> resultados = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    tarefa.executar(thread);
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> resultado : resultados) {
+                try {
+                    resultado.get(120, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    throw new AssertionError("impasse: operações não terminaram em 120 s");
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Lê as mensagens de comunidade disponíveis na sessão. */
+    private static void lerMensagens(Facade facade, String sessao, List<String> lidas) throws Exception {
+        while (true) {
+            try {
+                lidas.add(facade.lerMensagem(sessao));
+            } catch (SemMensagemException e) {
+                return;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Tarefa {
+        void executar(int thread) throws Exception;
+    }
+
+    /** Elementos de uma listagem no formato {@code {a,b,c}}. */
+    private static Set<String> elementos(String listagem) {
+        String conteudo = listagem.substring(1, listagem.length() - 1);
+        return conteudo.isEmpty() ? new TreeSet<>() : new TreeSet<>(Arrays.asList(conteudo.split(",")));
+    }
+
+    private static void limparPropriedades() {
+        for (String propriedade : PROPRIEDADES) {
+            System.clearProperty(propriedade);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package br.ufal.ic.p2.jackut;
+
+import br.ufal.ic.p2.jackut.Exceptions.SemRecadoException;
+import br.ufal.ic.p2.jackut.Exceptions.UsuarioJaEhPaqueraException;
+import br.ufal.ic.p2.jackut.Exceptions.UsuarioNaoEncontradoException;
+import br.ufal.ic.p2.jackut.Persistencia.Journal;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes de recuperação do sistema pelo journal: o estado visto antes de uma queda (o
+ * sistema não é encerrado) deve ser o mesmo depois de {@link Jackut#iniciarSistema()}
+ * reproduzir o journal. Uma operação que falha na reprodução interrompe a inicialização, e
+ * uma operação que o journal não registrou não altera o estado.
+ */
+public class JackutJournalTeste {
+
+    private final File diretorio;
+
+    public JackutJournalTeste() throws Exception {
+        diretorio = diretorioTemporario();
+        System.setProperty("jackut.diretorio", diretorio.getPath());
+    }
+
+    public void testeOperacoesSobrevivemAQueda() throws Exception {
+        Jackut antes = Jackut.iniciarSistema();
+        antes.criarUsuario("jrn-ana", "s", "Ana");
+        antes.criarUsuario("jrn-bia", "s", "Bia");
+        String sessao = antes.abrirSessao("jrn-ana", "s");
+        antes.editarPerfil(sessao, "cidade", "Maceió");
+        antes.adicionarAmigo(sessao, "jrn-bia");
+        antes.enviarRecado(sessao, "jrn-bia", "oi");
+        antes.confirmarJournal();
+
+        Jackut depois = Jackut.iniciarSistema();
+        verificarIgual("Maceió", depois.getAtributoUsuario("jrn-ana", "cidade"), "atributo reproduzido");
+        verificarIgual("{jrn-ana}", depois.getSolicitacoesPendentes("jrn-bia"), "solicitação reproduzida");
+        verificarIgual("oi", depois.lerRecado(depois.abrirSessao("jrn-bia", "s")), "recado reproduzido");
+    }
+
+    public void testePaqueraRepetidaNaoDeixaRecadosForaDoJournal() throws Exception {
+        Jackut antes = Jackut.iniciarSistema();
+        antes.criarUsuario("jrn-caio", "s", "Caio");
+        antes.criarUsuario("jrn-dani", "s", "Dani");
+        String caio = antes.abrirSessao("jrn-caio", "s");
+        String dani = antes.abrirSessao("jrn-dani", "s");
+        antes.adicionarPaquera(caio, "jrn-dani");
+        antes.adicionarPaquera(dani, "jrn-caio");
+        verificarExcecao(UsuarioJaEhPaqueraException.class, () -> antes.adicionarPaquera(dani, "jrn-caio"));
+        antes.confirmarJournal();
+
+        Jackut depois = Jackut.iniciarSistema();
+        verificarIgual(recados(antes, caio), recados(depois, caio), "recados de Caio após a reprodução");
+        verificarIgual(recados(antes, dani), recados(depois, dani), "recados de Dani após a reprodução");
+    }
+
+    public void testeRegistroQueFalhaInterrompeAInicializacao() throws Exception {
+        Journal journal = new Journal(new File(diretorio, "arquivo.journal").getPath(), 1);
+        try {
+            journal.registrar(Journal.Operacao.CRIAR_USUARIO, "jrn-eva", "s", "Eva");
+            journal.registrar(Journal.Operacao.CRIAR_USUARIO, "jrn-eva", "s", "Eva");
+        } finally {
+            journal.close();
+        }
+
+        IllegalStateException falha = verificarExcecao(IllegalStateException.class, Jackut::iniciarSistema);
+        verificar(falha.getMessage().contains("registro 2"), "falha informa o LSN: " + falha.getMessage());
+    }
+
+    public void testeFalhaDoJournalNaoAlteraOEstado() throws Exception {
+        Jackut sistema = Jackut.iniciarSistema();
+        // Um diretório no lugar do arquivo impede a abertura do journal
+        verificar(new File(diretorio, "arquivo.journal").mkdir(), "diretório criado");
+
+        verificarExcecao(UncheckedIOException.class, () -> sistema.criarUsuario("jrn-fabi", "s", "Fabi"));
+        verificarExcecao(UncheckedIOException.class, () -> sistema.criarComunidade("jrn-c", "d", "jrn-fabi"));
+        verificarExcecao(UsuarioNaoEncontradoException.class,
+                () -> sistema.getAtributoUsuario("jrn-fabi", "nome"));
+        verificar(!sistema.existeComunidade("jrn-c"), "comunidade não criada");
+    }
+
+    private static List<String> recados(Jackut sistema, String sessao) throws Exception {
+        List<String> lidos = new ArrayList<>();
+        while (true) {
+            try {
+                lidos.add(sistema.lerRecado(sessao));
+            } catch (SemRecadoException e) {
+                return lidos;
+            }
+        }
+    }
+}
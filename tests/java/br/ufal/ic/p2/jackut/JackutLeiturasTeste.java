@@ -0,0 +1,108 @@
+package br.ufal.ic.p2.jackut;
+
+import br.ufal.ic.p2.jackut.Exceptions.UsuarioNaoEncontradoException;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes das consultas de relacionamentos servidas pela versão de leitura
+ * ({@link Jackut#getVersaoLeitura()}): devem refletir cada escrita assim que ela retorna e
+ * deixar de ver um usuário removido, inclusive enquanto o expurgo das suas referências
+ * publica novas versões.
+ */
+public class JackutLeiturasTeste {
+
+    private final Jackut sistema = new Jackut();
+
+    public void testeConsultasUsamAVersaoDeLeitura() {
+        verificar(sistema.getVersaoLeitura() != null, "usuários no heap publicam versões de leitura");
+    }
+
+    public void testeRelacionamentosRefletemAsEscritas() throws Exception {
+        sistema.criarUsuario("lt-ana", "s", "Ana");
+        sistema.criarUsuario("lt-bia", "s", "Bia");
+        String ana = sistema.abrirSessao("lt-ana", "s");
+        String bia = sistema.abrirSessao("lt-bia", "s");
+
+        sistema.adicionarAmigo(ana, "lt-bia");
+        verificarIgual("{lt-ana}", sistema.getSolicitacoesPendentes("lt-bia"), "solicitação pendente");
+        verificar(!sistema.ehAmigoMutuo("lt-ana", "lt-bia"), "amizade ainda não aceita");
+
+        sistema.adicionarAmigo(bia, "lt-ana");
+        verificarIgual("{}", sistema.getSolicitacoesPendentes("lt-bia"), "solicitação aceita");
+        verificar(sistema.ehAmigoMutuo("lt-ana", "lt-bia"), "amizade mútua");
+
+        sistema.adicionarIdolo(ana, "lt-bia");
+        verificar(sistema.ehFa("lt-ana", "lt-bia"), "Ana é fã de Bia");
+        verificar(!sistema.ehFa("lt-bia", "lt-ana"), "Bia não é fã de Ana");
+
+        sistema.adicionarPaquera(ana, "lt-bia");
+        verificarIgual("{lt-bia}", sistema.getPaqueras(ana), "paqueras de Ana");
+        verificar(sistema.ehPaquera(ana, "lt-bia"), "Bia é paquera de Ana");
+        verificarIgual("{}", sistema.getPaqueras(bia), "paqueras de Bia");
+    }
+
+    public void testeUsuarioRemovidoDeixaDeAparecer() throws Exception {
+        sistema.criarUsuario("lt-caio", "s", "Caio");
+        sistema.criarUsuario("lt-dani", "s", "Dani");
+        String caio = sistema.abrirSessao("lt-caio", "s");
+        sistema.adicionarAmigo(caio, "lt-dani");
+        sistema.adicionarIdolo(caio, "lt-dani");
+        sistema.adicionarPaquera(caio, "lt-dani");
+
+        sistema.removerUsuario("lt-caio");
+
+        verificarIgual("{}", sistema.getSolicitacoesPendentes("lt-dani"), "solicitação do removido");
+        verificarIgual("{}", sistema.getFas("lt-dani"), "fãs após a remoção");
+        verificarExcecao(UsuarioNaoEncontradoException.class, () -> sistema.ehFa("lt-caio", "lt-dani"));
+        verificarExcecao(UsuarioNaoEncontradoException.class, () -> sistema.ehAmigoMutuo("lt-dani", "lt-caio"));
+    }
+
+    public void testeRemovidoNaoReapareceDuranteOExpurgo() throws Exception {
+        for (int rodada = 0; rodada < 20; rodada++) {
+            String dono = "lt-eva" + rodada;
+            String removido = "lt-fabi" + rodada;
+            String comunidade = "lt-clube" + rodada;
+            sistema.criarUsuario(dono, "s", "Eva");
+            sistema.criarUsuario(removido, "s", "Fabi");
+            sistema.adicionarAmigo(sistema.abrirSessao(dono, "s"), removido);
+            sistema.adicionarAmigo(sistema.abrirSessao(removido, "s"), dono);
+            sistema.criarComunidade(comunidade, "Clube", dono);
+            sistema.adicionarComunidade(comunidade, removido);
+
+            AtomicBoolean removeu = new AtomicBoolean();
+            AtomicBoolean parar = new AtomicBoolean();
+            AtomicReference<String> visto = new AtomicReference<>();
+            Thread leitora = new Thread(() -> {
+                try {
+                    while (!parar.get()) {
+                        boolean depois = removeu.get();
+                        List<String> membros = sistema.getMembrosComunidade(comunidade);
+                        String amigos = sistema.getAmigos(dono);
+                        if (depois && (membros.contains(removido) || amigos.contains(removido))) {
+                            visto.compareAndSet(null, "membros " + membros + ", amigos " + amigos);
+                        }
+                    }
+                } catch (Exception e) {
+                    visto.compareAndSet(null, e.toString());
+                }
+            });
+            leitora.start();
+            sistema.removerUsuario(removido);
+            removeu.set(true);
+            long limite = System.nanoTime() + 5_000_000_000L;
+            while (sistema.getMetricasExpurgo().getUsuariosPendentes() > 0 && System.nanoTime() < limite) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(5);
+            parar.set(true);
+            leitora.join();
+            verificarIgual(null, visto.get(), "removido visto pelas leituras durante o expurgo");
+            verificarIgual("[" + dono + "]", sistema.getMembrosComunidade(comunidade).toString(), "membros após o expurgo");
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package br.ufal.ic.p2.jackut;
+
+import br.ufal.ic.p2.jackut.Exceptions.SemRecadoException;
+import br.ufal.ic.p2.jackut.Exceptions.UsuarioNaoEncontradoException;
+import br.ufal.ic.p2.jackut.Persistencia.SnapshotBinario;
+import br.ufal.ic.p2.jackut.Persistencia.UsuariosSobDemanda;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes de ida e volta do snapshot: o estado gravado por {@link Jackut#encerrarSistema()}
+ * deve ser o mesmo depois de {@link Jackut#iniciarSistema()}, em cada forma de armazenamento
+ * da tabela {@link #MODOS},
+ * e depois que a compactação incorpora os deltas a uma nova base. Um snapshot ilegível
+ * interrompe a inicialização sem alterar os arquivos.
+ */
+public class JackutSnapshotTeste {
+
+    /** Propriedades de configuração alteradas pelos testes, retiradas ao fim de cada um. */
+    private static final String[] PROPRIEDADES = {
+            "jackut.armazenamento", "jackut.usuarios.capacidade", "jackut.snapshot.sobDemanda", "jackut.recados",
+            "jackut.snapshot.particoes"
+    };
+
+    /** Formas de armazenamento cobertas por {@link #testeIdaEVoltaEmCadaModo()}. */
+    private static final Modo[] MODOS = {
+            new Modo("heap"),
+            new Modo("particoes", "jackut.snapshot.particoes", "4")
+                    .aoVerificar((sistema, pasta) -> verificarIgual(4,
+                            contar(pasta, "arquivo\\.dat\\.g\\d+\\.p\\d+"), "partições gravadas")),
+            new Modo("sobDemanda", "jackut.snapshot.sobDemanda", "true")
+                    .aoCarregar((sistema, pasta) -> {
+                        UsuariosSobDemanda usuarios = (UsuariosSobDemanda) sistema.getUsuarios();
+                        verificarIgual(3, usuarios.quantidade(), "usuários indexados");
+                        verificarIgual(0, usuarios.getQuantidadeCarregados(), "usuários decodificados na carga");
+                    }),
+            new Modo("disco", "jackut.armazenamento", "disco", "jackut.usuarios.capacidade", "1")
+                    .aoPopular(JackutSnapshotTeste::despejar)
+                    .aoVerificar(JackutSnapshotTeste::verificarDespejo),
+            new Modo("foradoheap", "jackut.armazenamento", "foradoheap", "jackut.usuarios.capacidade", "1")
+                    .aoPopular(JackutSnapshotTeste::despejar)
+                    .aoVerificar(JackutSnapshotTeste::verificarDespejo),
+            new Modo("lsm", "jackut.armazenamento", "lsm")
+                    .aoVerificar((sistema, pasta) -> {
+                        verificar(new File(pasta, "arquivo.lsm").isDirectory(), "estado gravado na árvore");
+                        verificar(!new File(pasta, "arquivo.dat").exists(), "snapshot em arquivo não gravado");
+
+                        // Segunda gravação: apenas os registros alterados vão para a árvore
+                        sistema.criarUsuario("snp-dani", "s", "Dani");
+                        sistema.editarPerfil(sistema.abrirSessao("snp-bia", "s"), "cidade", "Recife");
+                        sistema.encerrarSistema();
+                        Jackut depois = Jackut.iniciarSistema();
+                        verificarIgual("Dani", depois.getAtributoUsuario("snp-dani", "nome"), "usuário criado");
+                        verificarIgual("Recife", depois.getAtributoUsuario("snp-bia", "cidade"), "atributo alterado");
+                        verificarIgual("Maceió", depois.getAtributoUsuario("snp-ana", "cidade"), "atributo anterior");
+                    }),
+            new Modo("mapeado", "jackut.recados", "mapeado")
+                    // O recado lido do snapshot continua à frente dos anexados ao log depois da carga
+                    .aoCarregar((sistema, pasta) ->
+                            sistema.enviarRecado(sistema.abrirSessao("snp-caio", "s"), "snp-ana", "novo"))
+                    .aoVerificar((sistema, pasta) -> {
+                        String ana = sistema.abrirSessao("snp-ana", "s");
+                        verificarIgual("novo", sistema.lerRecado(ana), "recado anexado ao log");
+                        verificarExcecao(SemRecadoException.class, () -> sistema.lerRecado(ana));
+                        sistema.encerrarSistema();
+
+                        Jackut depois = Jackut.iniciarSistema();
+                        String lida = depois.abrirSessao("snp-ana", "s");
+                        verificarExcecao(SemRecadoException.class, () -> depois.lerRecado(lida));
+                    }),
+    };
+
+    private final File diretorio;
+
+    public JackutSnapshotTeste() throws Exception {
+        diretorio = diretorioTemporario();
+        System.setProperty("jackut.diretorio", diretorio.getPath());
+        limparPropriedades();
+    }
+
+    /**
+     * Ida e volta em cada forma de armazenamento de {@link #MODOS}, cada uma em um
+     * subdiretório próprio.
+     */
+    public void testeIdaEVoltaEmCadaModo() throws Exception {
+        for (Modo modo : MODOS) {
+            File pasta = new File(diretorio, modo.nome);
+            verificar(pasta.mkdirs(), "diretório do modo " + modo.nome);
+            System.setProperty("jackut.diretorio", pasta.getPath());
+            for (int i = 0; i < modo.propriedades.length; i += 2) {
+                System.setProperty(modo.propriedades[i], modo.propriedades[i + 1]);
+            }
+            try {
+                Jackut antes = Jackut.iniciarSistema();
+                popular(antes);
+                modo.aoPopular.executar(antes, pasta);
+                antes.encerrarSistema();
+
+                Jackut depois = Jackut.iniciarSistema();
+                modo.aoCarregar.executar(depois, pasta);
+                verificarEstado(depois);
+                modo.aoVerificar.executar(depois, pasta);
+            } catch (AssertionError e) {
+                throw new AssertionError("modo " + modo.nome + ": " + e.getMessage(), e);
+            } finally {
+                limparPropriedades();
+                System.setProperty("jackut.diretorio", diretorio.getPath());
+            }
+        }
+    }
+
+    public void testeDeltaSobreASnapshotCompleta() throws Exception {
+        Jackut antes = Jackut.iniciarSistema();
+        popular(antes);
+        antes.encerrarSistema();
+
+        Jackut carregado = Jackut.iniciarSistema();
+        carregado.criarUsuario("snp-dani", "s", "Dani");
+        carregado.editarPerfil(carregado.abrirSessao("snp-bia", "s"), "cidade", "Recife");
+        verificarIgual("oi", carregado.lerRecado(carregado.abrirSessao("snp-ana", "s")), "recado antes do delta");
+        carregado.encerrarSistema();
+        File[] deltas = diretorio.listFiles((d, nome) -> nome.matches("arquivo\\.dat\\.d\\d+"));
+        verificarIgual(1, deltas == null ? 0 : deltas.length, "deltas gravados");
+
+        Jackut depois = Jackut.iniciarSistema();
+        verificarIgual("Dani", depois.getAtributoUsuario("snp-dani", "nome"), "usuário criado no delta");
+        verificarIgual("Recife", depois.getAtributoUsuario("snp-bia", "cidade"), "atributo alterado no delta");
+        verificarIgual("Maceió", depois.getAtributoUsuario("snp-ana", "cidade"), "atributo da base");
+        verificarIgual("{snp-bia}", depois.getAmigos("snp-ana"), "amigos da base");
+        String ana = depois.abrirSessao("snp-ana", "s");
+        verificarExcecao(SemRecadoException.class, () -> depois.lerRecado(ana));
+        verificarIgual("bem-vindos", depois.lerMensagem(ana), "mensagem da base");
+    }
+
+    public void testeCompactacaoIncorporaOsDeltas() throws Exception {
+        System.setProperty("jackut.snapshot.particoes", "4");
+        try {
+            Jackut antes = Jackut.iniciarSistema();
+            popular(antes);
+            antes.encerrarSistema();
+
+            Jackut primeiro = Jackut.iniciarSistema();
+            primeiro.criarUsuario("snp-dani", "s", "Dani");
+            String dani = primeiro.abrirSessao("snp-dani", "s");
+            primeiro.editarPerfil(primeiro.abrirSessao("snp-bia", "s"), "cidade", "Recife");
+            primeiro.removerUsuario("snp-caio");
+            primeiro.criarComunidade("snp-com2", "Outra", "snp-dani");
+            primeiro.encerrarSistema();
+            Jackut segundo = Jackut.iniciarSistema();
+            segundo.enviarRecado(segundo.abrirSessao("snp-bia", "s"), "snp-dani", "ola");
+            segundo.encerrarSistema();
+            verificarIgual(2, arquivos("arquivo\\.dat\\.d\\d+"), "deltas antes da compactação");
+
+            SnapshotBinario.compactar(new File(diretorio, "arquivo.dat").getPath());
+            verificarIgual(0, arquivos("arquivo\\.dat\\.d\\d+"), "deltas após a compactação");
+            verificarIgual(4, arquivos("arquivo\\.dat\\.g\\d+\\.p\\d+"), "partições da nova geração");
+
+            Jackut depois = Jackut.iniciarSistema();
+            verificarIgual("Dani", depois.getAtributoUsuario("snp-dani", "nome"), "usuário criado no delta");
+            verificarIgual(dani, depois.getSessoes().getSessao("snp-dani"), "sessão gravada no delta");
+            verificarIgual("Recife", depois.getAtributoUsuario("snp-bia", "cidade"), "atributo alterado no delta");
+            verificarIgual("Maceió", depois.getAtributoUsuario("snp-ana", "cidade"), "registro copiado da base");
+            verificarIgual("{snp-bia}", depois.getAmigos("snp-ana"), "amigos copiados da base");
+            verificarIgual("{}", depois.getSolicitacoesPendentes("snp-ana"), "solicitação do removido");
+            verificarExcecao(UsuarioNaoEncontradoException.class, () -> depois.getAtributoUsuario("snp-caio", "nome"));
+            verificarIgual(List.of("snp-dani"), depois.getMembrosComunidade("snp-com2"), "comunidade criada no delta");
+            verificarIgual(List.of("snp-ana", "snp-bia"), depois.getMembrosComunidade("snp-com"), "comunidade da base");
+            verificarIgual("ola", depois.lerRecado(depois.abrirSessao("snp-dani", "s")), "recado do segundo delta");
+        } finally {
+            limparPropriedades();
+        }
+    }
+
+    public void testeFalhaNaCargaMantemOsArquivos() throws Exception {
+        Jackut antes = Jackut.iniciarSistema();
+        popular(antes);
+        antes.encerrarSistema();
+        File[] particoes = diretorio.listFiles((d, nome) -> nome.matches("arquivo\\.dat\\.g\\d+\\.p\\d+"));
+        verificar(particoes != null && particoes.length > 0 && particoes[0].delete(), "partição apagada");
+        Map<String, byte[]> arquivos = conteudo();
+
+        verificarExcecao(UncheckedIOException.class, Jackut::iniciarSistema);
+        Map<String, byte[]> depois = conteudo();
+        verificarIgual(arquivos.keySet(), depois.keySet(), "arquivos após a falha");
+        for (Map.Entry<String, byte[]> arquivo : arquivos.entrySet()) {
+            verificar(Arrays.equals(arquivo.getValue(), depois.get(arquivo.getKey())), "conteúdo de " + arquivo.getKey());
+        }
+    }
+
+    public void testeSnapshotOnlineComJournalPosterior() throws Exception {
+        Jackut antes = Jackut.iniciarSistema();
+        popular(antes);
+        CompletableFuture<Void> gravacao = antes.gravarSnapshotOnline();
+        // Alterações durante e depois da gravação ficam apenas no journal
+        antes.enviarRecado(antes.abrirSessao("snp-caio", "s"), "snp-ana", "depois");
+        antes.criarUsuario("snp-dani", "s", "Dani");
+        gravacao.join();
+        antes.confirmarJournal();
+
+        // Sem encerrarSistema: a carga lê a imagem e reproduz o journal após o seu LSN
+        Jackut depois = Jackut.iniciarSistema();
+        verificarIgual("Dani", depois.getAtributoUsuario("snp-dani", "nome"), "usuário criado após a imagem");
+        String ana = depois.abrirSessao("snp-ana", "s");
+        verificarIgual("oi", depois.lerRecado(ana), "recado da imagem");
+        verificarIgual("depois", depois.lerRecado(ana), "recado do journal");
+        verificarExcecao(SemRecadoException.class, () -> depois.lerRecado(ana));
+        verificarIgual("{snp-bia}", depois.getAmigos("snp-ana"), "amigos da imagem");
+    }
+
+    /**
+     * Cria usuários com atributos, amizade, solicitação pendente, ídolo, paquera, recado e uma
+     * comunidade com mensagem não lida.
+     */
+    private static void popular(Jackut sistema) throws Exception {
+        sistema.criarUsuario("snp-ana", "s", "Ana");
+        sistema.criarUsuario("snp-bia", "s", "Bia");
+        sistema.criarUsuario("snp-caio", "s", "Caio");
+        String ana = sistema.abrirSessao("snp-ana", "s");
+        String bia = sistema.abrirSessao("snp-bia", "s");
+        String caio = sistema.abrirSessao("snp-caio", "s");
+        sistema.editarPerfil(ana, "cidade", "Maceió");
+        sistema.adicionarAmigo(ana, "snp-bia");
+        sistema.adicionarAmigo(bia, "snp-ana");
+        sistema.adicionarAmigo(caio, "snp-ana");
+        sistema.adicionarIdolo(ana, "snp-bia");
+        sistema.adicionarPaquera(ana, "snp-caio");
+        sistema.enviarRecado(bia, "snp-ana", "oi");
+        sistema.criarComunidade("snp-com", "Comunidade", "snp-ana");
+        sistema.adicionarComunidade("snp-com", "snp-bia");
+        sistema.enviarMensagem(bia, "snp-com", "bem-vindos");
+        sistema.aguardarEntregas();
+    }
+
+    private static void verificarEstado(Jackut sistema) throws Exception {
+        String ana = sistema.abrirSessao("snp-ana", "s");
+        verificarIgual("Maceió", sistema.getAtributoUsuario("snp-ana", "cidade"), "atributo");
+        verificarIgual("Bia", sistema.getAtributoUsuario("snp-bia", "nome"), "nome");
+        verificarIgual("{snp-bia}", sistema.getAmigos("snp-ana"), "amigos");
+        verificarIgual("{snp-caio}", sistema.getSolicitacoesPendentes("snp-ana"), "solicitações pendentes");
+        verificar(sistema.ehFa("snp-ana", "snp-bia"), "Ana é fã de Bia");
+        verificarIgual("{snp-ana}", sistema.getFas("snp-bia"), "fãs de Bia");
+        verificar(sistema.ehPaquera(ana, "snp-caio"), "Caio é paquera de Ana");
+        verificarIgual("oi", sistema.lerRecado(ana), "recado");
+        verificarIgual(List.of("snp-ana", "snp-bia"), sistema.getMembrosComunidade("snp-com"), "membros");
+        verificarIgual(List.of("snp-com"), sistema.getComunidadesDoUsuario("snp-bia"), "comunidades de Bia");
+        verificarIgual("bem-vindos", sistema.lerMensagem(ana), "mensagem da comunidade");
+    }
+
+    /**
+     * Usuários além da janela de registros recentes, que nunca são despejados: com um único
+     * usuário residente, os demais vão para o armazenamento e são relidos dele.
+     */
+    private static void despejar(Jackut sistema, File pasta) throws Exception {
+        for (int i = 0; i < 8; i++) {
+            sistema.criarUsuario("snp-extra-" + i, "s", "Extra " + i);
+        }
+        verificar(sistema.getMetricasCache().getDespejos() > 0, "usuários despejados antes da gravação");
+    }
+
+    private static void verificarDespejo(Jackut sistema, File pasta) throws Exception {
+        for (int i = 0; i < 8; i++) {
+            verificarIgual("Extra " + i, sistema.getAtributoUsuario("snp-extra-" + i, "nome"), "usuário extra");
+        }
+        verificar(sistema.getMetricasCache().getDespejos() > 0, "usuários despejados após a carga");
+        verificarIgual("Maceió", sistema.getAtributoUsuario("snp-ana", "cidade"), "atributo relido");
+        verificarIgual("{snp-bia}", sistema.getAmigos("snp-ana"), "amigos relidos");
+    }
+
+    private static int contar(File pasta, String padrao) {
+        File[] encontrados = pasta.listFiles((d, nome) -> nome.matches(padrao));
+        return encontrados == null ? 0 : encontrados.length;
+    }
+
+    /**
+     * Forma de armazenamento: propriedades de configuração, em pares nome e valor, e etapas
+     * próprias do modo executadas depois de popular, logo após a carga e depois da
+     * verificação do estado comum.
+     */
+    private static final class Modo {
+        final String nome;
+        final String[] propriedades;
+        Etapa aoPopular = (sistema, pasta) -> { };
+        Etapa aoCarregar = (sistema, pasta) -> { };
+        Etapa aoVerificar = (sistema, pasta) -> { };
+
+        Modo(String nome, String... propriedades) {
+            this.nome = nome;
+            this.propriedades = propriedades;
+        }
+
+        Modo aoPopular(Etapa etapa) {
+            aoPopular = etapa;
+            return this;
+        }
+
+        Modo aoCarregar(Etapa etapa) {
+            aoCarregar = etapa;
+            return this;
+        }
+
+        Modo aoVerificar(Etapa etapa) {
+            aoVerificar = etapa;
+            return this;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Etapa {
+        void executar(Jackut sistema, File pasta) throws Exception;
+    }
+
+    private Map<String, byte[]> conteudo() throws IOException {
+        Map<String, byte[]> arquivos = new TreeMap<>();
+        for (File arquivo : diretorio.listFiles()) {
+            arquivos.put(arquivo.getName(), arquivo.isFile() ? Files.readAllBytes(arquivo.toPath()) : new byte[0]);
+        }
+        return arquivos;
+    }
+
+    private int arquivos(String padrao) {
+        return contar(diretorio, padrao);
+    }
+
+    private static void limparPropriedades() {
+        for (String propriedade : PROPRIEDADES) {
+            System.clearProperty(propriedade);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes da {@link ArvoreLsm} e do seu {@link FiltroBloom}: leituras através da tabela em
+ * memória e das tabelas gravadas, recuperação do registro após uma queda e compactação.
+ */
+public class ArvoreLsmTeste {
+
+    private final File diretorio;
+
+    public ArvoreLsmTeste() throws IOException {
+        diretorio = new File(diretorioTemporario(), "arvore");
+    }
+
+    public void testeGravarLerERemover() throws IOException {
+        ArvoreLsm arvore = ArvoreLsm.abrir(diretorio);
+        try {
+            arvore.gravar("a", bytes("1"));
+            arvore.gravar("b", bytes("2"));
+            arvore.gravar("a", bytes("3"));
+            arvore.remover("b");
+            verificarIgual("3", texto(arvore.ler("a")), "valor sobrescrito");
+            verificar(arvore.ler("b") == null, "chave removida");
+            verificar(arvore.ler("c") == null, "chave inexistente");
+        } finally {
+            arvore.close();
+        }
+    }
+
+    public void testeRecuperaRegistroAposQueda() throws IOException {
+        ArvoreLsm arvore = ArvoreLsm.abrir(diretorio);
+        arvore.gravar("usuario:ana", bytes("Ana"));
+        arvore.descarregar();
+        arvore.gravar("usuario:bia", bytes("Bia"));
+        arvore.remover("usuario:ana");
+        // Sem descarregar: as duas últimas escritas estão apenas no registro
+        arvore.close();
+
+        ArvoreLsm reaberta = ArvoreLsm.abrir(diretorio);
+        try {
+            verificarIgual("Bia", texto(reaberta.ler("usuario:bia")), "escrita recuperada do registro");
+            verificar(reaberta.ler("usuario:ana") == null, "remoção recuperada do registro");
+        } finally {
+            reaberta.close();
+        }
+    }
+
+    public void testeCompactacaoPreservaValoresMaisNovos() throws Exception {
+        ArvoreLsm arvore = ArvoreLsm.abrir(diretorio);
+        try {
+            for (int rodada = 0; rodada < ArvoreLsm.GATILHO_NIVEL0 + 1; rodada++) {
+                for (int i = 0; i < 50; i++) {
+                    arvore.gravar(String.format("k%03d", i), bytes(rodada + ":" + i));
+                }
+                arvore.remover(String.format("k%03d", rodada));
+                arvore.descarregar();
+            }
+            long limite = System.nanoTime() + 10_000_000_000L;
+            while (arvore.getQuantidadeTabelas(0) >= ArvoreLsm.GATILHO_NIVEL0 && System.nanoTime() < limite) {
+                Thread.sleep(5);
+            }
+            verificar(arvore.getQuantidadeTabelas(0) < ArvoreLsm.GATILHO_NIVEL0, "nível 0 compactado");
+
+            int ultima = ArvoreLsm.GATILHO_NIVEL0;
+            for (int i = 0; i < 50; i++) {
+                String chave = String.format("k%03d", i);
+                if (i == ultima) {
+                    verificar(arvore.ler(chave) == null, "removida na última rodada: " + chave);
+                } else {
+                    verificarIgual(ultima + ":" + i, texto(arvore.ler(chave)), "valor mais novo de " + chave);
+                }
+            }
+
+            List<String> chaves = new ArrayList<>();
+            arvore.varrer("k00", false, (chave, valor) -> chaves.add(chave));
+            verificarIgual(List.of("k000", "k001", "k002", "k003", "k005", "k006", "k007", "k008", "k009"),
+                    chaves, "varredura ordenada sem a chave removida");
+        } finally {
+            arvore.close();
+        }
+    }
+
+    public void testeFiltroBloomSemFalsosNegativos() {
+        FiltroBloom filtro = new FiltroBloom(1000);
+        for (int i = 0; i < 1000; i++) {
+            filtro.adicionar("presente-" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            verificar(filtro.talvezContenha("presente-" + i), "falso negativo para presente-" + i);
+        }
+        int falsosPositivos = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filtro.talvezContenha("ausente-" + i)) {
+                falsosPositivos++;
+            }
+        }
+        // Com 10 bits por chave a taxa esperada é de cerca de 1%
+        verificar(falsosPositivos < 300, "falsos positivos demais: " + falsosPositivos + " em 10000");
+
+        SaidaBinaria saida = new SaidaBinaria();
+        filtro.escrever(saida);
+        FiltroBloom lido = FiltroBloom.ler(new EntradaBinaria(ByteBuffer.wrap(saida.paraBytes())));
+        for (int i = 0; i < 1000; i++) {
+            verificar(lido.talvezContenha("presente-" + i), "filtro lido perdeu presente-" + i);
+        }
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String texto(byte[] bytes) {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+}
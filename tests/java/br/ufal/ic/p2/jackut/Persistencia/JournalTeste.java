@@ -0,0 +1,141 @@
+package br.ufal.ic.p2.jackut.Persistencia;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static br.ufal.ic.p2.jackut.Verificacoes.*;
+
+/**
+ * Testes do {@link Journal}: reprodução dos registros após um LSN, argumentos nulos, descarte
+ * de uma cauda incompleta ou corrompida e recusa de registros depois de uma falha.
+ */
+public class JournalTeste {
+
+    private final File arquivo;
+
+    public JournalTeste() throws IOException {
+        arquivo = new File(diretorioTemporario(), "teste.journal");
+    }
+
+    public void testeReproduzApenasRegistrosAposOLsn() throws IOException {
+        gravar("ana", "bia", "caio");
+
+        Journal journal = new Journal(arquivo.getPath(), 1);
+        try {
+            verificarIgual(List.of("bia", "caio"), argumentos(journal, 1), "registros após o LSN 1");
+            verificarIgual(List.of(), argumentos(journal, 3), "registros após o último LSN");
+            verificarIgual(3L, journal.getUltimoLsn(), "último LSN reproduzido");
+            verificarIgual(4L, journal.registrar(Journal.Operacao.CRIAR_USUARIO, "dani"), "LSN seguinte");
+        } finally {
+            journal.close();
+        }
+    }
+
+    public void testeLsnMinimoNumJournalVazio() throws IOException {
+        Journal journal = new Journal(arquivo.getPath(), 10);
+        try {
+            verificarIgual(10L, journal.registrar(Journal.Operacao.CRIAR_USUARIO, "ana"), "primeiro LSN");
+        } finally {
+            journal.close();
+        }
+    }
+
+    public void testeCaudaIncompletaEhDescartada() throws IOException {
+        gravar("ana", "bia");
+        long valido = arquivo.length();
+        try (RandomAccessFile raf = new RandomAccessFile(arquivo, "rw")) {
+            // Queda no meio de um registro: cabeçalho de 100 bytes e apenas parte do corpo
+            raf.seek(valido);
+            raf.writeInt(100);
+            raf.write(new byte[]{0, 0, 0, 0, 0, 0, 0, 3, 1});
+        }
+
+        Journal journal = new Journal(arquivo.getPath(), 1);
+        try {
+            verificarIgual(valido, journal.getTamanhoValido(), "parte válida");
+            verificarIgual(valido, arquivo.length(), "cauda truncada na abertura");
+            verificarIgual(List.of("ana", "bia"), argumentos(journal, 0), "registros íntegros");
+            verificarIgual(3L, journal.registrar(Journal.Operacao.CRIAR_USUARIO, "caio"), "LSN após a cauda");
+            journal.commit();
+        } finally {
+            journal.close();
+        }
+
+        Journal reaberto = new Journal(arquivo.getPath(), 1);
+        try {
+            verificarIgual(List.of("ana", "bia", "caio"), argumentos(reaberto, 0), "registro anexado após a cauda");
+        } finally {
+            reaberto.close();
+        }
+    }
+
+    public void testeRegistroCorrompidoNoFimEhDescartado() throws IOException {
+        gravar("ana", "bia");
+        try (RandomAccessFile raf = new RandomAccessFile(arquivo, "rw")) {
+            // Altera o último byte do argumento do último registro, antes do CRC
+            long posicao = raf.length() - Integer.BYTES - 1;
+            raf.seek(posicao);
+            int original = raf.read();
+            raf.seek(posicao);
+            raf.write(original ^ 0xFF);
+        }
+
+        Journal journal = new Journal(arquivo.getPath(), 1);
+        try {
+            verificarIgual(List.of("ana"), argumentos(journal, 0), "registro com CRC inválido descartado");
+            verificarIgual(1L, journal.getUltimoLsn(), "último LSN válido");
+        } finally {
+            journal.close();
+        }
+    }
+
+    public void testeArgumentoNuloEhReproduzidoComoNulo() throws IOException {
+        Journal journal = new Journal(arquivo.getPath(), 1);
+        try {
+            journal.registrar(Journal.Operacao.EDITAR_PERFIL, "sessao", "cidade", null);
+            journal.registrar(Journal.Operacao.EDITAR_PERFIL, "sessao", "cidade", "");
+            journal.commit();
+            List<String> valores = new ArrayList<>();
+            journal.reproduzir(0, r -> valores.add(r.getArgumento(2)));
+            verificarIgual(Arrays.asList(null, ""), valores, "nulo e vazio distintos");
+        } finally {
+            journal.close();
+        }
+    }
+
+    public void testeFalhaRecusaNovosRegistros() throws IOException {
+        Journal journal = new Journal(arquivo.getPath(), 1);
+        journal.close();
+
+        // O registro fica no buffer; a sincronização com o canal fechado falha
+        journal.registrar(Journal.Operacao.CRIAR_USUARIO, "ana");
+        verificarExcecao(IOException.class, journal::commit);
+        verificar(journal.getFalha() != null, "falha registrada");
+        IOException recusa = verificarExcecao(IOException.class,
+                () -> journal.registrar(Journal.Operacao.CRIAR_USUARIO, "bia"));
+        verificar(recusa.getCause() == journal.getFalha(), "recusa informa a falha original");
+        verificarExcecao(IOException.class, journal::commit);
+    }
+
+    /** Grava um registro CRIAR_USUARIO por login, com LSN a partir de 1, e fecha o diário. */
+    private void gravar(String... logins) throws IOException {
+        Journal journal = new Journal(arquivo.getPath(), 1);
+        try {
+            for (String login : logins) {
+                journal.registrar(Journal.Operacao.CRIAR_USUARIO, login);
+            }
+        } finally {
+            journal.close();
+        }
+    }
+
+    private static List<String> argumentos(Journal journal, long aposLsn) throws IOException {
+        List<String> lidos = new ArrayList<>();
+        journal.reproduzir(aposLsn, r -> lidos.add(r.getArgumento(0)));
+        return lidos;
+    }
+}
@@ -0,0 +1,100 @@
+package br.ufal.ic.p2.jackut;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Verificações e utilitários compartilhados pelos testes de unidade, executados por
+ * {@code Testes}.
+ * <p>
+ * Uma verificação que não se confirma lança {@link AssertionError} com a mensagem do que era
+ * esperado; o executor registra a falha e segue para o próximo teste.
+ * </p>
+ */
+public final class Verificacoes {
+
+    /**
+     * Operação de um teste que pode lançar exceções.
+     */
+    @FunctionalInterface
+    public interface Operacao {
+        void executar() throws Exception;
+    }
+
+    private Verificacoes() {
+    }
+
+    /**
+     * @param condicao Condição esperada
+     * @param mensagem Descrição do que era esperado
+     */
+    public static void verificar(boolean condicao, String mensagem) {
+        if (!condicao) {
+            throw new AssertionError(mensagem);
+        }
+    }
+
+    /**
+     * @param esperado Valor esperado
+     * @param obtido Valor obtido
+     * @param mensagem Descrição do valor comparado
+     */
+    public static void verificarIgual(Object esperado, Object obtido, String mensagem) {
+        if (!Objects.equals(esperado, obtido)) {
+            throw new AssertionError(mensagem + ": esperado <" + esperado + "> mas foi <" + obtido + ">");
+        }
+    }
+
+    /**
+     * Executa uma operação que deve lançar uma exceção do tipo informado.
+     *
+     * @param tipo Tipo da exceção esperada
+     * @param operacao Operação executada
+     * @param <E> Tipo da exceção
+     * @return Exceção lançada
+     */
+    public static <E extends Throwable> E verificarExcecao(Class<E> tipo, Operacao operacao) {
+        try {
+            operacao.executar();
+        } catch (Throwable e) {
+            if (tipo.isInstance(e)) {
+                return tipo.cast(e);
+            }
+            throw new AssertionError("esperada " + tipo.getSimpleName() + " mas foi lançada " + e, e);
+        }
+        throw new AssertionError("esperada " + tipo.getSimpleName() + " mas nada foi lançado");
+    }
+
+    /**
+     * Cria um diretório temporário vazio, apagado ao fim da execução dos testes.
+     *
+     * @return Diretório criado
+     * @throws IOException Se o diretório não puder ser criado
+     */
+    public static File diretorioTemporario() throws IOException {
+        File diretorio = Files.createTempDirectory("jackut-teste").toFile();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> apagar(diretorio)));
+        return diretorio;
+    }
+
+    /**
+     * Apaga um diretório e todo o seu conteúdo.
+     *
+     * @param diretorio Diretório a apagar
+     */
+    public static void apagar(File diretorio) {
+        if (!diretorio.exists()) {
+            return;
+        }
+        try (Stream<Path> caminhos = Files.walk(diretorio.toPath())) {
+            caminhos.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            System.err.println("Erro ao apagar " + diretorio + ": " + e.getMessage());
+        }
+    }
+}